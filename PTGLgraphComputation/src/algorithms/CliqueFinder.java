@@ -0,0 +1,449 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package algorithms;
+
+import datastructures.CompressedSparseGraph;
+import datastructures.SimpleGraphInterface;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the cliques of an undirected graph. The vertex sets are bitsets (long arrays), so intersecting a candidate set with the neighbors
+ * of a vertex costs a few word operations.
+ *
+ * All maximal cliques are found with the Bron-Kerbosch algorithm with the pivot rule of Tomita et al. (the pivot leaves the fewest candidates),
+ * where the vertices of the outermost level are handled in degeneracy order (Eppstein, Löffler and Strash), which keeps the candidate
+ * sets small. A maximum clique is found by branch and bound with greedy colouring bounds (Tomita's MCQ, with bitsets as in San Segundo's
+ * BBMC).
+ *
+ * The search on large graphs, like the compatibility graph of two protein graphs, can take very long. A time budget and a maximal number of
+ * cliques can be set, the search stops when it is used up (see isBudgetExceeded()) and returns what it found so far.
+ */
+public class CliqueFinder {
+
+    /** How many recursive calls are done between two checks of the time budget. */
+    private static final int CALLS_PER_TIME_CHECK = 1024;
+
+    private final int n;
+    private final int words;
+    private final long[][] adj;           // the neighbors of each vertex as a bitset
+
+    private long timeLimitMillis = 0L;
+    private int maxCliques = 0;
+    private int minCliqueSize = 1;
+
+    // the state of the current search
+    private long deadline;
+    private int calls;
+    private boolean budgetExceeded;
+    private List<Set<Integer>> cliques;
+    private int[] bestClique;
+    private int bestSize;
+
+
+    /**
+     * Creates a clique finder for the graph g. Later changes of g are not reflected.
+     * @param g the graph
+     */
+    public CliqueFinder(SimpleGraphInterface g) {
+        CompressedSparseGraph<?, ?> csr = (g instanceof CompressedSparseGraph ? (CompressedSparseGraph<?, ?>) g : CompressedSparseGraph.fromSimpleGraph(g));
+        this.n = csr.getNumVertices();
+        this.words = (n + 63) >>> 6;
+        this.adj = new long[n][words];
+        int[] offsets = csr.getNeighborOffsets();
+        int[] neighbors = csr.getNeighborArray();
+        for(int v = 0; v < n; v++) {
+            for(int k = offsets[v]; k < offsets[v + 1]; k++) {
+                if(neighbors[k] != v) {
+                    set(adj[v], neighbors[k]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Sets the time budget of each search.
+     * @param millis the time in milliseconds, 0 for no limit
+     */
+    public void setTimeLimitMillis(long millis) {
+        this.timeLimitMillis = millis;
+    }
+
+
+    /**
+     * Sets the maximal number of cliques reported by findMaximalCliques().
+     * @param max the number of cliques, 0 for no limit
+     */
+    public void setMaxCliques(int max) {
+        this.maxCliques = max;
+    }
+
+
+    /**
+     * Sets the minimal size of the cliques reported by findMaximalCliques(). Smaller maximal cliques are skipped, and the branches of the search which can
+     * not lead to a clique of this size are pruned.
+     * @param min the minimal clique size, default is 1
+     */
+    public void setMinCliqueSize(int min) {
+        this.minCliqueSize = min;
+    }
+
+
+    /**
+     * Returns whether the last search stopped early because the time budget or the maximal number of cliques was used up.
+     * @return true if the result of the last search may be incomplete (or, for findMaximumClique(), not maximum)
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+
+    /**
+     * Finds all maximal (= non-extendable) cliques. Note that these are NOT only the largest cliques in the graph but all maximal ones.
+     * @return the maximal cliques, each as a set of vertex indices
+     */
+    public List<Set<Integer>> findMaximalCliques() {
+        startSearch();
+        cliques = new ArrayList<>();
+        int[] order = degeneracyOrder();
+        long[] earlier = new long[words];
+        int[] r = new int[n];
+
+        for(int v : order) {
+            long[] p = new long[words];
+            long[] x = new long[words];
+            for(int w = 0; w < words; w++) {
+                p[w] = adj[v][w] & ~earlier[w];
+                x[w] = adj[v][w] & earlier[w];
+            }
+            r[0] = v;
+            expandMaximal(r, 1, p, x);
+            if(budgetExceeded) {
+                break;
+            }
+            set(earlier, v);
+        }
+        return cliques;
+    }
+
+
+    /**
+     * The Bron-Kerbosch recursion with pivoting.
+     * @param r the current clique, in r[0] to r[rSize - 1]
+     * @param rSize the size of the current clique
+     * @param p the candidates which extend r
+     * @param x the vertices which extend r but were handled already
+     */
+    private void expandMaximal(int[] r, int rSize, long[] p, long[] x) {
+        if(outOfTime()) {
+            return;
+        }
+        int pSize = cardinality(p);
+        if(pSize == 0) {
+            if(isEmpty(x) && rSize >= minCliqueSize) {
+                Set<Integer> clique = new HashSet<>();
+                for(int k = 0; k < rSize; k++) {
+                    clique.add(r[k]);
+                }
+                cliques.add(clique);
+                if(maxCliques > 0 && cliques.size() >= maxCliques) {
+                    budgetExceeded = true;
+                }
+            }
+            return;
+        }
+        if(rSize + pSize < minCliqueSize) {
+            return;
+        }
+
+        // the pivot u is the vertex of P and X with most neighbors in P, only the candidates which are not adjacent to it are branched on
+        int u = -1;
+        int most = -1;
+        for(int w = 0; w < words; w++) {
+            long bits = p[w] | x[w];
+            while(bits != 0L) {
+                int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int inP = intersectionSize(p, adj[c]);
+                if(inP > most) {
+                    most = inP;
+                    u = c;
+                }
+            }
+        }
+
+        long[] branch = new long[words];
+        for(int w = 0; w < words; w++) {
+            branch[w] = p[w] & ~adj[u][w];
+        }
+        for(int w = 0; w < words; w++) {
+            while(branch[w] != 0L) {
+                int v = (w << 6) + Long.numberOfTrailingZeros(branch[w]);
+                branch[w] &= branch[w] - 1;
+
+                long[] newP = new long[words];
+                long[] newX = new long[words];
+                for(int k = 0; k < words; k++) {
+                    newP[k] = p[k] & adj[v][k];
+                    newX[k] = x[k] & adj[v][k];
+                }
+                r[rSize] = v;
+                expandMaximal(r, rSize + 1, newP, newX);
+                if(budgetExceeded) {
+                    return;
+                }
+                clear(p, v);
+                set(x, v);
+            }
+        }
+    }
+
+
+    /**
+     * Finds a maximum clique, i.e., one of the largest cliques.
+     * @return the vertex indices of a maximum clique, empty if the graph is empty. If the budget was exceeded, this is the largest clique found so far.
+     */
+    public Set<Integer> findMaximumClique() {
+        startSearch();
+        bestClique = new int[0];
+        bestSize = 0;
+
+        // vertices of the highest cores first: the colouring then assigns few colours to the dense part, which gives tight bounds early
+        int[] order = degeneracyOrder();
+        int[] byPos = new int[n];                // vertex at each bit position
+        int[] posOf = new int[n];
+        for(int k = 0; k < n; k++) {
+            byPos[k] = order[n - 1 - k];
+            posOf[byPos[k]] = k;
+        }
+        long[][] padj = new long[n][words];
+        for(int k = 0; k < n; k++) {
+            long[] nb = adj[byPos[k]];
+            for(int w = 0; w < words; w++) {
+                long bits = nb[w];
+                while(bits != 0L) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    set(padj[k], posOf[c]);
+                }
+            }
+        }
+
+        long[] p = new long[words];
+        for(int k = 0; k < n; k++) {
+            set(p, k);
+        }
+        expandMaximum(padj, new int[n], 0, p);
+
+        Set<Integer> clique = new HashSet<>();
+        for(int k = 0; k < bestSize; k++) {
+            clique.add(byPos[bestClique[k]]);
+        }
+        return clique;
+    }
+
+
+    /**
+     * The branch and bound recursion of the maximum clique search.
+     * @param padj the adjacency bitsets in the order of the bit positions
+     * @param r the current clique, in r[0] to r[rSize - 1]
+     * @param rSize the size of the current clique
+     * @param p the candidates which extend r
+     */
+    private void expandMaximum(long[][] padj, int[] r, int rSize, long[] p) {
+        if(outOfTime()) {
+            return;
+        }
+
+        // greedy colouring of P: the vertices in colour classes 1 .. k, no clique in P is larger than k
+        int pSize = cardinality(p);
+        int[] vertices = new int[pSize];
+        int[] colours = new int[pSize];
+        long[] uncoloured = p.clone();
+        long[] available = new long[words];
+        int num = 0;
+        int colour = 0;
+        while(num < pSize) {
+            colour++;
+            System.arraycopy(uncoloured, 0, available, 0, words);
+            for(int w = 0; w < words; w++) {
+                while(available[w] != 0L) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(available[w]);
+                    available[w] &= available[w] - 1;
+                    for(int k = w; k < words; k++) {
+                        available[k] &= ~padj[v][k];
+                    }
+                    clear(uncoloured, v);
+                    vertices[num] = v;
+                    colours[num] = colour;
+                    num++;
+                }
+            }
+        }
+
+        // branch on the vertices with the highest colours first, stop when the bound shows that no larger clique can be found
+        for(int k = pSize - 1; k >= 0; k--) {
+            if(rSize + colours[k] <= bestSize) {
+                return;
+            }
+            int v = vertices[k];
+            r[rSize] = v;
+            long[] newP = new long[words];
+            boolean empty = true;
+            for(int w = 0; w < words; w++) {
+                newP[w] = p[w] & padj[v][w];
+                empty &= (newP[w] == 0L);
+            }
+            if(empty) {
+                if(rSize + 1 > bestSize) {
+                    bestSize = rSize + 1;
+                    bestClique = Arrays.copyOf(r, bestSize);
+                }
+            }
+            else {
+                expandMaximum(padj, r, rSize + 1, newP);
+                if(budgetExceeded) {
+                    return;
+                }
+            }
+            clear(p, v);
+        }
+    }
+
+
+    /**
+     * Computes a degeneracy ordering: repeatedly removes a vertex of minimal degree in the remaining graph.
+     * @return the vertices in the order of removal
+     */
+    private int[] degeneracyOrder() {
+        int[] deg = new int[n];
+        int maxDeg = 0;
+        for(int v = 0; v < n; v++) {
+            deg[v] = cardinality(adj[v]);
+            maxDeg = Math.max(maxDeg, deg[v]);
+        }
+
+        // bucket queue: the vertices of each degree in a doubly linked list
+        int[] head = new int[maxDeg + 1];
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(head, -1);
+        for(int v = 0; v < n; v++) {
+            next[v] = head[deg[v]];
+            prev[v] = -1;
+            if(head[deg[v]] >= 0) {
+                prev[head[deg[v]]] = v;
+            }
+            head[deg[v]] = v;
+        }
+
+        boolean[] removed = new boolean[n];
+        int[] order = new int[n];
+        int d = 0;
+        for(int k = 0; k < n; k++) {
+            d = Math.max(0, d - 1);
+            while(head[d] < 0) {
+                d++;
+            }
+            int v = head[d];
+            unlink(head, next, prev, deg[v], v);
+            removed[v] = true;
+            order[k] = v;
+            for(int w = 0; w < words; w++) {
+                long bits = adj[v][w];
+                while(bits != 0L) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if( ! removed[u]) {
+                        unlink(head, next, prev, deg[u], u);
+                        deg[u]--;
+                        next[u] = head[deg[u]];
+                        prev[u] = -1;
+                        if(head[deg[u]] >= 0) {
+                            prev[head[deg[u]]] = u;
+                        }
+                        head[deg[u]] = u;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+
+    private static void unlink(int[] head, int[] next, int[] prev, int d, int v) {
+        if(prev[v] >= 0) {
+            next[prev[v]] = next[v];
+        }
+        else {
+            head[d] = next[v];
+        }
+        if(next[v] >= 0) {
+            prev[next[v]] = prev[v];
+        }
+    }
+
+
+    private void startSearch() {
+        this.budgetExceeded = false;
+        this.calls = 0;
+        this.deadline = (timeLimitMillis > 0L ? System.currentTimeMillis() + timeLimitMillis : Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Checks the time budget every CALLS_PER_TIME_CHECK calls.
+     * @return true if the budget is used up
+     */
+    private boolean outOfTime() {
+        if(++calls % CALLS_PER_TIME_CHECK == 0 && System.currentTimeMillis() > deadline) {
+            budgetExceeded = true;
+        }
+        return budgetExceeded;
+    }
+
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+
+    private static void clear(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+
+    private static boolean isEmpty(long[] bits) {
+        for(long b : bits) {
+            if(b != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static int cardinality(long[] bits) {
+        int c = 0;
+        for(long b : bits) {
+            c += Long.bitCount(b);
+        }
+        return c;
+    }
+
+
+    private static int intersectionSize(long[] a, long[] b) {
+        int c = 0;
+        for(int w = 0; w < a.length; w++) {
+            c += Long.bitCount(a[w] & b[w]);
+        }
+        return c;
+    }
+}
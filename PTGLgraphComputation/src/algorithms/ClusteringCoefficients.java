@@ -0,0 +1,255 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package algorithms;
+
+import datastructures.CompressedSparseGraph;
+import datastructures.SimpleGraphInterface;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+import tools.DP;
+
+/**
+ * The local clustering coefficients of all vertices of a graph, computed in one sweep by counting the triangles at each vertex. The
+ * triangles are counted by intersecting the sorted neighbor lists of the CSR form of the graph (see CompressedSparseGraph), in parallel
+ * for large graphs. All results of GraphMetrics which are based on the clustering coefficient can be derived from this.
+ *
+ * The local clustering coefficient follows the definition of Watts/Strogatz: the fraction of actual edges between the neighbors of a
+ * vertex versus the max possible edges between them. It is undefined for vertices with less than 2 neighbors.
+ */
+public class ClusteringCoefficients {
+
+    /** Graphs with less vertices are handled by the calling thread only. */
+    private static final int MIN_VERTICES_PARALLEL = 256;
+
+    private final int[] degrees;
+    private final int[] triangles;      // the number of edges between the neighbors of each vertex
+    private final int numEdges;
+
+
+    private ClusteringCoefficients(int[] degrees, int[] triangles, int numEdges) {
+        this.degrees = degrees;
+        this.triangles = triangles;
+        this.numEdges = numEdges;
+    }
+
+
+    /**
+     * Counts the triangles at all vertices of g.
+     * @param g the graph
+     * @return the clustering coefficients of g
+     */
+    public static ClusteringCoefficients compute(SimpleGraphInterface g) {
+        CompressedSparseGraph<?, ?> csr = (g instanceof CompressedSparseGraph ? (CompressedSparseGraph<?, ?>) g : CompressedSparseGraph.fromSimpleGraph(g));
+        int n = csr.getNumVertices();
+        int[] offsets = csr.getNeighborOffsets();
+        int[] sorted = csr.getSortedNeighborArray();
+
+        int[] degrees = new int[n];
+        int[] triangles = new int[n];
+        IntStream vertices = IntStream.range(0, n);
+        if(n >= MIN_VERTICES_PARALLEL) {
+            vertices = vertices.parallel();
+        }
+        vertices.forEach(v -> {
+            degrees[v] = offsets[v + 1] - offsets[v];
+            triangles[v] = countTriangles(offsets, sorted, v);
+        });
+        return new ClusteringCoefficients(degrees, triangles, csr.getNumEdges());
+    }
+
+
+    /**
+     * Counts the edges between the neighbors of v: each neighbor u of v contributes the common neighbors of u and v, which counts
+     * every edge twice.
+     * @param offsets the offsets of the neighbors of each vertex in sorted
+     * @param sorted the neighbors of all vertices, sorted ascending per vertex
+     * @param v the vertex
+     * @return the number of edges between the neighbors of v
+     */
+    private static int countTriangles(int[] offsets, int[] sorted, int v) {
+        int vStart = offsets[v];
+        int vEnd = offsets[v + 1];
+        int count = 0;
+        for(int k = vStart; k < vEnd; k++) {
+            int u = sorted[k];
+            int i = vStart;
+            int j = offsets[u];
+            int uEnd = offsets[u + 1];
+            while(i < vEnd && j < uEnd) {
+                if(sorted[i] < sorted[j]) {
+                    i++;
+                }
+                else if(sorted[i] > sorted[j]) {
+                    j++;
+                }
+                else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count / 2;
+    }
+
+
+    /**
+     * The number of edges between the neighbors of v divided by the max possible number of such edges, without special treatment of vertices with less than 2 neighbors.
+     */
+    private double ratio(int v) {
+        int maxPossibleEdges = (degrees[v] * (degrees[v] - 1)) / 2;       // division by 2 is due to undirectedness of graph
+        return (double) triangles[v] / (double) maxPossibleEdges;
+    }
+
+
+    /**
+     * Returns the local clustering coefficient of a vertex.
+     * @param v the vertex index
+     * @return the local CC of the vertex, or null if the vertex v has less than 2 neighbors
+     */
+    public Double getLocal(int v) {
+        if(degrees[v] < 2) {
+            return null;
+        }
+        return ratio(v);
+    }
+
+
+    /**
+     * Returns the local clustering coefficients of all vertices.
+     * @return the local CC of each vertex, by index. Double.NaN for vertices with less than 2 neighbors.
+     */
+    public double[] getLocalCoefficients() {
+        double[] lcc = new double[degrees.length];
+        for(int v = 0; v < lcc.length; v++) {
+            lcc[v] = (degrees[v] < 2 ? Double.NaN : ratio(v));
+        }
+        return lcc;
+    }
+
+
+    /**
+     * Returns the number of edges between the neighbors of a vertex, i.e., the number of triangles the vertex is part of.
+     * @param v the vertex index
+     * @return the number of triangles
+     */
+    public int getNumTriangles(int v) {
+        return triangles[v];
+    }
+
+
+    /**
+     * Returns the number of triangles in the graph.
+     * @return the number of triangles
+     */
+    public long getNumTriangles() {
+        long sum = 0L;
+        for(int t : triangles) {
+            sum += t;
+        }
+        return sum / 3;
+    }
+
+
+    /**
+     * See GraphMetrics.averageNetworkClusterCoefficient().
+     * @return the average of all defined local CCs, null if the graph is empty
+     */
+    public Double getAverage() {
+        if(degrees.length == 0) {
+            return null;
+        }
+
+        Double ancc = .0d;
+        Integer numVerts = 0;
+        for(int v = 0; v < degrees.length; v++) {
+            if(degrees[v] >= 2) {
+                ancc += ratio(v);
+                numVerts++;
+            }
+        }
+        return ancc / numVerts.doubleValue();
+    }
+
+
+    /**
+     * See GraphMetrics.averageNormalizedNetworkClusterCoefficient().
+     * @return the average of all local CCs normalized by the edge density, null if the graph is empty
+     */
+    public Double getAverageNormalized() {
+        if(degrees.length == 0) {
+            return null;
+        }
+
+        Double V = (double) degrees.length;
+        Double density = (2 * (double) numEdges) / (V * (V - 1));
+        Double ancc = .0d;
+        for(int v = 0; v < degrees.length; v++) {
+            ancc += ratio(v) / density;
+        }
+        return ancc / V;
+    }
+
+
+    /**
+     * See GraphMetrics.maximumNetworkClusterCoefficient().
+     * @return the maximum of all defined local CCs (0 if there is none), null if the graph is empty
+     */
+    public Double getMaximum() {
+        if(degrees.length == 0) {
+            return null;
+        }
+
+        Double max_cc = .0d;
+        for(int v = 0; v < degrees.length; v++) {
+            if(degrees[v] >= 2 && ratio(v) >= max_cc) {
+                max_cc = ratio(v);
+            }
+        }
+        return max_cc;
+    }
+
+
+    /**
+     * Determines the set of all vertices which have at least the given clustering coefficient.
+     * @param minClC the minimum clustering coefficient allowed for vertices to be included
+     * @return the set of all vertices which have at least the given clustering coefficient, by index. (Vertices with undefined CC are never included in the set.) Empty if minClC is not in range 0 - 1.
+     */
+    public Set<Integer> getVertexSetWithClCAtLeast(double minClC) {
+        Set<Integer> s = new HashSet<>();
+        if(minClC < 0.0 || minClC > 1.0) {
+            DP.getInstance().w("ClusteringCoefficients", "getVertexSetWithClCAtLeast: requested ClC minimum value '" + minClC + "' makes no sense, must be in range 0 - 1 (returning empty set.)");
+            return s;
+        }
+        for(int v = 0; v < degrees.length; v++) {
+            if(degrees[v] >= 2 && ratio(v) >= minClC) {
+                s.add(v);
+            }
+        }
+        return s;
+    }
+
+
+    /**
+     * Determines the set of all vertices which have at most the given clustering coefficient.
+     * @param maxClC the maximum clustering coefficient allowed for vertices to be included
+     * @return the set of all vertices which have at most the given clustering coefficient, by index. (Vertices with undefined CC are never included in the set.) Empty if maxClC is not in range 0 - 1.
+     */
+    public Set<Integer> getVertexSetWithClCAtMost(double maxClC) {
+        Set<Integer> s = new HashSet<>();
+        if(maxClC < 0.0 || maxClC > 1.0) {
+            DP.getInstance().w("ClusteringCoefficients", "getVertexSetWithClCAtMost: requested ClC maximum value '" + maxClC + "' makes no sense, must be in range 0 - 1 (returning empty set.)");
+            return s;
+        }
+        for(int v = 0; v < degrees.length; v++) {
+            if(degrees[v] >= 2 && ratio(v) <= maxClC) {
+                s.add(v);
+            }
+        }
+        return s;
+    }
+}
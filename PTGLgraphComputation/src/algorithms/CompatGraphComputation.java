@@ -234,7 +234,21 @@ public class CompatGraphComputation {
      * 
      * @return the edge compatibility graph
      */
-    public CompatGraph computeEdgeCompatibiltyGraph() {          
+    public CompatGraph computeEdgeCompatibiltyGraph() {
+        StringBuilder report = new StringBuilder();
+        CompatGraph h = computeEdgeCompatibiltyGraph(report);
+        System.out.print(report);
+        return(h);
+    }
+    
+    
+    /**
+     * Computes the edge compatibility graph of graph1 and graph2 like computeEdgeCompatibiltyGraph(), but appends the line on the size of
+     * the compatibility graph to the report instead of printing it. Used by GraphSimilarity.compareByCompatibilityGraph(StringBuilder).
+     * @param report the output is appended to this
+     * @return the edge compatibility graph
+     */
+    public CompatGraph computeEdgeCompatibiltyGraph(StringBuilder report) {          
                 
         CompatGraph h = new CompatGraph(new ArrayList<Integer[]>());                
         
@@ -305,7 +319,7 @@ public class CompatGraphComputation {
                 
         // DEBUG
         numEdgesInH = numEdgesInHFromSameLabel + numEdgesInHFromNotAdjacent;
-        System.out.println(" CompatGraph H of " + graph1.toShortString() + " and " + graph2.toShortString() + " has " + numVerticesInH + " vertices and " + numEdgesInH + " edges (SL=" + numEdgesInHFromSameLabel + ",NA=" + numEdgesInHFromNotAdjacent + ").");
+        report.append(" CompatGraph H of ").append(graph1.toShortString()).append(" and ").append(graph2.toShortString()).append(" has ").append(numVerticesInH).append(" vertices and ").append(numEdgesInH).append(" edges (SL=").append(numEdgesInHFromSameLabel).append(",NA=").append(numEdgesInHFromNotAdjacent).append(").\n");
         
         
         
@@ -7,29 +7,40 @@
  */
 package algorithms;
 
+import datastructures.CompressedSparseGraph;
 import datastructures.SimpleGraphInterface;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import proteingraphs.ProtGraph;
 import proteingraphs.ProtGraphs;
 
 /**
  * Computes the graph distances of a graph given as a SimpleGraphInterface. Lazy, only computes stuff when asked for results.
- * Uses the Floyd–Warshall algorithm.
+ * Runs a breadth-first search from every vertex over the CSR form of the graph (see CompressedSparseGraph), in parallel for large graphs. Only the eccentricities and
+ * the sums of the path lengths are kept, the full distance matrix is only computed if requested by getDistMatrix().
  * @author ts
  */
 public class GraphDistances {
     
+    /** Graphs with less vertices are handled by the calling thread only. */
+    private static final int MIN_VERTICES_PARALLEL = 256;
+    
+    /** The number of BFS sources a task handles without splitting further. */
+    private static final int SOURCES_PER_TASK = 32;
+    
     protected SimpleGraphInterface g;
     protected boolean alreadyComputed;
-    protected Integer[ ][ ] distMatrix;           // distances of the vertices within this graph
+    protected CompressedSparseGraph<?, ?> csr;    // the graph in CSR form, for the BFS
+    protected int[] eccentricities;               // the eccentricity of each vertex, only computed if the graph is connected
+    protected long pathLengthSum;                 // the sum of the distances of all ordered vertex pairs, only computed if the graph is connected
+    protected Integer[ ][ ] distMatrix;           // distances of the vertices within this graph, only computed by getDistMatrix()
     private Boolean setInfinityDistancesToMinusOne = false;
-    private static Integer DISTANCE_INFINITY = Integer.MAX_VALUE;
     protected Set<Integer> verticesOfMaxEccentricity;
     private Boolean graphIsConnected;
     
@@ -42,20 +53,40 @@ public class GraphDistances {
     
     /**
      * Sets the value returned in the matrix for vertex pairs which are not reachable from each other.
-     * @param yesOrNo if TRUE, the distances will be set to -1. If FALSE, they will be set to (or rather left at) Integer.MAX_VALUE. Setting this to true is slower, as all V*V values have to be changed.
+     * @param yesOrNo if TRUE, the distances will be set to -1. If FALSE, they will be set to (or rather left at) Integer.MAX_VALUE.
      */
     public void setInfinityDistancesToMinusOne(Boolean yesOrNo) {
         this.setInfinityDistancesToMinusOne = yesOrNo;
-        if(yesOrNo == true) {
-            GraphDistances.DISTANCE_INFINITY = -1;
-        }
-        else {
-            GraphDistances.DISTANCE_INFINITY = Integer.MAX_VALUE;
-        }
+        this.distMatrix = null;
     }
     
+    /**
+     * Checks whether the graph is connected and if so, computes the eccentricities and path length sums of all vertices. The graph
+     * is connected if a BFS from the first vertex reaches all others (the empty graph counts as connected). Only connected graphs have
+     * eccentricities, a radius, a diameter and an average shortest path length, so nothing else is computed for other graphs.
+     */
     private void compute() {
-        this.FloydWarshall();
+        int n = g.getSize();
+        this.csr = (g instanceof CompressedSparseGraph ? (CompressedSparseGraph<?, ?>) g : CompressedSparseGraph.fromSimpleGraph(g));
+        
+        if(n == 0) {
+            this.graphIsConnected = true;
+        }
+        else {
+            int[] dist = new int[n];
+            int[] queue = new int[n];
+            this.graphIsConnected = (bfs(csr.getNeighborOffsets(), csr.getNeighborArray(), 0, dist, queue) == n);
+        }
+        
+        if(this.graphIsConnected) {
+            this.eccentricities = new int[n];
+            long[] sums = new long[n];
+            runBfsFromAllSources(new BfsTask(csr.getNeighborOffsets(), csr.getNeighborArray(), 0, n, eccentricities, sums, null));
+            this.pathLengthSum = 0L;
+            for(long sum : sums) {
+                this.pathLengthSum += sum;
+            }
+        }
         this.alreadyComputed = true;
     }
     
@@ -67,91 +98,124 @@ public class GraphDistances {
         if( ! this.alreadyComputed) {
             this.compute();
         }
-        return this.distMatrix;
-    }
-    
-    private void FloydWarshall() {
-        distMatrix = new Integer[g.getSize()][g.getSize()];
-        // fill with zeros
-        for(int i = 0; i < distMatrix.length; i++) {
-            Arrays.fill(distMatrix[i], 0);
-        }
         
-        // set distance to 1 if edge exists between node pair
-        for(int i = 0; i < g.getSize(); i++) {
-            for(int j = 0; j < g.getSize(); j++) {
-                if(g.containsEdge(i, j)) {
-                    distMatrix[i][j] = 1;
-                }                
-            }
-        }
-
-        // replace 0 with +infinity
-        for(int i = 0; i < g.getSize(); i++) {
-            for(int j = 0; j < g.getSize(); j++) {
-                if(distMatrix[i][j] == 0) {
-                    distMatrix[i][j] = Integer.MAX_VALUE;
-                }
-                if(i == j) {
-                    distMatrix[i][j] = 0;
+        if(this.distMatrix == null) {
+            int n = g.getSize();
+            int[][] rows = new int[n][];
+            runBfsFromAllSources(new BfsTask(csr.getNeighborOffsets(), csr.getNeighborArray(), 0, n, null, null, rows));
+            
+            Integer infinity = (this.setInfinityDistancesToMinusOne ? -1 : Integer.MAX_VALUE);
+            this.distMatrix = new Integer[n][n];
+            for(int i = 0; i < n; i++) {
+                for(int j = 0; j < n; j++) {
+                    distMatrix[i][j] = (rows[i][j] < 0 ? infinity : rows[i][j]);
                 }
             }
         }
-
-        // compute path lengths
-        Integer sum;
-        for(int k = 0; k < g.getSize(); k++) {
-            for(int i = 0; i < g.getSize(); i++) {
-                for(int j = 0; j < g.getSize(); j++) {
-                    if(i != j) {
-                        sum = distMatrix[i][k] + distMatrix[k][j];
-                        // correct for addition to MAX_VALUE trouble
-                        if(distMatrix[i][k] == Integer.MAX_VALUE || distMatrix[k][j] == Integer.MAX_VALUE) {
-                            sum = Integer.MAX_VALUE;
-                        }
-                        distMatrix[i][j] = Math.min(distMatrix[i][j], sum);
-                    }
+        return this.distMatrix;
+    }
+    
+    /**
+     * Runs a BFS from the given source vertex.
+     * @param offsets the offsets of the neighbors of each vertex in nbrs, see CompressedSparseGraph
+     * @param nbrs the neighbors of all vertices
+     * @param source the source vertex
+     * @param dist is filled with the distance of each vertex from the source, -1 for vertices which are not reachable
+     * @param queue the BFS queue, an array of graph size
+     * @return the number of vertices reached, including the source
+     */
+    private static int bfs(int[] offsets, int[] nbrs, int source, int[] dist, int[] queue) {
+        Arrays.fill(dist, -1);
+        dist[source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+        while(head < tail) {
+            int v = queue[head++];
+            int d = dist[v] + 1;
+            for(int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = nbrs[k];
+                if(dist[w] < 0) {
+                    dist[w] = d;
+                    queue[tail++] = w;
                 }
             }
         }
+        return tail;
+    }
+    
+    /**
+     * Runs the task in the common fork/join pool if the graph is large, in this thread otherwise.
+     * @param task the task for all sources
+     */
+    private static void runBfsFromAllSources(BfsTask task) {
+        if(task.offsets.length - 1 >= MIN_VERTICES_PARALLEL) {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        else {
+            task.compute();
+        }
+    }
+    
+    /**
+     * Runs a BFS from each source vertex of a range and stores the eccentricity and path length sum, or the whole distance row, of each source.
+     */
+    private static class BfsTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
         
+        private final int[] offsets;
+        private final int[] nbrs;
+        private final int from;
+        private final int to;
+        private final int[] ecc;       // if not null, the eccentricity of each source is stored here
+        private final long[] sums;     // if not null, the sum of the distances of each source to all other vertices is stored here
+        private final int[][] rows;    // if not null, the distances of each source to all other vertices are stored here
+        
+        BfsTask(int[] offsets, int[] nbrs, int from, int to, int[] ecc, long[] sums, int[][] rows) {
+            this.offsets = offsets;
+            this.nbrs = nbrs;
+            this.from = from;
+            this.to = to;
+            this.ecc = ecc;
+            this.sums = sums;
+            this.rows = rows;
+        }
         
-        if(this.setInfinityDistancesToMinusOne) {
+        @Override
+        protected void compute() {
+            if(to - from > SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BfsTask(offsets, nbrs, from, mid, ecc, sums, rows), new BfsTask(offsets, nbrs, mid, to, ecc, sums, rows));
+                return;
+            }
             
-            for(int i = 0; i < g.getSize(); i++) {
-                for(int j = 0; j < g.getSize(); j++) {
-                    if(Objects.equals(distMatrix[i][j], Integer.MAX_VALUE)) {
-                        distMatrix[i][j] = -1;
-                    } 
+            int[] dist = new int[offsets.length - 1];
+            int[] queue = new int[offsets.length - 1];
+            for(int s = from; s < to; s++) {
+                int reached = bfs(offsets, nbrs, s, dist, queue);
+                if(ecc != null) {
+                    // the BFS visits the vertices by distance, so the last one in the queue is the farthest
+                    ecc[s] = dist[queue[reached - 1]];
+                }
+                if(sums != null) {
+                    long sum = 0L;
+                    for(int i = 0; i < reached; i++) {
+                        sum += dist[queue[i]];
+                    }
+                    sums[s] = sum;
+                }
+                if(rows != null) {
+                    rows[s] = dist.clone();
                 }
             }
-            
         }
-
     }
     
     private void determineWhetherGraphIsConnected() {
         if( ! this.alreadyComputed) {
             this.compute();
         }
-        
-        if(this.graphIsConnected != null) {
-            return;
-        }
-        
-        Boolean result = true;  //assume it is connected
-        
-        outerLoop:
-        for(int i = 0; i < g.getSize(); i++) {
-            for(int j = 0; j < g.getSize(); j++) {
-                if(Objects.equals(distMatrix[i][j], GraphDistances.DISTANCE_INFINITY)) {
-                    result = false;     // it is not connected if distance betweem any pair of vertices is infinite
-                    break outerLoop;
-                } 
-            }
-        }
-        
-        this.graphIsConnected = result;
     }
     
     /**
@@ -214,22 +278,11 @@ public class GraphDistances {
         
         this.determineWhetherGraphIsConnected();
         if(this.graphIsConnected) {
-                
-            Integer ecc = 0;
-            for(int i = 0; i < g.getSize(); i++) {
-                if(i == v) {
-                    continue;
-                }
-                if(distMatrix[i][v] > ecc) {
-                    ecc = distMatrix[i][v];
-                }
-            }
-            
+            Integer ecc = eccentricities[v];
             if(ecc.equals(0)) {
                 return null;
             }                        
             return ecc;
-            
         }
         else {
             return null;
@@ -303,17 +356,10 @@ public class GraphDistances {
         
         this.determineWhetherGraphIsConnected();
         if(this.graphIsConnected) {
-            
-            
-            Double d = .0d;
-            Integer numDist = 0;
-            for(int i = 0; i < g.getSize(); i++) {
-                for(int j = i+1; j < g.getSize(); j++) {
-                    d += distMatrix[i][j];
-                    numDist++;
-                }                
-            }
-            return d / numDist.doubleValue();
+            // the sum over all ordered pairs counts each unordered pair twice
+            Double d = (double) (this.pathLengthSum / 2L);
+            long numDist = (long) g.getSize() * (g.getSize() - 1) / 2;
+            return d / (double) numDist;
         }
         else {
             return null;
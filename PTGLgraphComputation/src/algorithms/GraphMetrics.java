@@ -11,14 +11,13 @@ import datastructures.SimpleGraphInterface;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import tools.DP;
 
 /**
- * Utility class for computing graph metrics.
+ * Utility class for computing graph metrics. The metrics based on the clustering coefficients of all vertices are computed by
+ * ClusteringCoefficients in one sweep, use it directly if you need several of them.
  * @author ts
  */
 public class GraphMetrics {
@@ -103,20 +102,7 @@ public class GraphMetrics {
      * @return the average network cluster coefficient of g, a value between 0 and 1. Note that this is NOT the same as the global CC. Also note that null is returned if the graph is empty.
      */
     public static Double averageNetworkClusterCoefficient(SimpleGraphInterface g) {
-        if(g.getSize() == 0) {
-            return null;
-        }
-        
-        Double ancc = .0d;
-        Integer numVerts = 0;
-        for(int i = 0; i < g.getSize(); i++) {
-            Double lcc = GraphMetrics.localClusteringCoefficientUndirected(g, i);
-            if(lcc != null) {
-                ancc += lcc;
-                numVerts++;
-            }
-        }
-        return ancc / numVerts.doubleValue();
+        return ClusteringCoefficients.compute(g).getAverage();
     }
     
     /**
@@ -128,22 +114,7 @@ public class GraphMetrics {
      * @return the normalized average network cluster coefficient of g, a value between greater 0 (and potentially greater than 1.0). If the value is greater 1.0, the graph tends to cluster. Returns null if g is empty.
      */
     public static Double averageNormalizedNetworkClusterCoefficient(SimpleGraphInterface g) {
-        if(g.getSize() == 0) {
-            return null;
-        }
-        
-        Double ancc = .0d;
-        Integer numVerts = 0;
-        for(int i = 0; i < g.getSize(); i++) {
-            Double lcc = GraphMetrics.normalizedLocalClusteringCoefficient(g, i);
-            if(lcc != null) {
-                ancc += lcc;
-                numVerts++;
-                //System.out.println("lcc for v " + i + " of " + g.getSize() + " is " + lcc + ", sum is " + ancc + " so far.");                
-            }
-        }
-        //System.out.println("Sum computed, " + numVerts + " of " + g.getSize() + " returned valid values.");
-        return ancc / numVerts.doubleValue();
+        return ClusteringCoefficients.compute(g).getAverageNormalized();
     }
     
     /**
@@ -179,21 +150,7 @@ public class GraphMetrics {
      * @return the average network cluster coefficient of g. Note that this is NOT the same as the global CC. Also note that null is returned if the graph is empty.
      */
     public static Double maximumNetworkClusterCoefficient(SimpleGraphInterface g) {
-        if(g.getSize() == 0) {
-            return null;
-        }
-        
-        Double max_cc = .0d;
-        Double lcc;
-        for(int i = 0; i < g.getSize(); i++) {
-            lcc = GraphMetrics.localClusteringCoefficientUndirected(g, i);
-            if(lcc != null) {
-                if(lcc >= max_cc) {
-                    max_cc = lcc;
-                }
-            }
-        }
-        return max_cc;
+        return ClusteringCoefficients.compute(g).getMaximum();
     }
     
 
@@ -204,24 +161,7 @@ public class GraphMetrics {
      * @return the set of all vertices which have at least the given clustering coefficient in g, by index. (Vertices with undefined CC are never included in the set.)
      */
     public static Set<Integer> determineVertexSetWithClCAtLeast(SimpleGraphInterface g, Double minClC) {
-        Set<Integer> v = new HashSet<>();
-        if(minClC < 0.0 || minClC > 1.0) {
-            DP.getInstance().w("GraphMetrics", "determineVertexSetWithClCAtLeast: requested ClC minimum value '" + minClC + "' makes no sense, must be in range 0 - 1 (returning empty set.)");
-            return v;
-        }
-        
-        Double lcc;
-        for(int i = 0; i < g.getSize(); i++) {
-            lcc = GraphMetrics.localClusteringCoefficientUndirected(g, i);
-            if(lcc != null) {
-                if(lcc >= minClC) {
-                    v.add(i);
-                }
-            }
-        }
-        
-        return v;
-        
+        return ClusteringCoefficients.compute(g).getVertexSetWithClCAtLeast(minClC);
     }
     
     
@@ -232,24 +172,7 @@ public class GraphMetrics {
      * @return the set of all vertices which have at most the given clustering coefficient in g, by index. (Vertices with undefined CC are never included in the set.)
      */
     public static Set<Integer> determineVertexSetWithClCAtMost(SimpleGraphInterface g, Double maxClC) {
-        Set<Integer> v = new HashSet<>();
-        if(maxClC < 0.0 || maxClC > 1.0) {
-            DP.getInstance().w("GraphMetrics", "determineVertexSetWithClCAtLeast: requested ClC maximum value '" + maxClC + "' makes no sense, must be in range 0 - 1 (returning empty set.)");
-            return v;
-        }
-        
-        Double lcc;
-        for(int i = 0; i < g.getSize(); i++) {
-            lcc = GraphMetrics.localClusteringCoefficientUndirected(g, i);
-            if(lcc != null) {
-                if(lcc <= maxClC) {
-                    v.add(i);
-                }
-            }
-        }
-        
-        return v;
-        
+        return ClusteringCoefficients.compute(g).getVertexSetWithClCAtMost(maxClC);
     }
     
     /**
@@ -29,6 +29,7 @@ public class GraphProperties {
     
     protected ConnectedComponents cc;
     protected GraphDistances gd;
+    protected ClusteringCoefficients clc;
     protected Map<Integer, Integer> degreeDist;
     
     public GraphProperties(final SimpleGraphInterface g) {
@@ -37,6 +38,18 @@ public class GraphProperties {
         this.cc = new ConnectedComponents(g);
         this.gd = new GraphDistances(g);
         this.degreeDist = null;
+        this.clc = null;
+    }
+    
+    /**
+     * Returns the clustering coefficients of all vertices, computed on first use.
+     * @return the clustering coefficients
+     */
+    public ClusteringCoefficients getClusteringCoefficients() {
+        if(this.clc == null) {
+            this.clc = ClusteringCoefficients.compute(graph);
+        }
+        return this.clc;
     }
     
     public Integer getNumVertices() {
@@ -72,7 +85,7 @@ public class GraphProperties {
      * @return the normalized average network cluster coefficient of g, a value between greater 0 (and potentially greater than 1.0). If the value is greater 1.0, the graph tends to cluster. Returns null if g is empty.
      */
     public Double getAverageNormalizedNetworkClusterCoefficient() {
-        return GraphMetrics.averageNormalizedNetworkClusterCoefficient(graph);
+        return getClusteringCoefficients().getAverageNormalized();
     }
     
     /**
@@ -88,11 +101,11 @@ public class GraphProperties {
     }
     
     public Double getAverageClusterCoefficient() {
-        return GraphMetrics.averageNetworkClusterCoefficient(graph);
+        return getClusteringCoefficients().getAverage();
     }
     
     public Double getMaximumNetworkClusterCoefficient() {
-        return GraphMetrics.maximumNetworkClusterCoefficient(graph);
+        return getClusteringCoefficients().getMaximum();
     }
     
     public Integer[] getDegreeDistributionUpTo(int m) {
@@ -201,7 +214,7 @@ public class GraphProperties {
      * @return the set of all vertices which have at least the given clustering coefficient. (Vertices with undefined CC are never included in the set.)
      */
     public Set<Integer> determineVertexSetWithClCAtLeast(Double minClC) {        
-        return GraphMetrics.determineVertexSetWithClCAtLeast(graph, minClC);
+        return getClusteringCoefficients().getVertexSetWithClCAtLeast(minClC);
     }
     
     /**
@@ -210,7 +223,7 @@ public class GraphProperties {
      * @return the set of all vertices which have at most the given clustering coefficient in g, by index. (Vertices with undefined CC are never included in the set.)
      */
     public Set<Integer> determineVertexSetWithClCAtMost(Double maxClC) {        
-        return GraphMetrics.determineVertexSetWithClCAtMost(graph, maxClC);
+        return getClusteringCoefficients().getVertexSetWithClCAtMost(maxClC);
     }
     
     /**
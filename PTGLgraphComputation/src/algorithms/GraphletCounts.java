@@ -0,0 +1,647 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package algorithms;
+
+import datastructures.CompressedSparseGraph;
+import datastructures.SimpleGraphInterface;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the connected graphlets with 2 to 5 vertices of a graph in-process, like the GraphletAnalyser does for a GML file in a separate C++
+ * program. The normalized counts are the vector the GraphletAnalyser stores in the graphlet tables of the database and which SimilarityByGraphlets
+ * compares, in the same layout: the 2 graphlets with 3 vertices (index 0 - 1), the 6 graphlets with 4 vertices (index 2 - 7) and the 21 graphlets
+ * with 5 vertices (index 8 - 28), followed by the labeled graphlets if vertex labels are given: the labeled edges, the labeled triangles and
+ * the labeled 3-paths, see GraphletAnalyser GraphService::get_length_2_patterns() and get_length_3_patterns(). There is no entry for the edge,
+ * but the edges are part of the total by which all counts are divided.
+ *
+ * The graphlets are found by enumerating the paths (and stars) starting at each vertex, as in the algorithm of N. Shervashidze. Each graphlet
+ * is found a fixed number of times, the count is multiplied by the inverse of that number in the end. This and the normalization are done in
+ * single precision like in the GraphletAnalyser, so the results are the same. The vertices are handled in parallel for large graphs.
+ */
+public class GraphletCounts {
+
+    /** The number of unlabeled graphlet types in the normalized counts, i.e., those with 3 to 5 vertices. */
+    public static final int NUM_UNLABELED_GRAPHLETS = 29;
+
+    /** The vertex labels of protein and complex graphs, the SSE types (see SSE.getSseType()), as used by the GraphletAnalyser for SSE graphs. */
+    public static final String ALPHABET_SSE = "HEL";
+
+    /** The vertex labels of amino acid graphs, the chemical properties of the residues (see Residue.getChemicalProperty3OneLetterString()), as used by the GraphletAnalyser for AA graphs. */
+    public static final String ALPHABET_AA = "hpc?";
+
+    /** The number of unlabeled graphlet types counted: the edge and the graphlets in the normalized counts. */
+    private static final int NUM_COUNTED = NUM_UNLABELED_GRAPHLETS + 1;
+
+    /** Graphs with less vertices are handled by the calling thread only. The work per vertex is high, so this is lower than for the other algorithms. */
+    private static final int MIN_VERTICES_PARALLEL = 64;
+
+    /** How often each graphlet is found by the enumeration, i.e., the number of its paths (or stars) which start at a vertex. */
+    private static final long[] TIMES_FOUND = {
+        2,                                                                                          // the edge
+        6, 2,                                                                                       // 3 vertices: triangle, path
+        24, 12, 4, 1, 8, 2,                                                                         // 4 vertices
+        120, 72, 48, 36, 28, 20, 14, 10, 12, 8, 8, 4, 2, 12, 12, 4, 4, 2, 1, 2, 1                   // 5 vertices
+    };
+
+    /** The largest count a float counter of the GraphletAnalyser reaches: adding 1 to it does not change it anymore. */
+    private static final long MAX_FLOAT_COUNT = 1L << 24;
+
+    // the first index of the graphlets of each size in the found counts, followed by the labeled graphlets
+    private static final int G2 = 0;
+    private static final int G3 = 1;
+    private static final int G4 = 3;
+    private static final int G5 = 9;
+
+    /** The value added to the degree sequence key of classifyPath5() for a vertex of the given degree. */
+    private static final int[] DEGREE_DIGIT = { 0, 1000, 100, 10, 1 };
+
+    private final long numEdges;
+    private final long[] counts;
+
+
+    private GraphletCounts(long numEdges, long[] counts) {
+        this.numEdges = numEdges;
+        this.counts = counts;
+    }
+
+
+    /**
+     * Counts the unlabeled graphlets of g.
+     * @param g the graph
+     * @return the graphlet counts of g, without labeled graphlets
+     */
+    public static GraphletCounts compute(SimpleGraphInterface g) {
+        return compute(g, null, null);
+    }
+
+
+    /**
+     * Counts the unlabeled and labeled graphlets of g.
+     * @param g the graph
+     * @param vertexLabels the label of each vertex of g, by index. Labels which are not a letter of the alphabet (or null) match no labeled graphlet.
+     * Use null to count the unlabeled graphlets only.
+     * @param alphabet the letters used to build the labeled graphlets, e.g., ALPHABET_SSE. Ignored if vertexLabels is null.
+     * @return the graphlet counts of g
+     */
+    public static GraphletCounts compute(SimpleGraphInterface g, String[] vertexLabels, String alphabet) {
+        CompressedSparseGraph<?, ?> csr = (g instanceof CompressedSparseGraph ? (CompressedSparseGraph<?, ?>) g : CompressedSparseGraph.fromSimpleGraph(g));
+        int n = csr.getNumVertices();
+        int[] offsets = csr.getNeighborOffsets();
+        int[] sorted = csr.getSortedNeighborArray();
+        LabelPatterns patterns = (vertexLabels == null ? null : new LabelPatterns(alphabet, vertexLabels, n));
+        int numFound = NUM_COUNTED + (patterns == null ? 0 : patterns.getNumLabeled());
+
+        IntStream vertices = IntStream.range(0, n);
+        if(n >= MIN_VERTICES_PARALLEL) {
+            vertices = vertices.parallel();
+        }
+        long[] found = vertices.collect(() -> new long[numFound], (acc, v) -> countAt(offsets, sorted, patterns, v, acc), (a, b) -> {
+            for(int t = 0; t < numFound; t++) {
+                a[t] += b[t];
+            }
+        });
+
+        long[] counts = new long[numFound - 1];
+        for(int t = 1; t < NUM_COUNTED; t++) {
+            counts[t - 1] = weightedCount(found[t], TIMES_FOUND[t]);
+        }
+        if(patterns != null) {
+            patterns.finishLabeledCounts(found, NUM_COUNTED, counts, NUM_UNLABELED_GRAPHLETS);
+        }
+        return new GraphletCounts(weightedCount(found[G2], TIMES_FOUND[G2]), counts);
+    }
+
+
+    /**
+     * Returns the length of the normalized counts for graphs labeled with the given alphabet.
+     * @param alphabet the alphabet, e.g., ALPHABET_SSE, or null for unlabeled graphs
+     * @return the number of unlabeled and labeled graphlet types
+     */
+    public static int getNormalizedCountsLength(String alphabet) {
+        return NUM_UNLABELED_GRAPHLETS + (alphabet == null ? 0 : new LabelPatterns(alphabet, new String[0], 0).getNumLabeled());
+    }
+
+
+    /**
+     * Computes a count from the number of times a graphlet was found like the GraphletAnalyser: its float counter stops at MAX_FLOAT_COUNT,
+     * and is multiplied by the float inverse of the times each graphlet is found.
+     * @param found the number of times the graphlet was found
+     * @param timesFound the number of times each graphlet is found
+     * @return the count, rounded down
+     */
+    private static long weightedCount(long found, long timesFound) {
+        float counter = (float) Math.min(found, MAX_FLOAT_COUNT);
+        return (long) Math.floor(counter * (float) (1.0 / timesFound));
+    }
+
+
+    /**
+     * Computes a count from the number of times a labeled graphlet was found like the GraphletAnalyser, which adds the weight to a float
+     * sum each time it finds the graphlet.
+     * @param found the number of times the graphlet was found
+     * @param weight the weight added each time
+     * @return the sum, rounded down
+     */
+    private static long summedCount(long found, float weight) {
+        float sum = 0.0f;
+        for(long i = 0; i < found; i++) {
+            float next = sum + weight;
+            if(next == sum) {
+                break;
+            }
+            sum = next;
+        }
+        return (long) Math.floor(sum);
+    }
+
+
+    /**
+     * The labeled graphlets of the GraphletAnalyser for an alphabet and the labels of the vertices of a graph. A labeled graphlet is given
+     * by a word, it is found if the labels of the vertices along a path match the word or one of its cyclic permutations (triangles) or its
+     * reverse (edges and 3-paths). As in the GraphletAnalyser, the triangles are matched with the words it builds for 3-paths and the 3-paths
+     * with the words it builds for triangles, and a graphlet counts for each word it matches.
+     */
+    private static class LabelPatterns {
+
+        private final String alphabet;
+        private final int size;
+        private final int[] labelCodes;     // the index of the label of each vertex in the alphabet, or -1
+        private final int numEdgeWords;
+        private final int numTriangleWords;
+        private final int numPathWords;
+        private final int[][] edgeSlots;        // by pattern code: the indices of the words matched
+        private final int[][] triangleSlots;
+        private final int[][] pathSlots;
+
+
+        /**
+         * Builds the words and the lookup tables from the pattern codes to the words.
+         * @param alphabet the alphabet
+         * @param vertexLabels the label of each vertex
+         * @param n the number of vertices
+         */
+        LabelPatterns(String alphabet, String[] vertexLabels, int n) {
+            this.alphabet = alphabet;
+            size = alphabet.length();
+            labelCodes = new int[n];
+            for(int v = 0; v < n; v++) {
+                String label = (v < vertexLabels.length ? vertexLabels[v] : null);
+                labelCodes[v] = (label != null && label.length() == 1 ? alphabet.indexOf(label.charAt(0)) : -1);
+            }
+
+            List<String> edgeWords = new ArrayList<>();
+            List<String> pathWords3 = new ArrayList<>();        // the 3-path words of the GraphletAnalyser, matched with triangles
+            List<String> triangleWords3 = new ArrayList<>();    // the triangle words of the GraphletAnalyser, matched with 3-paths
+            for(int i = 0; i < size; i++) {
+                String a = alphabet.substring(i, i + 1);
+                edgeWords.add(a + a);
+                for(int k = i + 1; k < size; k++) {
+                    edgeWords.add(a + alphabet.charAt(k));
+                }
+
+                pathWords3.add(a + a + a);
+                triangleWords3.add(a + a + a);
+                for(int k = i + 1; k < size; k++) {
+                    String b = alphabet.substring(k, k + 1);
+                    pathWords3.add(a + b + a);
+                    pathWords3.add(a + a + b);
+                    pathWords3.add(a + b + b);
+                    pathWords3.add(b + a + b);
+                    triangleWords3.add(a + b + a);
+                    triangleWords3.add(a + b + b);
+                    for(int m = k + 1; m < size; m++) {
+                        String c = alphabet.substring(m, m + 1);
+                        pathWords3.add(a + b + c);
+                        pathWords3.add(c + a + b);
+                        pathWords3.add(b + c + a);
+                        triangleWords3.add(a + b + c);
+                        triangleWords3.add(c + b + a);
+                    }
+                }
+            }
+
+            numEdgeWords = edgeWords.size();
+            numTriangleWords = pathWords3.size();
+            numPathWords = triangleWords3.size();
+            edgeSlots = buildSlots(edgeWords, 2, true);
+            triangleSlots = buildSlots(pathWords3, 3, true);
+            pathSlots = buildSlots(triangleWords3, 3, false);
+        }
+
+
+        /**
+         * Maps the code of each label pattern to the indices of the words it matches.
+         * @param words the words
+         * @param length the length of the words
+         * @param cyclic whether a pattern matches the cyclic permutations of a word, or only the word and its reverse
+         * @return the word indices by pattern code
+         */
+        private int[][] buildSlots(List<String> words, int length, boolean cyclic) {
+            List<List<Integer>> slots = new ArrayList<>();
+            int numCodes = (int) Math.pow(size, length);
+            for(int code = 0; code < numCodes; code++) {
+                slots.add(new ArrayList<>());
+            }
+            for(int w = 0; w < words.size(); w++) {
+                String word = words.get(w);
+                Set<String> matching = new HashSet<>();
+                if(cyclic) {
+                    String doubled = word + word;
+                    for(int r = 0; r < length; r++) {
+                        matching.add(doubled.substring(r, r + length));
+                    }
+                }
+                else {
+                    matching.add(word);
+                    matching.add(new StringBuilder(word).reverse().toString());
+                }
+                for(String pattern : matching) {
+                    int code = 0;
+                    for(int p = 0; p < length; p++) {
+                        code = code * size + alphabet.indexOf(pattern.charAt(p));
+                    }
+                    slots.get(code).add(w);
+                }
+            }
+            int[][] result = new int[numCodes][];
+            for(int code = 0; code < numCodes; code++) {
+                result[code] = slots.get(code).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return result;
+        }
+
+
+        /**
+         * Returns the number of labeled graphlet types.
+         * @return the number of edge, triangle and 3-path words
+         */
+        int getNumLabeled() {
+            return numEdgeWords + numTriangleWords + numPathWords;
+        }
+
+
+        /**
+         * Adds the labeled edges found by the path i - j to acc.
+         * @param i the first vertex
+         * @param j the second vertex
+         * @param acc the found counts, the labeled graphlets start at NUM_COUNTED
+         */
+        void addEdge(int i, int j, long[] acc) {
+            int a = labelCodes[i];
+            int b = labelCodes[j];
+            if(a >= 0 && b >= 0) {
+                for(int w : edgeSlots[a * size + b]) {
+                    acc[NUM_COUNTED + w]++;
+                }
+            }
+        }
+
+
+        /**
+         * Adds the labeled triangles or 3-paths found by the path i - j - k to acc.
+         * @param i the first vertex
+         * @param j the second vertex
+         * @param k the third vertex
+         * @param triangle whether i and k are adjacent
+         * @param acc the found counts, the labeled graphlets start at NUM_COUNTED
+         */
+        void addPath3(int i, int j, int k, boolean triangle, long[] acc) {
+            int a = labelCodes[i];
+            int b = labelCodes[j];
+            int c = labelCodes[k];
+            if(a >= 0 && b >= 0 && c >= 0) {
+                int code = (a * size + b) * size + c;
+                if(triangle) {
+                    for(int w : triangleSlots[code]) {
+                        acc[NUM_COUNTED + numEdgeWords + w]++;
+                    }
+                }
+                else {
+                    for(int w : pathSlots[code]) {
+                        acc[NUM_COUNTED + numEdgeWords + numTriangleWords + w]++;
+                    }
+                }
+            }
+        }
+
+
+        /**
+         * Computes the labeled counts from the number of times each labeled graphlet was found, like the GraphletAnalyser: each edge is found twice
+         * and counted in an integer, the triangles and 3-paths are summed up in floats.
+         * @param found the found counts
+         * @param foundStart the index of the first labeled graphlet in found
+         * @param counts the counts to set
+         * @param countsStart the index of the first labeled graphlet in counts
+         */
+        void finishLabeledCounts(long[] found, int foundStart, long[] counts, int countsStart) {
+            for(int w = 0; w < getNumLabeled(); w++) {
+                long f = found[foundStart + w];
+                if(w < numEdgeWords) {
+                    counts[countsStart + w] = f / 2;
+                }
+                else if(w < numEdgeWords + numTriangleWords) {
+                    counts[countsStart + w] = summedCount(f, (float) (1.0 / 6.0));
+                }
+                else {
+                    counts[countsStart + w] = summedCount(f, (float) (1.0 / 2.0));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks whether the vertices a and b are adjacent.
+     */
+    private static boolean edge(int[] offsets, int[] sorted, int a, int b) {
+        int lo = offsets[a];
+        int hi = offsets[a + 1] - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if(sorted[mid] < b) {
+                lo = mid + 1;
+            }
+            else if(sorted[mid] > b) {
+                hi = mid - 1;
+            }
+            else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Returns 1 if the vertices a and b are adjacent, 0 otherwise.
+     */
+    private static int e(int[] offsets, int[] sorted, int a, int b) {
+        return (edge(offsets, sorted, a, b) ? 1 : 0);
+    }
+
+
+    /**
+     * Adds the graphlets found by the paths and stars which start at vertex i to acc.
+     * @param offsets the offsets of the neighbors of each vertex in sorted
+     * @param sorted the neighbors of all vertices, sorted ascending per vertex
+     * @param patterns the labeled graphlets, or null to count the unlabeled graphlets only
+     * @param i the start vertex
+     * @param acc the graphlet counts, not yet divided by TIMES_FOUND, followed by the labeled graphlet counts
+     */
+    private static void countAt(int[] offsets, int[] sorted, LabelPatterns patterns, int i, long[] acc) {
+        int[] deg = new int[5];
+        int[] v = new int[5];
+        v[0] = i;
+
+        // paths i - j - k - l - m of length 1 to 4
+        for(int pj = offsets[i]; pj < offsets[i + 1]; pj++) {
+            int j = sorted[pj];
+            v[1] = j;
+            acc[G2]++;
+            if(patterns != null) {
+                patterns.addEdge(i, j, acc);
+            }
+
+            for(int pk = offsets[j]; pk < offsets[j + 1]; pk++) {
+                int k = sorted[pk];
+                if(k == i) {
+                    continue;
+                }
+                v[2] = k;
+                int eik = e(offsets, sorted, i, k);
+                acc[G3 + (eik == 1 ? 0 : 1)]++;
+                if(patterns != null) {
+                    patterns.addPath3(i, j, k, eik == 1, acc);
+                }
+
+                for(int pl = offsets[k]; pl < offsets[k + 1]; pl++) {
+                    int l = sorted[pl];
+                    if(l == i || l == j) {
+                        continue;
+                    }
+                    v[3] = l;
+                    int eil = e(offsets, sorted, i, l);
+                    int ejl = e(offsets, sorted, j, l);
+                    switch(eik + eil + ejl) {
+                        case 3:
+                            acc[G4]++;
+                            break;
+                        case 2:
+                            acc[G4 + 1]++;
+                            break;
+                        case 1:
+                            acc[G4 + (eil == 1 ? 4 : 2)]++;
+                            break;
+                        default:
+                            acc[G4 + 5]++;
+                    }
+
+                    for(int pm = offsets[l]; pm < offsets[l + 1]; pm++) {
+                        int m = sorted[pm];
+                        if(m == i || m == j || m == k) {
+                            continue;
+                        }
+                        v[4] = m;
+                        int eim = e(offsets, sorted, i, m);
+                        int ejm = e(offsets, sorted, j, m);
+                        int ekm = e(offsets, sorted, k, m);
+                        deg[0] = eik + eil + eim + 1;
+                        deg[1] = ejl + ejm + 2;
+                        deg[2] = eik + ekm + 2;
+                        deg[3] = eil + ejl + 2;
+                        deg[4] = eim + ejm + ekm + 1;
+                        int g = classifyPath5(offsets, sorted, eik + eil + eim + ejl + ejm + ekm, deg, v);
+                        if(g >= 0) {
+                            acc[G5 + g]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // g20 of the 5 vertex graphlets: the path i - j - k with two more leaves l and m at k
+        for(int pj = offsets[i]; pj < offsets[i + 1]; pj++) {
+            int j = sorted[pj];
+            for(int pk = offsets[j]; pk < offsets[j + 1]; pk++) {
+                int k = sorted[pk];
+                if(k == i || edge(offsets, sorted, i, k)) {
+                    continue;
+                }
+                for(int pl = offsets[k]; pl < offsets[k + 1]; pl++) {
+                    int l = sorted[pl];
+                    if(l == i || l == j || edge(offsets, sorted, i, l) || edge(offsets, sorted, j, l)) {
+                        continue;
+                    }
+                    for(int pm = offsets[k]; pm < offsets[k + 1]; pm++) {
+                        int m = sorted[pm];
+                        if(m == i || m == j || m == l || edge(offsets, sorted, i, m) || edge(offsets, sorted, j, m) || edge(offsets, sorted, l, m)) {
+                            continue;
+                        }
+                        acc[G5 + 19]++;
+                    }
+                }
+            }
+        }
+
+        // stars with center i: g4 of the 4 vertex graphlets, g19 and g21 of the 5 vertex graphlets. The leaves are ascending, so each is found once.
+        int end = offsets[i + 1];
+        for(int pj = offsets[i]; pj < end; pj++) {
+            int j = sorted[pj];
+            for(int pk = pj + 1; pk < end; pk++) {
+                int k = sorted[pk];
+                int ejk = e(offsets, sorted, j, k);
+                for(int pl = pk + 1; pl < end; pl++) {
+                    int l = sorted[pl];
+                    int ejl = e(offsets, sorted, j, l);
+                    int ekl = e(offsets, sorted, k, l);
+                    if(ejk + ekl + ejl == 0) {
+                        acc[G4 + 3]++;
+                    }
+                    for(int pm = pl + 1; pm < end; pm++) {
+                        int m = sorted[pm];
+                        int aux = ejk + ejl + ekl + e(offsets, sorted, j, m) + e(offsets, sorted, k, m) + e(offsets, sorted, l, m);
+                        if(aux == 1) {
+                            acc[G5 + 18]++;
+                        }
+                        else if(aux == 0) {
+                            acc[G5 + 20]++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Determines the 5 vertex graphlet induced by a path of 5 vertices, from the number of its edges which are not on the path and the degrees of the vertices.
+     * @param offsets the offsets of the neighbors of each vertex in sorted
+     * @param sorted the neighbors of all vertices, sorted ascending per vertex
+     * @param aux the number of edges which are not on the path
+     * @param deg the degree of each vertex of the path in the graphlet
+     * @param v the vertices of the path
+     * @return the index of the graphlet among the 5 vertex graphlets (0 - 17), or -1 if none matches
+     */
+    private static int classifyPath5(int[] offsets, int[] sorted, int aux, int[] deg, int[] v) {
+        // the degree sequence, as the number of vertices with degree 1, 2, 3 and 4 in the decimal digits
+        int degSeq = 0;
+        for(int d : deg) {
+            degSeq += DEGREE_DIGIT[d];
+        }
+
+        switch(aux) {
+            case 6:
+                return 0;
+            case 5:
+                return 1;
+            case 4:
+                if(degSeq == 41) { return 2; }          // 3, 3, 3, 3, 4
+                if(degSeq == 122) { return 3; }         // 2, 3, 3, 4, 4
+                return -1;
+            case 3:
+                if(degSeq == 140) { return 4; }         // 2, 3, 3, 3, 3
+                if(degSeq == 221) { return 5; }         // 2, 2, 3, 3, 4
+                if(degSeq == 1031) { return 8; }        // 1, 3, 3, 3, 4
+                if(degSeq == 302) { return 13; }        // 2, 2, 2, 4, 4
+                return -1;
+            case 2:
+                if(degSeq == 1130) { return 9; }        // 1, 2, 3, 3, 3
+                if(degSeq == 401) { return 10; }        // 2, 2, 2, 2, 4
+                if(degSeq == 1211) { return 15; }       // 1, 2, 2, 3, 4
+                if(degSeq == 320) {                     // 2, 2, 2, 3, 3: g7 if the vertices of degree 3 are adjacent, g15 otherwise
+                    int a = -1;
+                    int b = -1;
+                    for(int z = 0; z < 5; z++) {
+                        if(deg[z] == 3) {
+                            if(a == -1) { a = v[z]; } else { b = v[z]; }
+                        }
+                    }
+                    return (edge(offsets, sorted, a, b) ? 6 : 14);
+                }
+                return -1;
+            case 1:
+                if(degSeq == 500) { return 7; }         // 2, 2, 2, 2, 2
+                if(degSeq == 2120) { return 17; }       // 1, 1, 2, 3, 3
+                if(degSeq == 1310) {                    // 1, 2, 2, 2, 3: g17 if the vertices of degree 1 and 3 are adjacent, g12 otherwise
+                    int a = -1;
+                    int b = -1;
+                    for(int z = 0; z < 5; z++) {
+                        if(deg[z] == 1) { a = v[z]; } else if(deg[z] == 3) { b = v[z]; }
+                    }
+                    return (edge(offsets, sorted, a, b) ? 16 : 11);
+                }
+                return -1;
+            case 0:
+                return 12;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the absolute count of each graphlet.
+     * @return the counts, in the order of the normalized counts, see the class description
+     */
+    public long[] getAbsoluteCounts() {
+        return counts.clone();
+    }
+
+
+    /**
+     * Returns the number of edges, i.e., the count of the only graphlet with 2 vertices. It is not part of the counts, but of the total.
+     * @return the number of edges
+     */
+    public long getNumEdges() {
+        return numEdges;
+    }
+
+
+    /**
+     * Returns the total number of graphlets found, as the GraphletAnalyser computes it: the edges and the unlabeled graphlets with 3 to 5 vertices.
+     * @return the total
+     */
+    public long getTotalCount() {
+        long total = numEdges;
+        for(int t = 0; t < NUM_UNLABELED_GRAPHLETS; t++) {
+            total += counts[t];
+        }
+        return total;
+    }
+
+
+    /**
+     * Returns the count of each graphlet divided by the total number of graphlets found, in single precision like the GraphletAnalyser. This
+     * is the form stored in the database and compared by SimilarityByGraphlets.
+     * @return the normalized counts, see the class description for the order. All values are Double.NaN if no graphlets were found.
+     */
+    public Double[] getNormalizedCounts() {
+        float total = (float) getTotalCount();
+        Double[] norm = new Double[counts.length];
+        for(int t = 0; t < counts.length; t++) {
+            norm[t] = (double) ((float) counts[t] / total);
+        }
+        return norm;
+    }
+
+
+    /**
+     * Returns the normalized counts as text, one line with the values separated by commas.
+     * @return the normalized counts as text
+     */
+    public String getNormalizedCountsString() {
+        StringBuilder sb = new StringBuilder();
+        Double[] norm = getNormalizedCounts();
+        for(int t = 0; t < norm.length; t++) {
+            sb.append(t == 0 ? "" : ", ").append(String.format(Locale.US, "%.4f", norm[t]));
+        }
+        return sb.append("\n").toString();
+    }
+}
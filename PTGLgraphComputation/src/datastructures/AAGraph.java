@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import proteingraphs.ContactTable;
 import proteingraphs.MolContactInfo;
 import proteinstructure.Residue;
 import proteinstructure.Molecule;
@@ -54,10 +55,12 @@ public class AAGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGraph
     /** Advanced Constructor, constructs the edges automatically from MolContactInfo list
      * @param vertices the vertex list to use
      * @param contacts the contacts, which are used to create the edges of the graph */
-    public AAGraph(List<Molecule> vertices, ArrayList<MolContactInfo> contacts) {
+    public AAGraph(List<Molecule> vertices, List<MolContactInfo> contacts) {
         super(vertices);
+        MolContactInfo c = null;
         for(int i = 0; i < contacts.size(); i++) {
-            if(contactSatisfiesRules(contacts.get(i))) {
+            c = ContactTable.get(contacts, i, c);     // only the contacts of edges are kept, see AAEdgeInfo
+            if(contactSatisfiesRules(c)) {
                 this.addEdgeFromRCI(contacts.get(i));
             }
         }
@@ -323,7 +326,7 @@ public class AAGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGraph
             Arrays.fill(matrix[i], 0);
         }
         
-        List<Integer[]> allEdges = this.getEdgeListIndex();
+        List<Integer[]> allEdges = this.toCompressed().getEdgeListIndex();
         int numIgnored = 0;
         for(Integer[] edge : allEdges) {
             Integer resAPtglAAtype = this.vertices.get(edge[0]).getInternalAAID();
@@ -426,7 +429,6 @@ public class AAGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGraph
         
         // print the edges with labels -- an edge label is the number of contacts between AAs of the given types
         Integer src, tgt, numContacts;
-        List<Integer[]> allEdges = this.getEdgeListIndex();
         for(Integer i = 1; i < matrix.length; i++) {
             for(Integer j = 1; j < matrix[0].length; j++) {
                 src = i;
@@ -611,7 +613,7 @@ public class AAGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGraph
         
         // print all edges
         Integer src, tgt;
-        List<Integer[]> allEdges = this.getEdgeListIndex();
+        List<Integer[]> allEdges = this.toCompressed().getEdgeListIndex();
         for(Integer[] edge : allEdges) {
             src = edge[0];
             tgt = edge[1];
@@ -648,7 +650,7 @@ public class AAGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGraph
         sbIdx.append(System.lineSeparator());
         
         
-        List<Integer[]> allEdges = this.getEdgeListIndex();
+        List<Integer[]> allEdges = this.toCompressed().getEdgeListIndex();
         
         // Create a list that contains all the vertices that contribute to edges
         ArrayList<Integer> allVerticesFromEdges = new ArrayList<Integer>();
@@ -0,0 +1,329 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package datastructures;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable undirected graph in compressed sparse row (CSR) form. The neighbors of vertex i are neighbors[offsets[i]] to
+ * neighbors[offsets[i + 1] - 1], in the order in which the edges were added to the graph this was created from. The edge info of each
+ * of these entries is stored at the same position in a parallel array, so no String keys or boxed lists are needed.
+ *
+ * Create one from a SparseGraph (or its subclasses like AAGraph and PPIGraph) with SparseGraph.toCompressed() once the graph is complete.
+ * It implements SimpleGraphInterface, so the graph algorithms like GraphProperties work on it. Later changes of the SparseGraph are not
+ * reflected in it.
+ *
+ * @param <V> the vertex type
+ * @param <E> the edge info type
+ */
+public final class CompressedSparseGraph<V, E> implements SimpleGraphInterface {
+
+    private final List<V> vertices;
+    private final int[] offsets;           // size n + 1, the neighbors of vertex i start at offsets[i]
+    private final int[] neighbors;         // size 2 * |E|, the neighbors in edge insertion order
+    private final Object[] edgeInfos;      // the edge info for each entry of neighbors
+    private final int[] sortedNeighbors;   // the neighbors of each vertex sorted ascending, for fast edge lookup
+    private final int[] sortedSlots;       // for each entry of sortedNeighbors, its position in neighbors
+
+
+    private CompressedSparseGraph(List<V> vertices, int[] offsets, int[] neighbors, Object[] edgeInfos) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.edgeInfos = edgeInfos;
+        this.sortedNeighbors = new int[neighbors.length];
+        this.sortedSlots = new int[neighbors.length];
+
+        // sort the slots of each vertex by neighbor index
+        long[] keys = new long[0];
+        for(int v = 0; v < offsets.length - 1; v++) {
+            int start = offsets[v];
+            int deg = offsets[v + 1] - start;
+            if(keys.length < deg) {
+                keys = new long[deg];
+            }
+            for(int k = 0; k < deg; k++) {
+                keys[k] = ((long) neighbors[start + k] << 32) | (start + k);
+            }
+            Arrays.sort(keys, 0, deg);
+            for(int k = 0; k < deg; k++) {
+                sortedNeighbors[start + k] = (int) (keys[k] >>> 32);
+                sortedSlots[start + k] = (int) keys[k];
+            }
+        }
+    }
+
+
+    /**
+     * Creates the CSR form of a SparseGraph, including vertices and edge infos.
+     * @param <V> the vertex type
+     * @param <E> the edge info type
+     * @param g the graph
+     * @return the CSR form of g
+     */
+    public static <V, E> CompressedSparseGraph<V, E> fromSparseGraph(SparseGraph<V, E> g) {
+        int n = g.getNumVertices();
+        int[] offsets = new int[n + 1];
+        for(int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + g.edges.get(i).size();
+        }
+
+        int[] neighbors = new int[offsets[n]];
+        Object[] edgeInfos = new Object[offsets[n]];
+        for(int i = 0; i < n; i++) {
+            ArrayList<Integer> adj = g.edges.get(i);
+            for(int k = 0; k < adj.size(); k++) {
+                int j = adj.get(k);
+                neighbors[offsets[i] + k] = j;
+                edgeInfos[offsets[i] + k] = g.getEdgeInfo(i, j);
+            }
+        }
+        return new CompressedSparseGraph<>(Collections.unmodifiableList(new ArrayList<>(g.vertices)), offsets, neighbors, edgeInfos);
+    }
+
+
+    /**
+     * Creates the CSR form of the topology of any graph. The vertices of the result are the vertex indices, it has no edge infos.
+     * @param g the graph
+     * @return the CSR form of g
+     */
+    public static CompressedSparseGraph<Integer, Object> fromSimpleGraph(SimpleGraphInterface g) {
+        int n = g.getSize();
+        List<List<Integer>> adj = new ArrayList<>(n);
+        List<Integer> vertices = new ArrayList<>(n);
+        int[] offsets = new int[n + 1];
+        for(int i = 0; i < n; i++) {
+            adj.add(g.neighborsOf(i));
+            vertices.add(i);
+            offsets[i + 1] = offsets[i] + adj.get(i).size();
+        }
+
+        int[] neighbors = new int[offsets[n]];
+        for(int i = 0; i < n; i++) {
+            List<Integer> nb = adj.get(i);
+            for(int k = 0; k < nb.size(); k++) {
+                neighbors[offsets[i] + k] = nb.get(k);
+            }
+        }
+        return new CompressedSparseGraph<>(Collections.unmodifiableList(vertices), offsets, neighbors, new Object[offsets[n]]);
+    }
+
+
+    /**
+     * Returns the position of the edge (i, j) in the neighbors and edge info arrays.
+     * @param i the vertex i by index
+     * @param j the vertex j by index
+     * @return the position, or a negative value if there is no such edge
+     */
+    private int slotOf(int i, int j) {
+        int k = Arrays.binarySearch(sortedNeighbors, offsets[i], offsets[i + 1], j);
+        return (k >= 0 ? sortedSlots[k] : -1);
+    }
+
+
+    /**
+     * Checks whether an edge exists between the vertices at index i and j.
+     * @param i the vertex i by index
+     * @param j the vertex j by index
+     * @return true if i and j are adjacent, false otherwise
+     */
+    public boolean hasEdge(int i, int j) {
+        return Arrays.binarySearch(sortedNeighbors, offsets[i], offsets[i + 1], j) >= 0;
+    }
+
+
+    /**
+     * Returns the EdgeInfo for the edge between vertices at indices i and j
+     * @param i the vertex i by index
+     * @param j the vertex j by index
+     * @return the EdgeInfo, or null if there is no such edge
+     */
+    @SuppressWarnings("unchecked")
+    public E getEdgeInfo(int i, int j) {
+        int slot = slotOf(i, j);
+        return (slot >= 0 ? (E) edgeInfos[slot] : null);
+    }
+
+
+    /**
+     * Returns the edge info of the entry at the given position of the neighbors array, see getNeighborArray().
+     * @param slot the position
+     * @return the EdgeInfo
+     */
+    @SuppressWarnings("unchecked")
+    public E getEdgeInfoAt(int slot) {
+        return (E) edgeInfos[slot];
+    }
+
+
+    /**
+     * Returns the offsets of the neighbor lists in the neighbor array: the neighbors of vertex i are at positions offsets[i] (inclusive)
+     * to offsets[i + 1] (exclusive). This is the internal array, do not modify it.
+     * @return the offsets, of length getNumVertices() + 1
+     */
+    public int[] getNeighborOffsets() {
+        return offsets;
+    }
+
+
+    /**
+     * Returns the neighbors of all vertices, see getNeighborOffsets(). This is the internal array, do not modify it.
+     * @return the neighbor array, of length 2 * getNumEdges()
+     */
+    public int[] getNeighborArray() {
+        return neighbors;
+    }
+
+
+    /**
+     * Returns the neighbors of all vertices like getNeighborArray(), but the neighbors of each vertex are sorted ascending. This is
+     * the internal array, do not modify it.
+     * @return the sorted neighbor array
+     */
+    public int[] getSortedNeighborArray() {
+        return sortedNeighbors;
+    }
+
+
+    /**
+     * Returns the total number of vertices in this graph.
+     * @return the total vertex count
+     */
+    public int getNumVertices() {
+        return offsets.length - 1;
+    }
+
+
+    /**
+     * Returns the total number of edges in this graph.
+     * @return the total edge count
+     */
+    public int getNumEdges() {
+        return neighbors.length / 2;
+    }
+
+
+    /**
+     * Returns the degree of vertex at index vIndex.
+     * @param vIndex the vertex index
+     * @return the vertex degree
+     */
+    public int getVertexDegree(int vIndex) {
+        return offsets[vIndex + 1] - offsets[vIndex];
+    }
+
+
+    /**
+     * Returns the vertex at index idx
+     * @param idx the vertex index
+     * @return the vertex at index idx
+     */
+    public V getVertex(int idx) {
+        return vertices.get(idx);
+    }
+
+
+    /**
+     * Returns all vertices. The list can not be modified.
+     * @return the vertices
+     */
+    public List<V> getVertices() {
+        return vertices;
+    }
+
+
+    /**
+     * Returns a list of edges in this graph, in the same order as SparseGraph.getEdgeListIndex(): each edge (i, j) with i &lt; j once,
+     * ordered by i and then by the position of j in the neighbors of i.
+     * @return a list of vertex pairs given by their indices which are neighbors
+     */
+    public List<Integer[]> getEdgeListIndex() {
+        List<Integer[]> allEdges = new ArrayList<>(getNumEdges());
+        for(int i = 0; i < getNumVertices(); i++) {
+            for(int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if(neighbors[k] > i) {
+                    allEdges.add(new Integer[]{i, neighbors[k]});
+                }
+            }
+        }
+        return allEdges;
+    }
+
+
+    @Override
+    public Integer getSize() {
+        return getNumVertices();
+    }
+
+
+    @Override
+    public Boolean containsEdge(Integer i, Integer j) {
+        return hasEdge(i, j);
+    }
+
+
+    /**
+     * Returns the neighbors of a vertex as an unmodifiable list backed by the neighbor array.
+     * @param vertIndex the vertex index
+     * @return the neighbors, in edge insertion order
+     */
+    @Override
+    public List<Integer> neighborsOf(Integer vertIndex) {
+        return new NeighborList(offsets[vertIndex], offsets[vertIndex + 1]);
+    }
+
+
+    @Override
+    public Character getVertexLabelChar(Integer i) {
+        if(i >= 0 && i < getNumVertices()) {
+            return ' ';
+        }
+        return null;
+    }
+
+
+    @Override
+    public Character getEdgeLabelChar(Integer i, Integer j) {
+        if(hasEdge(i, j)) {
+            return ' ';
+        }
+        return null;
+    }
+
+
+    /**
+     * A read-only view of a range of the neighbor array.
+     */
+    private class NeighborList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int start;
+        private final int end;
+
+        NeighborList(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if(index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (end - start));
+            }
+            return neighbors[start + index];
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -119,7 +119,7 @@ public class PPIGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGrap
      * @param vertices the vertex list to use
      * @param contacts the contacts, which are used to create the edges of the graph
      */
-    public PPIGraph(List<Molecule> vertices, ArrayList<MolContactInfo> contacts) {
+    public PPIGraph(List<Molecule> vertices, List<MolContactInfo> contacts) {
         super(vertices);
         for (int i = 0; i < contacts.size(); i++) {
             if (contactSatisfiesRules(contacts.get(i))) {
@@ -261,7 +261,7 @@ public class PPIGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGrap
 
         // print all edges
         Integer src, tgt;
-        List<Integer[]> allEdges = this.getEdgeListIndex();
+        List<Integer[]> allEdges = this.toCompressed().getEdgeListIndex();
         for (Integer[] edge : allEdges) {
             src = edge[0];
             tgt = edge[1];
@@ -341,7 +341,7 @@ public class PPIGraph extends SparseGraph<Molecule, AAEdgeInfo> implements IGrap
         sbIdx.append("# SimpleGraphID, AAGraphID, PDBResNum, PDBResName");
         sbIdx.append(System.lineSeparator());
 
-        List<Integer[]> allEdges = this.getEdgeListIndex();
+        List<Integer[]> allEdges = this.toCompressed().getEdgeListIndex();
 
         // Create a list that contains all the vertices that contribute to edges
         ArrayList<Integer> allVerticesFromEdges = new ArrayList<Integer>();
@@ -37,6 +37,9 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
     protected ArrayList<ArrayList<Integer>> edges;
     protected HashMap<String, E> edgeInfo;
     
+    /** The CSR form of this graph, see toCompressed(). Dropped whenever the graph is changed. */
+    private CompressedSparseGraph<V, E> compressed = null;
+    
     public static final Integer EDGETYPE_NONE = 0;
     public static final Integer EDGETYPE_EDGE = 1;
     
@@ -98,6 +101,7 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
         
         //DP.getInstance().d("SparseGraph", "Adding edge from " + i + " to " + j + ".");
         
+        compressed = null;
         if(! this.edges.get(i).contains(j)) {
           this.edges.get(i).add(j);
           this.setEdgeInfo(i, j, e);
@@ -138,6 +142,7 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
      * @param v the new vertex to be added
      */    
     public void addVertex(V v) {
+        compressed = null;
         this.vertices.add(v);
         this.edges.add(new ArrayList<Integer>());
     }
@@ -153,6 +158,8 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
             return false;
         }
         
+        compressed = null;
+        
         // delete edges first
         int numNeighbors = this.neighborsOf(idx).size();
         for(int i = (numNeighbors - 1); i >= 0; i--) {
@@ -198,6 +205,8 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
             return false;
         }
         
+        compressed = null;
+        
         if(this.edges.get(i).contains(j)) {
             //System.out.println("deleteEdge("+i+","+j+"): edge list for "+i+": " + IO.intListToString(this.edges.get(i)));
             int idxj = this.edges.get(i).indexOf(j);
@@ -246,6 +255,7 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
     }
     
     private void deleteEdgeInfo(int i, int j) {
+        compressed = null;
         this.edgeInfo.remove(this.getEdgeName(i, j));
     }
     
@@ -259,6 +269,7 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
      */
     public boolean setEdgeInfo(int i, int j, E e) {
         if(this.hasEdge(i, j)) {
+            compressed = null;
             edgeInfo.put(this.getEdgeName(i, j), e);
             return true;
         }
@@ -400,6 +411,21 @@ public class SparseGraph<V, E> implements SimpleGraphInterface, IMutableGraph<V>
         }
     }
     
+    /**
+     * Returns an immutable copy of this graph in compressed sparse row form, see CompressedSparseGraph. It is much faster for
+     * algorithms which only read the graph, use it once the graph is complete. The copy is created on the first call and reused
+     * until the graph is changed.
+     * @return the CSR form of this graph
+     */
+    public CompressedSparseGraph<V, E> toCompressed() {
+        CompressedSparseGraph<V, E> csr = compressed;
+        if(csr == null) {
+            csr = CompressedSparseGraph.fromSparseGraph(this);
+            compressed = csr;
+        }
+        return csr;
+    }
+    
     /**
      * Returns the vertex at index idx
      * @param idx the vertex index
@@ -9,8 +9,6 @@
 package io;
 
 // imports
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +26,7 @@ import proteinstructure.Residue;
 import proteinstructure.RNA; 
 import proteinstructure.Ligand;
 import tools.DP;
+import tools.ExitError;
 
 
 /**
@@ -38,71 +37,9 @@ class CifParser {
     
     // declare class vars
     // control vars
-    static boolean dataInitDone;
     static boolean silent;
     
-    // data structures
-    protected static HashMap<String, String> metaData;
-    private static ArrayList<ProtMetaInfo> allProteinMetaInfos = new ArrayList<>();
-    private static int lastIndexProtMetaInfos = 0;  // used to traverse allProteinMetaInfos quicker for sucessive request, e.g., in the same order they were added
-    private static String pdbID;
-    private static HashMap<String, HashMap<String, String>> entityInformation = new HashMap<>();  // <entity ID, <column head, data>>
-    protected static HashMap<String, String> chainIdentity = new HashMap<>();       // matches chain ID with its molecule type
-    protected static HashMap<String, HashMap<String, String>> chemicalComponents = new HashMap<>();   // stores all information on chemical components
-    
-    // - - - vars for parsing - - -
-    private static Boolean dataBlockFound = false;  // for now only parse the first data block (stop if seeing 2nd block)
-    private static Integer numLine = 0;
-    private static Boolean inLoop = false;
-    private static Boolean inString = false;
-    private static String[] lineData;  // array which holds the data items from one line (seperated by spaces)
-    private static String interruptedLine = "";  // used to build up a line that is interrupted by a multi-line string
-    
-    // - - variables for one loop (reset when hitting new loop) - -
-    private static String currentCategory = null;
-    // Key: name of column; Val: position in list
-    //  -> if auth columns from atom_site not present they will be mapped to the PDB columns
-    //     therefore always use auth columns unless you explicitly want the PDB ones
-    private static HashMap<String,Integer> colHeaderPosMap = new HashMap<>();
-    private static Boolean columnsChecked = false;
-    private static ArrayList<String> currentLineValues = new ArrayList<String>();    //stores values of non-loop-blocks so they can be parsed as "fake-loops"
-    
-    // - - atom_site - -
-    private static int ligandsTreatedNum = 0;
-    private static int RnaTreatedNum = 0;
-    private static int freeResTreatedNum = 0;
-    private static int numberAtoms = 0;
-    
-    // - variables for successive matching atom -> residue/RNA : Molecule -> chain -
-    private static Model m = null;
-    private static Molecule lastMol = null;    // starts as first residue and is always the actual one
-    private static Molecule tmpMol = null;      // used to save lastMol if getResidue returns null
-    private static Chain tmpChain = null;
-    private static Residue res = null;
-    private static Ligand lig = null;
-    private static RNA rna = null;
-
-    // - variables per (atom) line -
-    private static Integer atomSerialNumber, coordX, coordY, coordZ, molNumPDB, entityID;
-    private static String atomRecordName, atomName, chainID, altChainID, chemSym, altLoc, iCode, molNamePDB;
-    private static Double oCoordX, oCoordY, oCoordZ;            // the original coordinates in Angstroem (coordX are 10th part Angstroem)
-    private static Float oCoordXf, oCoordYf, oCoordZf;
-    private static int lastLigandNumPDB = 0; // used to determine if atom belongs to new ligand residue
-    private static String lastChainID = ""; // s.a.
-    private static int lastRnaNumPDB = 0;
-    private static String[] tmpLineData;
-    private static String tmpModelID;
-    private static String chainNum = null;  // identifier of the current chain e.g. A
-    private static String chainType = null; // type of the current chain e.g. RNA
-    private static String nameOrgCommon = "";
-    private static String nameOrgScientific = "";
-    private static String nameOrgCommonSource = "";  // line that an orgName comes from
-    private static String nameOrgScientificSource = "";  // line that an orgName comes from
-
-    // - variables for already printed warnings -
-    private static Boolean furtherModelWarningPrinted = false;
-    
-    // - - - - - - 
+    // the state of the current parse is in the ParseContext, see ParseContext.current()
     
     // constants
     static final String[] NO_VALUE_PLACEHOLDERS = {".", "?"};  // characters that are used in mmCIFs as placeholder when no value exists
@@ -114,7 +51,8 @@ class CifParser {
      * @param pf PDB file path
      */
     private static void initVariables(String pf) {
-        metaData = new HashMap<>();
+        ParseContext ctx = ParseContext.current();
+        ctx.metaData = new HashMap<>();
     }
     
     /**
@@ -124,20 +62,20 @@ class CifParser {
      * @return 
      */
     protected static Boolean initData(String pf) {
+        ParseContext ctx = ParseContext.current();
         
         initVariables(pf);
         
         silent = FileParser.settingSilent();
         
         if(parseData()) {
-            dataInitDone = true;
+            ctx.cifDataInitDone = true;
             return(true);
         }
         else {
             System.err.println("ERROR: Could not parse dssp and pdb data.");
-            dataInitDone = false;
-            System.exit(1);
-            return(false);          // for the IDE ;)
+            ctx.cifDataInitDone = false;
+            throw new ExitError(1);
         }
         
     }
@@ -149,194 +87,55 @@ class CifParser {
      * @return ignore (?)
      */
     private static Boolean parseData() {
+        ParseContext ctx = ParseContext.current();
         
         createResidues();
-        lastMol = new Residue(); // create artificial molecule to fill so there is no NullPointerException, it will be overwritten once atoms are parsed
+        ctx.lastMol = new Residue(); // create artificial molecule to fill so there is no NullPointerException, it will be overwritten once atoms are parsed
         
-        try {
-            BufferedReader in = new BufferedReader(new FileReader(FileParser.pdbFile));
-            String line;
-            while ((line = in.readLine()) != null) {
-                numLine ++;
-                                                             
-                //
-                // - - control sequences - -
-                //
-                // check for beginning of loop (table-like lines)
-                if (line.startsWith("loop_")) {
-                    // loops must not be nested by mmCIF definition
-                    if (inLoop) {
-                        DP.getInstance().e("FP_CIF", "Found a nested loop starting in line " + numLine + " which is forbidden by the mmCIF definition. Exiting now.");
-                        System.exit(1);
-                    }
-                    // from now on: inLoop was false
-                    
-                    inLoop = true;
-                    continue;  // nothing else to parse here
-                }
-                
-                // check if line is a comment ending a loop
-                if (line.startsWith("#")) {
-                    inLoop = false;
-                    colHeaderPosMap.clear();
-                    columnsChecked = false;
-                    currentCategory = null;
-                    inString = false;
-                    interruptedLine = "";
-                    currentLineValues.clear();
-                    continue;  // nothing else to do / parse here
-                }
-                // from now on: line does not start with '#' (is no comment)
+        try (CifTokenizer tokens = new CifTokenizer(ctx.pdbFile)) {
+            ctx.cifTokens = tokens;
+            int token = tokens.next();
+            while (token != CifTokenizer.END) {
+                ctx.numLine = tokens.getLine();
                 
-                // - - handle multi-line strings - -
-                // check if line encloses a string
-                if (line.startsWith(";")) {
-                    inString = !inString;
-                    
-                    if (!inString) {
-                        interruptedLine += "\n;";  // add newline char to mark end of multi-line string & parse combined line
-                        line = "";  // so we dont add it multiple times and with space
-                    }
-                }
-                
-                // check if line is part of a multi-line string
-                if (inString) {
-                        interruptedLine += line;  // keep the semicolon to hide special characters inside. reset is done after switch/case treating a (combined) line
-                    continue;  // only parse combined line, nothing else to parse here
-                }
-                // from now on: cannot be inString and line should always hold all data items (not splitted), despite when new line and single quotation string
-                
-                //
-                // - - parse data - -
-                //
-                
-                // 1) check for data block - do this FIRST b/c line is too short for a 'normal' line
-                if (line.startsWith("data_")) {
-                    if (! handleDataLine(line)) {
-                        // encountered second data block -> stop here
-                        DP.getInstance().w("FP_CIF", " Parsing of first data block ended at line " + numLine.toString()
-                            + " as right now only the first data block is parsed.");
+                switch (token) {
+                    case CifTokenizer.DATA:
+                        if (! handleDataLine(tokens.getText())) {
+                            // encountered second data block -> stop here
+                            DP.getInstance().w("FP_CIF", " Parsing of first data block ended at line " + ctx.numLine.toString()
+                                + " as right now only the first data block is parsed.");
+                            token = CifTokenizer.END;
+                        } else {
+                            token = tokens.next();
+                        }
                         break;
-                    }
-                    continue;  // nothing else to parse here
-                }
-                // from now on: not in data block line
-                
-                // 2) check for category - do this SECOND b/c column header are too short for a 'normal' line
-                if (line.startsWith("_")) {
-                    currentCategory = line.split("\\.")[0];
-                    if (inLoop) {
-                        addColumnHeaderToMap(line);
-                        continue;  // nothing else to parse here
-                    }
-                    else {
-                        String[] elementsSeperatedByDotAndTab = line.split("\\.| ");
-                        colHeaderPosMap.put(elementsSeperatedByDotAndTab[1].trim(), colHeaderPosMap.size());  // add header to colHeaderPosMap
-                        String value = (line.substring(line.indexOf(' ')+1)).trim();
-                        currentLineValues.add(value);  // save value in currentLineValues
-                    }
-                }
-                // from now on: not in loop column header definition
-                
-                // get the data items
-                if (! interruptedLine.equals("")) {
-                    // we want to combine the line with previous line(s)
-                    if (inLoop){
-                        line = interruptedLine + " " + line;
-                    }
-                    else {
-                        // since a value is always added to currentLineValues (even if it is empty) when filling the colHeaderPosMap, 
-                        // the empty value has to be deleted to be replaced by the interruptedLine
-                        currentLineValues.remove(currentLineValues.size() -1);
-                        currentLineValues.add(interruptedLine);
-                    }
-                    interruptedLine = "";
-                }
-                
-                if (inLoop) {
-                    lineData = lineToArray(line);
-                } else {
-                    lineData = trimSpecialChars(currentLineValues);
-                }
-                
-                // check for minimum length of lineData (2 for non-loop and #header for loop) and merge with coming line if not
-                if ((inLoop && lineData.length < colHeaderPosMap.keySet().size()) || (!inLoop && lineData.length < 1)) {
-                        interruptedLine += line;
-                        continue;
-                }
-                
-                if (lineData.length > colHeaderPosMap.keySet().size()) {
-                    DP.getInstance().w("FP_CIF", "Line " + numLine + " (together with previous if combined) seems to be too long. Trying to ignore it, but may miss data.");
-                }
-                // from now on: line contains expected lenght of data items
-
-                switch(currentCategory) {
-                case "_exptl":
-                    // check for experimental method
-                    handleExptlLine();
-                    break;
-                case "_reflns":
-                    handleReflnsLine();
-                    break;
-                case "_refine":
-                    // check for resolution (meta data)
-                    // TODO: really the best attribute(s) to do this?
-                    handleResolutionLine();
-                    break;
-                case "_entity":
-                    // parse entity information to retrieve mol name later
-                    handleEntityLine();
-                    break;
-                case "_entity_poly":
-                    // check for homologues chains
-                    handleEntityPolyLine();
-                    break;
-                case "_atom_site":
-                    // check for atom coordinate data
-                    handleAtomSiteLine();
-                    break;
-                case "_chem_comp":
-                    // check for information on chemical components
-                    handleChemComp();
-                    break;
-                case "_entity_src_gen":
-                    handleEntitySrcGen();
-                    break;
-                case "_entity_src_nat":
-                    handleEntitySrcNat();
-                    break;
-                case "_pdbx_entity_src_syn":
-                    handlePdbxEntitySrcSyn();
-                    break;
-                case "_struct":
-                    handleStructLine();
-                    break;
-                case "_struct_keywords":
-                    handleStructKeywords();
-                    break;
-                case "_pdbx_database_status":
-                    handlePdbxDatabaseStatus();
-                    break;
+                    case CifTokenizer.LOOP:
+                        token = parseLoop(tokens);
+                        break;
+                    case CifTokenizer.TAG:
+                        token = parseItems(tokens);
+                        break;
+                    default:
+                        DP.getInstance().w("FP_CIF", "Found value '" + tokens.getText() + "' in line " + ctx.numLine + " which belongs to no data item. Trying to ignore it.");
+                        token = tokens.next();
                 }
-                
-                // reset here, b/c we only get here when a (combined) line was treated
-                interruptedLine = "";
-
-
-            } // end of reading in lines           
+            }
+            ctx.numLine = tokens.getLine();
 	} catch (IOException e) {
             System.err.println("ERROR: Could not parse PDB file.");
             System.err.println("ERROR: Message: " + e.getMessage());
-            System.exit(1);
-	}
+            throw new ExitError(1);
+	} finally {
+            ctx.cifTokens = null;
+        }
         
         if (! (silent || FileParser.essentialOutputOnly)) {
-            System.out.println("  PDB: Found in total " + FileParser.s_chains.size() + " chains.");
+            System.out.println("  PDB: Found in total " + ctx.s_chains.size() + " chains.");
         }
         
         // alt loc treatment copy&pasted from old parser
         if(! (FileParser.silent || FileParser.essentialOutputOnly)) {
-            System.out.println("    PDB: Hit end of PDB file at line " + numLine + ".");
+            System.out.println("    PDB: Hit end of PDB file at line " + ctx.numLine + ".");
 
             // remove duplicate atoms from altLoc here
             System.out.println("    PDB: Selecting alternative locations for atoms of all residues.");
@@ -345,8 +144,8 @@ class CifParser {
         int numAtomsDeletedAltLoc = 0;
         int numResiduesAffected = 0;
         Molecule m;
-        for(int i = 0; i < FileParser.s_molecules.size(); i++) {
-            m = FileParser.s_molecules.get(i);
+        for(int i = 0; i < ctx.s_molecules.size(); i++) {
+            m = ctx.s_molecules.get(i);
             deletedAtoms = m.chooseYourAltLoc();
 
 
@@ -356,7 +155,7 @@ class CifParser {
 
             //delete atoms from global atom list as well
             for(Atom a : deletedAtoms) {
-                if(FileParser.s_atoms.remove(a)) {
+                if(ctx.s_atoms.remove(a)) {
                     numAtomsDeletedAltLoc++;
                 } else {
                     DP.getInstance().w("Atom requested to be removed from global list does not exist in there.");
@@ -369,10 +168,10 @@ class CifParser {
         
         // add empty Strings to metadata to avoid SQL null errors
         fillMetadataEmptyStrings();
-        if (FileParser.s_chains.size() > 62 || numberAtoms > 99999) {
-            metaData.put("isLarge", "true");
+        if (ctx.s_chains.size() > 62 || ctx.numberAtoms > 99999) {
+            ctx.metaData.put("isLarge", "true");
         } else {
-            metaData.put("isLarge", "false");
+            ctx.metaData.put("isLarge", "false");
         }
         
         // all lines have been read
@@ -380,10 +179,178 @@ class CifParser {
     }
     
     
+    /**
+     * Parses a loop, i.e., a table: the column headers following 'loop_' and the rows of values. Each row is handled by the function of the category.
+     * @param tokens the tokenizer, positioned at the 'loop_' token
+     * @return the first token after the loop
+     */
+    private static int parseLoop(CifTokenizer tokens) throws IOException {
+        ParseContext ctx = ParseContext.current();
+        ctx.inLoop = true;
+        
+        // column headers
+        int numColumns = 0;
+        int token = tokens.next();
+        while (token == CifTokenizer.TAG) {
+            String tag = tokens.getText();
+            int dot = tag.indexOf('.');
+            if (dot < 0) {
+                DP.getInstance().w("FP_CIF", " Expected table definition in line " + 
+                    tokens.getLine() + " but couldnt parse it. Skip it (may miss important data!).");
+            } else {
+                if (ctx.currentCategory == null) {
+                    ctx.currentCategory = tag.substring(0, dot);
+                }
+                ctx.colHeaderPosMap.put(tag.substring(dot + 1), numColumns);
+            }
+            numColumns++;
+            token = tokens.next();
+        }
+        
+        // rows: the values of a row may span several lines, e.g., if one of them is a multi-line string
+        while (token == CifTokenizer.VALUE) {
+            ctx.numLine = tokens.getLine();
+            tokens.beginRow();
+            for (int i = 0; i < numColumns && token == CifTokenizer.VALUE; i++) {
+                tokens.addToRow();
+                token = tokens.next();
+            }
+            if (numColumns == 0) {
+                token = tokens.next();  // values without column headers, ignore them
+            } else if (tokens.getRowSize() < numColumns) {
+                DP.getInstance().w("FP_CIF", "Row starting in line " + ctx.numLine + " has only " + tokens.getRowSize() + " of " + numColumns + " values. Trying to ignore it, but may miss data.");
+            } else if (ctx.currentCategory != null) {
+                if (ctx.currentCategory.equals("_atom_site")) {
+                    // most rows are atoms, they are read from the tokenizer directly
+                    handleAtomSiteLine();
+                } else {
+                    ctx.lineData = new String[numColumns];
+                    for (int i = 0; i < numColumns; i++) {
+                        ctx.lineData[i] = tokens.getRowValue(i);
+                    }
+                    handleCategoryLine();
+                }
+            }
+            tokens.endRow();
+        }
+        
+        // reset for the next loop
+        ctx.inLoop = false;
+        ctx.colHeaderPosMap.clear();
+        ctx.columnsChecked = false;
+        ctx.currentCategory = null;
+        return token;
+    }
+    
+    
+    /**
+     * Parses the data items of one category which are not in a loop, i.e., pairs of a data name and a value, like '_struct.title  TITLE'.
+     * They are handled like a loop with a single row.
+     * @param tokens the tokenizer, positioned at the first data name
+     * @return the first token after the data items of the category
+     */
+    private static int parseItems(CifTokenizer tokens) throws IOException {
+        ParseContext ctx = ParseContext.current();
+        ArrayList<String> values = new ArrayList<>();
+        
+        int token = CifTokenizer.TAG;
+        while (token == CifTokenizer.TAG) {
+            String tag = tokens.getText();
+            int dot = tag.indexOf('.');
+            String category = (dot < 0 ? tag : tag.substring(0, dot));
+            if (ctx.currentCategory != null && ! ctx.currentCategory.equals(category)) {
+                break;  // next category
+            }
+            ctx.currentCategory = category;
+            
+            String value = "";
+            token = tokens.next();
+            if (token == CifTokenizer.VALUE) {
+                value = tokens.getText();
+                token = tokens.next();
+            } else {
+                DP.getInstance().w("FP_CIF", "Data item " + tag + " in line " + ctx.numLine + " has no value. Trying to ignore it.");
+            }
+            
+            if (dot >= 0) {
+                ctx.colHeaderPosMap.put(tag.substring(dot + 1), values.size());
+                values.add(value);
+            }
+        }
+        
+        if (values.size() > 0) {
+            ctx.lineData = values.toArray(new String[values.size()]);
+            handleCategoryLine();
+        }
+        
+        ctx.colHeaderPosMap.clear();
+        ctx.columnsChecked = false;
+        ctx.currentCategory = null;
+        return token;
+    }
+    
+    
+    /**
+     * Applies the function of the current category to the values in lineData.
+     */
+    private static void handleCategoryLine() {
+        ParseContext ctx = ParseContext.current();
+        switch(ctx.currentCategory) {
+            case "_exptl":
+                // check for experimental method
+                handleExptlLine();
+                break;
+            case "_reflns":
+                handleReflnsLine();
+                break;
+            case "_refine":
+                // check for resolution (meta data)
+                // TODO: really the best attribute(s) to do this?
+                handleResolutionLine();
+                break;
+            case "_entity":
+                // parse entity information to retrieve mol name later
+                handleEntityLine();
+                break;
+            case "_entity_poly":
+                // check for homologues chains
+                handleEntityPolyLine();
+                break;
+            case "_atom_site":
+                // check for atom coordinate data
+                handleAtomSiteLine();
+                break;
+            case "_chem_comp":
+                // check for information on chemical components
+                handleChemComp();
+                break;
+            case "_entity_src_gen":
+                handleEntitySrcGen();
+                break;
+            case "_entity_src_nat":
+                handleEntitySrcNat();
+                break;
+            case "_pdbx_entity_src_syn":
+                handlePdbxEntitySrcSyn();
+                break;
+            case "_struct":
+                handleStructLine();
+                break;
+            case "_struct_keywords":
+                handleStructKeywords();
+                break;
+            case "_pdbx_database_status":
+                handlePdbxDatabaseStatus();
+                break;
+        }
+    }
+    
+    
     /**
      * Calls DSSP parser to create all residues from DSSP file.
      */
     private static void createResidues() {
+        ParseContext ctx = ParseContext.current();
         if(! silent) {
             System.out.println("  Creating all Molecules...");
         }
@@ -392,9 +359,9 @@ class CifParser {
 
         // If there is no data part at all in the DSSP file, the function readDsspToData() will catch
         //  this error and exit, this code will never be reached in that case.
-        if(FileParser.s_molecules.size() < 1) {
+        if(ctx.s_molecules.size() < 1) {
             DP.getInstance().e("FP_CIF", "DSSP file contains no residues (maybe the PDB file only holds DNA/RNA data). Exiting.");
-            System.exit(2);
+            throw new ExitError(2);
         }
     }
     
@@ -404,22 +371,23 @@ class CifParser {
      * @return if this is the first data block encountered
      */
     private static boolean handleDataLine(String line) {
-        if (dataBlockFound) {
+        ParseContext ctx = ParseContext.current();
+        if (ctx.dataBlockFound) {
             return false;
         }
         else {
-            dataBlockFound = true;
+            ctx.dataBlockFound = true;
             if (line.length() > 5) {
-                pdbID = line.substring(5, line.length()).toLowerCase();
+                ctx.pdbID = line.substring(5, line.length()).toLowerCase();
                 if (! silent) {
-                    System.out.println("  PDB: Found the first data block named: " + pdbID);
+                    System.out.println("  PDB: Found the first data block named: " + ctx.pdbID);
                 }
             }
             else {
                 if (! silent) {
                     DP.getInstance().w("FP_CIF", "Expected first data block to be named after PDB ID, but found no name. "
                             + "Protein meta information for the chains will contain to PDB ID because of this.");
-                    pdbID = "";
+                    ctx.pdbID = "";
                 }
             }
             return true;
@@ -432,13 +400,14 @@ class CifParser {
      * Saves the experiment method in metaData.
      */
     private static void handleExptlLine() {
-        if (colHeaderPosMap.get("method") != null ){
-            if (! lineData[colHeaderPosMap.get("method")].equals("?")){
-                metaData.put("experiment", lineData[colHeaderPosMap.get("method")]);
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("method") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("method")].equals("?")){
+                ctx.metaData.put("experiment", ctx.lineData[ctx.colHeaderPosMap.get("method")]);
             }
         }
         else{
-            metaData.put("experiment", "");
+            ctx.metaData.put("experiment", "");
         }
     }
     
@@ -448,13 +417,14 @@ class CifParser {
      * Saves the title of the PDB File in metaData.
      */
     private static void handleStructLine(){
-        if (colHeaderPosMap.get("title") != null ){
-            if (! lineData[colHeaderPosMap.get("title")].equals("?")){
-                metaData.put("title", lineData[colHeaderPosMap.get("title")]);
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("title") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("title")].equals("?")){
+                ctx.metaData.put("title", ctx.lineData[ctx.colHeaderPosMap.get("title")]);
             }
         }
         else{
-            metaData.put("title", "");
+            ctx.metaData.put("title", "");
         }
     }
     
@@ -464,21 +434,22 @@ class CifParser {
      * Saves possible keywords in metaData.
      */
     private static void handleStructKeywords(){
-        if (colHeaderPosMap.get("text") != null ){
-            if (! lineData[colHeaderPosMap.get("text")].equals("?")){
-                metaData.put("keywords", lineData[colHeaderPosMap.get("text")]);
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("text") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("text")].equals("?")){
+                ctx.metaData.put("keywords", ctx.lineData[ctx.colHeaderPosMap.get("text")]);
             }
         }
         else{
-            metaData.put("keywords", "");
+            ctx.metaData.put("keywords", "");
         }
-        if (colHeaderPosMap.get("pdbx_keywords") != null ){
-            if (! lineData[colHeaderPosMap.get("pdbx_keywords")].equals("?")){
-                metaData.put("header", lineData[colHeaderPosMap.get("pdbx_keywords")]);
+        if (ctx.colHeaderPosMap.get("pdbx_keywords") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("pdbx_keywords")].equals("?")){
+                ctx.metaData.put("header", ctx.lineData[ctx.colHeaderPosMap.get("pdbx_keywords")]);
             }
         }
         else{
-            metaData.put("header", "");
+            ctx.metaData.put("header", "");
         }
     }
     
@@ -488,13 +459,14 @@ class CifParser {
      * Saves the date in metaData.
      */
     private static void handlePdbxDatabaseStatus(){
-        if (colHeaderPosMap.get("recvd_initial_deposition_date") != null ){
-            if (! lineData[colHeaderPosMap.get("recvd_initial_deposition_date")].equals("?")){
-                metaData.put("date", lineData[colHeaderPosMap.get("recvd_initial_deposition_date")]);
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("recvd_initial_deposition_date") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("recvd_initial_deposition_date")].equals("?")){
+                ctx.metaData.put("date", ctx.lineData[ctx.colHeaderPosMap.get("recvd_initial_deposition_date")]);
             }
         }
         else{
-            metaData.put("date", "");
+            ctx.metaData.put("date", "");
         }
     }
     
@@ -505,14 +477,15 @@ class CifParser {
      * Resolution can be parsed different ways, this is the preferred one.
      */
     private static void handleResolutionLine() {
-        if (colHeaderPosMap.get("ls_d_res_high") != null ){
-            if (! lineData[colHeaderPosMap.get("ls_d_res_high")].equals("?")){
-                metaData.put("resolution", lineData[colHeaderPosMap.get("ls_d_res_high")]);
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("ls_d_res_high") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("ls_d_res_high")].equals("?")){
+                ctx.metaData.put("resolution", ctx.lineData[ctx.colHeaderPosMap.get("ls_d_res_high")]);
             }
         }
         else{
-            if (! metaData.containsKey("resolution")) {
-                metaData.put("resolution", "");
+            if (! ctx.metaData.containsKey("resolution")) {
+                ctx.metaData.put("resolution", "");
             }
         }
     }
@@ -522,14 +495,15 @@ class CifParser {
      * Alternative way to parse resolution.
      */
     private static void handleReflnsLine() {
-        if (! metaData.containsKey("resolution") && colHeaderPosMap.get("d_resolution_high") != null) {
-            if (! lineData[colHeaderPosMap.get("d_resolution_high")].equals("?")){
-                metaData.put("resolution", lineData[colHeaderPosMap.get("d_resolution_high")]);
+        ParseContext ctx = ParseContext.current();
+        if (! ctx.metaData.containsKey("resolution") && ctx.colHeaderPosMap.get("d_resolution_high") != null) {
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("d_resolution_high")].equals("?")){
+                ctx.metaData.put("resolution", ctx.lineData[ctx.colHeaderPosMap.get("d_resolution_high")]);
             }
         }
         else{
-            if (! metaData.containsKey("resolution")){
-                metaData.put("resolution", "");
+            if (! ctx.metaData.containsKey("resolution")){
+                ctx.metaData.put("resolution", "");
             }
         }
     }
@@ -540,16 +514,17 @@ class CifParser {
      * Parses information on which entities (chains/ligands) exist in the molecule. Information is saved in entityInformation map.
      */
     private static void handleEntityLine() {
+        ParseContext ctx = ParseContext.current();
         String tmpValue;
 
-        String tmpEntityID = lineData[0];
-        entityInformation.put(tmpEntityID, new HashMap<String, String>());
+        String tmpEntityID = ctx.lineData[0];
+        ctx.entityInformation.put(tmpEntityID, new HashMap<String, String>());
 
         // get all available information per entity, despite ID (saved as superior key)
-        for (String colHeader : colHeaderPosMap.keySet()) {
+        for (String colHeader : ctx.colHeaderPosMap.keySet()) {
             if (! colHeader.equals("id")) {
-                tmpValue = (valueIsAssigned(lineData[colHeaderPosMap.get(colHeader)]) ? lineData[colHeaderPosMap.get(colHeader)] : null);  // assign value or null
-                entityInformation.get(tmpEntityID).put(colHeader, (valueIsAssigned(tmpValue) ? tmpValue : ""));
+                tmpValue = (valueIsAssigned(ctx.lineData[ctx.colHeaderPosMap.get(colHeader)]) ? ctx.lineData[ctx.colHeaderPosMap.get(colHeader)] : null);  // assign value or null
+                ctx.entityInformation.get(tmpEntityID).put(colHeader, (valueIsAssigned(tmpValue) ? tmpValue : ""));
             }
 
         }            
@@ -561,13 +536,14 @@ class CifParser {
      * Fills, for example, the homologuesMap and the chainIdentity Map which maps chain ID to its molecule type.
      */
     private static void handleEntityPolyLine() {
-            if (colHeaderPosMap.get("pdbx_strand_id") != null ) {
-                FileParser.fillHomologuesMapFromChainIdList(lineData[colHeaderPosMap.get("pdbx_strand_id")].split(","));
+        ParseContext ctx = ParseContext.current();
+            if (ctx.colHeaderPosMap.get("pdbx_strand_id") != null ) {
+                FileParser.fillHomologuesMapFromChainIdList(ctx.lineData[ctx.colHeaderPosMap.get("pdbx_strand_id")].split(","));
                 
                 // Multiple chains can be listed under "pdbx_strand_id" so they have to be separated and individually added to chainIdentity
-                String[] chainList = lineData[colHeaderPosMap.get("pdbx_strand_id")].split(",");
+                String[] chainList = ctx.lineData[ctx.colHeaderPosMap.get("pdbx_strand_id")].split(",");
                 for (String s : chainList) {
-                    chainIdentity.put(s, lineData[colHeaderPosMap.get("type")]);
+                    ctx.chainIdentity.put(s, ctx.lineData[ctx.colHeaderPosMap.get("type")]);
                 }
             }
         }
@@ -578,24 +554,25 @@ class CifParser {
      * Matches atoms <-> residues/rna/ligands <-> chains <-> models.
      */
     private static void handleAtomSiteLine() {
+        ParseContext ctx = ParseContext.current();
         // atom coordinates should always be within a loop      
-        if (! inLoop) {
-            DP.getInstance().e("FP_CIF", "Parsing line " + numLine + ". Atom coordinates seem not be within a loop. Is the file broken? Exiting now.");
-            System.exit(2);
+        if (! ctx.inLoop) {
+            DP.getInstance().e("FP_CIF", "Parsing line " + ctx.numLine + ". Atom coordinates seem not be within a loop. Is the file broken? Exiting now.");
+            throw new ExitError(2);
         }
 
         // we are in the row section (data!)
 
-        numberAtoms++;
+        ctx.numberAtoms++;
 
         // check once if required column headers are present
-        if (! columnsChecked) {
-            ArrayList<String> missingCols = checkColumns(currentCategory, new ArrayList<>(colHeaderPosMap.keySet()));
+        if (! ctx.columnsChecked) {
+            ArrayList<String> missingCols = checkColumns(ctx.currentCategory, new ArrayList<>(ctx.colHeaderPosMap.keySet()));
             if (missingCols.size() > 0) {
-                DP.getInstance().e("FP_CIF", "Missing following columns in " + currentCategory + 
+                DP.getInstance().e("FP_CIF", "Missing following columns in " + ctx.currentCategory + 
                         ": " + missingCols);
                 DP.getInstance().e("FP_CIF", " Exiting now.");
-                System.exit(1);
+                throw new ExitError(1);
             }
 
             // if auth columns not present map them to PDB ones
@@ -604,8 +581,8 @@ class CifParser {
             // Matching equivalents to author columns
             String[] pdbCols = {"label_atom_id", "label_asym_id", "label_comp_id", "label_seq_id"};
             for (int i = 0; i < authCols.length; i++) {
-                if (colHeaderPosMap.get(authCols[i]) == null) {
-                    colHeaderPosMap.put(authCols[i], colHeaderPosMap.get(pdbCols[i]));
+                if (ctx.colHeaderPosMap.get(authCols[i]) == null) {
+                    ctx.colHeaderPosMap.put(authCols[i], ctx.colHeaderPosMap.get(pdbCols[i]));
                     if (! silent) {
                         System.out.println("   Using " + pdbCols[i] + " instead of "+ 
                                 "missing column " + authCols[i]);
@@ -613,33 +590,33 @@ class CifParser {
                 }
             }
 
-            columnsChecked = true;
+            ctx.columnsChecked = true;
         }
 
         // - - model - -
         // Look if model numbers are included
-        if (colHeaderPosMap.get("pdbx_PDB_model_num") != null) {
-            tmpModelID = lineData[colHeaderPosMap.get("pdbx_PDB_model_num")];
+        if (ctx.colHeaderPosMap.get("pdbx_PDB_model_num") != null) {
+            ctx.tmpModelID = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("pdbx_PDB_model_num"));
 
             // save modelID for print later
-            if (! FileParser.s_allModelIDsFromWholePDBFile.contains(tmpModelID)) {
-                FileParser.s_allModelIDsFromWholePDBFile.add(tmpModelID);
+            if (! ctx.s_allModelIDsFromWholePDBFile.contains(ctx.tmpModelID)) {
+                ctx.s_allModelIDsFromWholePDBFile.add(ctx.tmpModelID);
             }
 
-            if (m == null) {
+            if (ctx.m == null) {
                 // use first model
-                m = new Model(tmpModelID);
-                FileParser.s_models.add(m);
+                ctx.m = new Model(ctx.tmpModelID);
+                ctx.s_models.add(ctx.m);
                 if(! (FileParser.silent || FileParser.essentialOutputOnly)) {
-                    System.out.println("   PDB: New model '" + m.getModelID() + "' found");
+                    System.out.println("   PDB: New model '" + ctx.m.getModelID() + "' found");
                 }
             } else {
                 // same model as before?
-                if (! m.getModelID().equals(tmpModelID)) {
-                    if (metaData.get("experiment").contains("NMR")) {
-                        if (! furtherModelWarningPrinted) {
+                if (! ctx.m.getModelID().equals(ctx.tmpModelID)) {
+                    if (ctx.metaData.get("experiment").contains("NMR")) {
+                        if (! ctx.furtherModelWarningPrinted) {
                             System.out.println("   PDB: Found further models. Ignoring them.");
-                            furtherModelWarningPrinted = true;
+                            ctx.furtherModelWarningPrinted = true;
                         }
                         // skip this line if the structure is NMR
                         return;
@@ -648,136 +625,136 @@ class CifParser {
             }
         } else {
             // create default model instead
-            m = new Model("1");
-            FileParser.s_models.add(m);
+            ctx.m = new Model("1");
+            ctx.s_models.add(ctx.m);
             System.out.println("   PDB: No model column. Creating default model '1'");
         }
 
         // - - chain - -
         // check for a new chain (always hold the current 
         // get chain ID
-        if (colHeaderPosMap.get("auth_asym_id") != null && lineData.length >= colHeaderPosMap.get("auth_asym_id") + 1) {
-                String tmp_cID = lineData[colHeaderPosMap.get("auth_asym_id")];
+        if (ctx.colHeaderPosMap.get("auth_asym_id") != null && ctx.cifTokens.getRowSize() >= ctx.colHeaderPosMap.get("auth_asym_id") + 1) {
+                String tmp_cID = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("auth_asym_id"));
                 
                 // get macromolID
                 String tmpMolId;
-                if (colHeaderPosMap.get("label_entity_id") != null && lineData.length >= colHeaderPosMap.get("label_entity_id") + 1) {
-                    tmpMolId = lineData[colHeaderPosMap.get("label_entity_id")];
+                if (ctx.colHeaderPosMap.get("label_entity_id") != null && ctx.cifTokens.getRowSize() >= ctx.colHeaderPosMap.get("label_entity_id") + 1) {
+                    tmpMolId = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_entity_id"));
                 } else {
                     tmpMolId = "";
                 }
                 
-                if (tmpChain == null) {
-                    tmpChain = getOrCreateChain(tmp_cID, m, tmpMolId);
+                if (ctx.tmpChain == null) {
+                    ctx.tmpChain = getOrCreateChain(tmp_cID, ctx.m, tmpMolId);
                 } else 
-                    if (! (tmpChain.getPdbChainID().equals(tmp_cID))) {
-                        tmpChain = getOrCreateChain(tmp_cID, m, tmpMolId);
+                    if (! (ctx.tmpChain.getPdbChainID().equals(tmp_cID))) {
+                        ctx.tmpChain = getOrCreateChain(tmp_cID, ctx.m, tmpMolId);
                     }
         }
 
         // - - atom - -
         // reset variables
-        atomSerialNumber = molNumPDB = coordX =  coordY = coordZ = null;
-        atomRecordName = atomName = molNamePDB = chainID = chemSym = altLoc = null;
-        iCode = " "; // if column does not exist or ? || . is assigned use 1 blank (compare old parser)
-        oCoordX = oCoordY = oCoordZ = null;            // the original coordinates in Angstroem (coordX are 10th part Angstroem)
-        oCoordXf = oCoordYf = oCoordZf = null;
+        ctx.atomSerialNumber = ctx.molNumPDB = ctx.coordX =  ctx.coordY = ctx.coordZ = null;
+        ctx.atomRecordName = ctx.atomName = ctx.molNamePDB = ctx.chainID = ctx.chemSym = ctx.altLoc = null;
+        ctx.iCode = " "; // if column does not exist or ? || . is assigned use 1 blank (compare old parser)
+        ctx.oCoordX = ctx.oCoordY = ctx.oCoordZ = null;            // the original coordinates in Angstroem (coordX are 10th part Angstroem)
+        ctx.oCoordXf = ctx.oCoordYf = ctx.oCoordZf = null;
 
         // chain name
-        chainID = lineData[colHeaderPosMap.get("auth_asym_id")];      // chain ID as set by author --> preferably use this one for all kinds of tasks
-        altChainID = lineData[colHeaderPosMap.get("label_asym_id")];  // chain ID computed by the PDB
+        ctx.chainID = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("auth_asym_id"));      // chain ID as set by author --> preferably use this one for all kinds of tasks
+        ctx.altChainID = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_asym_id"));  // chain ID computed by the PDB
 
         // PDBx field alias atom record name
-        if (colHeaderPosMap.get("group_PDB") != null) {
-            if (colHeaderPosMap.get("group_PDB") < 0) {
-                atomRecordName = lineData[colHeaderPosMap.get("group_PDB")];
+        if (ctx.colHeaderPosMap.get("group_PDB") != null) {
+            if (ctx.colHeaderPosMap.get("group_PDB") < 0) {
+                ctx.atomRecordName = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("group_PDB"));
             }
         } else {
             if( ! Settings.getBoolean("PTGLgraphComputation_B_no_parse_warn")) {
                 DP.getInstance().w("FP_CIF", "Seems like _atom_site.group_PDB is missing. Trying to ignore it.");  
-                colHeaderPosMap.put("group_PDB", -1);  // save that warning has been printed
+                ctx.colHeaderPosMap.put("group_PDB", -1);  // save that warning has been printed
             } 
         }
 
         // atom id alias serial number
-        atomSerialNumber = Integer.valueOf(lineData[colHeaderPosMap.get("id")]); // there should be no need to trim as whitespaces should be ignored earlier
+        ctx.atomSerialNumber = ctx.cifTokens.getRowInt(ctx.colHeaderPosMap.get("id")); // there should be no need to trim as whitespaces should be ignored earlier
 
         // detailed atom name
         // old PDB files used spacing to differentiate between atoms
         // e.g. " CA " = C alpha, how to deal with this? mmCIF has no spacings
         // for now workaround for probable C alpha
-        if (lineData[colHeaderPosMap.get("label_atom_id")].equals("CA")) {
-            atomName = " " + lineData[colHeaderPosMap.get("label_atom_id")] + " ";
+        if (ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_atom_id")).equals("CA")) {
+            ctx.atomName = " " + ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_atom_id")) + " ";
         } else {
-            atomName = lineData[colHeaderPosMap.get("label_atom_id")];
+            ctx.atomName = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_atom_id"));
         }
 
         // alternative location
-        if (colHeaderPosMap.get("label_alt_id") != null) {
-            altLoc = lineData[colHeaderPosMap.get("label_alt_id")];
+        if (ctx.colHeaderPosMap.get("label_alt_id") != null) {
+            ctx.altLoc = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_alt_id"));
         }
 
         // residue name or rna name 
          //resNamePDB = lineData[colHeaderPosMap.get("label_comp_id")];
-        molNamePDB = lineData[colHeaderPosMap.get("label_comp_id")];
+        ctx.molNamePDB = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("label_comp_id"));
 
         // residue number or rna number 
 
         // use auth_seq_id > label_seq_id (hope DSSP does so too)
         // resNumPDB = Integer.valueOf(lineData[colHeaderPosMap.get("auth_seq_id")]);
-        molNumPDB = Integer.valueOf(lineData[colHeaderPosMap.get("auth_seq_id")]);
+        ctx.molNumPDB = ctx.cifTokens.getRowInt(ctx.colHeaderPosMap.get("auth_seq_id"));
         
         // entity ID (mostly used for classification of ligands)
-        entityID = Integer.valueOf(lineData[colHeaderPosMap.get("label_entity_id")]);
+        ctx.entityID = ctx.cifTokens.getRowInt(ctx.colHeaderPosMap.get("label_entity_id"));
 
         // insertion code
         // only update if column and value exist, otherwise stick to blank ""
-        if (colHeaderPosMap.get("pdbx_PDB_ins_code") != null) {
-            if (! (lineData[colHeaderPosMap.get("pdbx_PDB_ins_code")].equals("?") || lineData[colHeaderPosMap.get("pdbx_PDB_ins_code")].equals("."))) {
-                iCode = lineData[colHeaderPosMap.get("pdbx_PDB_ins_code")];
+        if (ctx.colHeaderPosMap.get("pdbx_PDB_ins_code") != null) {
+            if (! (ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("pdbx_PDB_ins_code")).equals("?") || ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("pdbx_PDB_ins_code")).equals("."))) {
+                ctx.iCode = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("pdbx_PDB_ins_code"));
             }
         }
 
         // coordX
         // for information on difference between ptgl and PTGLgraphComputation style look in old parser
         if (Settings.getBoolean("PTGLgraphComputation_B_round_coordinates")) {
-            oCoordXf = Float.valueOf(lineData[colHeaderPosMap.get("Cartn_x")]) * 10;
-            coordX = Math.round(oCoordXf);
+            ctx.oCoordXf = ctx.cifTokens.getRowFloat(ctx.colHeaderPosMap.get("Cartn_x")) * 10;
+            ctx.coordX = Math.round(ctx.oCoordXf);
         } else {
-            oCoordX = Double.valueOf(lineData[colHeaderPosMap.get("Cartn_x")]) * 10.0;
-            coordX = oCoordX.intValue();
+            ctx.oCoordX = ctx.cifTokens.getRowDouble(ctx.colHeaderPosMap.get("Cartn_x")) * 10.0;
+            ctx.coordX = ctx.oCoordX.intValue();
          }
 
 
         // coordY
         if (Settings.getBoolean("PTGLgraphComputation_B_round_coordinates")) {
-            oCoordYf = Float.valueOf(lineData[colHeaderPosMap.get("Cartn_y")]) * 10;
-            coordY = Math.round(oCoordYf);
+            ctx.oCoordYf = ctx.cifTokens.getRowFloat(ctx.colHeaderPosMap.get("Cartn_y")) * 10;
+            ctx.coordY = Math.round(ctx.oCoordYf);
         } else {
-            oCoordY = Double.valueOf(lineData[colHeaderPosMap.get("Cartn_y")]) * 10.0;
-            coordY = oCoordY.intValue();
+            ctx.oCoordY = ctx.cifTokens.getRowDouble(ctx.colHeaderPosMap.get("Cartn_y")) * 10.0;
+            ctx.coordY = ctx.oCoordY.intValue();
         }
 
         // coordZ
         if (Settings.getBoolean("PTGLgraphComputation_B_round_coordinates")) {
-            oCoordZf = Float.valueOf(lineData[colHeaderPosMap.get("Cartn_z")]) * 10;
-            coordZ = Math.round(oCoordZf);
+            ctx.oCoordZf = ctx.cifTokens.getRowFloat(ctx.colHeaderPosMap.get("Cartn_z")) * 10;
+            ctx.coordZ = Math.round(ctx.oCoordZf);
         } else {
-            oCoordZ = Double.valueOf(lineData[colHeaderPosMap.get("Cartn_z")]) * 10.0;
-            coordZ = oCoordZ.intValue();            
+            ctx.oCoordZ = ctx.cifTokens.getRowDouble(ctx.colHeaderPosMap.get("Cartn_z")) * 10.0;
+            ctx.coordZ = ctx.oCoordZ.intValue();            
         }
 
         // chemical symbol
-        chemSym = lineData[colHeaderPosMap.get("type_symbol")];
+        ctx.chemSym = ctx.cifTokens.getRowValue(ctx.colHeaderPosMap.get("type_symbol"));
 
         // standard AAs and (some) non-standard, atm: UNK, MSE
         //   -> may be changed below if it is free (treat as ligand then)
 
         // TODO: possible to ignore alt loc atoms right now?
 
-        if(FileParser.isDNAresidueName(FileParser.leftInsertSpaces(molNamePDB, 3))) {
+        if(FileParser.isDNAresidueName(FileParser.leftInsertSpaces(ctx.molNamePDB, 3))) {
             if( ! Settings.getBoolean("PTGLgraphComputation_B_no_parse_warn")) {
-                DP.getInstance().w("Atom #" + atomSerialNumber + " in PDB file belongs to DNA residue (residue 3-letter code is '" + molNamePDB + "'), skipping.");
+                DP.getInstance().w("Atom #" + ctx.atomSerialNumber + " in PDB file belongs to DNA residue (residue 3-letter code is '" + ctx.molNamePDB + "'), skipping.");
             }
             return;  // atom is not used
         }
@@ -785,7 +762,7 @@ class CifParser {
         if( ! Settings.getBoolean("PTGLgraphComputation_B_include_rna")) {
             if(checkType(Molecule.RESIDUE_TYPE_RNA)) {
                 if( ! Settings.getBoolean("PTGLgraphComputation_B_no_parse_warn")) {
-                    DP.getInstance().w("Atom #" + atomSerialNumber + " in PDB file belongs to RNA residue (residue 3-letter code is '" + molNamePDB + "'), skipping.");
+                    DP.getInstance().w("Atom #" + ctx.atomSerialNumber + " in PDB file belongs to RNA residue (residue 3-letter code is '" + ctx.molNamePDB + "'), skipping.");
                 }
                 return;  // atom is not used
             }
@@ -796,69 +773,69 @@ class CifParser {
         //     -> enables getting DsspResNum for atom from res
         // match res <-> chain here
         // load new Residue into lastMol if we approached next Residue, otherwise only add new atom
-        if (! (Objects.equals(molNumPDB, lastMol.getPdbNum()) && chainID.equals(lastMol.getChainID()) && iCode.equals(lastMol.getiCode()))) {
-            tmpMol = FileParser.getResidueFromList(molNumPDB, chainID, iCode);  // null if not in DSSP data -> rna/ligand/free AA
+        if (! (Objects.equals(ctx.molNumPDB, ctx.lastMol.getPdbNum()) && ctx.chainID.equals(ctx.lastMol.getChainID()) && ctx.iCode.equals(ctx.lastMol.getiCode()))) {
+            ctx.tmpMol = FileParser.getResidueFromList(ctx.molNumPDB, ctx.chainID, ctx.iCode);  // null if not in DSSP data -> rna/ligand/free AA
             // check that a peptide residue could be found                   
-            if (checkType(tmpMol.RESIDUE_TYPE_LIGAND) || entityInformation.get(String.valueOf(entityID)).get("type").equals("non-polymer")) {
+            if (checkType(ctx.tmpMol.RESIDUE_TYPE_LIGAND) || ctx.entityInformation.get(String.valueOf(ctx.entityID)).get("type").equals("non-polymer")) {
                 // residue is not in DSSP file and is not part of a chain -> must be free (modified) amino acid, ligand or RNA
                 if (! silent) {
                     // print note only once
-                    if (! molNumPDB.equals(lastLigandNumPDB))
+                    if (! ctx.molNumPDB.equals(ctx.lastLigandNumPDB))
 
                         if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 1) {
-                            System.out.println("   PDB: Found a ligand, RNA or free (modified) amino acid at PDB# " + molNumPDB + ". Free amino acids are treated as ligands.");
+                            System.out.println("   PDB: Found a ligand, RNA or free (modified) amino acid at PDB# " + ctx.molNumPDB + ". Free amino acids are treated as ligands.");
                         }
                 }
 
             } else {
                 
                 if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2) {
-                    System.out.println("    [DEBUG LV 2] Found an amino acid at PDB# " + molNumPDB + " that is not listed in the DSSP file (might be at a chain break). Parsing it as part of a chain.");
+                    System.out.println("    [DEBUG LV 2] Found an amino acid at PDB# " + ctx.molNumPDB + " that is not listed in the DSSP file (might be at a chain break). Parsing it as part of a chain.");
                 }
                 
                 // sometimes residues are missing from the dssp file if they are incomplete (mostly at chain breaks)
                 // in this case, they have to be parsed here
-                if (tmpMol == null) {
-                    res = new Residue();
+                if (ctx.tmpMol == null) {
+                    ctx.res = new Residue();
                                         
-                    res.setPdbNum(molNumPDB);
-                    res.setType(Molecule.RESIDUE_TYPE_AA);
+                    ctx.res.setPdbNum(ctx.molNumPDB);
+                    ctx.res.setType(Molecule.RESIDUE_TYPE_AA);
                     
                     // assign fake dssp number taking into account other elements that have been given a dssp number
-                    freeResTreatedNum++;
-                    res.setDsspNum(assignDsspNum());
-
-                    res.setChainID(chainID);
-                    res.setiCode(iCode);
-                    res.setName3(molNamePDB);
-                    res.setAAName1(Residue.getAAName1fromAAName3(molNamePDB));
-                    res.setChain(FileParser.getChainByPdbChainID(chainID));
-                    res.setModelID(m.getModelID());
-                    res.setSSEString("C");
+                    ctx.freeResTreatedNum++;
+                    ctx.res.setDsspNum(assignDsspNum());
+
+                    ctx.res.setChainID(ctx.chainID);
+                    ctx.res.setiCode(ctx.iCode);
+                    ctx.res.setName3(ctx.molNamePDB);
+                    ctx.res.setAAName1(Residue.getAAName1fromAAName3(ctx.molNamePDB));
+                    ctx.res.setChain(FileParser.getChainByPdbChainID(ctx.chainID));
+                    ctx.res.setModelID(ctx.m.getModelID());
+                    ctx.res.setSSEString("C");
                     
-                    lastChainID = chainID;
-                    FileParser.s_molecules.add(res);
-                    lastMol = res;
+                    ctx.lastChainID = ctx.chainID;
+                    ctx.s_molecules.add(ctx.res);
+                    ctx.lastMol = ctx.res;
                 } else {
-                    lastMol = tmpMol;
+                    ctx.lastMol = ctx.tmpMol;
                 }
 
-                lastMol.setModelID(m.getModelID());
-                lastMol.setChain(tmpChain);
-                tmpChain.addMolecule(lastMol);
+                ctx.lastMol.setModelID(ctx.m.getModelID());
+                ctx.lastMol.setChain(ctx.tmpChain);
+                ctx.tmpChain.addMolecule(ctx.lastMol);
 
                 // assign PDB res name (which differs in case of modifed residues)
-                lastMol.setName3(molNamePDB);
-                lastMol.setEntityID(entityID);
+                ctx.lastMol.setName3(ctx.molNamePDB);
+                ctx.lastMol.setEntityID(ctx.entityID);
             }
         }
 
         Atom a = new Atom();
 
-        if (FileParser.isIgnoredAtom(chemSym)) {
-            if( ! (Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && chemSym.trim().equals("H"))) {
+        if (FileParser.isIgnoredAtom(ctx.chemSym)) {
+            if( ! (Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && ctx.chemSym.trim().equals("H"))) {
                 if (Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
-                    System.out.println("DEBUG Ignored atom line " + numLine.toString() + 
+                    System.out.println("DEBUG Ignored atom line " + ctx.numLine.toString() + 
                             " as it is either in ignored list or handle_hydrogens turned off.");
                 }
                 return;
@@ -866,61 +843,61 @@ class CifParser {
         }
 
         // only ATOMs, not HETATMs, have a DSSP entry
-        if((Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && chemSym.trim().equals("H"))) {
+        if((Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && ctx.chemSym.trim().equals("H"))) {
             a.setDsspResNum(null);
         }
         else {
-            a.setDsspResNum(lastMol.getDsspNum());
+            a.setDsspResNum(ctx.lastMol.getDsspNum());
         }
         
-        if ((checkType(Molecule.RESIDUE_TYPE_RNA) && entityInformation.get(String.valueOf(entityID)).get("type").equals("polymer"))) {  // Nucleotides are only parsed as RNA if they are polymers, not if they act as single ligands.
+        if ((checkType(Molecule.RESIDUE_TYPE_RNA) && ctx.entityInformation.get(String.valueOf(ctx.entityID)).get("type").equals("polymer"))) {  // Nucleotides are only parsed as RNA if they are polymers, not if they act as single ligands.
             // >> RNA <<
             // if the line we are currently in belongs to the same molecule as the previous one, we only create a new atom for this line.
             // otherwise, a new RNA molecule is created
-            if( ! ( molNumPDB.equals(lastRnaNumPDB) && chainID.equals(lastChainID) ) ) {
-                rna = new RNA();
-                rna.setPdbNum(molNumPDB);
-                rna.setType(Molecule.RESIDUE_TYPE_RNA);                
+            if( ! ( ctx.molNumPDB.equals(ctx.lastRnaNumPDB) && ctx.chainID.equals(ctx.lastChainID) ) ) {
+                ctx.rna = new RNA();
+                ctx.rna.setPdbNum(ctx.molNumPDB);
+                ctx.rna.setType(Molecule.RESIDUE_TYPE_RNA);                
                 
-                RnaTreatedNum++;
-                rna.setDsspNum(assignDsspNum());
+                ctx.RnaTreatedNum++;
+                ctx.rna.setDsspNum(assignDsspNum());
                 
-                rna.setChainID(chainID);
-                rna.setiCode(iCode);
-                rna.setName3(molNamePDB);
-                rna.setAAName1(molNamePDB);
-                rna.setChain(FileParser.getChainByPdbChainID(chainID));
-                rna.setModelID(m.getModelID());
-                rna.setSSEString("PTGLgraphComputation_S_rnaSseCode");
-                rna.setEntityID(entityID);
+                ctx.rna.setChainID(ctx.chainID);
+                ctx.rna.setiCode(ctx.iCode);
+                ctx.rna.setName3(ctx.molNamePDB);
+                ctx.rna.setAAName1(ctx.molNamePDB);
+                ctx.rna.setChain(FileParser.getChainByPdbChainID(ctx.chainID));
+                ctx.rna.setModelID(ctx.m.getModelID());
+                ctx.rna.setSSEString("PTGLgraphComputation_S_rnaSseCode");
+                ctx.rna.setEntityID(ctx.entityID);
                 
-                lastMol = rna;
+                ctx.lastMol = ctx.rna;
                                 
-                if(FileParser.isIgnoredLigRes(molNamePDB)) {
+                if(FileParser.isIgnoredLigRes(ctx.molNamePDB)) {
                     // RNA chains can contain ligands that should be ignored such as water
                     // In this case, no new atom needs to be saved
-                    RnaTreatedNum--;
+                    ctx.RnaTreatedNum--;
                     a.setAtomtype(Atom.ATOMTYPE_IGNORED_LIGAND);
-                    FileParser.ignoredLigands += 1;
+                    ctx.ignoredLigands += 1;
                     
                     if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0){
-                        DP.getInstance().w("Ignored RNA-Ligand found at PDB line " + molNumPDB + ". Name: " + molNamePDB);
+                        DP.getInstance().w("Ignored RNA-Ligand found at PDB line " + ctx.molNumPDB + ". Name: " + ctx.molNamePDB);
                     }
                     return;
                     
                 } else {                    
-                    lastRnaNumPDB = molNumPDB;
-                    lastChainID = chainID;
-                    FileParser.s_molecules.add(rna);
+                    ctx.lastRnaNumPDB = ctx.molNumPDB;
+                    ctx.lastChainID = ctx.chainID;
+                    ctx.s_molecules.add(ctx.rna);
 
-                    Integer rnaIndex = FileParser.s_molecules.size() - 1;
-                    FileParser.s_rnaIndices.add(rnaIndex);
+                    Integer rnaIndex = ctx.s_molecules.size() - 1;
+                    ctx.s_rnaIndices.add(rnaIndex);
 
-                    FileParser.getChainByPdbChainID(chainID).addMolecule(rna);
+                    FileParser.getChainByPdbChainID(ctx.chainID).addMolecule(ctx.rna);
                     
                     if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
                         if(! silent) {
-                            DP.getInstance().d("New RNA molecule named " + molNamePDB + ", DSSPNumber " + rna.getDsspNum() + ", added in PDB line " + molNumPDB + " to chain " + chainID + ".");
+                            DP.getInstance().d("New RNA molecule named " + ctx.molNamePDB + ", DSSPNumber " + ctx.rna.getDsspNum() + ", added in PDB line " + ctx.molNumPDB + " to chain " + ctx.chainID + ".");
                         }
                     }
                 }
@@ -929,7 +906,7 @@ class CifParser {
         
         // If a molecule is not parsed at this point, it has to be a ligand
         else if (checkType(Molecule.RESIDUE_TYPE_LIGAND) ||                                          // if the molecule is categorized as a ligand through chem_comp map
-                (entityInformation.get(String.valueOf(entityID)).get("type").equals("non-polymer"))) // if entity is defined as 'non-polymer' (e.g. free AA/RNA)
+                (ctx.entityInformation.get(String.valueOf(ctx.entityID)).get("type").equals("non-polymer"))) // if entity is defined as 'non-polymer' (e.g. free AA/RNA)
             
         {
             // >> LIG <<
@@ -937,66 +914,66 @@ class CifParser {
             // idea: add always residue (for consistency) but atom only if it is not an ignored ligand
 
             // check if we have created ligand residue for s_residue
-            if( ! ( molNumPDB.equals(lastLigandNumPDB) && chainID.equals(lastChainID) ) ) {
+            if( ! ( ctx.molNumPDB.equals(ctx.lastLigandNumPDB) && ctx.chainID.equals(ctx.lastChainID) ) ) {
 
                 // create new Residue from info, we'll have to see whether we really add it below though
-                lig = new Ligand();
+                ctx.lig = new Ligand();
 
-                lig.setPdbNum(molNumPDB);
-                lig.setType(Molecule.RESIDUE_TYPE_LIGAND);
+                ctx.lig.setPdbNum(ctx.molNumPDB);
+                ctx.lig.setType(Molecule.RESIDUE_TYPE_LIGAND);
 
                 // assign fake DSSP Num increasing with each seen ligand
-                ligandsTreatedNum ++;
-                lig.setDsspNum(assignDsspNum());
+                ctx.ligandsTreatedNum ++;
+                ctx.lig.setDsspNum(assignDsspNum());
                 
-                lig.setChainID(chainID);
-                lig.setiCode(iCode);
-                lig.setName3(molNamePDB);
-                lig.setAAName1(AminoAcid.getLigandName1());
-                lig.setChain(FileParser.getChainByPdbChainID(chainID));
+                ctx.lig.setChainID(ctx.chainID);
+                ctx.lig.setiCode(ctx.iCode);
+                ctx.lig.setName3(ctx.molNamePDB);
+                ctx.lig.setAAName1(AminoAcid.getLigandName1());
+                ctx.lig.setChain(FileParser.getChainByPdbChainID(ctx.chainID));
                 // still just assigning default model 1
-                lig.setModelID(m.getModelID());
-                lig.setSSEString(Settings.get("PTGLgraphComputation_S_ligSSECode"));
-                lig.setEntityID(entityID);
+                ctx.lig.setModelID(ctx.m.getModelID());
+                ctx.lig.setSSEString(Settings.get("PTGLgraphComputation_S_ligSSECode"));
+                ctx.lig.setEntityID(ctx.entityID);
                 
-                lastMol = lig;
+                ctx.lastMol = ctx.lig;
                 
                 // add ligand to list of residues if it not on the ignore list
-                if(FileParser.isIgnoredLigRes(molNamePDB)) {
-                    ligandsTreatedNum--;    // We had to increment before to determine the fake DSSP res number, but this ligand won't be stored so decrement to previous value.
-                    FileParser.ignoredLigands += 1;
+                if(FileParser.isIgnoredLigRes(ctx.molNamePDB)) {
+                    ctx.ligandsTreatedNum--;    // We had to increment before to determine the fake DSSP res number, but this ligand won't be stored so decrement to previous value.
+                    ctx.ignoredLigands += 1;
 
                     if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0){
-                        System.out.println("    PDB: Ignored ligand '" + molNamePDB + "-" + molNumPDB + "' at PDB line " + molNumPDB + ".");
+                        System.out.println("    PDB: Ignored ligand '" + ctx.molNamePDB + "-" + ctx.molNumPDB + "' at PDB line " + ctx.molNumPDB + ".");
                     }
                 } else {
 
-                    lig.setLigName((chemicalComponents.get(molNamePDB)).get("name"));
-                    lig.setLigFormula((chemicalComponents.get(molNamePDB)).get("formula"));
-                    lig.setLigSynonyms((chemicalComponents.get(molNamePDB)).get("pdbx_synonyms"));
+                    ctx.lig.setLigName((ctx.chemicalComponents.get(ctx.molNamePDB)).get("name"));
+                    ctx.lig.setLigFormula((ctx.chemicalComponents.get(ctx.molNamePDB)).get("formula"));
+                    ctx.lig.setLigSynonyms((ctx.chemicalComponents.get(ctx.molNamePDB)).get("pdbx_synonyms"));
                     
-                    lastLigandNumPDB = molNumPDB;
-                    lastChainID = chainID;
+                    ctx.lastLigandNumPDB = ctx.molNumPDB;
+                    ctx.lastChainID = ctx.chainID;
 
-                    FileParser.s_molecules.add(lig);
-                    Integer ligandIndex = FileParser.s_molecules.size() - 1;
-                    FileParser.s_ligandIndices.add(ligandIndex);
+                    ctx.s_molecules.add(ctx.lig);
+                    Integer ligandIndex = ctx.s_molecules.size() - 1;
+                    ctx.s_ligandIndices.add(ligandIndex);
 
-                    FileParser.getChainByPdbChainID(chainID).addMolecule(lig);
+                    FileParser.getChainByPdbChainID(ctx.chainID).addMolecule(ctx.lig);
 
                     // do we need this?
                     //resIndex = s_residues.size() - 1;
                     //resIndexDSSP[resNumDSSP] = resIndex;
                     //resIndexPDB[molNumPDB] = resIndex;      // This will crash because some PDB files contain negative residue numbers so fuck it.
                     if(! (FileParser.silent || FileParser.essentialOutputOnly)) {
-                        System.out.println("   PDB: Added ligand monomer '" +  molNamePDB + "-" + molNumPDB + "', chain " + chainID + " (line " + numLine + ", ligand #" + ligandsTreatedNum + ", Fake DSSP #" + lig.getDsspNum() + ").");
-                        System.out.println("   PDB:   => Ligand name = '" + lig.getLigName() + "', formula = '" + lig.getLigFormula() + "', synonyms = '" + lig.getLigSynonyms() + "'.");
+                        System.out.println("   PDB: Added ligand monomer '" +  ctx.molNamePDB + "-" + ctx.molNumPDB + "', chain " + ctx.chainID + " (line " + ctx.numLine + ", ligand #" + ctx.ligandsTreatedNum + ", Fake DSSP #" + ctx.lig.getDsspNum() + ").");
+                        System.out.println("   PDB:   => Ligand name = '" + ctx.lig.getLigName() + "', formula = '" + ctx.lig.getLigFormula() + "', synonyms = '" + ctx.lig.getLigSynonyms() + "'.");
                     }
 
                 }
             }
 
-            if(FileParser.isIgnoredLigRes(molNamePDB)) {
+            if(FileParser.isIgnoredLigRes(ctx.molNamePDB)) {
                 a.setAtomtype(Atom.ATOMTYPE_IGNORED_LIGAND);       // invalid ligand (ignored)
 
                 // We do not need these atoms and they may lead to trouble later on, so
@@ -1019,20 +996,20 @@ class CifParser {
         // lastMol may be NULL
         // Note that the command above may have returned NULL, we care for that below
 
-        a.setPdbAtomNum(atomSerialNumber);
-        a.setAtomName(atomName);
-        a.setAltLoc(altLoc);
-        a.setMolecule(lastMol);
-        a.setChainID(chainID);        
-        a.setChain(FileParser.getChainByPdbChainID(chainID));
-        a.setPdbResNum(molNumPDB);
+        a.setPdbAtomNum(ctx.atomSerialNumber);
+        a.setAtomName(ctx.atomName);
+        a.setAltLoc(ctx.altLoc);
+        a.setMolecule(ctx.lastMol);
+        a.setChainID(ctx.chainID);        
+        a.setChain(FileParser.getChainByPdbChainID(ctx.chainID));
+        a.setPdbResNum(ctx.molNumPDB);
         // we cant get the DSSP res num easily here and have to do it later (I guess)
         // old parser seems to assign 0 here whatsoever so we just leave the default value there
         // a.setDsspResNum(resNumDSSP);
-        a.setCoordX(coordX);
-        a.setCoordY(coordY);
-        a.setCoordZ(coordZ);
-        a.setChemSym(chemSym);
+        a.setCoordX(ctx.coordX);
+        a.setCoordY(ctx.coordY);
+        a.setCoordZ(ctx.coordZ);
+        a.setChemSym(ctx.chemSym);
 
         // from old parser, not working with models right now
         /*
@@ -1042,43 +1019,43 @@ class CifParser {
         }
         */
         
-            if (lastMol.getType() == Molecule.RESIDUE_TYPE_AA || lastMol.getType() == Molecule.RESIDUE_TYPE_RNA){
-                if (lastMol == null) {
-                    DP.getInstance().w("Molecule with PDB # " + molNumPDB + " of chain '" + chainID + "' with iCode '" + iCode + "' not listed in CIF data, skipping atom " + atomSerialNumber + " belonging to that residue (PDB line " + numLine.toString() + ").");
+            if (ctx.lastMol.getType() == Molecule.RESIDUE_TYPE_AA || ctx.lastMol.getType() == Molecule.RESIDUE_TYPE_RNA){
+                if (ctx.lastMol == null) {
+                    DP.getInstance().w("Molecule with PDB # " + ctx.molNumPDB + " of chain '" + ctx.chainID + "' with iCode '" + ctx.iCode + "' not listed in CIF data, skipping atom " + ctx.atomSerialNumber + " belonging to that residue (PDB line " + ctx.numLine.toString() + ").");
                     return;
                 } else {
-                    if(Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && chemSym.trim().equals("H")) {
-                        lastMol.addHydrogenAtom(a);
+                    if(Settings.getBoolean("PTGLgraphComputation_B_handle_hydrogen_atoms_from_reduce") && ctx.chemSym.trim().equals("H")) {
+                        ctx.lastMol.addHydrogenAtom(a);
                     }
                     else {
                         // add Atom to list of atoms of current molecule as well as list of all atoms
-                        FileParser.s_atoms.add(a);
+                        ctx.s_atoms.add(a);
                         if (checkType(Molecule.RESIDUE_TYPE_AA)){
                             if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2) {
                                 System.out.println("    [DEBUG LV 2] New AA atom added: " + a.toString());
                             }
                             a.setAtomtype(Atom.ATOMTYPE_AA);
-                            lastMol.addAtom(a);
+                            ctx.lastMol.addAtom(a);
                         }
                         if (checkType(Molecule.RESIDUE_TYPE_RNA)){
                             if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2) {
                                 System.out.println("    [DEBUG LV 2] New RNA atom added: " + a.toString());
                             }
                             a.setAtomtype(Atom.ATOMTYPE_RNA);
-                            a.setMolecule(rna);
-                            rna.addAtom(a);
+                            a.setMolecule(ctx.rna);
+                            ctx.rna.addAtom(a);
                         }
                     }
                 }
             }
             else {
-                if (! (lig == null)){
+                if (! (ctx.lig == null)){
                     if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2) {
                        System.out.println("    [DEBUG LV 2] New ligand atom added: " + a.toString());
                     }
-                    lig.addAtom(a);
-                    a.setMolecule(lig);
-                    FileParser.s_atoms.add(a);
+                    ctx.lig.addAtom(a);
+                    a.setMolecule(ctx.lig);
+                    ctx.s_atoms.add(a);
                 }
 
             }
@@ -1090,14 +1067,15 @@ class CifParser {
      * Entries can look like this: MET={name=METHIONINE, pdbx_synonyms=?, formula=C5 H11 N O2 S, id=MET, type=L-peptide linking, formula_weight=149.211}}
      */
     private static void handleChemComp(){
+        ParseContext ctx = ParseContext.current();
         String category = null;              // categories such as type, name
         String value = null;              // values such as peptide, Methionine
         HashMap<String, String> tmpComponent = new HashMap<>();     // stores categories and values for current component
-        for (String cat : colHeaderPosMap.keySet()){
+        for (String cat : ctx.colHeaderPosMap.keySet()){
             category = cat;
-            value = lineData[colHeaderPosMap.get(cat)];
+            value = ctx.lineData[ctx.colHeaderPosMap.get(cat)];
             tmpComponent.put(category, value);
-            chemicalComponents.put(lineData[colHeaderPosMap.get("id")], tmpComponent);      // matches one component with all its category/value pairings
+            ctx.chemicalComponents.put(ctx.lineData[ctx.colHeaderPosMap.get("id")], tmpComponent);      // matches one component with all its category/value pairings
         }
     }
     
@@ -1107,16 +1085,17 @@ class CifParser {
      * Assigns the common and the scientific name of the molecule to variables that are later transferred to ProtMetaInfo.
      */
     private static void handleEntitySrcGen(){
-        if (colHeaderPosMap.get("gene_src_common_name") != null ){
-            if (! lineData[colHeaderPosMap.get("gene_src_common_name")].equals("?")){
-                nameOrgCommon = lineData[colHeaderPosMap.get("gene_src_common_name")];
-                nameOrgCommonSource = "_entity_src_gen";
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("gene_src_common_name") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("gene_src_common_name")].equals("?")){
+                ctx.nameOrgCommon = ctx.lineData[ctx.colHeaderPosMap.get("gene_src_common_name")];
+                ctx.nameOrgCommonSource = "_entity_src_gen";
             }
         }
-        if (colHeaderPosMap.get("pdbx_gene_src_scientific_name") != null ){
-            if (! lineData[colHeaderPosMap.get("pdbx_gene_src_scientific_name")].equals("?")){
-                nameOrgScientific = lineData[colHeaderPosMap.get("pdbx_gene_src_scientific_name")];
-                nameOrgScientificSource = "_entity_src_gen";
+        if (ctx.colHeaderPosMap.get("pdbx_gene_src_scientific_name") != null ){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("pdbx_gene_src_scientific_name")].equals("?")){
+                ctx.nameOrgScientific = ctx.lineData[ctx.colHeaderPosMap.get("pdbx_gene_src_scientific_name")];
+                ctx.nameOrgScientificSource = "_entity_src_gen";
             }
         }
     }
@@ -1127,16 +1106,17 @@ class CifParser {
      * Alternative way to parse organism name.
      */
     private static void handleEntitySrcNat(){
-        if (colHeaderPosMap.get("common_name") != null && ! nameOrgCommonSource.equals("_entity_src_gen")){
-            if (! lineData[colHeaderPosMap.get("common_name")].equals("?")){
-                nameOrgCommon = lineData[colHeaderPosMap.get("common_name")];
-                nameOrgCommonSource = "_entity_src_nat";
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("common_name") != null && ! ctx.nameOrgCommonSource.equals("_entity_src_gen")){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("common_name")].equals("?")){
+                ctx.nameOrgCommon = ctx.lineData[ctx.colHeaderPosMap.get("common_name")];
+                ctx.nameOrgCommonSource = "_entity_src_nat";
             }
         }
-        if (colHeaderPosMap.get("pdbx_organism_scientific") != null && ! nameOrgScientificSource.equals("_entity_src_gen")){
-            if (! lineData[colHeaderPosMap.get("pdbx_organism_scientific")].equals("?")){
-                nameOrgScientific = lineData[colHeaderPosMap.get("pdbx_organism_scientific")];
-                nameOrgScientificSource = "_entity_src_nat";
+        if (ctx.colHeaderPosMap.get("pdbx_organism_scientific") != null && ! ctx.nameOrgScientificSource.equals("_entity_src_gen")){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("pdbx_organism_scientific")].equals("?")){
+                ctx.nameOrgScientific = ctx.lineData[ctx.colHeaderPosMap.get("pdbx_organism_scientific")];
+                ctx.nameOrgScientificSource = "_entity_src_nat";
             }
         }
     }
@@ -1147,16 +1127,17 @@ class CifParser {
      * Alternative way to parse organism name.
      */
     private static void handlePdbxEntitySrcSyn(){
-        if (colHeaderPosMap.get("organism_common_name") != null && ! nameOrgCommon.equals("")){
-            if (! lineData[colHeaderPosMap.get("organism_common_name")].equals("?")){
-                nameOrgCommon = lineData[colHeaderPosMap.get("organism_common_name")];
-                nameOrgCommonSource = "_pdbx_entity_src_syn";
+        ParseContext ctx = ParseContext.current();
+        if (ctx.colHeaderPosMap.get("organism_common_name") != null && ! ctx.nameOrgCommon.equals("")){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("organism_common_name")].equals("?")){
+                ctx.nameOrgCommon = ctx.lineData[ctx.colHeaderPosMap.get("organism_common_name")];
+                ctx.nameOrgCommonSource = "_pdbx_entity_src_syn";
             }
         }
-        if (colHeaderPosMap.get("organism_scientific") != null && ! nameOrgScientific.equals("")){
-            if (! lineData[colHeaderPosMap.get("organism_scientific")].equals("?")){
-                nameOrgScientific = lineData[colHeaderPosMap.get("organism_scientific")];
-                nameOrgScientificSource = "_pdbx_entity_src_syn";
+        if (ctx.colHeaderPosMap.get("organism_scientific") != null && ! ctx.nameOrgScientific.equals("")){
+            if (! ctx.lineData[ctx.colHeaderPosMap.get("organism_scientific")].equals("?")){
+                ctx.nameOrgScientific = ctx.lineData[ctx.colHeaderPosMap.get("organism_scientific")];
+                ctx.nameOrgScientificSource = "_pdbx_entity_src_syn";
             }
         }
     }
@@ -1185,145 +1166,15 @@ class CifParser {
     }
     
     
-    /**
-     * Trims ' or ; when they exist as first an last char, then removes \n.
-     * 
-     */
-    private static String[] trimSpecialChars(ArrayList<String> stringList) {
-        ArrayList<String> charsToDelete = new ArrayList<>(Arrays.asList((";"), ("\'")));
-        String[] returnList = new String[stringList.size()];
-        String element;
-        for (int i = 0; i < stringList.size(); i++) {
-            element = stringList.get(i);  // start with respective element
-            if (stringList.get(i).length() > 0) {
-                // First check if there are special chars around the line
-                if (charsToDelete.contains(String.valueOf(stringList.get(i).charAt(0))) && charsToDelete.contains(String.valueOf(stringList.get(i).charAt((stringList.get(i).length()) - 1)))){
-                    element = stringList.get(i).substring(1, stringList.get(i).length() - 1);
-                    if (element.endsWith("\n")){
-                        // Secondly, check if there is still a newline char at the end of the line
-                        element = String.valueOf(element).replaceAll("\n", "");
-                    }
-                }
-            }
-            returnList[i] = element;
-        }
-        return returnList;
-    }
-    
-    
-    /**
-     * Returns an array of 'words' separated by an arbitrary amount of spaces. Considers in-line strings.
-     * @param handleSpecialCharacters whether single and double quotation should be considered.
-     *   Should be false whenever a combined multi-line string is provided and true otherwise.
-     * @param line
-     * @return
-     */
-    private static String[] lineToArray(String line) {
-        ArrayList<String> dataItemList = new ArrayList<>();
-        String tmpItem = "";
-        boolean inLineString = false;  // marked by single-quoation mark
-        boolean inLineQuote = false;
-        boolean inMultiString = false;  // surrounded by semi-colon and hides everything
-        
-        // used to  determine whether single-quotation starts in-line string
-        Character prev_char;
-        Character next_char;
-        
-        for (int i = 0; i < line.length(); i++) {
-            
-            char tmpChar = line.charAt(i);
-            
-            if (inMultiString) {
-                // accept everything but ending newline-character+semi-colon or newline-character
-                
-                // end of multi-line string
-                if (tmpChar == ';' && line.charAt(i - 1 ) == '\n') {
-                    // newline can only appear before multi-line-ending semi-colon, so it should be okay to assume there is always a char before
-                    inMultiString = false;
-                    continue;
-                }
-                
-                // newline-character only used to mark multi-line ending semi-colon, so exclude it from data
-                if (tmpChar == '\n') { continue; }
-            } else {
-            
-                if (inLineQuote) {
-                    // accept everything but ending quote
-                    if (tmpChar == '"') {
-                        inLineQuote = false;
-                        continue;
-                    }
-                } else {
-                    
-                    // if there is previous / next character assign it, else assign ' ', i.e., handle single quoations on start / end as in-line string
-                    prev_char = (i > 0 ? line.charAt(i - 1) : ' ');
-                    next_char = (i < line.length() - 1 ? line.charAt(i + 1) : ' ');
-                    
-                    if (inLineString) {
-                        // accept everything but ending single-quote
-                        if (tmpChar == '\'' && next_char == ' ') {
-                            inLineString = false;
-                            continue;
-                        }
-                    } else {
-                        // we are not in multi-line, single-line string or quotation
-
-                        switch (tmpChar) {
-                            case ' ':
-                                if (tmpItem.length() > 0) {
-                                    dataItemList.add(tmpItem);                   
-                                    tmpItem = "";
-                                }
-                                break;
-                            case '"':
-                                inLineQuote = true;
-                                break;
-                            case ';':
-                                if (prev_char == ' ' || next_char == ' '){  // in case a ';' is embedded in between two characters it is assumed it is part of a string
-                                    inMultiString = true;
-                                }
-                                break;
-                            case '\'':
-                                if (prev_char == ' ') {
-                                    inLineString = true;
-                                } else {
-                                    // in-word single-quotation, e.g., 5'-O
-                                    tmpItem += tmpChar;
-                                }
-                                break;
-                            default:
-                                tmpItem += tmpChar;
-                        }  // end of switch-case
-                        continue;
-                    }  // end of in-lineString
-                }  // end of if in-quote
-            }  // end of if in-multiString
-            // only reached when in some flagged part and end not reached, so simply add character
-            tmpItem += tmpChar;
-        }  // end of for-loop over line's characters
-        
-        // lines appear to end with a whitespace, still care for when they do not
-        if (tmpItem.length() > 0) {
-            dataItemList.add(tmpItem);
-        }
-        
-        if (inLineString) {
-            DP.getInstance().w("FP_CIF", "In line " + numLine + " an not ending inline-string (single quotation mark) was found. Is the file correct? Trying to ignore it.");
-        }
-
-        // return Array instead of list
-        return dataItemList.toArray(new String[dataItemList.size()]);
-    }
-    
-    
     /**
      * Fills important metaData fields that are not existing with empty Strings.
      */
     private static void fillMetadataEmptyStrings() {
+        ParseContext ctx = ParseContext.current();
         List<String> mdFields = Arrays.asList("title", "keywords", "experiment", "resolution", "date", "header");
         for (String field : mdFields) {
-            if (! metaData.containsKey(field)) {
-                metaData.put(field, "");
+            if (! ctx.metaData.containsKey(field)) {
+                ctx.metaData.put(field, "");
             }
         }
     }
@@ -1333,12 +1184,13 @@ class CifParser {
      * Fills allProteinMetaInfos from entityInformation. PMIs already have to be created (e.g. during parsing and creation of chains).
      */
     private static void fillProteinMetaData() {
+        ParseContext ctx = ParseContext.current();
         String tmpValue;
         ArrayList<String> tmpArrayList;
         HashMap <String, String> tmpEntityInfo;
 
-        for (ProtMetaInfo pmi : allProteinMetaInfos) {
-            tmpEntityInfo = entityInformation.get(pmi.getMacromolID());
+        for (ProtMetaInfo pmi : ctx.allProteinMetaInfos) {
+            tmpEntityInfo = ctx.entityInformation.get(pmi.getMacromolID());
 
             // pdbx_description -> molName
             tmpValue = tmpEntityInfo.get("pdbx_description");
@@ -1352,12 +1204,12 @@ class CifParser {
                 pmi.setECNumber(tmpValue);
             }
             
-            pmi.setOrgCommon(nameOrgCommon);
-            pmi.setOrgScientific(nameOrgScientific);
+            pmi.setOrgCommon(ctx.nameOrgCommon);
+            pmi.setOrgScientific(ctx.nameOrgScientific);
             
             // FileParser.homologuesMap -> allMolChains
             //   seems like this is never used, but cant hurt to fill it, since we have the information
-            tmpArrayList = FileParser.homologuesMap.get(pmi.getChainid());
+            tmpArrayList = ctx.homologuesMap.get(pmi.getChainid());
             if (tmpArrayList != null) {
                 
                 tmpValue = tmpArrayList.toString().replace("[", "").replace("]", "");
@@ -1411,26 +1263,6 @@ class CifParser {
     }
     
     
-    /**
-     * Handles line defining loop's definition and adds it to colHeaderPosMap.
-     * @param line 
-     */
-    private static void addColumnHeaderToMap(String line) {
-        if (inLoop){
-            String[] elementsSeperatedByDot = line.split("\\.");
-
-            if (elementsSeperatedByDot.length < 2) {
-                DP.getInstance().w("FP_CIF", " Expected table definition in line " + 
-                    numLine.toString() + " but couldnt parse it. Skip it (may miss important data!).");
-                return;
-            }
-            // from now on elementsSeperatedByDot has at least two elements
-
-            colHeaderPosMap.put(elementsSeperatedByDot[1].trim(), colHeaderPosMap.size());
-        }
-    }
-
-    
     /**
      * Creates from a list all aub lists excluding one different element.
      * @param targetArray
@@ -1464,7 +1296,8 @@ class CifParser {
      * @return 
      */
     private static Chain getOrCreateChain(String cID, Model m, String entityID) {
-        for (Chain existing_c : FileParser.s_chains) {
+        ParseContext ctx = ParseContext.current();
+        for (Chain existing_c : ctx.s_chains) {
             if (existing_c.getPdbChainID().equals(cID)) {
                 return existing_c;
             }
@@ -1473,44 +1306,45 @@ class CifParser {
         // reaching this code only if chain didnt exist
         //   that means that also not ProtMetaInfo exists, so create one here
         Chain c = new Chain(cID);      
-        ProtMetaInfo pmi = new ProtMetaInfo(pdbID, cID);
+        ProtMetaInfo pmi = new ProtMetaInfo(ctx.pdbID, cID);
         
         c.setModel(m);
         c.setModelID(m.getModelID());
         m.addChain(c);
-        if (chainIdentity.get(cID) == null) {
+        if (ctx.chainIdentity.get(cID) == null) {
             c.setMoleculeType("non-polymer");
         } else {
-            c.setMoleculeType(chainIdentity.get(cID));
+            c.setMoleculeType(ctx.chainIdentity.get(cID));
         }
-        c.setAltChainID(altChainID);
+        c.setAltChainID(ctx.altChainID);
                 
-        c.setHomologues(FileParser.homologuesMap.get(cID));
+        c.setHomologues(ctx.homologuesMap.get(cID));
         //c.setMacromolID(entityID);
         pmi.setMacromolID(entityID);
         
-        FileParser.s_chains.add(c);
+        ctx.s_chains.add(c);
         if (! (FileParser.silent || FileParser.essentialOutputOnly)) {
             System.out.println("   PDB: New chain named " + cID + " found.");
         }
         
-        allProteinMetaInfos.add(pmi);
+        ctx.allProteinMetaInfos.add(pmi);
         return c;
     }
         
 
     protected static ProtMetaInfo getProteinMetaInfo(String pdbID, String chainID) {
+        ParseContext ctx = ParseContext.current();
         Boolean foundPMI = false;
         ProtMetaInfo pmi = null;
-        Integer currentIndex = lastIndexProtMetaInfos;
+        Integer currentIndex = ctx.lastIndexProtMetaInfos;
 
         // iterate up to allProteinMetaInfos.size() times
-        for(Integer i = 0; i < allProteinMetaInfos.size(); i++) {
+        for(Integer i = 0; i < ctx.allProteinMetaInfos.size(); i++) {
                        
             // start at last occurence
-            currentIndex = (lastIndexProtMetaInfos + i) % allProteinMetaInfos.size();
+            currentIndex = (ctx.lastIndexProtMetaInfos + i) % ctx.allProteinMetaInfos.size();
             
-            pmi = allProteinMetaInfos.get(currentIndex);
+            pmi = ctx.allProteinMetaInfos.get(currentIndex);
                       
             if(pmi.getPdbid().equals(pdbID)  && pmi.getChainid().equals(chainID)) {
                 foundPMI = true;
@@ -1524,7 +1358,7 @@ class CifParser {
             DP.getInstance().w("No protein chain meta information for PDB ID: " + pdbID + " and chain ID " + chainID + " found."
                 + " Returning empty informtation instead.");
         }
-        lastIndexProtMetaInfos = currentIndex;
+        ctx.lastIndexProtMetaInfos = currentIndex;
         return pmi;
     }
     
@@ -1536,12 +1370,13 @@ class CifParser {
      * @param requestedType integer of the type one is looking for (0 for AA, 1 for ligand, 3 for RNA)
      */
     protected static Boolean checkType(Integer requestedType){
+        ParseContext ctx = ParseContext.current();
         if (! (requestedType == 0 || requestedType == 1 || requestedType == 2 || requestedType == 3)){
             DP.getInstance().w("Tried to check molecule type, but requested type was not recognized. Trying to move on without checking the type.");
             return false;
         }
         Integer actualType = 1;
-        String chemType = ((chemicalComponents.get(molNamePDB)).get("type"));
+        String chemType = ((ctx.chemicalComponents.get(ctx.molNamePDB)).get("type"));
         String chemTypeLowerCase = chemType.toLowerCase();
         int intIndex = chemTypeLowerCase.indexOf("rna");
         if (intIndex != -1){
@@ -1562,7 +1397,8 @@ class CifParser {
      * Only AAs in DSSP file get a real DSSP number, all other objects (RNA, ligands, free AAs) have to be assigned one.
      */
     protected static Integer assignDsspNum () {
-        return DsspParser.lastUsedDsspNum + RnaTreatedNum + ligandsTreatedNum + freeResTreatedNum;
+        ParseContext ctx = ParseContext.current();
+        return ctx.lastUsedDsspNum + ctx.RnaTreatedNum + ctx.ligandsTreatedNum + ctx.freeResTreatedNum;
     }
       
 }
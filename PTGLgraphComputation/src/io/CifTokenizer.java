@@ -0,0 +1,512 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import tools.DP;
+
+/**
+ * Streaming tokenizer for mmCIF files. Reads the file in large blocks from a file channel and splits it into tokens at the byte level,
+ * without creating a String per line or per character. A token is only turned into a String when the caller asks for it, numbers can be
+ * parsed directly from the bytes.
+ *
+ * Handles comments, quoted values ('...' and "...", which end at a matching quote followed by white space) and multi-line text
+ * fields (lines between a line starting with ';' and the next one). Like the former line-based CifParser, the lines of a text field
+ * are joined without line breaks.
+ *
+ * The values of a row of a loop can be collected with beginRow() and addToRow() and accessed by column until the next beginRow(), see
+ * CifParser.handleAtomSiteLine(). This is how the _atom_site table is fed into the atom builder.
+ */
+public final class CifTokenizer implements Closeable {
+
+    public static final int END = 0;       // end of file
+    public static final int DATA = 1;      // data block header, e.g., 'data_1ABC'
+    public static final int LOOP = 2;      // 'loop_'
+    public static final int TAG = 3;       // data name, e.g., '_atom_site.id'
+    public static final int VALUE = 4;     // data value, quoted or not
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 20;
+    private static final int STRING_CACHE_SIZE = 4096;  // must be a power of 2
+    private static final int MAX_CACHED_STRING_LENGTH = 8;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+    private final FileChannel channel;
+    private byte[] buf;
+    private int pos = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private int line = 1;
+    private boolean atLineStart = true;
+
+    // the current token: bytes [tokStart, tokEnd) of buf, or tokText for text fields
+    private int tokStart;
+    private int tokEnd;
+    private String tokText;
+    private int tokLine;
+    private int keepFrom = -1;  // start of the token being read, its bytes must be kept when reading the next block
+
+    // the result of parseDecimal()
+    private long decimalDigits;
+    private int decimalScale;
+    private boolean decimalNegative;
+
+    // the current row, see beginRow()
+    private int rowMark = -1;   // bytes before this index may be discarded when reading the next block, -1 if all may be discarded
+    private int rowSize = 0;
+    private int[] rowStarts = new int[32];
+    private int[] rowEnds = new int[32];
+    private String[] rowTexts = new String[32];
+
+    // Strings of short tokens, e.g., chain IDs, residue names and atom names, which occur over and over again
+    private final String[] stringCache = new String[STRING_CACHE_SIZE];
+
+
+    /**
+     * @param file path to the mmCIF file
+     * @throws IOException if the file can not be opened
+     */
+    public CifTokenizer(String file) throws IOException {
+        this(file, INITIAL_BUFFER_SIZE);
+    }
+
+
+    /**
+     * @param file path to the mmCIF file
+     * @param bufferSize the initial size of the read buffer in bytes. A small buffer makes tokens and rows cross the block boundaries, which tests use.
+     * @throws IOException if the file can not be opened
+     */
+    public CifTokenizer(String file, int bufferSize) throws IOException {
+        buf = new byte[bufferSize];
+        channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+    }
+
+
+    /**
+     * Reads the next token.
+     * @return the type of the token: END, DATA, LOOP, TAG or VALUE
+     * @throws IOException if reading the file fails
+     */
+    public int next() throws IOException {
+        tokText = null;
+        while (true) {
+            if (pos >= limit && ! fill()) {
+                tokLine = (atLineStart && line > 1 ? line - 1 : line);  // the last line
+                return END;
+            }
+            byte b = buf[pos];
+            if (b == '\n') {
+                pos++;
+                line++;
+                atLineStart = true;
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                pos++;
+                atLineStart = false;
+            } else if (b == '#') {
+                skipToLineEnd();
+            } else if (b == ';' && atLineStart) {
+                readTextField();
+                return VALUE;
+            } else if (b == '\'' || b == '"') {
+                readQuoted(b);
+                return VALUE;
+            } else {
+                return readBare();
+            }
+        }
+    }
+
+
+    /**
+     * @return the line number at which the current token starts
+     */
+    public int getLine() {
+        return tokLine;
+    }
+
+
+    /**
+     * @return the current token as a String
+     */
+    public String getText() {
+        return (tokText != null ? tokText : toString(tokStart, tokEnd));
+    }
+
+
+    /**
+     * Starts a new row: the values added by addToRow() are kept accessible until the next call.
+     */
+    public void beginRow() {
+        rowSize = 0;
+        rowMark = tokStart;
+    }
+
+
+    /**
+     * Adds the current token as the next value of the row.
+     */
+    public void addToRow() {
+        if (rowSize == rowStarts.length) {
+            rowStarts = Arrays.copyOf(rowStarts, rowSize * 2);
+            rowEnds = Arrays.copyOf(rowEnds, rowSize * 2);
+            rowTexts = Arrays.copyOf(rowTexts, rowSize * 2);
+        }
+        rowStarts[rowSize] = tokStart;
+        rowEnds[rowSize] = tokEnd;
+        rowTexts[rowSize] = tokText;
+        rowSize++;
+    }
+
+
+    /**
+     * Ends the row, so its bytes may be discarded.
+     */
+    public void endRow() {
+        rowMark = -1;
+    }
+
+
+    public int getRowSize() {
+        return rowSize;
+    }
+
+
+    /**
+     * @param col the column index
+     * @return the value of the given column of the current row
+     */
+    public String getRowValue(int col) {
+        return (rowTexts[col] != null ? rowTexts[col] : toString(rowStarts[col], rowEnds[col]));
+    }
+
+
+    /**
+     * Parses the value of the given column of the current row as an integer.
+     * @param col the column index
+     * @return the value
+     * @throws NumberFormatException if the value is no integer
+     */
+    public int getRowInt(int col) {
+        int start = rowStarts[col];
+        int end = rowEnds[col];
+        if (rowTexts[col] != null || end - start > 9 || end == start) {
+            return Integer.parseInt(getRowValue(col));
+        }
+        boolean negative = (buf[start] == '-');
+        int i = (negative || buf[start] == '+' ? start + 1 : start);
+        if (i == end) {
+            throw new NumberFormatException("For input string: \"" + getRowValue(col) + "\"");
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getRowValue(col) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return (negative ? -value : value);
+    }
+
+
+    /**
+     * Parses the value of the given column of the current row as a double. The result is the same as that of Double.parseDouble().
+     * @param col the column index
+     * @return the value
+     * @throws NumberFormatException if the value is no number
+     */
+    public double getRowDouble(int col) {
+        if ( ! parseDecimal(col) || decimalDigits >= (1L << 53)) {
+            return Double.parseDouble(getRowValue(col));
+        }
+        // both numbers are exact doubles, so the division is correctly rounded like parseDouble()
+        double value = decimalDigits / POWERS_OF_TEN[decimalScale];
+        return (decimalNegative ? -value : value);
+    }
+
+
+    /**
+     * Parses the value of the given column of the current row as a float. The result is the same as that of Float.parseFloat().
+     * @param col the column index
+     * @return the value
+     * @throws NumberFormatException if the value is no number
+     */
+    public float getRowFloat(int col) {
+        if ( ! parseDecimal(col) || decimalDigits >= (1L << 24) || decimalScale > 10) {
+            return Float.parseFloat(getRowValue(col));
+        }
+        // both numbers are exact floats, so the division is correctly rounded like parseFloat()
+        float value = decimalDigits / (float) POWERS_OF_TEN[decimalScale];
+        return (decimalNegative ? -value : value);
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Parses a simple decimal number like '-12.345' of the given column of the current row into decimalDigits (12345),
+     * decimalScale (3) and decimalNegative (true).
+     * @param col the column index
+     * @return false if the value is not a simple decimal number
+     */
+    private boolean parseDecimal(int col) {
+        if (rowTexts[col] != null) {
+            return false;
+        }
+        int start = rowStarts[col];
+        int end = rowEnds[col];
+        if (end - start > 18 || end == start) {
+            return false;
+        }
+        boolean negative = (buf[start] == '-');
+        int i = (negative || buf[start] == '+' ? start + 1 : start);
+        long digits = 0;
+        int numDigits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                numDigits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                return false;
+            }
+        }
+        if (numDigits == 0) {
+            return false;
+        }
+        decimalDigits = digits;
+        decimalScale = Math.max(scale, 0);
+        decimalNegative = negative;
+        return true;
+    }
+
+
+    /**
+     * Reads the next block of the file into the buffer, keeping the bytes of the current token and row.
+     * @return false if the end of the file was reached and there are no more bytes
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int keep = (keepFrom >= 0 ? keepFrom : pos);
+        if (rowMark >= 0) {
+            keep = Math.min(keep, rowMark);
+        }
+        if (keep > 0) {
+            // discard the bytes before 'keep' and shift all offsets
+            System.arraycopy(buf, keep, buf, 0, limit - keep);
+            limit -= keep;
+            pos -= keep;
+            tokStart -= keep;
+            tokEnd -= keep;
+            if (keepFrom >= 0) {
+                keepFrom -= keep;
+            }
+            if (rowMark >= 0) {
+                rowMark -= keep;
+                for (int i = 0; i < rowSize; i++) {
+                    rowStarts[i] -= keep;
+                    rowEnds[i] -= keep;
+                }
+            }
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buf, limit, buf.length - limit));
+        if (read < 0) {
+            eof = true;
+            return pos < limit;
+        }
+        limit += read;
+        return true;
+    }
+
+
+    private void skipToLineEnd() throws IOException {
+        while (true) {
+            if (pos >= limit && ! fill()) {
+                return;
+            }
+            if (buf[pos] == '\n') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+
+    /**
+     * Reads a token which is not quoted, up to the next white space.
+     */
+    private int readBare() throws IOException {
+        tokLine = line;
+        tokStart = pos;
+        keepFrom = tokStart;
+        atLineStart = false;
+        while (true) {
+            if (pos >= limit && ! fill()) {
+                break;
+            }
+            byte b = buf[pos];
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                break;
+            }
+            pos++;
+        }
+        tokStart = keepFrom;
+        tokEnd = pos;
+        keepFrom = -1;
+        int len = tokEnd - tokStart;
+        if (buf[tokStart] == '_') {
+            return TAG;
+        }
+        if (len >= 5 && startsWithIgnoreCase("data_")) {
+            return DATA;
+        }
+        if (len == 5 && startsWithIgnoreCase("loop_")) {
+            return LOOP;
+        }
+        return VALUE;
+    }
+
+
+    /**
+     * Reads a quoted token. It ends at a matching quote followed by white space, or at the end of the line.
+     */
+    private void readQuoted(byte quote) throws IOException {
+        tokLine = line;
+        atLineStart = false;
+        pos++;
+        keepFrom = pos;
+        while (true) {
+            if (pos >= limit && ! fill()) {
+                endQuoted(pos);
+                return;
+            }
+            byte b = buf[pos];
+            if (b == '\n' || b == '\r') {
+                endQuoted(pos);
+                DP.getInstance().w("FP_CIF", "In line " + line + " a quoted string does not end before the end of the line. Is the file correct? Trying to ignore it.");
+                return;
+            }
+            if (b == quote) {
+                if (pos + 1 >= limit) {
+                    fill();
+                }
+                if (pos + 1 >= limit || buf[pos + 1] == ' ' || buf[pos + 1] == '\t' || buf[pos + 1] == '\n' || buf[pos + 1] == '\r') {
+                    endQuoted(pos);
+                    pos++;
+                    return;
+                }
+            }
+            pos++;
+        }
+    }
+
+
+    private void endQuoted(int end) {
+        tokStart = keepFrom;
+        tokEnd = end;
+        keepFrom = -1;
+    }
+
+
+    /**
+     * Reads a text field: all lines from the current one (after the leading ';') to the next line starting with ';', joined without line breaks.
+     */
+    private void readTextField() throws IOException {
+        tokLine = line;
+        pos++;  // skip ';'
+        StringBuilder text = new StringBuilder();
+        boolean lineStart = false;
+        while (true) {
+            if (pos >= limit && ! fill()) {
+                DP.getInstance().w("FP_CIF", "The text field starting in line " + tokLine + " does not end. Is the file correct? Trying to ignore it.");
+                break;
+            }
+            byte b = buf[pos];
+            if (b == ';' && lineStart) {
+                pos++;
+                break;
+            }
+            if (b == '\n') {
+                line++;
+                lineStart = true;
+            } else {
+                if (b != '\r') {
+                    text.append((char) (b & 0xff));
+                }
+                lineStart = false;
+            }
+            pos++;
+        }
+        atLineStart = false;
+        tokStart = tokEnd = pos;
+        tokText = text.toString();
+    }
+
+
+    private boolean startsWithIgnoreCase(String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase((char) buf[tokStart + i]) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Creates the String of the given bytes of the buffer. Short Strings are taken from a cache if possible.
+     */
+    private String toString(int start, int end) {
+        int len = end - start;
+        if (len > MAX_CACHED_STRING_LENGTH) {
+            return new String(buf, start, len, StandardCharsets.ISO_8859_1);
+        }
+        int hash = len;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        hash ^= (hash >>> 16);
+        int slot = hash & (STRING_CACHE_SIZE - 1);
+        String cached = stringCache[slot];
+        if (cached != null && cached.length() == len) {
+            boolean equal = true;
+            for (int i = 0; i < len; i++) {
+                if (cached.charAt(i) != (char) (buf[start + i] & 0xff)) {
+                    equal = false;
+                    break;
+                }
+            }
+            if (equal) {
+                return cached;
+            }
+        }
+        String s = new String(buf, start, len, StandardCharsets.ISO_8859_1);
+        stringCache[slot] = s;
+        return s;
+    }
+}
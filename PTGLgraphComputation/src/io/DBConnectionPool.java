@@ -0,0 +1,602 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package io;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import tools.DP;
+
+/**
+ * A fixed-size pool of connections to the database, used by DBManager.
+ *
+ * Each thread works on its own connection, so transactions (autocommit, commit, rollback) of different threads do not interfere
+ * and several threads can access the database at the same time. The connection returned by getThreadConnection() can be shared by
+ * all threads: each call on it is forwarded to the connection bound to the calling thread, which is taken from the pool on the first
+ * use. A thread keeps its connection until it calls releaseThreadConnection(), inTransaction() does this automatically. If all
+ * connections are in use, a thread waits up to ACQUIRE_TIMEOUT_SECONDS for one.
+ *
+ * Each pooled connection caches its prepared statements by SQL text, so a query which is run many times is only prepared once (and
+ * the JDBC driver can switch to a server-side prepared statement). Closing a cached statement only resets it, it stays in the cache.
+ */
+public class DBConnectionPool {
+
+    /** How long a thread waits for a free connection before it gives up. */
+    static final int ACQUIRE_TIMEOUT_SECONDS = 600;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int size;
+    private final int statementCacheSize;
+    private final boolean defaultAutoCommit;
+
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private final ThreadLocal<Binding> bindings = new ThreadLocal<>();
+    private final Connection threadConnection;
+    private volatile boolean closed = false;
+
+
+    /**
+     * Creates a pool. The connections are opened when they are needed first.
+     * @param url the JDBC URL of the database
+     * @param username the DB user
+     * @param password the password of the DB user
+     * @param size the maximal number of connections, at least 1
+     * @param statementCacheSize the maximal number of prepared statements cached per connection, 0 to disable the cache
+     * @param autoCommit the autocommit mode of new connections, and of connections returned to the pool
+     */
+    public DBConnectionPool(String url, String username, String password, int size, int statementCacheSize, boolean autoCommit) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.size = Math.max(1, size);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.defaultAutoCommit = autoCommit;
+        this.idle = new ArrayBlockingQueue<>(this.size);
+        this.threadConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, new ThreadConnectionHandler());
+    }
+
+
+    /**
+     * Returns a connection which forwards each call to the connection of the calling thread. Calling close() on it releases the
+     * connection of the calling thread, use close() of the pool to close all connections.
+     * @return the connection
+     */
+    public Connection getThreadConnection() {
+        return threadConnection;
+    }
+
+
+    /**
+     * Returns the maximal number of connections.
+     * @return the pool size
+     */
+    public int getSize() {
+        return size;
+    }
+
+
+    /**
+     * Runs the task in a transaction on the connection of the calling thread. The transaction is committed if the task returns and
+     * rolled back if it throws. Nested calls run in the transaction of the outermost call. While the task runs, calls to commit() and
+     * setAutoCommit() on the thread connection are ignored, so the DBManager methods used by the task do not end the transaction early.
+     * If the task calls rollback(), e.g., a DBManager method which handles an SQL error, the whole transaction is rolled back. If the
+     * calling thread had no connection before, the connection is returned to the pool afterwards.
+     * @param <T> the result type of the task
+     * @param task the task, which uses the DB, e.g., via the static methods of DBManager
+     * @return the result of the task
+     * @throws Exception if the task throws, or if the transaction was rolled back or could not be committed
+     */
+    public <T> T inTransaction(Callable<T> task) throws Exception {
+        boolean hadConnection = (bindings.get() != null);
+        beginTransaction();
+        boolean ok = false;
+        try {
+            T result = task.call();
+            ok = true;
+            return result;
+        } finally {
+            try {
+                endTransaction(ok);
+            } finally {
+                if( ! hadConnection) {
+                    releaseThreadConnection();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Starts a transaction on the connection of the calling thread, which lasts until the matching call of endTransaction(). Works
+     * like inTransaction(), for transactions which do not fit into a single method. Calls may be nested.
+     * @throws SQLException if no connection is available, or autocommit could not be turned off
+     */
+    public void beginTransaction() throws SQLException {
+        Binding b = bind();
+        if(b.transactionDepth == 0) {
+            Connection con = b.pc.connection;
+            b.autoCommitBefore = con.getAutoCommit();
+            b.rolledBack = false;
+            con.setAutoCommit(false);
+        }
+        b.transactionDepth++;
+    }
+
+
+    /**
+     * Ends the transaction started by beginTransaction(). Only the outermost call commits. A nested call which rolls back rolls back
+     * the whole transaction.
+     * @param commit whether to commit the transaction, false to roll it back
+     * @throws SQLException if no transaction was started, or the transaction should be committed but was rolled back or could not be committed
+     */
+    public void endTransaction(boolean commit) throws SQLException {
+        Binding b = bindings.get();
+        if(b == null || b.transactionDepth == 0) {
+            throw new SQLException("No transaction was started on this thread.");
+        }
+        if(--b.transactionDepth > 0) {
+            if( ! commit) {
+                // a nested transaction failed, so the outer one cannot be committed
+                b.pc.connection.rollback();
+                b.rolledBack = true;
+            }
+            return;
+        }
+
+        Connection con = b.pc.connection;
+        try {
+            if(commit && ! b.rolledBack) {
+                con.commit();
+            } else {
+                con.rollback();
+                if(commit) {
+                    throw new SQLException("The transaction was rolled back after an error.");
+                }
+            }
+        } catch(SQLException e) {
+            if(commit && ! b.rolledBack) {
+                try {
+                    con.rollback();
+                } catch(SQLException e2) {
+                    DP.getInstance().w("DBConnectionPool", "Could not roll back transaction: '" + e2.getMessage() + "'.");
+                }
+            }
+            throw e;
+        } finally {
+            try {
+                con.setAutoCommit(b.autoCommitBefore);
+            } catch(SQLException e) {
+                DP.getInstance().w("DBConnectionPool", "Could not restore autocommit: '" + e.getMessage() + "'.");
+            }
+        }
+    }
+
+
+    /**
+     * Returns the connection of the calling thread to the pool. Pending changes are committed (like DBManager.closeConnection() does),
+     * and the connection is reset to the default autocommit mode. Does nothing if the thread has no connection or is inside of inTransaction().
+     */
+    public void releaseThreadConnection() {
+        Binding b = bindings.get();
+        if(b == null || b.transactionDepth > 0) {
+            return;
+        }
+        bindings.remove();
+
+        PooledConnection pc = b.pc;
+        try {
+            if( ! pc.connection.isClosed()) {
+                if( ! pc.connection.getAutoCommit()) {
+                    pc.connection.commit();
+                }
+                pc.connection.setAutoCommit(defaultAutoCommit);
+            }
+        } catch(SQLException e) {
+            DP.getInstance().w("DBConnectionPool", "Could not commit on releasing connection: '" + e.getMessage() + "'.");
+            try {
+                pc.connection.rollback();
+            } catch(SQLException e2) {
+                // the connection is broken, it is replaced on the next acquire
+            }
+        }
+        if(closed) {
+            pc.close();
+        } else {
+            idle.offer(pc);
+        }
+    }
+
+
+    /**
+     * Unbinds the connection of the calling thread, together with its transaction, so another thread can take it over with
+     * attachThreadConnection(), e.g., a writer thread which ends the transaction while the calling thread goes on. The calling thread
+     * gets another connection from the pool the next time it uses the DB.
+     * @return the connection of the calling thread, or null if it has none
+     */
+    public Binding detachThreadConnection() {
+        Binding b = bindings.get();
+        bindings.remove();
+        return b;
+    }
+
+
+    /**
+     * Binds a connection unbound by detachThreadConnection() to the calling thread, which continues its transaction. The calling thread
+     * should call releaseThreadConnection() when done.
+     * @param binding the connection, as returned by detachThreadConnection()
+     * @throws IllegalStateException if the calling thread has a connection already
+     */
+    public void attachThreadConnection(Binding binding) {
+        if(bindings.get() != null) {
+            throw new IllegalStateException("The thread '" + Thread.currentThread().getName() + "' has a DB connection already.");
+        }
+        bindings.set(binding);
+    }
+
+
+    /**
+     * Determines whether the pool connects to the given database as the given user, with the given autocommit mode.
+     * @param url the JDBC URL of the database
+     * @param username the DB user
+     * @param autoCommit the autocommit mode of new connections
+     * @return true if it does
+     */
+    public boolean connectsTo(String url, String username, boolean autoCommit) {
+        return this.url.equals(url) && this.username.equals(username) && this.defaultAutoCommit == autoCommit;
+    }
+
+
+    /**
+     * Closes all connections of the pool. Pending changes of connections without autocommit are committed first, but a transaction of
+     * the calling thread started by beginTransaction() is rolled back. This includes the connections which are still bound to other
+     * threads, e.g., workers of an executor which never released them: their pending changes are committed and they are closed as well,
+     * so no work is lost when the program exits. Those threads cannot use the DB afterwards. The pool cannot be used afterwards.
+     * @return true if all connections could be committed and closed
+     */
+    public boolean close() {
+        closed = true;
+        Binding b = bindings.get();
+        if(b != null && b.transactionDepth > 0) {
+            DP.getInstance().w("DBConnectionPool", "Closing the DB connections during a transaction, it is rolled back.");
+            try {
+                b.pc.connection.rollback();
+            } catch(SQLException e) {
+                DP.getInstance().w("DBConnectionPool", "Could not roll back transaction: '" + e.getMessage() + "'.");
+            }
+            b.transactionDepth = 0;
+        }
+        releaseThreadConnection();
+        idle.clear();
+
+        List<PooledConnection> handedOut;
+        synchronized(all) {
+            handedOut = new ArrayList<>(all);
+        }
+        boolean ok = true;
+        for(PooledConnection pc : handedOut) {
+            try {
+                if( ! pc.connection.isClosed() && ! pc.connection.getAutoCommit()) {
+                    pc.connection.commit();
+                }
+            } catch(SQLException e) {
+                DP.getInstance().w("DBConnectionPool", "Could not commit before closing connection: '" + e.getMessage() + "'.");
+                ok = false;
+            }
+            ok &= pc.close();
+        }
+        return ok;
+    }
+
+
+    /**
+     * Determines whether close() was called.
+     * @return whether the pool is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+
+    /**
+     * Returns the binding of the calling thread, acquiring a connection from the pool if the thread has none.
+     * @return the binding
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new connection could not be opened
+     */
+    private Binding bind() throws SQLException {
+        Binding b = bindings.get();
+        if(b != null) {
+            return b;
+        }
+        b = new Binding(acquire());
+        bindings.set(b);
+        return b;
+    }
+
+
+    /**
+     * Takes an idle connection, opens a new one if the pool is not full yet, or waits for one.
+     * @return the connection
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new connection could not be opened
+     */
+    private PooledConnection acquire() throws SQLException {
+        if(closed) {
+            throw new SQLException("The DB connection pool is closed.");
+        }
+        PooledConnection pc = idle.poll();
+        if(pc == null) {
+            synchronized(all) {
+                if(all.size() < size) {
+                    pc = open();
+                    all.add(pc);
+                    return pc;
+                }
+            }
+            try {
+                pc = idle.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a DB connection.");
+            }
+            if(pc == null) {
+                throw new SQLException("No DB connection became free within " + ACQUIRE_TIMEOUT_SECONDS + " seconds, all " + size + " connections are in use. Threads should release their connection when done.");
+            }
+        }
+
+        if(pc.connection.isClosed()) {
+            // the connection was lost, replace it
+            PooledConnection fresh = open();
+            synchronized(all) {
+                all.set(all.indexOf(pc), fresh);
+            }
+            pc = fresh;
+        }
+        return pc;
+    }
+
+
+    /**
+     * Opens a new connection in the default autocommit mode.
+     * @return the connection
+     * @throws SQLException if the connection could not be opened
+     */
+    private PooledConnection open() throws SQLException {
+        Connection con = DriverManager.getConnection(url, username, password);
+        con.setAutoCommit(defaultAutoCommit);
+        return new PooledConnection(con);
+    }
+
+
+    /**
+     * Forwards the calls on the shared connection to the connection of the calling thread.
+     */
+    private class ThreadConnectionHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()) {
+                case "close":
+                    releaseThreadConnection();
+                    return null;
+                case "isClosed":
+                    if(closed) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "DBConnectionPool thread connection to " + url;
+                case "commit":
+                case "setAutoCommit":
+                    if(inTransaction()) {
+                        return null;
+                    }
+                    break;
+                case "rollback":
+                    if(args == null && inTransaction()) {
+                        bindings.get().rolledBack = true;
+                    }
+                    break;
+                case "prepareStatement":
+                    if(args.length == 1) {
+                        return bind().pc.prepareStatement((String) args[0]);
+                    }
+                    break;
+            }
+
+            try {
+                return method.invoke(bind().pc.connection, args);
+            } catch(InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /** Whether the calling thread is inside of inTransaction(). */
+        private boolean inTransaction() {
+            Binding b = bindings.get();
+            return b != null && b.transactionDepth > 0;
+        }
+    }
+
+
+    /**
+     * The connection of a thread, see detachThreadConnection().
+     */
+    public static class Binding {
+
+        final PooledConnection pc;
+        int transactionDepth = 0;
+        boolean rolledBack = false;
+        boolean autoCommitBefore;
+
+        Binding(PooledConnection pc) {
+            this.pc = pc;
+        }
+    }
+
+
+    /**
+     * A connection of the pool with its prepared statement cache. Only used by the thread it is bound to.
+     */
+    private class PooledConnection {
+
+        final Connection connection;
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Returns the cached statement for the SQL text, or prepares it. If the cached statement is still in use (e.g., a nested query
+         * of the same method), an uncached statement is returned.
+         */
+        PreparedStatement prepareStatement(String query) throws SQLException {
+            if(statementCacheSize == 0) {
+                return connection.prepareStatement(query);
+            }
+            CachedStatement cs = statements.get(query);
+            if(cs != null && cs.statement.isClosed()) {
+                statements.remove(query);
+                cs = null;
+            }
+            if(cs == null) {
+                evict(statementCacheSize - 1);
+                if(statements.size() >= statementCacheSize) {
+                    // all cached statements are in use
+                    return connection.prepareStatement(query);
+                }
+                cs = new CachedStatement(connection.prepareStatement(query));
+                statements.put(query, cs);
+            }
+            else if(cs.inUse) {
+                return connection.prepareStatement(query);
+            }
+            cs.inUse = true;
+            return cs.proxy;
+        }
+
+        /** Closes the least recently used statements which are not in use, until at most maxSize are left. */
+        private void evict(int maxSize) {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while(statements.size() > maxSize && it.hasNext()) {
+                CachedStatement cs = it.next();
+                if( ! cs.inUse) {
+                    it.remove();
+                    cs.closeStatement();
+                }
+            }
+        }
+
+        boolean close() {
+            try {
+                if(connection.isClosed()) {
+                    return true;
+                }
+            } catch(SQLException e) {
+                // try to close it anyway
+            }
+            for(CachedStatement cs : statements.values()) {
+                cs.closeStatement();
+            }
+            statements.clear();
+            try {
+                connection.close();
+                return true;
+            } catch(SQLException e) {
+                DP.getInstance().w("DBConnectionPool", "Could not close DB connection: '" + e.getMessage() + "'.");
+                return false;
+            }
+        }
+
+
+        /**
+         * A cached prepared statement. Callers get a proxy whose close() resets the statement and returns it to the cache.
+         */
+        private class CachedStatement implements InvocationHandler {
+
+            final PreparedStatement statement;
+            final PreparedStatement proxy;
+            boolean inUse = false;
+
+            CachedStatement(PreparedStatement statement) {
+                this.statement = statement;
+                this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch(method.getName()) {
+                    case "close":
+                        if(inUse) {
+                            inUse = false;
+                            reset();
+                        }
+                        return null;
+                    case "isClosed":
+                        return ( ! inUse) || statement.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "getConnection":
+                        return threadConnection;
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch(InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            /** Resets the parameters and settings a caller may have changed. */
+            private void reset() {
+                try {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                    if(statement.getFetchSize() != 0) {
+                        statement.setFetchSize(0);
+                    }
+                    if(statement.getMaxRows() != 0) {
+                        statement.setMaxRows(0);
+                    }
+                    if(statement.getQueryTimeout() != 0) {
+                        statement.setQueryTimeout(0);
+                    }
+                } catch(SQLException e) {
+                    // the statement is broken, do not reuse it
+                    closeStatement();
+                }
+            }
+
+            void closeStatement() {
+                try {
+                    statement.close();
+                } catch(SQLException e) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@
  */
 package io;
 
+import algorithms.GraphletCounts;
 import proteingraphs.ProtGraphs;
 import proteingraphs.ProtGraph;
 import graphdrawing.DrawTools;
@@ -16,22 +17,26 @@ import java.sql.*;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import graphdrawing.DrawTools.IMAGEFORMAT;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import static java.lang.Math.abs;
 import java.util.logging.Level;
 import plcc.Main;
+import motifs.MatrixPatternMatcher;
+import motifs.MotifEngine;
+import motifs.NotationMatrix;
 import motifs.MotifSearchTools;
 import motifs.Motifs;
 import resultcontainers.PTGLNotationFoldResult;
 import settings.Settings;
+import similarity.AllPairsGraphletSimilarity;
 import similarity.SimilarityByGraphlets;
 import tools.DP;
-import tools.PlccUtilities;
+import tools.ExitError;
 //Test!
 /**
  * A database manager class that is used to create and maintain a connection to a PostgreSQL database server.
@@ -49,8 +54,19 @@ public class DBManager {
     static Statement sql;
     static DatabaseMetaData dbmd;
     static String dbDriver;
+    
+    /** The number of rows read at once by the bulk reads which use forEachRow(). */
+    public static final int DEFAULT_FETCH_SIZE = 10000;
+    
+    /** The pool of connections, one per thread, see DBConnectionPool. */
+    static DBConnectionPool pool;
+    
+    /** Forwards all calls to the pooled connection of the calling thread, see DBConnectionPool.getThreadConnection(). */
     static Connection dbc;
     
+    /** Whether closeConnection() keeps the pool open for the next PDB entry, see setKeepConnectionsOpen(). */
+    static boolean keepConnectionsOpen = false;
+    
     // table names
     /** Name of the table storing meta information on the whole DB each per row as key-value pair. */
     static String tbl_meta = "plcc_metainfo_db";
@@ -175,8 +191,7 @@ public class DBManager {
             System.err.println("ERROR: Could not load JDBC driver '" + dbDriver + "'. Is the correct db driver installed at lib/postgresql-jdbc.jar?");
             System.err.println("ERROR: See the README for more info on getting the proper driver for your PostgreSQL server and Java versions.'");
             System.err.println("ERROR: Message was: '" + e.getMessage() + "'.");
-            System.exit(1);     // if this code is called, the user explcitely requested to use the DB, so we should die if it does not work.
-            return false;
+            throw new ExitError(1);     // if this code is called, the user explcitely requested to use the DB, so we should die if it does not work.
         }
 
         Boolean conOK = connect(setAutoCommit);
@@ -393,7 +408,8 @@ public class DBManager {
     }
 
     /**
-     * Connects to the database using the DB address and credentials defined during the call to init().
+     * Connects to the database using the DB address and credentials defined during the call to init(). Creates the connection pool
+     * and opens the connection of the calling thread. Other threads get their own connection from the pool when they use the DB.
      * @return Whether a connection to the DB could be established.
      */
     private static Boolean connect(Boolean setAutoCommit) {
@@ -401,8 +417,12 @@ public class DBManager {
         Boolean conOK = false;
 
         try {
-            dbc = DriverManager.getConnection(dbURL, dbUsername, dbPassword);
-            dbc.setAutoCommit(setAutoCommit);
+            // the pool of the last entry of a batch is reused, its writer threads may still use it
+            if(pool == null || pool.isClosed() || ! keepConnectionsOpen || ! pool.connectsTo(dbURL, dbUsername, setAutoCommit)) {
+                closePool();
+                pool = new DBConnectionPool(dbURL, dbUsername, dbPassword, Settings.getInteger("PTGLgraphComputation_I_db_pool_size"), Settings.getInteger("PTGLgraphComputation_I_db_statement_cache_size"), setAutoCommit);
+            }
+            dbc = pool.getThreadConnection();
             dbmd = dbc.getMetaData();
             sql = dbc.createStatement();
             conOK = true;
@@ -410,7 +430,7 @@ public class DBManager {
             //System.err.println("ERROR: Could not connect to database at '" + dbURL + "'.");
             System.err.println("ERROR: Could not connect to database at '" + dbURL + "' with user '" + dbUsername + "'.");
             System.err.println("ERROR: The error message was: '" + e.getMessage() + "'.");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         String dbProductName = null;
@@ -428,7 +448,7 @@ public class DBManager {
         if(conOK) {
             try {                
                 if(! Settings.getBoolean("PTGLgraphComputation_B_silent")) {
-                    System.out.println("Connection to " + dbProductName + " " + dbProductVersion + " successful. Autocommit is " + (dbc.getAutoCommit() ? "on" : "off") + ".");                    
+                    System.out.println("Connection to " + dbProductName + " " + dbProductVersion + " successful. Autocommit is " + (dbc.getAutoCommit() ? "on" : "off") + ", using up to " + pool.getSize() + " connections.");                    
                 }
             } catch(Exception e) {
                 // settings may be missing and the getBoolean call may thus crash, just ignore it.
@@ -462,433 +482,275 @@ public class DBManager {
     
     /**
      * Computes the pairwise graphlet similarity scores between all protein graphs in the DB, using the given graph type. Note that graphlet counts for all the graphs have already to exist in the database (written there by GraphletAnalyzer)!
-     * Also note that this function is gonna take a lot of time AND use a lot of memory if you have a large DB.
+     * All graphlet vectors are loaded into memory once, see AllPairsGraphletSimilarity. Previous scores of the source graphs are replaced.
      * 
      * @param graphType the graph type to use for comparison of the graphlet scores, currently only "albe" is supported.
      * @param numberOfTopScoresToSavePerPair all pairwise scores are computes, but you may want to keep only the 10 most similar scores. That is what this is for. If you set it to null, all scores will be kept, which may leave you with a vast database filled with mainly useless stuff.
-     * @return a long array of size 3: first position holds the number of chains found in the DB, second holds number of graphlet counts found in DB for these chains, third holds number of computed scores (or PG pairs), fourth holds the number of scores stored in the database
+     * @return a long array of size 4: first position holds the number of chains found in the DB, second holds number of graphlet counts found in DB for these chains, third holds number of computed scores (or PG pairs), fourth holds the number of scores stored in the database
      */
     public static Long[] computeGraphletSimilarityScoresForPGsWholeDatabaseAndStoreBest(String graphType, Integer numberOfTopScoresToSavePerPair) {
         
-        /** If you set fakeIt to true, this function will write fake graphlet degree 
-         distributions to the DB before computing scores. This is useful if you are
-         coding on a Windows machine where you cannot run graphletanalyzer to compute
-         the real graphlet distributions. */
-        boolean fakeIt = false;
-        if(fakeIt) {
-            DP.getInstance().w("DBManager", "WARNING: DEBUG mode set, writing fake graphlet distributions to database for testing purposes!");
-        }
-        
         if(! graphType.equals(ProtGraph.GRAPHTYPE_ALBE)) {
             DP.getInstance().w("DBManager", "computeGraphletSimilarityScoresForWholeDatabaseAndStoreBest(): Graphlets for your chose graph type '" + graphType + "' may not be in the database. By default, we compute \"albe\" graphlets only.");
         }
         
-        String graphletSimMethod = Settings.get("PTGLgraphComputation_S_search_similar_graphlet_scoretype");
-        
-        
-        Long numScoresComputed = 0L;
-        Long numScoresSaved = 0L;
-        ArrayList<ArrayList<String>> allChains = DBManager.getAllPDBIDsandChains(); // these are more than 200,000 chains if the while PDB is in the database
-        
-        Long numChainsFound = ((Integer)allChains.size()).longValue();
-        Long numGraphletsFound = 0L;
-        
-        Double[] src_graphlets, cmp_graphlets;
-        
-        String src_pdb_id, src_chain_name, cmp_pdb_id, cmp_chain_name;
-        Double[] src_scores;
-        ArrayList<String> src_row, cmp_row;
-        for(int i = 0; i < allChains.size(); i++) {
-            src_row = allChains.get(i);
-            src_pdb_id = src_row.get(0);
-            src_chain_name = src_row.get(1);
-            src_scores = new Double[allChains.size()];
-            src_graphlets = null;
-            
-            
-            // some status output never hurts
-            if(i % 5 == 0) {
-                System.out.println("  At PG (chain) #" + i + " of " + allChains.size() + ".");
-            }
-            
-            if(fakeIt) {
-                try {
-                    System.out.println("  Writing fake graphlet counts for " + src_pdb_id + " chain " + src_chain_name + " to DB.");
-                    DBManager.writeNormalizedGraphletsToDB(src_pdb_id, src_chain_name, ProtGraph.GRAPHTYPE_INT_ALBE, SimilarityByGraphlets.getRandDoubleArray(30));
-                } catch(SQLException e) {
-                    System.err.println("    FAILED, could not write fake graphlet counts.");
-                }
-            }
-            
-            try {
-                src_graphlets = DBManager.getNormalizedProteinGraphGraphletCounts(src_pdb_id, src_chain_name, graphType);            
-            }
-            catch(SQLException e) {
-                DP.getInstance().e("DBManager", "Could not get src_graphlets for " + src_pdb_id + " " + src_chain_name + " " +  graphType + ": '" + e.getMessage() + "', skipping.");
-                continue;
-            }
-            
-            if(src_graphlets == null) { 
-                continue;
-            }
-            else {
-                numGraphletsFound++;
-            }
-            
-            
-            for(int j = 0; j < allChains.size(); j++) {
-                cmp_row = allChains.get(j);
-                cmp_pdb_id = cmp_row.get(0);
-                cmp_chain_name = cmp_row.get(1);
-                cmp_graphlets = null;
-                
-                if(i == j) {
-                    continue;
-                }
-                
-                if(fakeIt) {      
-                    
-                    try {
-                        System.out.println("  Writing fake graphlet counts for " + cmp_pdb_id + " chain " + cmp_chain_name + " to DB.");
-                        DBManager.writeNormalizedGraphletsToDB(cmp_pdb_id, cmp_chain_name, ProtGraph.GRAPHTYPE_INT_ALBE, SimilarityByGraphlets.getRandDoubleArray(30));
-                        
-                        // if we write new graphlets, we should delete the old scores based on them:
-                        Long graphID = DBManager.getProteinGraphDBidsOf(src_pdb_id, src_chain_name).get(ProtGraph.GRAPHTYPE_ALBE);
-                        if(graphID > 0) {
-                            int numDelTarget = DBManager.deleteAllGraphletSimilaritiesFromDBForTargetGraph(graphID);
-                            int numDelSource = DBManager.deleteAllGraphletSimilaritiesFromDBForSourceGraph(graphID);
-                            System.out.println("  Inserted new fake graphlets and deleted old scores of the graph (" + numDelSource + " source, " + numDelTarget + " target scores).");
-                        }
-                    } catch(SQLException e) {
-                        System.err.println("    FAILED, could not write fake graphlet counts.");
-                    }
-                    
-                }
-                
-                try {
-                    cmp_graphlets = DBManager.getNormalizedProteinGraphGraphletCounts(cmp_pdb_id, cmp_chain_name, graphType);            
-                }
-                catch(SQLException e) {
-                    DP.getInstance().e("DBManager", "Could not get cmp_graphlets for " + cmp_pdb_id + " " + cmp_chain_name + " " +  graphType + ": '" + e.getMessage() + "', skipping.");                    
-                }
-                
-                if(cmp_graphlets == null) {  
-                    src_scores[j] = null; 
-                }
-                else {        
-                    numGraphletsFound++;
-                    if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF)) {
-                        src_scores[j] = SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized(src_graphlets, cmp_graphlets);
-                    }
-                    else if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM)) {
-                        // compute tanimoto coefficient for default precision value of 0.8
-                        src_scores[j] = SimilarityByGraphlets.getTanimotoCoefficient(src_graphlets, cmp_graphlets, 0.8);
-                    }
-                    else {
-                        DP.getInstance().c("DBManager", "Invalid graphlet similarity method set, aborting.");
-                    }
-                    
-                    numScoresComputed++;
-                }
-            }
-            
-            // Now we have a long list of score for src_pdb_id and src_chain_name. Sort it and write best to the database.
-            String[] allPDBChains = new String[allChains.size()];
-            for(int k = 0; k < allChains.size(); k++) {
-                allPDBChains[k] = allChains.get(k).get(0) + allChains.get(k).get(1);    // add PDB id + chain, e.g., "7timA"
-            }
-            
-            //PlccUtilities.multiSortUniqueArrays(src_scores, allPDBChains);    // cannot use this, scores are not unique!
-            Double scoreTooLarge = 1000.0;
-            PlccUtilities.replaceNullValuesInArrayWith(src_scores, scoreTooLarge);
-            PlccUtilities.multiQuickSortTS(src_scores, allPDBChains);
-            
-            if(numberOfTopScoresToSavePerPair == null) {
-                numberOfTopScoresToSavePerPair = allPDBChains.length;
-            }
-            
-            if(numberOfTopScoresToSavePerPair > allPDBChains.length) {
-                numberOfTopScoresToSavePerPair = allPDBChains.length;
-            }
-            
-            System.out.println("    Similarity of at most " + numberOfTopScoresToSavePerPair + " DB chains to " + src_pdb_id + " chain " + src_chain_name + ":");
-            int numScoresSavedForCurrent = 0;
-            for(int k = 0; k < numberOfTopScoresToSavePerPair; k++) {
-                if(src_scores[k] != null) {
-                    if(src_scores[k] < scoreTooLarge) {
-                        System.out.println("     #" + k + ": " + allPDBChains[k] + " with score " + src_scores[k] + ".");
-                        try {
-                            DBManager.writePGGraphletSimilarityScoreToDB(src_pdb_id, src_chain_name, allPDBChains[k].substring(0, 4), allPDBChains[k].substring(4), graphType, src_scores[k]);
-                        } catch (SQLException e) {
-                            System.err.println("Could not write graphlet similarity score to DB for PGs: '" + e.getMessage() + "'.");
-                        }
-                        numScoresSaved++;
-                        numScoresSavedForCurrent++;
-                    }
-                }
-            }
-            System.out.println("    A total of " + numScoresSavedForCurrent + " pairwise scores were saved for this PG.");
-            
-        }
-        
-        return new Long[]{ numChainsFound, numGraphletsFound, numScoresComputed, numScoresSaved };
+        return computeGraphletSimilarityScoresAndStoreBest("PG", getProteinGraphGraphletsQuery(graphType), countRowsInTable(tbl_chain), tbl_graphletsimilarity, "graphletsimilarity_sourcegraph", "graphletsimilarity_targetgraph", numberOfTopScoresToSavePerPair);
     }
     
     
     /**
      * Computes the pairwise graphlet similarity scores between all complex graphs in the DB. Note that graphlet counts for all the graphs have already to exist in the database (written there by GraphletAnalyzer)!
-     * Also note that this function is gonna take a lot of time AND use a lot of memory if you have a large DB.
+     * All graphlet vectors are loaded into memory once, see AllPairsGraphletSimilarity. Previous scores of the source graphs are replaced.
      * 
      * @param numberOfTopScoresToSavePerPair all pairwise scores are computes, but you may want to keep only the 10 most similar scores. That is what this is for. If you set it to null, all scores will be kept, which may leave you with a vast database filled with mainly useless stuff.
-     * @return a long array of size 3: first position holds the number of chains found in the DB, second holds number of graphlet counts found in DB for these chains, third holds number of computed scores (or PG pairs), fourth holds the number of scores stored in the database
+     * @return a long array of size 4: first position holds the number of PDB files found in the DB, second holds number of graphlet counts found in DB for their CGs, third holds number of computed scores (or CG pairs), fourth holds the number of scores stored in the database
      */
     public static Long[] computeGraphletSimilarityScoresForCGsWholeDatabaseAndStoreBest(Integer numberOfTopScoresToSavePerPair) {
-                
+        String query = "SELECT cg.complexgraph_id, cg.pdb_id, " + getGraphletSliceQueryPart("gc.complex_graphlet_counts") + " FROM " + tbl_graphletcount_complex + " gc INNER JOIN " + tbl_complexgraph + " cg ON gc.complexgraph_id = cg.complexgraph_id;";
+        return computeGraphletSimilarityScoresAndStoreBest("CG", query, countRowsInTable(tbl_protein), tbl_graphletsimilarity_complex, "complexgraphletsimilarity_sourcegraph", "complexgraphletsimilarity_targetgraph", numberOfTopScoresToSavePerPair);
+    }
+    
+    
+    /**
+     * Computes the pairwise graphlet similarity scores between all amino acid graphs in the DB. Note that graphlet counts for all the graphs have already to exist in the database (written there by GraphletAnalyzer)!
+     * All graphlet vectors are loaded into memory once, see AllPairsGraphletSimilarity. Previous scores of the source graphs are replaced.
+     * 
+     * @param numberOfTopScoresToSavePerPair all pairwise scores are computes, but you may want to keep only the 10 most similar scores. That is what this is for. If you set it to null, all scores will be kept, which may leave you with a vast database filled with mainly useless stuff.
+     * @return a long array of size 4: first position holds the number of PDB files found in the DB, second holds number of graphlet counts found in DB for their AAGs, third holds number of computed scores (or AAG pairs), fourth holds the number of scores stored in the database
+     */
+    public static Long[] computeGraphletSimilarityScoresForAAGsWholeDatabaseAndStoreBest(Integer numberOfTopScoresToSavePerPair) {
+        String query = "SELECT ag.aagraph_id, ag.pdb_id, " + getGraphletSliceQueryPart("gc.aa_graphlet_counts") + " FROM " + tbl_graphletcount_aa + " gc INNER JOIN " + tbl_aagraph + " ag ON gc.aagraph_id = ag.aagraph_id;";
+        return computeGraphletSimilarityScoresAndStoreBest("AAG", query, countRowsInTable(tbl_protein), tbl_graphletsimilarity_aa, "aagraphletsimilarity_sourcegraph", "aagraphletsimilarity_targetgraph", numberOfTopScoresToSavePerPair);
+    }
+    
+    
+    /**
+     * Retrieves the normalized graphlet counts of all protein graphs of a graph type from the database, with one query. Like getNormalizedProteinGraphGraphletCounts(), this only returns the graphlet range configured in the settings.
+     * @param graphType the graph type, e.g., "albe"
+     * @param graphIDs the database IDs of the graphs are added to this list
+     * @param labels the PDB ID and chain name of the graphs are added to this list, e.g., "7timA"
+     * @param graphlets the graphlet counts of the graphs are added to this list
+     * @return whether the graphlets could be retrieved
+     */
+    public static Boolean getAllNormalizedProteinGraphGraphletCounts(String graphType, List<Long> graphIDs, List<String> labels, List<double[]> graphlets) {
+        return loadGraphletVectors("PG", getProteinGraphGraphletsQuery(graphType), graphIDs, labels, graphlets);
+    }
+    
+    
+    /**
+     * Constructs the query for the graph ID, PDB ID and chain name, and graphlet counts of all protein graphs of a graph type.
+     * @param graphType the graph type, e.g., "albe"
+     * @return the query
+     */
+    private static String getProteinGraphGraphletsQuery(String graphType) {
+        return "SELECT g.graph_id, c.pdb_id || c.chain_name, " + getGraphletSliceQueryPart("gc.graphlet_counts") + " FROM " + tbl_graphletcount + " gc INNER JOIN " + tbl_proteingraph + " g ON gc.graph_id = g.graph_id INNER JOIN " + tbl_chain + " c ON g.chain_id = c.chain_id WHERE (g.graph_type = " + ProtGraphs.getGraphTypeCode(graphType) + ");";
+    }
+    
+    
+    /**
+     * Constructs the part of a select query which selects the graphlets configured in the settings from a graphlet array column, see getNormalizedProteinGraphGraphletCounts().
+     * @param column the array column, e.g., "graphlet_counts"
+     * @return the query part, e.g., "graphlet_counts[0], graphlet_counts[1], ..."
+     */
+    private static String getGraphletSliceQueryPart(String column) {
+        int graphletStartIndex = Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_start_graphlet_index");
+        int graphletEndIndex = Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_end_graphlet_index");
+        List<String> variableParts = new ArrayList<>();
+        for(int i = graphletStartIndex; i <= graphletEndIndex; i++) {
+            variableParts.add("" + i);
+        }
+        return DBManager.constructRepetetiveQueryPart(column + "[", "]", variableParts, ", ");
+    }
+    
+    
+    /**
+     * Counts the rows of a table.
+     * @param table the table name
+     * @return the row count, or -1 on error
+     */
+    private static Long countRowsInTable(String table) {
+        ArrayList<ArrayList<String>> tableData = DBManager.doSelectQuery("SELECT count(*) FROM " + table + ";");
+        try {
+            return Long.valueOf(tableData.get(0).get(0));
+        } catch(Exception e) {
+            System.err.println("ERROR: Could not count rows of table " + table + ": '" + e.getMessage() + "'.");
+            return -1L;
+        }
+    }
+    
+    
+    /**
+     * Runs a query which returns the graph database ID, a label and the graphlet counts of each graph, and collects the results.
+     * @param graphDesc a short description of the graph kind for the output, e.g., "PG"
+     * @param query the query
+     * @param graphIDs the graph IDs are added to this list
+     * @param labels the labels are added to this list
+     * @param graphlets the graphlet counts are added to this list
+     * @return whether the query worked and returned graphlet vectors of the configured size
+     */
+    private static Boolean loadGraphletVectors(String graphDesc, String query, List<Long> graphIDs, List<String> labels, List<double[]> graphlets) {
+        int numToConsider = Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_end_graphlet_index") - Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_start_graphlet_index") + 1;
+        Boolean ok = forEachRow(query, DEFAULT_FETCH_SIZE, row -> {
+            if(graphIDs.isEmpty() && row.getMetaData().getColumnCount() != numToConsider + 2) {
+                throw new SQLException("Graphlet vectors have wrong size (found " + (row.getMetaData().getColumnCount() - 2) + ", expected " + numToConsider + ").");
+            }
+            double[] counts = new double[numToConsider];
+            for(int i = 0; i < numToConsider; i++) {
+                counts[i] = row.getDouble(i + 3);
+            }
+            graphIDs.add(row.getLong(1));
+            labels.add(row.getString(2));
+            graphlets.add(counts);
+        });
+        if( ! ok) {
+            DP.getInstance().e("DBManager", "loadGraphletVectors: Retrieval of " + graphDesc + " graphlets failed.");
+        }
+        return ok;
+    }
+    
+    
+    /**
+     * Computes the pairwise graphlet similarity scores between all graphs returned by the query and stores the best ones for each graph.
+     * @param graphDesc a short description of the graph kind for the output, e.g., "PG"
+     * @param query the query which returns the graph database ID, a label and the graphlet counts of each graph
+     * @param numGraphsInDB the number of graphs (or PDB files or chains) in the database, only returned in the result
+     * @param similarityTable the table to store the scores in
+     * @param sourceColumn the source graph column of similarityTable
+     * @param targetColumn the target graph column of similarityTable
+     * @param numberOfTopScoresToSavePerPair the number of best scores to keep per source graph, null to keep all
+     * @return a long array of size 4, see computeGraphletSimilarityScoresForPGsWholeDatabaseAndStoreBest()
+     */
+    private static Long[] computeGraphletSimilarityScoresAndStoreBest(String graphDesc, String query, Long numGraphsInDB, String similarityTable, String sourceColumn, String targetColumn, Integer numberOfTopScoresToSavePerPair) {
+        
         String graphletSimMethod = Settings.get("PTGLgraphComputation_S_search_similar_graphlet_scoretype");
-        Long numScoresComputed = 0L;
-        Long numScoresSaved = 0L;
-        List<String> allPDBs = DBManager.getAllPDBIDsInTheDB(); // more than 100k chains with full PDB in database
+        if( ! (graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF) || graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM))) {
+            DP.getInstance().c("DBManager", "Invalid graphlet similarity method set, aborting.");
+            return new Long[]{ numGraphsInDB, 0L, 0L, 0L };
+        }
         
-        Long numPDBsFound = ((Integer)allPDBs.size()).longValue();
-        Long numGraphletsFound = 0L;
+        // load all graphlet vectors at once
+        List<Long> graphIDs = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<double[]> graphlets = new ArrayList<>();
+        if( ! loadGraphletVectors(graphDesc, query, graphIDs, labels, graphlets)) {
+            return new Long[]{ numGraphsInDB, 0L, 0L, 0L };
+        }
         
-        Double[] src_graphlets, cmp_graphlets;
+        int n = graphlets.size();
+        System.out.println("  Loaded graphlet counts of " + n + " " + graphDesc + "s, comparing all pairs...");
+        long startTime = System.currentTimeMillis();
+        AllPairsGraphletSimilarity sims = new AllPairsGraphletSimilarity(graphlets.toArray(new double[n][]), graphletSimMethod);
+        if(numberOfTopScoresToSavePerPair != null) {
+            sims.computeTopK(numberOfTopScoresToSavePerPair);
+            System.out.println("  Compared " + ((long) n * (n - 1)) + " " + graphDesc + " pairs in " + ((System.currentTimeMillis() - startTime) / 1000) + " seconds.");
+        }
         
-        String src_pdb_id, cmp_pdb_id;
-        Double[] src_scores;
-        for(int i = 0; i < allPDBs.size(); i++) {
-            src_pdb_id = allPDBs.get(i);
-            src_scores = new Double[allPDBs.size()];
-            src_graphlets = null;
-            
-            
-            // some status output never hurts
-            if(i % 5 == 0) {
-                System.out.println("  At CG (PDB file) #" + i + " of " + allPDBs.size() + " complex graphs (PDB files).");
+        // write the scores of all sources in one transaction. If all scores are kept, they are written while they are computed.
+        long numScoresSaved = 0L;
+        PreparedStatement delete = null;
+        PreparedStatement insert = null;
+        Boolean autoCommit = null;
+        try {
+            autoCommit = dbc.getAutoCommit();
+            dbc.setAutoCommit(false);
+            delete = dbc.prepareStatement("DELETE FROM " + similarityTable + " WHERE (" + sourceColumn + " = ?);");
+            insert = dbc.prepareStatement("INSERT INTO " + similarityTable + " (" + sourceColumn + ", " + targetColumn + ", score) VALUES (?, ?, ?);");
+            for(int i = 0; i < n; i++) {
+                delete.setLong(1, graphIDs.get(i));
+                delete.addBatch();
+                if((i + 1) % 10000 == 0 || i == n - 1) {
+                    delete.executeBatch();
+                }
             }
             
-            
-            try {
-                src_graphlets = DBManager.getNormalizedComplexgraphGraphletCounts(src_pdb_id);            
+            SimilarityScoreInserter inserter = new SimilarityScoreInserter(insert, graphIDs);
+            if(numberOfTopScoresToSavePerPair != null) {
+                for(int i = 0; i < n; i++) {
+                    int[] targets = sims.getTopTargets(i);
+                    inserter.acceptScores(i, targets, sims.getTopScores(i), targets.length);
+                }
             }
-            catch(SQLException e) {
-                DP.getInstance().e("DBManager", "Could not get src_graphlets for complex graph with PDB ID " + src_pdb_id + ": '" + e.getMessage() + "', skipping.");
-                continue;
+            else {
+                sims.computeAll(inserter);
+                System.out.println("  Compared " + ((long) n * (n - 1)) + " " + graphDesc + " pairs in " + ((System.currentTimeMillis() - startTime) / 1000) + " seconds.");
             }
-            
-            if(src_graphlets == null) { 
-                continue;
+            inserter.flush();
+            dbc.commit();
+            numScoresSaved = inserter.numScoresSaved;
+            if(n > 0 && numberOfTopScoresToSavePerPair != null) {
+                System.out.println("  Best match of " + labels.get(0) + ": " + (sims.getTopTargets(0).length > 0 ? labels.get(sims.getTopTargets(0)[0]) + " with score " + sims.getTopScores(0)[0] : "none") + ".");
             }
-            else {
-                numGraphletsFound++;
+        } catch(SQLException e) {
+            System.err.println("ERROR: SQL: Could not write " + graphDesc + " graphlet similarity scores to DB: '" + e.getMessage() + "'.");
+            try {
+                System.err.println("ERROR: SQL: Transaction is being rolled back.");
+                dbc.rollback();
+            } catch(SQLException excep) {
+                System.err.println("ERROR: SQL: Could not roll back transaction: '" + excep.getMessage() + "'.");
             }
-            
-            
-            for(int j = 0; j < allPDBs.size(); j++) {
-                cmp_pdb_id = allPDBs.get(j);
-                cmp_graphlets = null;
-                
-                if(i == j) {
-                    continue;
-                }
-                
-              
-                
-                try {
-                    cmp_graphlets = DBManager.getNormalizedComplexgraphGraphletCounts(cmp_pdb_id);
-                }
-                catch(SQLException e) {
-                    DP.getInstance().e("DBManager", "Could not get cmp_graphlets for complex graph " + cmp_pdb_id + " : '" + e.getMessage() + "', skipping.");                    
-                }
-                
-                if(cmp_graphlets == null) {  
-                    src_scores[j] = null; 
+            numScoresSaved = 0L;
+        } finally {
+            try {
+                if(delete != null) {
+                    delete.close();
                 }
-                else {        
-                    numGraphletsFound++;
-                    if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF)) {
-                        src_scores[j] = SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized(src_graphlets, cmp_graphlets);
-                    }
-                    else if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM)) {
-                        src_scores[j] = SimilarityByGraphlets.getTanimotoCoefficient(src_graphlets, cmp_graphlets, 0.8);
-                    }
-                    else {
-                        DP.getInstance().c("DBManager", "Invalid graphlet similarity method set, aborting.");
-                    }
-                    numScoresComputed++;
+                if(insert != null) {
+                    insert.close();
                 }
-            }
-            
-            // Now we have a long list of score for src_pdb_id and src_chain_name. Sort it and write best to the database.
-            String[] allPDBIDs = new String[allPDBs.size()];
-            for(int k = 0; k < allPDBs.size(); k++) {
-                allPDBIDs[k] = allPDBs.get(k);
-            }
-            
-            Double scoreTooLarge = 1000.0;
-            PlccUtilities.replaceNullValuesInArrayWith(src_scores, scoreTooLarge);
-            PlccUtilities.multiQuickSortTS(src_scores, allPDBIDs);
-            
-            if(numberOfTopScoresToSavePerPair == null) {
-                numberOfTopScoresToSavePerPair = allPDBIDs.length;
-            }
-            
-            if(numberOfTopScoresToSavePerPair > allPDBIDs.length) {
-                numberOfTopScoresToSavePerPair = allPDBIDs.length;
-            }
-            
-            System.out.println("    Similarity of at most " + numberOfTopScoresToSavePerPair + " complex graphs to " + src_pdb_id + ":");
-            int numScoresSavedForCurrent = 0;
-            for(int k = 0; k < numberOfTopScoresToSavePerPair; k++) {
-                if(src_scores[k] != null) {
-                    if(src_scores[k] < scoreTooLarge) {
-                        System.out.println("     #" + k + ": " + allPDBIDs[k] + " with score " + src_scores[k] + ".");
-                        try {
-                            DBManager.writeCGGraphletSimilarityScoreToDB(src_pdb_id, allPDBIDs[k], src_scores[k]);
-                        } catch (SQLException e) {
-                            System.err.println("Could not write complex graph graphlet similarity score to DB: '" + e.getMessage() + "'.");
-                        }
-                        numScoresSaved++;
-                        numScoresSavedForCurrent++;
-                    }
+                if(autoCommit != null) {
+                    dbc.setAutoCommit(autoCommit);
                 }
-            }
-            System.out.println("    A total of " + numScoresSavedForCurrent + " pairwise scores were saved for this CG.");
-            
+            } catch(SQLException e) { DP.getInstance().w("DBManager", "computeGraphletSimilarityScoresAndStoreBest: Could not close statements and reset autocommit."); }
         }
         
-        return new Long[]{ numPDBsFound, numGraphletsFound, numScoresComputed, numScoresSaved };
+        return new Long[]{ numGraphsInDB, (long) n, (long) n * (n - 1), numScoresSaved };
     }
     
     
     /**
-     * Computes the pairwise graphlet similarity scores between all amino acid graphs in the DB. Note that graphlet counts for all the graphs have already to exist in the database (written there by GraphletAnalyzer)!
-     * Also note that this function is gonna take a lot of time AND use a lot of memory if you have a large DB.
-     * 
-     * @param numberOfTopScoresToSavePerPair all pairwise scores are computes, but you may want to keep only the 10 most similar scores. That is what this is for. If you set it to null, all scores will be kept, which may leave you with a vast database filled with mainly useless stuff.
-     * @return a long array of size 3: first position holds the number of chains found in the DB, second holds number of graphlet counts found in DB for these chains, third holds number of computed scores (or PG pairs), fourth holds the number of scores stored in the database
+     * Adds the graphlet similarity scores of source graphs to the batch of an insert statement and executes it every 10000 scores, see computeGraphletSimilarityScoresAndStoreBest().
      */
-    public static Long[] computeGraphletSimilarityScoresForAAGsWholeDatabaseAndStoreBest(Integer numberOfTopScoresToSavePerPair) {
-                
+    private static class SimilarityScoreInserter implements AllPairsGraphletSimilarity.ScoreConsumer {
         
-        Long numScoresComputed = 0L;
-        Long numScoresSaved = 0L;
-        List<String> allPDBs = DBManager.getAllPDBIDsInTheDB(); // more than 100k chains with full PDB in database
+        private final PreparedStatement insert;
+        private final List<Long> graphIDs;
+        private int numBatched = 0;
+        long numScoresSaved = 0L;
         
-        Long numPDBsFound = ((Integer)allPDBs.size()).longValue();
-        Long numGraphletsFound = 0L;
-        String graphletSimMethod = Settings.get("PTGLgraphComputation_S_search_similar_graphlet_scoretype");
-        Double[] src_graphlets, cmp_graphlets;
+        /**
+         * @param insert the insert statement, with the parameters source graph ID, target graph ID and score
+         * @param graphIDs the database IDs of the graphs by their index
+         */
+        SimilarityScoreInserter(PreparedStatement insert, List<Long> graphIDs) {
+            this.insert = insert;
+            this.graphIDs = graphIDs;
+        }
         
-        String src_pdb_id, cmp_pdb_id;
-        Double[] src_scores;
-        for(int i = 0; i < allPDBs.size(); i++) {
-            src_pdb_id = allPDBs.get(i);
-            src_scores = new Double[allPDBs.size()];
-            src_graphlets = null;
-            
-            
-            // some status output never hurts
-            if(i % 5 == 0) {
-                System.out.println("  At AAG (PDB file) #" + i + " of " + allPDBs.size() + " amino acid graphs (PDB files).");
-            }
-            
-            
-            try {
-                src_graphlets = DBManager.getNormalizedAminoacidgraphGraphletCounts(src_pdb_id);            
-            }
-            catch(SQLException e) {
-                DP.getInstance().e("DBManager", "Could not get src_graphlets for amino acid graph with PDB ID " + src_pdb_id + ": '" + e.getMessage() + "', skipping.");
-                continue;
+        @Override
+        public void acceptScores(int source, int[] targets, double[] scores, int count) throws SQLException {
+            for(int k = 0; k < count; k++) {
+                insert.setLong(1, graphIDs.get(source));
+                insert.setLong(2, graphIDs.get(targets[k]));
+                insert.setDouble(3, scores[k]);
+                insert.addBatch();
+                numBatched++;
             }
-            
-            if(src_graphlets == null) {
-                
-                
-                System.out.println("Did not find graphlets for PDB-ID " + src_pdb_id);
-                
-                continue;
-            }
-            else {
-                numGraphletsFound++;
-            }
-            
-            
-            for(int j = 0; j < allPDBs.size(); j++) {
-                cmp_pdb_id = allPDBs.get(j);
-                cmp_graphlets = null;
-                
-                if(i == j) {
-                    continue;
-                }
-                
-              
-                
-                try {
-                    cmp_graphlets = DBManager.getNormalizedAminoacidgraphGraphletCounts(cmp_pdb_id);
-                }
-                catch(SQLException e) {
-                    DP.getInstance().e("DBManager", "Could not get cmp_graphlets for amino acid graph " + cmp_pdb_id + " : '" + e.getMessage() + "', skipping.");                    
-                }
-                
-                if(cmp_graphlets == null) {  
-                    src_scores[j] = null; 
-                }
-                else {        
-                    numGraphletsFound++;
-                    if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF)) {
-                        src_scores[j] = SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized(src_graphlets, cmp_graphlets);
-                    }
-                    else if(graphletSimMethod.equals(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM)) {
-                        src_scores[j] = SimilarityByGraphlets.getTanimotoCoefficient(src_graphlets, cmp_graphlets, 0.8);
-                    }
-                    else {
-                        DP.getInstance().c("DBManager", "Invalid graphlet similarity method set, aborting.");
-                    }
-                    numScoresComputed++;
-                }
-            }
-            
-            // Now we have a long list of score for src_pdb_id and src_chain_name. Sort it and write best to the database.
-            String[] allPDBIDs = new String[allPDBs.size()];
-            for(int k = 0; k < allPDBs.size(); k++) {
-                allPDBIDs[k] = allPDBs.get(k);
-            }
-            
-            Double scoreTooLarge = 1000.0;
-            PlccUtilities.replaceNullValuesInArrayWith(src_scores, scoreTooLarge);
-            PlccUtilities.multiQuickSortTS(src_scores, allPDBIDs);
-            
-            if(numberOfTopScoresToSavePerPair == null) {
-                numberOfTopScoresToSavePerPair = allPDBIDs.length;
-            }
-            
-            if(numberOfTopScoresToSavePerPair > allPDBIDs.length) {
-                numberOfTopScoresToSavePerPair = allPDBIDs.length;
-            }
-            
-            System.out.println("    Similarity of all amino acid graphs to " + src_pdb_id + ":");
-            int numScoresSavedForCurrent = 0;
-            for(int k = 0; k < numberOfTopScoresToSavePerPair; k++) {
-                if(src_scores[k] != null) {
-                    if(src_scores[k] < scoreTooLarge) {
-                        System.out.println("     #" + k + ": " + allPDBIDs[k] + " with score " + src_scores[k] + ".");
-                        try {
-                            DBManager.writeAAGGraphletSimilarityScoreToDB(src_pdb_id, allPDBIDs[k], src_scores[k]);
-                        } catch (SQLException e) {
-                            System.err.println("Could not write amino acid graph graphlet similarity score to DB: '" + e.getMessage() + "'.");
-                        }
-                        numScoresSaved++;
-                        numScoresSavedForCurrent++;
-                    }
-                }
+            if(numBatched >= 10000) {
+                flush();
             }
-            System.out.println("    A total of " + numScoresSavedForCurrent + " pairwise scores were saved for this CG.");
-            
-            
         }
         
-        return new Long[]{ numPDBsFound, numGraphletsFound, numScoresComputed, numScoresSaved };
+        /**
+         * Executes the scores batched so far.
+         * @throws SQLException if the insert fails
+         */
+        void flush() throws SQLException {
+            if(numBatched > 0) {
+                insert.executeBatch();
+                numScoresSaved += numBatched;
+                numBatched = 0;
+            }
+        }
     }
     
     
@@ -1036,65 +898,93 @@ public class DBManager {
     
     /**
      * Executes a select query. WARNING: This does not do any checks on the input so do not expose this to user input.
+     * Holds the whole result in memory, use forEachRow() for large results.
      * @param query the SQL query
      * @return the data as 2D matrix of Strings.
      */
     public static ArrayList<ArrayList<String>> doSelectQuery(String query) {
 
-        //ensureConnection(Settings.getBoolean("PTGLgraphComputation_B_db_use_autocommit"));
-
+        ArrayList<ArrayList<String>> tableData = new ArrayList<ArrayList<String>>();
+        
+        Boolean ok = forEachRow(query, 0, row -> {
+            int count = row.getMetaData().getColumnCount();
+            ArrayList<String> rowData = new ArrayList<String>(count);
+            for (int i = 1; i <= count; i++) {
+                rowData.add(row.getString(i));
+            }
+            tableData.add(rowData);
+        });
+        
+        if( ! ok) {
+            DP.getInstance().w("doSelectQuery(): SQL statement '" + query + "' failed.");
+            throw new ExitError(1);
+        }
+        return (tableData);
+    }
+    
+    
+    /**
+     * Handles one row of a query result, see forEachRow().
+     */
+    public interface RowHandler {
+        
+        /**
+         * Handles the current row. Read it with the typed getters of the result set (getLong(), getDouble(), ...), but do not move the cursor or close the result set.
+         * @param row the result set, positioned on the row
+         * @throws SQLException if reading the row fails
+         */
+        void handleRow(ResultSet row) throws SQLException;
+    }
+    
+    
+    /**
+     * Executes a select query and passes the rows to the handler while they are read. With a fetch size > 0, the rows are read with a cursor
+     * in chunks of that size, so they are never all in memory at once. The PostgreSQL driver only uses a cursor outside of autocommit mode, so
+     * autocommit is turned off during the query if it is on. WARNING: This does not do any checks on the query so do not expose this to user input.
+     * @param query the SQL query, may contain '?' placeholders for the parameters
+     * @param fetchSize the number of rows read from the database at once, 0 to read all rows at once
+     * @param handler called for each row
+     * @param params the values of the placeholders, in order
+     * @return true if all rows were read and handled, false if an SQL error occurred (which is reported)
+     */
+    public static Boolean forEachRow(String query, int fetchSize, RowHandler handler, Object... params) {
+        
+        PreparedStatement statement = null;
         ResultSet rs = null;
-        PreparedStatement ps = null;
-        ResultSetMetaData md;
-        ArrayList<String> columnHeaders;
-        ArrayList<ArrayList<String>> tableData;
-        ArrayList<String> rowData = null;
-
-        int count;
-
+        Boolean autoCommit = null;
         try {
-            ps = dbc.prepareStatement(query);
-            rs = ps.executeQuery();
-            md = rs.getMetaData();
-            count = md.getColumnCount();
-
-            columnHeaders = new ArrayList<String>();
-            tableData = new ArrayList<ArrayList<String>>();
-
-            for (int i = 1; i <= count; i++) {
-                columnHeaders.add(md.getColumnName(i));
+            if(fetchSize > 0) {
+                autoCommit = dbc.getAutoCommit();
+                if(autoCommit) {
+                    dbc.setAutoCommit(false);
+                }
             }
-
-
+            statement = dbc.prepareStatement(query);
+            statement.setFetchSize(fetchSize);
+            for(int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            rs = statement.executeQuery();
             while (rs.next()) {
-                rowData = new ArrayList<String>();
-                for (int i = 1; i <= count; i++) {
-                    rowData.add(rs.getString(i));
-                }
-                tableData.add(rowData);
+                handler.handleRow(rs);
             }
-            return (tableData);
+            return true;
         } catch (SQLException e) {
-            DP.getInstance().w("doSelectQuery(): SQL statement '" + query + "' failed.: '" + e.getMessage() + "'.");
-            System.exit(1);
-            return (null);
+            System.err.println("ERROR: SQL: forEachRow: Query '" + query + "' failed: '" + e.getMessage() + "'.");
+            return false;
         } finally {
-            if (rs != null) {
-                try {
+            try {
+                if (rs != null) {
                     rs.close();
-                } catch (SQLException ex) {
-                    DP.getInstance().w("doSelectQuery(): Could not close result set: '" + ex.getMessage() + "'.");
                 }
-            }
-            if (ps != null) {
-                try {
-                    ps.close();
-                } catch (SQLException ex) {
-                    DP.getInstance().w("doSelectQuery(): Could not close prepared statement: '" + ex.getMessage() + "'.");
+                if (statement != null) {
+                    statement.close();
                 }
-            }
+                if (autoCommit != null && autoCommit) {
+                    dbc.setAutoCommit(true);
+                }
+            } catch(SQLException e) { DP.getInstance().w("DBManager", "forEachRow: Could not close statement and reset autocommit."); }
         }
-
     }
 
     /**
@@ -1118,40 +1008,107 @@ public class DBManager {
             // there is no connection object
             return (false);
         }
-        
+        
+    }
+    
+    /**
+     * Closes the DB connections of all threads and commits pending queries unless autocommit is set. Waits for the writer threads of
+     * ProteinEntryDBWriter.commitInBackground() first. If setKeepConnectionsOpen() is set, only the connection of the calling thread is
+     * returned to the pool.
+     * @return Whether the connections could be closed.
+     */
+    public static Boolean closeConnection() {
+        if (keepConnectionsOpen) {
+            releaseThreadConnection();
+            return (true);
+        }
+        return (closePool());
     }
     
+    
     /**
-     * Closes the DB connection and commit pending queries unless autocommit is set.
-     * @return Whether the connection could be closed.
+     * Waits for the writer threads of ProteinEntryDBWriter.commitInBackground() and closes the pool.
+     * @return Whether the connections could be closed.
      */
-    public static Boolean closeConnection() {
+    private static Boolean closePool() {
 
-        if (dbc != null) {
-            try {
-                if (!dbc.isClosed()) {
-                    try {
-                        if ( ! dbc.getAutoCommit()) {
-                            dbc.commit();
-                        } 
-                    } catch (SQLException e2) {
-                        DP.getInstance().w("closeConnection(): Commit: '" + e2.getMessage() + "'.");                
-                        return (false);
-                    }
-                    dbc.close();
-                    return (true);
-                } else {
-                    return (true);        // already closed
-                }
-            } catch (SQLException e) {
-                DP.getInstance().w("closeConnection(): Could not close DB connection: '" + e.getMessage() + "'.");                
-                return (false);
+        if (pool != null) {
+            if (pool.isClosed()) {
+                return (true);        // already closed
             }
+            ProteinEntryDBWriter.awaitBackgroundCommits();
+            return (pool.close());
         } else {
             // there is no connection object
             return (true);
         }
     }
+    
+    
+    /**
+     * Sets whether closeConnection() keeps the DB connections open, so the next PDB entry of a batch reuses them while the writer
+     * threads of the last entry still write to the DB, see BatchRunner. Turning it off closes the connections.
+     * @param keepOpen whether to keep the connections open
+     */
+    public static void setKeepConnectionsOpen(boolean keepOpen) {
+        keepConnectionsOpen = keepOpen;
+        if ( ! keepOpen) {
+            closePool();
+        }
+    }
+    
+    
+    /**
+     * Runs the task in one transaction on the DB connection of the calling thread, so several threads can write to the DB at
+     * the same time. All DBManager methods called by the task are part of the transaction, their own commits are ignored. See DBConnectionPool.inTransaction().
+     * @param <T> the result type of the task
+     * @param task the task, which calls DBManager methods
+     * @return the result of the task
+     * @throws Exception if the task throws, or if the transaction was rolled back or could not be committed
+     */
+    public static <T> T inTransaction(java.util.concurrent.Callable<T> task) throws Exception {
+        if (pool == null) {
+            throw new SQLException("No DB connection, call init() first.");
+        }
+        return (pool.inTransaction(task));
+    }
+    
+    
+    /**
+     * Starts a transaction on the DB connection of the calling thread, for transactions which do not fit into a single method, e.g.,
+     * all results of a PDB entry. Must be followed by a call of endTransaction(). See inTransaction().
+     * @throws SQLException if there is no DB connection
+     */
+    public static void beginTransaction() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("No DB connection, call init() first.");
+        }
+        pool.beginTransaction();
+    }
+    
+    
+    /**
+     * Ends the transaction started by beginTransaction().
+     * @param commit whether to commit the transaction, false to roll it back
+     * @throws SQLException if the transaction should be committed but was rolled back or could not be committed
+     */
+    public static void endTransaction(boolean commit) throws SQLException {
+        if (pool == null) {
+            throw new SQLException("No DB connection, call init() first.");
+        }
+        pool.endTransaction(commit);
+    }
+    
+    
+    /**
+     * Returns the DB connection of the calling thread to the pool. Worker threads which called DBManager methods outside of
+     * inTransaction() should call this when they are done, so other threads can use the connection. Pending changes are committed.
+     */
+    public static void releaseThreadConnection() {
+        if (pool != null) {
+            pool.releaseThreadConnection();
+        }
+    }
 
     /**
      * Drops (=deletes) all PLCC tables in the database and all of their content.
@@ -2111,119 +2068,20 @@ connection.close();
             DP.getInstance().w("DBManager", "checkAndAssignChainToAllMotifsInDatabase(): Found only " + proteinGraphDBids.keySet().size() + " instead of 6 protein graphs for PDB " + pdbid + " chain " + chain + " in the DB. May miss motifes.");
         }
                 
+        // evaluate all motif rules on the notations of the chain, then write the assignments at once
+        List<Integer> motifCodes = MotifEngine.findMotifs(chain_db_id);
+        int[] rowsAffected = DBManager.assignChainToMotifs(chain_db_id, motifCodes);
+
         Integer rowsAffectedTotal = 0;
-        Integer rowsAffectedThisMotif;
-        Long motif_db_id;
-        
         List<String> foundMotifsForChain = new ArrayList<String>();
-        
-        // check all 10 motives: 
-        
-        // four helix bundle
-        if(DBManager.chainContainsMotif_FourHelixBundle(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__FOUR_HELIX_BUNDLE.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__FOUR_HELIX_BUNDLE);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_UpAndDownBarrel(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__UP_AND_DOWN_BARREL.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__UP_AND_DOWN_BARREL);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_GlobinFold(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__GLOBIN_FOLD.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__GLOBIN_FOLD);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_JellyRoll(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__JELLY_ROLL.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__JELLY_ROLL);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_ImmunoglobinFold(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__IMMUNOGLOBIN_FOLD.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__IMMUNOGLOBIN_FOLD);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_BetaPropeller(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__BETA_PROPELLER.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__BETA_PROPELLER);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_RossmanFold(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__ROSSMAN_FOLD.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__ROSSMAN_FOLD);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if (Settings.getBoolean("PTGLgraphComputation_B_compute_tim")) {
-            if(DBManager.chainContainsMotif_TIMBarrel(chain_db_id)) {
-                motif_db_id = Motifs.MOTIFCODE__TIM_BARREL.longValue();
-                rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-                if(rowsAffectedThisMotif > 0) {
-                    foundMotifsForChain.add(Motifs.MOTIF__TIM_BARREL);
-                }
-                rowsAffectedTotal += rowsAffectedThisMotif;
-            }
-        }
-        
-        if(DBManager.chainContainsMotif_AlphaBetaPlait(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__ALPHA_BETA_PLAIT.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__ALPHA_BETA_PLAIT);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_UbiquitinRoll(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__UBIQUITIN_ROLL.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__UBIQUITIN_ROLL);
-            }
-            rowsAffectedTotal += rowsAffectedThisMotif;
-        }
-        
-        if(DBManager.chainContainsMotif_FerredoxinFold(chain_db_id)) {
-            motif_db_id = Motifs.MOTIFCODE__FERREDOXIN_FOLD.longValue();
-            rowsAffectedThisMotif = DBManager.assignChainToMotiv(chain_db_id, motif_db_id);
-            if(rowsAffectedThisMotif > 0) {
-                foundMotifsForChain.add(Motifs.MOTIF__FERREDOXIN_FOLD);
+        for(int i = 0; i < motifCodes.size(); i++) {
+            if(rowsAffected[i] > 0) {
+                foundMotifsForChain.add(MotifEngine.getMotifName(motifCodes.get(i)));
+                rowsAffectedTotal += rowsAffected[i];
             }
-            rowsAffectedTotal += rowsAffectedThisMotif;
         }
         
         
-                                        
-        
         // OK -- all motifs tested
         if(! Settings.getBoolean("PTGLgraphComputation_B_silent")) {
             if(foundMotifsForChain.size() > 0) {
@@ -2244,157 +2102,7 @@ connection.close();
      * @return a list with list, representing the graph of the given notation in an adjacency matrix
      */
     public static ArrayList<ArrayList<Character>> parseRedOrAdjToMatrix(String ln, String graphtype){
-        //initial steps
-        ArrayList<ArrayList<Character>> matrix = new ArrayList<>(); //stores later genererated matrix
-        
-        //do nothing, if linear notation is empty ( {}, [], () )
-        if (ln.length() <= 2){
-            return matrix;
-        }
-        //return matrix = [[x]], if linear notation contains only one entry ( [e], [h] )
-        if (ln.length() == 3){
-            ArrayList<Character> row1 = new ArrayList<>();
-            row1.add('x'); //only one nod, that is not adjacent to itself
-            matrix.add(row1);
-            
-            return matrix; 
-        }
-        
-        ln = ln.replace("{", "").replace("}", "").replace("(", "").replace(")", "").replace("[", "").replace("]", ""); //linnot whithout brackets
-        int minVal = 0;
-        int maxVal = 0;
-        String[] linnot = ln.split(","); //Array, consisting of the elemnts of the linnot
-        int[] myArray = new int[3]; //0 = mixed, 1 = parallel, 2 = antiparallel, 3 = z
-        ArrayList<int[]> myListArray = new ArrayList<>(); //auxiliary variable
-        //Beginning of Matrix has to be computed seperated from the rest
-        myArray[0] = 0; //From where does the edge come? In this case 0, because it is the first edge
-        
-        if ("alpha".equals(graphtype) || "beta".equals(graphtype)){
-            myArray[1] = 0 + Integer.parseInt(linnot[0].substring(0, linnot[0].length()-1)); //To which node does the first edge go? Always from the startingpoint. In this case 0.
-        }
-        else { //graphtype = "albe", 
-            //skip the first ellement in linnot, cause it has only information about SSEType, e.g. [e]
-            myArray[1] = 0 + Integer.parseInt(linnot[1].substring(0, linnot[1].length()-2));
-        }
-        
-        if (myArray[1] > maxVal) {
-            maxVal = myArray[1];
-        }
-        if (myArray[1] < minVal) {
-            minVal = myArray[1];
-        }
-        int origin = myArray[1]; 
-        
-        String edgetype_substr; // alpha/beta and albe require different positions of the edgetype in the linear notation
-        if ("alpha".equals(graphtype) || "beta".equals(graphtype)) {
-            edgetype_substr = linnot[0].substring(linnot[0].length()-1); // e.g. edgetype_substr = "p" for "-1pe"
-        }
-        else { //graphtype = "albe"
-            edgetype_substr = linnot[1].substring(linnot[1].length()-2, linnot[1].length()-1); // e.g. edgetype_substr = "p" for "1p"
-        }
-        
-        //which edge (parallel, antiparallel or mixed) is used?
-        switch (edgetype_substr) {
-            case "m":
-                myArray[2] = 0;
-                break;
-            case "p":
-                myArray[2] = 1;
-                break;
-            case "a":
-                myArray[2] = 2;
-                break;
-            case "z":
-                myArray[2] = 3;
-                break;
-            default:
-                break;
-        }
-        
-        myListArray.add(myArray.clone());
-        
-        int index_shift; //to get the right positions of the numbers in linnot
-        int start_index; //the for loop has to start at different positions, cause albe skips the first position in linnot
-        
-        if ("alpha".equals(graphtype) || "beta".equals(graphtype)) {
-            start_index = 1;
-            index_shift = 1;
-        }
-        else { //graphtype = "albe"
-            start_index = 2;
-            index_shift = 2;
-        }
-
-        //iterate over the whole linnot.
-        for (int i = start_index; i < linnot.length; i++) {
-            myArray[0] = origin; //From where does the edge come from?
-            myArray[1] = origin + Integer.parseInt(linnot[i].substring(0, linnot[i].length()-index_shift)); //where will the edge go to?
-            origin = myArray[1];
-            
-            if ("alpha".equals(graphtype) || "beta".equals(graphtype)) {
-            edgetype_substr = linnot[i].substring(linnot[i].length()-1); // e.g. edgetype_substr = "p" for "-1pe"
-            }
-            else { //graphtype = "albe"
-                edgetype_substr = linnot[i].substring(linnot[i].length()-2, linnot[i].length()-1); // e.g. edgetype_substr = "p" for "1p"
-            }
-            
-            //which edge (parallel, antiparallel or mixed) is used?
-            switch (edgetype_substr) {
-                case "m":
-                    myArray[2] = 0;
-                    break;
-                case "p":
-                    myArray[2] = 1;
-                    break;
-                case "a":
-                    myArray[2] = 2;
-                    break;
-                case "z":
-                    myArray[2] = 3;
-                    break;
-                default:
-                    break;
-            }
-                myListArray.add(myArray.clone());
-            if (myArray[1] > maxVal) {
-                maxVal = myArray[1];
-            }
-            if (myArray[1] < minVal) {
-                minVal = myArray[1];
-            }
-        }
-        
-        
-        int numVertices = (maxVal - minVal) + 1; //is needed to determine the first vertex
-        
-        //Init Matrix with "x" for no edge
-        ArrayList<Character> row;
-        for (int i = 0; i<numVertices; i++) {
-            row = new ArrayList<>();
-            for (int j=0; j<numVertices; j++) {
-                row.add('x');
-            }
-            matrix.add(row);
-        }
-        
-        //fill Matrix with myListArray
-        for (int[] s : myListArray) {
-            if (s[2] != 3) {
-                if (s[2] == 0) {
-                    matrix.get(s[0]+abs(minVal)).set(s[1]+abs(minVal), 'm');
-                    matrix.get(s[1]+abs(minVal)).set(s[0]+abs(minVal), 'm');
-                }
-                if (s[2] == 1) {
-                    matrix.get(s[0]+abs(minVal)).set(s[1]+abs(minVal), 'p');
-                    matrix.get(s[1]+abs(minVal)).set(s[0]+abs(minVal), 'p');
-                }
-                if (s[2] == 2) {
-                    matrix.get(s[0]+abs(minVal)).set(s[1]+abs(minVal), 'a');
-                    matrix.get(s[1]+abs(minVal)).set(s[0]+abs(minVal), 'a');
-                }
-            }
-        }
-        return matrix;
+        return NotationMatrix.parse(ln, graphtype).toCharMatrix();
     }
     
     /**
@@ -2404,34 +2112,7 @@ connection.close();
      * @return array with the two indices where the pattern was found in the matrix. If the pattern was not found, return [-1, 0]
      */
     public static int[] matrixSearch(ArrayList<ArrayList<Character>> pattern, ArrayList<ArrayList<Character>> matrix) {
-        int[] output_array = new int[2]; //saves the indexes of the found pattern
-         
-        //go through every position in half of the matrix, where you can place the pattern without overlap
-        for (int x = 0; x <= matrix.size() - pattern.size(); x++){
-            for (int y = 0; y <= x; y++){      
-                int i;
-                int j = 0;
-                
-                //go through the pattern and try to find a match
-                outerloop:
-                for (i = 0; i < pattern.size(); i++){
-                    for (j = 0; j <= i; j++){
-                        if (!Objects.equals(matrix.get(x+i).get(y+j), pattern.get(i).get(j))){
-                            break outerloop;
-                        }
-                    }
-                }
-                if (i == j && j == pattern.size()){ //if a match was found
-                    //x, y are the indexes in matrix where the pattern was found
-                    output_array[0] = x;
-                    output_array[1] = y;
-                    return(output_array);
-                }
-            }
-        }
-        //if the pattern was not found. -1 is equal to no result
-        output_array[0] = -1;
-        return(output_array);
+        return MatrixPatternMatcher.compile(NotationMatrix.fromCharMatrix(pattern)).findFirst(NotationMatrix.fromCharMatrix(matrix));
     } 
     
     /**
@@ -2445,78 +2126,40 @@ connection.close();
         //the results (proteins that contain the linnot) will be stored here: [[pdbid, chain], ...]
         ArrayList<ArrayList<String>> results = new ArrayList<ArrayList<String>>();
         
-        ResultSetMetaData md;
-        ArrayList<ArrayList<String>> tableData = new ArrayList<ArrayList<String>>();
-        ArrayList<String> rowData = null;
-        int count;   
-        PreparedStatement statement = null;
-        ResultSet rs = null;     
-        StringBuilder querySB = new StringBuilder();
-        
-        //create SQL-statement to fetch the ADJ linnot of a given chain_id
-        querySB.append("SELECT denorm_pdb_id, denorm_chain_name, denorm_graph_type_string, ptgl_linnot_red, num_sses ");
-        querySB.append("FROM plcc_fglinnot ");
-        querySB.append("WHERE denorm_graph_type_string = ? ;");
-        
-        String query = querySB.toString();
+        MatrixPatternMatcher pattern = MatrixPatternMatcher.compile(NotationMatrix.parse(linnot, gt)); // change the input "linnot" into an adjacencymatrix, compiled once for all searches
         
-        try {
-            
-            statement = dbc.prepareStatement(query);
-            statement.setString(1, gt);
-            rs = statement.executeQuery();
-            //dbc.commit();
-            
-            md = rs.getMetaData();
-            count = md.getColumnCount();
-                                   
-            //evaluate SQL-statement and store it in the list tableData
-            while (rs.next()) {
-                rowData = new ArrayList<String>();
-                for (int i = 1; i <= count; i++) {
-                    rowData.add(rs.getString(i));
-                }
-                tableData.add(rowData);
+        //search the pattern in each RED linnot of the graph type while they are read
+        Boolean ok = forEachFoldingGraphRedNotation(gt, DEFAULT_FETCH_SIZE, row -> {
+            int numSSEs = Integer.parseInt(row[3]);
+            if (pattern.getPatternSize() <= numSSEs && numSSEs > 1) {
+                if (pattern.occursIn(NotationMatrix.parse(row[2], gt))){
+                    ArrayList<String> pdbidAndChainOfProt = new ArrayList<String>();
+                    pdbidAndChainOfProt.add(row[0]);
+                    pdbidAndChainOfProt.add(row[1]);
+                    results.add(pdbidAndChainOfProt);
+                } 
             }
-            
-        } catch (SQLException e ) {
-            DP.getInstance().e("DBManager", "matrixSearchDb: '" + e.getMessage() + "'.");
-        } finally {
-            try {
-                if (statement != null) {
-                    statement.close();
-                }
-                //dbc.setAutoCommit(true);              
-            } catch(SQLException e) { DP.getInstance().w("DBManager", "matrixSearchDb: Could not close statement and reset autocommit.");}
-        }
-        
-        //iterate over all present linnots and save them as an adjacencymatrix in the list "matrixList"
-        ArrayList<ArrayList<ArrayList<Character>>> matrixList = new ArrayList<ArrayList<ArrayList<Character>>>();
-        ArrayList<ArrayList<Character>> matrix = new ArrayList<ArrayList<Character>>(); //the adjacency matrix
-        ArrayList<ArrayList<Character>> pattern = parseRedOrAdjToMatrix(linnot, gt); // change the input "linnot" into an adjacencymatrix
+        });
         
-        if(tableData.size() >= 1) {
-            for (ArrayList<String> tD : tableData) {
-                if (pattern.size() <= Integer.parseInt(tD.get(4)) && Integer.parseInt(tD.get(4)) > 1) { // tD.get(4) = number of SSEs
-                    
-                    matrix = parseRedOrAdjToMatrix(tD.get(3), gt); //parse linnot to adjacencymatrix
-                    matrixList.add(matrix);
-                    
-                    int[] output_array = new int[2]; //saves the indexes of the found pattern
-                    output_array = DBManager.matrixSearch(pattern, matrix);
-                    
-                    if (output_array[0] != -1){ //if the pattern wasn't found, output_array[0] = -1
-                        ArrayList<String> pdbidAndChainOfProt = new ArrayList<String>();
-                        pdbidAndChainOfProt.add(tD.get(0));
-                        pdbidAndChainOfProt.add(tD.get(1));
-                        results.add(pdbidAndChainOfProt);
-                    } 
-                }
-            }
+        if( ! ok) {
+            DP.getInstance().e("DBManager", "matrixSearchDb: Could not search all linear notations.");
         }
         return results;
     }
     
+    
+    /**
+     * Reads the RED notations of all folding graphs of a graph type with a cursor, see forEachRow(). Used by the structure searches in the whole database.
+     * @param gt the graph type of the folding graphs ("alpha", "beta" or "albe")
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param handler called for each folding graph with the array {pdbid, chain name, RED notation, number of SSEs}
+     * @return whether all rows could be read
+     */
+    public static Boolean forEachFoldingGraphRedNotation(String gt, int fetchSize, Consumer<String[]> handler) {
+        String query = "SELECT denorm_pdb_id, denorm_chain_name, ptgl_linnot_red, num_sses FROM plcc_fglinnot WHERE denorm_graph_type_string = ? ;";
+        return forEachRow(query, fetchSize, row -> handler.accept(new String[]{ row.getString(1), row.getString(2), row.getString(3), row.getString(4) }), gt);
+    }
+    
     /**
      * Determines whether at least one matrix in a list of matrices contains a Four Helix Bundle
      * @param matrixList a list of matrices, representing a linear notation (RED or ADJ)
@@ -9661,52 +9304,150 @@ connection.close();
             if(idAlpha > 0L) {
                 proteinGraphDBids.put(gt, idAlpha);
             }
-        }
+        }
+        
+        return proteinGraphDBids;
+    }
+    
+    /**
+     * Assigns a chain to a motif in the database.
+     * @param chain_db_id the chain database ID
+     * @param motif_db_id the motif database ID
+     * @return the number of affected rows
+     * @throws SQLException if SQL stuff goes bad
+     */
+    public static Integer assignChainToMotiv(Long chain_db_id, Long motif_db_id) throws SQLException {
+        Integer numRowsAffected = 0;        
+        PreparedStatement statement = null;
+        
+        String query = "INSERT INTO " + tbl_nm_chaintomotif + " (chain_id, motif_id) VALUES (?, ?);";
+
+        try {
+            //dbc.setAutoCommit(false);
+            statement = dbc.prepareStatement(query);
+            
+            statement.setLong(1, chain_db_id);
+            statement.setLong(2, motif_db_id);
+                                
+            numRowsAffected = statement.executeUpdate();
+            //dbc.commit();
+        } catch (SQLException e ) {
+            System.err.println("ERROR: SQL: assignChainToMotiv(): '" + e.getMessage() + "'.");
+            if (dbc != null) {
+                try {
+                    System.err.print("ERROR: SQL: assignChainToMotiv(): Transaction is being rolled back.");
+                    dbc.rollback();
+                } catch(SQLException excep) {
+                    System.err.println("ERROR: SQL: assignChainToMotiv(): Could not roll back transaction: '" + excep.getMessage() + "'.");                    
+                }
+            }
+        } finally {
+            if (statement != null) {
+                statement.close();
+            }
+            //dbc.setAutoCommit(true);
+        } 
+        
+        return numRowsAffected;
+        
+    }
+    
+    /**
+     * Assigns a chain to several motifs in the database, in a single batch.
+     * @param chain_db_id the chain database ID
+     * @param motif_db_ids the motif database IDs
+     * @return the number of affected rows for each motif, all 0 if the batch failed
+     * @throws SQLException if SQL stuff goes bad
+     */
+    public static int[] assignChainToMotifs(Long chain_db_id, List<Integer> motif_db_ids) throws SQLException {
+        int[] numRowsAffected = new int[motif_db_ids.size()];
+        if(motif_db_ids.isEmpty()) {
+            return numRowsAffected;
+        }
+        PreparedStatement statement = null;
+        
+        String query = "INSERT INTO " + tbl_nm_chaintomotif + " (chain_id, motif_id) VALUES (?, ?);";
+
+        try {
+            statement = dbc.prepareStatement(query);
+            for(Integer motif_db_id : motif_db_ids) {
+                statement.setLong(1, chain_db_id);
+                statement.setLong(2, motif_db_id);
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for(int i = 0; i < counts.length && i < numRowsAffected.length; i++) {
+                // the driver may not know the count of a row, but it was inserted
+                numRowsAffected[i] = (counts[i] == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, counts[i]));
+            }
+        } catch (SQLException e ) {
+            System.err.println("ERROR: SQL: assignChainToMotifs(): '" + e.getMessage() + "'.");
+            if (dbc != null) {
+                try {
+                    System.err.print("ERROR: SQL: assignChainToMotifs(): Transaction is being rolled back.");
+                    dbc.rollback();
+                } catch(SQLException excep) {
+                    System.err.println("ERROR: SQL: assignChainToMotifs(): Could not roll back transaction: '" + excep.getMessage() + "'.");                    
+                }
+            }
+            Arrays.fill(numRowsAffected, 0);
+        } finally {
+            if (statement != null) {
+                statement.close();
+            }
+        } 
         
-        return proteinGraphDBids;
+        return numRowsAffected;
     }
     
+    
     /**
-     * Assigns a chain to a motif in the database.
-     * @param chain_db_id the chain database ID
-     * @param motif_db_id the motif database ID
+     * Deletes all motif assignments of a chain from the database, e.g., before they are computed again.
+     * @param pdb_id the PDB ID
+     * @param chain_name the PDB chain name
      * @return the number of affected rows
      * @throws SQLException if SQL stuff goes bad
      */
-    public static Integer assignChainToMotiv(Long chain_db_id, Long motif_db_id) throws SQLException {
-        Integer numRowsAffected = 0;        
+    public static Integer deleteMotifAssignmentsOfChain(String pdb_id, String chain_name) throws SQLException {
+        Integer numRowsAffected = 0;
         PreparedStatement statement = null;
         
-        String query = "INSERT INTO " + tbl_nm_chaintomotif + " (chain_id, motif_id) VALUES (?, ?);";
+        String query = "DELETE FROM " + tbl_nm_chaintomotif + " WHERE chain_id IN (SELECT chain_id FROM " + tbl_chain + " WHERE pdb_id = ? AND chain_name = ?);";
 
         try {
-            //dbc.setAutoCommit(false);
             statement = dbc.prepareStatement(query);
-            
-            statement.setLong(1, chain_db_id);
-            statement.setLong(2, motif_db_id);
-                                
+            statement.setString(1, pdb_id);
+            statement.setString(2, chain_name);
             numRowsAffected = statement.executeUpdate();
-            //dbc.commit();
         } catch (SQLException e ) {
-            System.err.println("ERROR: SQL: assignChainToMotiv(): '" + e.getMessage() + "'.");
-            if (dbc != null) {
-                try {
-                    System.err.print("ERROR: SQL: assignChainToMotiv(): Transaction is being rolled back.");
-                    dbc.rollback();
-                } catch(SQLException excep) {
-                    System.err.println("ERROR: SQL: assignChainToMotiv(): Could not roll back transaction: '" + excep.getMessage() + "'.");                    
-                }
-            }
+            System.err.println("ERROR: SQL: deleteMotifAssignmentsOfChain(): '" + e.getMessage() + "'.");
+            throw e;
         } finally {
             if (statement != null) {
                 statement.close();
             }
-            //dbc.setAutoCommit(true);
         } 
         
         return numRowsAffected;
+    }
+    
+    
+    /**
+     * Retrieves the linear notations of all folding graphs of a chain (of all graph types) with a single query.
+     * @param chain_db_id the chain database ID
+     * @return the notations, empty if there are none or an error occurred
+     */
+    public static List<MotifEngine.FoldingGraphNotations> getFoldingGraphNotationsOfChain(Long chain_db_id) {
+        List<MotifEngine.FoldingGraphNotations> notations = new ArrayList<>();
+        String query = "SELECT pg.graph_type, fg.fg_number, ln.ptgl_linnot_adj, ln.ptgl_linnot_seq, ln.ptgl_linnot_red FROM " + tbl_fglinnot + " ln "
+                + "INNER JOIN " + tbl_foldinggraph + " fg ON ln.linnot_foldinggraph_id = fg.foldinggraph_id "
+                + "INNER JOIN " + tbl_proteingraph + " pg ON fg.parent_graph_id = pg.graph_id WHERE pg.chain_id = ? ;";
         
+        Boolean ok = forEachRow(query, 0, row -> notations.add(new MotifEngine.FoldingGraphNotations(row.getInt(1), row.getInt(2), row.getString(3), row.getString(4), row.getString(5))), chain_db_id);
+        if( ! ok) {
+            DP.getInstance().e("DBManager", "getFoldingGraphNotationsOfChain: Could not read the notations of chain with ID '" + chain_db_id + "'.");
+        }
+        return notations;
     }
     
      /**
@@ -12215,6 +11956,25 @@ connection.close();
     }
     
     
+    /**
+     * Returns the normalized graphlet counts as a PostgreSQL array string, with 4 decimals like the GraphletAnalyser writes them.
+     * @param arr the normalized graphlet counts, see GraphletCounts.getNormalizedCounts()
+     * @return the array string, e.g., "'{0.2500, 0.0000}'"
+     */
+    private static String getSQLGraphletArrayString(Double[] arr) {
+        StringBuilder pgArrayString = new StringBuilder();
+        pgArrayString.append("'{");
+        for(int i = 0; i < arr.length; i++) {
+            pgArrayString.append(String.format(Locale.ENGLISH, "%.4f", arr[i]));
+            if(i < arr.length - 1) {
+                pgArrayString.append(", ");
+            }
+        }
+        pgArrayString.append("}'");
+        return pgArrayString.toString();
+    }
+    
+    
     /**
      * Writes statistics and properties of a protein graph to the database
      * @param graph_db_id the internal database ID of the graph
@@ -12525,18 +12285,18 @@ connection.close();
     
     /**
      * Writes information on the normalized graphlet counts for a protein graph to the database. Used by graphlet computation
-     * algorithms to store the graphlets. Currently not used because this is done in a separate C++ program.
+     * algorithms to store the graphlets, see GraphletCounts. (The separate C++ program GraphletAnalyser writes them on its own.)
      * 
      * @param pdb_id the PDB identifier of the protein
      * @param chain_name the PDB chain name of the chain represented by the graph_string
      * @param graph_type the Integer representation of the graph type. use ProtGraphs.getGraphTypeCode() to get it.
-     * @param graphlet_counts an array holding the counts for the different graphlet types
+     * @param graphlet_counts the normalized counts in the layout of the GraphletAnalyser, see GraphletCounts.getNormalizedCounts()
      * @return true if the graph was inserted, false if errors occurred
      * @throws SQLException if the data could not be written or the database connection could not be closed or reset to auto commit (in the finally block)
      */
     public static Boolean writeNormalizedGraphletsToDB(String pdb_id, String chain_name, Integer graph_type, Double[] graphlet_counts) throws SQLException {
 
-        int numReqGraphletTypes = Settings.getInteger("PTGLgraphComputation_I_number_of_graphlets");
+        int numReqGraphletTypes = GraphletCounts.getNormalizedCountsLength(GraphletCounts.ALPHABET_SSE);
         if(graphlet_counts.length != numReqGraphletTypes) {
             System.err.println("ERROR: writeNormalizedGraphletsToDB: Invalid number of graphlet types specified (got " + graphlet_counts.length + ", required " + numReqGraphletTypes + "). Skipping graphlets.");
             return false;
@@ -12556,7 +12316,7 @@ connection.close();
         StringBuilder querySB = new StringBuilder();
         querySB.append("INSERT INTO ").append(tbl_graphletcount).append(" (graph_id, graphlet_counts) VALUES ( ");
         
-        String pgArray = DBManager.getSQLDoubleArrayString(graphlet_counts);
+        String pgArray = DBManager.getSQLGraphletArrayString(graphlet_counts);
         
         querySB.append(graph_db_id);
         querySB.append(", ");
@@ -12571,6 +12331,64 @@ connection.close();
         return(result);
     }
     
+    
+    /**
+     * Writes the normalized graphlet counts for a complex graph to the database, replacing existing counts. See writeNormalizedGraphletsToDB().
+     * 
+     * @param pdb_id the PDB identifier of the protein, which identifies the complex graph
+     * @param graphlet_counts the normalized counts in the layout of the GraphletAnalyser, see GraphletCounts.getNormalizedCounts()
+     * @return true if the counts were inserted, false if errors occurred
+     */
+    public static Boolean writeNormalizedComplexgraphGraphletsToDB(String pdb_id, Double[] graphlet_counts) {
+        
+        int numReqGraphletTypes = GraphletCounts.getNormalizedCountsLength(GraphletCounts.ALPHABET_SSE);
+        if(graphlet_counts.length != numReqGraphletTypes) {
+            System.err.println("ERROR: writeNormalizedComplexgraphGraphletsToDB: Invalid number of graphlet types specified (got " + graphlet_counts.length + ", required " + numReqGraphletTypes + "). Skipping graphlets.");
+            return false;
+        }
+        
+        Long graph_db_id = DBManager.getDBComplexgraphID(pdb_id);
+        if (graph_db_id < 0) {
+            System.err.println("ERROR: writeNormalizedComplexgraphGraphletsToDB: Could not find complex graph with pdb_id '" + pdb_id + "' in DB, could not insert graphlets.");
+            return (false);
+        }
+        
+        DBManager.doDeleteQuery("DELETE FROM " + tbl_graphletcount_complex + " WHERE complexgraph_id = " + graph_db_id + ";");
+        
+        String query = "INSERT INTO " + tbl_graphletcount_complex + " (complexgraph_id, complex_graphlet_counts) VALUES ( " + graph_db_id + ", " + DBManager.getSQLGraphletArrayString(graphlet_counts) + " )";
+        int numAffected = DBManager.doInsertQuery(query);
+        return(numAffected > 0);
+    }
+    
+    
+    /**
+     * Writes the normalized graphlet counts for an amino acid graph to the database, replacing existing counts. See writeNormalizedGraphletsToDB().
+     * 
+     * @param pdb_id the PDB identifier of the protein, which identifies the amino acid graph
+     * @param graphlet_counts the normalized counts in the layout of the GraphletAnalyser, see GraphletCounts.getNormalizedCounts()
+     * @return true if the counts were inserted, false if errors occurred
+     */
+    public static Boolean writeNormalizedAminoacidgraphGraphletsToDB(String pdb_id, Double[] graphlet_counts) {
+        
+        int numReqGraphletTypes = GraphletCounts.getNormalizedCountsLength(GraphletCounts.ALPHABET_AA);
+        if(graphlet_counts.length != numReqGraphletTypes) {
+            System.err.println("ERROR: writeNormalizedAminoacidgraphGraphletsToDB: Invalid number of graphlet types specified (got " + graphlet_counts.length + ", required " + numReqGraphletTypes + "). Skipping graphlets.");
+            return false;
+        }
+        
+        Long graph_db_id = DBManager.getDBAminoacidgraphID(pdb_id);
+        if (graph_db_id < 0) {
+            System.err.println("ERROR: writeNormalizedAminoacidgraphGraphletsToDB: Could not find amino acid graph with pdb_id '" + pdb_id + "' in DB, could not insert graphlets.");
+            return (false);
+        }
+        
+        DBManager.doDeleteQuery("DELETE FROM " + tbl_graphletcount_aa + " WHERE aagraph_id = " + graph_db_id + ";");
+        
+        String query = "INSERT INTO " + tbl_graphletcount_aa + " (aagraph_id, aa_graphlet_counts) VALUES ( " + graph_db_id + ", " + DBManager.getSQLGraphletArrayString(graphlet_counts) + " )";
+        int numAffected = DBManager.doInsertQuery(query);
+        return(numAffected > 0);
+    }
+    
 
     
     /**
@@ -14027,108 +13845,40 @@ connection.close();
      */
     public static ArrayList<ArrayList<String>> getAllPDBIDsandChains() {
         
-        ResultSetMetaData md;
-        ArrayList<String> columnHeaders;
         ArrayList<ArrayList<String>> tableData = new ArrayList<ArrayList<String>>();
-        ArrayList<String> rowData = null;
-        int count;
-               
-        PreparedStatement statement = null;
-        ResultSet rs = null;
-
-        String query = "SELECT pdb_id, chain_name FROM " + tbl_chain + " ;";
-
-        try {
-            //dbc.setAutoCommit(false);
-            statement = dbc.prepareStatement(query);
-            
-            rs = statement.executeQuery();
-            //dbc.commit();
-            
-            md = rs.getMetaData();
-            count = md.getColumnCount();
-
-            columnHeaders = new ArrayList<String>();
-
-            for (int i = 1; i <= count; i++) {
-                columnHeaders.add(md.getColumnName(i));
-            }
-
-
-            while (rs.next()) {
-                rowData = new ArrayList<String>();
-                for (int i = 1; i <= count; i++) {
-                    rowData.add(rs.getString(i));
-                }
-                tableData.add(rowData);
-            }
-            
-        } catch (SQLException e ) {
-            DP.getInstance().e("DBManager", "getAllPDBIDsandChains: '" + e.getMessage() + "'.");
-        } finally {
-            try {
-                if (statement != null) {
-                    statement.close();
-                }
-                //dbc.setAutoCommit(true);
-            } catch(SQLException e) { DP.getInstance().w("DBManager", "getAllPDBIDsandChains: Could not close statement and reset autocommit."); }
-        }
         
+        if( ! forEachPDBIDandChain(DEFAULT_FETCH_SIZE, row -> tableData.add(new ArrayList<String>(Arrays.asList(row))))) {
+            DP.getInstance().e("DBManager", "getAllPDBIDsandChains: Could not read all chains.");
+        }
         return tableData;
     }
     
     
+    /**
+     * Reads the PDB ID and the PDB chain name of all chains with a cursor, see forEachRow(). Used by the jobs which process all chains of the database,
+     * so the chains do not have to be in memory at once.
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param handler called for each chain with the array {pdbid, chain name}
+     * @return whether all rows could be read
+     */
+    public static Boolean forEachPDBIDandChain(int fetchSize, Consumer<String[]> handler) {
+        String query = "SELECT pdb_id, chain_name FROM " + tbl_chain + " ;";
+        return forEachRow(query, fetchSize, row -> handler.accept(new String[]{ row.getString(1), row.getString(2) }));
+    }
+    
+    
     /**
      * Retrieves the PDB ID  of all proteins that are currently in the DB.
      * @return a list of PDB IDs
      */
     public static List<String> getAllPDBIDsInTheDB() {
         
-        ResultSetMetaData md;
-        ArrayList<String> columnHeaders;
         List<String> tableData = new ArrayList<>();
-        ArrayList<String> rowData = null;
-        int count;
-               
-        PreparedStatement statement = null;
-        ResultSet rs = null;
-
         String query = "SELECT pdb_id FROM " + tbl_protein + " ;";
-
-        try {
-            //dbc.setAutoCommit(false);
-            statement = dbc.prepareStatement(query);
-            
-            rs = statement.executeQuery();
-            //dbc.commit();
-            
-            md = rs.getMetaData();
-            count = md.getColumnCount();
-
-            columnHeaders = new ArrayList<String>();
-
-            for (int i = 1; i <= count; i++) {
-                columnHeaders.add(md.getColumnName(i));
-            }
-
-
-            while (rs.next()) {
-                for (int i = 1; i <= count; i++) {
-                    tableData.add(rs.getString(i));
-                }
-            }
-            
-        } catch (SQLException e ) {
-            DP.getInstance().e("DBManager", "getAllPDBIDsInTheDB: '" + e.getMessage() + "'.");
-        } finally {
-            try {
-                if (statement != null) {
-                    statement.close();
-                }
-                //dbc.setAutoCommit(true);
-            } catch(SQLException e) { DP.getInstance().w("DBManager", "getAllPDBIDsInTheDB: Could not close statement and reset autocommit."); }
-        }
         
+        if( ! forEachRow(query, DEFAULT_FETCH_SIZE, row -> tableData.add(row.getString(1)))) {
+            DP.getInstance().e("DBManager", "getAllPDBIDsInTheDB: Could not read all proteins.");
+        }
         return tableData;
     }
     
@@ -15731,118 +15481,34 @@ connection.close();
      *  position 1 := chain id
      *  position 2 := graph type
      *  position 3 := SSE string
-     *  position 4 := graph string
+     *  position 4 := graph string in PLCC format
      * @throws java.sql.SQLException if something goes wrong with the DB
      */
     public static ArrayList<String[]> getAllGraphData(String graph_type) throws SQLException {
         
         ArrayList<String[]> graphData = new ArrayList<String[]>();
-        
-        // get a list of values pairs from the db here    
-                
-        Integer gtc = 1;        // graphTypeCode, e.g., 1 for alpha
-        Boolean allGraphs = false;
-        ResultSetMetaData md;
-        ArrayList<String> columnHeaders;
-        ArrayList<ArrayList<String>> tableData = new ArrayList<ArrayList<String>>();
-        ArrayList<String> rowData = null;
-        int count;
-        
-        if(graph_type.equals("ALL")) {
-            allGraphs = true;
-        }
-        else {
-            gtc = ProtGraphs.getGraphTypeCode(graph_type);
-        }
-
-        PreparedStatement statement = null;
-        ResultSet rs = null;
-
-        String query = "SELECT sse_string, chain_id, graph_type, graph_string FROM " + tbl_proteingraph + " WHERE (graph_type = ?);";
-        
-        if(allGraphs) {
-            query = "SELECT sse_string, chain_id, graph_type, graph_string FROM " + tbl_proteingraph + ";";
-        }
-
-        try {
-            //dbc.setAutoCommit(false);
-            statement = dbc.prepareStatement(query);
-
-            if( ! allGraphs) {
-                statement.setInt(1, gtc);
-            }
-            
-                                
-            rs = statement.executeQuery();
-            //dbc.commit();
-            
-            md = rs.getMetaData();
-            count = md.getColumnCount();
-
-            columnHeaders = new ArrayList<String>();
-
-            for (int i = 1; i <= count; i++) {
-                columnHeaders.add(md.getColumnName(i));
-            }
-
-
-            while (rs.next()) {
-                rowData = new ArrayList<String>();
-                for (int i = 1; i <= count; i++) {
-                    rowData.add(rs.getString(i));
-                }
-                tableData.add(rowData);
-            }
-            
-        } catch (SQLException e ) {
-            System.err.println("ERROR: SQL: getAllGraphData: '" + e.getMessage() + "'.");
-        } finally {
-            if (statement != null) {
-                statement.close();
-            }
-            //dbc.setAutoCommit(true);
+        if( ! forEachGraphData(graph_type, DEFAULT_FETCH_SIZE, graphData::add)) {
+            System.err.println("ERROR: SQL: getAllGraphData: Could not read all graphs.");
         }
+        return(graphData);                        
+    }
+    
+    
+    /**
+     * Reads the data of all protein graphs of a graph type like getAllGraphData(), but with a cursor: the rows are passed to the
+     * handler while they are read, so they are never all in memory at once. See forEachRow().
+     * @param graph_type the graph type, e.g., "albe", or "ALL" for all graph types
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param handler called for each graph with the array {pdbid, chain name, graph type code, SSE string, graph string in PLCC format}
+     * @return whether all rows could be read
+     */
+    public static Boolean forEachGraphData(String graph_type, int fetchSize, Consumer<String[]> handler) {
         
-        // OK, check size of results table and return 1st field of 1st column
-        String graphSSEStringDB, graphTypeDB, pdbidDB, chainNameDB, graphStringDB;
-        Long chainPK;
-        String[] data;
-        
-        
-        for(Integer i = 0; i < tableData.size(); i++) {            
-            
-            if(tableData.get(i).size() == 4) {
-                graphSSEStringDB = tableData.get(i).get(0);
-                graphTypeDB = tableData.get(i).get(2);
-                graphStringDB = tableData.get(i).get(3);
-                
-                try {
-                    chainPK = Long.valueOf(tableData.get(i).get(1));
-                } catch(NumberFormatException e) {
-                    DP.getInstance().w("DB: getAllGraphData(): '" + e.getMessage() + "' Ignoring data row.");
-                    continue;
-                }
-
-                // OK, now get the PDB ID and chain name
-                data = getPDBIDandChain(chainPK);
-                
-                if(data.length != 2) {
-                    DP.getInstance().w("DB: getAllGraphData(): Could not find chain with PK '" + chainPK + "' in DB, ignoring data row.");
-                    continue;
-                }
-                else {
-                    pdbidDB = data[0];
-                    chainNameDB = data[1];
-                    graphData.add(new String[]{pdbidDB, chainNameDB, graphTypeDB, graphSSEStringDB, graphStringDB});
-                }                
-            }
-            else {
-                DP.getInstance().w("DB: getAllGraphData(): Result row #" + i + " has unexpected length " + tableData.get(i).size() + ".");
-                return(graphData);
-            }
+        String query = "SELECT c.pdb_id, c.chain_name, g.graph_type, g.sse_string, g.graph_string_plcc FROM " + tbl_proteingraph + " g INNER JOIN " + tbl_chain + " c ON g.chain_id = c.chain_id";
+        if(graph_type.equals("ALL")) {
+            return forEachRow(query + ";", fetchSize, row -> handler.accept(new String[]{ row.getString(1), row.getString(2), row.getString(3), row.getString(4), row.getString(5) }));
         }
-        
-        return(graphData);                        
+        return forEachRow(query + " WHERE (g.graph_type = ?);", fetchSize, row -> handler.accept(new String[]{ row.getString(1), row.getString(2), row.getString(3), row.getString(4), row.getString(5) }), ProtGraphs.getGraphTypeCode(graph_type));
     }
     
     
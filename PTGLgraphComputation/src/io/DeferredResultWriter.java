@@ -0,0 +1,186 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package io;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import tools.DP;
+
+/**
+ * Collects results which are only written to the database (e.g., graph statistics or the paths of the output files of a graph) in a
+ * bounded queue, and writes them on the DB connection of the transaction they belong to.
+ *
+ * The records may refer to rows of the transaction which are not committed yet, which only its connection can see, and a connection
+ * must only be used by one thread at a time. So the writer belongs to the thread which holds the connection. While the computation holds
+ * it, a full queue is written by the computation thread itself before the next record is queued, which bounds the memory and slows
+ * the computation down to the speed of the DB. At the end, closeInBackground() hands the connection with its open transaction and the
+ * queued records over to a writer thread, which writes the records, ends the transaction and returns the connection to the pool. The
+ * computation thread can go on meanwhile, it gets another connection when it uses the DB again.
+ *
+ * Records must only write, and should only hold values, no objects the computation still changes.
+ */
+public class DeferredResultWriter {
+
+    /**
+     * A result record which writes itself to the database, e.g., a lambda which calls a DBManager method with values computed before.
+     */
+    public interface ResultRecord {
+        void write() throws SQLException;
+    }
+
+    private final DBConnectionPool pool;
+    private final BlockingQueue<Item> queue;
+    private volatile Thread owner;
+    private boolean closed = false;
+    private long numFailed = 0L;
+
+
+    /**
+     * Creates a writer which writes on the DB connection of the calling thread.
+     * @param pool the pool of the connection
+     * @param capacity the maximal number of records in the queue
+     */
+    public DeferredResultWriter(DBConnectionPool pool, int capacity) {
+        this.pool = pool;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.owner = Thread.currentThread();
+    }
+
+
+    /**
+     * Queues a record for writing. If the queue is full, the queued records are written first.
+     * @param description what the record contains, used in error messages, e.g., "stats of albe graph of PDB 7tim chain A"
+     * @param record the record
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void submit(String description, ResultRecord record) {
+        checkOwner();
+        if(closed) {
+            throw new IllegalStateException("The result writer is closed, could not write " + description + ".");
+        }
+        Item item = new Item(description, record);
+        while( ! queue.offer(item)) {
+            flush();
+        }
+    }
+
+
+    /**
+     * Writes all queued records, in order, on the calling thread.
+     */
+    public void flush() {
+        checkOwner();
+        Item item;
+        while((item = queue.poll()) != null) {
+            if( ! write(item.description, item.record)) {
+                numFailed++;
+            }
+        }
+    }
+
+
+    /**
+     * Writes all queued records and closes the writer.
+     * @return true if all records were written without an error
+     */
+    public boolean close() {
+        flush();
+        closed = true;
+        return numFailed == 0L;
+    }
+
+
+    /**
+     * Discards the queued records and closes the writer, e.g., if the transaction is rolled back.
+     */
+    public void discard() {
+        checkOwner();
+        queue.clear();
+        closed = true;
+    }
+
+
+    /**
+     * Closes the writer and hands the DB connection of the calling thread over to a new writer thread, which writes the queued records
+     * and then runs the finish task on the connection, e.g., to end the transaction. The writer thread returns the connection to the
+     * pool when done.
+     * @param threadName the name of the writer thread
+     * @param finish the task to run after the records are written, it returns whether it succeeded
+     * @return the result of the writer thread: true if all records were written and the finish task succeeded
+     */
+    public FutureTask<Boolean> closeInBackground(String threadName, Callable<Boolean> finish) {
+        checkOwner();
+        closed = true;
+        final DBConnectionPool.Binding connection = pool.detachThreadConnection();
+        FutureTask<Boolean> task = new FutureTask<>(() -> {
+            if(connection != null) {
+                pool.attachThreadConnection(connection);
+            }
+            owner = Thread.currentThread();
+            try {
+                flush();
+                boolean ok = finish.call();
+                return ok && numFailed == 0L;
+            } finally {
+                pool.releaseThreadConnection();
+            }
+        });
+        new Thread(task, threadName).start();
+        return task;
+    }
+
+
+    /**
+     * Returns the number of records which could not be written.
+     * @return the number of failed records
+     */
+    public long getNumFailed() {
+        return numFailed;
+    }
+
+
+    /**
+     * Makes sure the records are written on the DB connection of the thread which holds it.
+     * @throws IllegalStateException if called by another thread
+     */
+    private void checkOwner() {
+        if(Thread.currentThread() != owner) {
+            throw new IllegalStateException("The result writer may only be used by the thread which holds its DB connection, '" + owner.getName() + "'.");
+        }
+    }
+
+
+    /**
+     * Writes a record and reports errors.
+     * @param description what the record contains
+     * @param record the record
+     * @return true if the record was written
+     */
+    static boolean write(String description, ResultRecord record) {
+        try {
+            record.write();
+            return true;
+        } catch(SQLException | RuntimeException e) {
+            DP.getInstance().e("DeferredResultWriter", "Could not write " + description + " to the database: '" + e.getMessage() + "'.");
+            return false;
+        }
+    }
+
+
+    private static class Item {
+
+        final String description;
+        final ResultRecord record;
+
+        Item(String description, ResultRecord record) {
+            this.description = description;
+            this.record = record;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import proteinstructure.AminoAcid;
 import proteinstructure.Residue;
 import proteinstructure.SSE;
 import tools.DP;
+import tools.ExitError;
 
 
 
@@ -26,20 +27,9 @@ import tools.DP;
 public class DsspParser {
     
     // declare class vars
-    static String dsspFile = null;
-    static Integer dsspDataStartLine = null;
-    static ArrayList<String> dsspLines = null;
-    static ArrayList<SSE> s_dsspSSEs = null;             // all SSEs according to DSSP definition
-    
-    static Integer curLineNumDSSP = null;
-    static String curLineDSSP = null;
-    static Integer curResNumDSSP = null;
-    static Integer lastUsedDsspNum = null;
-    static Integer maxUsedDsspResNumInDsspFile = null;  // used to determine fake DSSP numbers for ligands
-    
-    static boolean dataInitDone = false;
     static boolean silent;
-    public static ArrayList<Integer> chainBreakDssps = new ArrayList<Integer>();
+    
+    // the state of the current parse is in the ParseContext, see ParseContext.current()
     
     
     /**
@@ -47,7 +37,8 @@ public class DsspParser {
      * @param df DSSP file path
      */
     protected static void initVariables(String df) {
-        dsspFile = df;
+        ParseContext ctx = ParseContext.current();
+        ctx.dsspFile = df;
         silent = Settings.getBoolean("PTGLgraphComputation_B_silent");
         
         // read all lines of the files into lists
@@ -55,36 +46,38 @@ public class DsspParser {
             System.out.println("  Reading DSSP file...");
         }
         
-        dsspLines = new ArrayList<String>();
-        dsspLines = FileParser.slurpFile(dsspFile, true); // vararg tells the function that this is a dssp file
+        ctx.dsspLines = new ArrayList<String>();
+        ctx.dsspLines = FileParser.slurpFile(ctx.dsspFile, true); // vararg tells the function that this is a dssp file
         if(! silent) {
-            System.out.println("    Read all " + dsspLines.size() + " lines of file '" + dsspFile + "'.");
+            System.out.println("    Read all " + ctx.dsspLines.size() + " lines of file '" + ctx.dsspFile + "'.");
         }
 
-        s_dsspSSEs = new ArrayList<SSE>();
+        ctx.s_dsspSSEs = new ArrayList<SSE>();
+        ctx.dsspResNumIndex = null;
     }
     
     
     // reads the dssp lines (starting at first line) till it arrives at the first data line (skips header stuff)
     private static Integer readDsspToData() {
+        ParseContext ctx = ParseContext.current();
 
-        curLineNumDSSP = 0;
-        curLineDSSP = "";
+        ctx.curLineNumDSSP = 0;
+        ctx.curLineDSSP = "";
         Boolean hitDsspData = false;
 
-        for(Integer i = 0; i < dsspLines.size(); i++) {
-            curLineNumDSSP++;
-            curLineDSSP = dsspLines.get(i);
+        for(Integer i = 0; i < ctx.dsspLines.size(); i++) {
+            ctx.curLineNumDSSP++;
+            ctx.curLineDSSP = ctx.dsspLines.get(i);
 
-            if(curLineDSSP.startsWith("  #")) {     // We found the last line of the header. The next line is the first one we are interested in.
+            if(ctx.curLineDSSP.startsWith("  #")) {     // We found the last line of the header. The next line is the first one we are interested in.
 
-                if(curLineNumDSSP >= dsspLines.size() - 1) {        // this may already be the last line if the DSSP file is broken, we shouldn't go to the next line in that case ;)
-                    System.err.println("ERROR: DSSP file '" + dsspFile + "' ends after last header line (line " + curLineNumDSSP + ".");
-                    System.exit(1);
+                if(ctx.curLineNumDSSP >= ctx.dsspLines.size() - 1) {        // this may already be the last line if the DSSP file is broken, we shouldn't go to the next line in that case ;)
+                    System.err.println("ERROR: DSSP file '" + ctx.dsspFile + "' ends after last header line (line " + ctx.curLineNumDSSP + ".");
+                    throw new ExitError(1);
                 }
                 else {                                          // yay, data found!
-                    curLineNumDSSP++;
-                    curLineDSSP = dsspLines.get(i + 1);
+                    ctx.curLineNumDSSP++;
+                    ctx.curLineDSSP = ctx.dsspLines.get(i + 1);
                     hitDsspData = true;                    
                     break;                                      // look no further!
                 }
@@ -93,37 +86,56 @@ public class DsspParser {
 
         if(hitDsspData) {
             if(! silent) {
-                System.out.println("    DSSP: Found start of DSSP data in line " + curLineNumDSSP + ".");
+                System.out.println("    DSSP: Found start of DSSP data in line " + ctx.curLineNumDSSP + ".");
             }
-            return(curLineNumDSSP);
+            return(ctx.curLineNumDSSP);
         }
         else {
-            System.err.println("ERROR: Hit the end of DSSP file at line " + curLineNumDSSP + " without finding the end of the header.");
+            System.err.println("ERROR: Hit the end of DSSP file at line " + ctx.curLineNumDSSP + " without finding the end of the header.");
             System.err.println("ERROR: DSSP file contains no data. Maybe the PDB file contains only DNA/RNA, check COMPND lines. Exiting.");
-            System.exit(2);
-            return(null);
+            throw new ExitError(2);
         }
 
     }
     
     
+    /**
+     * Finds the DSSP residue number of the residue with the given PDB fields. Uses an index of all DSSP data lines which is built
+     * on the first call, so this takes constant time.
+     * @param prn the PDB residue number
+     * @param chainID the chain ID
+     * @param iCode the insertion code
+     * @return the DSSP residue number, or null if there is no such residue in the DSSP file
+     */
     public static Integer getDsspResNumForPdbFields(Integer prn, String chainID, String iCode) {
+        ParseContext ctx = ParseContext.current();
+        if(ctx.dsspResNumIndex == null) {
+            ctx.dsspResNumIndex = createDsspResNumIndex();
+        }
+        return(ctx.dsspResNumIndex.get(new PdbResidueKey(prn, chainID, iCode)));
+    }
+    
+    
+    /**
+     * Maps the PDB fields (PDB residue number, chain ID, insertion code) of all DSSP data lines to their DSSP residue number.
+     * If several lines have the same PDB fields, the first one is used.
+     * @return the index
+     */
+    private static HashMap<PdbResidueKey, Integer> createDsspResNumIndex() {
+        ParseContext ctx = ParseContext.current();
+        HashMap<PdbResidueKey, Integer> index = new HashMap<>();
         Integer foundDsspResNum = null;
         Integer foundPdbResNum = null;
         String foundPdbICode = null;
         String foundChain = null;
-        Integer resultDsspResNum = null;
         String dline = null;
         String tmpPdbResNum = null;
         Character lastChar = null;
 
-        //System.out.println("    Starting search at DSSP line number '" + (dsspDataStartLine - 1) + "'.");
-        for(Integer i = dsspDataStartLine - 1; i < dsspLines.size(); i++) {
-            dline = dsspLines.get(i);
+        for(Integer i = ctx.dsspDataStartLine - 1; i < ctx.dsspLines.size(); i++) {
+            dline = ctx.dsspLines.get(i);
             foundDsspResNum = Integer.valueOf(dline.substring(1, 5).trim());
 
-            //System.out.println("Looking for PDB# " + prn + " at line "  + (i + 1) + ": '" + dline + "'");
-
             // skip chain brakes
             if(isChainBreakLine(dline)) {
                 continue;
@@ -156,28 +168,12 @@ public class DsspParser {
                 }
             } catch(Exception e) {
                 DP.getInstance().w("Something went wrong with parsing PDB number at line " + (i + 1) + " of DSSP file, ignoring." );
-                //System.exit(-1);
             }
 
-            //System.out.println("    Found PDB residue number '" + foundPdbResNum + "', looking for '" + prn + "'. DSSP # is '" + foundDsspResNum + "' here.");
-
-            if(foundPdbResNum.equals(prn)) {
-                
-                if(foundChain.equals(chainID)) {
-                    
-                    if(foundPdbICode.equals(iCode)) {
-                        resultDsspResNum = foundDsspResNum;
-                        break;
-                    }
-                }                
-            }            
+            index.putIfAbsent(new PdbResidueKey(foundPdbResNum, foundChain, foundPdbICode), foundDsspResNum);
         }
-
-        //if(resultDsspResNum == null) {
-        //    System.out.println("WARNING: getDsspResNumForPdbFields(): Could not find DSSP residue number for residue with PDB number " + prn + " and chainID '" + chainID + "' and iCode '" + iCode + "'.");
-        //}
         
-        return(resultDsspResNum);
+        return(index);
     }
     
     
@@ -200,6 +196,7 @@ public class DsspParser {
      * @param isCIF true if using mmCIF parser and mmCIF pdb file as chain IDs may be 4 character long then
      */
     protected static void createAllResiduesFromDsspData(Boolean isCIF) {
+        ParseContext ctx = ParseContext.current();
         
         String dLine;
         Integer dLineNum, dsspResNum, pdbResNum, resIndex, acc;
@@ -213,12 +210,12 @@ public class DsspParser {
         int offset;  // if > 99,999 residues everything is shifted
         
         // moved here and was previously executed >before< calling this function at all
-        dsspDataStartLine = readDsspToData();
+        ctx.dsspDataStartLine = readDsspToData();
 
         Residue r;
 
-        for(Integer i = dsspDataStartLine - 1; i < dsspLines.size(); i++) {
-            dLine = dsspLines.get(i);
+        for(Integer i = ctx.dsspDataStartLine - 1; i < ctx.dsspLines.size(); i++) {
+            dLine = ctx.dsspLines.get(i);
             dLineNum = i + 1;
             
             // jnw_2020: This was introduced for file with where DSSP number exceeded 99999 and caused a shift of the whole line
@@ -226,7 +223,7 @@ public class DsspParser {
             // offset = Math.max(dLine.split(" ")[0].length() - 5, 0);  // typically first 5 columns code for res num, but if exceeded add offset
 
             if(dLine.substring(13, 14).equals("!")) {       // chain brake
-                chainBreakDssps.add(Integer.valueOf(dLine.substring(0, 5).trim()));
+                ctx.chainBreakDssps.add(Integer.valueOf(dLine.substring(0, 5).trim()));
                 if(! silent) {
                     if (! Settings.getBoolean("PTGLgraphComputation_B_no_chain_break_info")) {
                         System.out.println("    DSSP: Found chain brake at DSSP line " + dLineNum + ".");
@@ -253,7 +250,7 @@ public class DsspParser {
                     // (and we only wand to go through dssp file once)
                     if (isCIF) {
                         // lets hope dssp res num always increases
-                        lastUsedDsspNum = dsspResNum;
+                        ctx.lastUsedDsspNum = dsspResNum;
                     }
                     
                     // 5 is ignored: blank
@@ -309,19 +306,19 @@ public class DsspParser {
                         resName1Letter = "C";   // change residue code cysteine
 
                         // now go save the sulfur bridge
-                        if(FileParser.s_sulfurBridges.containsKey(c)) {
+                        if(ctx.s_sulfurBridges.containsKey(c)) {
                             // the sulfur bridge partner is already in there
-                            (FileParser.s_sulfurBridges.get(c)).add(dsspResNum);
+                            (ctx.s_sulfurBridges.get(c)).add(dsspResNum);
 
                             // Check whether its a interhcain sulfur bridge (different chain IDs)
-                            if(! FileParser.s_interchainSulfurBridgesChainID.get(c).equals(dsspChainID)) {
+                            if(! ctx.s_interchainSulfurBridgesChainID.get(c).equals(dsspChainID)) {
                                 ArrayList<Integer> tmpInterchain = new ArrayList<Integer>();
 
                                 // Get the dsspResNum from the first residue of this interchain sulfur bridge
-                                tmpInterchain.add(FileParser.s_sulfurBridges.get(c).get(0));
+                                tmpInterchain.add(ctx.s_sulfurBridges.get(c).get(0));
                                 // Also add the dsspResNum of the current (second) residue.
                                 tmpInterchain.add(dsspResNum);
-                                FileParser.s_interchainSulfurBridges.put(c, tmpInterchain);
+                                ctx.s_interchainSulfurBridges.put(c, tmpInterchain);
                             }
 
 
@@ -329,11 +326,11 @@ public class DsspParser {
                             // this is the first residue of the sulfur bridge pair
                             ArrayList<Integer> tmp = new ArrayList<Integer>();
                             tmp.add(dsspResNum);
-                            FileParser.s_sulfurBridges.put(c, tmp);
+                            ctx.s_sulfurBridges.put(c, tmp);
 
                             // If its the first residue of the sulfur bridge save the chain this residue belongs to.
                             // This will be used to check if the second residue is on the same change or not.
-                            FileParser.s_interchainSulfurBridgesChainID.put(c, dsspChainID);
+                            ctx.s_interchainSulfurBridgesChainID.put(c, dsspChainID);
                         }
                     }
                 } catch (Exception e) {
@@ -370,13 +367,13 @@ public class DsspParser {
                 //}
 
                 // add to list of Residues
-                FileParser.s_molecules.add(r);
-                resIndex = FileParser.s_molecules.size() - 1;
+                ctx.s_molecules.add(r);
+                resIndex = ctx.s_molecules.size() - 1;
                 // add index to s_residueIndices
-                FileParser.s_residueIndices.add(resIndex);
+                ctx.s_residueIndices.add(resIndex);
                 // produces null ponter exception in CIF parser and I dont see where we need it (maybe I'll understand later)
                 if (! isCIF) {
-                    FileParser.resIndexDSSP[dsspResNum] = resIndex;
+                    ctx.resIndexDSSP[dsspResNum] = resIndex;
                 }
                 //resIndexPDB[pdbResNum] = resIndex;  // This will crash because some PDB files use negative residue numbers, omfg.
                 //System.out.println("    DSSP: Added residue PDB # " +  pdbResNum + ", DSSP # " + dsspResNum + " to s_residues at index " + resIndex + ".");
@@ -386,35 +383,36 @@ public class DsspParser {
         }  // end of iterating over DSSP lines
         
         if (! silent) {
-            System.out.println("    DSSP: Found " + FileParser.s_molecules.size() + " residues.");
+            System.out.println("    DSSP: Found " + ctx.s_molecules.size() + " residues.");
         }
         
     }
     
     
         public static ArrayList<String> getDsspLines() {
-        if(dataInitDone) {
-            return(dsspLines);
+        ParseContext ctx = ParseContext.current();
+        if(ctx.dsspDataInitDone) {
+            return(ctx.dsspLines);
         }
         else {
             System.err.println("ERROR: FileParser.getDsspLines(): Request for data before initData() was called.");
-            System.exit(1);
-            return(null);
+            throw new ExitError(1);
         }
     }
     
         
     protected static Integer getLastUsedDsspResNumOfDsspFile() {
+        ParseContext ctx = ParseContext.current();
 
         Integer dLineNum, dsspResNum;
         dLineNum = dsspResNum = 0;
         String dLine;
         dLine = "";
 
-        if(maxUsedDsspResNumInDsspFile == null) {
+        if(ctx.maxUsedDsspResNumInDsspFile == null) {
             // value is not known yet, we have to determine it from the DSSP file
-            for(Integer i = dsspDataStartLine - 1; i < dsspLines.size(); i++) {
-                dLine = dsspLines.get(i);
+            for(Integer i = ctx.dsspDataStartLine - 1; i < ctx.dsspLines.size(); i++) {
+                dLine = ctx.dsspLines.get(i);
                 dLineNum = i + 1;
                 
                 if( (dLine.length() >= 14)) { // Warning has been printed before
@@ -425,7 +423,7 @@ public class DsspParser {
                         } catch (Exception e) {
                             System.err.println("ERROR: Parsing of DSSP line " + dLineNum + " failed. DSSP file broken.");
                             e.printStackTrace();
-                            System.exit(1);
+                            throw new ExitError(1);
                         }
                     }
                 }
@@ -434,14 +432,14 @@ public class DsspParser {
             // DSSP residue numbers are ordered in the file so after iterating through
             //  all lines of the file, this holds the last used DSSP residue number.
 
-            maxUsedDsspResNumInDsspFile = dsspResNum;
+            ctx.maxUsedDsspResNumInDsspFile = dsspResNum;
             //System.out.println("    DSSP: Last used DSSP residue number is " + maxUsedDsspResNumInDsspFile + ", found in line " + dLineNum + ".");
 
 
         }
 
         // value is known now and saved in class global var, just return it.
-        return(maxUsedDsspResNumInDsspFile);
+        return(ctx.maxUsedDsspResNumInDsspFile);
     }
     
 }
@@ -26,8 +26,8 @@ import java.util.List;
 import settings.Settings;
 import proteingraphs.MolContactInfo;
 import proteingraphs.ProtGraph;
-import proteinstructure.BindingSite;
 import proteinstructure.ProtMetaInfo;
+import tools.ExitError;
 
 
 /**
@@ -42,38 +42,7 @@ public class FileParser {
     public static Boolean essentialOutputOnly = false;
     static String fs = System.getProperty("file.separator");
 
-    static String pdbFile = null;
-    static ArrayList<String> pdbLines = null;
-    static ArrayList <Molecule> s_molecules = null;
-    static ArrayList<Model> s_models = null;
-    static ArrayList<String> s_allModelIDsFromWholePDBFile = null;
-    static ArrayList<Chain> s_chains = null;
-    static ArrayList<Integer> s_residueIndices = null;
-    static ArrayList<Integer> s_rnaIndices = null;
-    static ArrayList<Integer> s_ligandIndices = null; // a list of all non-ignored ligand indices
-    static Integer ignoredLigands = 0;
-    static ArrayList<Atom> s_atoms = null;
-    static ArrayList<SSE> s_ptglSSEs = null;                // the modified SSE list the PTGL uses
-    static HashMap<String, ArrayList<String>> homologuesMap = null;
-    static List<BindingSite> s_sites;
-    
-    static Integer lastIndexGetRes = 0;  // last index from s_residue where getResidueFromList found target
-    
-    // The list of sulfur bridges (aka disulfide bridges) from the DSSP file. The key is the DSSP sulfur bridge
-    // id (an arbitrary character, starting with 'a' for the first bridge usually). The list in the value part contains
-    // the DSSP residue IDs of all residues which are part of the bridge (and thus should have length 2).
-    static HashMap<Character, ArrayList<Integer>> s_sulfurBridges;
-    
-    // The list of interchain sulfur bridges from the DSSP file. The list structure is the same as for s_sulfurBridges.
-    static HashMap<Character, ArrayList<Integer>> s_interchainSulfurBridges;
-    // This list is needed to track if sulfur bridges span between to independent chains.
-    static HashMap<Character, String> s_interchainSulfurBridgesChainID;
-    
-    protected static Boolean dataInitDone = false;
-
-    static Integer[] resIndexPDB = null;        // for a DSSP res number, holds the index of that residue in s_residues
-    static Integer[] resIndexDSSP = null;       // for a PDB res number, holds the index of that residue in s_residues
-
+    // the state of the current parse is in the ParseContext, see ParseContext.current()
 
       
     /**
@@ -100,35 +69,40 @@ public class FileParser {
      * @param pf PDB file path
      */
     protected static void initVariables(String pf) {
+        ParseContext ctx = ParseContext.current();
         silent = Settings.getBoolean("PTGLgraphComputation_B_silent");
         
-        pdbFile = pf;
+        ctx.pdbFile = pf;
         
-        // read all lines of the files into lists
-        if(! FileParser.silent) {
-            System.out.println("  Reading PDB file...");
-        }
-        pdbLines = new ArrayList<String>();
-        pdbLines = slurpPDBFileToModel(pdbFile, "2");
-        if(! FileParser.silent) {
-            System.out.println("    Read " + pdbLines.size() + " lines of file '" + pdbFile + "'.");
+        // read all lines of the files into lists. The mmCIF parser streams the file itself, see CifTokenizer.
+        ctx.pdbLines = new ArrayList<String>();
+        if( ! settingCif()) {
+            if(! FileParser.silent) {
+                System.out.println("  Reading PDB file...");
+            }
+            ctx.pdbLines = slurpPDBFileToModel(ctx.pdbFile, "2");
+            if(! FileParser.silent) {
+                System.out.println("    Read " + ctx.pdbLines.size() + " lines of file '" + ctx.pdbFile + "'.");
+            }
         }
 
     
-        s_models = new ArrayList<Model>();
-        s_allModelIDsFromWholePDBFile = new ArrayList<String>();
-        s_chains = new ArrayList<Chain>();
-        s_molecules = new ArrayList <Molecule> ();
-        s_residueIndices = new ArrayList<>();
-        s_rnaIndices = new ArrayList<>();
-        s_ligandIndices = new ArrayList<>();
-        s_atoms = new ArrayList<Atom>();
-        s_ptglSSEs = new ArrayList<SSE>();
-        s_sites = new ArrayList<>();
-        s_sulfurBridges = new HashMap<Character, ArrayList<Integer>>();
-        s_interchainSulfurBridges = new HashMap<Character, ArrayList<Integer>>();
-        s_interchainSulfurBridgesChainID = new  HashMap<Character, String>();
-        homologuesMap = new HashMap<>();
+        ctx.s_models = new ArrayList<Model>();
+        ctx.s_allModelIDsFromWholePDBFile = new ArrayList<String>();
+        ctx.s_chains = new ArrayList<Chain>();
+        ctx.s_molecules = new ArrayList <Molecule> ();
+        ctx.residueIndex = new HashMap<>();
+        ctx.numMoleculesIndexed = 0;
+        ctx.s_residueIndices = new ArrayList<>();
+        ctx.s_rnaIndices = new ArrayList<>();
+        ctx.s_ligandIndices = new ArrayList<>();
+        ctx.s_atoms = new ArrayList<Atom>();
+        ctx.s_ptglSSEs = new ArrayList<SSE>();
+        ctx.s_sites = new ArrayList<>();
+        ctx.s_sulfurBridges = new HashMap<Character, ArrayList<Integer>>();
+        ctx.s_interchainSulfurBridges = new HashMap<Character, ArrayList<Integer>>();
+        ctx.s_interchainSulfurBridgesChainID = new  HashMap<Character, String>();
+        ctx.homologuesMap = new HashMap<>();
     }
 
     
@@ -174,7 +148,7 @@ public class FileParser {
 	} catch (IOException e) {
             System.err.println("ERROR: Could not read text file '" + file + "'.");
             e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
 	}
 
         return(lines);
@@ -200,7 +174,7 @@ public class FileParser {
         /*catch (IOException e) {
             System.err.println("ERROR: Could not read text file '" + file + "':" + e.getMessage() + ".");
             //e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
 	}
         */
 
@@ -228,7 +202,7 @@ public class FileParser {
 	} catch (IOException e) {
             System.err.println("ERROR: Could not read text file '" + file + "'.");
             e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
 	}
 
         return(lines);
@@ -263,7 +237,7 @@ public class FileParser {
                         error = true;
                         errMsg = "ERROR: Hit MODEL line at PDB line number " + (numLines + 1) + " but parsing the line failed.";
                         e.printStackTrace();
-                        System.exit(-1);
+                        throw new ExitError(-1);
                     }
 
                     if( mID.equals(stopAtModelID) || endModelAlreadyHit ) {
@@ -295,7 +269,7 @@ public class FileParser {
                 System.err.println("ERROR: Parsing line failed: '" + errMsg + "'.");
             }
             e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
 	}
 
         return(lines);
@@ -303,22 +277,24 @@ public class FileParser {
 
 
     // getters
-    public static ArrayList<Model> getModels() { return(s_models); }
-    public static ArrayList<String> getAllModelIDsFromWholePdbFile() { return(s_allModelIDsFromWholePDBFile); }
-    public static ArrayList<Chain> getChains() { return(s_chains); }
-    public static ArrayList<Molecule>getMolecule(){ return(s_molecules);}
-    public static ArrayList<Integer> getResidueIndices() { return(s_residueIndices); }
-    public static ArrayList<Integer> getRnaIndices() {return (s_rnaIndices);}
-    public static ArrayList<Atom> getAtoms() { return(s_atoms); }
-    public static ArrayList<SSE> getPtglSSEs() { return(s_ptglSSEs); }
+    public static ArrayList<Model> getModels() { return(ParseContext.current().s_models); }
+    public static ArrayList<String> getAllModelIDsFromWholePdbFile() { return(ParseContext.current().s_allModelIDsFromWholePDBFile); }
+    public static ArrayList<Chain> getChains() { return(ParseContext.current().s_chains); }
+    public static ArrayList<Molecule>getMolecule(){ return(ParseContext.current().s_molecules); }
+    public static ArrayList<Integer> getResidueIndices() { return(ParseContext.current().s_residueIndices); }
+    public static ArrayList<Integer> getRnaIndices() { return(ParseContext.current().s_rnaIndices); }
+    public static ArrayList<Atom> getAtoms() { return(ParseContext.current().s_atoms); }
+    public static ArrayList<SSE> getPtglSSEs() { return(ParseContext.current().s_ptglSSEs); }
 
 
     public static HashMap<Character, ArrayList<Integer>> getSulfurBridges() {
-        return s_sulfurBridges;
+        ParseContext ctx = ParseContext.current();
+        return ctx.s_sulfurBridges;
     }
 
     public static HashMap<Character, ArrayList<Integer>> getInterchainSulfurBridges() {
-        return s_interchainSulfurBridges;
+        ParseContext ctx = ParseContext.current();
+        return ctx.s_interchainSulfurBridges;
     }
     
      
@@ -396,7 +372,8 @@ public class FileParser {
      * @return 
      */
     protected static boolean isRNAchain(String chainID) {
-        return (CifParser.chainIdentity.get(chainID).equals("polyribonucleotide"));
+        ParseContext ctx = ParseContext.current();
+        return (ctx.chainIdentity.get(chainID).equals("polyribonucleotide"));
     }
     
 
@@ -425,7 +402,8 @@ public class FileParser {
     
     /**
      * Tries to get the residue with the given PDB residue number, chain ID and insertion code from the internal list of all residues.
-     * Always starts at index of last hit (beginning with 0), i.e. rotates through list.
+     * Uses a hash index of the list, so this takes constant time. Molecules added to the list since the last call are indexed first,
+     * the list must only be appended to during parsing. If several residues have the same PDB fields, the first one is returned.
      * Only residues, no ligands or RNA can be found.
      * @param resNumPDB the PDB residue number
      * @param chainID the chain ID of the residue
@@ -433,38 +411,25 @@ public class FileParser {
      * @return the residue if such a residue exists, null if no such residue exists.
      */
     protected static Residue getResidueFromList(Integer resNumPDB, String chainID, String iCode) {
-       
-        Residue tmp;
-        Residue found = null;
-
-        // iterate up to s_molecules.size() times
-        for(Integer i = 0; i < s_molecules.size(); i++) {
-            
-            // start at last occurence
-            Integer currentIndex = (lastIndexGetRes + i) % s_molecules.size();
-            
-            if (s_molecules.get(currentIndex) instanceof Residue) {
-                tmp = (Residue) s_molecules.get(currentIndex);
-                              
-                if(tmp.getPdbNum().equals(resNumPDB)) {
-
-                    if(tmp.getChainID().equals(chainID)) {
-
-                        if(tmp.getiCode().equals(iCode)) {
-                            found = tmp;
-                            lastIndexGetRes = currentIndex;
-
-                            // break here and return found to increase speed
-                            return(found);
-                        }
-                    }
-                }
+        ParseContext ctx = ParseContext.current();
+        
+        if(resNumPDB == null || chainID == null || iCode == null) {
+            return(null);
+        }
+        
+        if(ctx.numMoleculesIndexed > ctx.s_molecules.size()) {
+            // molecules were removed from the list, start over
+            ctx.residueIndex.clear();
+            ctx.numMoleculesIndexed = 0;
+        }
+        for(; ctx.numMoleculesIndexed < ctx.s_molecules.size(); ctx.numMoleculesIndexed++) {
+            Molecule mol = ctx.s_molecules.get(ctx.numMoleculesIndexed);
+            if (mol instanceof Residue) {
+                ctx.residueIndex.putIfAbsent(new PdbResidueKey(mol.getPdbNum(), mol.getChainID(), mol.getiCode()), (Residue) mol);
             }
         }
-
-        // Not found in the whole list, something went wrong
-        //System.err.println("ERROR: Residue with PDB residue number '" + resNum + "' and chain ID '" + cID + "' and iCode '" + ic + "' does not exist in residue list.");
-        return(found);
+        
+        return(ctx.residueIndex.get(new PdbResidueKey(resNumPDB, chainID, iCode)));
     } 
     
 
@@ -477,11 +442,12 @@ public class FileParser {
      * @return The Residue object if found, null otherwise.
      */
     public static Residue getResByPdbFields(Integer p, String chID, String ic) {
+        ParseContext ctx = ParseContext.current();
         Residue r;
         
-        for(Integer i = 0; i < s_molecules.size(); i++) {
-            if (s_molecules.get(i) instanceof Residue) {
-                r = (Residue) s_molecules.get(i);
+        for(Integer i = 0; i < ctx.s_molecules.size(); i++) {
+            if (ctx.s_molecules.get(i) instanceof Residue) {
+                r = (Residue) ctx.s_molecules.get(i);
                 if((r.getPdbNum()).equals(p)) {
 
                     if((r.getChainID()).equals(chID)) {
@@ -511,12 +477,13 @@ public class FileParser {
 
     // determines whether a model with a certain model ID already exists in s_models
     protected static Boolean modelExistsWithModelID(String mID) {
+        ParseContext ctx = ParseContext.current();
 
         Model m;
 
-        for(Integer i = 0; i < s_models.size(); i++) {
+        for(Integer i = 0; i < ctx.s_models.size(); i++) {
 
-            m = s_models.get(i);
+            m = ctx.s_models.get(i);
 
             if(m.getModelID().equals(mID)) {
                 return(true);
@@ -528,11 +495,12 @@ public class FileParser {
 
 
     public static Chain getChainByPdbChainID(String cID) {
+        ParseContext ctx = ParseContext.current();
         Chain resultChain = null;
         Chain tmpChain = null;
 
-        for(Integer i = 0; i < s_chains.size(); i++) {
-            tmpChain = s_chains.get(i);
+        for(Integer i = 0; i < ctx.s_chains.size(); i++) {
+            tmpChain = ctx.s_chains.get(i);
 
             if(cID.equals(tmpChain.getPdbChainID())) {
                 resultChain = tmpChain;
@@ -543,8 +511,7 @@ public class FileParser {
         if(resultChain == null) {
             DP.getInstance().e("FP", "Could not find Chain '" + cID + "' in s_chains. Maybe using cif-type "
                     + "DSSP file instead of legacy type? Exiting now.");
-            System.exit(1);
-            return(null);   // for the IDE
+            throw new ExitError(1);
         }
 
         return(resultChain);
@@ -552,11 +519,12 @@ public class FileParser {
 
     
     public static Model getModelByModelID(String mID) {
+        ParseContext ctx = ParseContext.current();
         Model resultModel = null;
         Model tmpModel = null;
 
-        for(Integer i = 0; i < s_models.size(); i++) {
-            tmpModel = s_models.get(i);
+        for(Integer i = 0; i < ctx.s_models.size(); i++) {
+            tmpModel = ctx.s_models.get(i);
 
             if(mID.equals(tmpModel.getModelID())) {
                 resultModel = tmpModel;
@@ -566,8 +534,7 @@ public class FileParser {
 
         if(resultModel == null) {
             System.err.println("ERROR: Could not find Model '" + mID + "' in s_models.");
-            System.exit(-1);
-            return(null);   // for the IDE
+            throw new ExitError(-1);
         }
 
         return(resultModel);
@@ -607,12 +574,13 @@ public class FileParser {
         }
     }
     
-    public static void compareResContactsWithPdbidDotGeoFile(String compareResContactsFile, boolean b, ArrayList<MolContactInfo> cInfo) {
+    public static void compareResContactsWithPdbidDotGeoFile(String compareResContactsFile, boolean b, List<MolContactInfo> cInfo) {
         LegacyParser.compareResContactsWithPdbidDotGeoFile(compareResContactsFile, b, cInfo);
     }
     
     public static void compareSSEContactsWithGeoDatFile(String get, ProtGraph pg) {
-        LegacyParser.compareSSEContactsWithGeoDatFile(pdbFile, pg);
+        ParseContext ctx = ParseContext.current();
+        LegacyParser.compareSSEContactsWithGeoDatFile(ctx.pdbFile, pg);
     }
     
     
@@ -621,6 +589,7 @@ public class FileParser {
      * @param ChainIDs
      */
     protected static void fillHomologuesMapFromChainIdList(String[] ChainIDs) {
+        ParseContext ctx = ParseContext.current();
         for (String chain : ChainIDs) {
             ArrayList<String> homologueChains = new ArrayList<>();
             for (String hChain : ChainIDs) {
@@ -628,16 +597,17 @@ public class FileParser {
                     homologueChains.add(hChain);
                 }
             }
-            homologuesMap.put(chain, homologueChains);
+            ctx.homologuesMap.put(chain, homologueChains);
         }
     }
     
     
     public static HashMap<String, String> getMetaData() {
+        ParseContext ctx = ParseContext.current();
         if (settingCif()) {
             // meta Data in CIF files is created while parsing the file once
             //     -> no need to call a function to create it, just get it!
-            return CifParser.metaData;
+            return ctx.metaData;
         } else {
             return LegacyParser.getPDBMetaData();
         }
@@ -33,6 +33,7 @@ import proteinstructure.Residue;
 import proteinstructure.Ligand;
 import resultcontainers.ProteinResults;
 import tools.DP;
+import tools.ExitError;
 
 
 /**
@@ -44,18 +45,10 @@ class LegacyParser {
     static Integer maxResidues = 11000;  // could be useless, but was included in pre-dissolved file parser
     static String firstModelName = "1";  // the model ID that identifies the first model in a PDB file
     static String defaultModelName = firstModelName;
-    static boolean dataInitDone;
     static boolean silent;
     static boolean essentialOutputOnly;
     
-    static Integer curLineNumPDB = null;
-    static String curLinePDB = null;
-    static String curModelID = null;
-    static String oldModelID = null;
-    static String curChainID = null;
-    static String oldChainID = null;
-    static Integer curResNumPDB = null;
-    static Residue curRes = null;
+    // the state of the current parse is in the ParseContext, see ParseContext.current()
     
     
     /**
@@ -63,24 +56,24 @@ class LegacyParser {
      * @param pf Path to a PBD file. Does NOT test whether it exist, do that earlier.
      */
     protected static Boolean initData(String pf) {
+        ParseContext ctx = ParseContext.current();
         
         silent = FileParser.settingSilent();
         essentialOutputOnly = FileParser.essentialOutputOnly;
 
         // resIndexPDB = new Integer[maxResidues];      // Removed because some PDB files have negative residue numbers, they break this. :/ So we
         //                                              //  have to go through the whole list (which is slow and stupid, bah).
-        FileParser.resIndexDSSP = new Integer[maxResidues];
+        ctx.resIndexDSSP = new Integer[maxResidues];
 
         
         if(parseData()) {
-            dataInitDone = true;
+            ctx.legacyDataInitDone = true;
             return(true);
         }
         else {
             System.err.println("ERROR: Could not parse dssp and pdb data.");
-            dataInitDone = false;
-            System.exit(1);
-            return(false);          // for the IDE ;)
+            ctx.legacyDataInitDone = false;
+            throw new ExitError(1);
         }
     }
     
@@ -90,18 +83,19 @@ class LegacyParser {
      * @return ignore
      */
     private static Boolean parseData() {
+        ParseContext ctx = ParseContext.current();
 
         if(! silent) {
             System.out.println("  Parsing pdb and dssp file lines...");
         }
 
         // init class vars
-        curLineNumPDB = 0;
-        curLinePDB = "";
-        curModelID = defaultModelName; 
-        curChainID = " ";
-        oldChainID = " ";
-        oldModelID = "";
+        ctx.curLineNumPDB = 0;
+        ctx.curLinePDB = "";
+        ctx.curModelID = defaultModelName; 
+        ctx.curChainID = " ";
+        ctx.oldChainID = " ";
+        ctx.oldModelID = "";
 
         if(! silent) {
             System.out.println("  Scanning whole PDB file for models...");
@@ -114,9 +108,9 @@ class LegacyParser {
         }
         createAllModelsFromHandledPdbLines();   // fills s_models
 
-        if(FileParser.s_models.size() > 1) {
-            System.out.println("ERROR: Found > 1 model (" + FileParser.s_models.size() + " to be precise) models in the parsed PDB file lines, something went wrong. Exiting.");
-            System.exit(1);
+        if(ctx.s_models.size() > 1) {
+            System.out.println("ERROR: Found > 1 model (" + ctx.s_models.size() + " to be precise) models in the parsed PDB file lines, something went wrong. Exiting.");
+            throw new ExitError(1);
         }
         
         if(! silent) {
@@ -135,10 +129,10 @@ class LegacyParser {
             }
                 createAllBindingSitesFromPdbData(); // fills s_bindingsites
             if(! (silent || essentialOutputOnly)) {
-                for(BindingSite s : FileParser.s_sites) {
+                for(BindingSite s : ctx.s_sites) {
                     System.out.println("    PDB: " + s.toString());
                 }
-                System.out.println("    Found " + FileParser.s_sites.size() + " binding sites.");
+                System.out.println("    Found " + ctx.s_sites.size() + " binding sites.");
             }
         }
         
@@ -151,9 +145,9 @@ class LegacyParser {
 
         // If there is no data part at all in the DSSP file, the function readDsspToData() will catch
         //  this error and exit, this code will never be reached in that case.
-        if(FileParser.s_molecules.size() < 1) {
+        if(ctx.s_molecules.size() < 1) {
             System.err.println("ERROR: DSSP file contains no residues (maybe the PDB file only holds DNA/RNA data). Exiting.");
-            System.exit(2);
+            throw new ExitError(2);
         }
         if(! silent) {
             System.out.println("  Creating all Ligand Residues...");
@@ -183,26 +177,26 @@ class LegacyParser {
         Boolean ignoreRestOfFile = false;
        
         // parse all PDB lines based on format definitions at http://deposit.rcsb.org/adit/docs/pdb_atom_format.html
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
 
-            curLineNumPDB = i + 1;
-            curLinePDB = FileParser.pdbLines.get(i);
+            ctx.curLineNumPDB = i + 1;
+            ctx.curLinePDB = ctx.pdbLines.get(i);
 
             //System.out.println("  PDB line " + currentLineNumPDB + ": " + currentLinePDB + "");
 
 
             // handle MODEL lines
-            if(curLinePDB.startsWith("MODEL ")) {
+            if(ctx.curLinePDB.startsWith("MODEL ")) {
                 handlePdbLineMODEL();
             }
 
             // handle any ATOM lines (ATOM, HETATM)
-            else if(curLinePDB.startsWith("ATOM  ") || curLinePDB.startsWith("HETATM")) {
+            else if(ctx.curLinePDB.startsWith("ATOM  ") || ctx.curLinePDB.startsWith("HETATM")) {
                 handlePdbLineANYATOM();
             }
 
             //  handle TER lines
-            else if(curLinePDB.startsWith("TER   ")) {
+            else if(ctx.curLinePDB.startsWith("TER   ")) {
                 handlePdbLineTER();
             }
 
@@ -214,7 +208,7 @@ class LegacyParser {
         }
 
         if(! (silent || essentialOutputOnly)) {
-            System.out.println("    PDB: Hit end of PDB file at line " + curLineNumPDB + ".");
+            System.out.println("    PDB: Hit end of PDB file at line " + ctx.curLineNumPDB + ".");
 
             // remove duplicate atoms from altLoc here
             System.out.println("    PDB: Selecting alternative locations for atoms of all residues.");
@@ -223,9 +217,9 @@ class LegacyParser {
         int numAtomsDeletedAltLoc = 0;
         int numResiduesAffected = 0;
         Residue r;
-        for(int i = 0; i < FileParser.s_molecules.size(); i++) {
-            if (FileParser.s_molecules.get(i) instanceof Residue) {
-                r = (Residue) FileParser.s_molecules.get(i);
+        for(int i = 0; i < ctx.s_molecules.size(); i++) {
+            if (ctx.s_molecules.get(i) instanceof Residue) {
+                r = (Residue) ctx.s_molecules.get(i);
                 deletedAtoms = r.chooseYourAltLoc();
 
                 if(deletedAtoms.size() > 0) {
@@ -234,7 +228,7 @@ class LegacyParser {
 
                 //delete atoms from global atom list as well
                 for(Atom a : deletedAtoms) {
-                    if(FileParser.s_atoms.remove(a)) {
+                    if(ctx.s_atoms.remove(a)) {
                         numAtomsDeletedAltLoc++;
                     } else {
                         DP.getInstance().w("Atom requested to be removed from global list does not exist in there.");
@@ -248,7 +242,7 @@ class LegacyParser {
             Integer siteResPdbResNum; String siteResChainID; String siteResName;
             int numResAssigned = 0;
             int numWaterResIgnored = 0;
-            for(BindingSite s : FileParser.s_sites) {
+            for(BindingSite s : ctx.s_sites) {
                 List<String[]> siteResidueInfos = s.getResidueInfos();
                 // try-catch for coping with the Int/Str-ParseError if insertion codes
                 //    are used in the SITE fields
@@ -289,10 +283,10 @@ class LegacyParser {
             System.out.println("    PDB: Deleted " + numAtomsDeletedAltLoc + " duplicate atoms from " + numResiduesAffected + " residues which had several alternative locations.");
 
             // report statistics
-            System.out.println("  All data parsed. Found " + FileParser.s_models.size() + " models, " +
-                                                           FileParser.s_chains.size() + " chains, " +
-                                                           FileParser.s_molecules.size() + " molecules, " +
-                                                           FileParser.s_atoms.size() + " atoms.");
+            System.out.println("  All data parsed. Found " + ctx.s_models.size() + " models, " +
+                                                           ctx.s_chains.size() + " chains, " +
+                                                           ctx.s_molecules.size() + " molecules, " +
+                                                           ctx.s_atoms.size() + " atoms.");
         }
 
         return(true);
@@ -304,6 +298,7 @@ class LegacyParser {
      * @return ignored
      */
     private static boolean handlePdbLineMODEL() {
+        ParseContext ctx = ParseContext.current();
         // Now handled by function createAllModelsFromPdbData() because the models have to exist
         //  before we create the other stuff (atoms, residues, etc.) so we can assign the models to them.
         // This function still updates the global 'curModelID' variable that's used by other functions (the one that
@@ -311,14 +306,14 @@ class LegacyParser {
         String mID = "";
 
         try {
-            mID = (curLinePDB.substring(10, 16)).trim();
+            mID = (ctx.curLinePDB.substring(10, 16)).trim();
         } catch(Exception e) {
-            System.err.println("ERROR: Hit MODEL line at PDB line number " + curLinePDB + " but parsing the line failed.");
+            System.err.println("ERROR: Hit MODEL line at PDB line number " + ctx.curLinePDB + " but parsing the line failed.");
             e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
         }
 
-        curModelID = mID;
+        ctx.curModelID = mID;
         return(true);
     }
 
@@ -328,6 +323,7 @@ class LegacyParser {
      * @return true if the line could be parsed, false otherwise
      */
      private static boolean handlePdbLineANYATOM() {
+        ParseContext ctx = ParseContext.current();
         
 
         Integer atomSerialNumber, resNumPDB, resNumDSSP, rnaNumPDB;
@@ -341,25 +337,25 @@ class LegacyParser {
         oCoordXf = oCoordYf = oCoordZf = 0.0f;
 
         try {
-            atomRecordName = curLinePDB.substring(0, 6).trim();
-            atomSerialNumber = Integer.valueOf((curLinePDB.substring(6, 11)).trim());
+            atomRecordName = ctx.curLinePDB.substring(0, 6).trim();
+            atomSerialNumber = Integer.valueOf((ctx.curLinePDB.substring(6, 11)).trim());
             // 11 is ignored: blank
-            atomName = curLinePDB.substring(12, 16);
-            altLoc = curLinePDB.substring(16, 17);
-            resNamePDB = curLinePDB.substring(17, 20);
+            atomName = ctx.curLinePDB.substring(12, 16);
+            altLoc = ctx.curLinePDB.substring(16, 17);
+            resNamePDB = ctx.curLinePDB.substring(17, 20);
             // 20 is ignored: blank
-            chainID = curLinePDB.substring(21, 22);
-            resNumPDB = Integer.valueOf((curLinePDB.substring(22, 26)).trim());
-            iCode = curLinePDB.substring(26, 27);       // don't trim this!
+            chainID = ctx.curLinePDB.substring(21, 22);
+            resNumPDB = Integer.valueOf((ctx.curLinePDB.substring(22, 26)).trim());
+            iCode = ctx.curLinePDB.substring(26, 27);       // don't trim this!
             // 27 - 29 are ignored: blanks
             
             
   
             if(Settings.getBoolean("PTGLgraphComputation_B_round_coordinates")) {
             // PTGLgraphComputation style: round the coordinates
-                oCoordXf = Float.valueOf((curLinePDB.substring(30, 38)).trim()) * 10;
-                oCoordYf = Float.valueOf((curLinePDB.substring(38, 46)).trim()) * 10;
-                oCoordZf = Float.valueOf((curLinePDB.substring(46, 54)).trim()) * 10;
+                oCoordXf = Float.valueOf((ctx.curLinePDB.substring(30, 38)).trim()) * 10;
+                oCoordYf = Float.valueOf((ctx.curLinePDB.substring(38, 46)).trim()) * 10;
+                oCoordZf = Float.valueOf((ctx.curLinePDB.substring(46, 54)).trim()) * 10;
                 coordX = Integer.valueOf(Math.round(oCoordXf));
                 coordY = Integer.valueOf(Math.round(oCoordYf));
                 coordZ = Integer.valueOf(Math.round(oCoordZf));
@@ -370,9 +366,9 @@ class LegacyParser {
             }
             else {
                 // PTGL style: always round them down, i.e., simply ignore the last 2 digits
-                oCoordX = Double.valueOf((curLinePDB.substring(30, 38)).trim()) * 10.0;
-                oCoordY = Double.valueOf((curLinePDB.substring(38, 46)).trim()) * 10.0;
-                oCoordZ = Double.valueOf((curLinePDB.substring(46, 54)).trim()) * 10.0;
+                oCoordX = Double.valueOf((ctx.curLinePDB.substring(30, 38)).trim()) * 10.0;
+                oCoordY = Double.valueOf((ctx.curLinePDB.substring(38, 46)).trim()) * 10.0;
+                oCoordZ = Double.valueOf((ctx.curLinePDB.substring(46, 54)).trim()) * 10.0;
                 
                 // now, an example PDB file value of "8.796" was transformed into -87.96f                
                 
@@ -388,7 +384,7 @@ class LegacyParser {
             // 60 - 65 are ignored: temp factor
             // 66 - 72 are ignored: blanks
             // 72 - 75 are ignored: segment identifier
-            chemSym = curLinePDB.substring(76, 78);
+            chemSym = ctx.curLinePDB.substring(76, 78);
             
             //if(chemSym.trim().equals("H")) {
             //    System.out.println("Found hydrogen line '" + curLinePDB + "'.");
@@ -396,7 +392,7 @@ class LegacyParser {
 
             // 78 - 79 are ignored: atom charge
         } catch(Exception e) {
-            System.err.println("ERROR: Hit ATOM/HETATM line at PDB line number " + curLineNumPDB + " but parsing the line failed (length " + curLinePDB.length() + "): '" + e.getMessage() + "'.");
+            System.err.println("ERROR: Hit ATOM/HETATM line at PDB line number " + ctx.curLineNumPDB + " but parsing the line failed (length " + ctx.curLinePDB.length() + "): '" + e.getMessage() + "'.");
             return false;
             //System.exit(1);
         }
@@ -442,7 +438,7 @@ class LegacyParser {
 
             if(FileParser.isIgnoredLigRes(resNamePDB)) {
                 a.setAtomtype(Atom.ATOMTYPE_IGNORED_LIGAND);       // invalid ligand (ignored)
-                FileParser.ignoredLigands += 1;
+                ctx.ignoredLigands += 1;
 
                 // We do not need these atoms and they may lead to trouble later on, so
                 //  just return without adding the new Atom to any Residue here so this line
@@ -473,9 +469,9 @@ class LegacyParser {
         a.setCoordZ(coordZ);
         a.setChemSym(chemSym);
 
-        if(curModelID != null) {
-            a.setModelID(curModelID);
-            a.setModel(FileParser.getModelByModelID(curModelID));
+        if(ctx.curModelID != null) {
+            a.setModelID(ctx.curModelID);
+            a.setModel(FileParser.getModelByModelID(ctx.curModelID));
         }
         
         if(tmpRes == null) {
@@ -488,7 +484,7 @@ class LegacyParser {
             }
             else {
                 tmpRes.addAtom(a);
-                FileParser.s_atoms.add(a);
+                ctx.s_atoms.add(a);
             }
         }
 
@@ -501,6 +497,7 @@ class LegacyParser {
     * @return true
     */
     private static boolean handlePdbLineTER() {
+        ParseContext ctx = ParseContext.current();
 
         
         Integer cTerminusResNumPDB = -1;
@@ -511,28 +508,28 @@ class LegacyParser {
             
             // Ugly hack for the non-standard PDB files produced by the 'reduce' hydrogen program follows.
             // Reduce rewrites the PDB file and does NOT fill the empty lines with spaces, so we need to cope with shorter line lengths here.
-            if(curLinePDB.length() < 27) {
-                cID = curLinePDB.substring(21, 22);
-                cTerminusResNumPDB = Integer.valueOf((FileParser.getLineContentsToEndFrom(22, curLinePDB).trim()));                                        
+            if(ctx.curLinePDB.length() < 27) {
+                cID = ctx.curLinePDB.substring(21, 22);
+                cTerminusResNumPDB = Integer.valueOf((FileParser.getLineContentsToEndFrom(22, ctx.curLinePDB).trim()));                                        
                 iCode = ""; // icode parsing is not supported with reduce-made PDB files, I'm not sure what they do with it and how we should discriminate it from the last digit of the residue number
-                DP.getInstance().w("Main", " Non-standard PDB 'TER' line of length " + curLinePDB.length() + " encountered. Parsing of iCode not supported for these lines. Assuming terminating residue number '" + cTerminusResNumPDB + "' and empty iCode for chain '" + cID + "'.");
+                DP.getInstance().w("Main", " Non-standard PDB 'TER' line of length " + ctx.curLinePDB.length() + " encountered. Parsing of iCode not supported for these lines. Assuming terminating residue number '" + cTerminusResNumPDB + "' and empty iCode for chain '" + cID + "'.");
             }
             else {
                 // this is the method for standard PDB files
-                cTerminusResNumPDB = Integer.valueOf((curLinePDB.substring(22, 26)).trim());
-                cID = curLinePDB.substring(21, 22);                        
-                iCode = curLinePDB.substring(26, 27);
+                cTerminusResNumPDB = Integer.valueOf((ctx.curLinePDB.substring(22, 26)).trim());
+                cID = ctx.curLinePDB.substring(21, 22);                        
+                iCode = ctx.curLinePDB.substring(26, 27);
             }
             
         } catch (Exception e) {
-            System.err.println("WARNING: Hit TER line at PDB line number " + curLineNumPDB + " but parsing the line failed: '" + e.getMessage() + "', ignoring.");
+            System.err.println("WARNING: Hit TER line at PDB line number " + ctx.curLineNumPDB + " but parsing the line failed: '" + e.getMessage() + "', ignoring.");
             //e.printStackTrace();
             //System.exit(1);
         }
         
 
         if(! (silent || essentialOutputOnly)) {
-            System.out.println("    PDB: Found C Terminus of chain " + cID + " at PDB line " + curLineNumPDB + ", PDB residue number " + cTerminusResNumPDB + " iCode '" + iCode + "'.");
+            System.out.println("    PDB: Found C Terminus of chain " + cID + " at PDB line " + ctx.curLineNumPDB + ", PDB residue number " + cTerminusResNumPDB + " iCode '" + iCode + "'.");
         }
         //TODO: mark the proper residue as C terminus
 
@@ -551,6 +548,7 @@ class LegacyParser {
     
     
     private static void createAllModelsFromHandledPdbLines() {
+        ParseContext ctx = ParseContext.current();
 
         Integer pLineNum = 0;
         String mID = "";
@@ -558,12 +556,12 @@ class LegacyParser {
         String pLine = "";
 
         // create default model
-        FileParser.s_models.add(new Model(defaultModelName));
+        ctx.s_models.add(new Model(defaultModelName));
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
 
             pLineNum = i + 1;
-            pLine = FileParser.pdbLines.get(i);
+            pLine = ctx.pdbLines.get(i);
 
             if(pLine.startsWith("MODEL ")) {
 
@@ -572,7 +570,7 @@ class LegacyParser {
                 } catch(Exception e) {
                     System.err.println("ERROR: Hit MODEL line at PDB line number " + pLineNum + " but parsing the line failed.");
                     e.printStackTrace();
-                    System.exit(-1);
+                    throw new ExitError(-1);
                 }
 
                 // Model found
@@ -581,23 +579,23 @@ class LegacyParser {
                     if(! (silent || essentialOutputOnly)) {
                         System.out.println("    PDB: New PDB Model (model ID '" + mID + "') starts at PDB line " + pLineNum + ".");
                     }
-                    FileParser.s_models.add(m);
+                    ctx.s_models.add(m);
                 }
             }
 
         }
 
         // create the default model if this is a non-NMR file (crystal data) that contains no models
-        if(FileParser.s_models.size() < 1) {
+        if(ctx.s_models.size() < 1) {
             if(! (silent || essentialOutputOnly)) {
                 System.out.println("    PDB: No models found in handled PDB lines. This most likely is a crystal data (non-NMR) file. Adding default model '" + defaultModelName + "'.");
             }
-            FileParser.s_models.add(new Model(defaultModelName));
+            ctx.s_models.add(new Model(defaultModelName));
             
         }
 
         if(! (silent || essentialOutputOnly)) {
-            System.out.println("    PDB: Handled PDB lines contain data from " + FileParser.s_models.size() + " model(s).");
+            System.out.println("    PDB: Handled PDB lines contain data from " + ctx.s_models.size() + " model(s).");
         }
 
     }
@@ -606,15 +604,16 @@ class LegacyParser {
     // Counts all models. Not really needed for the program itself since it only uses the first model, no matter how
     // many others follow.
     private static void createAllModelIDsFromWholePdbFile() {
+        ParseContext ctx = ParseContext.current();
 
-        ArrayList<String> allPDBLines = FileParser.slurpFile(FileParser.pdbFile);
+        ArrayList<String> allPDBLines = FileParser.slurpFile(ctx.pdbFile);
         Integer pLineNum = 0;
         String mID = "";
         String pLine = "";
         Integer numModels = 0;
 
         if(! silent) {
-            System.out.println("  Counting total number of models in the whole PDB file '" + FileParser.pdbFile + "' (" + allPDBLines.size() + " lines)...");
+            System.out.println("  Counting total number of models in the whole PDB file '" + ctx.pdbFile + "' (" + allPDBLines.size() + " lines)...");
         }
 
         for(Integer i = 0; i < allPDBLines.size(); i++) {
@@ -629,13 +628,13 @@ class LegacyParser {
                 } catch(Exception e) {
                     System.err.println("ERROR: Hit MODEL line at PDB line number " + pLineNum + " but parsing the line failed.");
                     e.printStackTrace();
-                    System.exit(-1);
+                    throw new ExitError(-1);
                 }
 
                 // Model found
                 //System.out.println("    PDB: New PDB Model (model ID '" + mID + "') starts at PDB line " + pLineNum + ".");
                 numModels++;
-                FileParser.s_allModelIDsFromWholePDBFile.add(mID);
+                ctx.s_allModelIDsFromWholePDBFile.add(mID);
             }
 
         }
@@ -668,6 +667,7 @@ class LegacyParser {
     
     
     private static void setHomologuesOfChains() {
+        ParseContext ctx = ParseContext.current();
 
         Integer pLineNum = 0;
         String pLine = "";
@@ -675,10 +675,10 @@ class LegacyParser {
         String[] curChains;
         Boolean nextLineContinuesChainList = false;
           
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
           
             pLineNum = i + 1;
-            pLine = FileParser.pdbLines.get(i);
+            pLine = ctx.pdbLines.get(i);
 
                 
             if (pLine.startsWith("COMPND  ")) {
@@ -717,6 +717,7 @@ class LegacyParser {
      * Parses binding site data from the PDB data.
      */
     private static void createAllBindingSitesFromPdbData() {
+        ParseContext ctx = ParseContext.current();
         Integer pLineNum = 0;
         String pLine = "";
         Boolean haveBeenInSiteSectionAlready = Boolean.FALSE;
@@ -738,10 +739,10 @@ class LegacyParser {
         String siteDescription;            
         Map<String, BindingSite> sites = new HashMap<>();
             
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
 
             pLineNum = i + 1;
-            pLine = FileParser.pdbLines.get(i);
+            pLine = ctx.pdbLines.get(i);
                         
             if(pLine.startsWith("REMARK 800")) {                
                 int lineLength = pLine.length();
@@ -783,7 +784,7 @@ class LegacyParser {
                     lastModelID = modelID;
                 } catch(Exception e) {
                     DP.getInstance().e("FileParser", " Hit broken MODEL line at PDB line number " + pLineNum + " while looking for SITEs.");
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
             }
             
@@ -828,7 +829,7 @@ class LegacyParser {
         }
 
         for(String key : sites.keySet()) {
-            FileParser.s_sites.add(sites.get(key));
+            ctx.s_sites.add(sites.get(key));
         }
         
     }
@@ -897,6 +898,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
     }
 
     private static void createAllChainsFromPdbData() {
+        ParseContext ctx = ParseContext.current();
 
         Integer pLineNum = 0;
         String cID = "";
@@ -905,10 +907,10 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
         Boolean cAlreadyExists;
         String modelID = null;
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
 
             pLineNum = i + 1;
-            pLine = FileParser.pdbLines.get(i);
+            pLine = ctx.pdbLines.get(i);
             cAlreadyExists = false;
 
             // keep track of current model
@@ -918,7 +920,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                 } catch(Exception e) {
                     System.err.println("ERROR: Hit broken MODEL line at PDB line number " + pLineNum + " while looking for Chains.");
                     e.printStackTrace();
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
             }
 
@@ -930,7 +932,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                 } catch(Exception e) {
                     System.err.println("ERROR: Could not parse Chain ID colum of PDB line " + pLineNum + ".");
                     e.printStackTrace();
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
 
                 if(cID.equals(" ")) {
@@ -939,8 +941,8 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                 }
 
                 // Chain found, add it if it is a new one
-                for(Integer j = 0; j < FileParser.s_chains.size(); j++) {      // s_chains is small so this should be ok
-                    d = FileParser.s_chains.get(j);
+                for(Integer j = 0; j < ctx.s_chains.size(); j++) {      // s_chains is small so this should be ok
+                    d = ctx.s_chains.get(j);
                     if(d.getPdbChainID().equals(cID)) {
                         cAlreadyExists = true;
                         break;
@@ -955,9 +957,9 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                         c.setModelID(modelID);       // left at null otherwise, which is fine
                     }
                     
-                    c.setHomologues(FileParser.homologuesMap.get(cID));
+                    c.setHomologues(ctx.homologuesMap.get(cID));
 
-                    FileParser.s_chains.add(c);
+                    ctx.s_chains.add(c);
 
                     if(! (silent || essentialOutputOnly)) {
                         System.out.println("    PDB: New PDB Chain (chain ID '" + cID + "') starts at PDB line " + pLineNum + ".");
@@ -968,7 +970,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
         }
 
         if(! silent) {
-            System.out.println("    PDB: Scanned PDB file for Chains, found " + FileParser.s_chains.size() + ".");
+            System.out.println("    PDB: Scanned PDB file for Chains, found " + ctx.s_chains.size() + ".");
         }
 
     }
@@ -978,6 +980,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
      * Parses the PDB data and creates the ligand list from it.
      */
     private static Integer createAllLigandResiduesFromPdbData() {
+        ParseContext ctx = ParseContext.current();
 
         Integer curLigNum = 0;
 
@@ -995,9 +998,9 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
         Integer pLineNum = 0;
         String pLine = "";
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
 
-            pLine = FileParser.pdbLines.get(i);
+            pLine = ctx.pdbLines.get(i);
             pLineNum = i + 1;
 
             // keep track of current model
@@ -1007,7 +1010,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                 } catch(Exception e) {
                     System.err.println("ERROR: Hit broken MODEL line at PDB line number " + pLineNum + " while looking for Chains.");
                     e.printStackTrace();
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
             }
 
@@ -1030,7 +1033,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                     System.err.println("ERROR: Hit HETATM line at PDB line number " + pLineNum + " but parsing the line failed (length " + pLine.length() + ").");
                     System.err.println("ERROR: (continued) Message was '" + e.getMessage() + "'.");
                     //e.printStackTrace();
-                    System.exit(1);
+                    throw new ExitError(1);
                     //continue;
                 }
                 
@@ -1103,12 +1106,12 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
                         //      Problem atm is that the mol weight is not in the PDB file. Idea: count the atoms
                         //      instead, use a range over number of atoms.
                         
-                        FileParser.s_molecules.add(lig);
+                        ctx.s_molecules.add(lig);
                         
                         FileParser.getChainByPdbChainID(chainID).addMolecule(lig);
 
-                        resIndex = FileParser.s_molecules.size() - 1;
-                        FileParser.resIndexDSSP[resNumDSSP] = resIndex;
+                        resIndex = ctx.s_molecules.size() - 1;
+                        ctx.resIndexDSSP[resNumDSSP] = resIndex;
                         //resIndexPDB[resNumPDB] = resIndex;      // This will crash because some PDB files contain negative residue numbers so fuck it.
                         if(! (silent || essentialOutputOnly)) {
                             System.out.println("    PDB: Added ligand '" +  resNamePDB + "-" + resNumPDB + "', chain " + chainID + " (line " + pLineNum + ", ligand #" + curLigNum + ", DSSP #" + resNumDSSP + ").");
@@ -1132,12 +1135,13 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
     
     // parses the lines of a PDB file to find the formula of a hetero residue in the FORMUL records
     protected static String getLigFormula(String ligName3) {
+        ParseContext ctx = ParseContext.current();
         String hetID, continuation, asterisk, formula, line;
         hetID = continuation = asterisk = formula = line = "";
         Integer compNum = 0;
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
-            line = FileParser.pdbLines.get(i);
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
+            line = ctx.pdbLines.get(i);
 
             if(line.startsWith("FORMUL")) {
 
@@ -1187,11 +1191,12 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
 
     // parses the lines of a PDB file to find the chemical name of a hetero residue in the HETNAM records
     protected static String getLigName(String ligName3) {
+        ParseContext ctx = ParseContext.current();
         String hetID, continuation, name, line;
         hetID = continuation = name = line = "";
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
-            line = FileParser.pdbLines.get(i);
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
+            line = ctx.pdbLines.get(i);
 
             if(line.startsWith("HETNAM")) {
 
@@ -1244,11 +1249,12 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
 
     // parses the lines of a PDB file to find the synonyms for a hetero residue in the HETSYN records
     protected static String getLigSynonyms(String ligName3) {
+        ParseContext ctx = ParseContext.current();
         String hetID, continuation, synonyms, line;
         hetID = continuation = synonyms = line = "";
 
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
-            line = FileParser.pdbLines.get(i);
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
+            line = ctx.pdbLines.get(i);
 
             if(line.startsWith("HETSYN")) {
 
@@ -1289,13 +1295,14 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
      * @return  the PMI
      */
     protected static ProtMetaInfo getMetaInfo(String pdbid, String chainid) {
+        ParseContext ctx = ParseContext.current();
 
         ProtMetaInfo pmi = new ProtMetaInfo(pdbid, chainid);
-        String mol_id = pmi.setYourMolID(FileParser.pdbLines);
+        String mol_id = pmi.setYourMolID(ctx.pdbLines);
 
         if(pmi.isReady()) {
             //System.out.println("    Extracted MOL_ID '" + mol_id + "' for chain '" + chainid + "' from PDB header.");
-            if(pmi.parseAllMetaData(FileParser.pdbLines)) {
+            if(pmi.parseAllMetaData(ctx.pdbLines)) {
                 //if(! silent) {
                 //    System.out.println("    Retrieved all meta data for chain '" + chainid + "' from PDB header.");
                 //}
@@ -1316,6 +1323,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
      * Strings are set: 'resolution' (which may be cast to Double), 'experiment', 'keywords', 'header', 'title', 'isLarge' as false.
      */
     protected static HashMap<String, String> getPDBMetaData() {
+        ParseContext ctx = ParseContext.current();
 
         HashMap<String, String> md = new HashMap<String, String>();
         Double resolution = -1.0;
@@ -1326,8 +1334,8 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
         String date = "NA";
 
         String line;
-        for(Integer i = 0; i < FileParser.pdbLines.size(); i++) {
-            line = FileParser.pdbLines.get(i);
+        for(Integer i = 0; i < ctx.pdbLines.size(); i++) {
+            line = ctx.pdbLines.get(i);
             
             if(line.startsWith("EXPDTA")) {
                 // line looks like this: 'EXPDTA    SOLUTION NMR'
@@ -1715,7 +1723,8 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
      * @param ourContacts an ArrayList containing the contact data computed by this application
      * 
      */
-    protected static void compareResContactsWithPdbidDotGeoFile(String filePath, Boolean isGeoLig, ArrayList<MolContactInfo> ourContacts) {
+    protected static void compareResContactsWithPdbidDotGeoFile(String filePath, Boolean isGeoLig, List<MolContactInfo> ourContacts) {
+        ParseContext ctx = ParseContext.current();
         
         Integer radDif1, radDif2, maxRadDif, distDif, maxDistDif, sumDif, sumDifAbs, common;  // difference logging
         
@@ -1727,7 +1736,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
             
             // not implemented yet
             System.err.println("ERROR: getResContactInfoFromGeoFile(): Ligand data parsing not implemented yet.");
-            System.exit(1);
+            throw new ExitError(1);
         }
                
         ArrayList<String> lines = FileParser.slurpFile(filePath);        
@@ -1756,7 +1765,7 @@ SITE     4 AC1 15 HOH A 621  HOH A 622  HOH A 623
         radDif1 = radDif2 = maxRadDif = distDif = maxDistDif = sumDif = sumDifAbs = common = 0;
         
         // stuff for comparing the other way around
-        Integer numRes = FileParser.s_molecules.size();
+        Integer numRes = ctx.s_molecules.size();
         System.out.println("Assuming that " + numRes + " residues exist, preparing matrix.");
         Integer numResDSSP = numRes + 1;       // since DSSP residue numbers start with 1, not 0
         Integer [][] geom_neo_contact_exists = new Integer[numResDSSP][numResDSSP];
@@ -0,0 +1,188 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import proteinstructure.Atom;
+import proteinstructure.BindingSite;
+import proteinstructure.Chain;
+import proteinstructure.Ligand;
+import proteinstructure.Model;
+import proteinstructure.Molecule;
+import proteinstructure.ProtMetaInfo;
+import proteinstructure.RNA;
+import proteinstructure.Residue;
+import proteinstructure.SSE;
+
+/**
+ * The state of parsing one structure, i.e., a PDB or mmCIF file and its DSSP file, used by FileParser, DsspParser, CifParser and LegacyParser.
+ *
+ * The static methods of the parsers work on the context of the current thread, see current(). By default, this is a single context
+ * which is shared by all threads, so the static API behaves like it always did. A StructureParser binds its own context to the thread
+ * while it parses or runs code, see StructureParser.run(), so several structures can be parsed concurrently in different threads. Threads
+ * started meanwhile are not bound to it.
+ */
+public class ParseContext {
+
+    /** The context used by threads which have no own context bound. */
+    private static final ParseContext defaultContext = new ParseContext();
+
+    /** The context bound to the current thread, if any. */
+    private static final ThreadLocal<ParseContext> boundContext = new ThreadLocal<>();
+
+    // ------------------------------ FileParser: the parsed structure ------------------------------
+    String pdbFile = null;
+    ArrayList<String> pdbLines = null;
+    ArrayList<Molecule> s_molecules = null;
+    ArrayList<Model> s_models = null;
+    ArrayList<String> s_allModelIDsFromWholePDBFile = null;
+    ArrayList<Chain> s_chains = null;
+    ArrayList<Integer> s_residueIndices = null;
+    ArrayList<Integer> s_rnaIndices = null;
+    ArrayList<Integer> s_ligandIndices = null; // a list of all non-ignored ligand indices
+    Integer ignoredLigands = 0;
+    ArrayList<Atom> s_atoms = null;
+    ArrayList<SSE> s_ptglSSEs = null;                // the modified SSE list the PTGL uses
+    HashMap<String, ArrayList<String>> homologuesMap = null;
+    List<BindingSite> s_sites;
+
+    HashMap<PdbResidueKey, Residue> residueIndex = new HashMap<>();  // the residues of s_molecules by PDB fields, see FileParser.getResidueFromList()
+    int numMoleculesIndexed = 0;  // the molecules of s_molecules before this index are in residueIndex
+
+    // The list of sulfur bridges (aka disulfide bridges) from the DSSP file. The key is the DSSP sulfur bridge
+    // id (an arbitrary character, starting with 'a' for the first bridge usually). The list in the value part contains
+    // the DSSP residue IDs of all residues which are part of the bridge (and thus should have length 2).
+    HashMap<Character, ArrayList<Integer>> s_sulfurBridges;
+
+    // The list of interchain sulfur bridges from the DSSP file. The list structure is the same as for s_sulfurBridges.
+    HashMap<Character, ArrayList<Integer>> s_interchainSulfurBridges;
+    // This list is needed to track if sulfur bridges span between to independent chains.
+    HashMap<Character, String> s_interchainSulfurBridgesChainID;
+
+    Boolean dataInitDone = false;
+
+    Integer[] resIndexPDB = null;        // for a DSSP res number, holds the index of that residue in s_residues
+    Integer[] resIndexDSSP = null;       // for a PDB res number, holds the index of that residue in s_residues
+
+    // ------------------------------ DsspParser ------------------------------
+    String dsspFile = null;
+    Integer dsspDataStartLine = null;
+    ArrayList<String> dsspLines = null;
+    ArrayList<SSE> s_dsspSSEs = null;             // all SSEs according to DSSP definition
+
+    Integer curLineNumDSSP = null;
+    String curLineDSSP = null;
+    Integer curResNumDSSP = null;
+    Integer lastUsedDsspNum = null;
+    Integer maxUsedDsspResNumInDsspFile = null;  // used to determine fake DSSP numbers for ligands
+    HashMap<PdbResidueKey, Integer> dsspResNumIndex = null;  // DSSP residue numbers by PDB fields, built on first use by DsspParser.getDsspResNumForPdbFields()
+
+    boolean dsspDataInitDone = false;
+    ArrayList<Integer> chainBreakDssps = new ArrayList<Integer>();
+
+    // ------------------------------ LegacyParser ------------------------------
+    boolean legacyDataInitDone;
+
+    Integer curLineNumPDB = null;
+    String curLinePDB = null;
+    String curModelID = null;
+    String oldModelID = null;
+    String curChainID = null;
+    String oldChainID = null;
+    Integer curResNumPDB = null;
+    Residue curRes = null;
+
+    // ------------------------------ CifParser ------------------------------
+    boolean cifDataInitDone;
+
+    // data structures
+    HashMap<String, String> metaData;
+    ArrayList<ProtMetaInfo> allProteinMetaInfos = new ArrayList<>();
+    int lastIndexProtMetaInfos = 0;  // used to traverse allProteinMetaInfos quicker for sucessive request, e.g., in the same order they were added
+    String pdbID;
+    HashMap<String, HashMap<String, String>> entityInformation = new HashMap<>();  // <entity ID, <column head, data>>
+    HashMap<String, String> chainIdentity = new HashMap<>();       // matches chain ID with its molecule type
+    HashMap<String, HashMap<String, String>> chemicalComponents = new HashMap<>();   // stores all information on chemical components
+
+    // - - - vars for parsing - - -
+    Boolean dataBlockFound = false;  // for now only parse the first data block (stop if seeing 2nd block)
+    Integer numLine = 0;
+    Boolean inLoop = false;
+    String[] lineData;  // array which holds the data items of one row (the _atom_site rows are read from cifTokens directly)
+    CifTokenizer cifTokens = null;  // the tokenizer of the file while it is parsed
+
+    // - - variables for one loop (reset when hitting new loop) - -
+    String currentCategory = null;
+    // Key: name of column; Val: position in list
+    //  -> if auth columns from atom_site not present they will be mapped to the PDB columns
+    //     therefore always use auth columns unless you explicitly want the PDB ones
+    HashMap<String,Integer> colHeaderPosMap = new HashMap<>();
+    Boolean columnsChecked = false;
+
+    // - - atom_site - -
+    int ligandsTreatedNum = 0;
+    int RnaTreatedNum = 0;
+    int freeResTreatedNum = 0;
+    int numberAtoms = 0;
+
+    // - variables for successive matching atom -> residue/RNA : Molecule -> chain -
+    Model m = null;
+    Molecule lastMol = null;    // starts as first residue and is always the actual one
+    Molecule tmpMol = null;      // used to save lastMol if getResidue returns null
+    Chain tmpChain = null;
+    Residue res = null;
+    Ligand lig = null;
+    RNA rna = null;
+
+    // - variables per (atom) line -
+    Integer atomSerialNumber, coordX, coordY, coordZ, molNumPDB, entityID;
+    String atomRecordName, atomName, chainID, altChainID, chemSym, altLoc, iCode, molNamePDB;
+    Double oCoordX, oCoordY, oCoordZ;            // the original coordinates in Angstroem (coordX are 10th part Angstroem)
+    Float oCoordXf, oCoordYf, oCoordZf;
+    int lastLigandNumPDB = 0; // used to determine if atom belongs to new ligand residue
+    String lastChainID = ""; // s.a.
+    int lastRnaNumPDB = 0;
+    String[] tmpLineData;
+    String tmpModelID;
+    String chainNum = null;  // identifier of the current chain e.g. A
+    String chainType = null; // type of the current chain e.g. RNA
+    String nameOrgCommon = "";
+    String nameOrgScientific = "";
+    String nameOrgCommonSource = "";  // line that an orgName comes from
+    String nameOrgScientificSource = "";  // line that an orgName comes from
+
+    // - variables for already printed warnings -
+    Boolean furtherModelWarningPrinted = false;
+
+
+    /**
+     * Returns the context the static parser methods of the current thread work on: the context bound to the thread if any, the default context otherwise.
+     * @return the context
+     */
+    static ParseContext current() {
+        ParseContext bound = boundContext.get();
+        return (bound != null ? bound : defaultContext);
+    }
+
+
+    /**
+     * Binds the given context to the current thread, so the static parser methods called by this thread work on it.
+     * @param context the context, or null to use the default context again
+     * @return the context which was bound before, or null if there was none. Restore it with another call when done.
+     */
+    static ParseContext bind(ParseContext context) {
+        ParseContext before = boundContext.get();
+        if (context == null) {
+            boundContext.remove();
+        } else {
+            boundContext.set(context);
+        }
+        return before;
+    }
+}
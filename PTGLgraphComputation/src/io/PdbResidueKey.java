@@ -0,0 +1,54 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package io;
+
+import java.util.Objects;
+
+/**
+ * Identifies a residue by the fields of the PDB file: chain ID, PDB residue number and insertion code. Used as key of the residue
+ * and DSSP residue number indices of the ParseContext.
+ */
+final class PdbResidueKey {
+
+    private final String chainID;
+    private final Integer pdbResNum;
+    private final String iCode;
+    private final int hash;
+
+
+    PdbResidueKey(Integer pdbResNum, String chainID, String iCode) {
+        this.chainID = chainID;
+        this.pdbResNum = pdbResNum;
+        this.iCode = iCode;
+        this.hash = Objects.hash(chainID, pdbResNum, iCode);
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if ( ! (o instanceof PdbResidueKey)) {
+            return false;
+        }
+        PdbResidueKey other = (PdbResidueKey) o;
+        return Objects.equals(pdbResNum, other.pdbResNum) && Objects.equals(chainID, other.chainID) && Objects.equals(iCode, other.iCode);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+
+    @Override
+    public String toString() {
+        return chainID + "/" + pdbResNum + "/" + iCode;
+    }
+}
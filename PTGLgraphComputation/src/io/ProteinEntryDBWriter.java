@@ -0,0 +1,604 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package io;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import proteingraphs.ProtGraphs;
+import proteinstructure.SSE;
+import settings.Settings;
+import tools.DP;
+
+/**
+ * Writes the graphs of one PDB entry to the database in a single transaction.
+ *
+ * Writing an entry used to look up the DB IDs of the chain and of every SSE again for every graph, and inserted the SSE assignments of
+ * the graphs one row at a time. This writer resolves the IDs on the client side instead: the chains of the entry and the SSEs of a chain
+ * are each read with a single query and kept in memory. The IDs of new protein graphs are taken from the sequence of the graph table,
+ * reserved for all graphs of a chain with one query, so the graph rows can be inserted later in one batch by insertProteinGraphs().
+ * They are inserted before anything else which may refer to them is written: before the folding graphs and the records of
+ * writeBehind(), at the end of each chain, and by flush(). The SSE assignments of protein graphs and folding graphs and the secondat
+ * updates are collected in memory and written in JDBC batches by flush(), which commit() calls before committing the transaction.
+ * These rows are not read again while an entry is computed, so nothing needs them earlier.
+ * Other results which are only written, like graph statistics and the paths of output files, are passed to writeBehind() and, if enabled,
+ * queued by a DeferredResultWriter. commitInBackground() writes them and commits the entry on a writer thread, so a batch can compute the
+ * next entry meanwhile. The transaction of the next entry only begins when the writer threads of the earlier entries are done, so the
+ * transactions of two entries never overlap.
+ *
+ * Usage: begin(), then the write and assign methods, then commit() (or rollback()). Everything written between begin() and commit() by
+ * other DBManager methods on the same thread is part of the transaction as well, see DBManager.beginTransaction().
+ */
+public class ProteinEntryDBWriter {
+
+    private final String pdbid;
+    private final Connection con;
+    private boolean inTransaction = false;
+    private DeferredResultWriter resultWriter = null;
+
+    /** The commits of entries by writer threads which may still run, see commitInBackground(). */
+    private static final List<Future<Boolean>> backgroundCommits = new ArrayList<>();
+
+    private Map<String, Long> chainIDs = null;                                      // by chain name
+    private final Map<Long, Map<Integer, Long>> sseIDs = new HashMap<>();           // by chain ID, then DSSP start residue
+    private final Map<String, Long> proteinGraphIDs = new HashMap<>();              // by chain name and graph type string
+    private final Deque<Long> reservedProteinGraphIDs = new ArrayDeque<>();         // graph_ids taken from the sequence, not used yet
+
+    private final List<Object[]> proteinGraphs = new ArrayList<>();                 // graph_id, chain_id, graph_type, gml, plcc, kavosh, dotlanguage, json, xml, sse_string, containsbetabarrel
+
+    private final List<long[]> sseToProteinGraph = new ArrayList<>();              // sse_id, graph_id, position_in_graph
+    private final List<long[]> sseToFoldingGraph = new ArrayList<>();              // sse_id, foldinggraph_id, position_in_graph
+    private final Map<String, List<Object[]>> secondatUpdates = new HashMap<>();    // by graph type: fg_number, fg_foldname, fg_position, sse_id, foldinggraph_id
+    private final Map<Long, String> foldingGraphsWithSecondat = new HashMap<>();    // description by foldinggraph_id, for the folding graphs which update secondat
+
+
+    /**
+     * Creates a writer for the given PDB entry, which uses the DB connection of DBManager.
+     * @param pdbid the PDB ID of the entry
+     */
+    public ProteinEntryDBWriter(String pdbid) {
+        this(pdbid, DBManager.dbc);
+    }
+
+
+    /**
+     * Creates a writer for the given PDB entry which uses the given connection, e.g., to a test database. The transaction methods
+     * still use the connection of DBManager, so use flush() only.
+     * @param pdbid the PDB ID of the entry
+     * @param con the connection
+     */
+    public ProteinEntryDBWriter(String pdbid, Connection con) {
+        this.pdbid = pdbid;
+        this.con = con;
+    }
+
+
+    /**
+     * Returns the PDB ID of the entry.
+     * @return the PDB ID
+     */
+    public String getPdbid() {
+        return pdbid;
+    }
+
+
+    /**
+     * Starts the transaction for the entry, after the writer threads of earlier entries are done.
+     * @throws SQLException if there is no DB connection
+     */
+    public void begin() throws SQLException {
+        awaitBackgroundCommits();
+        DBManager.beginTransaction();
+        inTransaction = true;
+        if(Settings.getBoolean("PTGLgraphComputation_B_db_write_behind")) {
+            resultWriter = new DeferredResultWriter(DBManager.pool, Settings.getInteger("PTGLgraphComputation_I_db_write_behind_queue_size"));
+        }
+    }
+
+
+    /**
+     * Writes a result record later if begin() was called and write-behind is enabled, or right away otherwise. The record is written
+     * in the transaction of the entry, by the thread which called begin() or by the writer thread of commitInBackground(). Errors are
+     * reported, not thrown.
+     * @param description what the record contains, used in error messages
+     * @param record the record, which must only write to the DB and should only hold values, no objects the computation still changes
+     */
+    public void writeBehind(String description, DeferredResultWriter.ResultRecord record) {
+        // the record may refer to protein graphs which are not inserted yet
+        DeferredResultWriter.ResultRecord afterGraphs = () -> {
+            insertProteinGraphs();
+            record.write();
+        };
+        if(resultWriter != null) {
+            resultWriter.submit(description, afterGraphs);
+        } else {
+            DeferredResultWriter.write(description, afterGraphs);
+        }
+    }
+
+
+    /**
+     * Writes the collected rows and commits the transaction started by begin(). If writing fails or an error has rolled back the
+     * transaction before, nothing of the entry is written. Without begin(), the rows are only written.
+     * @return true if the entry was written completely
+     */
+    public boolean commit() {
+        closeResultWriter();
+        boolean ok = false;
+        try {
+            flush();
+            ok = true;
+        } catch(SQLException e) {
+            DP.getInstance().e("ProteinEntryDBWriter", "Could not write the graphs and SSE assignments of PDB entry '" + pdbid + "': '" + e.getMessage() + "'.");
+            SQLException next = e.getNextException();
+            if(next != null) {
+                DP.getInstance().e("ProteinEntryDBWriter", "Batch exception: '" + next.getMessage() + "'.");
+            }
+        }
+
+        if(inTransaction) {
+            inTransaction = false;
+            try {
+                DBManager.endTransaction(ok);
+            } catch(SQLException e) {
+                DP.getInstance().e("ProteinEntryDBWriter", "Could not commit the results of PDB entry '" + pdbid + "', they were not written to the DB: '" + e.getMessage() + "'.");
+                return false;
+            }
+        }
+        return ok;
+    }
+
+
+    /**
+     * Commits like commit(), but on a new writer thread which takes over the DB connection and the transaction of the calling thread,
+     * so the calling thread can go on with other work. The calling thread must not use this writer afterwards. Without write-behind or
+     * a transaction, commit() is called right away.
+     * @return the result of commit() on the writer thread, false if records of writeBehind() could not be written
+     */
+    public Future<Boolean> commitInBackground() {
+        if(resultWriter == null || ! inTransaction) {
+            return CompletableFuture.completedFuture(commit());
+        }
+        DeferredResultWriter writer = resultWriter;
+        resultWriter = null;
+        Future<Boolean> result = writer.closeInBackground("DB writer of PDB entry " + pdbid, this::commit);
+        synchronized(backgroundCommits) {
+            backgroundCommits.add(result);
+        }
+        return result;
+    }
+
+
+    /**
+     * Waits until the writer threads started by commitInBackground() are done. Their errors are reported by them.
+     */
+    public static void awaitBackgroundCommits() {
+        List<Future<Boolean>> pending;
+        synchronized(backgroundCommits) {
+            pending = new ArrayList<>(backgroundCommits);
+            backgroundCommits.clear();
+        }
+        for(Future<Boolean> commit : pending) {
+            try {
+                commit.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch(ExecutionException e) {
+                DP.getInstance().e("ProteinEntryDBWriter", "The DB writer thread failed: '" + e.getCause() + "'.");
+            }
+        }
+    }
+
+
+    /**
+     * Discards the collected rows and rolls back the transaction started by begin().
+     */
+    public void rollback() {
+        if(resultWriter != null) {
+            resultWriter.discard();
+            resultWriter = null;
+        }
+        clearRows();
+        if(inTransaction) {
+            inTransaction = false;
+            try {
+                DBManager.endTransaction(false);
+            } catch(SQLException e) {
+                DP.getInstance().e("ProteinEntryDBWriter", "Could not roll back the results of PDB entry '" + pdbid + "': '" + e.getMessage() + "'.");
+            }
+        }
+    }
+
+
+    /**
+     * Writes the records of the result writer and stops it.
+     */
+    private void closeResultWriter() {
+        if(resultWriter != null) {
+            if( ! resultWriter.close()) {
+                DP.getInstance().w("ProteinEntryDBWriter", resultWriter.getNumFailed() + " results of PDB entry '" + pdbid + "' could not be written to the database.");
+            }
+            resultWriter = null;
+        }
+    }
+
+
+    /**
+     * Returns the DB ID of a chain of the entry. All chains of the entry are read with the first call, and again if a chain is not known yet.
+     * @param chainName the PDB chain name
+     * @return the DB ID, or -1 if the chain is not in the DB
+     * @throws SQLException if the chains could not be read
+     */
+    public Long getChainID(String chainName) throws SQLException {
+        if(chainIDs == null || ! chainIDs.containsKey(chainName)) {
+            chainIDs = new HashMap<>();
+            String query = "SELECT chain_name, chain_id FROM " + DBManager.tbl_chain + " WHERE (pdb_id = ?);";
+            try (PreparedStatement statement = con.prepareStatement(query)) {
+                statement.setString(1, pdbid);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while(rs.next()) {
+                        chainIDs.put(rs.getString(1), rs.getLong(2));
+                    }
+                }
+            }
+        }
+        Long id = chainIDs.get(chainName);
+        return (id == null ? -1L : id);
+    }
+
+
+    /**
+     * Returns the DB ID of an SSE. All SSEs of the chain are read with the first call for the chain, and again if an SSE is not known yet.
+     * @param chainID the DB ID of the chain
+     * @param dsspStart the DSSP number of the first residue of the SSE
+     * @return the DB ID, or -1 if the SSE is not in the DB
+     * @throws SQLException if the SSEs could not be read
+     */
+    public Long getSSEID(Long chainID, Integer dsspStart) throws SQLException {
+        Map<Integer, Long> ids = sseIDs.get(chainID);
+        if(ids == null || ! ids.containsKey(dsspStart)) {
+            ids = new HashMap<>();
+            String query = "SELECT dssp_start, sse_id FROM " + DBManager.tbl_sse + " WHERE (chain_id = ?);";
+            try (PreparedStatement statement = con.prepareStatement(query)) {
+                statement.setLong(1, chainID);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while(rs.next()) {
+                        ids.put(rs.getInt(1), rs.getLong(2));
+                    }
+                }
+            }
+            sseIDs.put(chainID, ids);
+        }
+        Long id = ids.get(dsspStart);
+        return (id == null ? -1L : id);
+    }
+
+
+    /**
+     * Reserves DB IDs for the protein graphs which are written next, with a single query. Call it before the graphs of a chain are
+     * written, with their number. IDs which are not used are skipped by the sequence, like those of a rolled back insert.
+     * @param count the number of IDs
+     * @throws SQLException if the IDs could not be read
+     */
+    public void reserveProteinGraphIDs(int count) throws SQLException {
+        if(count < 1) {
+            return;
+        }
+        String query = "SELECT nextval(pg_get_serial_sequence('" + DBManager.tbl_proteingraph + "', 'graph_id')) FROM generate_series(1, ?);";
+        try (PreparedStatement statement = con.prepareStatement(query)) {
+            statement.setInt(1, count);
+            try (ResultSet rs = statement.executeQuery()) {
+                while(rs.next()) {
+                    reservedProteinGraphIDs.add(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Writes a protein graph, see DBManager.writeProteinGraphToDB() for the parameters. The graph gets a reserved ID (see
+     * reserveProteinGraphIDs(), one is reserved if there is none left), the row is inserted later by insertProteinGraphs().
+     * @return the DB ID of the graph, or -1 if the chain is not in the DB
+     * @throws SQLException if no ID could be reserved for the graph
+     */
+    public Long writeProteinGraph(String chainName, Integer graphType, String graph_string_gml, String graph_string_plcc, String graph_string_kavosh, String graph_string_dotlanguage, String graph_string_json, String graph_string_xml, String sse_string, Boolean containsBetaBarrel) throws SQLException {
+        Long chainID = getChainID(chainName);
+        if(chainID < 0) {
+            DP.getInstance().e("ProteinEntryDBWriter", "writeProteinGraph: Could not find chain with pdb_id '" + pdbid + "' and chain_name '" + chainName + "' in DB, could not insert protein graph.");
+            return -1L;
+        }
+
+        if(reservedProteinGraphIDs.isEmpty()) {
+            reserveProteinGraphIDs(1);
+        }
+        Long graphID = reservedProteinGraphIDs.poll();
+        if(graphID == null) {
+            throw new SQLException("The sequence of table '" + DBManager.tbl_proteingraph + "' returned no graph ID.");
+        }
+        proteinGraphs.add(new Object[] { graphID, chainID, graphType, graph_string_gml, graph_string_plcc, graph_string_kavosh, graph_string_dotlanguage, graph_string_json, graph_string_xml, sse_string, (containsBetaBarrel ? 1 : 0) });
+        proteinGraphIDs.put(chainName + "_" + ProtGraphs.getGraphTypeString(graphType), graphID);
+        return graphID;
+    }
+
+
+    /**
+     * Inserts the protein graphs written since the last call in one batch.
+     * @return the number of rows inserted, as reported by the DB
+     * @throws SQLException if the graphs could not be inserted
+     */
+    public int insertProteinGraphs() throws SQLException {
+        if(proteinGraphs.isEmpty()) {
+            return 0;
+        }
+        String query = "INSERT INTO " + DBManager.tbl_proteingraph + " (graph_id, chain_id, graph_type, graph_string_gml, graph_string_plcc, graph_string_kavosh, graph_string_dotlanguage, graph_string_json, graph_string_xml, sse_string, graph_containsbetabarrel) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        int numRows = 0;
+        try (PreparedStatement statement = con.prepareStatement(query)) {
+            for(Object[] row : proteinGraphs) {
+                statement.setLong(1, (Long) row[0]);
+                statement.setLong(2, (Long) row[1]);
+                statement.setInt(3, (Integer) row[2]);
+                for(int i = 3; i < 10; i++) {
+                    statement.setString(i + 1, (String) row[i]);
+                }
+                statement.setInt(11, (Integer) row[10]);
+                statement.addBatch();
+            }
+            for(int c : statement.executeBatch()) {
+                numRows += rowCount(c);
+            }
+        }
+        proteinGraphs.clear();
+        return numRows;
+    }
+
+
+    /**
+     * Returns the DB ID of a protein graph of the entry, without a query if the graph was written by this writer.
+     * @param chainName the PDB chain name
+     * @param graphType the graph type string, e.g., "albe"
+     * @return the DB ID, or a value smaller than 1 if the graph is not in the DB
+     * @throws SQLException if the graph could not be looked up
+     */
+    public Long getProteinGraphID(String chainName, String graphType) throws SQLException {
+        Long id = proteinGraphIDs.get(chainName + "_" + graphType);
+        if(id == null) {
+            id = DBManager.getDBProteinGraphID(pdbid, chainName, graphType);
+            if(id > 0) {
+                proteinGraphIDs.put(chainName + "_" + graphType, id);
+            }
+        }
+        return id;
+    }
+
+
+    /**
+     * Assigns the SSEs to a protein graph in the order of the list, like DBManager.assignSSEsToProteinGraphInOrder(). The rows are written by flush().
+     * @param sses the SSEs of the graph, in graph order
+     * @param chainName the PDB chain name of the graph
+     * @param graphID the DB ID of the graph
+     * @return the number of SSEs assigned
+     * @throws SQLException if the SSE IDs could not be read
+     */
+    public int assignSSEsToProteinGraph(List<SSE> sses, String chainName, Long graphID) throws SQLException {
+        List<Long> ids = getSSEIDsInOrder(sses, chainName, "assignSSEsToProteinGraph");
+        for(int i = 0; i < ids.size(); i++) {
+            sseToProteinGraph.add(new long[] { ids.get(i), graphID, i + 1 });
+        }
+        return ids.size();
+    }
+
+
+    /**
+     * Assigns the SSEs to a folding graph in the order of the list and sets their folding graph info in the secondat table, like
+     * DBManager.assignSSEsToFoldingGraphInOrderWithSecondat(). The rows are written by flush().
+     * @param sses the SSEs of the folding graph, in graph order
+     * @param chainName the PDB chain name of the graph
+     * @param foldingGraphID the DB ID of the folding graph
+     * @param graphType the graph type string of the parent graph, e.g., "albe"
+     * @param fgNumber the folding graph number
+     * @param foldName the fold name
+     * @return the number of SSEs assigned
+     * @throws SQLException if the SSE IDs could not be read
+     */
+    public int assignSSEsToFoldingGraph(List<SSE> sses, String chainName, Long foldingGraphID, String graphType, Integer fgNumber, String foldName) throws SQLException {
+        List<Long> ids = getSSEIDsInOrder(sses, chainName, "assignSSEsToFoldingGraph");
+        boolean writeSecondat = ProtGraphs.isValidGraphTypeString(graphType);
+        if(writeSecondat) {
+            foldingGraphsWithSecondat.put(foldingGraphID, graphType + " folding graph # " + fgNumber + " of PDB ID '" + pdbid + "' chain '" + chainName + "'");
+        }
+        for(int i = 0; i < ids.size(); i++) {
+            sseToFoldingGraph.add(new long[] { ids.get(i), foldingGraphID, i + 1 });
+            if(writeSecondat) {
+                secondatUpdates.computeIfAbsent(graphType, gt -> new ArrayList<>()).add(new Object[] { fgNumber, foldName, i + 1, ids.get(i), foldingGraphID });
+            }
+        }
+        return ids.size();
+    }
+
+
+    /**
+     * Writes the protein graphs which are not inserted yet, the collected SSE assignments and the secondat updates in JDBC batches. The
+     * numbers of rows are taken from the update counts the DB reports for the batches. If the SSEs of a folding graph were assigned in the
+     * SSE to folding graph table, but not all of them were updated in the secondat table, a warning is printed.
+     * @return the numbers of rows written
+     * @throws SQLException if writing failed
+     */
+    public WrittenRows flush() throws SQLException {
+        WrittenRows written = new WrittenRows();
+        written.numProteinGraphs = insertProteinGraphs();
+        int[] counts = writeAssignments("INSERT INTO " + DBManager.tbl_nm_ssetoproteingraph + " (sse_id, graph_id, position_in_graph) VALUES (?, ?, ?);", sseToProteinGraph);
+        for(int c : counts) {
+            written.numProteinGraphAssignments += rowCount(c);
+        }
+        counts = writeAssignments("INSERT INTO " + DBManager.tbl_nm_ssetofoldinggraph + " (sse_id, foldinggraph_id, position_in_graph) VALUES (?, ?, ?);", sseToFoldingGraph);
+        for(int i = 0; i < counts.length; i++) {
+            written.add(sseToFoldingGraph.get(i)[1], 0, rowCount(counts[i]));
+        }
+
+        for(Map.Entry<String, List<Object[]>> e : secondatUpdates.entrySet()) {
+            String gt = e.getKey();
+            String query = "UPDATE " + DBManager.tbl_secondat + " SET " + gt + "_fg_number = ?, " + gt + "_fg_foldname = ?, " + gt + "_fg_position = ? WHERE sse_id = ?;";
+            try (PreparedStatement statement = con.prepareStatement(query)) {
+                for(Object[] row : e.getValue()) {
+                    statement.setInt(1, (Integer) row[0]);
+                    statement.setString(2, (String) row[1]);
+                    statement.setInt(3, (Integer) row[2]);
+                    statement.setLong(4, (Long) row[3]);
+                    statement.addBatch();
+                }
+                counts = statement.executeBatch();
+            }
+            for(int i = 0; i < counts.length; i++) {
+                written.add((Long) e.getValue().get(i)[4], 1, rowCount(counts[i]));
+            }
+        }
+
+        for(Map.Entry<Long, String> e : foldingGraphsWithSecondat.entrySet()) {
+            int numAssigned = written.getNumFoldingGraphAssignments(e.getKey());
+            int numSecondat = written.getNumSecondatUpdates(e.getKey());
+            if(numAssigned != numSecondat) {
+                DP.getInstance().w("ProteinEntryDBWriter", "SSE to folding graph assignment of " + e.getValue() + ": " + numAssigned + " SSEs assigned in sse2fg table, but " + numSecondat + " in secondat table -- expected same value.");
+            }
+        }
+        clearRows();
+        return written;
+    }
+
+
+    /**
+     * Writes rows of (sse_id, graph_id, position) with the given insert query in a batch.
+     * @return the update counts of the rows
+     */
+    private int[] writeAssignments(String query, List<long[]> rows) throws SQLException {
+        if(rows.isEmpty()) {
+            return new int[0];
+        }
+        try (PreparedStatement statement = con.prepareStatement(query)) {
+            for(long[] row : rows) {
+                statement.setLong(1, row[0]);
+                statement.setLong(2, row[1]);
+                statement.setInt(3, (int) row[2]);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+
+    /**
+     * Returns the DB IDs of the SSEs which are in the DB, in the order of the list.
+     */
+    private List<Long> getSSEIDsInOrder(List<SSE> sses, String chainName, String caller) throws SQLException {
+        List<Long> ids = new ArrayList<>(sses.size());
+        Long chainID = getChainID(chainName);
+        if(chainID < 0) {
+            DP.getInstance().e("ProteinEntryDBWriter", caller + "(): Chain not found in DB, cannot assign SSEs.");
+            return ids;
+        }
+        for(SSE sse : sses) {
+            Long sseID = getSSEID(chainID, sse.getStartDsspNum());
+            if(sseID > 0) {
+                ids.add(sseID);
+            }
+            else {
+                DP.getInstance().e("ProteinEntryDBWriter", caller + "(): SSE not found in DB, cannot assign it to graph.");
+            }
+        }
+        return ids;
+    }
+
+
+    /**
+     * Returns the number of rows of an update count of a batch. Drivers may report SUCCESS_NO_INFO (-2) for a row, which is counted as one row.
+     */
+    private static int rowCount(int count) {
+        return (count == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0));
+    }
+
+
+    private void clearRows() {
+        proteinGraphs.clear();
+        sseToProteinGraph.clear();
+        sseToFoldingGraph.clear();
+        secondatUpdates.clear();
+        foldingGraphsWithSecondat.clear();
+    }
+
+
+    /**
+     * The numbers of rows written by flush(), as reported by the DB.
+     */
+    public static class WrittenRows {
+
+        private int numProteinGraphs = 0;
+        private int numProteinGraphAssignments = 0;
+        private final Map<Long, int[]> byFoldingGraph = new HashMap<>();     // by foldinggraph_id: rows in sse2fg, rows in secondat
+
+        private void add(Long foldingGraphID, int index, int numRows) {
+            byFoldingGraph.computeIfAbsent(foldingGraphID, id -> new int[2])[index] += numRows;
+        }
+
+        /**
+         * Returns the number of protein graphs inserted.
+         * @return the number of rows
+         */
+        public int getNumProteinGraphs() {
+            return numProteinGraphs;
+        }
+
+        /**
+         * Returns the number of SSE to protein graph assignments written.
+         * @return the number of rows
+         */
+        public int getNumProteinGraphAssignments() {
+            return numProteinGraphAssignments;
+        }
+
+        /**
+         * Returns the number of SSE to folding graph assignments written for a folding graph.
+         * @param foldingGraphID the DB ID of the folding graph
+         * @return the number of rows
+         */
+        public int getNumFoldingGraphAssignments(Long foldingGraphID) {
+            int[] counts = byFoldingGraph.get(foldingGraphID);
+            return (counts == null ? 0 : counts[0]);
+        }
+
+        /**
+         * Returns the number of rows of the secondat table updated for a folding graph.
+         * @param foldingGraphID the DB ID of the folding graph
+         * @return the number of rows
+         */
+        public int getNumSecondatUpdates(Long foldingGraphID) {
+            int[] counts = byFoldingGraph.get(foldingGraphID);
+            return (counts == null ? 0 : counts[1]);
+        }
+
+        /**
+         * Returns the total number of rows written or updated.
+         * @return the number of rows
+         */
+        public int getTotal() {
+            int n = numProteinGraphs + numProteinGraphAssignments;
+            for(int[] counts : byFoldingGraph.values()) {
+                n += counts[0] + counts[1];
+            }
+            return n;
+        }
+    }
+}
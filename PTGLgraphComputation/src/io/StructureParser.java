@@ -0,0 +1,91 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Supplier;
+import proteinstructure.Atom;
+import proteinstructure.Chain;
+import proteinstructure.Model;
+import proteinstructure.Molecule;
+import proteinstructure.ProtMetaInfo;
+import proteinstructure.SSE;
+
+/**
+ * Parses one structure, i.e., a PDB or mmCIF file and its DSSP file, into its own ParseContext. Unlike the static FileParser API,
+ * which works on a context shared by all threads, several StructureParsers can be used concurrently in different threads. Code which
+ * uses the static API can be run on the context of a parser with call() or run(), so no parse state is left over from an earlier
+ * structure. Usage:
+ * <pre>
+ *   StructureParser parser = new StructureParser();
+ *   parser.parse(pdbFile, dsspFile);
+ *   ArrayList&lt;Molecule&gt; molecules = parser.getMolecules();
+ * </pre>
+ *
+ * A StructureParser itself must only be used by one thread at a time.
+ */
+public class StructureParser {
+
+    private final ParseContext context = new ParseContext();
+
+
+    /**
+     * Runs the given function of the static parser API on the context of this parser.
+     * @param <T> the result type
+     * @param function the function, e.g., a FileParser method
+     * @return the result of the function
+     */
+    public <T> T call(Supplier<T> function) {
+        ParseContext before = ParseContext.bind(context);
+        try {
+            return function.get();
+        } finally {
+            ParseContext.bind(before);
+        }
+    }
+
+
+    /**
+     * Runs code which uses the static parser API, e.g., Main.computeEntry(), on the context of this parser.
+     * @param task the code to run
+     */
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+
+    /**
+     * Parses the PDB (or mmCIF) and DSSP file, see FileParser.initData(). Which parser is used depends on the setting 'PTGLgraphComputation_B_use_mmCIF_parser'.
+     * @param pdbFile path to the PDB or mmCIF file
+     * @param dsspFile path to the DSSP file
+     */
+    public void parse(String pdbFile, String dsspFile) {
+        call(() -> {
+            FileParser.initData(pdbFile, dsspFile);
+            return null;
+        });
+    }
+
+
+    // getters, see the FileParser methods of the same name
+    public ArrayList<Model> getModels() { return(context.s_models); }
+    public ArrayList<String> getAllModelIDsFromWholePdbFile() { return(context.s_allModelIDsFromWholePDBFile); }
+    public ArrayList<Chain> getChains() { return(context.s_chains); }
+    public ArrayList<Molecule> getMolecules() { return(context.s_molecules); }
+    public ArrayList<Integer> getResidueIndices() { return(context.s_residueIndices); }
+    public ArrayList<Integer> getRnaIndices() { return(context.s_rnaIndices); }
+    public ArrayList<Atom> getAtoms() { return(context.s_atoms); }
+    public ArrayList<SSE> getPtglSSEs() { return(context.s_ptglSSEs); }
+    public HashMap<Character, ArrayList<Integer>> getSulfurBridges() { return(context.s_sulfurBridges); }
+    public HashMap<Character, ArrayList<Integer>> getInterchainSulfurBridges() { return(context.s_interchainSulfurBridges); }
+    public HashMap<String, String> getMetaData() { return(call(FileParser::getMetaData)); }
+    public ProtMetaInfo getMetaInfo(String pdbid, String chain) { return(call(() -> FileParser.getMetaInfo(pdbid, chain))); }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package motifs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Searches the lower triangle of a pattern matrix in a bigger matrix, see DBManager.matrixSearch(). The pattern of size p matches
+ * at (x, y) if matrix[x+i][y+j] == pattern[i][j] for all 0 &lt;= j &lt;= i &lt; p, where 0 &lt;= y &lt;= x.
+ *
+ * The search is a Baker-Bird style 2D matching: the row prefixes pattern[i][0..i] are compiled once into an Aho-Corasick automaton. Each
+ * row of the matrix is scanned once, which finds all columns where each pattern row starts in that matrix row. A position (x, y) is a
+ * match if pattern row i starts at column y in matrix row x+i for all i, which is checked for all y at once by AND-ing bit sets. This takes
+ * O(n^2 + p * n^2 / 64) for a matrix of size n instead of O(n^2 * p^2) for comparing the pattern at each position.
+ *
+ * A compiled matcher is immutable and may be used by several threads at once.
+ */
+public class MatrixPatternMatcher {
+
+    private static final int ALPHABET_SIZE = NotationMatrix.NUM_CELL_VALUES;
+
+    private final int patternSize;
+    private final int[][] next;         // the automaton, next[state][cell value]
+    private final int[] rowEndingHere;  // the pattern row which ends in a state, or -1
+    private final int[] outputLink;     // the next state on the suffix link path in which a pattern row ends, or -1
+
+
+    /**
+     * Compiles the lower triangle of a pattern.
+     * @param pattern the pattern
+     */
+    private MatrixPatternMatcher(NotationMatrix pattern) {
+        this.patternSize = pattern.size();
+
+        // trie of the pattern rows, state 0 is the root
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> rowEnds = new ArrayList<>();
+        trie.add(newState());
+        rowEnds.add(-1);
+        for(int i = 0; i < patternSize; i++) {
+            int state = 0;
+            for(int j = 0; j <= i; j++) {
+                int c = pattern.get(i, j);
+                if(trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    rowEnds.add(-1);
+                }
+                state = trie.get(state)[c];
+            }
+            // the rows differ in length, so at most one ends in each state
+            rowEnds.set(state, i);
+        }
+
+        int numStates = trie.size();
+        next = trie.toArray(new int[numStates][]);
+        rowEndingHere = new int[numStates];
+        outputLink = new int[numStates];
+        int[] fail = new int[numStates];
+        for(int s = 0; s < numStates; s++) {
+            rowEndingHere[s] = rowEnds.get(s);
+        }
+
+        // breadth-first: complete the transitions to a DFA and compute the suffix and output links
+        Deque<Integer> queue = new ArrayDeque<>();
+        outputLink[0] = -1;
+        for(int c = 0; c < ALPHABET_SIZE; c++) {
+            if(next[0][c] < 0) {
+                next[0][c] = 0;
+            } else {
+                fail[next[0][c]] = 0;
+                outputLink[next[0][c]] = -1;
+                queue.add(next[0][c]);
+            }
+        }
+        while( ! queue.isEmpty()) {
+            int s = queue.poll();
+            for(int c = 0; c < ALPHABET_SIZE; c++) {
+                int t = next[s][c];
+                if(t < 0) {
+                    next[s][c] = next[fail[s]][c];
+                } else {
+                    int f = next[fail[s]][c];
+                    fail[t] = f;
+                    outputLink[t] = (rowEndingHere[f] >= 0 ? f : outputLink[f]);
+                    queue.add(t);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Compiles a pattern for searching it in many matrices.
+     * @param pattern the pattern, only its lower triangle (including the diagonal) is used
+     * @return the matcher
+     */
+    public static MatrixPatternMatcher compile(NotationMatrix pattern) {
+        return new MatrixPatternMatcher(pattern);
+    }
+
+
+    /**
+     * Returns the size of the pattern.
+     * @return the number of pattern rows
+     */
+    public int getPatternSize() {
+        return patternSize;
+    }
+
+
+    /**
+     * Finds the first occurrence of the pattern, in the order of DBManager.matrixSearch(): by row x, then by column y.
+     * @param matrix the matrix to search in
+     * @return the position {x, y} of the first occurrence, or {-1, 0} if the pattern does not occur. An empty pattern occurs at {0, 0}.
+     */
+    public int[] findFirst(NotationMatrix matrix) {
+        List<int[]> found = find(matrix, true);
+        return (found.isEmpty() ? new int[] { -1, 0 } : found.get(0));
+    }
+
+
+    /**
+     * Finds all occurrences of the pattern.
+     * @param matrix the matrix to search in
+     * @return the positions {x, y} of all occurrences, ordered by x, then by y
+     */
+    public List<int[]> findAll(NotationMatrix matrix) {
+        return find(matrix, false);
+    }
+
+
+    /**
+     * Checks whether the pattern occurs in a matrix.
+     * @param matrix the matrix to search in
+     * @return whether the pattern occurs
+     */
+    public boolean occursIn(NotationMatrix matrix) {
+        return ! find(matrix, true).isEmpty();
+    }
+
+
+    /**
+     * Searches the pattern.
+     * @param matrix the matrix to search in
+     * @param firstOnly whether to stop at the first occurrence
+     * @return the positions {x, y} of the occurrences
+     */
+    private List<int[]> find(NotationMatrix matrix, boolean firstOnly) {
+        List<int[]> found = new ArrayList<>();
+        int n = matrix.size();
+        if(patternSize == 0) {
+            found.add(new int[] { 0, 0 });
+            return found;
+        }
+        if(patternSize > n) {
+            return found;
+        }
+
+        // starts[i][r]: the columns y at which pattern row i occurs in matrix row r (needed for r >= i only)
+        BitSet[][] starts = new BitSet[patternSize][n];
+        for(int r = 0; r < n; r++) {
+            int state = 0;
+            for(int col = 0; col < n; col++) {
+                state = next[state][matrix.get(r, col)];
+                for(int s = (rowEndingHere[state] >= 0 ? state : outputLink[state]); s >= 0; s = outputLink[s]) {
+                    int i = rowEndingHere[s];
+                    if(r < i) {
+                        continue;
+                    }
+                    if(starts[i][r] == null) {
+                        starts[i][r] = new BitSet(n);
+                    }
+                    starts[i][r].set(col - i);
+                }
+            }
+        }
+
+        for(int x = 0; x + patternSize <= n; x++) {
+            BitSet candidates = null;
+            for(int i = 0; i < patternSize; i++) {
+                BitSet rowStarts = starts[i][x + i];
+                if(rowStarts == null) {
+                    candidates = null;
+                    break;
+                }
+                if(candidates == null) {
+                    candidates = (BitSet) rowStarts.clone();
+                    candidates.clear(x + 1, n);      // only the lower triangle: y <= x
+                } else {
+                    candidates.and(rowStarts);
+                }
+                if(candidates.isEmpty()) {
+                    break;
+                }
+            }
+            if(candidates == null) {
+                continue;
+            }
+            for(int y = candidates.nextSetBit(0); y >= 0; y = candidates.nextSetBit(y + 1)) {
+                found.add(new int[] { x, y });
+                if(firstOnly) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * Creates a trie state without transitions.
+     * @return the transitions, all -1
+     */
+    private static int[] newState() {
+        int[] state = new int[ALPHABET_SIZE];
+        for(int c = 0; c < ALPHABET_SIZE; c++) {
+            state[c] = -1;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package motifs;
+
+import io.DBManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import settings.Settings;
+import tools.DP;
+
+/**
+ * Finds the motifs of a protein chain in the linear notations of its folding graphs.
+ *
+ * The chainContainsMotif_* methods of DBManager each query the notations of the chain and parse them into adjacency matrices on their
+ * own. The engine reads all notations of a chain with a single query (or gets them from the caller), parses each notation at most once
+ * and evaluates the rules of all motifs on them in one pass. The motifs which are still detected by SQL queries in DBManager (TIM barrel,
+ * alpha-beta plait, ubiquitin roll) are part of the rule table as well, so the engine decides about all motifs. Their queries are only
+ * run for candidate chains: the first query of each of these methods selects the RED notations of the chain which match a LIKE pattern,
+ * and the method finds nothing without such a notation. The engine checks these patterns on the notations it has read already, so most
+ * chains need no query for these motifs. The Rossman fold is not implemented in DBManager and needs no query either.
+ */
+public class MotifEngine {
+
+    /** The SEQ notations of albe folding graphs which consist of helices only, see chainContainsMotif_GlobinFold(). */
+    private static final Pattern ALBE_SEQ_HELICES_ONLY = Pattern.compile(".h(,[0-9]h)*.");
+
+    /**
+     * A test whether a chain contains a motif.
+     */
+    interface MotifRule {
+        boolean matches(ChainNotations chain);
+    }
+
+    /** A motif and its rule. */
+    private static class Motif {
+
+        final String name;
+        final Integer code;
+        final MotifRule candidate;
+        final MotifRule rule;
+
+        Motif(String name, Integer code, MotifRule rule) {
+            this(name, code, c -> true, rule);
+        }
+
+        /**
+         * Creates a motif whose rule is only evaluated for candidate chains, e.g., because it queries the database.
+         * @param name the motif name
+         * @param code the motif code
+         * @param candidate the test whether the chain may contain the motif, which must be true whenever the rule is
+         * @param rule the rule
+         */
+        Motif(String name, Integer code, MotifRule candidate, MotifRule rule) {
+            this.name = name;
+            this.code = code;
+            this.candidate = candidate;
+            this.rule = rule;
+        }
+
+        boolean matches(ChainNotations chain) {
+            return candidate.matches(chain) && rule.matches(chain);
+        }
+    }
+
+    /** The RED notations selected by the first query of DBManager.chainContainsMotif_TIMBarrel(). */
+    private static final MotifRule TIM_BARREL_CANDIDATE = c -> c.anyRedMatches(red -> sqlLike(red, "%1_,1_,1_,1_,1_,1_,1_%") && ! sqlLike(red, "%-1_,1_,1_,1_,1_,1_,1_%"));
+
+    /** The RED notations selected by the first query of DBManager.chainContainsMotif_AlphaBetaPlait(). */
+    private static final MotifRule ALPHA_BETA_PLAIT_CANDIDATE = c -> c.anyRedMatches(red -> sqlLike(red, "%1a,-2p,3a%") || (sqlLike(red, "%1a,-2a,3a%") && ! sqlLike(red, "%-1a,-2_,3a%")));
+
+    /** The RED notations selected by the first query of DBManager.chainContainsMotif_UbiquitinRoll(). */
+    private static final MotifRule UBIQUITIN_ROLL_CANDIDATE = c -> c.anyRedMatches(red -> sqlLike(red, "%-1a,3p,-1a%"));
+
+    /** All motifs, in the order they are reported. */
+    private static final List<Motif> MOTIFS = Collections.unmodifiableList(Arrays.asList(
+            new Motif(Motifs.MOTIF__FOUR_HELIX_BUNDLE, Motifs.MOTIFCODE__FOUR_HELIX_BUNDLE, c -> DBManager.matrixContainsFourHelixBundle(c.getAdjMatrices(ChainNotations.GRAPHTYPE_ALPHA))),
+            new Motif(Motifs.MOTIF__UP_AND_DOWN_BARREL, Motifs.MOTIFCODE__UP_AND_DOWN_BARREL, c -> DBManager.matrixContainsUpAndDownBarrel(c.getAdjMatrices(ChainNotations.GRAPHTYPE_BETA))),
+            new Motif(Motifs.MOTIF__GLOBIN_FOLD, Motifs.MOTIFCODE__GLOBIN_FOLD, c -> DBManager.matrixContainsGlobinFold(c.getGlobinCandidateMatrices())),
+            new Motif(Motifs.MOTIF__JELLY_ROLL, Motifs.MOTIFCODE__JELLY_ROLL, c -> DBManager.matrixContainsJellyRoll(c.getAdjMatrices(ChainNotations.GRAPHTYPE_BETA))),
+            new Motif(Motifs.MOTIF__IMMUNOGLOBIN_FOLD, Motifs.MOTIFCODE__IMMUNOGLOBIN_FOLD, c -> DBManager.matrixContainsImmunoglobulinFold(c.getAdjMatrices(ChainNotations.GRAPHTYPE_BETA))),
+            new Motif(Motifs.MOTIF__BETA_PROPELLER, Motifs.MOTIFCODE__BETA_PROPELLER, c -> DBManager.matrixContainsBetaPropeller(c.getAdjMatrices(ChainNotations.GRAPHTYPE_BETA))),
+            new Motif(Motifs.MOTIF__ROSSMAN_FOLD, Motifs.MOTIFCODE__ROSSMAN_FOLD, c -> DBManager.chainContainsMotif_RossmanFold(c.chainDbId)),
+            new Motif(Motifs.MOTIF__TIM_BARREL, Motifs.MOTIFCODE__TIM_BARREL, c -> Settings.getBoolean("PTGLgraphComputation_B_compute_tim") && TIM_BARREL_CANDIDATE.matches(c), c -> DBManager.chainContainsMotif_TIMBarrel(c.chainDbId)),
+            new Motif(Motifs.MOTIF__ALPHA_BETA_PLAIT, Motifs.MOTIFCODE__ALPHA_BETA_PLAIT, ALPHA_BETA_PLAIT_CANDIDATE, c -> DBManager.chainContainsMotif_AlphaBetaPlait(c.chainDbId)),
+            new Motif(Motifs.MOTIF__UBIQUITIN_ROLL, Motifs.MOTIFCODE__UBIQUITIN_ROLL, UBIQUITIN_ROLL_CANDIDATE, c -> DBManager.chainContainsMotif_UbiquitinRoll(c.chainDbId)),
+            new Motif(Motifs.MOTIF__FERREDOXIN_FOLD, Motifs.MOTIFCODE__FERREDOXIN_FOLD, c -> c.containsFerredoxinFold())
+    ));
+
+
+    /**
+     * Determines the motifs of a chain, reading its folding graph notations from the database.
+     * @param chainDbId the chain database ID
+     * @return the codes of the motifs found, see Motifs
+     */
+    public static List<Integer> findMotifs(Long chainDbId) {
+        return findMotifs(new ChainNotations(chainDbId, DBManager.getFoldingGraphNotationsOfChain(chainDbId)));
+    }
+
+
+    /**
+     * Determines the motifs of a chain.
+     * @param chain the folding graph notations of the chain
+     * @return the codes of the motifs found, see Motifs
+     */
+    public static List<Integer> findMotifs(ChainNotations chain) {
+        List<Integer> found = new ArrayList<>();
+        for(Motif m : MOTIFS) {
+            if(m.matches(chain)) {
+                found.add(m.code);
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * Checks whether a chain contains a single motif.
+     * @param motifCode the motif code, see Motifs
+     * @param chain the folding graph notations of the chain
+     * @return whether the rule of the motif matches, false if the code is unknown
+     */
+    public static boolean containsMotif(Integer motifCode, ChainNotations chain) {
+        for(Motif m : MOTIFS) {
+            if(m.code.equals(motifCode)) {
+                return m.matches(chain);
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Checks whether a chain is a candidate for a motif, i.e., whether the rule of the motif is evaluated at all. Only the rules which
+     * query the database reject chains this way, see the class description.
+     * @param motifCode the motif code, see Motifs
+     * @param chain the folding graph notations of the chain
+     * @return whether the chain is a candidate, false if the code is unknown
+     */
+    public static boolean isCandidate(Integer motifCode, ChainNotations chain) {
+        for(Motif m : MOTIFS) {
+            if(m.code.equals(motifCode)) {
+                return m.candidate.matches(chain);
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Evaluates an SQL LIKE pattern like PostgreSQL does: '%' matches any text and '_' any single character. A null value never matches.
+     * @param value the value
+     * @param pattern the pattern
+     * @return whether the whole value matches
+     */
+    static boolean sqlLike(String value, String pattern) {
+        if(value == null) {
+            return false;
+        }
+        StringBuilder regex = new StringBuilder();
+        for(char ch : pattern.toCharArray()) {
+            if(ch == '%') {
+                regex.append(".*");
+            } else if(ch == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(ch)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL).matcher(value).matches();
+    }
+
+
+    /**
+     * Returns the name of a motif.
+     * @param motifCode the motif code, see Motifs
+     * @return the name, e.g., "4helix", or null if the code is unknown
+     */
+    public static String getMotifName(Integer motifCode) {
+        for(Motif m : MOTIFS) {
+            if(m.code.equals(motifCode)) {
+                return m.name;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Deletes the motif assignments of all chains in the database and computes them again. The chains are processed in parallel, each
+     * worker in its own transaction on its own DB connection. The chains are read with a cursor while the workers run, and only a few
+     * chains per worker wait in the queue, so the list of all chains is never in memory. The cursor keeps the DB connection of the calling
+     * thread, so the workers can use the other connections of the pool. If the pool has only one connection, there is none left for a
+     * worker: then the chains are read first and processed one after another on the calling thread.
+     * @param numThreads the number of worker threads, at most the DB pool size - 1 are used. 0 to use as many as the DB pool allows.
+     * @return the number of motif assignments written
+     */
+    public static int reassignAllChainsInDatabase(int numThreads) {
+        int maxThreads = Settings.getInteger("PTGLgraphComputation_I_db_pool_size") - 1;
+        if(maxThreads < 1) {
+            return reassignAllChainsOnThisThread();
+        }
+        if(numThreads <= 0 || numThreads > maxThreads) {
+            numThreads = maxThreads;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+        Semaphore queued = new Semaphore(2 * numThreads);
+        AtomicInteger numAssigned = new AtomicInteger(0);
+        try {
+            Boolean ok = DBManager.forEachPDBIDandChain(DBManager.DEFAULT_FETCH_SIZE, pdbAndChain -> {
+                String pdbid = pdbAndChain[0];
+                String chain = pdbAndChain[1];
+                queued.acquireUninterruptibly();
+                workers.execute(() -> {
+                    try {
+                        numAssigned.addAndGet(reassignChain(pdbid, chain));
+                    } finally {
+                        queued.release();
+                    }
+                });
+            });
+            if( ! ok) {
+                DP.getInstance().e("MotifEngine", "Could not read all chains from the database, the motifs of some chains were not reassigned.");
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch(InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return numAssigned.get();
+    }
+
+
+    /**
+     * Reassigns the motifs of all chains on the calling thread, see reassignAllChainsInDatabase(). The chains are read before, because
+     * committing the transaction of a chain would end the cursor on the same connection.
+     * @return the number of motif assignments written
+     */
+    private static int reassignAllChainsOnThisThread() {
+        List<String[]> chains = new ArrayList<>();
+        if( ! DBManager.forEachPDBIDandChain(DBManager.DEFAULT_FETCH_SIZE, chains::add)) {
+            DP.getInstance().e("MotifEngine", "Could not read the chains from the database, no motifs were reassigned.");
+            return 0;
+        }
+        int numAssigned = 0;
+        for(String[] pdbAndChain : chains) {
+            numAssigned += reassignChain(pdbAndChain[0], pdbAndChain[1]);
+        }
+        return numAssigned;
+    }
+
+
+    /**
+     * Deletes the motif assignments of a chain and computes them again, in a transaction on the DB connection of the calling thread.
+     * @param pdbid the PDB ID
+     * @param chain the chain name
+     * @return the number of motif assignments written, 0 on errors
+     */
+    private static int reassignChain(String pdbid, String chain) {
+        try {
+            return DBManager.inTransaction(() -> {
+                DBManager.deleteMotifAssignmentsOfChain(pdbid, chain);
+                return DBManager.checkAndAssignChainToAllMotifsInDatabase(pdbid, chain);
+            });
+        } catch(Exception e) {
+            DP.getInstance().e("MotifEngine", "Could not reassign motifs of PDB " + pdbid + " chain " + chain + ": '" + e.getMessage() + "'.");
+            return 0;
+        }
+    }
+
+
+    /**
+     * The linear notations of all folding graphs of a chain, and the adjacency matrices parsed from them. The matrices are parsed when
+     * a rule needs them first, so each notation is parsed only once for all rules.
+     */
+    public static class ChainNotations {
+
+        public static final int GRAPHTYPE_ALPHA = 1;
+        public static final int GRAPHTYPE_BETA = 2;
+        public static final int GRAPHTYPE_ALBE = 3;
+
+        final Long chainDbId;
+        private final List<FoldingGraphNotations> notations;
+        private final Map<Integer, ArrayList<ArrayList<ArrayList<Character>>>> adjMatrices = new HashMap<>();    // by graph type
+        private ArrayList<ArrayList<ArrayList<Character>>> globinCandidates = null;
+
+        /**
+         * Creates the notations of a chain.
+         * @param chainDbId the chain database ID, used by the rules which still query the database
+         * @param notations the notations of all folding graphs of the chain
+         */
+        public ChainNotations(Long chainDbId, List<FoldingGraphNotations> notations) {
+            this.chainDbId = chainDbId;
+            this.notations = notations;
+        }
+
+        /**
+         * Returns the matrices of the ADJ notations of the folding graphs of a graph type, like chainContainsMotif_FourHelixBundle() builds them.
+         * @param graphType the graph type code, alpha or beta
+         * @return the matrices
+         */
+        ArrayList<ArrayList<ArrayList<Character>>> getAdjMatrices(int graphType) {
+            ArrayList<ArrayList<ArrayList<Character>>> matrices = adjMatrices.get(graphType);
+            if(matrices == null) {
+                String gt = (graphType == GRAPHTYPE_ALPHA ? "alpha" : "beta");
+                matrices = new ArrayList<>();
+                for(FoldingGraphNotations n : notations) {
+                    if(n.graphType == graphType && n.adj != null && n.adj.length() > 2) {
+                        matrices.add(DBManager.parseRedOrAdjToMatrix(n.adj, gt));
+                    }
+                }
+                adjMatrices.put(graphType, matrices);
+            }
+            return matrices;
+        }
+
+        /**
+         * Returns the matrices of the alpha folding graphs whose albe folding graph with the same number consists of at least 8 helices
+         * only, like chainContainsMotif_GlobinFold() builds them.
+         * @return the matrices
+         */
+        ArrayList<ArrayList<ArrayList<Character>>> getGlobinCandidateMatrices() {
+            if(globinCandidates == null) {
+                globinCandidates = new ArrayList<>();
+                Set<List<String>> seen = new HashSet<>();
+                for(FoldingGraphNotations alpha : notations) {
+                    if(alpha.graphType != GRAPHTYPE_ALPHA || alpha.adj == null) {
+                        continue;
+                    }
+                    for(FoldingGraphNotations albe : notations) {
+                        if(albe.graphType != GRAPHTYPE_ALBE || albe.fgNumber != alpha.fgNumber || albe.seq == null || ! ALBE_SEQ_HELICES_ONLY.matcher(albe.seq).matches()) {
+                            continue;
+                        }
+                        if( ! seen.add(Arrays.asList(alpha.adj, albe.seq))) {
+                            continue;
+                        }
+                        if(alpha.adj.length() > 2 && DBManager.getNumVerticesFromLinnotSeq(new ArrayList<>(Collections.singletonList(albe.seq))) >= 8) {
+                            globinCandidates.add(DBManager.parseRedOrAdjToMatrix(alpha.adj, "alpha"));
+                        }
+                    }
+                }
+            }
+            return globinCandidates;
+        }
+
+        /**
+         * Checks whether the RED notation of a folding graph of the chain, of any graph type, matches a test.
+         * @param test the test
+         * @return whether a RED notation matches
+         */
+        boolean anyRedMatches(Predicate<String> test) {
+            for(FoldingGraphNotations n : notations) {
+                if(n.red != null && test.test(n.red)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks the notations for the ferredoxin fold, like the query of chainContainsMotif_FerredoxinFold().
+         * @return whether a folding graph contains the motif
+         */
+        boolean containsFerredoxinFold() {
+            for(FoldingGraphNotations n : notations) {
+                if(n.seq != null && n.adj != null && n.seq.contains("e,1h,1e,1e,1h,1e") && n.adj.contains("e,3ae,-1ae")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+
+    /**
+     * The linear notations of a folding graph.
+     */
+    public static class FoldingGraphNotations {
+
+        public final int graphType;
+        public final int fgNumber;
+        public final String adj;
+        public final String seq;
+        public final String red;
+
+        /**
+         * Creates the notations of a folding graph without a RED notation.
+         * @param graphType the graph type code of the parent graph
+         * @param fgNumber the number of the folding graph in the parent graph
+         * @param adj the ADJ notation
+         * @param seq the SEQ notation
+         */
+        public FoldingGraphNotations(int graphType, int fgNumber, String adj, String seq) {
+            this(graphType, fgNumber, adj, seq, null);
+        }
+
+        /**
+         * Creates the notations of a folding graph.
+         * @param graphType the graph type code of the parent graph
+         * @param fgNumber the number of the folding graph in the parent graph
+         * @param adj the ADJ notation
+         * @param seq the SEQ notation
+         * @param red the RED notation
+         */
+        public FoldingGraphNotations(int graphType, int fgNumber, String adj, String seq, String red) {
+            this.graphType = graphType;
+            this.fgNumber = fgNumber;
+            this.adj = adj;
+            this.seq = seq;
+            this.red = red;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package motifs;
+
+import java.util.ArrayList;
+
+/**
+ * The adjacency matrix of a folding graph parsed from its RED or ADJ linear notation, stored as one byte per cell in a single array.
+ * The cells hold the relative orientation of the edge between two SSEs (mixed, parallel, antiparallel) or NONE. The boxed
+ * ArrayList&lt;ArrayList&lt;Character&gt;&gt; matrices of DBManager.parseRedOrAdjToMatrix() need about 20 times the memory and are slow to compare.
+ */
+public class NotationMatrix {
+
+    /** The number of different cell values. */
+    public static final int NUM_CELL_VALUES = 4;
+
+    public static final byte NONE = 0;
+    public static final byte MIXED = 1;
+    public static final byte PARALLEL = 2;
+    public static final byte ANTIPARALLEL = 3;
+
+    private static final char[] CELL_CHARS = { 'x', 'm', 'p', 'a' };
+
+    private final int size;
+    private final byte[] cells;     // row by row
+
+
+    /**
+     * Creates a matrix without edges.
+     * @param size the number of vertices
+     */
+    public NotationMatrix(int size) {
+        this.size = size;
+        this.cells = new byte[size * size];
+    }
+
+
+    /**
+     * Returns the number of vertices, i.e., the number of rows and columns.
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Returns a cell.
+     * @param row the row
+     * @param col the column
+     * @return the cell value, e.g., ANTIPARALLEL
+     */
+    public byte get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+
+    /**
+     * Sets a cell and the symmetric cell.
+     * @param i a vertex
+     * @param j another vertex
+     * @param value the cell value
+     */
+    void setEdge(int i, int j, byte value) {
+        cells[i * size + j] = value;
+        cells[j * size + i] = value;
+    }
+
+
+    /**
+     * Parses the RED or ADJ linear notation of a folding graph. This is the parser of DBManager.parseRedOrAdjToMatrix(), which returns
+     * the result of this method as characters.
+     * @param ln the linear notation, e.g., "[1a,-1a,2p]"
+     * @param graphtype the graph type of the notation, "alpha", "beta" or "albe". The SSE types are only part of albe notations.
+     * @return the matrix, of size 0 for an empty notation
+     */
+    public static NotationMatrix parse(String ln, String graphtype) {
+        //do nothing, if linear notation is empty ( {}, [], () )
+        if(ln.length() <= 2) {
+            return new NotationMatrix(0);
+        }
+        //only one vertex, that is not adjacent to itself ( [e], [h] )
+        if(ln.length() == 3) {
+            return new NotationMatrix(1);
+        }
+
+        ln = ln.replace("{", "").replace("}", "").replace("(", "").replace(")", "").replace("[", "").replace("]", "");
+        String[] linnot = ln.split(",");
+
+        // alpha and beta notations contain the relative distance and the edge type, e.g. "-1p", albe ones also the SSE type, e.g. "-1pe".
+        // The first element of an albe notation only holds the SSE type of the first vertex, e.g. "e".
+        boolean withSSETypes = ! ("alpha".equals(graphtype) || "beta".equals(graphtype));
+        int suffixLength = withSSETypes ? 2 : 1;
+        int first = withSSETypes ? 1 : 0;
+
+        int numEdges = linnot.length - first;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] type = new int[numEdges];
+
+        int origin = 0;
+        int minVal = 0;
+        int maxVal = 0;
+        int edgeType = 0;       // an unknown edge type keeps the one of the previous edge
+        for(int e = 0; e < numEdges; e++) {
+            String elem = linnot[first + e];
+            from[e] = origin;
+            to[e] = origin + Integer.parseInt(elem.substring(0, elem.length() - suffixLength));
+            origin = to[e];
+
+            switch(elem.charAt(elem.length() - suffixLength)) {
+                case 'm':
+                    edgeType = 0;
+                    break;
+                case 'p':
+                    edgeType = 1;
+                    break;
+                case 'a':
+                    edgeType = 2;
+                    break;
+                case 'z':
+                    edgeType = 3;
+                    break;
+                default:
+                    break;
+            }
+            type[e] = edgeType;
+
+            maxVal = Math.max(maxVal, to[e]);
+            minVal = Math.min(minVal, to[e]);
+        }
+
+        NotationMatrix m = new NotationMatrix((maxVal - minVal) + 1);
+        int shift = Math.abs(minVal);
+        for(int e = 0; e < numEdges; e++) {
+            // edge type z (out of the plane) is not part of the matrix
+            if(type[e] != 3) {
+                m.setEdge(from[e] + shift, to[e] + shift, (byte) (type[e] + 1));
+            }
+        }
+        return m;
+    }
+
+
+    /**
+     * Converts a matrix of characters ('x', 'm', 'p', 'a') like DBManager.parseRedOrAdjToMatrix() returns it. Other characters are stored as NONE.
+     * @param matrix the matrix, must be square
+     * @return the matrix
+     */
+    public static NotationMatrix fromCharMatrix(ArrayList<ArrayList<Character>> matrix) {
+        NotationMatrix m = new NotationMatrix(matrix.size());
+        for(int i = 0; i < m.size; i++) {
+            for(int j = 0; j < m.size; j++) {
+                m.cells[i * m.size + j] = cellValue(matrix.get(i).get(j));
+            }
+        }
+        return m;
+    }
+
+
+    /**
+     * Converts the matrix to characters ('x', 'm', 'p', 'a'), the format of DBManager.parseRedOrAdjToMatrix().
+     * @return the matrix
+     */
+    public ArrayList<ArrayList<Character>> toCharMatrix() {
+        ArrayList<ArrayList<Character>> matrix = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            ArrayList<Character> row = new ArrayList<>(size);
+            for(int j = 0; j < size; j++) {
+                row.add(CELL_CHARS[get(i, j)]);
+            }
+            matrix.add(row);
+        }
+        return matrix;
+    }
+
+
+    /**
+     * Returns the cell value of a character.
+     * @param c the character, 'x', 'm', 'p' or 'a'
+     * @return the value, NONE for unknown characters
+     */
+    private static byte cellValue(Character c) {
+        for(byte v = 0; v < CELL_CHARS.length; v++) {
+            if(c != null && CELL_CHARS[v] == c) {
+                return v;
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package motifs;
+
+import io.DBManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import tools.DP;
+
+/**
+ * The adjacency matrices of the RED notations of all folding graphs of a graph type in the database, for searching many sub-topologies.
+ * DBManager.matrixSearchDB() reads all notations from the database for each search. The index reads them once into compact matrices
+ * (see NotationMatrix), after which each search only scans the matrices in memory, in parallel, so users can search interactively.
+ */
+public class TopologySearchIndex {
+
+    /** The number of rows read from the database at once while loading. */
+    private static final int LOAD_FETCH_SIZE = 10000;
+
+    private final String graphType;
+    private final List<String> pdbIds = new ArrayList<>();
+    private final List<String> chainNames = new ArrayList<>();
+    private final List<Integer> numSSEs = new ArrayList<>();
+    private final List<NotationMatrix> matrices = new ArrayList<>();
+
+
+    /**
+     * Creates an empty index.
+     * @param graphType the graph type of the folding graphs ("alpha", "beta" or "albe")
+     */
+    private TopologySearchIndex(String graphType) {
+        this.graphType = graphType;
+    }
+
+
+    /**
+     * Reads the RED notations of all folding graphs of a graph type from the database. Folding graphs with less than 2 SSEs are skipped,
+     * like matrixSearchDB() does.
+     * @param graphType the graph type of the folding graphs ("alpha", "beta" or "albe")
+     * @return the index, or null if the notations could not be read
+     */
+    public static TopologySearchIndex load(String graphType) {
+        TopologySearchIndex index = new TopologySearchIndex(graphType);
+        Boolean ok = DBManager.forEachFoldingGraphRedNotation(graphType, LOAD_FETCH_SIZE, row -> {
+            int numSSEs = Integer.parseInt(row[3]);
+            if(numSSEs > 1) {
+                index.pdbIds.add(row[0]);
+                index.chainNames.add(row[1]);
+                index.numSSEs.add(numSSEs);
+                index.matrices.add(NotationMatrix.parse(row[2], graphType));
+            }
+        });
+        if( ! ok) {
+            DP.getInstance().e("TopologySearchIndex", "Could not read the linear notations of the " + graphType + " folding graphs.");
+            return null;
+        }
+        return index;
+    }
+
+
+    /**
+     * Returns the graph type of the folding graphs in the index.
+     * @return the graph type, e.g., "beta"
+     */
+    public String getGraphType() {
+        return graphType;
+    }
+
+
+    /**
+     * Returns the number of folding graphs in the index.
+     * @return the number of folding graphs
+     */
+    public int size() {
+        return matrices.size();
+    }
+
+
+    /**
+     * Searches a sub-topology in all folding graphs of the index, like matrixSearchDB().
+     * @param linnot the RED or ADJ notation of the sub-topology, of the graph type of the index
+     * @return the proteins [PDBID, chain name] of all folding graphs in which the sub-topology was found, in the order of the database
+     * @throws IllegalArgumentException if the notation can not be parsed
+     */
+    public ArrayList<ArrayList<String>> search(String linnot) {
+        MatrixPatternMatcher pattern;
+        try {
+            pattern = MatrixPatternMatcher.compile(NotationMatrix.parse(linnot, graphType));
+        } catch(RuntimeException e) {
+            throw new IllegalArgumentException("Invalid linear notation '" + linnot + "': " + e.getMessage(), e);
+        }
+
+        return IntStream.range(0, matrices.size()).parallel()
+                .filter(i -> pattern.getPatternSize() <= numSSEs.get(i) && pattern.occursIn(matrices.get(i)))
+                .mapToObj(i -> new ArrayList<>(Arrays.asList(pdbIds.get(i), chainNames.get(i))))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
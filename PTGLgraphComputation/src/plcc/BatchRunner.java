@@ -0,0 +1,372 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package plcc;
+
+import io.DBManager;
+import io.StructureParser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import settings.Settings;
+import tools.ExitError;
+
+/**
+ * Batch mode: processes a list of PDB entries in a single JVM, so the JVM startup, class loading, settings init and JIT warm-up are
+ * paid only once. Started by 'java -jar PTGLgraphComputation.jar --batch <listfile> [BATCH OPTIONS] [OPTIONS]', where OPTIONS are the
+ * usual command line options which are used for every entry.
+ *
+ * Each line of the list file is '<pdbid> [<pdbfile> <dsspfile>]', empty lines and lines starting with '#' are ignored. The entries are
+ * processed by a pool of --batch-workers (or setting PTGLgraphComputation_I_batch_workers) threads. Each entry writes its output to its
+ * own log file, and its status (OK or FAILED with the exit status or exception) is appended to a manifest file as soon as it is done.
+ * Entries which are listed as OK in an existing manifest are skipped, so an interrupted batch can simply be restarted.
+ *
+ * A failing entry does not affect the others: the computation ends with an ExitError instead of System.exit(), which only ends the
+ * entry, and exceptions are caught per entry. Each entry is parsed into its own StructureParser. Main.computeEntry() keeps its other state
+ * (settings, results, DB connection) in static fields, so it runs for one entry at a time under a lock, and Main.resetEntryState() is
+ * called after each entry. The workers check the input files and do the logging and book keeping outside of the lock. Within an entry,
+ * the contacts and graphs are computed by several threads, see the settings 'PTGLgraphComputation_B_contact_parallel' and
+ * 'PTGLgraphComputation_B_graph_parallel'.
+ *
+ * The DB connections are kept open for the whole batch. With the setting 'PTGLgraphComputation_B_db_write_behind', an entry ends by
+ * handing its DB transaction to a writer thread (see ProteinEntryDBWriter.commitInBackground()), and its worker waits for the commit
+ * outside of the lock. So the next entry is parsed and its contacts are computed while the last one is written to the DB. Its own
+ * transaction begins when that is done.
+ */
+public class BatchRunner {
+
+    static final String MANIFEST_STATUS_OK = "OK";
+    static final String MANIFEST_STATUS_FAILED = "FAILED";
+    static final String MANIFEST_STATUS_MISSING_INPUT = "MISSING_INPUT";
+
+    /** Lock for Main.computeEntry(), which uses static state. */
+    private static final Object PIPELINE_LOCK = new Object();
+
+    /** The log of the batch entry of the current thread, null outside of entries. Inherited by threads started during the entry, e.g., for parallel contact computation. */
+    private static final InheritableThreadLocal<PrintStream> entryLog = new InheritableThreadLocal<>();
+
+    private final List<String[]> entries;
+    private final String[] commonArgs;
+    private final int numWorkers;
+    private final File manifestFile;
+    private final File logDir;
+    private PrintWriter manifest;
+    private int numOk = 0;
+    private int numFailed = 0;
+
+
+    /**
+     * Output stream which writes to the log of the batch entry of the current thread, or to the original stream outside of entries.
+     */
+    private static class EntryLogOutputStream extends OutputStream {
+
+        private final PrintStream original;
+
+        EntryLogOutputStream(PrintStream original) {
+            this.original = original;
+        }
+
+        private OutputStream target() {
+            PrintStream log = entryLog.get();
+            return (log != null ? log : original);
+        }
+
+        @Override public void write(int b) throws IOException { target().write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { target().write(b, off, len); }
+        @Override public void flush() throws IOException { target().flush(); }
+    }
+
+
+    private BatchRunner(List<String[]> entries, String[] commonArgs, int numWorkers, File manifestFile, File logDir) {
+        this.entries = entries;
+        this.commonArgs = commonArgs;
+        this.numWorkers = numWorkers;
+        this.manifestFile = manifestFile;
+        this.logDir = logDir;
+    }
+
+
+    /**
+     * Runs the batch mode.
+     * @param args the command line arguments following '--batch'
+     * @return the exit status for the JVM: 0 if all entries were OK, 1 if some failed, 2 on invalid arguments
+     */
+    public static int run(String[] args) {
+        if (args.length < 1) {
+            usage();
+            return 2;
+        }
+
+        Settings.init();
+        int numWorkers = Settings.getInteger("PTGLgraphComputation_I_batch_workers");
+        File listFile = new File(args[0]);
+        File manifestFile = new File(args[0] + ".manifest");
+        File logDir = null;
+
+        ArrayList<String> commonArgs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--batch-workers") && i + 1 < args.length) {
+                try {
+                    numWorkers = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("ERROR: Batch: Invalid number of workers '" + args[i] + "'.");
+                    return 2;
+                }
+            } else if (args[i].equals("--batch-manifest") && i + 1 < args.length) {
+                manifestFile = new File(args[++i]);
+            } else if (args[i].equals("--batch-logdir") && i + 1 < args.length) {
+                logDir = new File(args[++i]);
+            } else {
+                commonArgs.add(args[i]);
+            }
+        }
+        if (numWorkers <= 0) {
+            numWorkers = Runtime.getRuntime().availableProcessors();
+        }
+        if (logDir == null) {
+            logDir = (manifestFile.getAbsoluteFile().getParentFile() != null ? manifestFile.getAbsoluteFile().getParentFile() : new File("."));
+        }
+        if ( ! logDir.isDirectory() && ! logDir.mkdirs()) {
+            System.err.println("ERROR: Batch: Could not create log directory '" + logDir + "'.");
+            return 2;
+        }
+
+        List<String[]> entries;
+        try {
+            entries = readEntries(listFile);
+        } catch (IOException e) {
+            System.err.println("ERROR: Batch: Could not read entry list file '" + listFile + "': " + e.getMessage());
+            return 2;
+        }
+
+        BatchRunner runner = new BatchRunner(entries, commonArgs.toArray(new String[0]), numWorkers, manifestFile, logDir);
+        return runner.runEntries();
+    }
+
+
+    /**
+     * Reads the entries from the list file.
+     * @param listFile the list file, see class description for the format
+     * @return the entries, each an array of the PDB ID and optionally the PDB and DSSP file
+     * @throws IOException if the file can not be read
+     */
+    static List<String[]> readEntries(File listFile) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(listFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length != 1 && fields.length != 3) {
+                    System.err.println("WARNING: Batch: Ignoring invalid entry line '" + line + "', expected '<pdbid> [<pdbfile> <dsspfile>]'.");
+                    continue;
+                }
+                entries.add(fields);
+            }
+        }
+        return entries;
+    }
+
+
+    /**
+     * Reads the PDB IDs of the entries which are listed as OK in an existing manifest file.
+     * @return the PDB IDs, empty if there is no manifest yet
+     */
+    private Set<String> readDoneEntries() {
+        Set<String> done = new HashSet<>();
+        if ( ! manifestFile.isFile()) {
+            return done;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(manifestFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length > 1 && fields[1].equals(MANIFEST_STATUS_OK)) {
+                    done.add(fields[0]);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("WARNING: Batch: Could not read existing manifest file '" + manifestFile + "', processing all entries: " + e.getMessage());
+        }
+        return done;
+    }
+
+
+    private int runEntries() {
+        Set<String> done = readDoneEntries();
+        boolean newManifest = ! manifestFile.isFile();
+        try {
+            manifest = new PrintWriter(new FileWriter(manifestFile, true));
+        } catch (IOException e) {
+            System.err.println("ERROR: Batch: Could not open manifest file '" + manifestFile + "': " + e.getMessage());
+            return 2;
+        }
+        if (newManifest) {
+            manifest.println("# pdbid\tstatus\texit_status\truntime_ms\tlog_file\tmessage");
+            manifest.flush();
+        }
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        System.setOut(new PrintStream(new EntryLogOutputStream(originalOut), true));
+        System.setErr(new PrintStream(new EntryLogOutputStream(originalErr), true));
+
+        long startTime = System.currentTimeMillis();
+        int numSkipped = 0;
+        DBManager.setKeepConnectionsOpen(true);
+        ExecutorService pool = Executors.newFixedThreadPool(numWorkers);
+        try {
+            for (final String[] entry : entries) {
+                if (done.contains(entry[0])) {
+                    numSkipped++;
+                    continue;
+                }
+                pool.execute(() -> runEntry(entry));
+            }
+            pool.shutdown();
+            while ( ! pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                // wait for all entries
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            // waits for the DB writer threads and closes the connections
+            DBManager.setKeepConnectionsOpen(false);
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            synchronized (this) {
+                manifest.close();
+            }
+        }
+
+        System.out.println("Batch: Processed " + (numOk + numFailed) + " entries with " + numWorkers + " workers in " + (System.currentTimeMillis() - startTime) / 1000
+                + " seconds: " + numOk + " OK, " + numFailed + " failed, " + numSkipped + " skipped (OK in manifest '" + manifestFile + "').");
+        return (numFailed > 0 ? 1 : 0);
+    }
+
+
+    /**
+     * Processes a single entry in the current worker thread and writes its status to the manifest.
+     * @param entry the PDB ID and optionally the PDB and DSSP file
+     */
+    private void runEntry(String[] entry) {
+        String pdbid = entry[0];
+        File logFile = new File(logDir, pdbid + ".log");
+        long startTime = System.currentTimeMillis();
+
+        if (entry.length == 3) {
+            for (int i = 1; i < 3; i++) {
+                if ( ! new File(entry[i]).canRead()) {
+                    writeManifestLine(pdbid, MANIFEST_STATUS_MISSING_INPUT, 1, 0, "", "Input file '" + entry[i] + "' not found or not readable.");
+                    return;
+                }
+            }
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(pdbid);
+        if (entry.length == 3) {
+            args.add("-p");
+            args.add(entry[1]);
+            args.add("-d");
+            args.add(entry[2]);
+        }
+        for (String arg : commonArgs) {
+            args.add(arg);
+        }
+
+        int status = 0;
+        String message = "";
+        Future<Boolean> dbCommit = null;
+        try (PrintStream log = new PrintStream(new FileOutputStream(logFile), true)) {
+            entryLog.set(log);
+            try {
+                synchronized (PIPELINE_LOCK) {
+                    try {
+                        new StructureParser().run(() -> Main.computeEntry(args.toArray(new String[0])));
+                    } finally {
+                        dbCommit = Main.entryDBCommit;
+                        Main.resetEntryState();
+                    }
+                }
+            } catch (ExitError e) {
+                status = e.getStatus();
+            } catch (Throwable t) {
+                status = 1;
+                message = t.toString();
+                t.printStackTrace(log);
+            }
+            try {
+                // the writer thread logs to the log of the entry, so it must be done before the log is closed
+                if (dbCommit != null && ! dbCommit.get() && status == 0) {
+                    status = 1;
+                    message = "The results could not be written to the database, see log file.";
+                }
+            } catch (ExecutionException e) {
+                status = 1;
+                message = "The DB writer thread failed: " + e.getCause();
+                e.getCause().printStackTrace(log);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = 1;
+                message = "Interrupted while waiting for the DB writer thread.";
+            } finally {
+                entryLog.remove();
+            }
+        } catch (IOException e) {
+            status = 1;
+            message = "Could not write log file '" + logFile + "': " + e.getMessage();
+        }
+
+        if (status != 0 && message.isEmpty()) {
+            message = "Exited with status " + status + ", see log file.";
+        }
+        writeManifestLine(pdbid, (status == 0 ? MANIFEST_STATUS_OK : MANIFEST_STATUS_FAILED), status, System.currentTimeMillis() - startTime, logFile.getPath(), message);
+    }
+
+
+    private synchronized void writeManifestLine(String pdbid, String status, int exitStatus, long runtime, String logFile, String message) {
+        if (status.equals(MANIFEST_STATUS_OK)) {
+            numOk++;
+        } else {
+            numFailed++;
+        }
+        manifest.println(pdbid + "\t" + status + "\t" + exitStatus + "\t" + runtime + "\t" + logFile + "\t" + message.replace('\t', ' ').replace('\n', ' '));
+        manifest.flush();
+    }
+
+
+    /**
+     * Prints usage info for the batch mode to STDOUT.
+     */
+    static void usage() {
+        System.out.println("USAGE: java -jar PTGLgraphComputation.jar --batch <listfile> [BATCH OPTIONS] [OPTIONS]");
+        System.out.println("  Processes all entries of <listfile> in this JVM with the given OPTIONS. Each line of <listfile> is '<pdbid> [<pdbfile> <dsspfile>]'.");
+        System.out.println("  BATCH OPTIONS are:");
+        System.out.println("   --batch-workers <n>     : handle the entries with <n> worker threads, which compute one entry at a time (default: setting 'PTGLgraphComputation_I_batch_workers', 0 for all processors)");
+        System.out.println("   --batch-manifest <f>    : write the status of each entry to manifest file <f> (default: '<listfile>.manifest'). Entries listed as OK in it are skipped.");
+        System.out.println("   --batch-logdir <d>      : write the log of each entry to '<d>/<pdbid>.log' (default: directory of the manifest file)");
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package plcc;
+
+import graphdrawing.DrawTools.IMAGEFORMAT;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import proteingraphs.ContactMatrix;
+import proteingraphs.MolContactInfo;
+import proteinstructure.Chain;
+import proteinstructure.SSE;
+import resultcontainers.ProteinChainResults;
+
+/**
+ * The SSE contact matrices of all requested graph types of a chain, see Main.calculateSSEGraphsForChains(). With an executor, one task per
+ * graph type is submitted when the chain is prepared, so the contacts of all chains and graph types are computed in parallel while the
+ * results are collected in chain and graph type order by the calling thread. Without an executor, each matrix is computed when it is collected.
+ *
+ * Each task creates its own ContactMatrix and only hands it to the collecting thread when it is done. The tasks only read the SSEs and residue
+ * contacts of the chain. The protein graph is created from the matrix by the collecting thread, because that assigns the graph indices of the
+ * SSEs, which are shared by the graphs of all graph types.
+ *
+ * Drawing the protein graph images takes most of the time of the graph computation, so the executor also draws them, see drawImage(). The
+ * drawing only reads the graph and writes its own files. The other output (text formats, Jmol commands, folding graphs) stays on the
+ * collecting thread, because it reads the graph indices of the SSEs or writes to the DB.
+ */
+class ChainGraphs {
+
+    final Chain chain;
+    final ProteinChainResults results;
+    final Map<String, String> metaData;
+    final List<String> graphTypes;
+    private final Map<String, Callable<ContactMatrix>> computations = new HashMap<>();
+    private final Map<String, Future<ContactMatrix>> tasks = new HashMap<>();
+    private final ExecutorService workers;
+    private final List<Future<Map<IMAGEFORMAT, String>>> drawings = new ArrayList<>();
+    private final List<Consumer<Map<IMAGEFORMAT, String>>> drawingHandlers = new ArrayList<>();
+
+
+    /**
+     * Prepares the graphs of a chain and submits their tasks.
+     * @param chain the chain
+     * @param results the results of the chain, the graphs are added when they are collected
+     * @param metaData the PDB meta data of the chain, see FileParser.getMetaData()
+     * @param graphTypes the graph types to compute, in collection order
+     * @param allChainSSEs all SSEs of the chain
+     * @param resContacts the residue contacts
+     * @param pdbid the PDB ID of the protein
+     * @param workers the executor which computes the graphs, or null to compute them when they are collected
+     */
+    ChainGraphs(Chain chain, ProteinChainResults results, Map<String, String> metaData, List<String> graphTypes, List<SSE> allChainSSEs, List<MolContactInfo> resContacts, String pdbid, ExecutorService workers) {
+        this.chain = chain;
+        this.results = results;
+        this.metaData = metaData;
+        this.graphTypes = graphTypes;
+        this.workers = workers;
+        for(String gt : graphTypes) {
+            Callable<ContactMatrix> computation = () -> Main.computeGraphTypeContacts(gt, allChainSSEs, chain, resContacts, pdbid);
+            if(workers != null) {
+                tasks.put(gt, workers.submit(computation));
+            } else {
+                computations.put(gt, computation);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the SSE contact matrix of a graph type, waiting for its task if required. Errors of the task are thrown again by the calling thread.
+     * @param graphType the graph type
+     * @return the contact matrix, see Main.contactsToProtGraph()
+     */
+    ContactMatrix collect(String graphType) {
+        Future<ContactMatrix> task = tasks.remove(graphType);
+        if(task == null) {
+            FutureTask<ContactMatrix> computation = new FutureTask<>(computations.remove(graphType));
+            computation.run();
+            task = computation;
+        }
+        return await(task, "the " + graphType + " graph");
+    }
+
+
+    /**
+     * Draws the image of a protein graph of this chain. With an executor, a worker draws it and the handler gets the result in
+     * finishImages(), so the collecting thread can go on with the next graph. Without one, it is drawn and handled right away.
+     * @param graphType the graph type, used in error messages
+     * @param drawing draws the image files, it must not change the graph or its SSEs
+     * @param handler gets the written files by format, runs on the collecting thread, e.g., to add them to the results and the DB
+     */
+    void drawImage(String graphType, Callable<Map<IMAGEFORMAT, String>> drawing, Consumer<Map<IMAGEFORMAT, String>> handler) {
+        if(workers != null) {
+            drawings.add(workers.submit(drawing));
+            drawingHandlers.add(handler);
+        } else {
+            FutureTask<Map<IMAGEFORMAT, String>> task = new FutureTask<>(drawing);
+            task.run();
+            handler.accept(await(task, "the image of the " + graphType + " graph"));
+        }
+    }
+
+
+    /**
+     * Waits for the images drawn by the workers and passes them to their handlers, in the order they were submitted.
+     */
+    void finishImages() {
+        for(int i = 0; i < drawings.size(); i++) {
+            drawingHandlers.get(i).accept(await(drawings.get(i), "an image of a graph"));
+        }
+        drawings.clear();
+        drawingHandlers.clear();
+    }
+
+
+    /**
+     * Returns the result of a task, waiting for it if required. Errors of the task are thrown again by the calling thread.
+     * @param task the task
+     * @param what what the task computes, used in error messages
+     * @return the result
+     */
+    private <T> T await(Future<T> task, String what) {
+        try {
+            return task.get();
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Computing " + what + " of chain " + chain.getPdbChainID() + " failed.", cause);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + what + " of chain " + chain.getPdbChainID() + ".", e);
+        }
+    }
+}
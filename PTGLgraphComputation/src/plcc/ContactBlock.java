@@ -0,0 +1,198 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package plcc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import proteingraphs.ContactTable;
+import proteingraphs.MolContactInfo;
+import proteinstructure.ContactCellGrid;
+import proteinstructure.Molecule;
+
+/**
+ * A block of residue pairs for atom contact computation: all pairs of a residue of the outer list with a residue of the inner list.
+ * The pairs of one outer residue form a row. Rows are independent of each other (the sequence neighbor skip only affects
+ * the row it happens in), so they may be computed in any order or in parallel, as long as the results are collected in row order.
+ */
+class ContactBlock {
+
+    /** No sequence neighbor skip, every pair of the row is checked. */
+    static final int SKIP_NONE = 0;
+    /** Sequence neighbor skip as in Main.calculateAllContactsChainSphereSpeedup(), using a chain specific max sequence neighbor distance. */
+    static final int SKIP_CHAIN = 1;
+    /** Sequence neighbor skip as in Main.calculateAllContacts(), using the global max sequence neighbor distance. */
+    static final int SKIP_GLOBAL = 2;
+
+    final List<? extends Molecule> outer;
+    final List<? extends Molecule> inner;
+    final boolean sameList;                 // if true, outer and inner are the same list and only pairs (i, j) with j > i are handled
+    final int skipMode;
+    final int maxSeqNeighborDist;           // only used for SKIP_CHAIN
+    final boolean ignoreLigands;            // whether to drop contacts involving a ligand
+    final boolean alternativeModel;         // whether to use the alternative contact model (which only considers pairs from different chains)
+
+    private IdentityHashMap<Molecule, Integer> innerPositions = null;
+
+
+    /**
+     * Creates a block of residue pairs using the default contact model.
+     * @param outer the residues of the outer loop
+     * @param inner the residues of the inner loop
+     * @param sameList whether outer and inner are the same list, only pairs (i, j) with j > i are handled then
+     * @param skipMode one of SKIP_NONE, SKIP_CHAIN or SKIP_GLOBAL
+     * @param maxSeqNeighborDist the max sequence neighbor distance used for SKIP_CHAIN, ignored otherwise
+     * @param ignoreLigands whether to drop contacts which involve a ligand
+     */
+    ContactBlock(List<? extends Molecule> outer, List<? extends Molecule> inner, boolean sameList, int skipMode, int maxSeqNeighborDist, boolean ignoreLigands) {
+        this(outer, inner, sameList, skipMode, maxSeqNeighborDist, ignoreLigands, false);
+    }
+
+
+    private ContactBlock(List<? extends Molecule> outer, List<? extends Molecule> inner, boolean sameList, int skipMode, int maxSeqNeighborDist, boolean ignoreLigands, boolean alternativeModel) {
+        this.outer = outer;
+        this.inner = inner;
+        this.sameList = sameList;
+        this.skipMode = skipMode;
+        this.maxSeqNeighborDist = maxSeqNeighborDist;
+        this.ignoreLigands = ignoreLigands;
+        this.alternativeModel = alternativeModel;
+    }
+
+
+    /**
+     * Creates a block for the alternative contact model, as used by Main.calculateAllContactsAlternativeModel().
+     * @param mols the residues
+     * @return the block of all pairs (i, j) with j > i of mols
+     */
+    static ContactBlock alternativeModelBlock(List<? extends Molecule> mols) {
+        return new ContactBlock(mols, mols, true, SKIP_NONE, 0, false, true);
+    }
+
+
+    /**
+     * Returns the number of rows of this block, i.e., the number of outer residues.
+     * @return the number of rows
+     */
+    int getNumRows() {
+        return outer.size();
+    }
+
+
+    /**
+     * Prepares this block for the use with a cell grid. Needs to be called before computeRow() is called with a grid, and before
+     * the block is shared between threads.
+     */
+    void prepareForGrid() {
+        if(innerPositions == null) {
+            innerPositions = new IdentityHashMap<>(inner.size());
+            for (int j = 0; j < inner.size(); j++) {
+                innerPositions.put(inner.get(j), j);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the number of contact types of the contacts of this block.
+     * @return Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL for the alternative contact model, Main.NUM_MOLECULE_PAIR_CONTACT_TYPES otherwise
+     */
+    int getNumContactTypes() {
+        return (alternativeModel ? Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL : Main.NUM_MOLECULE_PAIR_CONTACT_TYPES);
+    }
+
+
+    /**
+     * Computes the atom contacts of the given row, i.e., of the pairs of outer residue i with the inner residues. If a cell grid is
+     * given, only the pairs reported by it are checked and no sequence neighbor skip happens, so all contacts of the row are found.
+     * Without a grid, the skip of the block may miss contacts: it assumes that the next inner residues are sequence neighbors, which
+     * does not hold where the inner list crosses the end of a chain or a ligand. SKIP_GLOBAL on a list of all residues does this.
+     * @param i the row, i.e., the index of the outer residue
+     * @param grid a cell grid containing all inner residues, or null to loop over all inner residues
+     * @param contacts the table the contacts of the row are added to, in the order of the inner residues
+     */
+    void computeRow(int i, ContactCellGrid grid, ContactTable contacts) {
+        Molecule a = outer.get(i);
+
+        if(grid != null) {
+            ArrayList<Molecule> candidates = grid.getCandidates(a);
+            int[] positions = new int[candidates.size()];
+            int numPositions = 0;
+            for (Molecule c : candidates) {
+                Integer pos = innerPositions.get(c);
+                if (pos != null && ( ! sameList || pos > i)) {
+                    positions[numPositions++] = pos;
+                }
+            }
+            Arrays.sort(positions, 0, numPositions);
+
+            for (int p = 0; p < numPositions; p++) {
+                checkPair(a, inner.get(positions[p]), contacts);
+            }
+        }
+        else {
+            for (int j = (sameList ? i + 1 : 0); j < inner.size(); j++) {
+                Molecule b = inner.get(j);
+                if ( ! checkPair(a, b, contacts)) {
+                    j += numResToSkip(a, b, j);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Checks a single residue pair and adds its contact to the list, if any.
+     * @return whether a contact between the pair was possible according to the center spheres
+     */
+    private boolean checkPair(Molecule a, Molecule b, ContactTable contacts) {
+        MolContactInfo rci;
+
+        if(alternativeModel) {
+            if(a.getChainID().equals(b.getChainID())) {
+                return true;
+            }
+            if(a.contactPossibleWithMolecule(b)) {
+                rci = Main.calculateAtomContactsBetweenResiduesAlternativeModel(a, b);
+                if(rci != null) {
+                    contacts.addContact(rci);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        if(a.contactPossibleWithMolecule(b)) {
+            if(ignoreLigands && (a.isLigand() || b.isLigand())) {
+                // still computed for the atom contact statistics
+                Main.calculateAtomContactsBetweenResidues(a, b);
+            } else {
+                Main.addAtomContactsBetweenResidues(a, b, contacts);
+            }
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Determines how many of the following inner residues can be skipped after residue pair (a, b) turned out to be out of contact.
+     * @param j the current inner index
+     * @return the number of inner residues to skip
+     */
+    private long numResToSkip(Molecule a, Molecule b, int j) {
+        switch(skipMode) {
+            case SKIP_CHAIN:
+                return Main.calculateSkipNeighborNum(a, b, maxSeqNeighborDist, j, inner.size());
+            case SKIP_GLOBAL:
+                return Main.calculateGlobalSkipNeighborNum(a, b);
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package plcc;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import proteingraphs.ContactTable;
+import proteinstructure.ContactCellGrid;
+
+/**
+ * Fork/join task which computes the atom contacts of a range of rows of a list of contact blocks. The range is split until it is
+ * small enough, the partial results are concatenated in row order. So the result is the same as when computing all rows one after another.
+ */
+class ContactRowsTask extends RecursiveTask<ContactTable> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Number of rows below which a task is not split any further. */
+    static final int ROWS_PER_LEAF = 16;
+
+    private final List<ContactBlock> blocks;
+    private final int[] rowBlocks;          // block index of each row
+    private final int[] rowIndices;         // row index within its block of each row
+    private final int from;
+    private final int to;
+    private final ContactCellGrid grid;
+    private final int numContactTypes;
+    private final List<Integer[][][][]> allWorkerContactStats;
+
+
+    /**
+     * Creates a task for the rows [from, to) of the given flattened row list.
+     * @param blocks the contact blocks
+     * @param rowBlocks the block index of each row
+     * @param rowIndices the row index within its block of each row
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param grid the cell grid passed on to ContactBlock.computeRow(), may be null
+     * @param numContactTypes the number of contact types of the result table
+     * @param allWorkerContactStats the contact statistics arrays of the worker threads of this computation, see Main.initWorkerContactStatistics()
+     */
+    ContactRowsTask(List<ContactBlock> blocks, int[] rowBlocks, int[] rowIndices, int from, int to, ContactCellGrid grid, int numContactTypes, List<Integer[][][][]> allWorkerContactStats) {
+        this.blocks = blocks;
+        this.rowBlocks = rowBlocks;
+        this.rowIndices = rowIndices;
+        this.from = from;
+        this.to = to;
+        this.grid = grid;
+        this.numContactTypes = numContactTypes;
+        this.allWorkerContactStats = allWorkerContactStats;
+    }
+
+
+    @Override
+    protected ContactTable compute() {
+        if(to - from <= ROWS_PER_LEAF) {
+            Main.initWorkerContactStatistics(allWorkerContactStats);
+            ContactTable contacts = new ContactTable(numContactTypes);
+            for(int r = from; r < to; r++) {
+                blocks.get(rowBlocks[r]).computeRow(rowIndices[r], grid, contacts);
+            }
+            return contacts;
+        }
+
+        int mid = (from + to) >>> 1;
+        ContactRowsTask left = new ContactRowsTask(blocks, rowBlocks, rowIndices, from, mid, grid, numContactTypes, allWorkerContactStats);
+        ContactRowsTask right = new ContactRowsTask(blocks, rowBlocks, rowIndices, mid, to, grid, numContactTypes, allWorkerContactStats);
+        right.fork();
+        ContactTable contacts = left.compute();
+        contacts.append(right.join());
+        return contacts;
+    }
+}
@@ -20,9 +20,15 @@ import resultcontainers.ComplexGraphResult;
 import io.IO;
 import io.FileParser;
 import io.DBManager;
+import io.ProteinEntryDBWriter;
+import motifs.MatrixPatternMatcher;
+import motifs.MotifEngine;
+import motifs.NotationMatrix;
+import motifs.TopologySearchIndex;
 import proteinstructure.ProtMetaInfo;
 import proteingraphs.FoldingGraphComparator;
 import proteingraphs.MolContactInfo;
+import proteingraphs.ContactTable;
 import proteingraphs.ComplexGraph;
 import proteingraphs.ProtGraphs;
 import proteingraphs.SSEComparator;
@@ -37,8 +43,11 @@ import proteinstructure.Model;
 import proteinstructure.Residue;
 import proteinstructure.Ligand;
 import proteinstructure.Chain;
+import proteinstructure.ContactCellGrid;
 import proteinstructure.AminoAcid;
 import proteinstructure.Atom;
+import proteinstructure.AtomContactKernel;
+import proteinstructure.AtomCoordinateStore;
 import proteinstructure.Molecule;
 import proteinstructure.RNA;
 import proteinstructure.SSE;
@@ -46,6 +55,7 @@ import algorithms.GraphMetrics;
 import algorithms.GraphPropResults;
 import algorithms.GraphProperties;
 import algorithms.GraphRandomizer;
+import algorithms.GraphletCounts;
 import datastructures.AAGraph;
 import datastructures.AAInteractionNetwork;
 import datastructures.PPIGraph;
@@ -90,6 +100,10 @@ import graphdrawing.DrawTools.IMAGEFORMAT;
 import graphdrawing.DrawableGraph;
 import graphdrawing.IDrawableGraph;
 import graphdrawing.SimpleGraphDrawer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
 import parsers.GMLGraphParser;
@@ -98,6 +112,7 @@ import similarity.CompareOneToDB;
 import similarity.Similarity;
 import similarity.SimilarityByGraphlets;
 import tools.DP;
+import tools.ExitError;
 import tools.PiEffectCalculations;
 import tools.PlccUtilities;
 import tools.XMLContentHandlerPDBRepresentatives;
@@ -150,6 +165,12 @@ public class Main {
      * The contacts of a chainName. The 4 fields are: AA 1 index, AA 2 index, atom index in AA 1, atom index in chainName 2.
      */
     static Integer[][][][] contact;
+    
+    /** The contact statistics of the current worker thread during parallel contact computation, see getContactStatistics(). */
+    private static final ThreadLocal<Integer[][][][]> workerContactStats = new ThreadLocal<>();
+    
+    /** The per contact type arrays of calculateAtomContactsBetweenResidues() of the current thread: counts, min distances, atom indices in A and B. */
+    private static final ThreadLocal<int[][]> contactPairArrays = ThreadLocal.withInitial(() -> new int[4][NUM_MOLECULE_PAIR_CONTACT_TYPES]);
 
     static Integer globalMaxCenterSphereRadius;
 
@@ -167,6 +188,12 @@ public class Main {
      */
     static ArrayList<File> deleteFilesOnExit;
     
+    /** Writes the DB results of the current PDB entry in one transaction, see writeProteinDataToDatabase() and getEntryDBWriter(). */
+    static ProteinEntryDBWriter entryDBWriter = null;
+    
+    /** The commit of the DB results of the last PDB entry by a writer thread, see ProteinEntryDBWriter.commitInBackground(). Null if they were committed directly. */
+    static Future<Boolean> entryDBCommit = null;
+    
     /** Whether the PDB file name given on the command line is used. This is not the case for command lines which only operate on the database or which need no input file (e.g., --recreate-tables). */
     static Boolean useFileFromCommandline = true;
     
@@ -190,6 +217,25 @@ public class Main {
      * @param args the command line arguments
      */
     public static void main(String[] args) {
+        
+        if(args.length > 0 && args[0].equals("--batch")) {
+            System.exit(BatchRunner.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        
+        try {
+            computeEntry(args);
+        } catch(ExitError e) {
+            System.exit(e.getStatus());
+        }
+    }
+    
+    /**
+     * Runs PTGLgraphComputation for the given command line, i.e., usually computes the graphs of one PDB entry. Does not call System.exit(),
+     * it ends by throwing an ExitError with the exit status, also when done successfully. So the batch mode can use it for several entries
+     * in one JVM, see BatchRunner.
+     * @param args the command line arguments
+     */
+    static void computeEntry(String[] args) {
                 
         Date computationStartTime = new Date();
         StringBuilder outputToBePrintedUnlessSilent = new StringBuilder();
@@ -260,19 +306,9 @@ public class Main {
         String compareSSEContactsFile = "";                
 
 
-        ArrayList<MolContactInfo> cInfo;
+        List<MolContactInfo> cInfo;
         
-        // init contact statistics array
-        contact = new Integer[NUM_AAs][NUM_AAs][MAX_ATOMS_PER_AA][MAX_ATOMS_PER_AA];
-        for(Integer i = 0; i < NUM_AAs; i++) {
-            for(Integer j = 0; j < NUM_AAs; j++) {
-                for(Integer k = 0; k < MAX_ATOMS_PER_AA; k++) {
-                    for(Integer l = 0; l < MAX_ATOMS_PER_AA; l++) {
-                        contact[i][j][k][l] = 0;
-                    }
-                }
-            }
-        }
+        initContactStatistics();
 
         
         // ****************************************************    parse args    **********************************************************
@@ -288,7 +324,7 @@ public class Main {
                 }
                 argsUsed[0] = true;
                 checkArgsUsage(args, argsUsed);
-                System.exit(0);
+                throw new ExitError(0);
             }
 
             // get pdbid from first arg
@@ -321,7 +357,7 @@ public class Main {
                         usage();
                         argsUsed[i] = true;
                         checkArgsUsage(args, argsUsed);
-                        System.exit(0);
+                        throw new ExitError(0);
                     }
                     
                     
@@ -398,7 +434,7 @@ public class Main {
                             catch(Exception e) {
                                 System.err.println("ERROR: Could not extract input DSSP file in gz format at '" + dsspFilenameGZ + "'.");
                                 //System.err.println("ERROR: The message was '" + e.getMessage() + "'.");                                
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                             argsUsed[i] = true;
                             argsUsed[i+1] = true;
@@ -425,7 +461,7 @@ public class Main {
                             catch(Exception e) {
                                 System.err.println("ERROR: Could not extract input PDB file in gz format at '" + pdbFilenameGZ + "'.");
                                 //System.err.println("ERROR: The message was '" + e.getMessage() + "'.");
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                             argsUsed[i] = true;
                             argsUsed[i+1] = true;
@@ -439,6 +475,12 @@ public class Main {
                         argsUsed[i] = true;
                     }
                     
+                    if(s.equals("--reassign-motifs")) {
+                        useFileFromCommandline = false;
+                        Settings.set("PTGLgraphComputation_B_reassign_motifs_db", "true");
+                        argsUsed[i] = true;
+                    }
+                    
                     
                                         
                     if(s.equals("--convert-models-to-chains")) {
@@ -503,7 +545,7 @@ public class Main {
                         System.out.println("Tried to create PTGLgraphComputation config file at '" + Settings.getDefaultConfigFilePath() + "' (see above). Exiting.");
                         argsUsed[i] = true;
                         checkArgsUsage(args, argsUsed);
-                        System.exit(0);
+                        throw new ExitError(0);
                     }
                     
                     if(s.equals("-N") || s.equals("--no-warn")) {
@@ -612,6 +654,11 @@ public class Main {
                         argsUsed[i] = true;
                     }
                     
+                    if(s.equals("--compute-graphlets")) {
+                        Settings.set("PTGLgraphComputation_B_compute_graphlets", "true");
+                        argsUsed[i] = true;
+                    }
+                    
                     
                     if(s.equals("--set-pdb-representative-chains-pre")) {
                         useFileFromCommandline = false;
@@ -753,7 +800,7 @@ public class Main {
                             argsUsed[i] = true;
                             argsUsed[i+1] = true;
                             checkArgsUsage(args, argsUsed);
-                            System.exit(0);
+                            throw new ExitError(0);
                         }
                     }
                     
@@ -768,25 +815,25 @@ public class Main {
                                         System.out.println("Protein '" + pdbid + "' found in database (exiting with return code 0).");
                                     }
                                     checkArgsUsage(args, argsUsed);
-                                    System.exit(0);
+                                    throw new ExitError(0);
                                 }
                                 else {
                                     if( ! Settings.getBoolean("PTGLgraphComputation_B_silent")) {
                                         System.out.println("Protein '" + pdbid + "' NOT found in database (exiting with return code 1).");
                                     }
                                     checkArgsUsage(args, argsUsed);
-                                    System.exit(1);
+                                    throw new ExitError(1);
                                 }
                             } catch(Exception e) {
                                 System.err.println("ERROR: Checking for protein failed: '" + e.getMessage() + "' (exiting with return code 2)");
                                 checkArgsUsage(args, argsUsed);
-                                System.exit(2);
+                                throw new ExitError(2);
                             }
                         }
                         else {
                             System.err.println("ERROR: Could not check whether protein exists in database, connection failed (exiting with return code 2).");
                             checkArgsUsage(args, argsUsed);
-                            System.exit(2);
+                            throw new ExitError(2);
                         }
                     }
                     
@@ -813,11 +860,11 @@ public class Main {
                                 drawPlccGraphFromDB(a_pdbid, a_chain, a_gt, a_outFile + Settings.get("PTGLgraphComputation_S_img_output_fileext"), false);
                                 System.out.println("Handled " + a_gt + " graph of PDB entry " + a_pdbid + ", chain " + a_chain + ", exiting.");
                                 checkArgsUsage(args, argsUsed);
-                                System.exit(0);
+                                throw new ExitError(0);
                             }
                             else {
                                 checkArgsUsage(args, argsUsed);
-                                System.exit(1);
+                                throw new ExitError(1);
                             }                                                                                    
                         }
                     }
@@ -1216,7 +1263,7 @@ public class Main {
                             drawTGFGraph(args[i+1], args[i+1], formats, new HashMap<Integer, String>());
                             System.out.println("Done drawing TGF graph, exiting.");
                             checkArgsUsage(args, argsUsed);
-                            System.exit(1);
+                            throw new ExitError(1);
                         }
                     }
                     
@@ -1253,7 +1300,7 @@ public class Main {
                                 //System.out.println("Received GML string: " + gml);
                             } catch (Exception e) {
                                 DP.getInstance().e("Could not read GML graph file: " + e.getMessage());
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                             
                             Map<Integer, String> vertexMappings = new HashMap<>();
@@ -1267,7 +1314,7 @@ public class Main {
                                     vertexMappings = IO.parseMappingsFile(args[i+2]);
                                 } catch (Exception e) {
                                     DP.getInstance().e("Could not read vertex mappings file: " + e.getMessage());
-                                    System.exit(1);
+                                    throw new ExitError(1);
                                 }
                                 DP.getInstance().i("Received " + vertexMappings.keySet().size() + " vertex mappings.");
                             }                            
@@ -1401,7 +1448,7 @@ public class Main {
                                 DP.getInstance().i("Main", "Done drawing GML graph to base file '" + outFilePathNoExt + "', exiting.");
                             }                            
                             checkArgsUsage(args, argsUsed);
-                            System.exit(0);
+                            throw new ExitError(0);
                         }
                     }
                     
@@ -1416,7 +1463,7 @@ public class Main {
                             drawPlccGraphFromFile(args[i+1], args[i+1] + Settings.get("PTGLgraphComputation_S_img_output_fileext"), false);
                             System.out.println("Handled plcc graph file '" + args[i+1] + "', exiting.");
                             checkArgsUsage(args, argsUsed);
-                            System.exit(0);
+                            throw new ExitError(0);
                         }
                     }
                     
@@ -1433,7 +1480,7 @@ public class Main {
                             drawPlccGraphFromFile(args[i+1], args[i+1] + Settings.get("PTGLgraphComputation_S_img_output_fileext"), true);
                             System.out.println("Handled plcc graph file '" + args[i+1] + " and folding graphs', exiting.");
                             checkArgsUsage(args, argsUsed);
-                            System.exit(0);
+                            throw new ExitError(0);
                         }
                     }
                     
@@ -1506,6 +1553,15 @@ public class Main {
                         argsUsed[i] = argsUsed[i+1] = argsUsed[i+2] = argsUsed[i+3] = true;
                     }
                     
+                    if (s.equals("--matrix-structure-search-db-interactive")){
+                        if (args.length <= i+1){
+                            syntaxError();
+                        }
+                        Settings.set("PTGLgraphComputation_S_linear_notation_graph_type", args[i+1]);
+                        Settings.set("PTGLgraphComputation_B_matrix_structure_search_db_interactive", "true");
+                        argsUsed[i] = argsUsed[i+1] = true;
+                    }
+                    
                     if (s.equals("--settingsfile")) {
                         // as this may overwrite command line arguments, this should always preceed other command lines
                         // NOTE: if this settings contains only a sub set of settings then only these are overwritten
@@ -1545,7 +1601,7 @@ public class Main {
             
         } else {
             usage_short();      // the first argument (pdbid) is required!
-            System.exit(1);
+            throw new ExitError(1);
         }
         
 
@@ -1650,12 +1706,12 @@ public class Main {
                         patternSSEString = DBManager.getSSEStringOfProteinGraph(Settings.get("PTGLgraphComputation_B_search_similar_PDBID"), Settings.get("PTGLgraphComputation_B_search_similar_chainID"), Settings.get("PTGLgraphComputation_S_search_similar_graphtype"));
                     } catch (Exception e) {
                         System.err.println("ERROR: DB: Could not retrieve SSE string for requested graph from database, exiting.");
-                        System.exit(1);
+                        throw new ExitError(1);
                     }
 
                     if(patternSSEString == null) {
                         System.err.println("ERROR: DB: SSE string for requested graph is not in the database, exiting.");
-                        System.exit(1);
+                        throw new ExitError(1);
                     } else {
                         if(! silent) {
                             System.out.println("Using pattern SSEstring '" + patternSSEString + "'.");
@@ -1675,15 +1731,21 @@ public class Main {
                     }
                     CompareOneToDB.performGraphCompatGraphComparison();                    
                 }
+                else if (Settings.get("PTGLgraphComputation_S_search_similar_method").equals(Similarity.SIMILARITYMETHOD_GRAPHLET_RELGRAPHLETFREQ)) {
+                    if(! silent) {
+                        System.out.println("Using similarity method '" + Settings.get("PTGLgraphComputation_S_search_similar_method") + "'.");
+                    }
+                    CompareOneToDB.performGraphletComparison();
+                }
                 else {
                     System.err.println("ERROR: Invalid similarity method: '" + Settings.get("PTGLgraphComputation_S_search_similar_method") + "'. Use --help for info on valid settings.");
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
                 
-                System.exit(0);
+                throw new ExitError(0);
             } else {
                 System.err.println("ERROR: Could not connect to DB, exiting.");
-                System.exit(1);
+                throw new ExitError(1);
             }            
             
         }
@@ -1698,7 +1760,7 @@ public class Main {
                 System.err.println("WARNING: Considering only " + numToConsider + " graphlets. Ignore this warning if this is what you want.");
                 if(numToConsider <= 0) {
                     System.err.println("ERROR: Configured to consider " + numToConsider + " graphlets in config file. This makes no sense, exiting.");
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
             }
             
@@ -1774,10 +1836,10 @@ public class Main {
                 if(! silent) {
                     System.out.println("All done. Exiting.");
                 }
-                System.exit(0);
+                throw new ExitError(0);
             } else {
                 System.err.println("ERROR: Could not connect to DB, exiting.");
-                System.exit(1);
+                throw new ExitError(1);
             }
             
             
@@ -1795,7 +1857,7 @@ public class Main {
             
             if( ! (xmlFile.isFile() && xmlFile.canRead())) {
                 System.err.println("ERROR: Cannot read XML file '" + xmlFile.getAbsolutePath() + "' or not a normal file.");
-                System.exit(1);
+                throw new ExitError(1);
             }
             
             // get list by parsing XML
@@ -1829,7 +1891,7 @@ public class Main {
 
             } catch(ParserConfigurationException | SAXException | IOException e) {
                 System.err.println("ERROR: '" + e.getMessage() + "'. Could not parse XML file, aborting.");
-                System.exit(1);
+                throw new ExitError(1);
             }
             
             
@@ -1863,7 +1925,7 @@ public class Main {
                         }
                         catch(SQLException e) {
                             System.err.println("ERROR: Removing old representative labels from chains in DB failed: '" + e.getMessage() + "'.");
-                            System.exit(1);
+                            throw new ExitError(1);
                         }
                     }
 
@@ -1878,7 +1940,7 @@ public class Main {
                     }
                     catch(SQLException e) {
                         System.err.println("ERROR: Updating representatives in chains table of DB failed: '" + e.getMessage() + "'.");
-                        System.exit(1);
+                        throw new ExitError(1);
                     }
                 }
 
@@ -1903,7 +1965,7 @@ public class Main {
                         }
                         catch(SQLException e) {
                             System.err.println("ERROR: Removing old representative labels from the info table in DB failed: '" + e.getMessage() + "'.");
-                            System.exit(1);
+                            throw new ExitError(1);
                         }
                     }
                     
@@ -1917,7 +1979,7 @@ public class Main {
                     }
                     catch(SQLException e) {
                         System.err.println("ERROR: Updating representatives in list table of DB failed: '" + e.getMessage() + "'.");
-                        System.exit(1);
+                        throw new ExitError(1);
                     }
                    
                 }
@@ -1930,10 +1992,10 @@ public class Main {
                 // fill the table of representative chains, only used to compute statistics for these chains WHEN THEY ARE INSERTED LATER
                 
                 
-                System.exit(0);
+                throw new ExitError(0);
             } else {
                 System.err.println("ERROR: Could not connect to DB, exiting.");
-                System.exit(1);
+                throw new ExitError(1);
             }   
             
         }
@@ -1957,13 +2019,31 @@ public class Main {
                 }
                 // numChainsFound, numGraphletsFound, numScoresComputed, numScoresSaved
                 
-                System.exit(0);
+                throw new ExitError(0);
             } else {
                 System.err.println("ERROR: Could not connect to DB, exiting.");
-                System.exit(1);
+                throw new ExitError(1);
             }               
         }
         
+        if(Settings.getBoolean("PTGLgraphComputation_B_reassign_motifs_db")) {
+            if(! silent) {
+                System.out.println("Reassigning the motifs of all chains in the database.");
+            }
+            
+            if(DBManager.initUsingDefaults()) {
+                int numAssigned = MotifEngine.reassignAllChainsInDatabase(Settings.getInteger("PTGLgraphComputation_I_motif_threads"));
+                if(! silent) {
+                    System.out.println("Done. Assigned " + numAssigned + " motifs in total.");
+                }
+                DBManager.closeConnection();
+                throw new ExitError(0);
+            } else {
+                System.err.println("ERROR: Could not connect to DB, exiting.");
+                throw new ExitError(1);
+            }
+        }
+        
         // convert pdb file with multiple models to pdb file with multiple chains only
         // the models will be converted to separated chains
         if(Settings.getBoolean("PTGLgraphComputation_B_convert_models_to_chains")) {
@@ -1972,11 +2052,11 @@ public class Main {
                 Boolean status = FileParser.convertPdbModelsToChains(convertModelsToChainsInputFile, convertModelsToChainsOutputFile);
                 if(status) {
                     System.out.println("  Conversion done. The resulting new PDB file is at '" + convertModelsToChainsOutputFile + "'. Note that only structural data (atom positions) have been converted, HEADER information has not been adapted.");
-                    System.exit(0);
+                    throw new ExitError(0);
                 }
                 else {
                     DP.getInstance().w("Main", "Conversion of PDB file '" + convertModelsToChainsInputFile + "' failed.");
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
        }
         
@@ -1991,7 +2071,7 @@ public class Main {
             if (! Arrays.asList(viableLinnotGraphTypes).contains(linnotGraphType)) {
                 DP.getInstance().e("Main", "Unrecognized linear notation graph type '" + linnotGraphType +
                         "'. Allowed values: " + Arrays.toString(viableLinnotGraphTypes) + " Exiting now.");
-                System.exit(1);
+                throw new ExitError(1);
             }
             // NOTE linnot type not checked as currently only red used 
             
@@ -2005,31 +2085,71 @@ public class Main {
                 int count_results = results.size();
                 System.out.println("  The structure was found in " + count_results + " protein chains.");
                 if (count_results > 0){
+                    writeMatrixSearchDBResults(results);
+                }
+                System.out.println("Exiting now");
 
-                    //writing results into a text file
-                    try {
-                        System.out.println("Saving all proteins (pdbid and chain) in the file 'matrix_search_db_results.lst'. ");
+                throw new ExitError(0);
+            } else {
+                System.err.println("ERROR: Could not connect to DB, exiting.");
+                throw new ExitError(1);
+            }
+        }
+        
 
-                        File file_results = new File("matrix_search_db_results.lst");
-                        FileWriter writer = new FileWriter(file_results);
+        if(Settings.getBoolean("PTGLgraphComputation_B_matrix_structure_search_db_interactive")) {
+            String linnotGraphType = Settings.get("PTGLgraphComputation_S_linear_notation_graph_type");
 
-                        for (ArrayList<String> r : results){ //print the results = pdbid and chain of all proteins, that contain the linear notation from the input
-                            writer.write(r.get(0) + r.get(1)); //write results to file
-                            writer.write(System.getProperty("line.separator")); //add a new line
+            String viableLinnotGraphTypes[] = new String[] {"alpha", "beta", "albe"};
+            if (! Arrays.asList(viableLinnotGraphTypes).contains(linnotGraphType)) {
+                DP.getInstance().e("Main", "Unrecognized linear notation graph type '" + linnotGraphType +
+                        "'. Allowed values: " + Arrays.toString(viableLinnotGraphTypes) + " Exiting now.");
+                throw new ExitError(1);
+            }
+            
+            if(DBManager.initUsingDefaults()) {
+                System.out.println("Reading the RED notations of all " + linnotGraphType + " folding graphs from the PTGL database.");
+                long loadStart = System.currentTimeMillis();
+                TopologySearchIndex index = TopologySearchIndex.load(linnotGraphType);
+                if(index == null) {
+                    throw new ExitError(1);
+                }
+                System.out.println("  Read " + index.size() + " folding graphs in " + (System.currentTimeMillis() - loadStart) + " ms.");
+                System.out.println("Enter a linear notation (RED or ADJ) of graph type " + linnotGraphType + " per line to search it, e.g. '[1a,-1a]'. An empty line or 'exit' ends the search.");
+                
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+                try {
+                    String linnot;
+                    System.out.print("> ");
+                    System.out.flush();
+                    while((linnot = in.readLine()) != null) {
+                        linnot = linnot.trim();
+                        if(linnot.isEmpty() || linnot.equals("exit")) {
+                            break;
                         }
-                        writer.flush();
-                        writer.close();
-
-                    } catch (IOException ex) {
-                        java.util.logging.Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+                        try {
+                            long searchStart = System.currentTimeMillis();
+                            ArrayList<ArrayList<String>> results = index.search(linnot);
+                            System.out.println("  The structure was found in " + results.size() + " protein chains (" + (System.currentTimeMillis() - searchStart) + " ms).");
+                            if(results.size() > 0) {
+                                writeMatrixSearchDBResults(results);
+                            }
+                        } catch(IllegalArgumentException e) {
+                            DP.getInstance().e("Main", e.getMessage());
+                        }
+                        System.out.print("> ");
+                        System.out.flush();
                     }
+                } catch(IOException e) {
+                    DP.getInstance().e("Main", "Could not read the linear notations from the standard input: '" + e.getMessage() + "'.");
+                    throw new ExitError(1);
                 }
                 System.out.println("Exiting now");
 
-                System.exit(0);
+                throw new ExitError(0);
             } else {
                 System.err.println("ERROR: Could not connect to DB, exiting.");
-                System.exit(1);
+                throw new ExitError(1);
             }
         }
         
@@ -2072,7 +2192,7 @@ public class Main {
 
         if(! (input_file.exists() && input_file.isFile())) {
             System.err.println("ERROR: pdbfile '" + pdbFile + "' not found. Exiting.");
-            System.exit(1);
+            throw new ExitError(1);
         }
                 
 
@@ -2080,13 +2200,13 @@ public class Main {
         input_file = new File(dsspFile);
         if(! (input_file.exists() && input_file.isFile())) {
             System.err.println("ERROR: dsspfile '" + dsspFile + "' not found. Exiting.");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         output_dir = new File(outputDir);
         if(! (output_dir.exists() && output_dir.isDirectory())) {
             DP.getInstance().e("Main", "output directory '" + outputDir + "' not found. Exiting.");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
 
@@ -2120,7 +2240,7 @@ public class Main {
                
         if (Settings.getBoolean("PTGLgraphComputation_B_debug_only_parse")) {
             System.out.println("Exiting now as requested by settings.");
-            System.exit(0);
+            throw new ExitError(0);
         }
         
         allModelsIDsOfWholePDBFile = FileParser.getAllModelIDsFromWholePdbFile();
@@ -2157,7 +2277,7 @@ public class Main {
                     System.out.println("A max_atoms setting of around 80.000 makes most sense (see PDB statistics).");
                     System.out.println("Set 'plcc_B_skip_too_large' to false in settings to avoid this. Exiting.");
                 }
-                System.exit(0);
+                throw new ExitError(0);
             }
         }
         
@@ -2177,14 +2297,14 @@ public class Main {
             
             if(resolution > badResolution) {
                 DP.getInstance().e("Main", "Aborting further processing of PDB '" + pdbid + "': resolution '" + resolution + "' too bad, must be at '" + badResolution + "' or better. (Set 'plcc_F_abort_if_pdb_resolution_worse_than' to a negative float value in the config file to prevent this behaviour or use --force.) Exiting now.");
-                System.exit(0);
+                throw new ExitError(0);
             }
         }
         
         Integer minNumberOfResidues = Settings.getInteger("PTGLgraphComputation_I_abort_if_num_molecules_below");
         if(molecules.size() < minNumberOfResidues) {
             DP.getInstance().e("Main", "Aborting further processing of PDB '" + pdbid + "': molecule count '" + molecules.size() + "' too low, must be at least '" + minNumberOfResidues + "'. (Set 'plcc_I_abort_if_num_molecules_below' to a negative int value in the config file to prevent this behaviour or use --force.) Exiting now.");
-            System.exit(0);
+            throw new ExitError(0);
         }
         
         
@@ -2359,22 +2479,41 @@ public class Main {
             }
         }
         
+        // primitive copy of all atom coordinates, used by the atom contact kernels of all contact computation variants. The store
+        //  registers itself with the molecules, see Molecule.getCoordinateStore().
+        new AtomCoordinateStore(molecules);
+        
         ArrayList<MolContactInfo> cInfoThisChain;
         ProteinResults.getInstance().setPdbid(pdbid);
         
+        Boolean contactCellList = Settings.getBoolean("PTGLgraphComputation_B_contact_cell_list");
+        Boolean contactParallel = Settings.getBoolean("PTGLgraphComputation_B_contact_parallel");
+        
         if(separateContactsByChain) {
             cInfoThisChain = new ArrayList<MolContactInfo>();   // will be computed separately for each chainName later
             cInfo = null;                                       // will not be used in this case (separateContactsByChain=on)
         } else {        
             if(Settings.getBoolean("PTGLgraphComputation_B_alternate_aminoacid_contact_model") || Settings.getBoolean("PTGLgraphComputation_B_alternate_aminoacid_contact_model_with_ligands")) {
                 ArrayList<Molecule> residuesFromMolecules = new ArrayList<>(resFromMolecules(molecules));   // resFromMolecules creates Residue objects, but we need Molecule objects
-                cInfo = calculateAllContactsAlternativeModel(residuesFromMolecules);
+                if (contactCellList || contactParallel) {
+                    cInfo = calculateAllContactsAlternativeModelByBlocks(residuesFromMolecules, contactCellList, contactParallel);
+                } else {
+                    cInfo = calculateAllContactsAlternativeModel(residuesFromMolecules);
+                }
             }
             else {
                 if (Settings.getBoolean("PTGLgraphComputation_B_chain_spheres_speedup")) {
-                    cInfo = calculateAllContactsChainSphereSpeedup(chains);
+                    if (contactCellList || contactParallel) {
+                        cInfo = calculateAllContactsChainSphereByBlocks(chains, contactCellList, contactParallel);
+                    } else {
+                        cInfo = calculateAllContactsChainSphereSpeedup(chains);
+                    }
                 } else {
-                    cInfo = calculateAllContacts(molecules);
+                    if (contactCellList || contactParallel) {
+                        cInfo = calculateAllContactsByBlocks(molecules, contactCellList, contactParallel);
+                    } else {
+                        cInfo = calculateAllContacts(molecules);
+                    }
                 }
             }
             if(! silent) {
@@ -2399,7 +2538,7 @@ public class Main {
 
         if (Settings.getBoolean("PTGLgraphComputation_B_debug_only_contact_comp")) {
             System.out.println("Exiting now as requested by settings.");
-            System.exit(0);
+            throw new ExitError(0);
         }
         
         if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
@@ -2572,7 +2711,7 @@ public class Main {
         if(Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct")) {
             print_debug_malfunction_warning();
             System.out.println("WARNING: ABORTING execution here due to DEBUG settings, results incomplete.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         ArrayList<Chain> handleChains = new ArrayList<Chain>();
@@ -2648,7 +2787,7 @@ public class Main {
                         subDirTree = IO.createSubDirTreeDir(outputDir, pdbid, "ALL");
                         if(subDirTree == null) { 
                             DP.getInstance().e("Main", "Could not create subdir tree (outputDir='" + outputDir + "', pdbid='" + pdbid + "'). Missing file system level access rights?"); 
-                            System.exit(1); 
+                            throw new ExitError(1); 
                         }
                     }
                     
@@ -2739,13 +2878,28 @@ public class Main {
                             DP.getInstance().w("Main", "Could not write all chains AA graph to DB: '" + e.getMessage() + "'.");
                         }
                     } 
+                    
+                    if(Settings.getBoolean("PTGLgraphComputation_B_compute_graphlets")) {
+                        GraphletCounts gc = countGraphlets(aag.toCompressed(), getChemProp3Labels(aag), GraphletCounts.ALPHABET_AA, "all chains AA graph of PDB ID '" + pdbid + "'");
+                        if(gc != null) {
+                            if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+                                if(DBManager.writeNormalizedAminoacidgraphGraphletsToDB(pdbid, gc.getNormalizedCounts()) && (! silent)) {
+                                    System.out.println("Wrote all chains AA graph graphlet counts of " + pdbid + " to DB.");
+                                }
+                            }
+                            else {
+                                IO.stringToTextFile(outputDir + fs + subDirTree + pdbid + "_aagraph.graphlets", gc.getNormalizedCountsString());
+                            }
+                        }
+                    }
 
                     
                     if(Settings.getBoolean("PTGLgraphComputation_B_compute_graph_metrics")) {    
                         //aag.selfCheck();
-                        GraphProperties gp = new GraphProperties(aag);
+                        // the properties are computed on immutable CSR copies, the graphs are rewired below
+                        GraphProperties gp = new GraphProperties(aag.toCompressed());
                         SparseGraph lcc = (SparseGraph)gp.getLargestConnectedComponent();
-                        GraphProperties gp_lcc = new GraphProperties(lcc);
+                        GraphProperties gp_lcc = new GraphProperties(lcc == null ? null : lcc.toCompressed());
                         Date propsComputationEndTime; Date propsComputationStartTime; Long timeDiff; Long runtime_secs;
 
                         if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
@@ -2776,7 +2930,7 @@ public class Main {
                                         //aag.selfCheck();
                                         
                                         GraphRandomizer gr = new GraphRandomizer(aag, edgeRewireProbability);
-                                        GraphProperties gp_rand = new GraphProperties(aag); // now changed
+                                        GraphProperties gp_rand = new GraphProperties(aag.toCompressed()); // now changed
                                         propsComputationStartTime = new Date();
                                         GraphPropResults gpr_rand = gp_rand.getGraphPropResults();
                                         propsComputationEndTime = new Date();
@@ -2883,7 +3037,7 @@ public class Main {
                                         if(rewireGraphsToCompareWithRandom) {
                                             // write properties of random equiv of largest CC of graph
                                             GraphRandomizer gr_lcc = new GraphRandomizer(lcc, edgeRewireProbability);
-                                            GraphProperties gp_lcc_rand = new GraphProperties(lcc);
+                                            GraphProperties gp_lcc_rand = new GraphProperties(lcc.toCompressed());
                                             propsComputationStartTime = new Date();
                                             GraphPropResults gpr_lcc_rand = gp_lcc_rand.getGraphPropResults();
                                             propsComputationEndTime = new Date();
@@ -3068,6 +3222,14 @@ public class Main {
                             }
                         } 
                         
+                        // the AAGs in the database are identified by PDB ID only, so the counts of the chain AAGs are written to files
+                        if(Settings.getBoolean("PTGLgraphComputation_B_compute_graphlets")) {
+                            GraphletCounts gc = countGraphlets(aag.toCompressed(), getChemProp3Labels(aag), GraphletCounts.ALPHABET_AA, "chain '" + c.getPdbChainID() + "' AA graph of PDB ID '" + pdbid + "'");
+                            if(gc != null) {
+                                IO.stringToTextFile(outputDir + fs + pdbid + "_aagraph_chain_" + c.getPdbChainID() + ".graphlets", gc.getNormalizedCountsString());
+                            }
+                        }
+                        
                         // write AA graph
                         String aagFile = outputDir + fs + pdbid + "_aagraph_chain_" + c.getPdbChainID() + ".gml";
                         if(writeStringToFile(aagFile, aag.toGraphModellingLanguageFormat())) {
@@ -3262,6 +3424,16 @@ public class Main {
         }
         
         if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+            if(entryDBWriter != null) {
+                if(Settings.getBoolean("PTGLgraphComputation_B_db_write_behind")) {
+                    // a writer thread writes the queued results and commits, closeConnection() waits for it unless a batch goes on
+                    entryDBCommit = entryDBWriter.commitInBackground();
+                }
+                else if( ! entryDBWriter.commit()) {
+                    DP.getInstance().e("Main", "The results for PDB file '" + pdbid + "' could not be written to the database.");
+                }
+                entryDBWriter = null;
+            }
             if( ! DBManager.getAutoCommit()) {
                 DBManager.commit();            
             }
@@ -3277,7 +3449,7 @@ public class Main {
                 System.out.println(Settings.getApptag() + " [" + pdbid + "] [" + endTime + "] " + "All done silently, exiting. Total runtime was " + runtimeTotal_secs + " seconds ("+compTimes[0]+":" + String.format("%02d:%02d", compTimes[1], compTimes[2])+" hms). "+residues.size()+ "residues.");
             }
         }
-        System.exit(0);
+        throw new ExitError(0);
 
     }
 
@@ -3457,7 +3629,7 @@ public class Main {
         }
         else {
             DP.getInstance().w("dbTesting(): Not using DB or DB connection failed. Skipping DB tests.");
-            System.exit(1);
+            throw new ExitError(1);
         }
     }
 
@@ -3485,6 +3657,14 @@ public class Main {
                 
         //pdb_id, title, header, keywords, experiment, resolution
         if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+            // All results of the entry are written in one transaction, which is committed at the end of the run. So the DB never holds a partial entry.
+            entryDBWriter = new ProteinEntryDBWriter(pdbid);
+            try {
+                entryDBWriter.begin();
+            } catch(SQLException e) {
+                DP.getInstance().w("Main", "Could not start DB transaction for protein '" + pdbid + "', writing without it: '" + e.getMessage() + "'.");
+            }
+            
             // Try to delete the protein from the DB in case it is already in there. This won't hurt if it is not.
             
             int numDel = 0;            
@@ -3504,6 +3684,22 @@ public class Main {
         }        
     }
     
+    /**
+     * Returns the DB writer of the given PDB entry. If writeProteinDataToDatabase() did not create it, a writer without an own transaction is created.
+     * @param pdbid the PDB ID of the entry
+     * @return the writer
+     */
+    static ProteinEntryDBWriter getEntryDBWriter(String pdbid) {
+        if(entryDBWriter == null || ! entryDBWriter.getPdbid().equals(pdbid)) {
+            if(entryDBWriter != null) {
+                entryDBWriter.commit();
+            }
+            entryDBWriter = new ProteinEntryDBWriter(pdbid);
+        }
+        return entryDBWriter;
+    }
+    
+    
     /**
      * Calculates all SSE graph types which are configured in the config file for all given chains.
      * @param allChains a list of chains, each chainName will be handled separately
@@ -3511,7 +3707,51 @@ public class Main {
      * @param pdbid the PDBID of the protein, required to name files properly etc.
      * @param outputDir where to write the output files. the filenames are deduced from graph type and pdbid.
      */
-    public static void calculateSSEGraphsForChains(List<Chain> allChains, ArrayList<MolContactInfo> resContacts, String pdbid, String outputDir) {
+    public static void calculateSSEGraphsForChains(List<Chain> allChains, List<MolContactInfo> resContacts, String pdbid, String outputDir) {
+        // The protein graphs of all chains and graph types are independent of each other once the SSEs are known, so they can be computed
+        //  in parallel: the chains are prepared and one task per graph type is submitted, then the graphs are collected in order.
+        ExecutorService graphWorkers = null;
+        if(Settings.getBoolean("PTGLgraphComputation_B_graph_parallel")) {
+            int numThreads = Settings.getInteger("PTGLgraphComputation_I_graph_threads");
+            if(numThreads <= 0) {
+                numThreads = Runtime.getRuntime().availableProcessors();
+            }
+            graphWorkers = Executors.newFixedThreadPool(numThreads);
+        }
+        try {
+            calculateSSEGraphsForChains(allChains, resContacts, pdbid, outputDir, graphWorkers);
+        } finally {
+            if(graphWorkers != null) {
+                graphWorkers.shutdownNow();     // if a chain failed, the tasks of the later chains are not run
+            }
+        }
+    }
+    
+    
+    /**
+     * Inserts the protein graphs of the entry which were written to its DB writer but are not in the DB yet, see ProteinEntryDBWriter.insertProteinGraphs().
+     * @param pdbid the PDB ID of the entry
+     */
+    private static void insertProteinGraphsToDB(String pdbid) {
+        if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+            try {
+                getEntryDBWriter(pdbid).insertProteinGraphs();
+            } catch(SQLException e) {
+                DP.getInstance().e("Main", "Could not insert the protein graphs of PDB ID '" + pdbid + "' into DB: '" + e.getMessage() + "'.");
+            }
+        }
+    }
+
+
+    /**
+     * Calculates all SSE graph types which are configured in the config file for all given chains, see calculateSSEGraphsForChains() above.
+     * @param allChains a list of chains, each chainName will be handled separately
+     * @param resContacts a list of residue contacts
+     * @param pdbid the PDBID of the protein, required to name files properly etc.
+     * @param outputDir where to write the output files. the filenames are deduced from graph type and pdbid.
+     * @param graphWorkers the pool which computes the graphs, or null to compute them on this thread. It is shut down by the caller.
+     */
+    private static void calculateSSEGraphsForChains(List<Chain> allChains, List<MolContactInfo> resContacts, String pdbid, String outputDir, ExecutorService graphWorkers) {
         Boolean silent = Settings.getBoolean("PTGLgraphComputation_B_silent");
                
         //System.out.println("calculateSSEGraphsForChains: outputDir='" + outputDir + "'.");
@@ -3531,6 +3771,9 @@ public class Main {
         Map<String, Map<String, String>> macroMolecules = new HashMap<>();   // each inner hashmap contains the properties of a macromolecule, "name" => the_name, "id" => MOL_ID, .... The outer string is the mol_ID
        
         
+        // the loop below prepares the chains and submits one task per graph type to graphWorkers, the second loop collects the graphs in order
+        List<ChainGraphs> preparedChains = new ArrayList<>();
+        
         // handle all chains
         ProteinChainResults pcr;
         for(Integer i = 0; i < allChains.size(); i++) {
@@ -3539,16 +3782,16 @@ public class Main {
             if(! silent) {
                 System.out.println("  +++++ Handling chain '" + chain + "'. +++++");
             }
-                        
+                    
             // CIF parser does not parse all protein chain meta information, return in these cases default values
             ProtMetaInfo pmi = FileParser.getMetaInfo(pdbid, chain);
-                       
+                   
             //pmi.print();
-            
-            
+        
+        
             c.setMacromolID(pmi.getMacromolID());
             c.setMacromolName(pmi.getMolName());
-            
+        
             // collect macromol data, will be used to write MM to database after this chainName loop
             Map<String, String> tmpMacroMol = new HashMap<>();
             tmpMacroMol.put("pdb_mol_id", pmi.getMacromolID()); // not strictly needed, it is also put as the key for this MM later
@@ -3557,34 +3800,34 @@ public class Main {
             tmpMacroMol.put("pdb_org_common", pmi.getOrgCommon());
             tmpMacroMol.put("pdb_all_chains", pmi.getAllMolChains());
             tmpMacroMol.put("pdb_ec_number", pmi.getECNumber());
-            
+        
             macroMolecules.put(pmi.getMacromolID(), tmpMacroMol);
-            
+        
             md.put("pdb_mol_id", pmi.getMacromolID());
             md.put("pdb_mol_name", pmi.getMolName());
             md.put("pdb_org_sci", pmi.getOrgScientific());
             md.put("pdb_org_common", pmi.getOrgCommon());
             md.put("pdb_all_chains", pmi.getAllMolChains());
             md.put("pdb_ec_number", pmi.getECNumber());
-            
+        
             if(! silent) {
                 System.out.println("    Chain '" + chain + "' MOL_ID is '" + pmi.getMacromolID() + "', MOL_NAME is '" + pmi.getMolName() + "'.");
             }
-            
+        
             // keep track of mm
             if( ! macroMoleculesOfPDBfileToChains.containsKey(pmi.getMacromolID())) {
                 macroMoleculesOfPDBfileToChains.put(pmi.getMacromolID(), new ArrayList<String>());
             }
             macroMoleculesOfPDBfileToChains.get(pmi.getMacromolID()).add(allChains.get(i).getPdbChainID());
-            
+        
             pcr = new ProteinChainResults(c.getPdbChainID());
             // register results for chainName
             ProteinResults.getInstance().addProteinChainResults(pcr, chain);
             pcr.setChainMetaData(pmi);
 
-            
-            
-            
+        
+        
+        
             if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
                 String ligName3Trimmed;
                 try {
@@ -3592,13 +3835,13 @@ public class Main {
                         if(! silent) {
                             System.out.println("    Info on chain '" + chain + "' of protein '" + pdbid + "' written to DB.");
                         }
-                        
+                    
                         Long chainDbId = DBManager.getDBChainID(pdbid, chain);
-                        
+                    
                         if(chainDbId >= 1) {
                             for(Ligand ligand : c.getAllLigandResidues()) {
                                 ligName3Trimmed = ligand.getTrimmedName3();
-                                
+                            
                                 // TODO: these 3 lines are not thread-safe, running several plcc instances in parallel may lead to race conditions
                                 DBManager.writeLigandToDBUnlessAlreadyThere(ligName3Trimmed, ligand.getLigName(), ligand.getLigFormula(), ligand.getLigSynonyms());
                                 if( ! DBManager.assignmentLigandToProteinChainExistsInDB(chainDbId, ligName3Trimmed)) {
@@ -3624,32 +3867,32 @@ public class Main {
                 System.out.println("    Creating all SSEs for chain '" + chain + "' consisting of " + c.getAllAAResidues().size() + " residues.");
             }
             chainDsspSSEs = createAllDsspSSEsFromResidueList(c.getAllAAResidues());
-            
+        
             if(chainDsspSSEs.isEmpty()) {
                 if(Settings.getBoolean("PTGLgraphComputation_B_skip_empty_chains")) {
                     if(! silent) {
                         System.out.println("  +++++ Skipping chain " + chain + " due to empty residue list. +++++");
-                        
+                    
                     }
                     continue;
                 }
             }
-            
+        
             if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
                 printSSEList(chainDsspSSEs, "DSSP");
             }
-            
+        
             if(Settings.getBoolean("PTGLgraphComputation_B_ptgl_text_output")) {
                 String sseMappingsFile = Settings.get("PTGLgraphComputation_S_output_dir") + fs + pdbid.toLowerCase()  + "_" + chain + ".ssemap";
                 writeSSEMappings(sseMappingsFile, c, pdbid);
             }
-            
+        
             chainPtglSSEs = createAllPtglSSEsFromDsspSSEList(chainDsspSSEs);
-            
+        
             if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
                 printSSEList(chainPtglSSEs, "PTGL");
             }
-            
+        
             chainLigSSEs = createAllLigandSSEsFromResidueList(c.getAllLigandResidues(), chainDsspSSEs);
             allChainSSEs = mergeSSEs(chainPtglSSEs, chainLigSSEs);
             if(! silent) {
@@ -3661,16 +3904,16 @@ public class Main {
                 }
                 System.out.print("\n");
             }
-                        
+                    
             // SSEs have been calculated, now assign the PTGL labels and sequential numbers on the chainName
             for(Integer j = 0; j < allChainSSEs.size(); j++) {
                 allChainSSEs.get(j).setSeqSseChainNum(j + 1);   // This is the correct value, determined from the list of all valid SSEs of this chainName
                 allChainSSEs.get(j).setSseIDPtgl(getPtglSseIDForNum(j));
 
                 if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
-                    
+                
                     //if( ! Settings.getBoolean("PTGLgraphComputation_B_db_use_batch_inserts")) {
-                                                               
+                                                           
                         try {
                            SSE ssej = allChainSSEs.get(j);
                            Integer ssePositionInChain = j + 1;
@@ -3689,7 +3932,7 @@ public class Main {
                     //}
                 }
             }
-            
+        
             // batch insert all SSEs at once of appropriate
             /*
             if(Settings.getBoolean("PTGLgraphComputation_B_useDB") &&  Settings.getBoolean("PTGLgraphComputation_B_db_use_batch_inserts")) {
@@ -3715,7 +3958,7 @@ public class Main {
             // ************* Calculate the different graph types *************** //
             //List<String> graphTypes = Arrays.asList("albe", "albelig", "beta", "betalig", "alpha", "alphalig");       // old hardcoded stuff
             //List<String> graphTypes = Arrays.asList("albelig");                                                       // old hardcoded stuff
-            
+        
             // read the list of requested graph types from the settings
             List<String> graphTypes = new ArrayList<String>();
 
@@ -3725,8 +3968,20 @@ public class Main {
             if(Settings.getBoolean("PTGLgraphComputation_B_graphtype_alphalig")) { graphTypes.add(SSEGraph.GRAPHTYPE_ALPHALIG); }
             if(Settings.getBoolean("PTGLgraphComputation_B_graphtype_beta")) { graphTypes.add(SSEGraph.GRAPHTYPE_BETA); }
             if(Settings.getBoolean("PTGLgraphComputation_B_graphtype_betalig")) { graphTypes.add(SSEGraph.GRAPHTYPE_BETALIG); }
-            
-            
+        
+            preparedChains.add(new ChainGraphs(c, pcr, new HashMap<>(tmpMacroMol), graphTypes, allChainSSEs, resContacts, pdbid, graphWorkers));
+        }
+    
+        Map<String, String> metaDataAfterAllChains = new HashMap<>(md);
+    
+        // handle the graphs of all chains, in chain order. All DB writes are done by this thread, the workers also draw the graph images.
+        for(ChainGraphs chainGraphs : preparedChains) {
+            c = chainGraphs.chain;
+            String chain = c.getPdbChainID();
+            pcr = chainGraphs.results;
+            List<String> graphTypes = chainGraphs.graphTypes;
+            md.putAll(chainGraphs.metaData);    // the chain values of the meta data, as set for this chain by the loop above
+        
             String fileNameWithExtension = null;
             String fileNameWithoutExtension = null;
             String filePathImg = null;
@@ -3734,18 +3989,28 @@ public class Main {
             String filePathHTML = null;
             String imgFile = null;
 
+            if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+                try {
+                    getEntryDBWriter(pdbid).reserveProteinGraphIDs(graphTypes.size());
+                } catch(SQLException e) {
+                    DP.getInstance().e("Main", "Could not reserve DB IDs for the protein graphs of PDB ID '" + pdbid + "' chain '" + chain + "': '" + e.getMessage() + "'.");
+                }
+            }
+
 
             for(String gt : graphTypes) {
                 // create the protein graph for this graph type
                 //System.out.println("SSEs: " + allChainSSEs);                
 
-                ProtGraph pg = calcGraphType(gt, allChainSSEs, c, resContacts, pdbid);
+                ContactMatrix chainCM = chainGraphs.collect(gt);
+                writeGraphTypeContactsToDB(gt, chainCM);
+                ProtGraph pg = contactsToProtGraph(gt, chainCM);
                 pg.setInfo(pdbid, chain, c.getMacromolID(), gt);
                 pg.addMetadata(md);
-                
+            
                 pcr.addProteinGraph(pg, gt);
-                
-                
+            
+            
                 if(Settings.getBoolean("PTGLgraphComputation_B_debug_compareSSEContacts")) {
                     if(gt.equals(SSEGraph.GRAPHTYPE_ALBE)) {
                         if(! silent) {
@@ -3759,7 +4024,7 @@ public class Main {
                         }
                     }
                 }
-                
+            
                 Integer isoLig = pg.numIsolatedLigands();
                 String coilsUsed = "";
                 if(Settings.getBoolean("PTGLgraphComputation_B_include_coils")) {
@@ -3770,8 +4035,8 @@ public class Main {
                         System.out.println("      The " + gt + " graph of " + pdbid + " chain " + chain + coilsUsed + " contains " + isoLig + " isolated ligands.");
                     }
                 }
-                
-                
+            
+            
 
                 // draw the protein graph image
 
@@ -3785,12 +4050,12 @@ public class Main {
                 }
                 fileNameWithoutExtension = pdbid + "_" + chain + "_" + gt + coils + "_PG";
                 fileNameWithExtension = fileNameWithoutExtension + Settings.get("PTGLgraphComputation_S_img_output_fileext");
-                
+            
                 //pg.toFile(file + ".ptg");
                 //pg.print();                
                 // Create the file in a subdir tree based on the protein meta data if requested
                 if(Settings.getBoolean("PTGLgraphComputation_B_output_images_dir_tree") || Settings.getBoolean("PTGLgraphComputation_B_output_textfiles_dir_tree")) {
-                   
+               
                     File targetDir = IO.generatePDBstyleSubdirTreeNameWithChain(new File(outputDir), pdbid, chain);
                     if(targetDir != null) {
                         ArrayList<String> errors = IO.createDirIfItDoesntExist(targetDir);
@@ -3807,7 +4072,7 @@ public class Main {
                         System.err.println("ERROR: Could not determine PDB-style subdir path name.");
                     }
                 }
-                
+            
                 String gmlFileNoPath = "";    // for DB path reconstruction later
                 String jsonFileNoPath = "";
                 String xmlFileNoPath = "";
@@ -3817,9 +4082,9 @@ public class Main {
                 String gexfFileNoPath = "";
                 String cytoscapejsFileNoPath = "";
                 String msvgFileNoPath = "";
-                
+            
                 HashMap<String, String> writtenFormatsDBFilesNoPath = new HashMap<>();
-                
+            
                 String graphFormatsWritten = "";
                 Integer numFormatsWritten = 0;
                 if(Settings.getBoolean("PTGLgraphComputation_B_output_GML")) {
@@ -3920,8 +4185,8 @@ public class Main {
                         pcr.addProteinGraphOutputFile(gt, GraphFormats.GRAPHFORMAT_CYTOSCAPEJS, new File(cytoscapejsGraphFile));
                     }
                 }
-                
-                
+            
+            
                 /*
                 Boolean jsonTest = false;
                 if(jsonTest) {
@@ -3931,68 +4196,73 @@ public class Main {
                     }
                 }
                 */
-                
-                
+            
+            
                 if(numFormatsWritten > 0) {
                     if(! (Settings.getBoolean("PTGLgraphComputation_B_silent") || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"))) {
                         System.out.println("      Exported protein ligand graph in " + numFormatsWritten + " formats (" + graphFormatsWritten + ") to '" + new File(filePathGraphs).getAbsolutePath() + fs + "'.");
                     }
                 }
-                
+            
                 imgFile = filePathImg + fs + fileNameWithExtension;
                 String imgFileNoExt = filePathImg + fs + fileNameWithoutExtension;
-                                
-                
+                            
+            
                 // But we may need to write the graph to the database
                 if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
-                                        
-                    
+                                    
+                
+                    ProteinEntryDBWriter dbWriter = getEntryDBWriter(pdbid);
                     try { 
-                        Boolean res;
+                        Long newGraphDBID;
                         if(Settings.getBoolean("PTGLgraphComputation_B_write_graphstrings_to_database_pg")) {
-                            res = DBManager.writeProteinGraphToDB(pdbid, chain, ProtGraphs.getGraphTypeCode(gt), pg.toGraphModellingLanguageFormat(), pg.toVPLGGraphFormat(), pg.toKavoshFormat(), pg.toDOTLanguageFormat(), pg.toJSONFormat(), pg.toXMLFormat(), pg.getSSEStringSequential(), pg.containsBetaBarrel());
+                            newGraphDBID = dbWriter.writeProteinGraph(chain, ProtGraphs.getGraphTypeCode(gt), pg.toGraphModellingLanguageFormat(), pg.toVPLGGraphFormat(), pg.toKavoshFormat(), pg.toDOTLanguageFormat(), pg.toJSONFormat(), pg.toXMLFormat(), pg.getSSEStringSequential(), pg.containsBetaBarrel());
                         }
                         else {                            
-                            res = DBManager.writeProteinGraphToDB(pdbid, chain, ProtGraphs.getGraphTypeCode(gt), null, null, null, null, null, null, pg.getSSEStringSequential(), pg.containsBetaBarrel()); 
+                            newGraphDBID = dbWriter.writeProteinGraph(chain, ProtGraphs.getGraphTypeCode(gt), null, null, null, null, null, null, pg.getSSEStringSequential(), pg.containsBetaBarrel()); 
                         }
-                        
-                        if((! silent) && res) {
+                    
+                        if((! silent) && newGraphDBID > 0) {
                             System.out.println("      Inserted '" + gt + "' graph of PDB ID '" + pdbid + "' chain '" + chain + "' into DB.");
                         }
                     }
                     catch(SQLException e) { 
                         DP.getInstance().e("Main", "Failed to insert '" + gt + "' graph of PDB ID '" + pdbid + "' chain '" + chain + "' into DB: '" + e.getMessage() + "'."); 
                     }
-                    
+                
                     // update GML path
                     if(writtenFormatsDBFilesNoPath.size() > 0) {
                         Long graphDBID = -1L;
                         try {
-                            graphDBID = DBManager.getDBProteinGraphID(pdbid, chain, gt);
+                            graphDBID = dbWriter.getProteinGraphID(chain, gt);
                         } catch(SQLException ex) {
                             DP.getInstance().e("Main", "Could not find graph in database to update GML file path: '" + ex.getMessage() + "'.");
                         }
                         if(graphDBID > 0) {                                                                                                               
-                            
+                        
                             for(String format : writtenFormatsDBFilesNoPath.keySet()) {
                                 String fileDBPath = writtenFormatsDBFilesNoPath.get(format);
-                                
+                            
                                 if(Settings.getBoolean("PTGLgraphComputation_B_output_images_dir_tree") || Settings.getBoolean("PTGLgraphComputation_B_output_textfiles_dir_tree")) {
                                     fileDBPath = IO.getRelativeOutputPathtoBaseOutputDir(pdbid, chain) + fs + fileDBPath;
                                 }
-                                
-                                try {
-                                    DBManager.updateProteinGraphTextformatPathInDB(graphDBID, format, IO.pathToWebPath(IO.stripTrailingShitFromPathIfThere(fileDBPath)));
-                                } catch(SQLException ex) {
-                                    DP.getInstance().e("Main", "Could not update format '" + format + "' file path of graph in database: '" + ex.getMessage() + "'.");
-                                }
+                            
+                                final Long pathGraphDBID = graphDBID;
+                                final String webPath = IO.pathToWebPath(IO.stripTrailingShitFromPathIfThere(fileDBPath));
+                                dbWriter.writeBehind("format '" + format + "' file path of " + gt + " graph of chain " + chain, () -> DBManager.updateProteinGraphTextformatPathInDB(pathGraphDBID, format, webPath));
                             }                                                        
                         }
                     }
-                    
+                
                     // assign SSEs in database
                     try {
-                        int numAssigned = DBManager.assignSSEsToProteinGraphInOrder(pg.getVertices(), pdbid, chain, ProtGraphs.getGraphTypeCode(gt));
+                        int numAssigned = 0;
+                        Long graphDBID = dbWriter.getProteinGraphID(chain, gt);
+                        if(graphDBID > 0) {
+                            numAssigned = dbWriter.assignSSEsToProteinGraph(pg.getVertices(), chain, graphDBID);
+                        } else {
+                            DP.getInstance().e("Main", "Graph not found in DB, cannot assign SSEs to it.");
+                        }
                         if(! (Settings.getBoolean("PTGLgraphComputation_B_silent") || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"))) {
                             System.out.println("      Assigned " + numAssigned + " SSEs to " + gt + " graph of PDB ID '" + pdbid + "' chain '" + chain + "' in the DB.");
                         }
@@ -4002,69 +4272,70 @@ public class Main {
                 }
 
                 if(Settings.getBoolean("PTGLgraphComputation_B_draw_graphs")) {
-                    
+                
                     IMAGEFORMAT[] formats;
                     // formats = new IMAGEFORMAT[]{ DrawTools.IMAGEFORMAT.PNG, DrawTools.IMAGEFORMAT.PDF };                    
                     formats = Settings.getProteinGraphOutputImageFormats();
 
-                    HashMap<IMAGEFORMAT, String> filesByFormatCurNotation = ProteinGraphDrawer.drawProteinGraph(imgFileNoExt, false, formats, pg, new HashMap<Integer, String>(), new ArrayList<String>());
-                    //if(! silent) {
-                    //    System.out.println("      Image of graph written to file '" + imgFile + "'.");
-                    //}
-                    
-                    //pcr.addProteinGraphImageBitmap(gt, new File(imgFile));
-                    for(IMAGEFORMAT f : filesByFormatCurNotation.keySet()) {
-                        pcr.addProteinGraphOutputImage(gt, f.toString(), new File(filesByFormatCurNotation.get(f)));
-                    }
-
-                    // set image location in database if required
-                    if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
-                        Long graphDBID = -1L;
-                        try {
-                            graphDBID = DBManager.getDBProteinGraphID(pdbid, chain, gt);
-                        } catch(SQLException ex) {
-                            DP.getInstance().e("Main", "Could not find graph in database: '" + ex.getMessage() + "'.");
+                    // the image is drawn by a worker if the graphs are computed in parallel, the files are handled by this thread
+                    final String imageFileNameWithoutExtension = fileNameWithoutExtension;
+                    final ProteinChainResults imageResults = pcr;
+                    chainGraphs.drawImage(gt, () -> ProteinGraphDrawer.drawProteinGraph(imgFileNoExt, false, formats, pg, new HashMap<Integer, String>(), new ArrayList<String>()), filesByFormatCurNotation -> {
+                        //if(! silent) {
+                        //    System.out.println("      Image of graph written to file '" + imgFile + "'.");
+                        //}
+                
+                        //pcr.addProteinGraphImageBitmap(gt, new File(imgFile));
+                        for(IMAGEFORMAT f : filesByFormatCurNotation.keySet()) {
+                            imageResults.addProteinGraphOutputImage(gt, f.toString(), new File(filesByFormatCurNotation.get(f)));
                         }
-                        if(graphDBID > 0) {
 
-                            String dbImagePath;
-                            for(IMAGEFORMAT format : filesByFormatCurNotation.keySet()) {
-                                dbImagePath = fileNameWithoutExtension + DrawTools.getFileExtensionForImageFormat(format);
+                        // set image location in database if required
+                        if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+                            Long graphDBID = -1L;
+                            try {
+                                graphDBID = getEntryDBWriter(pdbid).getProteinGraphID(chain, gt);
+                            } catch(SQLException ex) {
+                                DP.getInstance().e("Main", "Could not find graph in database: '" + ex.getMessage() + "'.");
+                            }
+                            if(graphDBID > 0) {
 
+                                String dbImagePath;
+                                for(IMAGEFORMAT format : filesByFormatCurNotation.keySet()) {
+                                    dbImagePath = imageFileNameWithoutExtension + DrawTools.getFileExtensionForImageFormat(format);
 
-                                if(Settings.getBoolean("PTGLgraphComputation_B_output_images_dir_tree") || Settings.getBoolean("PTGLgraphComputation_B_output_textfiles_dir_tree")) {
-                                    dbImagePath = IO.getRelativeOutputPathtoBaseOutputDir(pdbid, chain) + fs + dbImagePath;
-                                }
-                                //DP.getInstance().d("dbImagePath is '" + dbImagePath + "'.");
 
+                                    if(Settings.getBoolean("PTGLgraphComputation_B_output_images_dir_tree") || Settings.getBoolean("PTGLgraphComputation_B_output_textfiles_dir_tree")) {
+                                        dbImagePath = IO.getRelativeOutputPathtoBaseOutputDir(pdbid, chain) + fs + dbImagePath;
+                                    }
+                                    //DP.getInstance().d("dbImagePath is '" + dbImagePath + "'.");
 
-                                try {
-                                    DBManager.updateProteinGraphImagePathInDB(graphDBID, format, IO.pathToWebPath(dbImagePath));
-                                } catch(SQLException e) {
-                                    DP.getInstance().e("Main", "Could not update graph image path in database: '" + e.getMessage() + "'.");
+
+                                    final Long imageGraphDBID = graphDBID;
+                                    final String webPath = IO.pathToWebPath(dbImagePath);
+                                    getEntryDBWriter(pdbid).writeBehind("image path of " + gt + " graph of chain " + chain, () -> DBManager.updateProteinGraphImagePathInDB(imageGraphDBID, format, webPath));
                                 }
+                            } else {
+                                DP.getInstance().e("Main", "Could not find " + gt + " graph for PDB " + pdbid + " chain " + chain + " in database to set image path.");
                             }
-                        } else {
-                            DP.getInstance().e("Main", "Could not find " + gt + " graph for PDB " + pdbid + " chain " + chain + " in database to set image path.");
+                    
                         }
-                        
-                    }                    
-                                     
+                    });
                 }
                 else {
                     if(! silent) {
                         System.out.println("      Image and graph output disabled, not drawing and writing protein graph files.");
                     }
                 }
-                
-                
-                
+            
+            
+            
                 if(Settings.getInteger("PTGLgraphComputation_I_debug_level") > 0) {
                     if(! silent) {
                         System.out.println("      Graph plus string is '" + pg.getGraphPlusString() + "'.");
                     }
                 }
-                
+            
                 // commands to draw the graph in 3D into the PDB coords in JMOL
                 if(Settings.getBoolean("PTGLgraphComputation_B_Jmol_graph_vis_commands")) {                                                            
                     String graphVisualizationFileJmolCommands = filePathGraphs + fs + fileNameWithoutExtension + ".jmol";
@@ -4074,10 +4345,10 @@ public class Main {
                         }
                     }
                 }
-                
+            
                 // commands to color the SSEs of the graph blue in 3D in JMOL
                 if(Settings.getBoolean("PTGLgraphComputation_B_Jmol_graph_vis_resblue_commands")) {                                        
-                    
+                
                     String graphVisualizationResBlueFileJmolCommands = filePathGraphs + fs + fileNameWithoutExtension + "_resblue" + ".jmol";
                     if(IO.stringToTextFile(graphVisualizationResBlueFileJmolCommands, JmolTools.visualizeGraphSubsetSSEsInBlue(pg, pg.getVertices(), true, true))) {
                         if(Settings.getBoolean("PTGLgraphComputation_B_output_textfiles_dir_tree_html")) {
@@ -4085,12 +4356,12 @@ public class Main {
                         }
                     }
                 }
-                
+            
                 // ###TEST-PG-METRICS
                 if(Settings.getBoolean("PTGLgraphComputation_B_compute_graph_metrics")) {
-                    
+                
                     if(pg.getSize() > 0) {
-                    
+                
                         pg.computeConnectedComponents();
                         FoldingGraph fg = pg.getLargestConnectedComponent();                        
 
@@ -4104,14 +4375,21 @@ public class Main {
                             }
 
                             try {
-                                Long graph_db_id = DBManager.getDBProteinGraphID(pdbid, chain, gt);
+                                Long graph_db_id = getEntryDBWriter(pdbid).getProteinGraphID(chain, gt);
                                 if(graph_db_id > 0L) {
                                     //System.out.println("Found graph " + pdbid + " " + chain + " " + gt + " with ID " + graph_db_id + ".");
                                     // write graph properties
-                                    Long runtime_secs = null;
-                                    DBManager.writeProteingraphStatsToDB(graph_db_id, Boolean.FALSE, gp.getNumVertices(), gp.getNumEdges(), gp.getMinDegree(), gp.getMaxDegree(), gp.getConnectedComponents().size(), gp.getGraphDiameter(), gp.getGraphRadius(), gp.getAverageClusterCoefficient(), gp.getAverageShortestPathLength(), gp.getDegreeDistributionUpTo(50), gp.getAverageDegree(), gp.getDensity(), gp.getCumulativeDegreeDistributionUpToAsArray(50), runtime_secs);
+                                    // the properties are computed here, the writer only gets the values
+                                    final Long runtime_secs = null;
+                                    final GraphPropResults gpr = gp.getGraphPropResults();
+                                    final Integer[] degreeDist = gp.getDegreeDistributionUpTo(50);
+                                    final Integer[] cumulDegreeDist = gp.getCumulativeDegreeDistributionUpToAsArray(50);
+                                    getEntryDBWriter(pdbid).writeBehind("stats of " + gt + " graph of chain " + chain, () -> DBManager.writeProteingraphStatsToDB(graph_db_id, Boolean.FALSE, gpr.numVertices, gpr.numEdges, gpr.minDegree, gpr.maxDegree, gpr.numConnectedComponents, gpr.graphDiameter, gpr.graphRadius, gpr.averageClusterCoefficient, gpr.averageShortestPathLength, degreeDist, gpr.averageDegree, gpr.density, cumulDegreeDist, runtime_secs));
                                     // write properties of largest CC of graph
-                                    DBManager.writeProteingraphStatsToDB(graph_db_id, Boolean.TRUE, sgp.getNumVertices(), sgp.getNumEdges(), sgp.getMinDegree(), sgp.getMaxDegree(), sgp.getConnectedComponents().size(), sgp.getGraphDiameter(), sgp.getGraphRadius(), sgp.getAverageClusterCoefficient(), sgp.getAverageShortestPathLength(), sgp.getDegreeDistributionUpTo(50), sgp.getAverageDegree(), sgp.getDensity(), sgp.getCumulativeDegreeDistributionUpToAsArray(50), runtime_secs);
+                                    final GraphPropResults sgpr = sgp.getGraphPropResults();
+                                    final Integer[] sDegreeDist = sgp.getDegreeDistributionUpTo(50);
+                                    final Integer[] sCumulDegreeDist = sgp.getCumulativeDegreeDistributionUpToAsArray(50);
+                                    getEntryDBWriter(pdbid).writeBehind("stats of largest CC of " + gt + " graph of chain " + chain, () -> DBManager.writeProteingraphStatsToDB(graph_db_id, Boolean.TRUE, sgpr.numVertices, sgpr.numEdges, sgpr.minDegree, sgpr.maxDegree, sgpr.numConnectedComponents, sgpr.graphDiameter, sgpr.graphRadius, sgpr.averageClusterCoefficient, sgpr.averageShortestPathLength, sDegreeDist, sgpr.averageDegree, sgpr.density, sCumulDegreeDist, runtime_secs));
                                 }
                                 else {
                                     DP.getInstance().e("Main", "Could not write graph properties to DB, graph not found in database.");
@@ -4120,38 +4398,58 @@ public class Main {
                                 DP.getInstance().e("SQL error while trying to store graph stats: '" + e.getMessage()+ "'.");
                             }
                         }
-                    
-                    }
                 
+                    }
+            
                 }
-                
-                
+            
+                if(Settings.getBoolean("PTGLgraphComputation_B_compute_graphlets")) {
+                    GraphletCounts gc = countGraphlets(pg, getSSETypeLabels(pg), GraphletCounts.ALPHABET_SSE, "'" + gt + "' graph of PDB ID '" + pdbid + "' chain '" + chain + "'");
+                    if(gc != null) {
+                        if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+                            final Integer graphTypeCode = ProtGraphs.getGraphTypeCode(gt);
+                            final Double[] normalizedCounts = gc.getNormalizedCounts();
+                            getEntryDBWriter(pdbid).writeBehind("graphlet counts of '" + gt + "' graph of PDB ID '" + pdbid + "' chain '" + chain + "'", () -> {
+                                if(DBManager.writeNormalizedGraphletsToDB(pdbid, chain, graphTypeCode, normalizedCounts) && (! silent)) {
+                                    System.out.println("      Inserted graphlet counts of '" + gt + "' graph of PDB ID '" + pdbid + "' chain '" + chain + "' into DB.");
+                                }
+                            });
+                        }
+                        else {
+                            IO.stringToTextFile(filePathGraphs + fs + fileNameWithoutExtension + ".graphlets", gc.getNormalizedCountsString());
+                        }
+                    }
+                }
+            
+            
                 /* ----------------------------------------------- Folding graphs ---------------------------------------------- */
 
                 if(Settings.getBoolean("PTGLgraphComputation_B_folding_graphs")) {
+                    // the folding graphs refer to their parent graph in the DB
+                    insertProteinGraphsToDB(pdbid);
                     //if(gt.equals(ProtGraphs.GRAPHTYPE_STRING_ALPHA) || gt.equals(ProtGraphs.GRAPHTYPE_STRING_BETA) || gt.equals(ProtGraphs.GRAPHTYPE_STRING_ALBE)) {
-                        
+                    
                         if( ! (Settings.getBoolean("PTGLgraphComputation_B_silent") || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"))) {
                             System.out.println("      Computing " + gt + " folding graphs.");
                         }
-                        
+                    
                         //System.out.println("!!!!!!calling for path '" + filePathImg + "'.");
                         ProteinFoldingGraphResults fgRes = calculateFoldingGraphsForSSEGraph(pg, filePathImg);                                    
                         pcr.addProteinFoldingGraphResults(gt, fgRes);
-                        
+                    
                         if (Settings.getBoolean("PTGLgraphComputation_B_matrix_structure_search") && Settings.get("PTGLgraphComputation_S_linear_notation_graph_type").equals(pg.getGraphType())){
-                            
+                        
                             // turn the linear notation into an adjacencymatrix and search it in the adjacencymatrix of the protein
-                            
+                        
                             PTGLNotations p = new PTGLNotations(pg);
                             p.stfu();
                             //p.adjverbose = true;
                             List<PTGLNotationFoldResult> resultsPTGLNotations = p.getResults(); //generate linear notation for proteingraph
-                            
+                        
                             if (!silent){
                                 System.out.println("          Linear notation of the folding graph: " + resultsPTGLNotations.get(0).adjNotation + " ---");
                             }
-                            
+                        
                             String gt_new = gt;
                             //Changing graphtype, because the function parseRedOrAdjToMatrix doesn't need any information about ligands
                             switch(gt){
@@ -4163,28 +4461,24 @@ public class Main {
                                     gt_new = "albe";
                             }
 
-                            ArrayList<ArrayList<Character>> matrix = new ArrayList<>(); //the adjacencymatrix for the linear notation
-                            matrix = DBManager.parseRedOrAdjToMatrix(resultsPTGLNotations.get(0).adjNotation, gt_new);
-                            
+                            NotationMatrix matrix = NotationMatrix.parse(resultsPTGLNotations.get(0).adjNotation, gt_new); //the adjacencymatrix for the linear notation
+                        
                             //save the linear notation from the input in the adjacencymatrix "pattern"
-                            ArrayList<ArrayList<Character>> pattern = new ArrayList<>(); 
-                            
-                            pattern = DBManager.parseRedOrAdjToMatrix(Settings.get("PTGLgraphComputation_S_linear_notation"), Settings.get("PTGLgraphComputation_S_linear_notation_graph_type"));
-                            
-                            if (pattern.size() <= matrix.size()){
+                            MatrixPatternMatcher pattern = MatrixPatternMatcher.compile(NotationMatrix.parse(Settings.get("PTGLgraphComputation_S_linear_notation"), Settings.get("PTGLgraphComputation_S_linear_notation_graph_type")));
+                        
+                            if (pattern.getPatternSize() <= matrix.size()){
                                 //start searching
                                 if (!silent){
                                     System.out.println("      --- Start searching the linear notation " + Settings.get("PTGLgraphComputation_S_linear_notation") +" in the folding graph. ---");
                                 }
-                                int[] output_array = new int [2]; //saves the indexes in matrix, where the pattern was found
-                                output_array = DBManager.matrixSearch(pattern, matrix);
-                                
+                                int[] output_array = pattern.findFirst(matrix); //saves the indexes in matrix, where the pattern was found
+                            
                                 if (!silent && output_array[0] != -1){ //if the pattern wasn't found, output_array[0] = -1
                                     System.out.println("     **** Linear notation found at indexes (" + output_array[0] + ", " + output_array[1] + ") of the adjacency matrix from the folding graph. ****");
                                 } 
                             }
                         }
-                        
+                    
                     //} else {
                     //    if( ! silent) {
                     //        System.out.println("      Handling folding graphs, but skipping graph type '" + gt + "'.");
@@ -4196,14 +4490,15 @@ public class Main {
                         System.out.println("      Not handling folding graphs.");
                     }
                 }
-              
+          
             }
-            
-            
+        
+        
             if(! silent) {
                 System.out.println("  +++++ All " + graphTypes.size() + " protein graphs of chain " + c.getPdbChainID() + " handled. +++++");
             }
-            
+            insertProteinGraphsToDB(pdbid);
+        
             if(Settings.getBoolean("PTGLgraphComputation_B_useDB") && Settings.getBoolean("PTGLgraphComputation_B_folding_graphs") && Settings.getBoolean("PTGLgraphComputation_B_compute_motifs")) {
                 Integer numAssigned = 0;
                 try {
@@ -4221,14 +4516,18 @@ public class Main {
                     System.out.println("      Not computing any motifs for chain " + chain + " (disabled, requires FGs and database).");
                 }
             }
-            
+        
             // Testing only
             //System.out.println("Chain allRes chemProps: " + c.getChainChemProps5StringAllResidues());
             //String[] str = c.getChainChemPropsStringSSEResiduesOnly(" ");
             //System.out.println("Chain SSE chemProps: " + str[0]);
             //System.out.println("Chain SSE sourceSSE: " + str[1]);
-            
+        
         }
+        for(ChainGraphs chainGraphs : preparedChains) {
+            chainGraphs.finishImages();
+        }
+        md.putAll(metaDataAfterAllChains);
         
         DBManager.commit();
         
@@ -4415,21 +4714,12 @@ public class Main {
                     }
 
                     // assign SSEs in database
-                    try {
-                        fgDbId = DBManager.getDBFoldingGraphID(pdbid, chain, gt, fg_number);
-                    } catch(SQLException sqlex) {
-                        DP.getInstance().e("Main", "Folding graph #" + fg_number + " not found in DB: '" + sqlex.getMessage() + "'.");
-                        fgDbId = -1L;
-                    }
                     if(fgDbId >= 1) {
                         try {
-                            Integer[] numAssigned = DBManager.assignSSEsToFoldingGraphInOrderWithSecondat(fg.getVertices(), fgDbId, gt, fg_number, FoldingGraph.getFoldNameOfFoldNumber(fg_number));
+                            // the rows are written when the entry is committed, which also compares the sse2fg and secondat row counts
+                            int numAssignedSSEs = getEntryDBWriter(pdbid).assignSSEsToFoldingGraph(fg.getVertices(), chain, fgDbId, gt, fg_number, FoldingGraph.getFoldNameOfFoldNumber(fg_number));
                             if(! (silent || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"))) {
-                                if(Objects.equals(numAssigned[0], numAssigned[1])) {
-                                    System.out.println("        Assigned " + numAssigned[0] + " SSEs to " + gt + " folding graph # " + fg_number + " of PDB ID '" + pdbid + "' chain '" + chain + "' in the DB.");
-                                } else {
-                                    DP.getInstance().w("Main", "SSE to folding graph assignment: " + numAssigned[0] + " SSEs assigned to fg # " + fg_number + " in sse2fg table, but " + numAssigned[1] + " in secondat table -- expected same value.");
-                                }
+                                System.out.println("        Assigned " + numAssignedSSEs + " SSEs to " + gt + " folding graph # " + fg_number + " of PDB ID '" + pdbid + "' chain '" + chain + "' in the DB.");
                             }
 
 
@@ -4523,21 +4813,20 @@ public class Main {
                                     
                                     dbImagePath += DrawTools.getFileExtensionForImageFormat(format);
                                     
-                                    int numAff = 0;
-                                    try {
-                                        numAff = DBManager.updateFoldingGraphImagePathInDB(fgDbId, format, notation, IO.pathToWebPath(dbImagePath));
-                                    } catch(SQLException e) {
-                                        DP.getInstance().e("Main", "Could not update format " + format + " folding graph image path in database: '" + e.getMessage() + "'.");
-                                    }
-                                    
-                                    if(numAff == 0) {
-                                        DP.getInstance().e("Main", "Could not update format " + format + " folding graph image path in database, 0 rows affected.");
-                                    }
-                                    else {
-                                        if(! (silent || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"))) {
-                                            System.out.println("          Updated FG " + notation + " notation " + format + " format image path in database.");
+                                    final Long imageFgDbId = fgDbId;
+                                    final String webPath = IO.pathToWebPath(dbImagePath);
+                                    final boolean printUpdate = ! (silent || Settings.getBoolean("PTGLgraphComputation_B_only_essential_output"));
+                                    getEntryDBWriter(pdbid).writeBehind("format " + format + " folding graph image path", () -> {
+                                        int numAff = DBManager.updateFoldingGraphImagePathInDB(imageFgDbId, format, notation, webPath);
+                                        if(numAff == 0) {
+                                            DP.getInstance().e("Main", "Could not update format " + format + " folding graph image path in database, 0 rows affected.");
                                         }
-                                    }
+                                        else {
+                                            if(printUpdate) {
+                                                System.out.println("          Updated FG " + notation + " notation " + format + " format image path in database.");
+                                            }
+                                        }
+                                    });
                                 }
                                 
                                 /*
@@ -4717,6 +5006,57 @@ public class Main {
     
 
     
+    /**
+     * Counts the graphlets of a graph in-process, see GraphletCounts. Used if PTGLgraphComputation_B_compute_graphlets is set, the callers
+     * store the normalized counts.
+     * @param g the graph
+     * @param vertexLabels the vertex labels used for the labeled graphlets, see getSSETypeLabels() and getChemProp3Labels()
+     * @param alphabet the alphabet of the labels, e.g., GraphletCounts.ALPHABET_SSE
+     * @param graphDesc the graph for messages, e.g., "albe graph of PDB ID '7tim' chain 'A'"
+     * @return the graphlet counts, or null if the graph contains no graphlets (and thus there are no normalized counts)
+     */
+    public static GraphletCounts countGraphlets(SimpleGraphInterface g, String[] vertexLabels, String alphabet, String graphDesc) {
+        GraphletCounts gc = GraphletCounts.compute(g, vertexLabels, alphabet);
+        if(gc.getTotalCount() == 0L) {
+            if(! Settings.getBoolean("PTGLgraphComputation_B_silent")) {
+                System.out.println("      No graphlets found in " + graphDesc + ", no graphlet counts stored.");
+            }
+            return null;
+        }
+        return gc;
+    }
+    
+    
+    /**
+     * Returns the SSE types of the vertices of an SSE graph, which are the vertex labels of its labeled graphlets (the 'sse_type' in the GML file).
+     * @param g the protein or complex graph
+     * @return the SSE type of each vertex, by index
+     */
+    public static String[] getSSETypeLabels(SSEGraph g) {
+        String[] labels = new String[g.getSize()];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = g.getVertex(i).getSseType();
+        }
+        return labels;
+    }
+    
+    
+    /**
+     * Returns the chemical properties of the residues of an AA graph, which are the vertex labels of its labeled graphlets (the 'chem_prop3'
+     * in the GML file). Other molecules, e.g., ligands, have no label.
+     * @param g the AA graph
+     * @return the chemical property of each vertex by index, or null for molecules which are no residues
+     */
+    public static String[] getChemProp3Labels(AAGraph g) {
+        String[] labels = new String[g.getNumVertices()];
+        for(int i = 0; i < labels.length; i++) {
+            Molecule m = g.getVertex(i);
+            labels[i] = (m instanceof Residue ? ((Residue) m).getChemicalProperty3OneLetterString() : null);
+        }
+        return labels;
+    }
+    
+    
     /**
      * Writes the String 'data' into the file  at 'filePath', overwriting the file if it exists
      * and creating it if not.
@@ -4749,19 +5089,36 @@ public class Main {
         }
         return(res);
     }
-
+
+    
+    /**
+     * Calculates the requested type of protein graph for the given list of SSEs (usually all SSEss of a chainName) and residue contacts.
+     * @param graphType the requested graph type
+     * @param allChainSSEs the SSEs of a chainName
+     * @param c the chainName
+     * @param resContacts a list of residue contacts (between residues of c)
+     * @param pdbid the PDBID of the protein the chainName c belongs to
+     * @return the resulting protein graph
+     */
+    public static ProtGraph calcGraphType(String graphType, List<SSE> allChainSSEs, Chain c, List<MolContactInfo> resContacts, String pdbid) {
+        ContactMatrix chainCM = computeGraphTypeContacts(graphType, allChainSSEs, c, resContacts, pdbid);
+        writeGraphTypeContactsToDB(graphType, chainCM);
+        return(contactsToProtGraph(graphType, chainCM));
+    }
+    
     
     /**
-     * Calculates the requested type of protein graph for the given list of SSEs (usually all SSEss of a chainName) and residue contacts.
+     * Calculates the SSE contact matrix of the requested type of protein graph, the expensive part of calcGraphType(). Called by the worker
+     * threads of calculateSSEGraphsForChains(), so it does not write to the database and only reads the SSEs and contacts.
      * @param graphType the requested graph type
      * @param allChainSSEs the SSEs of a chainName
      * @param c the chainName
      * @param resContacts a list of residue contacts (between residues of c)
      * @param pdbid the PDBID of the protein the chainName c belongs to
-     * @return the resulting protein graph
+     * @return the contact matrix, with the SSE contacts and spatial relations computed
+     * @throws IllegalArgumentException if the graph type is invalid, thrown again by ChainGraphs.collect() on the collecting thread
      */
-    public static ProtGraph calcGraphType(String graphType, List<SSE> allChainSSEs, Chain c, List<MolContactInfo> resContacts, String pdbid) {
-
+    static ContactMatrix computeGraphTypeContacts(String graphType, List<SSE> allChainSSEs, Chain c, List<MolContactInfo> resContacts, String pdbid) {
         ContactMatrix chainCM;
         Boolean silent = Settings.getBoolean("PTGLgraphComputation_B_silent");
 
@@ -4802,8 +5159,7 @@ public class Main {
             keepSSEs.add("L");
         }
         else {
-            System.err.println("ERROR: calcGraphType(): Graph type '" + graphType + "' invalid.");            
-            Main.doExit(1);
+            throw new IllegalArgumentException("computeGraphTypeContacts(): Graph type '" + graphType + "' invalid.");
         }
 
         // Filters have been configured, now do the actual filtering.
@@ -4844,18 +5200,21 @@ public class Main {
 
         //UndirectedGraph<String, LabeledEdge> g = chainCM.toJGraph();
 
-        // We only write the SSE contacts for the albelig graph because it contains all SSEs we are interested in.
-        //  Writing them for all makes them appear multiple times.
-        if(Settings.getBoolean("PTGLgraphComputation_B_useDB") && graphType.equals("albelig")) {
-            
-            if(Settings.getBoolean("PTGLgraphComputation_B_db_use_batch_inserts")) {
-                chainCM.batchWriteContactStatisticsToDB();
-            } else {
-                chainCM.writeContactStatisticsToDB();
-            }
-        }
-
-
+        return(chainCM);
+    }
+    
+    
+    /**
+     * Creates the protein graph of a contact matrix computed by computeGraphTypeContacts(). This assigns the graph indices of the SSEs
+     * (see SSE.shortLabel()), which are shared by the graphs of all graph types of the chain, so it must be called right before the graph is
+     * handled and by the thread which handles it.
+     * @param graphType the graph type
+     * @param chainCM the contact matrix
+     * @return the protein graph
+     */
+    static ProtGraph contactsToProtGraph(String graphType, ContactMatrix chainCM) {
+        Boolean silent = Settings.getBoolean("PTGLgraphComputation_B_silent");
+        
         ProtGraph pg = chainCM.toProtGraph();
         pg.declareProteinGraph();
 
@@ -4867,9 +5226,27 @@ public class Main {
             pg.addFullBackboneContacts();            
         }
 
-        //System.out.println("    ----- Done with " + graphType + " graph of chainName " + c.getPdbChainID() + ". -----");
         return(pg);
-
+    }
+    
+    
+    /**
+     * Writes the SSE contacts of a contact matrix computed by computeGraphTypeContacts() to the database, if required. Must be called by the
+     * thread which holds the DB transaction of the PDB entry.
+     * @param graphType the graph type
+     * @param chainCM the contact matrix
+     */
+    static void writeGraphTypeContactsToDB(String graphType, ContactMatrix chainCM) {
+        // We only write the SSE contacts for the albelig graph because it contains all SSEs we are interested in.
+        //  Writing them for all makes them appear multiple times.
+        if(Settings.getBoolean("PTGLgraphComputation_B_useDB") && graphType.equals("albelig")) {
+            
+            if(Settings.getBoolean("PTGLgraphComputation_B_db_use_batch_inserts")) {
+                chainCM.batchWriteContactStatisticsToDB();
+            } else {
+                chainCM.writeContactStatisticsToDB();
+            }
+        }
     }
 
 
@@ -4899,6 +5276,30 @@ public class Main {
     }
 
 
+    /**
+     * Writes the results of a structure search in the database to the file 'matrix_search_db_results.lst', one line per protein chain.
+     * @param results the proteins [pdbid, chain] which contain the structure, see DBManager.matrixSearchDB()
+     */
+    private static void writeMatrixSearchDBResults(ArrayList<ArrayList<String>> results) {
+        try {
+            System.out.println("Saving all proteins (pdbid and chain) in the file 'matrix_search_db_results.lst'. ");
+
+            File file_results = new File("matrix_search_db_results.lst");
+            FileWriter writer = new FileWriter(file_results);
+
+            for (ArrayList<String> r : results){ //print the results = pdbid and chain of all proteins, that contain the linear notation from the input
+                writer.write(r.get(0) + r.get(1)); //write results to file
+                writer.write(System.getProperty("line.separator")); //add a new line
+            }
+            writer.flush();
+            writer.close();
+
+        } catch (IOException ex) {
+            java.util.logging.Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+
     /**
      * Prints short info on how to get help on command line options and exits the program.
      */
@@ -5036,7 +5437,29 @@ public class Main {
     }
     
     
-    private static long calculateSkipNeighborNum(Molecule mol1, Molecule mol2, int maxSequenceNeighborDist, int currentSeqPos, int SeqLength) {
+    /**
+     * Determines how many of the following residues can be skipped after the residues a and b turned out to be out of contact, using the
+     * global max sequence neighbor distance. This is the sequence neighbor skip of calculateAllContacts(), see there for details.
+     * @param a one of the residues of the residue pair
+     * @param b one of the residues of the residue pair
+     * @return the number of residues to skip
+     */
+    static long calculateGlobalSkipNeighborNum(Molecule a, Molecule b) {
+        Integer atomRadius = Settings.getInteger("PTGLgraphComputation_I_aa_atom_radius");
+        long spaceBetweenResidues = a.distTo(b) - (2 * atomRadius + a.getSphereRadius() + b.getSphereRadius());
+        
+        if(spaceBetweenResidues > globalMaxSeqNeighborResDist) {
+            long numResToSkip = spaceBetweenResidues / globalMaxSeqNeighborResDist;
+            if(Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2) {
+                System.out.println("  [DEBUG LV 2] Residue skipping kicked in for DSSP res " + a.getDsspNum() + ", skipped " + numResToSkip + " residues after " + b.getDsspNum() + " in distance " + a.distTo(b));
+            }
+            return numResToSkip;
+        }
+        return 0;
+    }
+    
+    
+    static long calculateSkipNeighborNum(Molecule mol1, Molecule mol2, int maxSequenceNeighborDist, int currentSeqPos, int SeqLength) {
         // jnw_2019: following taken from old contact computation and adopted such that maxSeqNeighDist without ligands and within each chain
         //   See there for comments how sequence neigbhor skip works in general (removed here for brevity)
         
@@ -5622,6 +6045,294 @@ public class Main {
 
     }
     
+    
+    /**
+     * Calculates all contacts between the residues in mols, like calculateAllContacts(), but split into rows of residue pairs (see ContactBlock)
+     * which are computed using a cell list and/or in parallel. Without a cell list, the result is identical (including order) to the one of
+     * calculateAllContacts(). With a cell list, no pair is skipped: the sequence neighbor skip of calculateAllContacts() steps over list
+     * positions, also over the ends of chains and over ligands, so it may miss contacts which are found then (see ContactBlock.computeRow()).
+     * @param mols A list of Molecule objects.
+     * @param useCellList whether to use a cell list (ContactCellGrid) to find the residue pairs which need to be checked
+     * @param parallel whether to compute the rows in parallel, see computeContactBlocks()
+     * @return A contact table with one row for each pair of residues that are in contact, see ContactTable.
+     */
+    public static ContactTable calculateAllContactsByBlocks(ArrayList<Molecule> mols, boolean useCellList, boolean parallel) {
+        
+        List<Molecule> handledMols = mols;
+        if(Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct")) {
+            handledMols = mols.subList(0, Math.min(2, mols.size()));
+            System.out.println("DEBUG: Warning: Limiting residue contact computation to the first " + handledMols.size() + " residues.");
+        }
+        
+        ArrayList<ContactBlock> blocks = new ArrayList<>();
+        blocks.add(new ContactBlock(handledMols, handledMols, true, ContactBlock.SKIP_GLOBAL, 0, ! Settings.getBoolean("PTGLgraphComputation_B_write_lig_geolig")));
+        
+        return computeContactBlocks(blocks, handledMols, useCellList, parallel);
+    }
+    
+    
+    /**
+     * Calculates all atom contacts between all chains which are in contact, like calculateAllContactsChainSphereSpeedup(), but split into rows
+     * of residue pairs (see ContactBlock) which are computed using a cell list and/or in parallel. The residue pairs are handled in the same order
+     * as in calculateAllContactsChainSphereSpeedup(), so the result is identical to the one of that function without a cell list. With a cell
+     * list, all pairs of the blocks are checked without the sequence neighbor skip, which may find some more contacts.
+     * @param chains list of chains
+     * @param useCellList whether to use a cell list (ContactCellGrid) to find the residue pairs which need to be checked
+     * @param parallel whether to compute the rows in parallel, see computeContactBlocks()
+     * @return a contact table holding all the contact information
+     */
+    public static ContactTable calculateAllContactsChainSphereByBlocks(List<Chain> chains, boolean useCellList, boolean parallel) {
+        int chainCount = chains.size();
+        if(Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct")) {
+            chainCount = Math.min(2, chainCount);
+            System.out.println("DEBUG: Warning: Limiting residue contact computation to the first " + chainCount + " chains and their residues.");
+        }
+        
+        ArrayList<Molecule> allMols = new ArrayList<>();
+        for (int k = 0; k < chainCount; k++) {
+            allMols.addAll(chains.get(k).getMolecules());
+        }
+        
+        Boolean withLigands = Settings.getBoolean("PTGLgraphComputation_B_write_lig_geolig");
+        ArrayList<ContactBlock> blocks = new ArrayList<>();
+        
+        // The blocks of residue pairs, their order and the sequence neighbor skip of each block follow
+        //  calculateAllContactsChainSphereSpeedup(), see there for details.
+        for (int k = 0; k < chainCount; k++) {
+            Chain chainA = chains.get(k);
+            if (chainA.getRadiusFromCentroid() == -1) {
+                continue;
+            }
+            
+            ArrayList<Molecule> AAResiduesA = new ArrayList<>();
+            AAResiduesA.addAll(chainA.getAllAAResidues());
+            AAResiduesA.addAll(chainA.getAllRnaResidues());
+            ArrayList<Ligand> ligResiduesA = chainA.getAllLigandResidues();
+            int chainAMaxSeqNeighborAADist = chainA.getMaxSeqNeighborAADist();
+            
+            // contacts within chain
+            blocks.add(new ContactBlock(AAResiduesA, AAResiduesA, true, ContactBlock.SKIP_CHAIN, chainAMaxSeqNeighborAADist, false));
+            if (withLigands) {
+                for (int i = 0; i < ligResiduesA.size(); i++) {
+                    List<Ligand> singleLig = ligResiduesA.subList(i, i + 1);
+                    blocks.add(new ContactBlock(singleLig, AAResiduesA, false, ContactBlock.SKIP_CHAIN, chainAMaxSeqNeighborAADist, false));
+                    blocks.add(new ContactBlock(singleLig, ligResiduesA.subList(i + 1, ligResiduesA.size()), false, ContactBlock.SKIP_NONE, 0, false));
+                }
+            }
+            
+            // contacts between chains
+            for (int l = k + 1; l < chainCount; l++) {
+                Chain chainB = chains.get(l);
+                if (chainB.getRadiusFromCentroid() == -1 || ! chainA.contactPossibleWithChain(chainB)) {
+                    continue;
+                }
+                
+                ArrayList<Molecule> AAResiduesB = new ArrayList<>();
+                AAResiduesB.addAll(chainB.getAllAAResidues());
+                AAResiduesB.addAll(chainB.getAllRnaResidues());
+                ArrayList<Ligand> ligResiduesB = chainB.getAllLigandResidues();
+                int chainBMaxSeqNeighborAADist = chainB.getMaxSeqNeighborAADist();
+                
+                if (chainA.getAllAAResidues().size() > chainB.getAllAAResidues().size()) {
+                    blocks.add(new ContactBlock(AAResiduesB, AAResiduesA, false, ContactBlock.SKIP_CHAIN, chainBMaxSeqNeighborAADist, false));
+                } else {
+                    blocks.add(new ContactBlock(AAResiduesA, AAResiduesB, false, ContactBlock.SKIP_CHAIN, chainAMaxSeqNeighborAADist, false));
+                }
+                
+                if (withLigands) {
+                    for (int i = 0; i < ligResiduesA.size(); i++) {
+                        List<Ligand> singleLig = ligResiduesA.subList(i, i + 1);
+                        blocks.add(new ContactBlock(singleLig, AAResiduesB, false, ContactBlock.SKIP_CHAIN, chainBMaxSeqNeighborAADist, false));
+                        blocks.add(new ContactBlock(singleLig, ligResiduesB, false, ContactBlock.SKIP_NONE, 0, false));
+                    }
+                    blocks.add(new ContactBlock(ligResiduesB, AAResiduesA, false, ContactBlock.SKIP_CHAIN, chainAMaxSeqNeighborAADist, false));
+                }
+            }
+        }
+        
+        return computeContactBlocks(blocks, allMols, useCellList, parallel);
+    }
+    
+    
+    /**
+     * Calculates all contacts between the residues in mol according to the alternative contact model, like calculateAllContactsAlternativeModel(),
+     * but split into rows of residue pairs (see ContactBlock) which are computed using a cell list and/or in parallel. The result is identical.
+     * @param mol a list of residues
+     * @param useCellList whether to use a cell list (ContactCellGrid) to find the residue pairs which need to be checked
+     * @param parallel whether to compute the rows in parallel, see computeContactBlocks()
+     * @return A contact table with one row for each pair of residues that are in contact, see ContactTable.
+     */
+    public static ContactTable calculateAllContactsAlternativeModelByBlocks(List<Molecule> mol, boolean useCellList, boolean parallel) {
+        if (Settings.getBoolean("PTGLgraphComputation_B_include_rna")) {
+            DP.getInstance().w("Inclusion of RNA not implemented for alternative contacts model. Ignoring RNA.");
+        }
+        
+        ArrayList<ContactBlock> blocks = new ArrayList<>();
+        blocks.add(ContactBlock.alternativeModelBlock(mol));
+        
+        return computeContactBlocks(blocks, mol, useCellList, parallel);
+    }
+    
+    
+    /**
+     * Computes the atom contacts of all rows of the given blocks, and returns them in block and row order. If parallel is set, the rows are
+     * computed by a fork/join pool with 'PTGLgraphComputation_I_contact_threads' threads (all available processors if not positive). The contact
+     * statistics of the worker threads are added to the global ones afterwards.
+     * @param blocks the blocks of residue pairs to check
+     * @param mols all residues occurring in the blocks
+     * @param useCellList whether to use a cell list (ContactCellGrid) to find the residue pairs which need to be checked
+     * @param parallel whether to compute the rows in parallel
+     * @return A contact table with one row for each pair of residues that are in contact.
+     */
+    private static ContactTable computeContactBlocks(List<ContactBlock> blocks, List<? extends Molecule> mols, boolean useCellList, boolean parallel) {
+        
+        ContactCellGrid grid = null;
+        if (useCellList) {
+            grid = new ContactCellGrid(mols);
+            for (ContactBlock b : blocks) {
+                b.prepareForGrid();
+            }
+        }
+        
+        int numRows = 0;
+        for (ContactBlock b : blocks) {
+            numRows += b.getNumRows();
+        }
+        
+        int numContactTypes = (blocks.isEmpty() ? NUM_MOLECULE_PAIR_CONTACT_TYPES : blocks.get(0).getNumContactTypes());
+        ContactTable contactInfo;
+        int numThreads = 1;
+        if (parallel) {
+            numThreads = Settings.getInteger("PTGLgraphComputation_I_contact_threads");
+            if (numThreads <= 0) {
+                numThreads = Runtime.getRuntime().availableProcessors();
+            }
+            
+            // The geometry of the molecules is computed lazily when first needed. Do it here, so the worker threads only read it.
+            for (Molecule m : mols) {
+                if (m.hasAtoms()) {
+                    m.getGeometry();
+                    m.getSphereRadius();
+                }
+            }
+            
+            int[] rowBlocks = new int[numRows];
+            int[] rowIndices = new int[numRows];
+            int r = 0;
+            for (int b = 0; b < blocks.size(); b++) {
+                for (int i = 0; i < blocks.get(b).getNumRows(); i++) {
+                    rowBlocks[r] = b;
+                    rowIndices[r] = i;
+                    r++;
+                }
+            }
+            
+            // the statistics arrays of the worker threads of this computation, merged into the contact array of the entry at the end
+            Integer[][][][] entryContactStats = contact;
+            List<Integer[][][][]> allWorkerContactStats = Collections.synchronizedList(new ArrayList<Integer[][][][]>());
+            ForkJoinPool pool = new ForkJoinPool(numThreads);
+            try {
+                contactInfo = pool.invoke(new ContactRowsTask(blocks, rowBlocks, rowIndices, 0, numRows, grid, numContactTypes, allWorkerContactStats));
+            } finally {
+                pool.shutdown();
+                workerContactStats.remove();
+                mergeWorkerContactStatistics(allWorkerContactStats, entryContactStats);
+            }
+        }
+        else {
+            contactInfo = new ContactTable(numContactTypes);
+            for (ContactBlock b : blocks) {
+                for (int i = 0; i < b.getNumRows(); i++) {
+                    b.computeRow(i, grid, contactInfo);
+                }
+            }
+        }
+        
+        if(! FileParser.silent) {
+            if (grid != null) {
+                System.out.println("  Cell list with " + grid.getNumOccupiedCells() + " occupied cells of size " + grid.getCellSize() + " used for " + mols.size() + " residues.");
+            }
+            System.out.println("  Checked " + numRows + " residues in " + blocks.size() + " blocks using " + numThreads + " thread(s): " + contactInfo.size() + " contacts found.");
+            if( ! Settings.getBoolean("PTGLgraphComputation_B_write_lig_geolig")) {
+                System.out.println("  Configured to ignore ligands.");
+            }
+        }
+        
+        return contactInfo;
+    }
+    
+    
+    /**
+     * Returns the contact statistics array which the current thread has to update, i.e., its own array if it is a worker thread of a parallel
+     * contact computation (see initWorkerContactStatistics()), and the global contact array otherwise.
+     * @return the contact statistics array
+     */
+    static Integer[][][][] getContactStatistics() {
+        Integer[][][][] stats = workerContactStats.get();
+        return (stats != null ? stats : contact);
+    }
+    
+    
+    /**
+     * Creates the zeroed contact statistics array of the entry, which calculateAtomContactsBetweenResidues() updates.
+     */
+    public static void initContactStatistics() {
+        contact = new Integer[NUM_AAs][NUM_AAs][MAX_ATOMS_PER_AA][MAX_ATOMS_PER_AA];
+        for(Integer i = 0; i < NUM_AAs; i++) {
+            for(Integer j = 0; j < NUM_AAs; j++) {
+                for(Integer k = 0; k < MAX_ATOMS_PER_AA; k++) {
+                    for(Integer l = 0; l < MAX_ATOMS_PER_AA; l++) {
+                        contact[i][j][k][l] = 0;
+                    }
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Gives the current thread its own zeroed contact statistics array, unless it already has one. Called by the worker threads of a
+     * parallel contact computation, as the global contact array must not be updated concurrently.
+     * @param allWorkerContactStats the statistics arrays of all worker threads of the computation, the new array is added to it
+     */
+    static void initWorkerContactStatistics(List<Integer[][][][]> allWorkerContactStats) {
+        if (workerContactStats.get() == null) {
+            Integer[][][][] stats = new Integer[NUM_AAs][NUM_AAs][MAX_ATOMS_PER_AA][MAX_ATOMS_PER_AA];
+            for (Integer[][][] s3 : stats) {
+                for (Integer[][] s2 : s3) {
+                    for (Integer[] s1 : s2) {
+                        Arrays.fill(s1, 0);
+                    }
+                }
+            }
+            workerContactStats.set(stats);
+            allWorkerContactStats.add(stats);
+        }
+    }
+    
+    
+    /**
+     * Adds the contact statistics of all worker threads of a parallel contact computation to a contact array.
+     * @param allWorkerContactStats the statistics arrays of the worker threads, see initWorkerContactStatistics()
+     * @param contact the contact array to add them to
+     */
+    private static void mergeWorkerContactStatistics(List<Integer[][][][]> allWorkerContactStats, Integer[][][][] contact) {
+        synchronized (contact) {
+            for (Integer[][][][] stats : allWorkerContactStats) {
+                for (int i = 0; i < NUM_AAs; i++) {
+                    for (int j = 0; j < NUM_AAs; j++) {
+                        for (int k = 0; k < MAX_ATOMS_PER_AA; k++) {
+                            for (int l = 0; l < MAX_ATOMS_PER_AA; l++) {
+                                contact[i][j][k][l] += stats[i][j][k][l];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    
     /**
      * Calculates all contacts between the residues in res.
      * @param mols list of molecule objects.
@@ -5794,6 +6505,36 @@ public class Main {
      * @return A MolContactInfo object with information on the atom contacts between 'a' and 'b'.
      */
     public static MolContactInfo calculateAtomContactsBetweenResidues(Molecule a, Molecule b) {
+        return calculateAtomContactsBetweenResidues(a, b, null);
+    }
+    
+    
+    /**
+     * Calculates the atom contacts between the residues 'a' and 'b' and adds them as a row to the given contact table, if any.
+     * No MolContactInfo object is created.
+     * @param a one of the residues of the residue pair
+     * @param b one of the residues of the residue pair
+     * @param table the table to add the contact to, must have NUM_MOLECULE_PAIR_CONTACT_TYPES contact types
+     * @return true if the residues are in contact and a row was added, false otherwise
+     */
+    public static boolean addAtomContactsBetweenResidues(Molecule a, Molecule b, ContactTable table) {
+        int numRows = table.size();
+        calculateAtomContactsBetweenResidues(a, b, table);
+        return table.size() > numRows;
+    }
+    
+    
+    /**
+     * Calculates the atom contacts between the residues 'a' and 'b'. The per contact type values are collected in arrays which are
+     * reused by all calls of the current thread, and only copied if the residues are in contact.
+     * @param a one of the residues of the residue pair
+     * @param b one of the residues of the residue pair
+     * @param table the table to add the contact to, or null to return it as a new MolContactInfo object
+     * @return A MolContactInfo object with information on the atom contacts between 'a' and 'b', null if there are none or table is given
+     */
+    private static MolContactInfo calculateAtomContactsBetweenResidues(Molecule a, Molecule b, ContactTable table) {
+        
+        Integer[][][][] contactStats = getContactStatistics();     // the contact statistics of this thread, see getContactStatistics()
         
         
         ArrayList<Atom> atoms_a = a.getAtoms();
@@ -5805,7 +6546,8 @@ public class Main {
         MolContactInfo result = null;
 
 
-        Integer[] numPairContacts = new Integer[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
+        int[][] pairArrays = contactPairArrays.get();
+        int[] numPairContacts = pairArrays[0];
         // The positions in the numPairContacts array hold the number of contacts of each type for a pair of residues:
         // Some cheap vars to make things easier to understand (a replacement for #define):
         /*
@@ -5829,14 +6571,14 @@ public class Main {
 
 
 
-        Integer[] minContactDistances = new Integer[numPairContacts.length];
+        int[] minContactDistances = pairArrays[1];
         // Holds the minimal distances of contacts of the appropriate type (see numPairContacts, index 0 is unused)
 
-        Integer[] contactAtomNumInResidueA = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueA = pairArrays[2];
         // Holds the number Atom x has in its residue a for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
 
-        Integer[] contactAtomNumInResidueB = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueB = pairArrays[3];
         // Holds the number Atom y has in its residue b for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
         
@@ -5871,6 +6613,17 @@ public class Main {
         
 
 
+        // Use the primitive coordinate store and the squared distance contact kernel if both residues are part of the store,
+        //  see AtomCoordinateStore and AtomContactKernel.
+        AtomContactKernel kernel = AtomContactKernel.getInstance();
+        AtomCoordinateStore store = a.getCoordinateStore();
+        if(store != b.getCoordinateStore() || ! kernel.canReplaceAtomMethods()) {
+            store = null;
+        }
+        boolean isContact;
+        int storeOffsetA = a.getCoordinateStoreOffset();
+        int storeOffsetB = b.getCoordinateStoreOffset();
+
         // Iterate through all atoms of the two residues and check contacts for all pairs
         outerloop:
         for(Integer i = 0; i < atoms_a.size(); i++) {
@@ -5904,9 +6657,19 @@ public class Main {
                 //System.out.println("        " + x);
                 //System.out.println("        " + y);
 
-                dist = x.distToAtom(y);
+                if(store != null) {
+                    isContact = kernel.contact(store, storeOffsetA + i, storeOffsetB + j);
+                    if(kernel.isValidationMode()) {
+                        isContact = kernel.checkAgainst(isContact, x.atomContactTo(y), x, y);
+                    }
+                } else {
+                    isContact = x.atomContactTo(y);      // If a contact is detected, Atom.atomContactTo() returns true
+                }
                 
-                if(x.atomContactTo(y)) {             // If a contact is detected, Atom.atomContactTo() returns true
+                if(isContact) {
+                    
+                    // only needed for contacts, so compute the actual distance here
+                    dist = (store != null ? store.distance(storeOffsetA + i, storeOffsetB + j) : x.distToAtom(y));
                    
                     
                     // The van der Waals radii spheres overlap, contact found.
@@ -5924,20 +6687,20 @@ public class Main {
                     
                     try {
 
-                        contact[0][0][0][0]++;                 // update global total number of contacts
-                        contact[aIntID][bIntID][0][0]++;       // contacts AA type a <-> AA type b
-                        contact[bIntID][aIntID][0][0]++;       // contacts AA type b <-> AA type a
+                        contactStats[0][0][0][0]++;                 // update global total number of contacts
+                        contactStats[aIntID][bIntID][0][0]++;       // contacts AA type a <-> AA type b
+                        contactStats[bIntID][aIntID][0][0]++;       // contacts AA type b <-> AA type a
 
 
                         //System.out.println("DEBUG: a=" + aIntID + ",b=" + bIntID + ",i=" + statAtomIDi + ",j=" + statAtomIDj + ". Residues=" + a.getFancyName() + "," + b.getFancyName() + ".");
-                        contact[aIntID][bIntID][statAtomIDi][statAtomIDj]++;       // contacts of atoms of AAs
-                        contact[bIntID][aIntID][statAtomIDj][statAtomIDi]++;
+                        contactStats[aIntID][bIntID][statAtomIDi][statAtomIDj]++;       // contacts of atoms of AAs
+                        contactStats[bIntID][aIntID][statAtomIDj][statAtomIDi]++;
 
-                        contact[aIntID][bIntID][statAtomIDi][0]++;                 // total number of contacts for atom x of this AA
-                        contact[bIntID][aIntID][0][statAtomIDi]++;
+                        contactStats[aIntID][bIntID][statAtomIDi][0]++;                 // total number of contacts for atom x of this AA
+                        contactStats[bIntID][aIntID][0][statAtomIDi]++;
 
-                        contact[aIntID][bIntID][statAtomIDj][0]++;                 // total number of contacts for atom x of this AA
-                        contact[bIntID][aIntID][0][statAtomIDj]++;
+                        contactStats[aIntID][bIntID][statAtomIDj][0]++;                 // total number of contacts for atom x of this AA
+                        contactStats[bIntID][aIntID][0][statAtomIDj]++;
                     } catch(java.lang.ArrayIndexOutOfBoundsException e) {
                         //DP.getInstance().w("calculateAtomContactsBetweenResidues():Contact statistics array out of bounds. Residues with excessive number of atoms detected: " + e.getMessage() + ".");
                         DP.getInstance().w("calculateAtomContactsBetweenResidues(): Atom count for residues too high (" + e.getMessage() + "), ignoring contacts for these atoms (aIntID=" + aIntID + ", bIntID=" + bIntID + ", statAtomIDi=" + statAtomIDi + ", statAtomIDj=" + statAtomIDj + ").");
@@ -6152,7 +6915,11 @@ public class Main {
 
         // Iteration through all atoms of the two residues is done
         if(numPairContacts[MolContactInfo.TT] > 0) {
-            result = new MolContactInfo(numPairContacts, minContactDistances, contactAtomNumInResidueA, contactAtomNumInResidueB, a, b, CAdist, numTotalLigContactsPair, numTotalRnaContactsPair);
+            if(table != null) {
+                table.addRow(a, b, CAdist, numTotalLigContactsPair, numTotalRnaContactsPair, numPairContacts, minContactDistances, contactAtomNumInResidueA, contactAtomNumInResidueB);
+            } else {
+                result = new MolContactInfo(numPairContacts.clone(), minContactDistances.clone(), contactAtomNumInResidueA.clone(), contactAtomNumInResidueB.clone(), a, b, CAdist, numTotalLigContactsPair, numTotalRnaContactsPair);
+            }
         }
         else {
             result = null;
@@ -6478,18 +7245,18 @@ public class Main {
         ArrayList<Atom> five_ring = new ArrayList<Atom>(); //in case of TRP
         
         
-        Integer[] numPairContacts = new Integer[Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL];
+        int[] numPairContacts = new int[Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL];
         Integer numTotalLigContactsPair = 0;
         Integer numTotalRnaContactsPair = 0;
 
-        Integer[] minContactDistances = new Integer[numPairContacts.length];
+        int[] minContactDistances = new int[numPairContacts.length];
         // Holds the minimal distances of contacts of the appropriate type (see numPairContacts, index 0 is unused)
 
-        Integer[] contactAtomNumInResidueA = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueA = new int[numPairContacts.length];
         // Holds the number Atom x has in its residue a for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
 
-        Integer[] contactAtomNumInResidueB = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueB = new int[numPairContacts.length];
         // Holds the number Atom y has in its residue b for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
         
@@ -8516,6 +9283,8 @@ public class Main {
      * @return A MolContactInfo object with information on the atom contacts between 'a' and 'b'.
      */
     public static MolContactInfo calculateAtomContactsBetweenResiduesAlternativeModel(Molecule a, Molecule b) {
+        
+        Integer[][][][] contactStats = getContactStatistics();     // the contact statistics of this thread, see getContactStatistics()
 
         ArrayList<Atom> atoms_a = a.getAtoms();
         ArrayList<Atom> atoms_b = b.getAtoms();
@@ -8553,7 +9322,7 @@ public class Main {
         // System.out.println(checkAromaticRingPlanarity(a)); 
         // System.out.println(checkAromaticRingPlanarity(b)); 
        
-        Integer[] numPairContacts = new Integer[Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL];
+        int[] numPairContacts = new int[Main.NUM_RESIDUE_PAIR_CONTACT_TYPES_ALTERNATIVE_MODEL];
         // The positions in the numPairContacts array hold the number of contacts of each type for a pair of residues:
         // Some cheap vars to make things easier to understand (a replacement for #define):
         /*
@@ -8585,14 +9354,14 @@ public class Main {
 
 
 
-        Integer[] minContactDistances = new Integer[numPairContacts.length];
+        int[] minContactDistances = new int[numPairContacts.length];
         // Holds the minimal distances of contacts of the appropriate type (see numPairContacts, index 0 is unused)
 
-        Integer[] contactAtomNumInResidueA = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueA = new int[numPairContacts.length];
         // Holds the number Atom x has in its residue a for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
 
-        Integer[] contactAtomNumInResidueB = new Integer[numPairContacts.length];
+        int[] contactAtomNumInResidueB = new int[numPairContacts.length];
         // Holds the number Atom y has in its residue b for the contact with minimal distance of that type.
         // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious + always the same)
         
@@ -8643,6 +9412,17 @@ public class Main {
         }
         
 
+        // Use the primitive coordinate store and the squared distance contact kernel if both residues are part of the store,
+        //  see AtomCoordinateStore and AtomContactKernel.
+        AtomContactKernel kernel = AtomContactKernel.getInstance();
+        AtomCoordinateStore store = a.getCoordinateStore();
+        if(store != b.getCoordinateStore() || ! kernel.canReplaceAtomMethods()) {
+            store = null;
+        }
+        boolean isContact;
+        int storeOffsetA = a.getCoordinateStoreOffset();
+        int storeOffsetB = b.getCoordinateStoreOffset();
+
         // Iterate through all atoms of the two residues and check contacts for all pairs
         outerloop:
         for(Integer i = 0; i < atoms_a.size(); i++) {
@@ -8676,7 +9456,7 @@ public class Main {
                 //System.out.println("        " + x);
                 //System.out.println("        " + y);
 
-                dist = x.distToAtom(y);
+                dist = (store != null ? store.distance(storeOffsetA + i, storeOffsetB + j) : x.distToAtom(y));
                 
                 // H-bonds
                 if (dist < 39) {
@@ -9726,7 +10506,16 @@ public class Main {
                 
                 
                 
-                if(x.vdwAtomContactTo(y)) {             // If a contact is detected, Atom.vdwAtomContactTo() returns true
+                if(store != null) {
+                    isContact = kernel.vdwContact(store, storeOffsetA + i, storeOffsetB + j);
+                    if(kernel.isValidationMode()) {
+                        isContact = kernel.checkAgainst(isContact, x.vdwAtomContactTo(y), x, y);
+                    }
+                } else {
+                    isContact = x.vdwAtomContactTo(y);   // If a contact is detected, Atom.vdwAtomContactTo() returns true
+                }
+                
+                if(isContact) {
 
                     // The van der Waals radii spheres overlap, contact found.
                     // NOT updating total number of contacts for this residue pair at this point, since we need to check later if we want to include ligand contacts
@@ -9743,20 +10532,20 @@ public class Main {
                     
                     try {
 
-                        contact[0][0][0][0]++;                 // update global total number of contacts
-                        contact[aIntID][bIntID][0][0]++;       // contacts AA type a <-> AA type b
-                        contact[bIntID][aIntID][0][0]++;       // contacts AA type b <-> AA type a
+                        contactStats[0][0][0][0]++;                 // update global total number of contacts
+                        contactStats[aIntID][bIntID][0][0]++;       // contacts AA type a <-> AA type b
+                        contactStats[bIntID][aIntID][0][0]++;       // contacts AA type b <-> AA type a
 
 
                         //System.out.println("DEBUG: a=" + aIntID + ",b=" + bIntID + ",i=" + statAtomIDi + ",j=" + statAtomIDj + ". Residues=" + a.getFancyName() + "," + b.getFancyName() + ".");
-                        contact[aIntID][bIntID][statAtomIDi][statAtomIDj]++;       // contacts of atoms of AAs
-                        contact[bIntID][aIntID][statAtomIDj][statAtomIDi]++;
+                        contactStats[aIntID][bIntID][statAtomIDi][statAtomIDj]++;       // contacts of atoms of AAs
+                        contactStats[bIntID][aIntID][statAtomIDj][statAtomIDi]++;
 
-                        contact[aIntID][bIntID][statAtomIDi][0]++;                 // total number of contacts for atom x of this AA
-                        contact[bIntID][aIntID][0][statAtomIDi]++;
+                        contactStats[aIntID][bIntID][statAtomIDi][0]++;                 // total number of contacts for atom x of this AA
+                        contactStats[bIntID][aIntID][0][statAtomIDi]++;
 
-                        contact[aIntID][bIntID][statAtomIDj][0]++;                 // total number of contacts for atom x of this AA
-                        contact[bIntID][aIntID][0][statAtomIDj]++;
+                        contactStats[aIntID][bIntID][statAtomIDj][0]++;                 // total number of contacts for atom x of this AA
+                        contactStats[bIntID][aIntID][0][statAtomIDj]++;
                     } catch(java.lang.ArrayIndexOutOfBoundsException e) {
                         //DP.getInstance().w("calculateAtomContactsBetweenResidues():Contact statistics array out of bounds. Residues with excessive number of atoms detected: " + e.getMessage() + ".");
                         DP.getInstance().w("calculateAtomContactsBetweenResidues(): Atom count for residues too high (" + e.getMessage() + "), ignoring contacts for these atoms (aIntID=" + aIntID + ", bIntID=" + bIntID + ", statAtomIDi=" + statAtomIDi + ", statAtomIDj=" + statAtomIDj + ").");
@@ -10058,9 +10847,9 @@ public class Main {
      * Prints an overview of all contacts to STDOUT.
      * @param rciList the residue contact information to consider
      */
-    public static void showContactOverview(ArrayList<MolContactInfo> rciList) {
+    public static void showContactOverview(List<MolContactInfo> rciList) {
 
-        ArrayList<MolContactInfo> contacts = rciList;
+        List<MolContactInfo> contacts = rciList;
         MolContactInfo rci;
         Integer contactNum;
 
@@ -10143,9 +10932,9 @@ public class Main {
      * ignored if this is 'false'). If this is true, each line will have additional fields at the
      * end which contain the ligand info.
      */
-    public static void writeContacts(ArrayList<MolContactInfo> rciList, String gf, Boolean useLigands) {
+    public static void writeContacts(List<MolContactInfo> rciList, String gf, Boolean useLigands) {
 
-        ArrayList<MolContactInfo> contacts = rciList;
+        List<MolContactInfo> contacts = rciList;
         MolContactInfo rci = null;
         Integer contactNum = 0;
         String geoFile = gf;
@@ -10385,7 +11174,7 @@ public class Main {
      * @param results The calculated results that should be saved.
      * @param out_file Where the files are saved.
      */
-    public static void writePPIstatistics(ArrayList<MolContactInfo> results, String out_file) {
+    public static void writePPIstatistics(List<MolContactInfo> results, String out_file) {
         
         // Initialize all different contact types
         int BBHB, BBBH, IVDW, ISS, BCHB, BCBH, CBHB, CBBH, CCHB, CCBH, BB, CB, 
@@ -10887,7 +11676,7 @@ public class Main {
         catch (Exception e) {
             System.err.println("ERROR: Could not write to file '" + modelsFile + "'.");
             e.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         // finally: write stuff
@@ -10917,7 +11706,7 @@ public class Main {
      * @param res the residues to consider
      */
     @Deprecated
-    public static Boolean writeDsspLigFile(String dsspFile, String dsspLigFile, ArrayList<MolContactInfo> contacts, ArrayList<Residue> res) {
+    public static Boolean writeDsspLigFile(String dsspFile, String dsspLigFile, List<MolContactInfo> contacts, ArrayList<Residue> res) {
         
         DP.getInstance().w("writeDsspLigFile(): This function is deprecated, use writeOrderedDsspLigFile() instead.\n");
         
@@ -11019,7 +11808,7 @@ public class Main {
         } catch (Exception ef) {
             System.err.println("ERROR: Could not copy file '" + dsspFile + "' to '" + dsspLigFile + "': '" + ef.getMessage() + "'.");
             ef.printStackTrace();
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         System.out.println("  DSSP ligand output file set to '" + dsspLigFile + "', file created.");
@@ -11039,7 +11828,7 @@ public class Main {
                 } catch(Exception cf) {
                     System.err.println("ERROR: Failed to insert line for ligand residue '" + m.getFancyName() + "' into dssplig file: '" + cf.getMessage() + "'.");
                     cf.printStackTrace();
-                    System.exit(1);
+                    throw new ExitError(1);
                 }
 
             }
@@ -11085,7 +11874,7 @@ public class Main {
 
         if(ln == - 1) {
             System.err.println("ERROR: getLastLineofChain(): DSSPLIG file '" + dsspligFile.getName() + "' contains no information on requested chain '" + chainID + "'.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         else {
             //System.out.println("DEBUG: Last line of chainName '" + chainID + "' in DSSPLIG file '" + dsspligFile.getName() + "' is " + ln + ".");
@@ -11215,6 +12004,7 @@ public class Main {
     public static void usage() {
         System.out.println("USAGE: java -jar PTGLgraphComputation.jar <pdbid> [OPTIONS]");
         System.out.println("       java -jar PTGLgraphComputation.jar --help");
+        System.out.println("       java -jar PTGLgraphComputation.jar --batch <listfile> [BATCH OPTIONS] [OPTIONS]");
         System.out.println("valid OPTIONS are: ");
         System.out.println("-a | --include-coils       : convert the SSE type of all ignored residues to C (coil) and include coils in the graphs (may split other SSEs)");
         System.out.println("-b | --draw-plcc-fgs <f>   : read graph in plcc format from file <f> and draw it and all its folding graphs, then exit (pdbid will be ignored)*");
@@ -11252,7 +12042,7 @@ public class Main {
         System.out.println("-r | --recreate-tables     : drop and recreate database tables and add base type data, then exit (see -u). Creates a reday-to-use database.*");
         System.out.println("     --recreate-tables-empty : drop and recreate database tables without adding base type data, then exit (see -u). Creates a completely empty database, suitable for restoring a dump exported from another server.*");        
         System.out.println("-s | --draw-linnots        : not only compute the folding graph linear notations, but draw all 4 of them to image files");
-        System.out.println("-S | --sim-measure <m>     : use similarity measure <m>. Valid settings include 'string_sse', 'graph_set' and 'graph_compat'.");
+        System.out.println("-S | --sim-measure <m>     : use similarity measure <m>. Valid settings include 'string_sse', 'graph_set', 'graph_compat' and 'graphlet_relfreq'.");
         System.out.println("-t | --draw-tgf-graph <f>  : read graph in TGF format from file <f> and draw it to <f>.png, then exit (pdbid will be ignored)*");
         System.out.println("     --draw-gml-graph <f>  : read graph in GML format from file <f> and draw it to <f>.png, then exit (pdbid will be ignored)*");
         System.out.println("     --props-gml-graph <f> : read graph in GML format from file <f> and compute graph properties, then exit (pdbid will be ignored)*");
@@ -11268,6 +12058,7 @@ public class Main {
         System.out.println("-Z | --silent              : silent mode. do not write output to STDOUT."); 
         System.out.println("     --verbose             : verbose mode. more detailed output."); 
         System.out.println("   --compute-graph-metrics : compute graph metrics like cluster coefficient for PGs. Slower!");
+        System.out.println("   --compute-graphlets     : count the graphlets of the PGs, CGs and AAGs and write them to the DB (or to files if no DB is used).");
         System.out.println("   --check-whether-in-db   : check whether the PDB file exists in the database and exit. Returns 0 if it does, 1 if not, value >1 on error.");
         System.out.println("   --draw-aag              : visualize amino acid graphs, test only");
         System.out.println("   --force                 : process a PDB file even if the resolution is too bad or the number of residues is too low according to settings.");
@@ -11277,12 +12068,19 @@ public class Main {
         System.out.println("   --include-rna           : Parse RNA and include in graph formalism and visualization");
         System.out.println("   --matrix-structure-search <nt> <ln> <gt>: search a structure <ln> in linear notation in a Proteingraph; <nt> = type of linnot; <gt> = graphtype of linnot");
         System.out.println("   --matrix-structure-search-db <nt> <ln> <gt>: search a structure <ln> in linear notation in the whole database; <nt> = type of linnot; <gt> = graphtype of linnot");
+        System.out.println("   --matrix-structure-search-db-interactive <gt>: read all folding graphs of graphtype <gt> from the database once, then search the structures in linear notation read from stdin, one per line");
         System.out.println("   --settingsfile <f>      : load settings from file <f>.");
         System.out.println("   --set <k> <v>           : set setting <k> to value <v>.");
         System.out.println("");
         System.out.println("The following options only make sense for database maintenance:");
         System.out.println("--set-pdb-representative-chains-pre <file> <k> : Set non-redundant chain status for all chains in DB from XML file <file>. <k> determines what to do with existing flags, valid options are 'keep' or 'remove'. Get the file from PDB REST API. Run this pre-update, BEFORE new data will be added.");
         System.out.println("--set-pdb-representative-chains-post <file> <k> : Set non-redundant chain status for all chains already existing in the chains table of the DB from XML file <file>. <k> determines what to do with existing flags, valid options are 'keep' or 'remove'. Get the file from PDB REST API. Run this post-update, after new data has been added.");
+        System.out.println("--reassign-motifs : Delete the motif assignments of all chains in the DB and compute them again from the linear notations in the DB, in parallel (see setting 'PTGLgraphComputation_I_motif_threads').");
+        System.out.println("");
+        System.out.println("The following BATCH OPTIONS only make sense with --batch, which processes all entries of <listfile> (lines '<pdbid> [<pdbfile> <dsspfile>]') in one JVM:");
+        System.out.println("   --batch-workers <n>     : handle the entries with <n> worker threads, which compute one entry at a time (default: setting 'PTGLgraphComputation_I_batch_workers', 0 for all processors)");
+        System.out.println("   --batch-manifest <f>    : write the status of each entry to manifest file <f> (default: '<listfile>.manifest'). Entries listed as OK in it are skipped.");
+        System.out.println("   --batch-logdir <d>      : write the log of each entry to '<d>/<pdbid>.log' (default: directory of the manifest file)");
         System.out.println("");
         System.out.println("The following options are tools integrated into this software:");
         System.out.println("--convert-models-to-chains <infile> <outfile>: Rewrite the input PDB file, transforming models into chains. Useful when treating PDB files which contain biological assemblies and you want all parts of a protein complex at once, e.g., to analyze the interactions between the chains.");
@@ -11316,7 +12114,7 @@ public class Main {
      * @return the script as a single string. note that the string may consist of multiple lines.
      */
     @Deprecated
-    public static String getPymolSelectionScript(ArrayList<MolContactInfo> contacts) {
+    public static String getPymolSelectionScript(List<MolContactInfo> contacts) {
 
         ArrayList<Residue> protRes = new ArrayList<Residue>();
         ArrayList<Residue> ligRes = new ArrayList<Residue>();
@@ -11438,7 +12236,7 @@ public class Main {
      * @param contacts the contacts to consider for the script.
      * @return the PyMol script as a string, which may consist of more than one line.
      */
-    public static String getPymolSelectionScriptByLigand(ArrayList<MolContactInfo> contacts) {
+    public static String getPymolSelectionScriptByLigand(List<MolContactInfo> contacts) {
         
         //the program assumes that we are working with object of class Molecule. 
         //However, there are methods that just need a residue as input and/or output parameter, 
@@ -11573,7 +12371,7 @@ public class Main {
      * @param contacts the contacts to consider for this script.
      * @return true if python file could be written, otherwise false.
      */
-    public static Boolean getPymolSelectionScriptPPI (ArrayList<MolContactInfo> contacts, String pdbid) {
+    public static Boolean getPymolSelectionScriptPPI (List<MolContactInfo> contacts, String pdbid) {
         ArrayList<Molecule> protRes = new ArrayList<Molecule>();  // all residues of interchain protein contacts
         ArrayList<Molecule> ligRes = new ArrayList<Molecule>();   // all residues of ligand contacts
         ArrayList<Molecule> ivdwRes = new ArrayList<Molecule>();  // all residues of interchain van der Waals contacts
@@ -13080,14 +13878,45 @@ public class Main {
     
     
     /**
-     * Ends plcc execution via calling System.exit(), but does maintenance work like closing open DB connections before that.
-     * @param exitCode the exit code to give to the System.exit() function
+     * Ends plcc execution via throwing an ExitError, but does maintenance work like closing open DB connections before that.
+     * @param exitCode the exit code of the ExitError, see main()
      */
     public static void doExit(int exitCode) {
         if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+            if(entryDBWriter != null) {
+                entryDBWriter.rollback();
+                entryDBWriter = null;
+            }
             DBManager.closeConnection();
         }
-        System.exit(exitCode);
+        throw new ExitError(exitCode);
+    }
+    
+    /**
+     * Resets the static state of the last computation, see computeEntry(), so the next one in the same JVM starts as in a new JVM. Rolls back
+     * the DB results of the last computation if it ended without committing them, e.g., because a parser threw an ExitError. Used by the
+     * batch mode after each entry.
+     */
+    static void resetEntryState() {
+        if(entryDBWriter != null) {
+            entryDBWriter.rollback();
+            entryDBWriter = null;
+        }
+        entryDBCommit = null;
+        DBManager.closeConnection();
+        
+        contact = null;
+        globalMaxCenterSphereRadius = null;
+        globalMaxSeqNeighborResDist = null;
+        deleteFilesOnExit = null;
+        useFileFromCommandline = true;
+        residues = null;
+        rnas = null;
+        ligands = null;
+        
+        Settings.resetToDefaults();
+        ProteinResults.getInstance().clear();
+        AtomContactKernel.resetInstance();
     }
     
     /**
@@ -13522,6 +14351,23 @@ public class Main {
             }
         } 
         
+        if(Settings.getBoolean("PTGLgraphComputation_B_compute_graphlets")) {
+            GraphletCounts gc = countGraphlets(SseCg, getSSETypeLabels(SseCg), GraphletCounts.ALPHABET_SSE, "complex graph of PDB ID '" + pdbid + "'");
+            if(gc != null) {
+                if(Settings.getBoolean("PTGLgraphComputation_B_useDB")) {
+                    final Double[] normalizedCounts = gc.getNormalizedCounts();
+                    getEntryDBWriter(pdbid).writeBehind("complex graph graphlet counts of " + pdbid, () -> {
+                        if(DBManager.writeNormalizedComplexgraphGraphletsToDB(pdbid, normalizedCounts) && (! silent)) {
+                            System.out.println("Wrote complex graph graphlet counts of " + pdbid + " to DB.");
+                        }
+                    });
+                }
+                else {
+                    IO.stringToTextFile(filePathGraphs + fs + fileNameSSELevelWithoutExtension + ".graphlets", gc.getNormalizedCountsString());
+                }
+            }
+        }
+        
         if(Settings.getBoolean("PTGLgraphComputation_B_compute_graph_metrics") && graphType.equals(SSEGraph.GRAPHTYPE_ALBELIG)) {
             GraphProperties gp = new GraphProperties(SseCg);
             GraphProperties sgp = new GraphProperties(gp.getLargestConnectedComponent());
@@ -13561,21 +14407,23 @@ public class Main {
                     DBManager.commit();
                 }
 
-                try {
-                    Long graph_db_id = DBManager.getDBComplexgraphID(pdbid);
-                    if(graph_db_id > 0L) {
-                        //System.out.println("Found complex graph " + pdbid + " with ID " + graph_db_id + ".");
-                        // write graph properties
-                        Long runtime_secs = null;
-                        DBManager.writeComplexgraphStatsToDB(graph_db_id, Boolean.FALSE, gp.getNumVertices(), gp.getNumEdges(), gp.getMinDegree(), gp.getMaxDegree(), gp.getConnectedComponents().size(), gp.getGraphDiameter(), gp.getGraphRadius(), gp.getAverageClusterCoefficient(), gp.getAverageShortestPathLength(), gp.getDegreeDistributionUpTo(50), gp.getAverageDegree(), gp.getDensity(), gp.getCumulativeDegreeDistributionUpToAsArray(50), runtime_secs);
-                        // write properties of largest CC of graph
-                        DBManager.writeComplexgraphStatsToDB(graph_db_id, Boolean.TRUE, sgp.getNumVertices(), sgp.getNumEdges(), sgp.getMinDegree(), sgp.getMaxDegree(), sgp.getConnectedComponents().size(), sgp.getGraphDiameter(), sgp.getGraphRadius(), sgp.getAverageClusterCoefficient(), sgp.getAverageShortestPathLength(), sgp.getDegreeDistributionUpTo(50), sgp.getAverageDegree(), sgp.getDensity(), sgp.getCumulativeDegreeDistributionUpToAsArray(50), runtime_secs);
-                    }
-                    else {
-                        DP.getInstance().e("Main", "Could not write complex graph properties to DB, graph not found in database.");
-                    }
-                } catch(SQLException e) {
-                    DP.getInstance().e("SQL error while trying to store complex graph stats: '" + e.getMessage()+ "'.");
+                Long graph_db_id = DBManager.getDBComplexgraphID(pdbid);
+                if(graph_db_id > 0L) {
+                    //System.out.println("Found complex graph " + pdbid + " with ID " + graph_db_id + ".");
+                    // write graph properties
+                    final Long runtime_secs = null;
+                    final GraphPropResults gpr = gp.getGraphPropResults();
+                    final Integer[] degreeDist = gp.getDegreeDistributionUpTo(50);
+                    final Integer[] cumulDegreeDist = gp.getCumulativeDegreeDistributionUpToAsArray(50);
+                    getEntryDBWriter(pdbid).writeBehind("stats of complex graph of " + pdbid, () -> DBManager.writeComplexgraphStatsToDB(graph_db_id, Boolean.FALSE, gpr.numVertices, gpr.numEdges, gpr.minDegree, gpr.maxDegree, gpr.numConnectedComponents, gpr.graphDiameter, gpr.graphRadius, gpr.averageClusterCoefficient, gpr.averageShortestPathLength, degreeDist, gpr.averageDegree, gpr.density, cumulDegreeDist, runtime_secs));
+                    // write properties of largest CC of graph
+                    final GraphPropResults sgpr = sgp.getGraphPropResults();
+                    final Integer[] sDegreeDist = sgp.getDegreeDistributionUpTo(50);
+                    final Integer[] sCumulDegreeDist = sgp.getCumulativeDegreeDistributionUpToAsArray(50);
+                    getEntryDBWriter(pdbid).writeBehind("stats of largest CC of complex graph of " + pdbid, () -> DBManager.writeComplexgraphStatsToDB(graph_db_id, Boolean.TRUE, sgpr.numVertices, sgpr.numEdges, sgpr.minDegree, sgpr.maxDegree, sgpr.numConnectedComponents, sgpr.graphDiameter, sgpr.graphRadius, sgpr.averageClusterCoefficient, sgpr.averageShortestPathLength, sDegreeDist, sgpr.averageDegree, sgpr.density, sCumulDegreeDist, runtime_secs));
+                }
+                else {
+                    DP.getInstance().e("Main", "Could not write complex graph properties to DB, graph not found in database.");
                 }
             }
         }
@@ -197,7 +197,15 @@ public class ComplexGraph extends UAdjListGraph {
         
         // preprocess res contacts if required
         List<MolContactInfo> preprocessedResContacts;
-        if (Settings.getBoolean("PTGLgraphComputation_B_CG_ignore_ligands")) {
+        if (resContacts instanceof ContactTable) {
+            // filter the rows of the table, no contact objects are created
+            final boolean ignoreLigands = Settings.getBoolean("PTGLgraphComputation_B_CG_ignore_ligands");
+            if (ignoreLigands || ! includeRna) {
+                preprocessedResContacts = ((ContactTable) resContacts).filter(mci -> ! (ignoreLigands && mci.isLigandContact()) && ! (mci.isRnaContact() && ! includeRna));
+            } else {
+                preprocessedResContacts = resContacts;
+            }
+        } else if (Settings.getBoolean("PTGLgraphComputation_B_CG_ignore_ligands")) {
             preprocessedResContacts = new ArrayList<>();
             for (MolContactInfo tmpMci : resContacts) {
                 if (tmpMci.isRnaContact() && ! includeRna) {
@@ -319,9 +327,11 @@ public class ComplexGraph extends UAdjListGraph {
      */
     private void calculateNumChainInteractions(List<MolContactInfo> resContacts) {
         numChainInteractions = new Integer[numberChains][numberChains];
+        MolContactInfo resContact = null;
         for(Integer i = 0; i < resContacts.size(); i++){             
-            ComplexGraph.Vertex chainA = getVertexFromChain(resContacts.get(i).getMolA().getChainID());
-            ComplexGraph.Vertex chainB = getVertexFromChain(resContacts.get(i).getMolB().getChainID());
+            resContact = ContactTable.get(resContacts, i, resContact);
+            ComplexGraph.Vertex chainA = getVertexFromChain(resContact.getMolA().getChainID());
+            ComplexGraph.Vertex chainB = getVertexFromChain(resContact.getMolB().getChainID());
                       
             Integer chainAint = Integer.parseInt(chainA.toString());
             Integer chainBint = Integer.parseInt(chainB.toString());
@@ -362,9 +372,11 @@ public class ComplexGraph extends UAdjListGraph {
         }
         
         // create edges for all contacts
+        MolContactInfo curResCon = null;
         for(Integer i = 0; i < resContacts.size(); i++) {
-            ComplexGraph.Vertex chainA = getVertexFromChain(resContacts.get(i).getMolA().getChainID());
-            ComplexGraph.Vertex chainB = getVertexFromChain(resContacts.get(i).getMolB().getChainID());
+            curResCon = ContactTable.get(resContacts, i, curResCon);     // reuses a single view if resContacts is a ContactTable
+            ComplexGraph.Vertex chainA = getVertexFromChain(curResCon.getMolA().getChainID());
+            ComplexGraph.Vertex chainB = getVertexFromChain(curResCon.getMolB().getChainID());
             
             Integer chainAint = Integer.parseInt(chainA.toString());
             Integer chainBint = Integer.parseInt(chainB.toString());
@@ -372,7 +384,6 @@ public class ComplexGraph extends UAdjListGraph {
             // We only want interchain contacts with a certain threshold of contacts
             if (chainsHaveEnoughContacts(chainAint, chainBint)){
                 
-                MolContactInfo curResCon = resContacts.get(i);
                 
                 // Die Datenkrake
                 String chainAString = curResCon.getMolA().getChainID().toString();
@@ -475,13 +486,13 @@ public class ComplexGraph extends UAdjListGraph {
                     numLigandLigandInteractionsMap.put(e1, 0);
                     
                     
-                    if (resContacts.get(i).getMolA().getSSE()!=null){
+                    if (curResCon.getMolA().getSSE()!=null){
                         // the 1st residue of this contact belongs to a valid PTGL SSE
-                        int firstSSEClass = resContacts.get(i).getMolA().getSSE().getSSETypeInt();
+                        int firstSSEClass = curResCon.getMolA().getSSE().getSSETypeInt();
                         switch (firstSSEClass){                            
                             case 1: // SSECLASS_HELIX
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixHelixInteractionsMap.put(e1, 1);  // we are creating a new edge, so this is the first contact
@@ -504,8 +515,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 }
                                 break;
                             case 2: // SSECLASS_BETASTRAND
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixStrandInteractionsMap.put(e1, 1);
@@ -530,8 +541,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 break;
                             case 3: // SSECLASS_LIGAND
                                 //System.out.println("Ligand Contact");
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixLigandInteractionsMap.put(e1, 1);
@@ -556,8 +567,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 break;
                             case 4:
                                 //System.out.println("Other Contact");
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixCoilInteractionsMap.put(e1, 1);
@@ -584,8 +595,8 @@ public class ComplexGraph extends UAdjListGraph {
                     }
                     else{
                         // the first residue of this contact does NOT belong to a valid PTGL SSE, i.e., it is a coil
-                        if (resContacts.get(i).getMolB().getSSE()!=null){
-                            int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                        if (curResCon.getMolB().getSSE()!=null){
+                            int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                             switch (secondSSE){
                                 case 1: // SSECLASS_HELIX
                                     numHelixCoilInteractionsMap.put(e1, 1);
@@ -609,18 +620,18 @@ public class ComplexGraph extends UAdjListGraph {
                             //System.out.println("Loop-loop Contact");
                         }
                     }
-                    //System.out.println("Contact found between chainName " + resContacts.get(i).getMolA().getChainID() + " and chainName " + resContacts.get(i).getMolB().getChainID());
+                    //System.out.println("Contact found between chainName " + curResCon.getMolA().getChainID() + " and chainName " + curResCon.getMolB().getChainID());
                 }
                 else{
                     // We already have an edge, just adjust values
                     numAllInteractionsMap.put(getEdge(chainA, chainB), numAllInteractionsMap.get(getEdge(chainA, chainB)) + 1);
-                    if (resContacts.get(i).getMolA().getSSE()!=null){
+                    if (curResCon.getMolA().getSSE()!=null){
                         // first residue of contact belongs to valid PTGL SSE, i.e., is NOT a coil
-                        int firstSSE = resContacts.get(i).getMolA().getSSE().getSSETypeInt();
+                        int firstSSE = curResCon.getMolA().getSSE().getSSETypeInt();
                         switch (firstSSE){
                             case 1: // SSECLASS_HELIX
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixHelixInteractionsMap.put(getEdge(chainA, chainB), numHelixHelixInteractionsMap.get(getEdge(chainA, chainB)) + 1);
@@ -644,8 +655,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 }
                                 break;
                             case 2: // SSECLASS_BETASTRAND
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixStrandInteractionsMap.put(getEdge(chainA, chainB), numHelixStrandInteractionsMap.get(getEdge(chainA, chainB)) + 1);
@@ -670,8 +681,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 break;
                             case 3: // SSECLASS_LIGAND
                                 //System.out.println("Ligand Contact");
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixLigandInteractionsMap.put(getEdge(chainA, chainB), numHelixLigandInteractionsMap.get(getEdge(chainA, chainB)) + 1);
@@ -696,8 +707,8 @@ public class ComplexGraph extends UAdjListGraph {
                                 break;
                             case 4:
                                 //System.out.println("Other Contact");
-                                if (resContacts.get(i).getMolB().getSSE()!=null){
-                                    int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                                if (curResCon.getMolB().getSSE()!=null){
+                                    int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                                     switch (secondSSE){
                                         case 1: // SSECLASS_HELIX
                                             numHelixCoilInteractionsMap.put(getEdge(chainA, chainB), numHelixCoilInteractionsMap.get(getEdge(chainA, chainB)) + 1);
@@ -723,8 +734,8 @@ public class ComplexGraph extends UAdjListGraph {
                         }
                     }
                     else{   // first residue of contact does NOT belong to valid PTGL SSE, i.e., is a coil
-                        if (resContacts.get(i).getMolB().getSSE()!=null){
-                            int secondSSE = resContacts.get(i).getMolB().getSSE().getSSETypeInt();
+                        if (curResCon.getMolB().getSSE()!=null){
+                            int secondSSE = curResCon.getMolB().getSSE().getSSETypeInt();
                             switch (secondSSE){
                                 case 1: // SSECLASS_HELIX
                                     numHelixCoilInteractionsMap.put(getEdge(chainA, chainB), numHelixCoilInteractionsMap.get(getEdge(chainA, chainB)) + 1);
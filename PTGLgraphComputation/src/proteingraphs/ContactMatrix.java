@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import settings.Settings;
+import tools.ExitError;
 //import org.jgrapht.graph.*;
 /**
  * Represents an SSE level contact matrix for a protein chain. Includes information on all SSE types, i.e., it is not
@@ -103,8 +104,9 @@ public class ContactMatrix {
         
         //System.out.println("DEBUG: fillFromContactList(): Considering contacts from chain '" + this.handleChain + "'.");
                 
+        rc = null;
         for(Integer i = 0; i < contList.size(); i++) {
-            rc = contList.get(i);
+            rc = ContactTable.get(contList, i, rc);     // reuses a single view if contList is a ContactTable
             molA = rc.getMolA();
             molB = rc.getMolB();
 
@@ -340,7 +342,7 @@ public class ContactMatrix {
     public SSE getSSEByPosition(Integer position) {
         if(position >= this.size) {
             System.err.println("ERROR: getSSE(): Index " + position + " out of range, matrix size is " + this.size + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
         return(sseList.get(position));
     }
@@ -411,7 +413,7 @@ public class ContactMatrix {
 
         if(x >= size || y >= size) {
             System.err.println("ERROR: getContacts(): Index (" + x + "/" + y + ") out of range, matrix size is " + size + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         if(type.equals("BB")) {
@@ -458,8 +460,7 @@ public class ContactMatrix {
         }
         else {
             System.err.println("ERROR: getContacts(): Contact type '" + type + "' is not a valid contact type.");
-            System.exit(1);
-            return(-1);             // for the IDE
+            throw new ExitError(1);
         }
 
     }
@@ -476,7 +477,7 @@ public class ContactMatrix {
 
         if(x >= size || y >= size) {
             System.err.println("ERROR: addContacts(): Index (" + x + "/" + y + ") out of range, matrix size is " + size + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
         else {
             //System.out.println("    Adding " + num + " contacts of type " + type + " at index (" + x + "/" + y + ") of SSE list.");
@@ -524,7 +525,7 @@ public class ContactMatrix {
         }
         else {
             System.err.println("ERROR: addContacts(): Contact type '" + type + "' is not a valid contact type.");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
     }
@@ -542,13 +543,13 @@ public class ContactMatrix {
         
         if(a.length != b.length) {
             System.err.println("ERROR: printArrayComparison(): Arrays need to have same length for this to make sense.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         else {
             
             if(l >= a.length || l < 0) {
                 System.err.println("ERROR: printArrayComparison(): Requested line number does not exist in matrix: " + l + ".");
-                System.exit(1);
+                throw new ExitError(1);
             }
             
             System.out.print("A(" + l + "): ");
@@ -1138,8 +1139,7 @@ public class ContactMatrix {
                     if(makeItGeoligdat) {
                         // TODO: add lig fields
                         System.err.println("ERROR: toGeodatFormat(): Geolig.dat format not implemented yet.");
-                        System.exit(1);
-                        line = "ERROR: GEOLIG.DAT FORMAT NOT IMPLEMENTED YET\n";
+                        throw new ExitError(1);
                     }
                     else {
                         line = pdbid + handleChain + " " + (i+1) + " " + (j+1) + " " + contBB[i][j] + " " + contCB[i][j] + " " + contBC[i][j]  + " " + contCC[i][j] + " " + SpatRel.getString(spatialSSE[i][j]) + " " + dblDif[i][j] + "\n";
@@ -0,0 +1,351 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package proteingraphs;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import proteinstructure.Atom;
+import proteinstructure.Molecule;
+
+/**
+ * A columnar table of molecule level contacts. Holds the same information as a list of MolContactInfo objects, but in primitive
+ * int columns: one row per molecule pair, and for the per contact type values (counts, minimal distances, atom indices) one
+ * block of getNumContactTypes() ints per row. The molecules are stored once and referenced by their index.
+ *
+ * The table is a read-only list of MolContactInfo. get() returns a new light-weight view of a row which holds no arrays.
+ * Loops which do not keep the contacts can reuse a single view for all rows, see get(List, int, MolContactInfo).
+ */
+public class ContactTable extends AbstractList<MolContactInfo> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int numTypes;
+    private int numRows;
+
+    // per row columns
+    private int[] molA;
+    private int[] molB;
+    private int[] molPairDist;
+    private int[] numLigContacts;
+    private int[] numRnaContacts;
+
+    // per row and contact type columns, numTypes values per row
+    private int[] numContacts;
+    private int[] minContactDist;
+    private int[] contactAtomIndexA;
+    private int[] contactAtomIndexB;
+
+    // atom level contacts of the alternative contact model, null as long as no row has them
+    private ArrayList<ArrayList<String>> atomAtomContactTypes = null;
+    private ArrayList<ArrayList<Atom[]>> atomAtomContacts = null;
+
+    // the molecules referenced by molA and molB
+    private final ArrayList<Molecule> molecules = new ArrayList<>();
+    private final IdentityHashMap<Molecule, Integer> moleculeIndices = new IdentityHashMap<>();
+
+
+    /**
+     * Creates an empty table.
+     * @param numTypes the number of contact types stored per row, e.g. Main.NUM_MOLECULE_PAIR_CONTACT_TYPES
+     */
+    public ContactTable(int numTypes) {
+        this.numTypes = numTypes;
+        this.numRows = 0;
+        molA = new int[INITIAL_CAPACITY];
+        molB = new int[INITIAL_CAPACITY];
+        molPairDist = new int[INITIAL_CAPACITY];
+        numLigContacts = new int[INITIAL_CAPACITY];
+        numRnaContacts = new int[INITIAL_CAPACITY];
+        numContacts = new int[INITIAL_CAPACITY * numTypes];
+        minContactDist = new int[INITIAL_CAPACITY * numTypes];
+        contactAtomIndexA = new int[INITIAL_CAPACITY * numTypes];
+        contactAtomIndexB = new int[INITIAL_CAPACITY * numTypes];
+    }
+
+
+    /**
+     * Creates a table holding the given contacts, in list order.
+     * @param contacts the contacts
+     * @param numTypes the number of contact types stored per row, contacts with less types are padded with 'no contact'
+     * @return the table
+     */
+    public static ContactTable fromList(List<MolContactInfo> contacts, int numTypes) {
+        if(contacts instanceof ContactTable && ((ContactTable) contacts).numTypes == numTypes) {
+            return (ContactTable) contacts;
+        }
+        ContactTable table = new ContactTable(numTypes);
+        for(MolContactInfo c : contacts) {
+            table.addContact(c);
+        }
+        return table;
+    }
+
+
+    /**
+     * Returns the i-th contact of the list. If the list is a ContactTable, the given view is moved to row i and returned,
+     * so no object is created. Otherwise this is list.get(i). Use this in loops which do not keep the returned contacts.
+     * @param contacts the contact list
+     * @param i the index
+     * @param reuse a view returned by an earlier call of this function for the same list, or null
+     * @return the contact, which may be changed by the next call with the same reuse view
+     */
+    public static MolContactInfo get(List<MolContactInfo> contacts, int i, MolContactInfo reuse) {
+        if(contacts instanceof ContactTable) {
+            ContactTable table = (ContactTable) contacts;
+            if(reuse != null && reuse.getTable() == table) {
+                reuse.moveTo(i);
+                return reuse;
+            }
+            return table.get(i);
+        }
+        return contacts.get(i);
+    }
+
+
+    /**
+     * Adds a row.
+     * @param a the first molecule
+     * @param b the second molecule
+     * @param dist the distance of the molecules
+     * @param nlc the total number of ligand contacts
+     * @param nrc the total number of RNA contacts
+     * @param npcs the number of contacts per type, the first getNumContactTypes() values are used
+     * @param mcds the minimal contact distance per type
+     * @param can_a the atom index in molecule a of the contact with minimal distance per type
+     * @param can_b the atom index in molecule b of the contact with minimal distance per type
+     * @return the row index
+     */
+    public int addRow(Molecule a, Molecule b, int dist, int nlc, int nrc, int[] npcs, int[] mcds, int[] can_a, int[] can_b) {
+        ensureCapacity(numRows + 1);
+        int r = numRows;
+        molA[r] = getMoleculeIndex(a);
+        molB[r] = getMoleculeIndex(b);
+        molPairDist[r] = dist;
+        numLigContacts[r] = nlc;
+        numRnaContacts[r] = nrc;
+
+        int len = Math.min(numTypes, npcs.length);
+        int off = r * numTypes;
+        System.arraycopy(npcs, 0, numContacts, off, len);
+        System.arraycopy(mcds, 0, minContactDist, off, len);
+        System.arraycopy(can_a, 0, contactAtomIndexA, off, len);
+        System.arraycopy(can_b, 0, contactAtomIndexB, off, len);
+        if(len < numTypes) {
+            Arrays.fill(numContacts, off + len, off + numTypes, 0);
+            Arrays.fill(minContactDist, off + len, off + numTypes, -1);
+            Arrays.fill(contactAtomIndexA, off + len, off + numTypes, -1);
+            Arrays.fill(contactAtomIndexB, off + len, off + numTypes, -1);
+        }
+
+        if(atomAtomContacts != null) {
+            atomAtomContactTypes.add(null);
+            atomAtomContacts.add(null);
+        }
+
+        numRows++;
+        return r;
+    }
+
+
+    /**
+     * Adds a row holding the values of the given contact, including the atom level contacts of the alternative contact model.
+     * @param c the contact
+     * @return the row index
+     */
+    public int addContact(MolContactInfo c) {
+        int n = Math.min(numTypes, c.getNumContactTypes());
+        int[] npcs = new int[n];
+        int[] mcds = new int[n];
+        int[] can_a = new int[n];
+        int[] can_b = new int[n];
+        for(int t = 0; t < n; t++) {
+            npcs[t] = c.getNumContacts(t);
+            mcds[t] = c.getMinContactDist(t);
+            can_a[t] = c.getContactAtomIndexA(t);
+            can_b[t] = c.getContactAtomIndexB(t);
+        }
+        int r = addRow(c.getMolA(), c.getMolB(), c.getMolPairDist(), c.getNumLigContactsTotal(), c.getNumRnaContactsTotal(), npcs, mcds, can_a, can_b);
+        setAtomAtomContacts(r, c.getAtomAtomContactTypes(), c.getAtomAtomContacts());
+        return r;
+    }
+
+
+    /**
+     * Appends all rows of another table with the same number of contact types, keeping their order.
+     * @param other the other table
+     */
+    public void append(ContactTable other) {
+        if(other.numTypes != numTypes) {
+            throw new IllegalArgumentException("Contact tables with " + other.numTypes + " and " + numTypes + " contact types can not be merged.");
+        }
+        ensureCapacity(numRows + other.numRows);
+
+        int[] molMap = new int[other.molecules.size()];
+        for(int m = 0; m < molMap.length; m++) {
+            molMap[m] = getMoleculeIndex(other.molecules.get(m));
+        }
+        for(int r = 0; r < other.numRows; r++) {
+            molA[numRows + r] = molMap[other.molA[r]];
+            molB[numRows + r] = molMap[other.molB[r]];
+        }
+        System.arraycopy(other.molPairDist, 0, molPairDist, numRows, other.numRows);
+        System.arraycopy(other.numLigContacts, 0, numLigContacts, numRows, other.numRows);
+        System.arraycopy(other.numRnaContacts, 0, numRnaContacts, numRows, other.numRows);
+        System.arraycopy(other.numContacts, 0, numContacts, numRows * numTypes, other.numRows * numTypes);
+        System.arraycopy(other.minContactDist, 0, minContactDist, numRows * numTypes, other.numRows * numTypes);
+        System.arraycopy(other.contactAtomIndexA, 0, contactAtomIndexA, numRows * numTypes, other.numRows * numTypes);
+        System.arraycopy(other.contactAtomIndexB, 0, contactAtomIndexB, numRows * numTypes, other.numRows * numTypes);
+
+        if(other.atomAtomContacts != null || atomAtomContacts != null) {
+            for(int r = 0; r < other.numRows; r++) {
+                setAtomAtomContacts(numRows + r, other.getAtomAtomContactTypes(r), other.getAtomAtomContacts(r));
+            }
+        }
+        numRows += other.numRows;
+    }
+
+
+    /**
+     * Returns a new table holding the rows of this table which satisfy the filter, in the same order. The filter is called with
+     * a single view which is moved over the rows, so it must not keep it.
+     * @param filter the row filter
+     * @return the new table
+     */
+    public ContactTable filter(Predicate<MolContactInfo> filter) {
+        ContactTable result = new ContactTable(numTypes);
+        MolContactInfo view = null;
+        for(int r = 0; r < numRows; r++) {
+            view = get(this, r, view);
+            if(filter.test(view)) {
+                result.addRowOf(this, r);
+            }
+        }
+        return result;
+    }
+
+
+    private void addRowOf(ContactTable other, int r) {
+        int off = r * numTypes;
+        int nr = addRow(other.getMolA(r), other.getMolB(r), other.molPairDist[r], other.numLigContacts[r], other.numRnaContacts[r],
+                Arrays.copyOfRange(other.numContacts, off, off + numTypes), Arrays.copyOfRange(other.minContactDist, off, off + numTypes),
+                Arrays.copyOfRange(other.contactAtomIndexA, off, off + numTypes), Arrays.copyOfRange(other.contactAtomIndexB, off, off + numTypes));
+        setAtomAtomContacts(nr, other.getAtomAtomContactTypes(r), other.getAtomAtomContacts(r));
+    }
+
+
+    /**
+     * Sets the atom level contacts of row r, creating the lists if required. Row r may be the first row after the current ones.
+     */
+    private void setAtomAtomContacts(int r, ArrayList<String> types, ArrayList<Atom[]> contacts) {
+        if(types == null && contacts == null && atomAtomContacts == null) {
+            return;
+        }
+        if(atomAtomContacts == null) {
+            atomAtomContactTypes = new ArrayList<>(r + 1);
+            atomAtomContacts = new ArrayList<>(r + 1);
+        }
+        while(atomAtomContacts.size() <= r) {
+            atomAtomContactTypes.add(null);
+            atomAtomContacts.add(null);
+        }
+        atomAtomContactTypes.set(r, types);
+        atomAtomContacts.set(r, contacts);
+    }
+
+
+    private int getMoleculeIndex(Molecule m) {
+        Integer index = moleculeIndices.get(m);
+        if(index == null) {
+            index = molecules.size();
+            molecules.add(m);
+            moleculeIndices.put(m, index);
+        }
+        return index;
+    }
+
+
+    private void ensureCapacity(int rows) {
+        if(rows <= molA.length) {
+            return;
+        }
+        int cap = Math.max(rows, molA.length * 2);
+        molA = Arrays.copyOf(molA, cap);
+        molB = Arrays.copyOf(molB, cap);
+        molPairDist = Arrays.copyOf(molPairDist, cap);
+        numLigContacts = Arrays.copyOf(numLigContacts, cap);
+        numRnaContacts = Arrays.copyOf(numRnaContacts, cap);
+        numContacts = Arrays.copyOf(numContacts, cap * numTypes);
+        minContactDist = Arrays.copyOf(minContactDist, cap * numTypes);
+        contactAtomIndexA = Arrays.copyOf(contactAtomIndexA, cap * numTypes);
+        contactAtomIndexB = Arrays.copyOf(contactAtomIndexB, cap * numTypes);
+    }
+
+
+    private int typeOffset(int r, int type) {
+        if(type < 0 || type >= numTypes) {
+            throw new ArrayIndexOutOfBoundsException(type);
+        }
+        return r * numTypes + type;
+    }
+
+
+    /**
+     * Returns a new view of the given row. The view holds no arrays, it reads them from this table.
+     * @param index the row
+     * @return the view
+     */
+    @Override
+    public MolContactInfo get(int index) {
+        if(index < 0 || index >= numRows) {
+            throw new IndexOutOfBoundsException("Row " + index + " of contact table with " + numRows + " rows.");
+        }
+        return new MolContactInfo(this, index);
+    }
+
+
+    @Override
+    public int size() {
+        return numRows;
+    }
+
+
+    /**
+     * Returns the number of contact types stored per row.
+     * @return the number of contact types
+     */
+    public int getNumContactTypes() {
+        return numTypes;
+    }
+
+
+    /**
+     * Returns all molecules referenced by the rows of this table, in the order of their first occurrence.
+     * @return the molecules
+     */
+    public List<Molecule> getMolecules() {
+        return molecules;
+    }
+
+    public Molecule getMolA(int r) { return molecules.get(molA[r]); }
+    public Molecule getMolB(int r) { return molecules.get(molB[r]); }
+    public int getMolIndexA(int r) { return molA[r]; }
+    public int getMolIndexB(int r) { return molB[r]; }
+    public int getMolPairDist(int r) { return molPairDist[r]; }
+    public int getNumLigContactsTotal(int r) { return numLigContacts[r]; }
+    public int getNumRnaContactsTotal(int r) { return numRnaContacts[r]; }
+    public int getNumContacts(int r, int type) { return numContacts[typeOffset(r, type)]; }
+    public int getMinContactDist(int r, int type) { return minContactDist[typeOffset(r, type)]; }
+    public int getContactAtomIndexA(int r, int type) { return contactAtomIndexA[typeOffset(r, type)]; }
+    public int getContactAtomIndexB(int r, int type) { return contactAtomIndexB[typeOffset(r, type)]; }
+    public ArrayList<String> getAtomAtomContactTypes(int r) { return (atomAtomContactTypes == null ? null : atomAtomContactTypes.get(r)); }
+    public ArrayList<Atom[]> getAtomAtomContacts(int r) { return (atomAtomContacts == null ? null : atomAtomContacts.get(r)); }
+}
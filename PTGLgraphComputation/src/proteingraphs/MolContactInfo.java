@@ -28,7 +28,7 @@ public class MolContactInfo {
     //  the function that creates these arrays.
     //  Just to be sure a copy of these lines can be found below. The length of all of these is 12.
     
-    private Integer[] numPairContacts;
+    private int[] numPairContacts;
     // The positions in the numPairContacts array hold the number of contacts of each type for a pair of molecule:
     // Some cheap vars to make things easier to understand (a poor replacement for #define):
     public static final Integer TT = 0;         //  0 = total number of contacts            (all molecule type combinations)
@@ -87,14 +87,14 @@ public class MolContactInfo {
     private Integer numTotalLigContactsPair;
     private Integer numTotalRnaContactsPair;
 
-    private Integer[] minContactDistances;
+    private int[] minContactDistances;
     // Holds the minimal distances of contacts of the appropriate type (see numPairContacts, index 0 is unused)
 
-    private Integer[] contactAtomIndexInMoleculeA;
+    private int[] contactAtomIndexInMoleculeA;
     // Holds the number Atom x has in its molecule a for the contact with minimal distance of that type.
     // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused (atom is obvious)
 
-    private Integer[] contactAtomIndexInMoleculeB;
+    private int[] contactAtomIndexInMoleculeB;
     // Holds the number Atom y has in its molecule b for the contact with minimal distance of that type.
     // See minContactDistances and numPairContacts; index 0 is unused; index 5 + 6 are also unused because the atom is
     //  fixed for these (HB1: backbone N, HB2: backbone O)
@@ -105,6 +105,11 @@ public class MolContactInfo {
     private ArrayList<String> atomAtomContactType;
  //   private Atom[] atomAtomContact;
     private ArrayList<Atom[]> atomAtomContacts;
+    
+    // If this is a view of a row of a ContactTable, the arrays above are null and the values are read from the table.
+    //  The molecules, distance and total counts are copied from the table row, see ContactTable.
+    private ContactTable table;
+    private int row;
 
     /**
      * Constructor for a molecule pair contact between the molecules (a, b).
@@ -118,7 +123,7 @@ public class MolContactInfo {
      * @param d the distance of this molecule pair (molecule center to molecule center)
      * @param nlc the number of total ligand contacts of this molecule pair 
      */    
-    public MolContactInfo(Integer[] npcs, Integer[] mcds, Integer[] can_a, Integer[] can_b, Molecule a, Molecule b, Integer d, Integer nlc, Integer nrc) {
+    public MolContactInfo(int[] npcs, int[] mcds, int[] can_a, int[] can_b, Molecule a, Molecule b, Integer d, Integer nlc, Integer nrc) {
 
         numPairContacts = npcs;
         minContactDistances = mcds;
@@ -144,7 +149,7 @@ public class MolContactInfo {
      * @param d the distance of this molecule pair (molecule center to molecule center)
      * @param nlc the number of total ligand contacts of this molecule pair 
      */    
-    public MolContactInfo(Integer[] npcs, Integer[] mcds, Integer[] can_a, Integer[] can_b, Molecule a, Molecule b, Integer d, Integer nlc, Integer nrc, ArrayList<String> aact, ArrayList<Atom[]> aac) {
+    public MolContactInfo(int[] npcs, int[] mcds, int[] can_a, int[] can_b, Molecule a, Molecule b, Integer d, Integer nlc, Integer nrc, ArrayList<String> aact, ArrayList<Atom[]> aac) {
 
         numPairContacts = npcs;
         minContactDistances = mcds;
@@ -174,10 +179,10 @@ public class MolContactInfo {
         numTotalLigContactsPair = 0;
         
         
-        numPairContacts = new Integer[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
-        minContactDistances = new Integer[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
-        contactAtomIndexInMoleculeA = new Integer[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
-        contactAtomIndexInMoleculeB = new Integer[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
+        numPairContacts = new int[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
+        minContactDistances = new int[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
+        contactAtomIndexInMoleculeA = new int[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
+        contactAtomIndexInMoleculeB = new int[Main.NUM_MOLECULE_PAIR_CONTACT_TYPES];
         
         Arrays.fill(numPairContacts, 0);
         Arrays.fill(minContactDistances, Integer.MAX_VALUE);
@@ -185,6 +190,100 @@ public class MolContactInfo {
         Arrays.fill(contactAtomIndexInMoleculeB, -1);
     }
 
+    /**
+     * Creates a view of a row of a contact table. The array values are read from the table, see ContactTable.getView().
+     * @param table the contact table
+     * @param row the row of the table
+     */
+    MolContactInfo(ContactTable table, int row) {
+        this.table = table;
+        moveTo(row);
+    }
+    
+    
+    /**
+     * Points this view to another row of its table. Only valid for views of a ContactTable.
+     * @param row the row of the table
+     */
+    final void moveTo(int row) {
+        this.row = row;
+        molA = table.getMolA(row);
+        molB = table.getMolB(row);
+        dist = table.getMolPairDist(row);
+        numTotalLigContactsPair = table.getNumLigContactsTotal(row);
+        numTotalRnaContactsPair = table.getNumRnaContactsTotal(row);
+        atomAtomContactType = table.getAtomAtomContactTypes(row);
+        atomAtomContacts = table.getAtomAtomContacts(row);
+    }
+    
+    
+    /**
+     * Returns the contact table this is a view of.
+     * @return the table, or null if this contact holds its own arrays
+     */
+    ContactTable getTable() {
+        return table;
+    }
+    
+    
+    /**
+     * Returns the table row this is a view of.
+     * @return the row, only valid if getTable() is not null
+     */
+    int getRow() {
+        return row;
+    }
+    
+    
+    /**
+     * Returns the number of atom contacts of the given type.
+     * @param type the contact type, e.g. BB
+     * @return the number of contacts
+     */
+    public int getNumContacts(int type) {
+        return (table != null ? table.getNumContacts(row, type) : numPairContacts[type]);
+    }
+    
+    
+    /**
+     * Returns the minimal distance of the atom contacts of the given type.
+     * @param type the contact type, e.g. BB
+     * @return the minimal distance, or the initial value if there is no such contact
+     */
+    public int getMinContactDist(int type) {
+        return (table != null ? table.getMinContactDist(row, type) : minContactDistances[type]);
+    }
+    
+    
+    /**
+     * Returns the index of the atom of molecule A in the atom contact of the given type with minimal distance.
+     * @param type the contact type, e.g. BB
+     * @return the atom index, starting at 0, or -1 if there is no such contact
+     */
+    public int getContactAtomIndexA(int type) {
+        return (table != null ? table.getContactAtomIndexA(row, type) : contactAtomIndexInMoleculeA[type]);
+    }
+    
+    
+    /**
+     * Returns the index of the atom of molecule B in the atom contact of the given type with minimal distance.
+     * @param type the contact type, e.g. BB
+     * @return the atom index, starting at 0, or -1 if there is no such contact
+     */
+    public int getContactAtomIndexB(int type) {
+        return (table != null ? table.getContactAtomIndexB(row, type) : contactAtomIndexInMoleculeB[type]);
+    }
+    
+    
+    /**
+     * Returns the number of contact types stored for this contact.
+     * @return the number of contact types
+     */
+    public int getNumContactTypes() {
+        return (table != null ? table.getNumContactTypes() : numPairContacts.length);
+    }
+    
+
     /*
      * @return A short String representation of the contact (molA<->molB).
      */
@@ -240,190 +339,190 @@ public class MolContactInfo {
     public Integer getCenterSphereRadiusResB() { return(this.molB.getSphereRadius()); }
     public Integer getMolPairDist() { return(dist); }
 
-    public Integer getHB1Dist() { return(minContactDistances[HB]); }
-    public Integer getHB2Dist() { return(minContactDistances[BH]); }
+    public Integer getHB1Dist() { return(getMinContactDist(HB)); }
+    public Integer getHB2Dist() { return(getMinContactDist(BH)); }
 
-    public Integer getBBContactDist() { return(minContactDistances[BB]); }
-    public Integer getBBContactAtomNumA() { return(contactAtomIndexInMoleculeA[BB] + 1); }   // The '+1' is required because geom_neo starts the atom index at '1' but we start it at '0'.
-    public Integer getBBContactAtomNumB() { return(contactAtomIndexInMoleculeB[BB] + 1); }   //  This also means that we HAVE to init the atom index arrays in Main.calculateAtomContactsBetweenResidues()
+    public Integer getBBContactDist() { return(getMinContactDist(BB)); }
+    public Integer getBBContactAtomNumA() { return(getContactAtomIndexA(BB) + 1); }   // The '+1' is required because geom_neo starts the atom index at '1' but we start it at '0'.
+    public Integer getBBContactAtomNumB() { return(getContactAtomIndexB(BB) + 1); }   //  This also means that we HAVE to init the atom index arrays in Main.calculateAtomContactsBetweenResidues()
                                                                                             //  with '-1'.  This return statement will add 1, and '0' means 'no contact' for geom_neo. :)
-    public Integer getCBContactDist() { return(minContactDistances[CB]); }
-    public Integer getCBContactAtomNumA() { return(contactAtomIndexInMoleculeA[CB] + 1); }
-    public Integer getCBContactAtomNumB() { return(contactAtomIndexInMoleculeB[CB] + 1); }
+    public Integer getCBContactDist() { return(getMinContactDist(CB)); }
+    public Integer getCBContactAtomNumA() { return(getContactAtomIndexA(CB) + 1); }
+    public Integer getCBContactAtomNumB() { return(getContactAtomIndexB(CB) + 1); }
 
-    public Integer getBCContactDist() { return(minContactDistances[BC]); }
-    public Integer getBCContactAtomNumA() { return(contactAtomIndexInMoleculeA[BC] + 1); }
-    public Integer getBCContactAtomNumB() { return(contactAtomIndexInMoleculeB[BC] + 1); }
+    public Integer getBCContactDist() { return(getMinContactDist(BC)); }
+    public Integer getBCContactAtomNumA() { return(getContactAtomIndexA(BC) + 1); }
+    public Integer getBCContactAtomNumB() { return(getContactAtomIndexB(BC) + 1); }
 
-    public Integer getCCContactDist() { return(minContactDistances[CC]); }
-    public Integer getCCContactAtomNumA() { return(contactAtomIndexInMoleculeA[CC] + 1); }
-    public Integer getCCContactAtomNumB() { return(contactAtomIndexInMoleculeB[CC] + 1); }
+    public Integer getCCContactDist() { return(getMinContactDist(CC)); }
+    public Integer getCCContactAtomNumA() { return(getContactAtomIndexA(CC) + 1); }
+    public Integer getCCContactAtomNumB() { return(getContactAtomIndexB(CC) + 1); }
 
-    public Integer getBLContactDist() { return(minContactDistances[BL]); }
-    public Integer getBLContactAtomNumA() { return(contactAtomIndexInMoleculeA[BL] + 1); }
-    public Integer getBLContactAtomNumB() { return(contactAtomIndexInMoleculeB[BL] + 1); }
+    public Integer getBLContactDist() { return(getMinContactDist(BL)); }
+    public Integer getBLContactAtomNumA() { return(getContactAtomIndexA(BL) + 1); }
+    public Integer getBLContactAtomNumB() { return(getContactAtomIndexB(BL) + 1); }
 
-    public Integer getLBContactDist() { return(minContactDistances[LB]); }
-    public Integer getLBContactAtomNumA() { return(contactAtomIndexInMoleculeA[LB] + 1); }
-    public Integer getLBContactAtomNumB() { return(contactAtomIndexInMoleculeB[LB] + 1); }
+    public Integer getLBContactDist() { return(getMinContactDist(LB)); }
+    public Integer getLBContactAtomNumA() { return(getContactAtomIndexA(LB) + 1); }
+    public Integer getLBContactAtomNumB() { return(getContactAtomIndexB(LB) + 1); }
 
-    public Integer getCLContactDist() { return(minContactDistances[CL]); }
-    public Integer getCLContactAtomNumA() { return(contactAtomIndexInMoleculeA[CL] + 1); }
-    public Integer getCLContactAtomNumB() { return(contactAtomIndexInMoleculeB[CL] + 1); }
+    public Integer getCLContactDist() { return(getMinContactDist(CL)); }
+    public Integer getCLContactAtomNumA() { return(getContactAtomIndexA(CL) + 1); }
+    public Integer getCLContactAtomNumB() { return(getContactAtomIndexB(CL) + 1); }
 
-    public Integer getLCContactDist() { return(minContactDistances[LC]); }
-    public Integer getLCContactAtomNumA() { return(contactAtomIndexInMoleculeA[LC] + 1); }
-    public Integer getLCContactAtomNumB() { return(contactAtomIndexInMoleculeB[LC] + 1); }
+    public Integer getLCContactDist() { return(getMinContactDist(LC)); }
+    public Integer getLCContactAtomNumA() { return(getContactAtomIndexA(LC) + 1); }
+    public Integer getLCContactAtomNumB() { return(getContactAtomIndexB(LC) + 1); }
 
-    public Integer getLLContactDist() { return(minContactDistances[LL]); }
-    public Integer getLLContactAtomNumA() { return(contactAtomIndexInMoleculeA[LL] + 1); }
-    public Integer getLLContactAtomNumB() { return(contactAtomIndexInMoleculeB[LL] + 1); }
+    public Integer getLLContactDist() { return(getMinContactDist(LL)); }
+    public Integer getLLContactAtomNumA() { return(getContactAtomIndexA(LL) + 1); }
+    public Integer getLLContactAtomNumB() { return(getContactAtomIndexB(LL) + 1); }
     
-    public Integer getIVDWContactDist() { return(minContactDistances[IVDW]); }
-    public Integer getIVDWContactAtomNumA() { return(contactAtomIndexInMoleculeA[IVDW] + 1); }
-    public Integer getIVDWContactAtomNumB() { return(contactAtomIndexInMoleculeB[IVDW] + 1); }
+    public Integer getIVDWContactDist() { return(getMinContactDist(IVDW)); }
+    public Integer getIVDWContactAtomNumA() { return(getContactAtomIndexA(IVDW) + 1); }
+    public Integer getIVDWContactAtomNumB() { return(getContactAtomIndexB(IVDW) + 1); }
     
-    public Integer getBBHBContactDist() { return(minContactDistances[BBHB]); }
-    public Integer getBBHBContactAtomNumA() { return(contactAtomIndexInMoleculeA[BBHB] + 1); }
-    public Integer getBBHBContactAtomNumB() { return(contactAtomIndexInMoleculeB[BBHB] + 1); }
+    public Integer getBBHBContactDist() { return(getMinContactDist(BBHB)); }
+    public Integer getBBHBContactAtomNumA() { return(getContactAtomIndexA(BBHB) + 1); }
+    public Integer getBBHBContactAtomNumB() { return(getContactAtomIndexB(BBHB) + 1); }
     
-    public Integer getBBBHContactDist() { return(minContactDistances[BBBH]); }
-    public Integer getBBBHContactAtomNumA() { return(contactAtomIndexInMoleculeA[BBBH] + 1); }
-    public Integer getBBBHContactAtomNumB() { return(contactAtomIndexInMoleculeB[BBBH] + 1); }
+    public Integer getBBBHContactDist() { return(getMinContactDist(BBBH)); }
+    public Integer getBBBHContactAtomNumA() { return(getContactAtomIndexA(BBBH) + 1); }
+    public Integer getBBBHContactAtomNumB() { return(getContactAtomIndexB(BBBH) + 1); }
     
-    public Integer getBCHBContactDist() { return(minContactDistances[BCHB]); }
-    public Integer getBCHBContactAtomNumA() { return(contactAtomIndexInMoleculeA[BCHB] + 1); }
-    public Integer getBCHBContactAtomNumB() { return(contactAtomIndexInMoleculeB[BCHB] + 1); }
+    public Integer getBCHBContactDist() { return(getMinContactDist(BCHB)); }
+    public Integer getBCHBContactAtomNumA() { return(getContactAtomIndexA(BCHB) + 1); }
+    public Integer getBCHBContactAtomNumB() { return(getContactAtomIndexB(BCHB) + 1); }
     
-    public Integer getBCBHContactDist() { return(minContactDistances[BCBH]); }
-    public Integer getBCBHContactAtomNumA() { return(contactAtomIndexInMoleculeA[BCBH] + 1); }
-    public Integer getBCBHContactAtomNumB() { return(contactAtomIndexInMoleculeB[BCBH] + 1); }
+    public Integer getBCBHContactDist() { return(getMinContactDist(BCBH)); }
+    public Integer getBCBHContactAtomNumA() { return(getContactAtomIndexA(BCBH) + 1); }
+    public Integer getBCBHContactAtomNumB() { return(getContactAtomIndexB(BCBH) + 1); }
     
-    public Integer getCBHBContactDist() { return(minContactDistances[CBHB]); }
-    public Integer getCBHBContactAtomNumA() { return(contactAtomIndexInMoleculeA[CBHB] + 1); }
-    public Integer getCBHBContactAtomNumB() { return(contactAtomIndexInMoleculeB[CBHB] + 1); }
+    public Integer getCBHBContactDist() { return(getMinContactDist(CBHB)); }
+    public Integer getCBHBContactAtomNumA() { return(getContactAtomIndexA(CBHB) + 1); }
+    public Integer getCBHBContactAtomNumB() { return(getContactAtomIndexB(CBHB) + 1); }
     
-    public Integer getCBBHContactDist() { return(minContactDistances[CBBH]); }
-    public Integer getCBBHContactAtomNumA() { return(contactAtomIndexInMoleculeA[CBBH] + 1); }
-    public Integer getCBBHContactAtomNumB() { return(contactAtomIndexInMoleculeB[CBBH] + 1); }
+    public Integer getCBBHContactDist() { return(getMinContactDist(CBBH)); }
+    public Integer getCBBHContactAtomNumA() { return(getContactAtomIndexA(CBBH) + 1); }
+    public Integer getCBBHContactAtomNumB() { return(getContactAtomIndexB(CBBH) + 1); }
     
-    public Integer getCCHBContactDist() { return(minContactDistances[CCHB]); }
-    public Integer getCCHBContactAtomNumA() { return(contactAtomIndexInMoleculeA[CCHB] + 1); }
-    public Integer getCCHBContactAtomNumB() { return(contactAtomIndexInMoleculeB[CCHB] + 1); }
+    public Integer getCCHBContactDist() { return(getMinContactDist(CCHB)); }
+    public Integer getCCHBContactAtomNumA() { return(getContactAtomIndexA(CCHB) + 1); }
+    public Integer getCCHBContactAtomNumB() { return(getContactAtomIndexB(CCHB) + 1); }
     
-    public Integer getCCBHContactDist() { return(minContactDistances[CCBH]); }
-    public Integer getCCBHContactAtomNumA() { return(contactAtomIndexInMoleculeA[CCBH] + 1); }
-    public Integer getCCBHContactAtomNumB() { return(contactAtomIndexInMoleculeB[CCBH] + 1); }
+    public Integer getCCBHContactDist() { return(getMinContactDist(CCBH)); }
+    public Integer getCCBHContactAtomNumA() { return(getContactAtomIndexA(CCBH) + 1); }
+    public Integer getCCBHContactAtomNumB() { return(getContactAtomIndexB(CCBH) + 1); }
     
-    public Integer getNHPIContactDist() { return(minContactDistances[NHPI]); }
-    public Integer getNHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[NHPI] + 1); }
-    public Integer getNHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[NHPI] + 1); }
+    public Integer getNHPIContactDist() { return(getMinContactDist(NHPI)); }
+    public Integer getNHPIContactAtomNumA() { return(getContactAtomIndexA(NHPI) + 1); }
+    public Integer getNHPIContactAtomNumB() { return(getContactAtomIndexB(NHPI) + 1); }
     
-    public Integer getPINHContactDist() { return(minContactDistances[PINH]); }
-    public Integer getPINHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PINH] + 1); }
-    public Integer getPINHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PINH] + 1); }
+    public Integer getPINHContactDist() { return(getMinContactDist(PINH)); }
+    public Integer getPINHContactAtomNumA() { return(getContactAtomIndexA(PINH) + 1); }
+    public Integer getPINHContactAtomNumB() { return(getContactAtomIndexB(PINH) + 1); }
     
-    public Integer getCAHPIContactDist() { return(minContactDistances[CAHPI]); }
-    public Integer getCAHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[CAHPI] + 1); }
-    public Integer getCAHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[CAHPI] + 1); }
+    public Integer getCAHPIContactDist() { return(getMinContactDist(CAHPI)); }
+    public Integer getCAHPIContactAtomNumA() { return(getContactAtomIndexA(CAHPI) + 1); }
+    public Integer getCAHPIContactAtomNumB() { return(getContactAtomIndexB(CAHPI) + 1); }
     
-    public Integer getPICAHContactDist() { return(minContactDistances[PICAH]); }
-    public Integer getPICAHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PICAH] + 1); }
-    public Integer getPICAHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PICAH] + 1); }
+    public Integer getPICAHContactDist() { return(getMinContactDist(PICAH)); }
+    public Integer getPICAHContactAtomNumA() { return(getContactAtomIndexA(PICAH) + 1); }
+    public Integer getPICAHContactAtomNumB() { return(getContactAtomIndexB(PICAH) + 1); }
     
-    public Integer getCNHPIContactDist() { return(minContactDistances[CNHPI]); }
-    public Integer getCNHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[CNHPI] + 1); }
-    public Integer getCNHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[CNHPI] + 1); }
+    public Integer getCNHPIContactDist() { return(getMinContactDist(CNHPI)); }
+    public Integer getCNHPIContactAtomNumA() { return(getContactAtomIndexA(CNHPI) + 1); }
+    public Integer getCNHPIContactAtomNumB() { return(getContactAtomIndexB(CNHPI) + 1); }
     
-    public Integer getPICNHContactDist() { return(minContactDistances[PICNH]); }
-    public Integer getPICNHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PICNH] + 1); }
-    public Integer getPICNHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PICNH] + 1); }
+    public Integer getPICNHContactDist() { return(getMinContactDist(PICNH)); }
+    public Integer getPICNHContactAtomNumA() { return(getContactAtomIndexA(PICNH) + 1); }
+    public Integer getPICNHContactAtomNumB() { return(getContactAtomIndexB(PICNH) + 1); }
     
-    public Integer getSHPIContactDist() { return(minContactDistances[SHPI]); }
-    public Integer getSHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[SHPI] + 1); }
-    public Integer getSHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[SHPI] + 1); }
+    public Integer getSHPIContactDist() { return(getMinContactDist(SHPI)); }
+    public Integer getSHPIContactAtomNumA() { return(getContactAtomIndexA(SHPI) + 1); }
+    public Integer getSHPIContactAtomNumB() { return(getContactAtomIndexB(SHPI) + 1); }
     
-    public Integer getPISHContactDist() { return(minContactDistances[PISH]); }
-    public Integer getPISHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PISH] + 1); }
-    public Integer getPISHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PISH] + 1); }
+    public Integer getPISHContactDist() { return(getMinContactDist(PISH)); }
+    public Integer getPISHContactAtomNumA() { return(getContactAtomIndexA(PISH) + 1); }
+    public Integer getPISHContactAtomNumB() { return(getContactAtomIndexB(PISH) + 1); }
     
-    public Integer getXOHPIContactDist() { return(minContactDistances[XOHPI]); }
-    public Integer getXOHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[XOHPI] + 1); }
-    public Integer getXOHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[XOHPI] + 1); }
+    public Integer getXOHPIContactDist() { return(getMinContactDist(XOHPI)); }
+    public Integer getXOHPIContactAtomNumA() { return(getContactAtomIndexA(XOHPI) + 1); }
+    public Integer getXOHPIContactAtomNumB() { return(getContactAtomIndexB(XOHPI) + 1); }
     
-    public Integer getPIXOHContactDist() { return(minContactDistances[PIXOH]); }
-    public Integer getPIXOHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PIXOH] + 1); }
-    public Integer getPIXOHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PIXOH] + 1); }
+    public Integer getPIXOHContactDist() { return(getMinContactDist(PIXOH)); }
+    public Integer getPIXOHContactAtomNumA() { return(getContactAtomIndexA(PIXOH) + 1); }
+    public Integer getPIXOHContactAtomNumB() { return(getContactAtomIndexB(PIXOH) + 1); }
     
-    public Integer getPROCDHPIContactDist() { return(minContactDistances[PROCDHPI]); }
-    public Integer getPROCDHPIContactAtomNumA() { return(contactAtomIndexInMoleculeA[PROCDHPI] + 1); }
-    public Integer getPROCDHPIContactAtomNumB() { return(contactAtomIndexInMoleculeB[PROCDHPI] + 1); }
+    public Integer getPROCDHPIContactDist() { return(getMinContactDist(PROCDHPI)); }
+    public Integer getPROCDHPIContactAtomNumA() { return(getContactAtomIndexA(PROCDHPI) + 1); }
+    public Integer getPROCDHPIContactAtomNumB() { return(getContactAtomIndexB(PROCDHPI) + 1); }
     
-    public Integer getPIPROCDHContactDist() { return(minContactDistances[PIPROCDH]); }
-    public Integer getPIPROCDHContactAtomNumA() { return(contactAtomIndexInMoleculeA[PIPROCDH] + 1); }
-    public Integer getPIPROCDHContactAtomNumB() { return(contactAtomIndexInMoleculeB[PIPROCDH] + 1); }   
+    public Integer getPIPROCDHContactDist() { return(getMinContactDist(PIPROCDH)); }
+    public Integer getPIPROCDHContactAtomNumA() { return(getContactAtomIndexA(PIPROCDH) + 1); }
+    public Integer getPIPROCDHContactAtomNumB() { return(getContactAtomIndexB(PIPROCDH) + 1); }   
     
-    public Integer getCCAHCOContactDist() { return(minContactDistances[CCAHCO]); }
-    public Integer getCCAHCOContactAtomNumA() { return(contactAtomIndexInMoleculeA[CCAHCO] + 1); }
-    public Integer getCCAHCOContactAtomNumB() { return(contactAtomIndexInMoleculeB[CCAHCO] + 1); }
+    public Integer getCCAHCOContactDist() { return(getMinContactDist(CCAHCO)); }
+    public Integer getCCAHCOContactAtomNumA() { return(getContactAtomIndexA(CCAHCO) + 1); }
+    public Integer getCCAHCOContactAtomNumB() { return(getContactAtomIndexB(CCAHCO) + 1); }
     
-    public Integer getCCOCAHContactDist() { return(minContactDistances[CCOCAH]); }
-    public Integer getCCOCAHContactAtomNumA() { return(contactAtomIndexInMoleculeA[CCOCAH] + 1); }
-    public Integer getCCOCAHContactAtomNumB() { return(contactAtomIndexInMoleculeB[CCOCAH] + 1); }
+    public Integer getCCOCAHContactDist() { return(getMinContactDist(CCOCAH)); }
+    public Integer getCCOCAHContactAtomNumA() { return(getContactAtomIndexA(CCOCAH) + 1); }
+    public Integer getCCOCAHContactAtomNumB() { return(getContactAtomIndexB(CCOCAH) + 1); }
     
-    public Integer getBCAHCOContactDist() { return(minContactDistances[BCAHCO]); }
-    public Integer getBCAHCOContactAtomNumA() { return(contactAtomIndexInMoleculeA[BCAHCO] + 1); }
-    public Integer getBCAHCOContactAtomNumB() { return(contactAtomIndexInMoleculeB[BCAHCO] + 1); }
+    public Integer getBCAHCOContactDist() { return(getMinContactDist(BCAHCO)); }
+    public Integer getBCAHCOContactAtomNumA() { return(getContactAtomIndexA(BCAHCO) + 1); }
+    public Integer getBCAHCOContactAtomNumB() { return(getContactAtomIndexB(BCAHCO) + 1); }
     
-    public Integer getBCOCAHContactDist() { return(minContactDistances[BCOCAH]); }
-    public Integer getBCOCAHContactAtomNumA() { return(contactAtomIndexInMoleculeA[BCOCAH] + 1); }
-    public Integer getBCOCAHContactAtomNumB() { return(contactAtomIndexInMoleculeB[BCOCAH] + 1); }
+    public Integer getBCOCAHContactDist() { return(getMinContactDist(BCOCAH)); }
+    public Integer getBCOCAHContactAtomNumA() { return(getContactAtomIndexA(BCOCAH) + 1); }
+    public Integer getBCOCAHContactAtomNumB() { return(getContactAtomIndexB(BCOCAH) + 1); }
     
     
 // the getters for statistics follow
-    public Integer getNumContactsTotal() { return(numPairContacts[TT]); }
+    public Integer getNumContactsTotal() { return(getNumContacts(TT)); }
     public Integer getNumLigContactsTotal() { return(numTotalLigContactsPair); }
     public Integer getNumRnaContactsTotal() { return(numTotalRnaContactsPair); }
-    public Integer getNumContactsBB() { return(numPairContacts[BB]); }
-    public Integer getNumContactsBC() { return(numPairContacts[BC]); }
-    public Integer getNumContactsCB() { return(numPairContacts[CB]); }
-    public Integer getNumContactsCC() { return(numPairContacts[CC]); }
-    public Integer getNumContactsHB1() { return(numPairContacts[HB]); }
-    public Integer getNumContactsHB2() { return(numPairContacts[BH]); }
-    public Integer getNumContactsBL() { return(numPairContacts[BL]); }
-    public Integer getNumContactsLB() { return(numPairContacts[LB]); }
-    public Integer getNumContactsCL() { return(numPairContacts[CL]); }
-    public Integer getNumContactsLC() { return(numPairContacts[LC]); }
-    public Integer getNumContactsLL() { return(numPairContacts[LL]); }
-    public Integer getNumContactsDisulfide() { return(numPairContacts[DISULFIDE]); }
-    public Integer getNumContactsBBHB() { return(numPairContacts[BBHB]); }
-    public Integer getNumContactsBBBH() { return(numPairContacts[BBBH]); }
-    public Integer getNumContactsIVDW() { return(numPairContacts[IVDW]); }
-    public Integer getNumContactsISS() { return(numPairContacts[ISS]); }
-    public Integer getNumContactsIPI() { return(numPairContacts[IPI]); }
-    public Integer getNumContactsISB() { return(numPairContacts[ISB]); }
-    public Integer getNumContactsBCHB() { return(numPairContacts[BCHB]); }
-    public Integer getNumContactsBCBH() { return(numPairContacts[BCBH]); }
-    public Integer getNumContactsCBHB() { return(numPairContacts[CBHB]); }
-    public Integer getNumContactsCBBH() { return(numPairContacts[CBBH]); }
-    public Integer getNumContactsCCHB() { return(numPairContacts[CCHB]); }
-    public Integer getNumContactsCCBH() { return(numPairContacts[CCBH]); }
-    public Integer getNumContactsNHPI() { return(numPairContacts[NHPI]); }
-    public Integer getNumContactsPINH() { return(numPairContacts[PINH]); }
-    public Integer getNumContactsCAHPI() { return(numPairContacts[CAHPI]); }
-    public Integer getNumContactsPICAH() { return(numPairContacts[PICAH]); }
-    public Integer getNumContactsCNHPI() { return(numPairContacts[CNHPI]); }
-    public Integer getNumContactsPICNH() { return(numPairContacts[PICNH]); }
-    public Integer getNumContactsSHPI() { return(numPairContacts[SHPI]); }
-    public Integer getNumContactsPISH() { return(numPairContacts[PISH]); }
-    public Integer getNumContactsXOHPI() { return(numPairContacts[XOHPI]); }
-    public Integer getNumContactsPIXOH() { return(numPairContacts[PIXOH]); }
-    public Integer getNumContactsPROCDHPI() { return(numPairContacts[PROCDHPI]); }
-    public Integer getNumContactsPIPROCDH() { return(numPairContacts[PIPROCDH]); }
-    public Integer getNumContactsCCACOH() { return(numPairContacts[CCAHCO]); }
-    public Integer getNumContactsCCOCAH() { return(numPairContacts[CCOCAH]); }
-    public Integer getNumContactsBCACOH() { return(numPairContacts[BCAHCO]); }
-    public Integer getNumContactsBCOCAH() { return(numPairContacts[BCOCAH]); }
+    public Integer getNumContactsBB() { return(getNumContacts(BB)); }
+    public Integer getNumContactsBC() { return(getNumContacts(BC)); }
+    public Integer getNumContactsCB() { return(getNumContacts(CB)); }
+    public Integer getNumContactsCC() { return(getNumContacts(CC)); }
+    public Integer getNumContactsHB1() { return(getNumContacts(HB)); }
+    public Integer getNumContactsHB2() { return(getNumContacts(BH)); }
+    public Integer getNumContactsBL() { return(getNumContacts(BL)); }
+    public Integer getNumContactsLB() { return(getNumContacts(LB)); }
+    public Integer getNumContactsCL() { return(getNumContacts(CL)); }
+    public Integer getNumContactsLC() { return(getNumContacts(LC)); }
+    public Integer getNumContactsLL() { return(getNumContacts(LL)); }
+    public Integer getNumContactsDisulfide() { return(getNumContacts(DISULFIDE)); }
+    public Integer getNumContactsBBHB() { return(getNumContacts(BBHB)); }
+    public Integer getNumContactsBBBH() { return(getNumContacts(BBBH)); }
+    public Integer getNumContactsIVDW() { return(getNumContacts(IVDW)); }
+    public Integer getNumContactsISS() { return(getNumContacts(ISS)); }
+    public Integer getNumContactsIPI() { return(getNumContacts(IPI)); }
+    public Integer getNumContactsISB() { return(getNumContacts(ISB)); }
+    public Integer getNumContactsBCHB() { return(getNumContacts(BCHB)); }
+    public Integer getNumContactsBCBH() { return(getNumContacts(BCBH)); }
+    public Integer getNumContactsCBHB() { return(getNumContacts(CBHB)); }
+    public Integer getNumContactsCBBH() { return(getNumContacts(CBBH)); }
+    public Integer getNumContactsCCHB() { return(getNumContacts(CCHB)); }
+    public Integer getNumContactsCCBH() { return(getNumContacts(CCBH)); }
+    public Integer getNumContactsNHPI() { return(getNumContacts(NHPI)); }
+    public Integer getNumContactsPINH() { return(getNumContacts(PINH)); }
+    public Integer getNumContactsCAHPI() { return(getNumContacts(CAHPI)); }
+    public Integer getNumContactsPICAH() { return(getNumContacts(PICAH)); }
+    public Integer getNumContactsCNHPI() { return(getNumContacts(CNHPI)); }
+    public Integer getNumContactsPICNH() { return(getNumContacts(PICNH)); }
+    public Integer getNumContactsSHPI() { return(getNumContacts(SHPI)); }
+    public Integer getNumContactsPISH() { return(getNumContacts(PISH)); }
+    public Integer getNumContactsXOHPI() { return(getNumContacts(XOHPI)); }
+    public Integer getNumContactsPIXOH() { return(getNumContacts(PIXOH)); }
+    public Integer getNumContactsPROCDHPI() { return(getNumContacts(PROCDHPI)); }
+    public Integer getNumContactsPIPROCDH() { return(getNumContacts(PIPROCDH)); }
+    public Integer getNumContactsCCACOH() { return(getNumContacts(CCAHCO)); }
+    public Integer getNumContactsCCOCAH() { return(getNumContacts(CCOCAH)); }
+    public Integer getNumContactsBCACOH() { return(getNumContacts(BCAHCO)); }
+    public Integer getNumContactsBCOCAH() { return(getNumContacts(BCOCAH)); }
     
     public ArrayList<String> getAtomAtomContactTypes() { return atomAtomContactType; }
     public ArrayList<Atom[]> getAtomAtomContacts() { return atomAtomContacts; }
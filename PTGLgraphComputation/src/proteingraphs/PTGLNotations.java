@@ -24,7 +24,8 @@ import java.util.Map;
 import java.util.Objects;
 import plcc.Main;
 import settings.Settings;
-import tools.DP;
+import tools.DP;
+import tools.ExitError;
 
 /**
  *
@@ -561,7 +562,7 @@ public class PTGLNotations {
                                 // next is still null, this makes no sense (because we kept track of the degrees, and we finish if there is no 
                                 //   vertex left to visit
                                 System.err.println("ERROR: ADJ notation: could not find next vertex in path, this makes no sense.");
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                         }
                     }
@@ -778,7 +779,7 @@ public class PTGLNotations {
                             else {
                                 // next is still null, this makes no sense
                                 System.err.println("    RED notation error: could not find next vertex in circle.");
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                         }
                     }
@@ -1573,7 +1574,7 @@ public class PTGLNotations {
                                 // next is still null, this makes no sense (because we kept track of the degrees, and we finish if there is no 
                                 //   vertex left to visit
                                 System.err.println("ERROR: ADJ notation: could not find next vertex in path, this makes no sense.");
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                         }
                     }
@@ -1795,7 +1796,7 @@ public class PTGLNotations {
                             else {
                                 // next is still null, this makes no sense
                                 System.err.println("    RED notation error: could not find next vertex in circle.");
-                                System.exit(1);
+                                throw new ExitError(1);
                             }
                         }
                     }
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package proteingraphs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded cache of ProtGraphs parsed from graph strings in PLCC format, which drops the least recently used graph when it is full.
+ * Comparing a graph to all graphs in the database repeatedly (e.g., several similarity searches in one run) then parses each graph string
+ * only once. A cached graph is only returned for the same graph string it was parsed from, so changed graphs in the database are parsed again.
+ *
+ * The cache is thread-safe. The cached graphs are shared, so callers must not modify them.
+ */
+public class ProtGraphCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> graphs;
+    private long hits = 0L;
+    private long misses = 0L;
+
+
+    /**
+     * Creates an empty cache.
+     * @param capacity the maximal number of graphs in the cache, 0 to disable caching
+     */
+    public ProtGraphCache(int capacity) {
+        this.capacity = capacity;
+        this.graphs = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ProtGraphCache.this.capacity;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the graph parsed from the graph string, parsing it if it is not in the cache.
+     * @param key identifies the graph, e.g., PDB ID, chain name and graph type
+     * @param graphString the graph string in PLCC format
+     * @return the graph, or null if the graph string could not be parsed
+     */
+    public ProtGraph get(String key, String graphString) {
+        if(graphString == null) {
+            return null;
+        }
+        synchronized(this) {
+            Entry e = graphs.get(key);
+            if(e != null && e.graphString.equals(graphString)) {
+                hits++;
+                return e.graph;
+            }
+            misses++;
+        }
+
+        // parse outside of the lock, so several threads can parse at once
+        ProtGraph pg = ProtGraphs.fromPlccGraphFormatString(graphString);
+        if(pg != null && capacity > 0) {
+            synchronized(this) {
+                graphs.put(key, new Entry(graphString, pg));
+            }
+        }
+        return pg;
+    }
+
+
+    /**
+     * Returns the number of graphs in the cache.
+     * @return the number of graphs
+     */
+    public synchronized int size() {
+        return graphs.size();
+    }
+
+
+    /**
+     * Returns how many requests were answered from the cache.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+
+    /**
+     * Returns how many requests had to parse the graph string.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    /**
+     * Removes all graphs from the cache.
+     */
+    public synchronized void clear() {
+        graphs.clear();
+    }
+
+
+    private static class Entry {
+
+        final String graphString;
+        final ProtGraph graph;
+
+        Entry(String graphString, ProtGraph graph) {
+            this.graphString = graphString;
+            this.graph = graph;
+        }
+    }
+}
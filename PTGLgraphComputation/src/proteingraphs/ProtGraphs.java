@@ -15,6 +15,7 @@ import tools.DP;
 import java.io.*;
 import java.util.*;
 import io.FileParser;
+import tools.ExitError;
 import tools.PlccUtilities;
 
 /**
@@ -473,7 +474,7 @@ public class ProtGraphs {
             v = Integer.parseInt(md.get("format_version"));            
         } catch(Exception e) {
             System.err.println("ERROR: getPlccFileVersion(): format_version is not an Integer in plcc graph string, input data broken.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         return(v);               
@@ -629,7 +630,7 @@ public class ProtGraphs {
         
         if(sses.size() <= 0) {
             System.err.println("ERROR: PLCC_FORMAT: Graph file did not contain any valid SSE lines, vertex set empty. Exiting.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         else {
             //System.out.println("  Parsed " + sses.size() + " SSEs from input file in plcc graph format.");
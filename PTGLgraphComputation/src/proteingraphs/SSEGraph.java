@@ -20,8 +20,7 @@ import graphformats.ITrivialGraphFormat;
 import graphformats.IGraphModellingLanguageFormat;
 import proteinstructure.Chain;
 import proteinstructure.SSE;
-import algorithms.CompatGraphComputation;
-import algorithms.TreeNodeData;
+import algorithms.CliqueFinder;
 import com.google.gson.Gson;
 import datastructures.Graph;
 import datastructures.PLGraph;
@@ -63,7 +62,6 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.swing.tree.DefaultMutableTreeNode;
 import jgrapht.PLGEdge;
 import jgrapht.ProteinLigandGraph;
 import jgrapht.VertexSSE;
@@ -87,6 +85,7 @@ import io.IO;
 import settings.Settings;
 import static proteingraphs.FoldingGraph.ORIENTATION_DOWNWARDS;
 import tools.DP;
+import tools.ExitError;
 import tools.TextTools;
 
 
@@ -500,7 +499,7 @@ public abstract class SSEGraph extends SimpleAttributedGraphAdapter implements I
         
         if(aIndex < 0 || bIndex < 0) {
             System.err.println("ERROR: getSeqGraphSSEPairDistanceBySSEs(): Cannot determine distance between SSE pair, SSE(s) without index info.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         return(aIndex - bIndex);
@@ -674,7 +673,7 @@ public abstract class SSEGraph extends SimpleAttributedGraphAdapter implements I
         
         if(this.isProteinGraph()) {
             System.err.println("ERROR: parentVertexIsPartOfThisFoldingGraph(): this is folding graph only function which is not supported for protein graphs.");
-            System.exit(1);
+            throw new ExitError(1);
         }
                       
        for(SSE s : this.sseList) {
@@ -849,7 +848,7 @@ public abstract class SSEGraph extends SimpleAttributedGraphAdapter implements I
         
         if(x >= adjLists.size() || y >= adjLists.size()) {
             DP.getInstance().e("SSEGraph", "addContact: Cannot add contact between SSEs with indeces " + x + " and " + y + ", list size is " + adjLists.size() + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         if( ! adjLists.get(x).contains(y)) {
@@ -1166,7 +1165,7 @@ public abstract class SSEGraph extends SimpleAttributedGraphAdapter implements I
         //if(position >= this.size || position < 0) {
         if(position >= this.size) {
             System.err.println("ERROR: getSSE(): Index " + position + " out of range, matrix size is " + this.size + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
         return(sseList.get(position));
     }
@@ -1256,152 +1255,20 @@ public abstract class SSEGraph extends SimpleAttributedGraphAdapter implements I
     // public String get
 
     /**
-     * Implements the Bron-Kerbosch algorithm to find all maximal (= non-extandable) cliques. Note that these are NOT
-     * only the largest cliques in the graph but all maximal ones.
+     * Finds all maximal (= non-extandable) cliques. Note that these are NOT only the largest cliques in the graph but all maximal ones.
      * 
-     * This is based on the JGraphT source code.
+     * See CliqueFinder, which implements the Bron-Kerbosch algorithm with pivoting on bitsets.
+     * @return the maximal cliques, each as a set of vertex indices
      */
     public ArrayList<Set<Integer>> getMaximalCliques() {
 
-        this.cliques = new ArrayList<Set<Integer>>();        // global class var
-        this.numCliquesSoFar = 0;
+        this.cliques = new ArrayList<Set<Integer>>(new CliqueFinder(this).findMaximalCliques());        // global class var
+        this.numCliquesSoFar = cliques.size();
 
-        List<Integer> potential_clique = new ArrayList<Integer>();
-        List<Integer> candidates = new ArrayList<Integer>();
-        List<Integer> already_found = new ArrayList<Integer>();
-
-        // add all candidate vertices
-        for(Integer i = 0; i < this.size; i++) {
-            candidates.add(i);
+        if(this.reportCliques && this.numCliquesSoFar >= 1000) {
+            System.out.print("    Found " + this.numCliquesSoFar + " maximal cliques.\n");
         }
-
-        int printDepth = 1;
-        DefaultMutableTreeNode root = new DefaultMutableTreeNode("r");
-        findCliques(potential_clique, candidates, already_found, printDepth, root);
-        System.out.println("BK recursion tree: \n" + CompatGraphComputation.drawTree(root));
         return cliques;
-
-    }
-
-    /**
-     * The recursive part of the Bron-Kerbosch algorithm, used in getMaximalCliques().
-     * 
-     * This is based on the JGraphT source code.
-     */
-    protected void findCliques(List<Integer> potential_clique, List<Integer> candidates, List<Integer> already_found, int printDepth, DefaultMutableTreeNode node) {
-        
-        boolean debug = true;
-        
-        if(debug) {
-            System.out.println(IO.space(printDepth) + "findCliques called: C=" + IO.intListToString(potential_clique, "[", "]") + ", P=" + IO.intListToString(candidates, "[", "]") + ", S=" + IO.intListToString(already_found, "[", "]"));
-        }
-        
-        List<Integer> candidates_array = new ArrayList<Integer>(candidates);
-        if(debug && candidates_array.isEmpty()) {            
-            System.out.println(IO.space(printDepth) + "Candidates list is empty, ending recursion");
-        }
-        if (!end(candidates, already_found)) {
-            // for each candidate_node in candidates do
-            int candidateNum = 0;   // for output explanation only
-            for (Integer candidate : candidates_array) {
-                
-                DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(new TreeNodeData("" + candidate));
-                node.add(newNode);
-                
-                if(debug) {
-                    System.out.println(IO.space(printDepth) + "At candidate #" + (candidateNum + 1 )+ " of " + candidates_array.size() + " total (which is " + candidates_array.get(candidateNum) + ")." + " C=" + IO.intListToString(potential_clique, "[", "]") + ", P=" + IO.intListToString(candidates, "[", "]") + ", S=" + IO.intListToString(already_found, "[", "]"));
-                }
-                
-                List<Integer> new_candidates = new ArrayList<Integer>();
-                List<Integer> new_already_found = new ArrayList<Integer>();
-
-                // move candidate node to potential_clique
-                potential_clique.add(candidate);
-                candidates.remove(candidate);
-
-                // create new_candidates by removing nodes in candidates not
-                // connected to candidate node
-                for (Integer new_candidate : candidates) {
-                    if (this.containsEdge(candidate, new_candidate)) {
-                        new_candidates.add(new_candidate);
-                    } 
-                }
-
-                // create new_already_found by removing nodes in already_found
-                // not connected to candidate node
-                for (Integer new_found : already_found) {
-                    if (this.containsEdge(candidate, new_found)) {
-                        new_already_found.add(new_found);
-                    } 
-                }
-
-                // if new_candidates and new_already_found are empty
-                if (new_candidates.isEmpty() && new_already_found.isEmpty()) {
-                    // potential_clique is maximal_clique
-                    ((TreeNodeData)newNode.getUserObject()).markSpecial(true, IO.intListToString(potential_clique, "[", "]"));
-                    cliques.add(new HashSet<Integer>(potential_clique));
-                    if(debug) {
-                        System.out.println(IO.space(printDepth) + "Found new clique: " + IO.intListToString(potential_clique, "[", "]"));
-                        System.out.println(IO.space(printDepth) + "BK recursion tree: \n" + CompatGraphComputation.drawTree((DefaultMutableTreeNode)node.getRoot()));
-                    }
-                    this.numCliquesSoFar++;
-                    
-                    // DEBUG output
-                    if(this.reportCliques) {
-                        if(this.numCliquesSoFar % 1000 == 0) {
-                        System.out.print("    Found clique #" + this.numCliquesSoFar + " of size " + potential_clique.size() + ".\n");
-                        /*
-                        for(Integer v : potential_clique) {
-                            System.out.print(" " + v);
-                        }
-                        System.out.print(" ]\n");                         
-                         */
-                        }
-                    }
-                }
-                else {
-                    // recursive call
-                    if(debug) {
-                        System.out.println(IO.space(printDepth) + "No clique found, next Recursion with C=" + IO.intListToString(potential_clique, "[", "]") + ", P=" + IO.intListToString(new_candidates, "[", "]") + ", S=" + IO.intListToString(new_already_found, "[", "]"));
-                    }
-                    findCliques(potential_clique, new_candidates, new_already_found, printDepth + 1, newNode);
-                } 
-
-                // move candidate_node from potential_clique to already_found;
-                already_found.add(candidate);
-                potential_clique.remove(candidate);
-                
-                if(debug && (candidateNum == candidates_array.size() - 1)) {
-                    System.out.println(IO.space(printDepth) + "Last candidate used (" + (candidateNum + 1 )+ " of " + candidates_array.size() + "), ending recursion");
-                }
-                candidateNum++;
-            }
-        }
-        else {
-            // end
-            System.out.println(IO.space(printDepth) + "Recursion end met (aborting handling of same subtree once more)");
-        }
-    }
-
-    /**
-     * part of the Bron-Kerbosch Algorithm.
-     */
-    protected boolean end(List<Integer> candidates, List<Integer> already_found) {
-        // if a node in already_found is connected to all nodes in candidates
-        boolean end = false;
-        int edgecounter;
-        for (Integer found : already_found) {
-            edgecounter = 0;
-            for (Integer candidate : candidates) {
-                if (this.containsEdge(found, candidate)) {
-                    edgecounter++;
-                } // of if
-            } // of for
-            if (edgecounter == candidates.size()) {
-                end = true;
-            }
-        } // of for
-        return end;
     }
 
     
@@ -1587,7 +1454,7 @@ E	3	3	3
             System.err.println("WARNING: closestToCTerminus(): No SSE found, returning '" + vertIndex + "'.");
             if(this.size > 0) {
                 System.err.println("ERROR: closestToCTerminus(): Graph has " + this.size + " vertices, so not finding anything is a bug.");
-                System.exit(1);
+                throw new ExitError(1);
             }
         }
         return(vertIndex);
@@ -1647,7 +1514,7 @@ E	3	3	3
 
         if(x < 0 || x >= this.size) {
             System.err.println("ERROR: pathDistanceAllVerts(): Vertex index '" + x + "' invalid.\n");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         //System.out.println("      Calculating distance of all " + this.size + " vertices to vertex " + x + ".");
@@ -1786,7 +1653,7 @@ E	3	3	3
             }
             else {
                 System.err.println("ERROR: numSSE(): SSE type '" + type + "' not supported.");
-                System.exit(-1);
+                throw new ExitError(-1);
             }
         }
 
@@ -1823,7 +1690,7 @@ E	3	3	3
             }
             else {
                 System.err.println("ERROR: getAllSSEsOfType(): SSE type '" + type + "' not supported.");
-                System.exit(-1);
+                throw new ExitError(-1);
             }
         }
 
@@ -1860,7 +1727,7 @@ E	3	3	3
             }
             else {
                 System.err.println("ERROR: getAllSSEsOfTypeFromList(): SSE type '" + type + "' not supported.");
-                System.exit(1);
+                throw new ExitError(1);
             }
         }
 
@@ -2046,7 +1913,7 @@ E	3	3	3
             System.err.println("WARNING: closestToNTerminus(): No SSE found, returning '" + vertIndex + "'.");
             if(this.size > 0) {
                 System.err.println("ERROR: closestToNTerminus(): Graph has " + this.size + " vertices, so not finding anything is a bug.");
-                System.exit(1);
+                throw new ExitError(1);
             }
         }
         return(vertIndex);
@@ -2072,7 +1939,7 @@ E	3	3	3
             System.err.println("WARNING: closestToNTerminusOf(): No SSE found in list, returning '" + vertex + "'.");
             if(someVertices.size() > 0) {
                 System.err.println("ERROR: closestToNTerminusOf(): List has " + someVertices.size() + " vertices, so not finding anything is a bug.");
-                System.exit(-1);
+                throw new ExitError(-1);
             }
         }
         return(vertex);
@@ -9,6 +9,7 @@
 package proteingraphs;
 
 import tools.DP;
+import tools.ExitError;
 
 
 /**
@@ -60,7 +61,7 @@ public class SpatRel {
     public static String getString(Integer i) {
         if(null == i) {
             System.err.println("ERROR: Spatial relation integer must not be null.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         if(i.equals(SpatRel.NONE)) {
@@ -92,8 +93,7 @@ public class SpatRel {
         }
         else {
             System.err.println("ERROR: Spatial relation integer " + i + " is invalid.");
-            System.exit(1);
-            return("?");
+            throw new ExitError(1);
         }
     }
     
@@ -104,7 +104,7 @@ public class SpatRel {
     public static Character getCharacter(Integer i) {
         if(null == i) {
             System.err.println("ERROR: Spatial relation integer must not be null.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         if(i.equals(SpatRel.NONE)) {
@@ -136,8 +136,7 @@ public class SpatRel {
         }
         else {
             System.err.println("ERROR: Spatial relation integer " + i + " is invalid.");
-            System.exit(1);
-            return('?');
+            throw new ExitError(1);
         }
     }
 
@@ -185,8 +184,7 @@ public class SpatRel {
         
         else {
             DP.getInstance().e("SpatRel", "stringToInt: Spatial relation string '" + s + "' is invalid.");
-            System.exit(1);
-            return(-1);
+            throw new ExitError(1);
         }
 
     }
@@ -13,6 +13,7 @@ package proteinstructure;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import proteingraphs.Position3D;
 import settings.Settings;
 
@@ -49,6 +50,162 @@ public class Atom implements java.io.Serializable {
     public static final Integer ATOMTYPE_IGNORED_LIGAND = 2;
     public static final Integer ATOMTYPE_RNA = 3;
     public static final Integer ATOMTYPE_IGNORED_ATOM = 4;
+    
+    /** The vdW radii (as 10th of Angström) by chemical symbol, used by vdwAtomContactTo(). */
+    private static final LinkedHashMap<String, Double> VDW_RADII = createVdwRadiiMap();
+    /** The vdW radius (as 10th of Angström) assumed for elements not listed in VDW_RADII. */
+    public static final Double DEFAULT_VDW_RADIUS = 12.0;
+    /** The elements of VDW_RADII in order, an element's position is its vdW element index. The index VDW_ELEMENTS.length stands for all other elements. */
+    private static final String[] VDW_ELEMENTS = VDW_RADII.keySet().toArray(new String[0]);
+    private static final HashMap<String, Integer> VDW_ELEMENT_INDICES = createVdwElementIndexMap();
+    /** Whether distToAtom() prints the C alpha distances, see setContactDebugging(). Read on every call, so it is not looked up in the settings there. */
+    private static volatile boolean contactDebugging = false;
+    
+    
+    private static LinkedHashMap<String, Double> createVdwRadiiMap() {
+        LinkedHashMap<String, Double> vdwRadii = new LinkedHashMap<>();
+        vdwRadii.put("H", 12.0);
+        vdwRadii.put("HE", 14.0);
+        vdwRadii.put("LI", 18.1);
+        vdwRadii.put("BE", 19.8);
+        vdwRadii.put("B", 19.1);
+        vdwRadii.put("C", 17.0);
+        vdwRadii.put("N", 15.5);
+        vdwRadii.put("O", 15.2);
+        vdwRadii.put("F", 14.7);
+        vdwRadii.put("NE", 15.4);
+        vdwRadii.put("NA", 22.7);
+        vdwRadii.put("MG", 17.3);
+        vdwRadii.put("AL", 22.5);
+        vdwRadii.put("SI", 22.2);
+        vdwRadii.put("P", 18.0);
+        vdwRadii.put("S", 18.0);
+        vdwRadii.put("CL", 17.5);
+        vdwRadii.put("AR", 17.6);
+        vdwRadii.put("K", 27.5);
+        vdwRadii.put("CA", 26.2);
+        vdwRadii.put("SC", 25.8);
+        vdwRadii.put("TI", 24.6);
+        vdwRadii.put("V", 24.2);
+        vdwRadii.put("CR", 24.5);
+        vdwRadii.put("MN", 24.5);
+        vdwRadii.put("FE", 24.4);
+        vdwRadii.put("CO", 24.0);
+        vdwRadii.put("NI", 16.3);
+        vdwRadii.put("CU", 14.0);
+        vdwRadii.put("ZN", 13.9);
+        vdwRadii.put("GA", 18.7);
+        vdwRadii.put("GE", 22.9);
+        vdwRadii.put("AS", 18.5);
+        vdwRadii.put("SE", 19.0);
+        vdwRadii.put("BR", 18.3);
+        vdwRadii.put("KR", 20.2);
+        vdwRadii.put("RB", 32.1);
+        vdwRadii.put("SR", 28.4);
+        vdwRadii.put("Y", 27.5);
+        vdwRadii.put("ZR", 25.2);
+        vdwRadii.put("NB", 25.6);
+        vdwRadii.put("MO", 24.5);
+        vdwRadii.put("TC", 24.4);
+        vdwRadii.put("RU", 24.6);
+        vdwRadii.put("RH", 24.4);
+        vdwRadii.put("PD", 16.3);
+        vdwRadii.put("AG", 17.2);
+        vdwRadii.put("CD", 16.2);
+        vdwRadii.put("IN", 19.3);
+        vdwRadii.put("SN", 21.7);
+        vdwRadii.put("SB", 22.0);
+        vdwRadii.put("TE", 20.0);
+        vdwRadii.put("I", 19.8);
+        vdwRadii.put("XE", 21.6);
+        vdwRadii.put("CS", 34.8);
+        vdwRadii.put("BA", 30.3);
+        vdwRadii.put("LA", 29.8);
+        vdwRadii.put("CE", 28.8);
+        vdwRadii.put("PR", 29.2);
+        vdwRadii.put("ND", 29.5);
+        vdwRadii.put("SM", 29.0);
+        vdwRadii.put("EU", 28.7);
+        vdwRadii.put("GD", 28.3);
+        vdwRadii.put("TB", 27.9);
+        vdwRadii.put("DY", 28.7);
+        vdwRadii.put("HO", 28.1);
+        vdwRadii.put("ER", 28.3);
+        vdwRadii.put("TM", 27.9);
+        vdwRadii.put("YB", 28.0);
+        vdwRadii.put("LU", 27.4);
+        vdwRadii.put("HF", 26.3);
+        vdwRadii.put("TA", 25.3);
+        vdwRadii.put("W", 25.7);
+        vdwRadii.put("RE", 24.9);
+        vdwRadii.put("OS", 24.8);
+        vdwRadii.put("IR", 24.1);
+        vdwRadii.put("PT", 17.2);
+        vdwRadii.put("AU", 16.6);
+        vdwRadii.put("HG", 17.0);
+        vdwRadii.put("TL", 19.6);
+        vdwRadii.put("PB", 20.2);
+        vdwRadii.put("BI", 23.0);
+        vdwRadii.put("AC", 28.0);
+        vdwRadii.put("TH", 29.3);
+        vdwRadii.put("PA", 28.8);
+        vdwRadii.put("U", 18.6);
+        vdwRadii.put("NP", 28.2);
+        vdwRadii.put("PU", 28.1);
+        vdwRadii.put("AM", 28.3);
+        vdwRadii.put("CM", 30.5);
+        vdwRadii.put("BK", 34.0);
+        vdwRadii.put("CF", 30.5);
+        vdwRadii.put("ES", 27.0);
+        return vdwRadii;
+    }
+    
+    
+    private static HashMap<String, Integer> createVdwElementIndexMap() {
+        HashMap<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < VDW_ELEMENTS.length; i++) {
+            indices.put(VDW_ELEMENTS[i], i);
+        }
+        return indices;
+    }
+    
+    
+    /**
+     * Returns the number of vdW element indices, see getVdwElementIndex(). This includes the index for unlisted elements.
+     * @return the number of indices
+     */
+    public static int getNumVdwElementIndices() {
+        return VDW_ELEMENTS.length + 1;
+    }
+    
+    
+    /**
+     * Returns the vdW radius of the element with the given vdW element index.
+     * @param index the vdW element index, see getVdwElementIndex()
+     * @return the radius as 10th of Angström
+     */
+    public static Double getVdwRadiusOfElementIndex(int index) {
+        return (index < VDW_ELEMENTS.length ? VDW_RADII.get(VDW_ELEMENTS[index]) : DEFAULT_VDW_RADIUS);
+    }
+    
+    
+    /**
+     * Returns the index of the chemical element of this atom in the vdW radius table. All elements without a listed radius share the last index.
+     * @return the vdW element index, in the range 0 .. getNumVdwElementIndices() - 1
+     */
+    public int getVdwElementIndex() {
+        Integer index = (this.chemSym == null ? null : VDW_ELEMENT_INDICES.get(this.chemSym.replaceAll("\\s+","")));  //replaceAll is needed to delete whitespace in front of the chemSym; otherwise you cannot look it up in the hashmap
+        return (index != null ? index : VDW_ELEMENTS.length);
+    }
+    
+    
+    /**
+     * Returns the vdW radius of this atom, based on its chemical symbol.
+     * @return the radius as 10th of Angström, DEFAULT_VDW_RADIUS for unlisted elements
+     */
+    public Double getVdwRadius() {
+        return getVdwRadiusOfElementIndex(this.getVdwElementIndex());
+    }
 
     /**
      * Getter for PDB alternate location identifier.
@@ -72,6 +229,16 @@ public class Atom implements java.io.Serializable {
     public Boolean isRnaAtom() { return this.type == ATOMTYPE_RNA; }
     
     
+    /**
+     * Sets whether distToAtom() prints debug output for C alpha atom pairs. This is set once per contact computation from
+     * the setting 'PTGLgraphComputation_B_contact_debug_dysfunct', see AtomContactKernel.getInstance().
+     * @param debug whether to print the debug output
+     */
+    public static void setContactDebugging(boolean debug) {
+        contactDebugging = debug;
+    }
+    
+    
     /**
      * Returns the distance from this atom to atom 'a'. It uses the atom centers to calculate
      * the distance, so you have to take care of the collision sphere size yourself.
@@ -82,7 +249,7 @@ public class Atom implements java.io.Serializable {
         Integer di;
         di = distToPoint(a.getCoordX(), a.getCoordY(), a.getCoordZ());
         
-        if(Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct")) {
+        if(contactDebugging) {
             if(this.isCalphaAtom() && a.isCalphaAtom()) {
                 System.out.println("Distance between C-alpha atoms " + this.pdbAtomNumber + " of " + this.getPdbResNum() + " and " + a.pdbAtomNumber + " of " + a.getPdbResNum() + " is " + di + " (-- before sqrt -> due to change of function not given).");
                 System.out.println(this.getCoordString() + "/" + a.getCoordString());
@@ -100,16 +267,15 @@ public class Atom implements java.io.Serializable {
      * @return the euclidian distance, rounded to an int
      */
     public Integer distToPoint(int dx, int dy, int dz) {
-        Double dd = 0.0;
-        Integer di;
-        
-        dd += (coordX - dx) * (coordX - dx);
-        dd += (coordY - dy) * (coordY - dy);
-        dd += (coordZ - dz) * (coordZ - dz);
+        // use primitives only, this is called for every atom pair during contact computation
+        long ddx = coordX - dx;
+        long ddy = coordY - dy;
+        long ddz = coordZ - dz;
+        long dd = ddx * ddx + ddy * ddy + ddz * ddz;
 
         // di = (int)Math.sqrt(dd);
         // jnw: lets round instead of truncate the result
-        di = (int)Math.round(Math.sqrt(dd));
+        int di = (int)Math.round(Math.sqrt(dd));
         
         return(di);
     }
@@ -239,132 +405,9 @@ public class Atom implements java.io.Serializable {
      * @return True if contact exists, otherwise False.
      */
     public Boolean vdwAtomContactTo (Atom a) {
-        HashMap<String, Double> vdwRadii = new HashMap<>();
-        vdwRadii.put("H", 12.0);
-        vdwRadii.put("HE", 14.0);
-        vdwRadii.put("LI", 18.1);
-        vdwRadii.put("BE", 19.8);
-        vdwRadii.put("B", 19.1);
-        vdwRadii.put("C", 17.0);
-        vdwRadii.put("N", 15.5);
-        vdwRadii.put("O", 15.2);
-        vdwRadii.put("F", 14.7);
-        vdwRadii.put("NE", 15.4);
-        vdwRadii.put("NA", 22.7);
-        vdwRadii.put("MG", 17.3);
-        vdwRadii.put("AL", 22.5);
-        vdwRadii.put("SI", 22.2);
-        vdwRadii.put("P", 18.0);
-        vdwRadii.put("S", 18.0);
-        vdwRadii.put("CL", 17.5);
-        vdwRadii.put("AR", 17.6);
-        vdwRadii.put("K", 27.5);
-        vdwRadii.put("CA", 26.2);
-        vdwRadii.put("SC", 25.8);
-        vdwRadii.put("TI", 24.6);
-        vdwRadii.put("V", 24.2);
-        vdwRadii.put("CR", 24.5);
-        vdwRadii.put("MN", 24.5);
-        vdwRadii.put("FE", 24.4);
-        vdwRadii.put("CO", 24.0);
-        vdwRadii.put("NI", 16.3);
-        vdwRadii.put("CU", 14.0);
-        vdwRadii.put("ZN", 13.9);
-        vdwRadii.put("GA", 18.7);
-        vdwRadii.put("GE", 22.9);
-        vdwRadii.put("AS", 18.5);
-        vdwRadii.put("SE", 19.0);
-        vdwRadii.put("BR", 18.3);
-        vdwRadii.put("KR", 20.2);
-        vdwRadii.put("RB", 32.1);
-        vdwRadii.put("SR", 28.4);
-        vdwRadii.put("Y", 27.5);
-        vdwRadii.put("ZR", 25.2);
-        vdwRadii.put("NB", 25.6);
-        vdwRadii.put("MO", 24.5);
-        vdwRadii.put("TC", 24.4);
-        vdwRadii.put("RU", 24.6);
-        vdwRadii.put("RH", 24.4);
-        vdwRadii.put("PD", 16.3);
-        vdwRadii.put("AG", 17.2);
-        vdwRadii.put("CD", 16.2);
-        vdwRadii.put("IN", 19.3);
-        vdwRadii.put("SN", 21.7);
-        vdwRadii.put("SB", 22.0);
-        vdwRadii.put("TE", 20.0);
-        vdwRadii.put("I", 19.8);
-        vdwRadii.put("XE", 21.6);
-        vdwRadii.put("CS", 34.8);
-        vdwRadii.put("BA", 30.3);
-        vdwRadii.put("LA", 29.8);
-        vdwRadii.put("CE", 28.8);
-        vdwRadii.put("PR", 29.2);
-        vdwRadii.put("ND", 29.5);
-        vdwRadii.put("SM", 29.0);
-        vdwRadii.put("EU", 28.7);
-        vdwRadii.put("GD", 28.3);
-        vdwRadii.put("TB", 27.9);
-        vdwRadii.put("DY", 28.7);
-        vdwRadii.put("HO", 28.1);
-        vdwRadii.put("ER", 28.3);
-        vdwRadii.put("TM", 27.9);
-        vdwRadii.put("YB", 28.0);
-        vdwRadii.put("LU", 27.4);
-        vdwRadii.put("HF", 26.3);
-        vdwRadii.put("TA", 25.3);
-        vdwRadii.put("W", 25.7);
-        vdwRadii.put("RE", 24.9);
-        vdwRadii.put("OS", 24.8);
-        vdwRadii.put("IR", 24.1);
-        vdwRadii.put("PT", 17.2);
-        vdwRadii.put("AU", 16.6);
-        vdwRadii.put("HG", 17.0);
-        vdwRadii.put("TL", 19.6);
-        vdwRadii.put("PB", 20.2);
-        vdwRadii.put("BI", 23.0);
-        vdwRadii.put("AC", 28.0);
-        vdwRadii.put("TH", 29.3);
-        vdwRadii.put("PA", 28.8);
-        vdwRadii.put("U", 18.6);
-        vdwRadii.put("NP", 28.2);
-        vdwRadii.put("PU", 28.1);
-        vdwRadii.put("AM", 28.3);
-        vdwRadii.put("CM", 30.5);
-        vdwRadii.put("BK", 34.0);
-        vdwRadii.put("CF", 30.5);
-        vdwRadii.put("ES", 27.0);
         
-        
-        Double atomRadiusThis;
-        Double atomRadiusOther;
-        
-        //Double radLig = Settings.getInteger("PTGLgraphComputation_I_lig_atom_radius").doubleValue();
-
-        if(this.isLigandAtom()) {
-            atomRadiusThis = vdwRadii.get(this.chemSym.replaceAll("\\s+",""));
-            if(atomRadiusThis == null) {
-                atomRadiusThis = 12.0;
-            }
-        }
-        else {
-            atomRadiusThis = vdwRadii.get(this.chemSym.replaceAll("\\s+","")); //replaceAll is needed to delete whitespace in front of the chemSym; otherwise you cannot look it up in the hashmap
-            if (atomRadiusThis == null) {
-                atomRadiusThis = 12.0;
-            }
-        }
-        
-        if(a.isLigandAtom()) {
-            atomRadiusOther = vdwRadii.get(a.chemSym.replaceAll("\\s+",""));
-            if(atomRadiusOther == null) {
-                atomRadiusOther = 12.0;
-            }
-        }
-        else {
-            atomRadiusOther = vdwRadii.get(a.chemSym.replaceAll("\\s+",""));
-            if (atomRadiusOther == null) {
-                atomRadiusOther = 12.0;
-            }
-        }
+        Double atomRadiusThis = this.getVdwRadius();
+        Double atomRadiusOther = a.getVdwRadius();
 
 
         Double dist = this.distToAtom(a).doubleValue();
@@ -0,0 +1,170 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package proteinstructure;
+
+import settings.Settings;
+import tools.DP;
+
+/**
+ * Atom contact tests on the squared distances of an AtomCoordinateStore. The cutoffs of Atom.atomContactTo() (per atom type pair)
+ * and Atom.vdwAtomContactTo() (per element pair) are converted once into tables of the largest squared distance which still is
+ * a contact, so a test is a table lookup and a few integer multiply-adds: no square root, no boxing and no settings lookups.
+ *
+ * The results are exactly the same as those of the Atom methods, including their rounding of the distance to full 10th of
+ * Angström. In validation mode, the caller is expected to cross-check every test with the Atom methods, see checkAgainst().
+ */
+public class AtomContactKernel {
+
+    private static AtomContactKernel instance = null;
+
+    private final int aaRadius;
+    private final int ligRadius;
+    private final int rnaRadius;
+    private final long[][] typeCutoffs;     // atom type x atom type => largest squared distance which is a contact, -1 if none
+    private final long[][] vdwCutoffs;      // vdW element index x vdW element index => largest squared distance which is a vdW contact, -1 if none
+    private final boolean validationMode;
+    private final boolean atomMethodsRequired;
+
+
+    /**
+     * Creates a kernel for the given atom radii.
+     * @param aaRadius atom radius of protein atoms as 10th of Angström
+     * @param ligRadius atom radius of ligand atoms as 10th of Angström
+     * @param rnaRadius atom radius of RNA atoms as 10th of Angström
+     * @param validationMode whether callers should cross-check the results with the Atom methods
+     * @param atomMethodsRequired whether callers have to use the Atom methods instead, e.g., because their debug output is requested
+     */
+    public AtomContactKernel(int aaRadius, int ligRadius, int rnaRadius, boolean validationMode, boolean atomMethodsRequired) {
+        this.aaRadius = aaRadius;
+        this.ligRadius = ligRadius;
+        this.rnaRadius = rnaRadius;
+        this.validationMode = validationMode;
+        this.atomMethodsRequired = atomMethodsRequired;
+
+        int numTypes = Atom.ATOMTYPE_IGNORED_ATOM + 1;
+        typeCutoffs = new long[numTypes][numTypes];
+        for (int t1 = 0; t1 < numTypes; t1++) {
+            for (int t2 = 0; t2 < numTypes; t2++) {
+                typeCutoffs[t1][t2] = maxSquaredDistBelow(radiusOfType(t1) + radiusOfType(t2));
+            }
+        }
+
+        int numElements = Atom.getNumVdwElementIndices();
+        vdwCutoffs = new long[numElements][numElements];
+        for (int e1 = 0; e1 < numElements; e1++) {
+            for (int e2 = 0; e2 < numElements; e2++) {
+                // same summation of Doubles as in Atom.vdwAtomContactTo()
+                Double maxDist = Atom.getVdwRadiusOfElementIndex(e1) + Atom.getVdwRadiusOfElementIndex(e2);
+                vdwCutoffs[e1][e2] = maxSquaredDistBelow(maxDist);
+            }
+        }
+    }
+
+
+    /**
+     * Discards the kernel, so the next call of getInstance() creates it for the current settings, e.g., for the next entry of a batch run.
+     */
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Returns the kernel for the settings of this run. It is created on the first call, which also sets the contact debugging of Atom.distToAtom().
+     * @return the kernel
+     */
+    public static synchronized AtomContactKernel getInstance() {
+        if (instance == null) {
+            Atom.setContactDebugging(Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct"));
+            instance = new AtomContactKernel(Settings.getInteger("PTGLgraphComputation_I_aa_atom_radius"),
+                    Settings.getInteger("PTGLgraphComputation_I_lig_atom_radius"),
+                    Settings.getInteger("PTGLgraphComputation_I_rna_atom_radius"),
+                    Settings.getBoolean("PTGLgraphComputation_B_contact_kernel_validation"),
+                    Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 2 || Settings.getBoolean("PTGLgraphComputation_B_contact_debug_dysfunct"));
+        }
+        return instance;
+    }
+
+
+    /**
+     * Determines the largest squared distance whose distance, rounded to an integer like in Atom.distToPoint(), is smaller than the limit.
+     * @param limit the distance limit (exclusive) as 10th of Angström
+     * @return the largest squared distance which passes, or -1 if not even distance 0 passes
+     */
+    static long maxSquaredDistBelow(double limit) {
+        // The rounded distance n passes iff n <= ceil(limit) - 1 =: maxRounded, and round(sqrt(d2)) <= maxRounded
+        //  iff sqrt(d2) < maxRounded + 0.5 iff d2 < maxRounded^2 + maxRounded + 0.25, so iff d2 <= maxRounded^2 + maxRounded for integer d2.
+        long maxRounded = (long) Math.ceil(limit) - 1;
+        if (maxRounded < 0) {
+            return -1;
+        }
+        return maxRounded * maxRounded + maxRounded;
+    }
+
+
+    private int radiusOfType(int type) {
+        if (type == Atom.ATOMTYPE_AA) {
+            return aaRadius;
+        } else if (type == Atom.ATOMTYPE_RNA) {
+            return rnaRadius;
+        } else {
+            return ligRadius;
+        }
+    }
+
+
+    /**
+     * Checks whether two atoms of the store are in contact, like Atom.atomContactTo().
+     * @param store the coordinate store
+     * @param i index of the first atom
+     * @param j index of the second atom
+     * @return whether the atoms are in contact
+     */
+    public boolean contact(AtomCoordinateStore store, int i, int j) {
+        return store.squaredDistance(i, j) <= typeCutoffs[store.getType(i)][store.getType(j)];
+    }
+
+
+    /**
+     * Checks whether two atoms of the store are in vdW contact, like Atom.vdwAtomContactTo().
+     * @param store the coordinate store
+     * @param i index of the first atom
+     * @param j index of the second atom
+     * @return whether the vdW radii of the atoms overlap
+     */
+    public boolean vdwContact(AtomCoordinateStore store, int i, int j) {
+        return store.squaredDistance(i, j) <= vdwCutoffs[store.getVdwElement(i)][store.getVdwElement(j)];
+    }
+
+
+    /**
+     * Compares a result of this kernel with the result of the respective Atom method, and warns if they differ.
+     * @param kernelResult the result of contact() or vdwContact()
+     * @param atomResult the result of Atom.atomContactTo() or Atom.vdwAtomContactTo() for the same atom pair
+     * @param x the first atom
+     * @param y the second atom
+     * @return the result of the Atom method
+     */
+    public boolean checkAgainst(boolean kernelResult, boolean atomResult, Atom x, Atom y) {
+        if (kernelResult != atomResult) {
+            DP.getInstance().w("Contact kernel result " + kernelResult + " differs from atom method result " + atomResult + " for atoms " + x.getPdbAtomNum() + " and " + y.getPdbAtomNum() + " in distance " + x.distToAtom(y) + ".");
+        }
+        return atomResult;
+    }
+
+
+    /**
+     * Whether callers should cross-check every result with the Atom methods, see checkAgainst().
+     * @return the setting PTGLgraphComputation_B_contact_kernel_validation of this run
+     */
+    public boolean isValidationMode() { return validationMode; }
+
+    /**
+     * Whether this kernel can replace the Atom methods. This is not the case if their debug output has been requested.
+     * @return false if the Atom methods have to be used
+     */
+    public boolean canReplaceAtomMethods() { return ! atomMethodsRequired; }
+}
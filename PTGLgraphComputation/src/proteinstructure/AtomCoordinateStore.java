@@ -0,0 +1,135 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package proteinstructure;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Holds the coordinates, types and vdW elements of all atoms of a structure in primitive arrays (structure of arrays). The atoms of
+ * each molecule occupy a contiguous range starting at the offset stored in the molecule, see Molecule.getCoordinateStoreOffset().
+ * The distance functions work on these arrays only, so the innermost loop of the atom contact computation does not need to
+ * unbox coordinates or follow pointers to Atom objects.
+ *
+ * The store is a snapshot: a molecule drops its reference to the store as soon as its atoms change.
+ */
+public class AtomCoordinateStore {
+
+    private final int numAtoms;
+    private final int[] x;          // coordinates in 1/10th Angstroem
+    private final int[] y;
+    private final int[] z;
+    private final byte[] type;      // atom type, see Atom.ATOMTYPE_*
+    private final byte[] vdwElement;    // vdW element index, see Atom.getVdwElementIndex()
+
+
+    /**
+     * Creates the store for the atoms of the given molecules and registers it with each molecule. Molecules sharing their atom
+     * list (e.g., a Ligand created from a Molecule) share the same range of the store.
+     * @param mols the molecules of the structure
+     */
+    public AtomCoordinateStore(List<? extends Molecule> mols) {
+        IdentityHashMap<ArrayList<Atom>, Integer> offsets = new IdentityHashMap<>(mols.size());
+
+        int total = 0;
+        for (Molecule m : mols) {
+            if ( ! offsets.containsKey(m.getAtoms())) {
+                offsets.put(m.getAtoms(), total);
+                total += m.getAtoms().size();
+            }
+        }
+
+        numAtoms = total;
+        x = new int[numAtoms];
+        y = new int[numAtoms];
+        z = new int[numAtoms];
+        type = new byte[numAtoms];
+        vdwElement = new byte[numAtoms];
+
+        for (Molecule m : mols) {
+            ArrayList<Atom> atoms = m.getAtoms();
+            int offset = offsets.get(atoms);
+            for (int i = 0; i < atoms.size(); i++) {
+                Atom a = atoms.get(i);
+                int pos = offset + i;
+                x[pos] = a.getCoordX();
+                y[pos] = a.getCoordY();
+                z[pos] = a.getCoordZ();
+                type[pos] = (a.getAtomType() != null ? a.getAtomType() : Atom.ATOMTYPE_IGNORED_ATOM).byteValue();
+                vdwElement[pos] = (byte) a.getVdwElementIndex();
+            }
+            m.setCoordinateStore(this, offset);
+        }
+    }
+
+
+    /**
+     * Returns the squared distance between two atoms of the store.
+     * @param i index of the first atom
+     * @param j index of the second atom
+     * @return the squared euclidian distance in 1/100th Angstroem^2
+     */
+    public long squaredDistance(int i, int j) {
+        long dx = x[i] - x[j];
+        long dy = y[i] - y[j];
+        long dz = z[i] - z[j];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+
+    /**
+     * Returns the squared distance between an atom of the store and a point.
+     * @param i index of the atom
+     * @param px X coordinate as 10th of Angström
+     * @param py Y coordinate as 10th of Angström
+     * @param pz Z coordinate as 10th of Angström
+     * @return the squared euclidian distance in 1/100th Angstroem^2
+     */
+    public long squaredDistanceToPoint(int i, int px, int py, int pz) {
+        long dx = x[i] - px;
+        long dy = y[i] - py;
+        long dz = z[i] - pz;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+
+    /**
+     * Returns the distance between two atoms of the store, rounded like Atom.distToAtom().
+     * @param i index of the first atom
+     * @param j index of the second atom
+     * @return the euclidian distance in 1/10th Angstroem, rounded to an int
+     */
+    public int distance(int i, int j) {
+        return (int) Math.round(Math.sqrt(squaredDistance(i, j)));
+    }
+
+
+    /**
+     * Returns the number of atoms in the store.
+     * @return the atom count
+     */
+    public int getNumAtoms() { return numAtoms; }
+
+    public int getCoordX(int i) { return x[i]; }
+    public int getCoordY(int i) { return y[i]; }
+    public int getCoordZ(int i) { return z[i]; }
+
+    /**
+     * Returns the type of an atom.
+     * @param i index of the atom
+     * @return the atom type, see Atom.ATOMTYPE_*
+     */
+    public int getType(int i) { return type[i]; }
+
+    /**
+     * Returns the vdW element index of an atom.
+     * @param i index of the atom
+     * @return the vdW element index, see Atom.getVdwElementIndex()
+     */
+    public int getVdwElement(int i) { return vdwElement[i]; }
+}
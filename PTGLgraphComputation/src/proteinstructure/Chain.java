@@ -61,7 +61,7 @@ public class Chain implements java.io.Serializable {
      * @return 
      */
     public Integer[] getChainCentroid() {
-        if (chainCentroid == null) {
+        if (radiusFromCentroid == null) {
             this.computeChainCentroidAndRadius();
         }
         return(chainCentroid); 
@@ -158,7 +158,7 @@ public class Chain implements java.io.Serializable {
     
 
     // setters
-    public void addMolecule(Molecule mol){molecules.add(mol);}
+    public void addMolecule(Molecule mol){molecules.add(mol); invalidateChainCentroid();}
     public void setPdbChainID(String s) { pdbChainID = s; }
     public void setAltChainID(String s) { altChainID = s; }
     public void setMacromolID(String s) { macromolID = s; }
@@ -287,21 +287,30 @@ public class Chain implements java.io.Serializable {
     }
     
     
+    /**
+     * Drops the cached chain centroid and radius, so they get re-computed on next use. Called when the molecules of this chain
+     * or their atoms change.
+     */
+    public void invalidateChainCentroid() {
+        radiusFromCentroid = null;
+    }
+    
+    
     /**
      * Computes the geometrical center of all atoms and the largest distance from center to an atom (=radius).
+     * Uses the cached geometry of the molecules: the centroid from their coordinate sums, and the radius from their atoms, skipping
+     * all molecules whose bounding box lies within the largest distance found so far.
      */
     private void computeChainCentroidAndRadius() {
         // compute center
-        Integer[] tmpCenter = new Integer[3];
-        tmpCenter[0] = tmpCenter[1] = tmpCenter[2] = 0;
+        long[] tmpCenter = new long[3];
         int tmpAtomNumber = 0;
         for (Molecule mol : molecules) {
-            for (Atom a : mol.getAtoms()) {
-                tmpCenter[0] += a.getCoordX();
-                tmpCenter[1] += a.getCoordY();
-                tmpCenter[2] += a.getCoordZ();
-                tmpAtomNumber += 1;
-            }
+            MoleculeGeometry geom = mol.getGeometry();
+            tmpCenter[0] += geom.getCoordSums()[0];
+            tmpCenter[1] += geom.getCoordSums()[1];
+            tmpCenter[2] += geom.getCoordSums()[2];
+            tmpAtomNumber += geom.getNumAtoms();
         }
         
         // there could be the case that only RNA/DNA atoms are in a chain
@@ -321,9 +330,11 @@ public class Chain implements java.io.Serializable {
             int tmpBiggestDist = 0;
             int tmpCurrentDist;
             for (Molecule mol : molecules) {
+                if (mol.getGeometry().maxBoundingBoxDistToPoint(chainCentroid[0], chainCentroid[1], chainCentroid[2]) <= tmpBiggestDist) {
+                    continue;   // no atom of this molecule can be farther away
+                }
                 for (Atom a : mol.getAtoms()) {
                     tmpCurrentDist = a.distToPoint(chainCentroid[0], chainCentroid[1], chainCentroid[2]);
-                    // System.out.println("[DEBUG] Distance to center from atom " + a.toString() + " is " + String.valueOf(tmpCurrentDist));
                     if (tmpCurrentDist > tmpBiggestDist) {
                         tmpBiggestDist = tmpCurrentDist;
                     }
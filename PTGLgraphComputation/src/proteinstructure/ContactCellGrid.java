@@ -0,0 +1,160 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package proteinstructure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Uniform 3D grid (cell list) over the center atoms of molecules. Used to find all molecules which may be in
+ * contact with a given molecule without comparing it to every other molecule of the structure.
+ *
+ * The grid only pre-selects candidates: every molecule pair for which Molecule.contactPossibleWithMolecule() is true
+ * is guaranteed to be reported, but the caller still has to run that check (and the atom level check) itself.
+ */
+public class ContactCellGrid {
+
+    /** Additional distance in 1/10th Angstroem which is also added in Molecule.contactPossibleWithMolecule() to account for rounding. */
+    private static final int JUST_TO_BE_SURE = 4;
+
+    /** Offset applied to cell indices before packing them into a key, allows for negative coordinates. */
+    private static final long CELL_INDEX_OFFSET = 1L << 20;
+    private static final long CELL_INDEX_MASK = (1L << 21) - 1;
+
+    private final int cellSize;                                 // edge length of a cell in 1/10th Angstroem
+    private final int maxReach;                                 // max over all molecules of center sphere radius + atom radius
+    private final HashMap<Long, ArrayList<Molecule>> cells;     // cell key => molecules whose center atom lies in that cell
+    private final IdentityHashMap<Molecule, int[]> centers;     // molecule => x,y,z coords of its center atom
+    private final IdentityHashMap<Molecule, Integer> reaches;   // molecule => center sphere radius + atom radius
+
+
+    /**
+     * Builds the grid for the given molecules. Molecules without a center atom (i.e., without atoms) are left out,
+     * they can not be in contact with anything anyway.
+     * @param mols the molecules to bin, may contain molecules of all types
+     */
+    public ContactCellGrid(List<? extends Molecule> mols) {
+        centers = new IdentityHashMap<>(mols.size());
+        reaches = new IdentityHashMap<>(mols.size());
+        cells = new HashMap<>();
+
+        int maxReachAll = 0;
+        int maxReachPolymer = 0;
+        for(Molecule m : mols) {
+            if(! m.hasAtoms() || centers.containsKey(m)) {
+                continue;
+            }
+            Atom center = m.getCenterAtom();
+            if(center == null) {
+                continue;
+            }
+            centers.put(m, new int[] { center.getCoordX(), center.getCoordY(), center.getCoordZ() });
+
+            int reach = m.getCenterSphereRadius() + m.getAtomRadius();
+            reaches.put(m, reach);
+            maxReachAll = Math.max(maxReachAll, reach);
+            if(m.isAA() || m.isRNA()) {
+                maxReachPolymer = Math.max(maxReachPolymer, reach);
+            }
+        }
+
+        maxReach = maxReachAll;
+
+        // Size the cells for the typical case (residues), so that single large ligands do not blow up the cell
+        //  size for everybody. Molecules with a larger reach simply search more cells, see getCandidates().
+        int typicalReach = (maxReachPolymer > 0 ? maxReachPolymer : maxReachAll);
+        cellSize = Math.max(1, 2 * typicalReach + JUST_TO_BE_SURE);
+
+        for(Molecule m : centers.keySet()) {
+            int[] c = centers.get(m);
+            Long key = cellKey(cellIndex(c[0]), cellIndex(c[1]), cellIndex(c[2]));
+            ArrayList<Molecule> cell = cells.get(key);
+            if(cell == null) {
+                cell = new ArrayList<>();
+                cells.put(key, cell);
+            }
+            cell.add(m);
+        }
+    }
+
+
+    /**
+     * Determines all molecules of the grid which may be in contact with m, i.e., whose center atom distance to the center
+     * atom of m does not exclude a contact. The result does not contain m itself and is in no particular order.
+     * @param m the query molecule, may or may not be part of the grid
+     * @return the candidate molecules, empty if m has no center atom
+     */
+    public ArrayList<Molecule> getCandidates(Molecule m) {
+        ArrayList<Molecule> candidates = new ArrayList<>();
+
+        int[] c = centers.get(m);
+        Integer reach = reaches.get(m);
+        if(c == null) {
+            if(! m.hasAtoms() || m.getCenterAtom() == null) {
+                return candidates;
+            }
+            Atom center = m.getCenterAtom();
+            c = new int[] { center.getCoordX(), center.getCoordY(), center.getCoordZ() };
+            reach = m.getCenterSphereRadius() + m.getAtomRadius();
+        }
+
+        // maximal center-center distance at which contactPossibleWithMolecule() may still be true for any partner
+        int maxDist = reach + maxReach + JUST_TO_BE_SURE;
+        int span = maxDist / cellSize + 1;
+
+        int cx = cellIndex(c[0]);
+        int cy = cellIndex(c[1]);
+        int cz = cellIndex(c[2]);
+
+        for(int x = cx - span; x <= cx + span; x++) {
+            for(int y = cy - span; y <= cy + span; y++) {
+                for(int z = cz - span; z <= cz + span; z++) {
+                    ArrayList<Molecule> cell = cells.get(cellKey(x, y, z));
+                    if(cell == null) {
+                        continue;
+                    }
+                    for(Molecule other : cell) {
+                        if(other == m) {
+                            continue;
+                        }
+                        int[] o = centers.get(other);
+                        if(Math.abs(o[0] - c[0]) <= maxDist && Math.abs(o[1] - c[1]) <= maxDist && Math.abs(o[2] - c[2]) <= maxDist) {
+                            candidates.add(other);
+                        }
+                    }
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+
+    /**
+     * Returns the edge length of the grid cells.
+     * @return the cell size in 1/10th Angstroem
+     */
+    public int getCellSize() { return cellSize; }
+
+    /**
+     * Returns the number of non-empty cells of the grid.
+     * @return the number of occupied cells
+     */
+    public int getNumOccupiedCells() { return cells.size(); }
+
+
+    private int cellIndex(int coord) {
+        return Math.floorDiv(coord, cellSize);
+    }
+
+
+    private static long cellKey(int x, int y, int z) {
+        return (((x + CELL_INDEX_OFFSET) & CELL_INDEX_MASK) << 42) | (((y + CELL_INDEX_OFFSET) & CELL_INDEX_MASK) << 21) | ((z + CELL_INDEX_OFFSET) & CELL_INDEX_MASK);
+    }
+}
@@ -29,7 +29,6 @@ public class Ligand extends Molecule implements java.io.Serializable {
         this.chainID = Mol.getChainID();
         this.modelID = Mol.getModelID();
         this.iCode = Mol.getiCode();
-        this.centerSphereRadius = Mol.getCenterSphereRadius();
         this.pdbNum = Mol.getPdbNum();
         this.dsspNum = Mol.getDsspNum();
         this.Name3 = Mol.getName3();
@@ -38,6 +37,7 @@ public class Ligand extends Molecule implements java.io.Serializable {
         this.sse = Mol.getSSE();
         this.sseStringDssp = Mol.getSSEStringDssp();
         this.isPartOfDsspSse = Mol.getDsspSseState();
+        this.setCoordinateStore(Mol.getCoordinateStore(), Mol.getCoordinateStoreOffset());
     }
     
     private String ligName = null;                          // HETNAM record of PDB file (name of this hetero group)
@@ -8,13 +8,13 @@
 package proteinstructure;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import plcc.Main;
 import settings.Settings;
 import tools.DP;
+import tools.ExitError;
 
 /**
  *This file was written by Katja Korolew. To create the Molecule superclass, the methods and parameters 
@@ -44,10 +44,10 @@ abstract public class Molecule {
     public String sseStringDssp = "?";
     public String plccSSEType = "N";                       // not part of any PTGLgraphComputation SSE by default
     public Boolean isPartOfDsspSse = false;                // whether this molecule is part of a valid SSE according to DSSP (which does NOT assign a SSE to *all* molecules)
-    protected Integer centerSphereRadius = null;
-    private Integer[] centroidCoords = null;               // x,y,z coordinates of residue centroid
-    private Integer centroidSphereRadius = null;           // distance from centroid to farthest atom (= radius of sphere around centroid encompassing all atoms)
-    private Integer[] backboneCentroidCoords = null;       // x,y,z coordinates of residue centroid of backbone atoms only
+    private transient volatile MoleculeGeometry geometry = null;  // center atom, centroids, sphere radii etc., computed on first use and dropped when the atoms change
+    private transient AtomCoordinateStore coordinateStore = null;  // primitive copy of the atom coordinates, dropped when the atoms change
+    private int coordinateStoreOffset = -1;                        // index of the first atom of this molecule in the coordinate store
+    private int coordinateStoreNumAtoms = 0;                       // number of atoms when the coordinate store was created
     public Integer entityID = null;                     //  ID of chain/ligand
 
 
@@ -118,7 +118,10 @@ abstract public class Molecule {
                 this.atoms.remove(a);
                 i--;                
             }
-        }        
+        }
+        if( ! deletedAtoms.isEmpty()) {
+            this.invalidateGeometry();
+        }
         return deletedAtoms;
     }
             /**
@@ -192,11 +195,81 @@ abstract public class Molecule {
     
     
     /**
-     * Determines the center atom of this molecule, and also sets the center sphere radius for the molecule.
-     * There is an override function for residues in the Residue class that returns the Calpha as the center atom.
+     * Returns the geometry of this molecule (center atom, centroids, sphere radii and bounding box). It is computed on the first call
+     * and re-used until the atoms of this molecule change, see invalidateGeometry().
+     * @return the geometry
+     */
+    public MoleculeGeometry getGeometry() {
+        MoleculeGeometry g = this.geometry;
+        if(g == null) {
+            g = new MoleculeGeometry(this);
+            this.geometry = g;
+        }
+        return g;
+    }
+    
+    
+    /**
+     * Drops the cached geometry and coordinate store of this molecule and the geometry of its chain, so it gets re-computed on next use. Has to be called whenever the atoms
+     * of this molecule are changed by other means than addAtom(), setAtoms() or chooseYourAltLoc(), which call it themselves.
+     */
+    public void invalidateGeometry() {
+        this.geometry = null;
+        this.coordinateStore = null;
+        if(this.chain != null) {
+            this.chain.invalidateChainCentroid();
+        }
+    }
+    
+    
+    /**
+     * Returns the coordinate store holding the atoms of this molecule, if one was created for it and the atoms did not change since.
+     * @return the store or null
+     */
+    public AtomCoordinateStore getCoordinateStore() {
+        if(this.coordinateStore != null && this.coordinateStoreNumAtoms != this.atoms.size()) {
+            return null;    // the atom list was changed through another molecule sharing it
+        }
+        return this.coordinateStore;
+    }
+    
+    
+    /**
+     * Returns the index of the first atom of this molecule in the coordinate store. The other atoms follow in the order of getAtoms().
+     * @return the offset, only valid if getCoordinateStore() is not null
+     */
+    public int getCoordinateStoreOffset() {
+        return this.coordinateStoreOffset;
+    }
+    
+    
+    /**
+     * Sets the coordinate store holding the atoms of this molecule, called by the AtomCoordinateStore constructor.
+     * @param store the store
+     * @param offset the index of the first atom of this molecule in the store
+     */
+    void setCoordinateStore(AtomCoordinateStore store, int offset) {
+        this.coordinateStore = store;
+        this.coordinateStoreOffset = offset;
+        this.coordinateStoreNumAtoms = (store != null ? this.atoms.size() : 0);
+    }
+    
+    
+    /**
+     * Determines the center atom of this molecule.
      * @return the center atom
      */
     public Atom getCenterAtom(){
+        return this.getGeometry().getCenterAtom();
+    }
+    
+    
+    /**
+     * Computes the center atom of this molecule, used by MoleculeGeometry. Use getCenterAtom() to get the cached result.
+     * There is an override function for residues in the Residue class that returns the Calpha as the center atom.
+     * @return the center atom
+     */
+    protected Atom computeCenterAtom(){
        
         Atom a, b, center = null;
         Integer maxDistForAtom, dist = 0;       // just assign a small start value
@@ -230,8 +303,6 @@ abstract public class Molecule {
             }
         }
 
-        this.centerSphereRadius = totalMinMaxDist;
-        
         // If totalMinMaxDist still has the original value of MAXDIST something must be wrong.
         if(Objects.equals(totalMinMaxDist, MAXDIST)) {
             DP.getInstance().w("MinMax distance of the atoms of PDB molecule "+ pdbNum + " is >= " + MAXDIST + ", seems *very* unlikely.");
@@ -251,66 +322,32 @@ abstract public class Molecule {
     
     protected Integer getCenterSphereRadius() {
 
-        Atom throwAway = null;
-
-        if(this.centerSphereRadius == null) {
-            // calling this function will set the centerSphereRadius variable!
-            throwAway = this.getCenterAtom();
-        }
+        Integer rad = this.getGeometry().getCenterSphereRadius();
 
-        // Should have been set by now!
-        if(this.centerSphereRadius == null) {
+        if(rad == null) {
             
-            Integer rad = 50;      // 5 A
+            rad = 50;      // 5 A
             if(! Settings.getBoolean("PTGLgraphComputation_B_no_parse_warn")) {
                 DP.getInstance().w("Could not determine center sphere radius of PDB molecule " + this.getPdbNum() + ", may have no atoms. Using guessed value " + rad + ".");
             }
-            this.centerSphereRadius = rad;
         }
 
-
-        return(this.centerSphereRadius);
+        return(rad);
     }
     
     
-    /**
-     * Calculates the sphere radius of the centroid of this residue and saves it to the class var centerSphereRadius.
-     */
-    private void calculateCentroidSphereRadius() {
-        Integer[] centroidCoordinates = this.getCentroidCoords();
-        Integer curDist, maxDist;
-        curDist = maxDist = 0;
-        for (Atom a : this.atoms) {
-            curDist = a.distToPoint(centroidCoordinates[0], centroidCoordinates[1], centroidCoordinates[2]);
-            if (curDist > maxDist) { maxDist = curDist; }
-        }
-        this.centroidSphereRadius = maxDist;
-    }
-    
     private Integer getCentroidSphereRadius() {
-        // if called 1st time calculate sphere radius
-        if (this.centroidSphereRadius == null) {
-            this.calculateCentroidSphereRadius();
-        }
-        return this.centroidSphereRadius;
+        return this.getGeometry().getCentroidSphereRadius();
     }
     
     
     public Integer[] getCentroidCoords () {
-        // calculate if called for 1st time
-        if (this.centroidCoords == null) {
-            this.calculateCentroid();
-        }
-        return this.centroidCoords;
+        return this.getGeometry().getCentroidCoords();
     }
     
     
     public Integer[] getBackboneCentroidCoords () {
-        // calculate if called for 1st time
-        if (this.backboneCentroidCoords == null) {
-            this.calculateCentroid();
-        }
-        return this.backboneCentroidCoords;
+        return this.getGeometry().getBackboneCentroidCoords();
     }
     
     
@@ -438,12 +475,12 @@ abstract public class Molecule {
     
     
     // setters
-    public void addAtom(Atom a) { atoms.add(a); }
+    public void addAtom(Atom a) { atoms.add(a); invalidateGeometry(); }
     public void addHydrogenAtom(Atom a) { hydrogenatoms.add(a); }
     public void setChain(Chain c) { chain = c; }
     public void setChainID(String s) { chainID = s; }
     public void setModelID(String s) { modelID = s; }
-    public void setAtoms(ArrayList<Atom> a) { atoms = a; }
+    public void setAtoms(ArrayList<Atom> a) { atoms = a; invalidateGeometry(); }
     public void setSSEString(String s) { sseString = s; }
     public void setSSEStringDssp(String s) { sseStringDssp = s; }
     public void setSSETypePlcc(String s) { plccSSEType = s; }
@@ -471,66 +508,6 @@ abstract public class Molecule {
         return(info);        
     }
     
-    /**
-     * Calculates the centroid of this residue (center of mass of all atoms) and saves it to class var centroidCoords.
-     */
-    private void calculateCentroid() {
-        Integer[] centroid = {0,0,0};
-        Integer[] backboneCentroid = {0,0,0};
-        int numBackboneAtoms = 0;  // should be four, but you can never know if atoms are missing
-        
-        for (int i = 0; i < atoms.size(); i++) {
-            Atom a = atoms.get(i);
-            
-            centroid[0] += a.getCoordX();
-            centroid[1] += a.getCoordY();
-            centroid[2] += a.getCoordZ();
-            
-            // compute backbone centroid only for amino acids
-            if (this.isAA()) {
-                // we expect the first four atoms to be backbone atoms
-                if (i <= 3) {
-                    // apply a simple name check as well
-                    if (Atom.BACKBONE_ATOM_NAMES.contains(a.getAtomName().strip())) {
-                        numBackboneAtoms++;
-                        backboneCentroid[0] += a.getCoordX();
-                        backboneCentroid[1] += a.getCoordY();
-                        backboneCentroid[2] += a.getCoordZ();
-                    } else {
-                        DP.getInstance().w("Trying to compute backbone centroid of " + this.toString() + ". " + a.toString() + " seems not to be a backbone atom. "
-                                + "Ignoring it and proceeding.");
-                    }
-                }
-            }
-        }
-        
-        centroid[0] = (int) (Math.round((double) centroid[0] / this.atoms.size()));
-        centroid[1] = (int) (Math.round((double) centroid[1] / this.atoms.size()));
-        centroid[2] = (int) (Math.round((double) centroid[2] / this.atoms.size()));
-        
-        this.centroidCoords = centroid;
-        
-        // assign normal centroid for non-amino acids
-        if (this.isAA()) {
-            backboneCentroid[0] = (int) (Math.round((double) backboneCentroid[0] / numBackboneAtoms));
-            backboneCentroid[1] = (int) (Math.round((double) backboneCentroid[1] / numBackboneAtoms));
-            backboneCentroid[2] = (int) (Math.round((double) backboneCentroid[2] / numBackboneAtoms));
-        } else {
-            backboneCentroid[0] = centroid[0];
-            backboneCentroid[1] = centroid[1];
-            backboneCentroid[2] = centroid[2];
-        }
-        
-        
-        this.backboneCentroidCoords = backboneCentroid;
-        
-        if (Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 3) {
-            System.out.println("[DEBUG LV 3] " + this.toString());
-            System.out.println("    [DEBUG LV 3] centroid: " + Arrays.toString(this.centroidCoords));
-            System.out.println("    [DEBUG LV 3] backbone centroid: " + Arrays.toString(this.backboneCentroidCoords));
-        }
-    }
-    
     /**
      * Returns the PDB atom number of the center atom of this molecule.
      */
@@ -540,8 +517,7 @@ abstract public class Molecule {
         }
         else {
             System.err.println("ERROR: Could not determine center atom of PDB molecule " + pdbNum + " because it has no atoms.");
-            System.exit(-1);
-            return(null);       // for the IDE
+            throw new ExitError(-1);
         }
     }
     
@@ -0,0 +1,214 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package proteinstructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import settings.Settings;
+import tools.DP;
+
+/**
+ * The geometry of a Molecule which is required for contact computation: center atom, centroid, backbone centroid, the radii of
+ * the spheres around center atom and centroid, and the bounding box of all atoms. All values are computed only once, the centroids
+ * on first request (they are not needed by every contact model), and never change afterwards, so it can be shared between threads.
+ * The Molecule creates a new one whenever its atoms change, see Molecule.getGeometry().
+ */
+public class MoleculeGeometry {
+
+    private final Molecule mol;
+    private final int numAtoms;
+    private final Atom centerAtom;                  // null if the molecule has no atoms
+    private final Integer centerSphereRadius;       // distance from center atom to the farthest atom, null if the molecule has no atoms
+    private Integer[] centroidCoords = null;         // x,y,z coordinates of the centroid of all atoms
+    private Integer[] backboneCentroidCoords = null; // x,y,z coordinates of the centroid of the backbone atoms (of all atoms for non-AAs)
+    private Integer centroidSphereRadius = null;     // distance from centroid to the farthest atom
+    private final long[] coordSums;                 // sums of the x,y,z coordinates of all atoms
+    private final int[] boundingBoxMin;             // min x,y,z coordinates of all atoms, null if the molecule has no atoms
+    private final int[] boundingBoxMax;             // max x,y,z coordinates of all atoms, null if the molecule has no atoms
+
+
+    /**
+     * Computes the geometry of the given molecule from its current atoms.
+     * @param m the molecule
+     */
+    MoleculeGeometry(Molecule m) {
+        ArrayList<Atom> atoms = m.getAtoms();
+        numAtoms = atoms.size();
+
+        centerAtom = m.computeCenterAtom();
+        if(centerAtom != null) {
+            int maxDist = 0;
+            for(Atom a : atoms) {
+                maxDist = Math.max(maxDist, centerAtom.distToAtom(a));
+            }
+            centerSphereRadius = maxDist;
+        } else {
+            centerSphereRadius = null;
+        }
+
+        coordSums = new long[3];
+        if(numAtoms > 0) {
+            boundingBoxMin = new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE };
+            boundingBoxMax = new int[] { Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE };
+            for(Atom a : atoms) {
+                int[] coords = { a.getCoordX(), a.getCoordY(), a.getCoordZ() };
+                for(int d = 0; d < 3; d++) {
+                    coordSums[d] += coords[d];
+                    boundingBoxMin[d] = Math.min(boundingBoxMin[d], coords[d]);
+                    boundingBoxMax[d] = Math.max(boundingBoxMax[d], coords[d]);
+                }
+            }
+        } else {
+            boundingBoxMin = boundingBoxMax = null;
+        }
+
+        mol = m;
+    }
+
+
+    /**
+     * Calculates the centroid (center of mass of all atoms), the backbone centroid and the centroid sphere radius.
+     */
+    private synchronized void calculateCentroids() {
+        if (centroidCoords != null) {
+            return;
+        }
+
+        ArrayList<Atom> atoms = mol.getAtoms();
+        Integer[] centroid = {0,0,0};
+        Integer[] backboneCentroid = {0,0,0};
+        int numBackboneAtoms = 0;  // should be four, but you can never know if atoms are missing
+
+        for (int i = 0; i < atoms.size(); i++) {
+            Atom a = atoms.get(i);
+
+            centroid[0] += a.getCoordX();
+            centroid[1] += a.getCoordY();
+            centroid[2] += a.getCoordZ();
+
+            // compute backbone centroid only for amino acids
+            if (mol.isAA()) {
+                // we expect the first four atoms to be backbone atoms
+                if (i <= 3) {
+                    // apply a simple name check as well
+                    if (Atom.BACKBONE_ATOM_NAMES.contains(a.getAtomName().strip())) {
+                        numBackboneAtoms++;
+                        backboneCentroid[0] += a.getCoordX();
+                        backboneCentroid[1] += a.getCoordY();
+                        backboneCentroid[2] += a.getCoordZ();
+                    } else {
+                        DP.getInstance().w("Trying to compute backbone centroid of " + mol.toString() + ". " + a.toString() + " seems not to be a backbone atom. "
+                                + "Ignoring it and proceeding.");
+                    }
+                }
+            }
+        }
+
+        centroid[0] = (int) (Math.round((double) centroid[0] / atoms.size()));
+        centroid[1] = (int) (Math.round((double) centroid[1] / atoms.size()));
+        centroid[2] = (int) (Math.round((double) centroid[2] / atoms.size()));
+
+        // assign normal centroid for non-amino acids
+        if (mol.isAA()) {
+            backboneCentroid[0] = (int) (Math.round((double) backboneCentroid[0] / numBackboneAtoms));
+            backboneCentroid[1] = (int) (Math.round((double) backboneCentroid[1] / numBackboneAtoms));
+            backboneCentroid[2] = (int) (Math.round((double) backboneCentroid[2] / numBackboneAtoms));
+        } else {
+            backboneCentroid[0] = centroid[0];
+            backboneCentroid[1] = centroid[1];
+            backboneCentroid[2] = centroid[2];
+        }
+
+        int maxDist = 0;
+        for (Atom a : atoms) {
+            maxDist = Math.max(maxDist, a.distToPoint(centroid[0], centroid[1], centroid[2]));
+        }
+
+        backboneCentroidCoords = backboneCentroid;
+        centroidSphereRadius = maxDist;
+        centroidCoords = centroid;
+
+        if (Settings.getInteger("PTGLgraphComputation_I_debug_level") >= 3) {
+            System.out.println("[DEBUG LV 3] " + mol.toString());
+            System.out.println("    [DEBUG LV 3] centroid: " + Arrays.toString(centroidCoords));
+            System.out.println("    [DEBUG LV 3] backbone centroid: " + Arrays.toString(backboneCentroidCoords));
+        }
+    }
+
+
+    /**
+     * Returns the center atom, see Molecule.computeCenterAtom().
+     * @return the center atom or null if the molecule has no atoms
+     */
+    public Atom getCenterAtom() { return centerAtom; }
+
+    /**
+     * Returns the distance from the center atom to the atom farthest away from it.
+     * @return the radius in 1/10th Angstroem or null if the molecule has no atoms
+     */
+    public Integer getCenterSphereRadius() { return centerSphereRadius; }
+
+    /**
+     * Returns the centroid of all atoms.
+     * @return x,y,z coordinates of the centroid
+     */
+    public synchronized Integer[] getCentroidCoords() { calculateCentroids(); return centroidCoords; }
+
+    /**
+     * Returns the centroid of the backbone atoms (of all atoms for non-AAs).
+     * @return x,y,z coordinates of the backbone centroid
+     */
+    public synchronized Integer[] getBackboneCentroidCoords() { calculateCentroids(); return backboneCentroidCoords; }
+
+    /**
+     * Returns the distance from the centroid to the atom farthest away from it.
+     * @return the radius in 1/10th Angstroem
+     */
+    public synchronized Integer getCentroidSphereRadius() { calculateCentroids(); return centroidSphereRadius; }
+
+    /**
+     * Returns the sums of the coordinates of all atoms, e.g., to compute the centroid of several molecules.
+     * @return the sums of the x,y,z coordinates
+     */
+    public long[] getCoordSums() { return coordSums; }
+
+    /**
+     * Returns the lower corner of the bounding box of all atoms.
+     * @return the min x,y,z coordinates or null if the molecule has no atoms
+     */
+    public int[] getBoundingBoxMin() { return boundingBoxMin; }
+
+    /**
+     * Returns the upper corner of the bounding box of all atoms.
+     * @return the max x,y,z coordinates or null if the molecule has no atoms
+     */
+    public int[] getBoundingBoxMax() { return boundingBoxMax; }
+
+    /**
+     * Returns the number of atoms this geometry was computed from.
+     * @return the atom count
+     */
+    public int getNumAtoms() { return numAtoms; }
+
+
+    /**
+     * Determines the largest distance any point of the bounding box can have to the given point. No atom of the molecule can be farther away.
+     * @param x X coordinate as 10th of Angström
+     * @param y Y coordinate as 10th of Angström
+     * @param z Z coordinate as 10th of Angström
+     * @return the distance, rounded like Atom.distToPoint(), or -1 if the molecule has no atoms
+     */
+    public int maxBoundingBoxDistToPoint(int x, int y, int z) {
+        if (boundingBoxMin == null) {
+            return -1;
+        }
+        long dx = Math.max(Math.abs(boundingBoxMin[0] - x), Math.abs(boundingBoxMax[0] - x));
+        long dy = Math.max(Math.abs(boundingBoxMin[1] - y), Math.abs(boundingBoxMax[1] - y));
+        long dz = Math.max(Math.abs(boundingBoxMin[2] - z), Math.abs(boundingBoxMax[2] - z));
+        return (int) Math.round(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+}
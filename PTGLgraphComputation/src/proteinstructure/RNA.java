@@ -27,7 +27,6 @@ public class RNA extends Molecule implements java.io.Serializable {
         this.chainID = Mol.getChainID();
         this.modelID = Mol.getModelID();
         this.iCode = Mol.getiCode();
-        this.centerSphereRadius = Mol.getCenterSphereRadius();
         this.pdbNum = Mol.getPdbNum();
         this.dsspNum = Mol.getDsspNum();
         this.Name3 = Mol.getName3();
@@ -36,6 +35,7 @@ public class RNA extends Molecule implements java.io.Serializable {
         this.sse = Mol.getSSE();
         this.sseStringDssp = Mol.getSSEStringDssp();
         this.isPartOfDsspSse = Mol.getDsspSseState();
+        this.setCoordinateStore(Mol.getCoordinateStore(), Mol.getCoordinateStoreOffset());
     }
 
 //    public List<BindingSite> partOfBindingSites;          // Methods involving BindingSites have not been implemented in this class yet due to problems with BindingSites-class.
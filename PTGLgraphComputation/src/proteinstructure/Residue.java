@@ -281,6 +281,7 @@ public class Residue extends Molecule implements java.io.Serializable {
         this.sse = Mol.getSSE();
         this.sseStringDssp = Mol.getSSEStringDssp();
         this.isPartOfDsspSse = Mol.getDsspSseState();
+        this.setCoordinateStore(Mol.getCoordinateStore(), Mol.getCoordinateStoreOffset());
     }
     
     /**
@@ -323,22 +324,17 @@ public class Residue extends Molecule implements java.io.Serializable {
     
     
     /**
-     * Sets the center atom of this molecule to be the Calpha, and also sets the center sphere radius for the molecule.
-     * If the molecule is not an AA or no Calpha can be found, the original getCenterAtom() function from class Molecule is used.
+     * Determines the center atom of this molecule, which is the Calpha. The center sphere radius is the maximal distance of the Calpha to any other atom.
+     * If the molecule is not an AA or no Calpha can be found, the original computeCenterAtom() function from class Molecule is used.
      * @return the center atom
      */
-    @Override public Atom getCenterAtom() {
+    @Override protected Atom computeCenterAtom() {
         
         // For non-AAs and AAs without Calpha use the function in Molecule class
         if((! this.isAA()) || this.getAlphaCarbonAtom() == null) {
-            return super.getCenterAtom();
+            return super.computeCenterAtom();
         }
         
-    	Atom a, b, center;
-        a = b = center = null;
-        Integer maxDistForAtom, dist = 0;      // just assign a small start value
-//      //Integer atomRadius = Settings.getInteger("PTGLgraphComputation_I_aa_atom_radius");
-
         if(atoms.size() < 1) {
             if( ! Settings.getBoolean("PTGLgraphComputation_B_no_parse_warn")) {
                 DP.getInstance().w("getCenterAtom(): PDB molecule  " + this.pdbNum + " chain " + this.getChainID() + " of type " + getName3() + " has " + atoms.size() + " atoms in default location, returning null.");
@@ -346,39 +342,7 @@ public class Residue extends Molecule implements java.io.Serializable {
             return(null);
         }
 
-            center = this.getAlphaCarbonAtom();
-             
-             // For the return value of this function alone we would be done, but we want to set the C alpha sphere
-             //  radius as well. It is the maximal distance of the center atom to any other atom of this molecule.
-            maxDistForAtom = 0;
-            for(Integer j = 0; j < this.atoms.size(); j++) {
-
-                b = this.atoms.get(j);
-                 
-                if(center.equalsAtom(b)) {
-                   continue; 
-                }
-                 
-                dist = center.distToAtom(b);
-
-                if(dist > maxDistForAtom) {
-                    maxDistForAtom = dist;
-                }
-
-            }
-
-            // The distance to any other atom cannot be smaller than 2 * atomRadius, otherwise the vdW radii of
-            //  the atoms would overlap. If this occurs in a PDB file, something most likely is wrong with the file.
-            //  Note though that this only applies to AA molecules because a ligand could consist of a single atom
-            //  and in that case the center sphere radius can be smaller than 2 * atomRadius.
-            //if(maxDistForAtom < (2 * atomRadius)) {
-            //    maxDistForAtom = 2 * atomRadius;
-        
-
-            // The maximal distance of the Atom we chose to any other Atom of this molecule is the C alpha/center sphere radius
-        this.centerSphereRadius = maxDistForAtom;
-         
-        return (center);
+        return (this.getAlphaCarbonAtom());
     }
     
     
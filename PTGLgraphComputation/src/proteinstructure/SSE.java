@@ -19,6 +19,7 @@ import proteingraphs.SSEGraph;
 import proteingraphs.SSEGraphVertex;
 import tools.DP;
 import proteingraphs.SpatRel;
+import tools.ExitError;
 import tools.PiEffectCalculations;
 
 /**
@@ -203,7 +204,12 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
     }
     
     
-    public Integer[] getOrientationVector() {
+    /**
+     * Returns the orientation vector, which is computed when it is first needed. Synchronized because the SSEs of a chain are shared by
+     * the graphs of all graph types, which may be computed in parallel.
+     * @return the vector (X,Y,Z) from the center of the first to the center of the last residues, or null for an SSE without atoms
+     */
+    public synchronized Integer[] getOrientationVector() {
         if (orientationVector == null) {
             if (hasMoleculeWithAtoms()) {
                 computeOrientationVector();
@@ -700,7 +706,7 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
 
         if(residues.size() < 1) {
             System.err.println("ERROR: Empty SSE '" + sseIDPtgl + "' has no end residue. Check size before asking.");
-            System.exit(-1);
+            throw new ExitError(-1);
         }
 
         Integer maxResNumDssp = -1;
@@ -720,7 +726,7 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
 
         if(endRes == null || maxResNumDssp == -1) {
             System.err.println("ERROR: Could not determine end residue of non-empty SSE '" + sseIDPtgl + "' with length " + this.residues.size() + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         return(endRes);
@@ -731,7 +737,7 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
 
         if(molecules.size() < 1) {
             System.err.println("ERROR: Empty SSE '" + sseIDPtgl + "' has no end molecule. Check size before asking.");
-            System.exit(-1);
+            throw new ExitError(-1);
         }
 
         Integer maxResNumDssp = -1;
@@ -751,7 +757,7 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
 
         if(endMol == null || maxResNumDssp == -1) {
             System.err.println("ERROR: Could not determine end molecule of non-empty SSE '" + sseIDPtgl + "' with length " + this.molecules.size() + ".");
-            System.exit(1);
+            throw new ExitError(1);
         }
 
         return(endMol);
@@ -842,7 +848,7 @@ public class SSE extends SSEGraphVertex implements IDrawableVertex, java.io.Seri
         }
         else {
             System.err.println("ERROR: getPrimarySeqDistanceInAminoAcidsTo(): The compared SSEs overlap.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         return(d);
@@ -63,6 +63,13 @@ public class ProteinResults {
       return instance;
    }
     
+    /**
+     * Discards all results, e.g., before the next entry of a batch run is processed.
+     */
+    public void clear() {
+        init();
+    }
+    
     private void init() {
         chainResults = new HashMap<String, ProteinChainResults>();
         proteinMetadata = new HashMap<String, String>();
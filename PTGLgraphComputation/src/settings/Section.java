@@ -155,6 +155,12 @@ class Section {
                 settings.add(new Setting("PTGLgraphComputation_B_skip_too_large", 'B', "false", "Whether to abort if the protein has more than 'PTGLgraphComputation_I_skip_num_atoms_threshold' atoms."));
                 settings.add(new Setting("PTGLgraphComputation_I_skip_num_atoms_threshold", 'I', "80000", "The maximal number of atoms per PDB file if 'PTGLgraphComputation_B_skip_too_large' is true. In that case, PTGLgraphComputation will abort for PDB files with more atoms."));
                 settings.add(new Setting("PTGLgraphComputation_B_chain_spheres_speedup", 'B', "true", "Whether to use contact computation speedup based on comparison of chain spheres."));
+                settings.add(new Setting("PTGLgraphComputation_B_contact_cell_list", 'B', "false", "Whether to use a cell list (uniform 3D grid over the residue centers) to find the residue pairs which are checked for atom contacts, instead of comparing all pairs. Much faster for large structures. Checks all residue pairs near each other, so it also finds the contacts which the sequence neighbor skip of the pairwise comparison misses at chain ends and ligands."));
+                settings.add(new Setting("PTGLgraphComputation_B_contact_parallel", 'B', "false", "Whether to compute atom contacts between residues in parallel. Gives identical results."));
+                settings.add(new Setting("PTGLgraphComputation_I_contact_threads", 'I', "0", "The number of threads used for parallel atom contact computation if 'PTGLgraphComputation_B_contact_parallel' is true. Set to 0 to use all available processors."));
+                settings.add(new Setting("PTGLgraphComputation_B_graph_parallel", 'B', "false", "Whether to compute the SSE contacts and draw the images of the protein graphs of all chains and graph types of a PDB entry in parallel. The other output (text files, folding graphs, DB) is handled in chain order, so this gives identical results."));
+                settings.add(new Setting("PTGLgraphComputation_I_graph_threads", 'I', "0", "The number of threads used for parallel protein graph computation if 'PTGLgraphComputation_B_graph_parallel' is true. Set to 0 to use all available processors."));
+                settings.add(new Setting("PTGLgraphComputation_B_contact_kernel_validation", 'B', "false", "Whether to cross-check every atom contact test of the squared distance contact kernel with the original distance based test, and warn about differences. Slow, for testing only."));
                 settings.add(new Setting("PTGLgraphComputation_B_centroid_method", 'B', "true", "Whether to use centroid of atoms instead of C_alpha for contact computation. Recommended use only with PTGLgraphComputation_B_chain_spheres_speedup."));
                 settings.add(new Setting("PTGLgraphComputation_B_round_coordinates", 'B', "true", "Whether 3D atom coordinates should be rounded or truncated one decimal place."));
                 settings.add(new Setting("PTGLgraphComputation_S_temp_dir", 'S', ".", "The directory where temporary files can be created. You need write access to it, of course."));
@@ -223,6 +229,10 @@ class Section {
                 settings.add(new Setting("PTGLgraphComputation_S_db_username", 'S', "vplg", "DB username"));
                 settings.add(new Setting("PTGLgraphComputation_S_db_password", 'S', "", "DB password (empty if local is TRUST for this user)"));
                 settings.add(new Setting("PTGLgraphComputation_B_db_use_autocommit", 'B', "false", "Whether the DB connection gets set to autocommit when created."));
+                settings.add(new Setting("PTGLgraphComputation_I_db_pool_size", 'I', "4", "The maximal number of DB connections. Each thread which uses the DB works on its own connection, so this many threads can access the DB at the same time."));
+                settings.add(new Setting("PTGLgraphComputation_I_db_statement_cache_size", 'I', "100", "The maximal number of prepared statements kept open per DB connection, so queries which are run often are prepared only once. Set to 0 to disable the cache."));
+                settings.add(new Setting("PTGLgraphComputation_B_db_write_behind", 'B', "true", "Whether results which are only written (graph statistics, graphlet counts, paths of output files) are queued and written to the DB later in the transaction of the entry. At the end of the entry, a writer thread writes them and commits, so in batch mode the next entry is computed meanwhile."));
+                settings.add(new Setting("PTGLgraphComputation_I_db_write_behind_queue_size", 'I', "1000", "The maximal number of results queued for the DB if PTGLgraphComputation_B_db_write_behind is set. When the queue is full, the computation writes it before it goes on."));
                 break;
                 
             case "DB settings":
@@ -243,6 +253,7 @@ class Section {
             case "DB structure search":
                 settings.add(new Setting("PTGLgraphComputation_B_matrix_structure_search", 'B', "false", "Search a linear notation (input) in a proteinstructure (input)"));
                 settings.add(new Setting("PTGLgraphComputation_B_matrix_structure_search_db", 'B', "false", "Search a linear notation (input) in the database, ignores any given proteinstructure as input"));
+                settings.add(new Setting("PTGLgraphComputation_B_matrix_structure_search_db_interactive", 'B', "false", "Read the RED notations of all folding graphs of a graph type from the database once and search linear notations read from the standard input in them, ignores any given proteinstructure as input"));
                 settings.add(new Setting("PTGLgraphComputation_S_linear_notation", 'S', "", "The linear notation of a PG for the matrix structure comparison."));
                 settings.add(new Setting("PTGLgraphComputation_S_linear_notation_type", 'S', "", "The type of linear notation (adj or red) for matrix structure comparison."));
                 settings.add(new Setting("PTGLgraphComputation_S_linear_notation_graph_type", 'S', "", "alpha, beta or albe = The graph type of the PG graph of the linear notation."));
@@ -277,6 +288,7 @@ class Section {
                 settings.add(new Setting("PTGLgraphComputation_B_add_metadata_comments_GML", 'B', "false", "Whether to add meta data to exported GML format graphs in comments. Note: Not all programs parse comments correctly."));
                 settings.add(new Setting("PTGLgraphComputation_B_add_metadata_comments_DOT", 'B', "false", "Whether to add meta data to exported DOT format graphs in comments. Note: Not all programs parse comments correctly."));
                 settings.add(new Setting("PTGLgraphComputation_B_compute_graph_metrics", 'B', "false", "Whether to compute graph metrics such as cluster coefficient for PGs. Slower!"));
+                settings.add(new Setting("PTGLgraphComputation_B_compute_graphlets", 'B', "false", "Whether to count the graphlets of the PGs, CGs and AAGs in-process instead of running the GraphletAnalyser on them later. The normalized counts are written to the database if it is used, to a .graphlets text file next to the graph files otherwise."));
                 break;
                 
             case "CG":
@@ -295,10 +307,13 @@ class Section {
             case "Motifs":
                 settings.add(new Setting("PTGLgraphComputation_B_compute_motifs", 'B', "true", "Whether to search for motifs in the FG linear notations (after computing and writing them to the DB)."));
                 settings.add(new Setting("PTGLgraphComputation_B_compute_tim", 'B', "false", "Whether to search for tim barrel motif in FGs if PTGLgraphComputation_B_compute_motifs is true."));
+                settings.add(new Setting("PTGLgraphComputation_B_reassign_motifs_db", 'B', "false", "Delete the motif assignments of all chains in the database and compute them again from the FG linear notations in the database, then exit (command line option '--reassign-motifs')."));
+                settings.add(new Setting("PTGLgraphComputation_I_motif_threads", 'I', "0", "The number of threads which reassign the motifs of the chains in the database in parallel. Each thread uses its own DB connection, and the main thread keeps one to read the chains, so at most 'PTGLgraphComputation_I_db_pool_size' - 1 are used (at least 1). Set to 0 to use that many."));
                 break;
                 
             case "Cluster mode":
                 settings.add(new Setting("PTGLgraphComputation_B_clustermode", 'B', "false", "Whether to write extra output files used only in cluster mode, like GML albe graph file list."));
+                settings.add(new Setting("PTGLgraphComputation_I_batch_workers", 'I', "1", "The number of worker threads of the batch mode (command line option '--batch'). They check the input files and write the logs of several entries at the same time, but compute one entry at a time. Set to 0 to use all available processors."));
                 settings.add(new Setting("PTGLgraphComputation_B_output_images_dir_tree", 'B', "false", "Whether to write output images to a PDB-style sub directory structure under the output directory instead of writing them in there directly. "
                         + "This is useful if you want to process the whole PDB because most filesystems will get into trouble with tens of thousands of files in a single directory. "
                         + "The directory structure will be chosen from the meta data, i.e., PDB ID, chain, graph type, etc."));
@@ -359,7 +374,11 @@ class Section {
                 settings.add(new Setting("PTGLgraphComputation_S_search_similar_chainID", 'S', "A", "Used only when PTGLgraphComputation_B_search_similar is true. The protein chain ID to use as a pattern during the similarity search."));
                 settings.add(new Setting("PTGLgraphComputation_S_search_similar_graphtype", 'S', "albelig", "Used only when PTGLgraphComputation_B_search_similar is true. The graph type to use as a pattern during the similarity search."));
                 settings.add(new Setting("PTGLgraphComputation_I_search_similar_num_results", 'I', "5", "Used only when PTGLgraphComputation_B_search_similar is true. The number of results to print (e.g., 3 for the 3 most similar proteins in the DB)."));
-                settings.add(new Setting("PTGLgraphComputation_S_search_similar_method", 'S', "string_sse", "Used only when PTGLgraphComputation_B_search_similar is true. The similarity measure to use, valid settings: string_sse, graph_set, graph_compat"));
+                settings.add(new Setting("PTGLgraphComputation_S_search_similar_method", 'S', "string_sse", "Used only when PTGLgraphComputation_B_search_similar is true. The similarity measure to use, valid settings: string_sse, graph_set, graph_compat, graphlet_relfreq"));
+                settings.add(new Setting("PTGLgraphComputation_I_search_similar_clique_time_limit_ms", 'I', "60000", "Used only when PTGLgraphComputation_S_search_similar_method is graph_compat. The time limit in milliseconds for each clique search in a compatibility graph, the search stops with the cliques found so far when it is reached. Set to 0 for no limit."));
+                settings.add(new Setting("PTGLgraphComputation_I_search_similar_graph_cache_size", 'I', "20000", "Used only when PTGLgraphComputation_B_search_similar is true. The maximal number of protein graphs parsed from the database which are kept in memory, so repeated searches do not need to parse them again. Set to 0 to disable the cache."));
+                settings.add(new Setting("PTGLgraphComputation_S_search_similar_graphlet_index_file", 'S', "graphlet_index.ser", "Used only when PTGLgraphComputation_S_search_similar_method is graphlet_relfreq. The file of the graphlet index used for the search. It is built from the graphlets in the database and written to this file if it does not exist."));
+                settings.add(new Setting("PTGLgraphComputation_B_search_similar_graphlet_index_rebuild", 'B', "false", "Used only when PTGLgraphComputation_S_search_similar_method is graphlet_relfreq. Whether to rebuild the graphlet index from the database even if the index file exists, e.g., after new graphlets were added to the database."));
                 settings.add(new Setting("PTGLgraphComputation_B_compute_graphlet_similarities", 'B', "false", "Whether to compute graphlet similarities in the DB and then exit. It depends on other settings which graphlet sims are actually computed."));
                 settings.add(new Setting("PTGLgraphComputation_S_search_similar_graphlet_scoretype", 'S', "RGF", "The method used to compute a similarity score from a pair of graphlet vectors. Valid options are: RGF=relative graphlet frequency distance, CUS=custom."));
                 settings.add(new Setting("PTGLgraphComputation_B_compute_graphlet_similarities_pg", 'B', "false", "Whether to compute graphlet similarities for Protein Graphs. Only used if PTGLgraphComputation_B_compute_graphlet_similarities is true."));
@@ -41,6 +41,7 @@ class Setting {
      * @param dataType data type of the setting
      * @param defaultValue hard coded default value of the setting
      * @param documentation
+     * @throws IllegalArgumentException if the data type is not allowed or the default value is not of the data type
      */
     public Setting(String name, char dataType, String defaultValue, String documentation) {
         this.name = name;
@@ -50,9 +51,8 @@ class Setting {
             this.dataType = dataType;
         } else {
             DP.getInstance().e(Settings.PACKAGE_TAG, "Creating the setting '" + name + "' failed, because the data type is not allowed or correctly formatted. "
-                    + "This is an error in the code, please inform the developer of this software. Exiting now.");
-            this.dataType = 'S';  // for the IDE
-            System.exit(1);
+                    + "This is an error in the code, please inform the developer of this software.");
+            throw new IllegalArgumentException("Invalid data type '" + dataType + "' of setting '" + name + "'.");
         }
         
         // if developer do no mistakes, this check is unneccessary - that is why we do the check
@@ -61,9 +61,8 @@ class Setting {
         } else {
             DP.getInstance().e(Settings.PACKAGE_TAG, "Creating the setting '" + name + "' failed, because the default value '" + defaultValue + "' "
                     + "seems not to be of the required data type '" + getDataTypeString() + "'. "
-                    + "This is an error in the code, please inform the developer of this software. Exiting now.");
-            System.exit(1);
-            this.defaultValue = "";  // for the IDE
+                    + "This is an error in the code, please inform the developer of this software.");
+            throw new IllegalArgumentException("Invalid default value '" + defaultValue + "' of setting '" + name + "'.");
         }
         
         this.documentation = documentation;
@@ -116,6 +115,14 @@ class Setting {
     }
     
     
+    /**
+     * Drops the value set by the user, so the default value is used again.
+     */
+    void resetOverwrittenValue() {
+        this.overwrittenValue = UNOVERWRITTEN_PLACEHOLDER;
+    }
+    
+    
     /**
      * Returns the value set by the user and otherwise the default value.
      * @return value as String
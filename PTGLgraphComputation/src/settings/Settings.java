@@ -203,6 +203,19 @@ public class Settings {
     }
     
     
+    /**
+     * Drops all values set by the settings file or the command line, so all settings have their default value again. Used to isolate the
+     * entries of a batch run, which each call init() and apply their own command line afterwards.
+     */
+    public static void resetToDefaults() {
+        for (Section tmpSection : sections) {
+            for (Setting tmpSetting : tmpSection.settings) {
+                tmpSetting.resetOverwrittenValue();
+            }
+        }
+    }
+    
+    
     static public String asFormattedString() {
         String formattedString = "";
         String lastSectionType = "";  // used to track in which type of section we are: User, Advanced, Developer
@@ -243,6 +256,7 @@ public class Settings {
      * Retrieves the setting with key 'key' from the settings and returns it as a String. Note that it is considered a fatal error if no such key exists. Ask first using 'contains()' if you're not sure. :)
      * @param key the key to get
      * @return the value of the specified key
+     * @throws IllegalArgumentException if no setting 'key' exists
      */
     public static String get(String key) {
         if(mapSettingNameToSectionName.containsKey(key)) {
@@ -250,9 +264,8 @@ public class Settings {
         }
         else {
             DP.getInstance().e(PACKAGE_TAG, "No config file or default value for setting '" + key + "' exists, setting invalid. "
-                    + "Please inform a developer.  Exiting now.");
-            System.exit(1);                
-            return("ERROR");    // for the IDE                    
+                    + "Please inform a developer.");
+            throw new IllegalArgumentException("Unknown setting '" + key + "'.");
         }
         
     }
@@ -262,6 +275,7 @@ public class Settings {
      * Tries to cast the value of the property key 'key' to Integer and return it. If this fails it is considered a fatal error.
      * @param key the key of the properties hashmap
      * @return the value of the key as an Integer
+     * @throws IllegalArgumentException if the setting does not exist or its value is not an Integer
      */
     public static Integer getInteger(String key) {
         Integer i = null;
@@ -271,8 +285,8 @@ public class Settings {
             i = Integer.valueOf(s);
         }
         catch (NumberFormatException e) {
-            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Integer, invalid format. Exiting now.");
-            System.exit(1);
+            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Integer, invalid format.");
+            throw new IllegalArgumentException("Value '" + s + "' of setting '" + key + "' is not an Integer.", e);
         }
         return(i);
     }
@@ -282,6 +296,7 @@ public class Settings {
      * Tries to cast the value of the property key 'key' to Float and return it. If this fails it is considered a fatal error.
      * @param key the key of the properties hashmap
      * @return the value of the key as a Float
+     * @throws IllegalArgumentException if the setting does not exist or its value is not a Float
      */
     public static Float getFloat(String key) {
         Float f = null;
@@ -291,8 +306,8 @@ public class Settings {
             f = Float.valueOf(s);
         }
         catch (NumberFormatException e) {
-            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Float, invalid format. Exiting now.");
-            System.exit(1);
+            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Float, invalid format.");
+            throw new IllegalArgumentException("Value '" + s + "' of setting '" + key + "' is not a Float.", e);
         }
         return(f);
     }
@@ -303,6 +318,7 @@ public class Settings {
      * The only accepted string representations of Booleans are "true" and "false".
      * @param key the key of the properties hashmap
      * @return the value of the key as a Boolean
+     * @throws IllegalArgumentException if the setting does not exist or its value is not a Boolean
      */
     public static Boolean getBoolean(String key) {
         Boolean b = null;
@@ -317,9 +333,8 @@ public class Settings {
             return(false);
         }
         else {
-            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Boolean, invalid format. Exiting now.");
-            System.exit(1);
-            return(false);      // never reached
+            DP.getInstance().e(PACKAGE_TAG, "Could not load setting '" + key + "' from settings as an Boolean, invalid format.");
+            throw new IllegalArgumentException("Value '" + s + "' of setting '" + key + "' is not a Boolean.");
         }
     }
     
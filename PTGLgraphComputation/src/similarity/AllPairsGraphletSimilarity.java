@@ -0,0 +1,317 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package similarity;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Compares all pairs of a set of graphs by their graphlet counts and keeps the k most similar targets for each source graph. All graphlet
+ * vectors are held in memory as primitive arrays. The pairs are compared in tiles of TILE_SIZE sources and TILE_SIZE targets, so the
+ * vectors of a tile stay in the CPU cache, and the tiles of different sources are handled in parallel. Only the k best scores per source
+ * are kept, in a bounded heap, so the memory needed does not grow with the square of the number of graphs. To keep all scores, use
+ * computeAll(), which passes the scores of each source to a ScoreConsumer instead of keeping them.
+ *
+ * The score is the relative graphlet frequency distance (lower is more similar) or the custom Tanimoto coefficient with precision 0.8
+ * (higher is more similar), see SimilarityByGraphlets. Like the old per-pair computation in DBManager, scores of SCORE_TOO_LARGE or
+ * more are never kept, for both methods.
+ */
+public class AllPairsGraphletSimilarity {
+
+    /** The number of graphs per tile. */
+    private static final int TILE_SIZE = 256;
+
+    /** Pairs with a score of this or more are not kept, e.g., a huge RGF distance caused by graphlets which are almost missing in one of the graphs. */
+    public static final double SCORE_TOO_LARGE = 1000.0;
+
+    /** The precision used for the custom Tanimoto coefficient. */
+    private static final double TANIMOTO_PRECISION = 0.8;
+
+    private final double[][] vectors;      // the graphlet vectors, or for RGF their terms
+    private final boolean rgf;
+
+    private int[][] topTargets;
+    private double[][] topScores;
+
+
+    /**
+     * Prepares the comparison of the given graphlet vectors.
+     * @param graphletCounts the normalized graphlet counts of each graph, all of the same length. The arrays are not modified.
+     * @param method the similarity method, SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF or SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM
+     */
+    public AllPairsGraphletSimilarity(double[][] graphletCounts, String method) {
+        if(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF.equals(method)) {
+            this.rgf = true;
+            this.vectors = new double[graphletCounts.length][];
+            for(int i = 0; i < graphletCounts.length; i++) {
+                vectors[i] = SimilarityByGraphlets.getRelativeGraphletFrequencyTerms(graphletCounts[i]);
+            }
+        }
+        else if(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM.equals(method)) {
+            this.rgf = false;
+            this.vectors = graphletCounts;
+        }
+        else {
+            throw new IllegalArgumentException("Invalid graphlet similarity method '" + method + "'.");
+        }
+    }
+
+
+    /**
+     * Returns the number of graphs.
+     * @return the number of graphs
+     */
+    public int getNumGraphs() {
+        return vectors.length;
+    }
+
+
+    /**
+     * Computes the score of a pair of graphs.
+     * @param i the index of the source graph
+     * @param j the index of the target graph
+     * @return the score
+     */
+    public double score(int i, int j) {
+        if(rgf) {
+            return SimilarityByGraphlets.getRelativeGraphletFrequencyDistance(vectors[i], vectors[j]);
+        }
+        return SimilarityByGraphlets.getTanimotoCoefficient(vectors[i], vectors[j], TANIMOTO_PRECISION);
+    }
+
+
+    /**
+     * Returns whether lower scores mean more similar graphs, which is the case for the relative graphlet frequency distance.
+     * @return true for a distance, false for a similarity
+     */
+    public boolean isLowerBetter() {
+        return rgf;
+    }
+
+
+    /**
+     * Receives the scores of one source graph, see computeAll().
+     */
+    public interface ScoreConsumer {
+
+        /**
+         * Handles the scores of a source graph. The arrays are reused for the next source, so copy what you need to keep.
+         * @param source the index of the source graph
+         * @param targets the indices of the target graphs in the first count fields, in ascending order
+         * @param scores the scores of the targets in the first count fields
+         * @param count the number of targets
+         * @throws SQLException if storing the scores fails, which ends computeAll()
+         */
+        void acceptScores(int source, int[] targets, double[] scores, int count) throws SQLException;
+    }
+
+
+    /**
+     * Compares all pairs of different graphs and passes all scores of each source graph to the consumer, without keeping them. Pairs with
+     * an undefined (NaN) score or a score of at least SCORE_TOO_LARGE are skipped. The sources are handled in parallel, but the consumer
+     * is called by one thread at a time, in no particular order of the sources. Each worker only needs arrays for the scores of one source.
+     * @param consumer receives the scores of each source
+     * @throws SQLException if the consumer failed, no more scores are passed to it then
+     */
+    public void computeAll(ScoreConsumer consumer) throws SQLException {
+        int n = vectors.length;
+        int numTiles = (n + TILE_SIZE - 1) / TILE_SIZE;
+        AtomicReference<SQLException> failure = new AtomicReference<>();
+
+        IntStream tiles = IntStream.range(0, numTiles);
+        if(numTiles > 1) {
+            tiles = tiles.parallel();
+        }
+        tiles.forEach(t -> {
+            int start = t * TILE_SIZE;
+            int end = Math.min(n, start + TILE_SIZE);
+            int[] targets = new int[n];
+            double[] scores = new double[n];
+            for(int s = start; s < end && failure.get() == null; s++) {
+                int count = 0;
+                for(int j = 0; j < n; j++) {
+                    if(j != s) {
+                        double score = score(s, j);
+                        if( ! Double.isNaN(score) && score < SCORE_TOO_LARGE) {
+                            targets[count] = j;
+                            scores[count] = score;
+                            count++;
+                        }
+                    }
+                }
+                try {
+                    synchronized(consumer) {
+                        if(failure.get() == null) {
+                            consumer.acceptScores(s, targets, scores, count);
+                        }
+                    }
+                } catch(SQLException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        });
+
+        if(failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+
+    /**
+     * Compares all pairs of different graphs and keeps the best k targets for each source graph. Pairs with an undefined (NaN) score or a score of at least SCORE_TOO_LARGE are skipped.
+     * The heaps of a tile hold TILE_SIZE * k entries, so k should be small compared to the number of graphs. Use computeAll() to get all scores.
+     * @param k the number of targets to keep per source, at most the number of graphs - 1 are kept
+     */
+    public void computeTopK(int k) {
+        if(k < 0) {
+            throw new IllegalArgumentException("Invalid number of targets to keep: " + k + ".");
+        }
+        int n = vectors.length;
+        int keep = Math.min(k, Math.max(0, n - 1));
+        int numTiles = (n + TILE_SIZE - 1) / TILE_SIZE;
+        topTargets = new int[n][];
+        topScores = new double[n][];
+
+        IntStream tiles = IntStream.range(0, numTiles);
+        if(numTiles > 1) {
+            tiles = tiles.parallel();
+        }
+        tiles.forEach(t -> {
+            int start = t * TILE_SIZE;
+            int end = Math.min(n, start + TILE_SIZE);
+            TopK[] best = new TopK[end - start];
+            for(int s = start; s < end; s++) {
+                best[s - start] = new TopK(keep, rgf);
+            }
+
+            for(int tStart = 0; tStart < n; tStart += TILE_SIZE) {
+                int tEnd = Math.min(n, tStart + TILE_SIZE);
+                for(int s = start; s < end; s++) {
+                    TopK heap = best[s - start];
+                    for(int j = tStart; j < tEnd; j++) {
+                        if(j != s) {
+                            double score = score(s, j);
+                            if( ! Double.isNaN(score) && score < SCORE_TOO_LARGE) {
+                                heap.offer(j, score);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for(int s = start; s < end; s++) {
+                best[s - start].drainInto(s, topTargets, topScores);
+            }
+        });
+    }
+
+
+    /**
+     * Returns the best targets of a source graph found by computeTopK(), the most similar first.
+     * @param source the index of the source graph
+     * @return the indices of the target graphs
+     */
+    public int[] getTopTargets(int source) {
+        return topTargets[source];
+    }
+
+
+    /**
+     * Returns the scores of the best targets of a source graph, in the order of getTopTargets().
+     * @param source the index of the source graph
+     * @return the scores
+     */
+    public double[] getTopScores(int source) {
+        return topScores[source];
+    }
+
+
+    /**
+     * A bounded heap which keeps the k best (target, score) pairs, with the worst of them at the root. On equal scores, the lower target index is better.
+     */
+    private static class TopK {
+
+        private final int[] targets;
+        private final double[] scores;
+        private final boolean lowerBetter;
+        private int size = 0;
+
+        TopK(int capacity, boolean lowerBetter) {
+            this.targets = new int[capacity];
+            this.scores = new double[capacity];
+            this.lowerBetter = lowerBetter;
+        }
+
+        /** Whether the entry (ta, sa) is worse than the entry (tb, sb). */
+        private boolean worse(int ta, double sa, int tb, double sb) {
+            if(sa != sb) {
+                return (lowerBetter ? sa > sb : sa < sb);
+            }
+            return ta > tb;
+        }
+
+        void offer(int target, double score) {
+            if(targets.length == 0) {
+                return;
+            }
+            if(size < targets.length) {
+                // sift up
+                int i = size++;
+                while(i > 0) {
+                    int parent = (i - 1) / 2;
+                    if( ! worse(target, score, targets[parent], scores[parent])) {
+                        break;
+                    }
+                    targets[i] = targets[parent];
+                    scores[i] = scores[parent];
+                    i = parent;
+                }
+                targets[i] = target;
+                scores[i] = score;
+            }
+            else if(worse(targets[0], scores[0], target, score)) {
+                siftDown(target, score, size);
+            }
+        }
+
+        /** Replaces the root by the given entry and restores the heap order within the first n entries. */
+        private void siftDown(int target, double score, int n) {
+            int i = 0;
+            while(true) {
+                int child = 2 * i + 1;
+                if(child >= n) {
+                    break;
+                }
+                if(child + 1 < n && worse(targets[child + 1], scores[child + 1], targets[child], scores[child])) {
+                    child++;
+                }
+                if( ! worse(targets[child], scores[child], target, score)) {
+                    break;
+                }
+                targets[i] = targets[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            targets[i] = target;
+            scores[i] = score;
+        }
+
+        /** Stores the entries sorted best first at index s of the result arrays. */
+        void drainInto(int s, int[][] resultTargets, double[][] resultScores) {
+            int[] t = new int[size];
+            double[] sc = new double[size];
+            for(int n = size; n > 0; n--) {
+                t[n - 1] = targets[0];
+                sc[n - 1] = scores[0];
+                siftDown(targets[n - 1], scores[n - 1], n - 1);
+            }
+            size = 0;
+            resultTargets[s] = t;
+            resultScores[s] = sc;
+        }
+    }
+}
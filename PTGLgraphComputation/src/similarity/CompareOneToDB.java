@@ -10,12 +10,20 @@ package similarity;
 import tools.DP;
 import algorithms.NeedlemanWunsch;
 import algorithms.SmithWaterman;
+import java.io.File;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import io.DBManager;
 import proteingraphs.ProtGraph;
-import proteingraphs.ProtGraphs;
+import proteingraphs.ProtGraphCache;
 import settings.Settings;
 
 /**
@@ -24,6 +32,24 @@ import settings.Settings;
  */
 public class CompareOneToDB {
     
+    /** The number of graphs read from the database and compared in parallel at once. */
+    private static final int COMPARISON_BATCH_SIZE = 256;
+    
+    /** The graphs parsed from graph strings of the database, shared by all comparisons of this run. Created on first use, see getParsedGraphCache(). */
+    private static ProtGraphCache parsedGraphs = null;
+    
+    
+    /**
+     * Returns the cache of parsed graphs. It is created on first use, so its size is taken from the settings which are loaded by then.
+     * @return the cache
+     */
+    private static synchronized ProtGraphCache getParsedGraphCache() {
+        if(parsedGraphs == null) {
+            parsedGraphs = new ProtGraphCache(Settings.getInteger("PTGLgraphComputation_I_search_similar_graph_cache_size"));
+        }
+        return parsedGraphs;
+    }
+    
     
     /**
      * Returns the maxNumberOfResults most similar to a given SSEString. This is just a string-based dummy method, it does not use
@@ -37,69 +63,33 @@ public class CompareOneToDB {
     private static ArrayList<ComparisonResult> getMostSimilarToSSEString(String sseString, Integer maxNumberOfResults, String graphType, Boolean global) {
         
         String methodName = Similarity.SIMILARITYMETHOD_STRINGSSE;
+        ScoringMatrix sm = new ScoringMatrix(ScoringMatrix.ALPHABET_SSE, ScoringMatrix.MATRIX_SSE, ScoringMatrix.GAP_PENALTY_SSE);
         
-        //if(maxNumberOfResults != 1) {
-        //    DP.getInstance().w("getMostSimilarToSSEString: parameter maxNumberOfResults not implemented yet and fixed at 1, returning only best score.");
-        //}
-        
-        ArrayList<ComparisonResult> results = new ArrayList<ComparisonResult>();        
-        ArrayList<String[]> sseStrings  = new ArrayList<String[]>();
-        
-        try {
-            sseStrings = DBManager.getAllGraphData(graphType);
-        } catch(Exception e) {
-            DP.getInstance().w("CompareOneToDB: SQL error while getting all SSEStrings: '" + e.getMessage() + "'.");
-        }
-        
-        System.out.println("Comparing given protein graph to " + sseStrings.size() + " of the protein graphs in the database.");
+        System.out.println("Comparing given SSE string to the protein graphs in the database.");
         
-        ScoringMatrix sm = new ScoringMatrix(ScoringMatrix.ALPHABET_SSE, ScoringMatrix.MATRIX_SSE, ScoringMatrix.GAP_PENALTY_SSE);
-        SmithWaterman sw;
-        NeedlemanWunsch nw;
-        String pdbidDB, chainidDB, graphTypeDB, sseStringDB;
-        Integer score;
-               
-        for(String[] sseData : sseStrings) {
-            pdbidDB = sseData[0];
-            chainidDB = sseData[1];
-            graphTypeDB = sseData[2];
-            sseStringDB = sseData[3];
+        return compareToAllGraphsInDB(graphType, maxNumberOfResults, (sseData, report) -> {
+            String sseStringDB = sseData[3];
+            if(sseStringDB == null) {
+                return null;
+            }
             
+            Integer score;
             if(global) {
-                nw = new NeedlemanWunsch(sseString, sseStringDB);
+                NeedlemanWunsch nw = new NeedlemanWunsch(sseString, sseStringDB);
                 nw.setScoringScheme(sm);                
                 score = nw.computeAlignmentScore();
             } else {
-                sw = new SmithWaterman(sseString, sseStringDB);
+                SmithWaterman sw = new SmithWaterman(sseString, sseStringDB);
                 sw.setScoringScheme(sm);                
                 score = sw.computeAlignmentScore();
             }
             
             ComparisonResult cr = new ComparisonResult(methodName, score);
-            cr.setTarget(pdbidDB, chainidDB, graphTypeDB);
+            cr.setTarget(sseData[0], sseData[1], sseData[2]);
             cr.setPropertySource(sseString);
             cr.setPropertyTarget(sseStringDB);
-                
-            
-            results.add(cr);
-            Collections.sort(results, new ComparisonResultComparator());
-            
-            // make sure the list size does never exceed maxNumberOfResults
-            if(results.size() > maxNumberOfResults) {
-                // just add every result until the maximim number is reached
-                Integer overhead = results.size() - maxNumberOfResults;
-                for(Integer i = 0; i < overhead; i++) {
-                    // always remove the first element, i.e., the one with the lowest score
-                    // This will not break the ordering of the rest, so no need to re-order
-                    results.remove(0);  
-                }
-            }
-            
-                        
-        }
-        
-        
-        return(results);
+            return cr;
+        });
     }
     
     
@@ -165,6 +155,91 @@ public class CompareOneToDB {
         System.out.println("Similarity search for PDB ID '" + Settings.get("PTGLgraphComputation_B_search_similar_PDBID") + "' chain '" + Settings.get("PTGLgraphComputation_B_search_similar_chainID") + "' graph type '" + Settings.get("PTGLgraphComputation_S_search_similar_graphtype") + "' complete (" + res.size() + " results), exiting.");        
     }
     
+    
+    /**
+     * Finds the graphs with the most similar graphlet counts using the graphlet index, and prints results to STDOUT.
+     */
+    public static void performGraphletComparison() {
+        String pdbid = Settings.get("PTGLgraphComputation_S_search_similar_PDBID");
+        String chainid = Settings.get("PTGLgraphComputation_S_search_similar_chainID");
+        String graphType = Settings.get("PTGLgraphComputation_S_search_similar_graphtype");
+        
+        GraphletIndex index = CompareOneToDB.getGraphletIndex(graphType);
+        if(index == null) {
+            DP.getInstance().w("Could not get graphlet index, no similarity results.");
+            return;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        List<GraphletIndex.Match> res;
+        int queryIndex = index.indexOfLabel(pdbid + chainid);
+        if(queryIndex >= 0) {
+            res = index.findNearestTo(queryIndex, Settings.getInteger("PTGLgraphComputation_I_search_similar_num_results"));
+        }
+        else {
+            // the graphlets were added to the database after the index was built
+            Double[] graphlets = null;
+            try {
+                graphlets = DBManager.getNormalizedProteinGraphGraphletCounts(pdbid, chainid, graphType);
+            } catch(SQLException e) {
+                System.err.println("ERROR: SQL: Could not get graphlets from DB: '" + e.getMessage() + "'.");
+            }
+            if(graphlets == null || graphlets.length != index.getNumGraphlets()) {
+                DP.getInstance().w("No graphlets found for pattern graph, no similarity results.");
+                return;
+            }
+            double[] query = new double[graphlets.length];
+            for(int i = 0; i < graphlets.length; i++) {
+                query[i] = graphlets[i];
+            }
+            res = index.findNearest(query, Settings.getInteger("PTGLgraphComputation_I_search_similar_num_results"), -1L);
+        }
+        
+        if(res.size() > 0) {
+            for(GraphletIndex.Match match : res) {
+                System.out.println("  sim(" + index.getLabel(match.getIndex()) + "-" + graphType + ") via "  + Similarity.SIMILARITYMETHOD_GRAPHLET_RELGRAPHLETFREQ + ": "  + match.getDistance());
+            }
+        } else {
+            DP.getInstance().w("Received no similarity results -- is the database empty?");
+        }
+        System.out.println("Similarity search for PDB ID '" + pdbid + "' chain '" + chainid + "' graph type '" + graphType + "' complete (" + res.size() + " results in " + (System.currentTimeMillis() - startTime) + " ms), exiting.");
+    }
+    
+    
+    /**
+     * Loads the graphlet index from the file configured in the settings. If the file does not exist, does not fit the current settings or a rebuild is requested,
+     * the index is built from the graphlets in the database and written to the file.
+     * @param graphType the graph type
+     * @return the index, or null if it could neither be read nor built
+     */
+    public static GraphletIndex getGraphletIndex(String graphType) {
+        String indexFile = Settings.get("PTGLgraphComputation_S_search_similar_graphlet_index_file");
+        int graphletStartIndex = Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_start_graphlet_index");
+        int numToConsider = Settings.getInteger("PTGLgraphComputation_I_compute_all_graphlet_similarities_end_graphlet_index") - graphletStartIndex + 1;
+        
+        if( ! Settings.getBoolean("PTGLgraphComputation_B_search_similar_graphlet_index_rebuild") && new File(indexFile).canRead()) {
+            GraphletIndex index = GraphletIndex.fromFile(indexFile);
+            // an empty index does not know its number of graphlets, but it is cheap to rebuild
+            if(index != null && index.getGraphType().equals(graphType) && index.size() > 0 && index.getNumGraphlets() == numToConsider && index.getGraphletStartIndex() == graphletStartIndex) {
+                System.out.println("Loaded graphlet index of " + index.size() + " " + graphType + " graphs from file '" + indexFile + "'.");
+                return index;
+            }
+            System.out.println("Graphlet index in file '" + indexFile + "' does not fit the settings, rebuilding it.");
+        }
+        
+        List<Long> graphIDs = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<double[]> graphlets = new ArrayList<>();
+        if( ! DBManager.getAllNormalizedProteinGraphGraphletCounts(graphType, graphIDs, labels, graphlets)) {
+            return null;
+        }
+        GraphletIndex index = new GraphletIndex(graphType, graphletStartIndex, graphIDs, labels, graphlets);
+        if(index.toFile(indexFile)) {
+            System.out.println("Built graphlet index of " + index.size() + " " + graphType + " graphs and wrote it to file '" + indexFile + "'.");
+        }
+        return index;
+    }
+    
 
     
     /**
@@ -179,90 +254,40 @@ public class CompareOneToDB {
         System.out.println("Retrieving " + g_graphtype + " graph for PDB entry " + g_pdbid + " chain " + g_chainid + " from DB.");
         
         String graphString = null;
-        ArrayList<ComparisonResult> results = new ArrayList<ComparisonResult>();
         
         // get the graph string of the pattern graph
         try { 
-            graphString = DBManager.getGraphStringGML(g_pdbid, g_chainid, g_graphtype); 
+            graphString = DBManager.getGraphStringPLCC(g_pdbid, g_chainid, g_graphtype); 
         } catch (SQLException e) { 
             System.err.println("ERROR: SQL: Could not get graph from DB: '" + e.getMessage() + "'."); 
-            return(results);            
+            return(new ArrayList<ComparisonResult>());            
         }
         
-        if(graphString == null) {
-            DP.getInstance().w("DB: getMostSimilarByGraphSetBased: Pattern graph not found in database.");
-            return(results);
+        ProtGraph pg = getParsedGraphCache().get(g_pdbid + "-" + g_chainid + "-" + g_graphtype, graphString);
+        if(pg == null) {
+            DP.getInstance().w("DB: getMostSimilarByCompatibilityGraph: Pattern graph not found in database.");
+            return(new ArrayList<ComparisonResult>());
         }
         
-        ProtGraph pg = ProtGraphs.fromPlccGraphFormatString(graphString);
-        
         String methodName = Similarity.SIMILARITYMETHOD_GRAPHCOMPAT;
+        final String patternGraphString = graphString;
         
+        System.out.println("Comparing given protein graph to the protein graphs in the database.");
         
-        ArrayList<String[]> graphData  = new ArrayList<String[]>();
-        
-        try {
-            graphData = DBManager.getAllGraphData(g_graphtype);
-        } catch(Exception e) {
-            DP.getInstance().w("CompareOneToDB: SQL error while getting all SSEStrings: '" + e.getMessage() + "'.");
-        }
-        
-        System.out.println("Comparing given protein graph to " + graphData.size() + " of the protein graphs in the database.");
-        
-        String pdbidDB, chainidDB, graphTypeDB, sseStringDB, graphStringDB;
-        Integer score;
-        ProtGraph pgDB;    
-        
-        // iterate thtough all graphs in the DB and compare our template graph with all of them
-        for(String[] sseData : graphData) {
-            pdbidDB = sseData[0];
-            chainidDB = sseData[1];
-            graphTypeDB = sseData[2];
-            sseStringDB = sseData[3];
-            graphStringDB = sseData[4];
-            
-            
-            
-            try {
-                pgDB = ProtGraphs.fromPlccGraphFormatString(graphStringDB);
-            } catch(Exception e) {
-                DP.getInstance().w("Could not create protein graph from graph string of " + pdbidDB + " chain " + chainidDB + " gt " + graphTypeDB + ": '" + e.getLocalizedMessage() + "'.");
-                continue;
+        // compare our template graph with all graphs in the DB
+        return compareToAllGraphsInDB(g_graphtype, maxNumberOfResults, (graphData, report) -> {
+            ProtGraph pgDB = getParsedGraph(graphData);
+            if(pgDB == null) {
+                return null;
             }
-                                    
-            
             
             GraphSimilarity simSSE = new GraphSimilarity(pg, pgDB);
-            score = simSSE.compareByCompatibilityGraph();
-            
-            ComparisonResult cr = new ComparisonResult(methodName, score);
-            cr.setTarget(pdbidDB, chainidDB, graphTypeDB);
-            cr.setPropertySource(graphString);
-            cr.setPropertyTarget(graphStringDB);
-                
-            
-            results.add(cr);
-            Collections.sort(results, new ComparisonResultComparator());
-            
-            // make sure the list size does never exceed maxNumberOfResults
-            if(results.size() > maxNumberOfResults) {
-                // just add every result until the maximim number is reached
-                Integer overhead = results.size() - maxNumberOfResults;
-                for(Integer i = 0; i < overhead; i++) {
-                    // always remove the first element, i.e., the one with the lowest score
-                    // This will not break the ordering of the rest, so no need to re-order
-                    results.remove(0);  
-                }
-            }
-            
-                        
-        }
-        
-        
-        
-        
-        
-        return(results);
+            ComparisonResult cr = new ComparisonResult(methodName, simSSE.compareByCompatibilityGraph(report));
+            cr.setTarget(graphData[0], graphData[1], graphData[2]);
+            cr.setPropertySource(patternGraphString);
+            cr.setPropertyTarget(graphData[4]);
+            return cr;
+        });
     }
     
     
@@ -281,91 +306,113 @@ public class CompareOneToDB {
         System.out.println("Retrieving " + g_graphtype + " graph for PDB entry " + g_pdbid + " chain " + g_chainid + " from DB.");
         
         String graphString = null;
-        ArrayList<ComparisonResult> results = new ArrayList<ComparisonResult>();
         
-        // get the grapg of the pattern graph
+        // get the graph of the pattern graph
         try { 
-            graphString = DBManager.getGraphStringGML(g_pdbid, g_chainid, g_graphtype); 
+            graphString = DBManager.getGraphStringPLCC(g_pdbid, g_chainid, g_graphtype); 
         } catch (SQLException e) { 
             System.err.println("ERROR: SQL: Could not get graph from DB: '" + e.getMessage() + "'."); 
-            return(results);            
+            return(new ArrayList<ComparisonResult>());            
         }
         
-        if(graphString == null) {
+        ProtGraph pg = getParsedGraphCache().get(g_pdbid + "-" + g_chainid + "-" + g_graphtype, graphString);
+        if(pg == null) {
             DP.getInstance().w("DB: getMostSimilarByGraphSetBased: Pattern graph not found in database.");
-            return(results);
+            return(new ArrayList<ComparisonResult>());
         }
         
-        ProtGraph pg = ProtGraphs.fromPlccGraphFormatString(graphString);
-        //System.out.println("  Loaded graph with " + pg.numVertices() + " vertices and " + pg.numEdges() + " edges.");
-        
         // now get all the other graphs and compare them to the pattern graph
         
         String methodName = Similarity.SIMILARITYMETHOD_GRAPHSET;
+        final String patternGraphString = graphString;
         
-        //if(maxNumberOfResults != 1) {
-        //    DP.getInstance().w("getMostSimilarToSSEString: parameter maxNumberOfResults not implemented yet and fixed at 1, returning only best score.");
-        //}
-        
-        ArrayList<String[]> graphData  = new ArrayList<String[]>();
-        
-        try {
-            graphData = DBManager.getAllGraphData(g_graphtype);
-        } catch(Exception e) {
-            DP.getInstance().w("CompareOneToDB: SQL error while getting all SSEStrings: '" + e.getMessage() + "'.");
-        }
-        
-        System.out.println("Comparing given protein graph to " + graphData.size() + " of the protein graphs in the database.");
+        System.out.println("Comparing given protein graph to the protein graphs in the database.");
         
-        String pdbidDB, chainidDB, graphTypeDB, sseStringDB, graphStringDB;
-        Integer score;
-        ProtGraph pgDB;    
-        
-        for(String[] sseData : graphData) {
-            pdbidDB = sseData[0];
-            chainidDB = sseData[1];
-            graphTypeDB = sseData[2];
-            sseStringDB = sseData[3];
-            graphStringDB = sseData[4];
-            
-            
-            
-            try {
-                pgDB = ProtGraphs.fromPlccGraphFormatString(graphStringDB);
-            } catch(Exception e) {
-                DP.getInstance().w("Could not create protein graph from graph string of " + pdbidDB + " chain " + chainidDB + " gt " + graphTypeDB + ".");
-                continue;
+        return compareToAllGraphsInDB(g_graphtype, maxNumberOfResults, (graphData, report) -> {
+            ProtGraph pgDB = getParsedGraph(graphData);
+            if(pgDB == null) {
+                return null;
             }
             
             GraphSimilarity simSSE = new GraphSimilarity(pg, pgDB);
-            score = simSSE.compareGraphsSetBased();
-            
-            ComparisonResult cr = new ComparisonResult(methodName, score);
-            cr.setTarget(pdbidDB, chainidDB, graphTypeDB);
-            cr.setPropertySource(graphString);
-            cr.setPropertyTarget(graphStringDB);
-                
-            
-            results.add(cr);
-            Collections.sort(results, new ComparisonResultComparator());
-            
-            // make sure the list size does never exceed maxNumberOfResults
-            if(results.size() > maxNumberOfResults) {
-                // just add every result until the maximim number is reached
-                Integer overhead = results.size() - maxNumberOfResults;
-                for(Integer i = 0; i < overhead; i++) {
-                    // always remove the first element, i.e., the one with the lowest score
-                    // This will not break the ordering of the rest, so no need to re-order
-                    results.remove(0);  
+            ComparisonResult cr = new ComparisonResult(methodName, simSSE.compareGraphsSetBased());
+            cr.setTarget(graphData[0], graphData[1], graphData[2]);
+            cr.setPropertySource(patternGraphString);
+            cr.setPropertyTarget(graphData[4]);
+            return cr;
+        });
+    }
+    
+    
+    /**
+     * Compares something to all protein graphs of a graph type in the database and keeps the best results. The graphs are read with a cursor
+     * (see DBManager.forEachGraphData()) in batches of COMPARISON_BATCH_SIZE, the graphs of each batch are compared in parallel, and only the
+     * maxNumberOfResults results with the highest scores are kept in a priority queue. Each comparison writes its output to its own report,
+     * and the reports of a batch are printed in the order of the graphs once the batch is done, so the output of parallel comparisons does not interleave.
+     * @param graphType the graph type
+     * @param maxNumberOfResults the number of results to keep
+     * @param comparison computes the result for the data of a graph, see DBManager.forEachGraphData() for the fields, and may append output to the
+     * report it gets. May return null to skip the graph.
+     * @return the best results, sorted by ascending score (so the most similar graph comes last)
+     */
+    private static ArrayList<ComparisonResult> compareToAllGraphsInDB(String graphType, Integer maxNumberOfResults, BiFunction<String[], StringBuilder, ComparisonResult> comparison) {
+        ComparisonResultComparator byScore = new ComparisonResultComparator();
+        PriorityQueue<ComparisonResult> best = new PriorityQueue<>(byScore);      // the lowest score of the kept results is at the head
+        List<String[]> batch = new ArrayList<>(COMPARISON_BATCH_SIZE);
+        int[] numCompared = new int[]{ 0 };
+        
+        Consumer<List<String[]>> compareBatch = rows -> {
+            List<StringBuilder> reports = new ArrayList<>(rows.size());
+            for(int i = 0; i < rows.size(); i++) {
+                reports.add(new StringBuilder());
+            }
+            List<ComparisonResult> batchResults = IntStream.range(0, rows.size()).parallel().mapToObj(i -> comparison.apply(rows.get(i), reports.get(i))).filter(Objects::nonNull).collect(Collectors.toList());
+            for(StringBuilder report : reports) {
+                if(report.length() > 0) {
+                    System.out.print(report);
                 }
             }
-            
-                        
-        }
+            numCompared[0] += rows.size();
+            for(ComparisonResult cr : batchResults) {
+                best.add(cr);
+                if(best.size() > maxNumberOfResults) {
+                    best.poll();
+                }
+            }
+        };
         
+        Boolean ok = DBManager.forEachGraphData(graphType, COMPARISON_BATCH_SIZE, row -> {
+            batch.add(row);
+            if(batch.size() >= COMPARISON_BATCH_SIZE) {
+                compareBatch.accept(batch);
+                batch.clear();
+            }
+        });
+        compareBatch.accept(batch);
+        if( ! ok) {
+            DP.getInstance().w("CompareOneToDB: SQL error while reading the graphs, results are incomplete.");
+        }
         
+        System.out.println("Compared to " + numCompared[0] + " of the protein graphs in the database (" + getParsedGraphCache().getHits() + " graphs from cache, " + getParsedGraphCache().getMisses() + " parsed).");
         
+        ArrayList<ComparisonResult> results = new ArrayList<>(best);
+        Collections.sort(results, byScore);
         return(results);
     }
     
+    
+    /**
+     * Returns the parsed graph for a row of DBManager.forEachGraphData(), from the cache if possible.
+     * @param graphData the row
+     * @return the graph, or null if the graph string could not be parsed
+     */
+    private static ProtGraph getParsedGraph(String[] graphData) {
+        try {
+            return getParsedGraphCache().get(graphData[0] + "-" + graphData[1] + "-" + graphData[2], graphData[4]);
+        } catch(Exception e) {
+            DP.getInstance().w("Could not create protein graph from graph string of " + graphData[0] + " chain " + graphData[1] + " gt " + graphData[2] + ": '" + e.getLocalizedMessage() + "'.");
+            return null;
+        }
+    }
+    
 }
@@ -9,11 +9,12 @@
 package similarity;
 
 import tools.DP;
+import algorithms.CliqueFinder;
 import algorithms.CompatGraphComputation;
 import algorithms.NeedlemanWunsch;
 import algorithms.SmithWaterman;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import proteingraphs.CompatGraph;
 import io.DBManager;
@@ -114,8 +115,22 @@ public class GraphSimilarity {
      * @return a score based on the size of the compatibility graph, larger values mean closer similarity
      */
     public Integer compareByCompatibilityGraph() {
+        StringBuilder report = new StringBuilder();
+        Integer score = compareByCompatibilityGraph(report);
+        System.out.print(report);
+        return(score);
+    }
+    
+    
+    /**
+     * Compares the graphs g1 and g2 by computing their compatibility graph, see compareByCompatibilityGraph(). Instead of printing
+     * the clique information, it is appended to the report, so comparisons can run in parallel and their output can be printed in order later.
+     * @param report the output is appended to this
+     * @return a score based on the size of the compatibility graph, larger values mean closer similarity
+     */
+    public Integer compareByCompatibilityGraph(StringBuilder report) {
         CompatGraphComputation cgc = new CompatGraphComputation(this.graphA, this.graphB);
-        CompatGraph cg = cgc.computeEdgeCompatibiltyGraph();
+        CompatGraph cg = cgc.computeEdgeCompatibiltyGraph(report);
         //System.out.println("Compatibility graph(V=" + cg.numVertices() + ", E=" + cg.getNumEdges() + ") for " + graphA.toShortString() + " and " + graphB.toShortString() + ": \n" + cg + "\n");        
         
         // TODO: Come up with a good score that takes the graph sizes of g1 and g2 into account instead
@@ -130,45 +145,40 @@ public class GraphSimilarity {
         Boolean findCliques = true;
         if(findCliques) {
             Integer minCliqueSize = 1;      // the vertices of cliques smaller than this number will not be printed
-            System.out.println("  Detecting cliques in compatibility graph, transforming compatibilty graph to protein graph...");
-            //try {
-                //System.out.println("   Trying to create ProtGraph...");
-                ProtGraph pg = cg.toFakeSSEGraph();
-                if(pg == null) {
-                    System.out.println("WARNING: GraphSimilarity.compareByCompatibilityGraph(): ProtGraph is NULL.");
-                } else {                
-                    //System.out.println("   Created ProtGraph.");
-                    System.out.println("   ProtGraph for clique detection is: " + pg.toShortString() + ".");
+            report.append("  Detecting cliques in compatibility graph, transforming compatibilty graph to protein graph...\n");
+            ProtGraph pg = cg.toFakeSSEGraph();
+            if(pg == null) {
+                report.append("WARNING: GraphSimilarity.compareByCompatibilityGraph(): ProtGraph is NULL.\n");
+            } else {
+                report.append("   ProtGraph for clique detection is: ").append(pg.toShortString()).append(".\n");
+
+                CliqueFinder finder = new CliqueFinder(pg);
+                finder.setTimeLimitMillis(Settings.getInteger("PTGLgraphComputation_I_search_similar_clique_time_limit_ms"));
+                List<Set<Integer>> cliques = finder.findMaximalCliques();
+                report.append("  Found ").append(cliques.size()).append(" cliques").append(finder.isBudgetExceeded() ? " (time limit reached, search incomplete)" : "").append(":\n");
+
+                Integer num = 0;
+                for(Set<Integer> clique : cliques) {
+
+                    // print clique info
+                    report.append("   Clique #").append(num).append(" of size ").append(clique.size());
+
+                    // print the vertex indices of the clique
+                    if(clique.size() >= minCliqueSize) {
+                        report.append(" [");
+                        for(Integer i : clique) {
+                            report.append(" ").append(i);
+                        }
+                        report.append(" ]\n");
+                    }
+                    num++;
                 }
-                //try {
-                    ArrayList<Set<Integer>> cliques = pg.getMaximalCliques();
-                    System.out.println("  Found " + cliques.size() + " cliques:");
-                    
-                    Integer num = 0;
-                    for(Set<Integer> clique : cliques) {
-                        
-                        // print clique info
-                        System.out.print("   Clique #" + num + " of size " + clique.size());
-                        
-                        // print the vertex indices of the clique
-                        if(clique.size() >= minCliqueSize) {
-                            System.out.print(" [");
-                            for(Integer i : clique) {
-                                System.out.print(" " + i);
-                            }
-                            System.out.print(" ]\n");                                                    
-                        }                                                
-                        num++;
-                    }                    
-                    
-                //} catch (Exception ex) {
-                //    DP.getInstance().w("Clique detection failed: '" + ex.getMessage() + "'.");
-                //}
-            //} catch (Exception e) {
-            //    DP.getInstance().w("Could not start clique detection, could not create SSEGraph: '" + e.getMessage() + "'.");
-            //}                                                
-        }        
-        
+
+                Set<Integer> maxClique = finder.findMaximumClique();
+                report.append("  Maximum clique has size ").append(maxClique.size()).append(finder.isBudgetExceeded() ? " (time limit reached, may not be maximum)" : "").append(".\n");
+            }
+        }
+
         return(cg.numVertices() + cg.getNumEdges());
     }
     
@@ -0,0 +1,526 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package similarity;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An index over the graphlet counts of many graphs which finds the k graphs with the lowest relative graphlet frequency distance
+ * (see SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized()) to a query quickly, without comparing the query to all graphs.
+ *
+ * The graphs are arranged in a vantage point tree: each node picks a vantage point and splits its other graphs into those closer to it
+ * than the median distance and the rest. The relative graphlet frequency distance skips graphlets which do not occur in one of the
+ * graphs, so it does not satisfy the triangle inequality. Instead of the usual metric pruning, each node stores the range of the
+ * graphlet terms of all graphs below it, which gives a lower bound of the distance from the query to any of them. The search visits
+ * the subtrees by ascending lower bound and skips those whose bound is not better than the k-th best distance found so far, so the
+ * results are exact.
+ *
+ * Build it from the database with DBManager.getAllNormalizedProteinGraphGraphletCounts(), save it with toFile() and load it with fromFile().
+ */
+public class GraphletIndex implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /** Nodes with at most this many graphs are not split any further. */
+    private static final int LEAF_SIZE = 16;
+
+    private final String graphType;
+    private final int graphletStartIndex;
+    private final long[] graphIDs;
+    private final String[] labels;
+    private final int dims;
+    private final double[] terms;          // the RGF terms of graph i at i * dims to (i + 1) * dims - 1
+
+    // the tree: node k holds the graphs perm[nodeStart[k]] to perm[nodeEnd[k] - 1]. An inner node uses the first of them as vantage point,
+    // the others are in its children.
+    private final int[] perm;
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    private final int[] nodeInside;        // -1 for leaves
+    private final int[] nodeOutside;
+    private final double[] boxMin;         // the range of the finite terms of all graphs of node k, at k * dims to (k + 1) * dims - 1
+    private final double[] boxMax;
+    private final boolean[] boxUnbounded;  // whether a graph of the node has an infinite (or undefined) term for a graphlet
+
+
+    /**
+     * Builds the index.
+     * @param graphType the graph type of the graphs, for information only
+     * @param graphletStartIndex the index of the first graphlet of the vectors in the graphlet counts of the database, see getGraphletStartIndex()
+     * @param graphIDs the database IDs of the graphs
+     * @param labels the labels of the graphs, e.g., PDB ID and chain name
+     * @param graphletCounts the normalized graphlet counts of each graph, all of the same length
+     */
+    public GraphletIndex(String graphType, int graphletStartIndex, List<Long> graphIDs, List<String> labels, List<double[]> graphletCounts) {
+        int n = graphletCounts.size();
+        this.graphType = graphType;
+        this.graphletStartIndex = graphletStartIndex;
+        this.graphIDs = new long[n];
+        this.labels = labels.toArray(new String[n]);
+        this.dims = (n > 0 ? graphletCounts.get(0).length : 0);
+        this.terms = new double[n * dims];
+        for(int i = 0; i < n; i++) {
+            this.graphIDs[i] = graphIDs.get(i);
+            System.arraycopy(SimilarityByGraphlets.getRelativeGraphletFrequencyTerms(graphletCounts.get(i)), 0, terms, i * dims, dims);
+        }
+
+        this.perm = new int[n];
+        for(int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        int maxNodes = Math.max(1, 2 * (n / LEAF_SIZE + 1) + n);
+        int[] start = new int[maxNodes];
+        int[] end = new int[maxNodes];
+        int[] inside = new int[maxNodes];
+        int[] outside = new int[maxNodes];
+        int numNodes = build(0, n, start, end, inside, outside, new int[]{ 0 }, new Random(42L), new double[n]);
+
+        this.nodeStart = Arrays.copyOf(start, numNodes);
+        this.nodeEnd = Arrays.copyOf(end, numNodes);
+        this.nodeInside = Arrays.copyOf(inside, numNodes);
+        this.nodeOutside = Arrays.copyOf(outside, numNodes);
+        this.boxMin = new double[numNodes * dims];
+        this.boxMax = new double[numNodes * dims];
+        this.boxUnbounded = new boolean[numNodes * dims];
+        for(int k = 0; k < numNodes; k++) {
+            computeBox(k);
+        }
+    }
+
+
+    /**
+     * Builds the subtree for perm[from] to perm[to - 1].
+     * @return the number of nodes used so far
+     */
+    private int build(int from, int to, int[] start, int[] end, int[] inside, int[] outside, int[] numNodes, Random rand, double[] dist) {
+        int k = numNodes[0]++;
+        start[k] = from;
+        end[k] = to;
+        inside[k] = -1;
+        outside[k] = -1;
+        if(to - from <= LEAF_SIZE) {
+            return numNodes[0];
+        }
+
+        // a random vantage point, moved to the front
+        swap(from, from + rand.nextInt(to - from));
+        int vp = perm[from];
+        for(int i = from + 1; i < to; i++) {
+            double d = distance(vp, perm[i]);
+            dist[perm[i]] = (Double.isNaN(d) ? Double.POSITIVE_INFINITY : d);
+        }
+
+        // split the others at the median distance
+        int mid = (from + 1 + to) / 2;
+        select(from + 1, to - 1, mid, dist);
+
+        inside[k] = numNodes[0];
+        build(from + 1, mid, start, end, inside, outside, numNodes, rand, dist);
+        outside[k] = numNodes[0];
+        build(mid, to, start, end, inside, outside, numNodes, rand, dist);
+        return numNodes[0];
+    }
+
+
+    /**
+     * Rearranges perm[lo] to perm[hi] so that the graph with the n-th smallest distance is at position n, with smaller ones before it (quickselect).
+     */
+    private void select(int lo, int hi, int n, double[] dist) {
+        while(lo < hi) {
+            double pivot = dist[perm[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while(i <= j) {
+                while(dist[perm[i]] < pivot) {
+                    i++;
+                }
+                while(dist[perm[j]] > pivot) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if(n <= j) {
+                hi = j;
+            }
+            else if(n >= i) {
+                lo = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+
+    private void swap(int i, int j) {
+        int tmp = perm[i];
+        perm[i] = perm[j];
+        perm[j] = tmp;
+    }
+
+
+    /**
+     * Computes the range of the terms of all graphs of node k.
+     */
+    private void computeBox(int k) {
+        int base = k * dims;
+        Arrays.fill(boxMin, base, base + dims, Double.POSITIVE_INFINITY);
+        Arrays.fill(boxMax, base, base + dims, Double.NEGATIVE_INFINITY);
+        for(int p = nodeStart[k]; p < nodeEnd[k]; p++) {
+            int g = perm[p] * dims;
+            for(int j = 0; j < dims; j++) {
+                double t = terms[g + j];
+                if(Double.isInfinite(t) || Double.isNaN(t)) {
+                    boxUnbounded[base + j] = true;
+                }
+                else {
+                    boxMin[base + j] = Math.min(boxMin[base + j], t);
+                    boxMax[base + j] = Math.max(boxMax[base + j], t);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * The relative graphlet frequency distance between two graphs of the index.
+     */
+    private double distance(int a, int b) {
+        double res = 0.0;
+        int ia = a * dims;
+        int ib = b * dims;
+        for(int j = 0; j < dims; j++) {
+            if(Double.isInfinite(terms[ia + j]) || Double.isInfinite(terms[ib + j])) {
+                continue;
+            }
+            res += Math.abs(terms[ia + j] - terms[ib + j]);
+        }
+        return res;
+    }
+
+
+    /**
+     * The relative graphlet frequency distance between the query terms and a graph of the index.
+     */
+    private double distance(double[] q, int b) {
+        double res = 0.0;
+        int ib = b * dims;
+        for(int j = 0; j < dims; j++) {
+            if(Double.isInfinite(q[j]) || Double.isInfinite(terms[ib + j])) {
+                continue;
+            }
+            res += Math.abs(q[j] - terms[ib + j]);
+        }
+        return res;
+    }
+
+
+    /**
+     * A lower bound of the distance from the query terms to all graphs of node k.
+     */
+    private double lowerBound(double[] q, int k) {
+        double res = 0.0;
+        int base = k * dims;
+        for(int j = 0; j < dims; j++) {
+            if(boxUnbounded[base + j] || Double.isInfinite(q[j]) || Double.isNaN(q[j])) {
+                continue;
+            }
+            if(q[j] < boxMin[base + j]) {
+                res += boxMin[base + j] - q[j];
+            }
+            else if(q[j] > boxMax[base + j]) {
+                res += q[j] - boxMax[base + j];
+            }
+        }
+        return res;
+    }
+
+
+    /**
+     * Finds the k graphs with the lowest relative graphlet frequency distance to the query.
+     * @param graphletCounts the normalized graphlet counts of the query graph, of the same length as those of the index
+     * @param k the number of graphs to find
+     * @param excludeGraphID the database ID of a graph which is not reported, e.g., the query graph itself. Use a negative value to report all graphs.
+     * @return the matches, most similar first
+     */
+    public List<Match> findNearest(double[] graphletCounts, int k, long excludeGraphID) {
+        if(graphletCounts.length != dims) {
+            throw new IllegalArgumentException("Query has " + graphletCounts.length + " graphlets, index has " + dims + ".");
+        }
+        return findNearestByTerms(SimilarityByGraphlets.getRelativeGraphletFrequencyTerms(graphletCounts), k, excludeGraphID);
+    }
+
+
+    /**
+     * Finds the k graphs with the lowest relative graphlet frequency distance to a graph of the index, other than the graph itself.
+     * @param i the index of the query graph, see indexOfLabel()
+     * @param k the number of graphs to find
+     * @return the matches, most similar first
+     */
+    public List<Match> findNearestTo(int i, int k) {
+        return findNearestByTerms(Arrays.copyOfRange(terms, i * dims, (i + 1) * dims), k, graphIDs[i]);
+    }
+
+
+    private List<Match> findNearestByTerms(double[] q, int k, long excludeGraphID) {
+        Neighbors best = new Neighbors(k);
+        if(nodeStart.length > 0 && k > 0) {
+            search(q, 0, best, excludeGraphID);
+        }
+        return best.toSortedMatches();
+    }
+
+
+    private void search(double[] q, int k, Neighbors best, long excludeGraphID) {
+        if(nodeInside[k] < 0) {
+            for(int p = nodeStart[k]; p < nodeEnd[k]; p++) {
+                offer(q, perm[p], best, excludeGraphID);
+            }
+            return;
+        }
+
+        offer(q, perm[nodeStart[k]], best, excludeGraphID);
+        int first = nodeInside[k];
+        int second = nodeOutside[k];
+        double lbFirst = lowerBound(q, first);
+        double lbSecond = lowerBound(q, second);
+        if(lbSecond < lbFirst) {
+            int tmp = first;
+            first = second;
+            second = tmp;
+            double tmpLb = lbFirst;
+            lbFirst = lbSecond;
+            lbSecond = tmpLb;
+        }
+        if(best.accepts(lbFirst)) {
+            search(q, first, best, excludeGraphID);
+        }
+        if(best.accepts(lbSecond)) {
+            search(q, second, best, excludeGraphID);
+        }
+    }
+
+
+    private void offer(double[] q, int g, Neighbors best, long excludeGraphID) {
+        if(graphIDs[g] == excludeGraphID) {
+            return;
+        }
+        double d = distance(q, g);
+        if( ! Double.isNaN(d)) {
+            best.offer(g, d);
+        }
+    }
+
+
+    /**
+     * Returns the number of graphs in the index.
+     * @return the number of graphs
+     */
+    public int size() {
+        return graphIDs.length;
+    }
+
+
+    /**
+     * Returns the number of graphlets per graph.
+     * @return the length of the graphlet vectors
+     */
+    public int getNumGraphlets() {
+        return dims;
+    }
+
+
+    /**
+     * Returns the index of the first graphlet of the vectors in the graphlet counts of the database. Together with getNumGraphlets(),
+     * this tells which slice of the database vectors the index was built from.
+     * @return the start index
+     */
+    public int getGraphletStartIndex() {
+        return graphletStartIndex;
+    }
+
+
+    /**
+     * Returns the graph type of the graphs in the index.
+     * @return the graph type, e.g., "albe"
+     */
+    public String getGraphType() {
+        return graphType;
+    }
+
+
+    /**
+     * Returns the database ID of a graph.
+     * @param i the index of the graph
+     * @return the graph ID
+     */
+    public long getGraphID(int i) {
+        return graphIDs[i];
+    }
+
+
+    /**
+     * Returns the label of a graph.
+     * @param i the index of the graph
+     * @return the label
+     */
+    public String getLabel(int i) {
+        return labels[i];
+    }
+
+
+    /**
+     * Finds the graph with the given label.
+     * @param label the label
+     * @return the index of the graph, or -1 if no graph has this label
+     */
+    public int indexOfLabel(String label) {
+        for(int i = 0; i < labels.length; i++) {
+            if(labels[i].equals(label)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Writes this index to a file.
+     * @param filePath the file
+     * @return whether it worked
+     */
+    public Boolean toFile(String filePath) {
+        try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(filePath))) {
+            outStream.writeObject(this);
+            outStream.flush();
+            return true;
+        } catch(IOException e) {
+            System.err.println("WARNING: Could not write graphlet index to file '" + filePath + "': '" + e.getMessage() + "'.");
+            return false;
+        }
+    }
+
+
+    /**
+     * Reads an index written by toFile().
+     * @param filePath the file
+     * @return the index, or null if it could not be read
+     */
+    public static GraphletIndex fromFile(String filePath) {
+        try (ObjectInputStream inStream = new ObjectInputStream(new FileInputStream(filePath))) {
+            return (GraphletIndex) inStream.readObject();
+        } catch(IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("WARNING: Could not read graphlet index from file '" + filePath + "': '" + e.getMessage() + "'.");
+            return null;
+        }
+    }
+
+
+    /**
+     * The k best graphs found so far, in a max-heap by distance.
+     */
+    private static class Neighbors {
+
+        private final int[] indices;
+        private final double[] distances;
+        private int size = 0;
+
+        Neighbors(int k) {
+            this.indices = new int[Math.max(k, 0)];
+            this.distances = new double[Math.max(k, 0)];
+        }
+
+        /** Whether a graph with the given distance would be added. */
+        boolean accepts(double d) {
+            return size < indices.length || d < distances[0];
+        }
+
+        void offer(int g, double d) {
+            if(size < indices.length) {
+                int i = size++;
+                while(i > 0 && distances[(i - 1) / 2] < d) {
+                    indices[i] = indices[(i - 1) / 2];
+                    distances[i] = distances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                indices[i] = g;
+                distances[i] = d;
+            }
+            else if(d < distances[0]) {
+                siftDown(g, d, size);
+            }
+        }
+
+        private void siftDown(int g, double d, int n) {
+            int i = 0;
+            while(2 * i + 1 < n) {
+                int c = 2 * i + 1;
+                if(c + 1 < n && distances[c + 1] > distances[c]) {
+                    c++;
+                }
+                if(distances[c] <= d) {
+                    break;
+                }
+                indices[i] = indices[c];
+                distances[i] = distances[c];
+                i = c;
+            }
+            indices[i] = g;
+            distances[i] = d;
+        }
+
+        List<Match> toSortedMatches() {
+            List<Match> matches = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                matches.add(new Match(indices[i], distances[i]));
+            }
+            matches.sort((x, y) -> (x.distance != y.distance ? Double.compare(x.distance, y.distance) : Integer.compare(x.index, y.index)));
+            return matches;
+        }
+    }
+
+
+    /**
+     * A graph found by findNearest().
+     */
+    public static class Match {
+
+        private final int index;
+        private final double distance;
+
+        Match(int index, double distance) {
+            this.index = index;
+            this.distance = distance;
+        }
+
+        /**
+         * Returns the index of the graph in the index, use it with getGraphID() and getLabel().
+         * @return the index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the relative graphlet frequency distance of the graph to the query.
+         * @return the distance
+         */
+        public double getDistance() {
+            return distance;
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package similarity;
 
 import tools.DP;
+import tools.ExitError;
 
 /**
  * A scoring matrix class for various strings. Intended to be used with the string alignment algorithms.
@@ -69,7 +70,7 @@ public class ScoringMatrix {
         
         if(matrixPosCharA < 0 || matrixPosCharB < 0) {
             System.err.println("ERROR: ScoringMatrix.score(): Invalid character '" + charA + "' or '" + charB + "', not in alphabet of this matrix.");
-            System.exit(1);
+            throw new ExitError(1);
         }
         
         return(this.matrix[matrixPosCharA][matrixPosCharB]);
@@ -159,6 +159,64 @@ public class SimilarityByGraphlets {
     }
     
     
+    /**
+     * Computes the per-graphlet terms of the relative graphlet frequency distance for a vector of normalized graphlet counts, i.e., the
+     * negative logarithm of the relative frequency of each graphlet. Computing them once per graph allows to compare it to many others
+     * quickly, see getRelativeGraphletFrequencyDistance(double[], double[]).
+     * @param graphletCounts the normalized graphlet counts of a network
+     * @return the terms, infinite for graphlets which do not occur in the network
+     */
+    public static double[] getRelativeGraphletFrequencyTerms(double[] graphletCounts) {
+        double total = 0.0;
+        for (int i = 0; i < graphletCounts.length; i++) {
+            total += graphletCounts[i];
+        }
+        
+        double[] terms = new double[graphletCounts.length];
+        for (int i = 0; i < graphletCounts.length; i++) {
+            terms[i] = -Math.log(graphletCounts[i] / total);
+        }
+        return terms;
+    }
+    
+    
+    /**
+     * Computes the relative graphlet frequency distance from the terms of two networks. This gives the same result as
+     * getRelativeGraphletFrequencyDistanceNormalized(Double[], Double[]) for the graphlet counts the terms were computed from.
+     * @param termsA the terms of network A, see getRelativeGraphletFrequencyTerms()
+     * @param termsB the terms of network B
+     * @return the relative graphlet frequency distance between the networks A and B
+     */
+    public static double getRelativeGraphletFrequencyDistance(double[] termsA, double[] termsB) {
+        double res = 0.0;
+        for (int i = 0; i < termsA.length; i++) {
+            if(Double.isInfinite(termsA[i]) || Double.isInfinite(termsB[i])) {
+                continue;
+            }
+            res += Math.abs(termsA[i] - termsB[i]);
+        }
+        return res;
+    }
+    
+    
+    /**
+     * Computes the modified Tanimoto coefficient like getTanimotoCoefficient(Double[], Double[], double), on primitive arrays.
+     * @param graphletCountsA contains relative graphlet counts for a network a
+     * @param graphletCountsB contains relative graphlet counts for a network b
+     * @param precision the precision, between 0 and 1
+     * @return the tanimoto coeffcient for the two vectors
+     */
+    public static double getTanimotoCoefficient(double[] graphletCountsA, double[] graphletCountsB, double precision) {
+        double num = 0.0;
+        for (int i = 0; i < graphletCountsA.length; i++) {
+            if (graphletCountsA[i] >= (graphletCountsB[i] * precision) && graphletCountsB[i] >= (graphletCountsA[i] * precision)) {
+                num += 1.0;
+            }
+        }
+        return num / (graphletCountsA.length + graphletCountsB.length - num);
+    }
+    
+    
     /**
      * Computes the sum of the array.
      * @param i the input Integer array
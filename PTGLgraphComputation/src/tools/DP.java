@@ -8,6 +8,7 @@
 package tools;
 
 import settings.Settings;
+import tools.ExitError;
 
 /**
  * A debug printer. This is a singleton.
@@ -107,7 +108,7 @@ public class DP {
      */
     public void c(String srcTag, String msg) {
         System.err.println(DP.appTag + DP.errorTag + "[" + srcTag + "] " + msg);
-        System.exit(1);
+        throw new ExitError(1);
     }
     
     /**
@@ -116,7 +117,7 @@ public class DP {
      */
     public void c(String msg) {
         System.err.println(DP.appTag + DP.errorTag + msg);
-        System.exit(1);
+        throw new ExitError(1);
     }
     
     
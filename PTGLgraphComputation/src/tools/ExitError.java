@@ -0,0 +1,34 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+package tools;
+
+/**
+ * Thrown to end the computation with an exit status, instead of calling System.exit() directly. Main.main() catches it and exits the
+ * JVM with the status, the batch mode (see plcc.BatchRunner) only ends the current entry. This is an Error and not an Exception, so it is
+ * not caught by the 'catch(Exception e)' blocks of the computation.
+ */
+public class ExitError extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    /**
+     * Creates an exit with the given status.
+     * @param status the exit status, 0 means success
+     */
+    public ExitError(int status) {
+        super("Exit with status " + status + ".", null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * @return the exit status
+     */
+    public int getStatus() {
+        return status;
+    }
+}
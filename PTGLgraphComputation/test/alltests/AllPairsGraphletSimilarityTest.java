@@ -0,0 +1,208 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+import similarity.AllPairsGraphletSimilarity;
+import similarity.SimilarityByGraphlets;
+
+/**
+ * Unit test class for AllPairsGraphletSimilarity: the tiled, parallel comparison must keep the same best targets as comparing all pairs
+ * one after another with the Double[] scoring functions of SimilarityByGraphlets, like the old code in DBManager did.
+ */
+public class AllPairsGraphletSimilarityTest extends TestCase {
+
+    private double[][] graphlets;
+
+    /**
+     * Sets up graphlet vectors for more graphs than fit into two tiles. Some vectors contain graphlets which are almost missing, which leads
+     * to RGF distances above AllPairsGraphletSimilarity.SCORE_TOO_LARGE, some are missing graphlets completely, and some are duplicates, which leads to equal scores.
+     */
+    @Override @org.junit.Before public void setUp() {
+        Random random = new Random(16);
+        int n = 562;
+        int length = 8;
+        graphlets = new double[n][];
+        for (int i = 0; i < n; i++) {
+            double[] v = new double[length];
+            for (int g = 0; g < length; g++) {
+                v[g] = random.nextInt(10) / 10.0;
+            }
+            if (i % 17 == 0) {
+                v[0] = v[1] = v[2] = 1e-300;
+            }
+            if (i % 29 == 0 && i > 0) {
+                v = graphlets[i - 1].clone();
+            }
+            graphlets[i] = v;
+        }
+    }
+
+
+    /**
+     * Computes the best targets of a source graph like the old code: compute the score of every other graph with the Double[] scoring
+     * functions, drop scores of SCORE_TOO_LARGE or more, sort them and keep the first k.
+     * @param source the index of the source graph
+     * @param method the similarity method
+     * @param k the number of targets to keep
+     * @param targets the kept targets are added to this list, the best first
+     * @param scores the scores of the kept targets are added to this list
+     */
+    private void computeSequentially(int source, String method, int k, List<Integer> targets, List<Double> scores) {
+        boolean rgf = SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF.equals(method);
+        Double[] src = box(graphlets[source]);
+        List<double[]> all = new ArrayList<>();
+        for (int j = 0; j < graphlets.length; j++) {
+            if (j == source) {
+                continue;
+            }
+            double score = (rgf ? SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized(src, box(graphlets[j]))
+                    : SimilarityByGraphlets.getTanimotoCoefficient(src, box(graphlets[j]), 0.8));
+            if ( ! Double.isNaN(score) && score < AllPairsGraphletSimilarity.SCORE_TOO_LARGE) {
+                all.add(new double[] { j, score });
+            }
+        }
+        all.sort((a, b) -> {
+            if (a[1] != b[1]) {
+                return (rgf ? Double.compare(a[1], b[1]) : Double.compare(b[1], a[1]));
+            }
+            return Double.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < Math.min(k, all.size()); i++) {
+            targets.add((int) all.get(i)[0]);
+            scores.add(all.get(i)[1]);
+        }
+    }
+
+
+    /**
+     * Converts a vector to the boxed type used by the old scoring functions.
+     * @param v the vector
+     * @return the boxed vector
+     */
+    private static Double[] box(double[] v) {
+        Double[] boxed = new Double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            boxed[i] = v[i];
+        }
+        return boxed;
+    }
+
+
+    /**
+     * Compares the results of the tiled computation to the sequential one for all source graphs.
+     * @param method the similarity method
+     * @param k the number of targets to keep
+     */
+    private void assertSameAsSequential(String method, int k) {
+        AllPairsGraphletSimilarity sims = new AllPairsGraphletSimilarity(graphlets, method);
+        sims.computeTopK(k);
+
+        // the Double[] RGF function prints a line per pair, which is not of interest here
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override public void write(int b) { }
+        }));
+        try {
+            for (int s = 0; s < graphlets.length; s++) {
+                List<Integer> targets = new ArrayList<>();
+                List<Double> scores = new ArrayList<>();
+                computeSequentially(s, method, k, targets, scores);
+
+                int[] tiledTargets = sims.getTopTargets(s);
+                double[] tiledScores = sims.getTopScores(s);
+                assertEquals("Wrong number of targets for source " + s + ".", targets.size(), tiledTargets.length);
+                for (int i = 0; i < tiledTargets.length; i++) {
+                    assertEquals("Wrong target #" + i + " for source " + s + ".", (int) targets.get(i), tiledTargets[i]);
+                    assertEquals("Wrong score #" + i + " for source " + s + ".", scores.get(i), tiledScores[i], 1e-12);
+                    assertTrue(tiledScores[i] < AllPairsGraphletSimilarity.SCORE_TOO_LARGE);
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests the relative graphlet frequency distance, which drops the pairs with almost missing graphlets.
+     */
+    @org.junit.Test public void testRelativeGraphletFrequencyDistance() {
+        AllPairsGraphletSimilarity sims = new AllPairsGraphletSimilarity(graphlets, SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF);
+        assertTrue(sims.isLowerBetter());
+        assertTrue("The test data has no score which is too large.", sims.score(0, 1) >= AllPairsGraphletSimilarity.SCORE_TOO_LARGE);
+        assertSameAsSequential(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF, 10);
+    }
+
+
+    /**
+     * Tests the custom Tanimoto coefficient.
+     */
+    @org.junit.Test public void testTanimotoCoefficient() {
+        assertSameAsSequential(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM, 10);
+    }
+
+
+    /**
+     * Tests keeping all targets, i.e., more than fit into a tile.
+     */
+    @org.junit.Test public void testKeepAll() {
+        assertSameAsSequential(SimilarityByGraphlets.GRAPHLET_SIM_METHOD_CUSTOM, graphlets.length);
+    }
+
+
+    /**
+     * Tests passing all scores to a consumer: each source must get the same targets and scores as the sequential computation keeps.
+     * @throws SQLException never, the consumer does not fail
+     */
+    @org.junit.Test public void testComputeAll() throws SQLException {
+        AllPairsGraphletSimilarity sims = new AllPairsGraphletSimilarity(graphlets, SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF);
+        List<Map<Integer, Double>> streamed = new ArrayList<>();
+        for (int s = 0; s < graphlets.length; s++) {
+            streamed.add(null);
+        }
+        sims.computeAll((source, targets, scores, count) -> {
+            assertNull("Source " + source + " was passed twice.", streamed.get(source));
+            Map<Integer, Double> row = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                row.put(targets[i], scores[i]);
+            }
+            streamed.set(source, row);
+        });
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override public void write(int b) { }
+        }));
+        try {
+            for (int s = 0; s < graphlets.length; s++) {
+                List<Integer> targets = new ArrayList<>();
+                List<Double> scores = new ArrayList<>();
+                computeSequentially(s, SimilarityByGraphlets.GRAPHLET_SIM_METHOD_RGF, graphlets.length, targets, scores);
+
+                Map<Integer, Double> row = streamed.get(s);
+                assertNotNull("Source " + s + " was not passed.", row);
+                assertEquals("Wrong number of targets for source " + s + ".", targets.size(), row.size());
+                for (int i = 0; i < targets.size(); i++) {
+                    assertEquals("Wrong score of target " + targets.get(i) + " for source " + s + ".", scores.get(i), row.get(targets.get(i)), 1e-12);
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -35,6 +35,21 @@ public class AllUnitTests extends TestCase {
                 suite.addTestSuite(TestLinnotParserRED.class);
                 suite.addTestSuite(TestLinnotREDToGraph.class);
                 suite.addTestSuite(TestPTGLNotations.class);
+                suite.addTestSuite(AtomContactKernelTest.class);
+                suite.addTestSuite(ContactCellGridTest.class);
+                suite.addTestSuite(StructureParserTest.class);
+                suite.addTestSuite(BatchRunnerTest.class);
+                suite.addTestSuite(CifTokenizerTest.class);
+                suite.addTestSuite(GraphletCountsTest.class);
+                suite.addTestSuite(AllPairsGraphletSimilarityTest.class);
+                suite.addTestSuite(GraphletIndexTest.class);
+                suite.addTestSuite(CliqueFinderTest.class);
+                suite.addTestSuite(DBConnectionPoolTest.class);
+                suite.addTestSuite(ProteinEntryDBWriterTest.class);
+                suite.addTestSuite(DeferredResultWriterTest.class);
+                suite.addTestSuite(MotifEngineTest.class);
+                suite.addTestSuite(NotationMatrixTest.class);
+                suite.addTestSuite(MatrixPatternMatcherTest.class);
 		
 		return suite;
 	}
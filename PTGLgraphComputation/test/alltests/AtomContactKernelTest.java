@@ -0,0 +1,125 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.util.ArrayList;
+import junit.framework.TestCase;
+import proteinstructure.Atom;
+import proteinstructure.AtomContactKernel;
+import proteinstructure.AtomCoordinateStore;
+import proteinstructure.Ligand;
+import proteinstructure.Molecule;
+import proteinstructure.Residue;
+
+/**
+ * Unit test class for the squared distance atom contact kernel.
+ */
+public class AtomContactKernelTest extends TestCase {
+
+    private static final int AA_RADIUS = 20;
+    private static final int LIG_RADIUS = 30;
+    private static final int RNA_RADIUS = 25;
+
+    private AtomContactKernel kernel;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() {
+        kernel = new AtomContactKernel(AA_RADIUS, LIG_RADIUS, RNA_RADIUS, false, false);
+    }
+
+
+    /**
+     * Creates a ligand molecule with a single atom.
+     */
+    private static Molecule createSingleAtomLigand(String chemSym, int atomType, int x, int y, int z) {
+        Ligand l = new Ligand();
+        l.setType(Residue.RESIDUE_TYPE_LIGAND);
+        Atom a = new Atom();
+        a.setChemSym(chemSym);
+        a.setAtomtype(atomType);
+        a.setCoordX(x);
+        a.setCoordY(y);
+        a.setCoordZ(z);
+        l.addAtom(a);
+        return l;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests whether the kernel agrees with the rounded distance test of Atom.atomContactTo() for all atom type pairs, at
+     * distances around the cutoffs.
+     */
+    @org.junit.Test public void testContactMatchesRoundedDistance() {
+        int[] types = { Atom.ATOMTYPE_AA, Atom.ATOMTYPE_LIGAND, Atom.ATOMTYPE_RNA };
+        int[] radii = { AA_RADIUS, LIG_RADIUS, RNA_RADIUS };
+
+        for (int t1 = 0; t1 < types.length; t1++) {
+            for (int t2 = 0; t2 < types.length; t2++) {
+                for (int d = 0; d < 80; d++) {
+                    ArrayList<Molecule> mols = new ArrayList<>();
+                    mols.add(createSingleAtomLigand("C", types[t1], 0, 0, 0));
+                    mols.add(createSingleAtomLigand("C", types[t2], d, d / 3, 1));
+                    AtomCoordinateStore store = new AtomCoordinateStore(mols);
+
+                    int dist = mols.get(0).getAtoms().get(0).distToPoint(d, d / 3, 1);
+                    boolean expected = dist < radii[t1] + radii[t2];
+                    assertEquals("Wrong contact result for types " + types[t1] + "/" + types[t2] + " at distance " + dist + ".", expected, kernel.contact(store, 0, 1));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Tests whether the kernel agrees with the rounded distance test of Atom.vdwAtomContactTo() for some element pairs, including
+     * an element without a listed vdW radius.
+     */
+    @org.junit.Test public void testVdwContactMatchesRoundedDistance() {
+        String[] elements = { "C", "N", "FE", "ZN", "XX" };
+
+        for (String e1 : elements) {
+            for (String e2 : elements) {
+                for (int d = 0; d < 70; d++) {
+                    ArrayList<Molecule> mols = new ArrayList<>();
+                    mols.add(createSingleAtomLigand(" " + e1, Atom.ATOMTYPE_LIGAND, 0, 0, 0));
+                    mols.add(createSingleAtomLigand(e2, Atom.ATOMTYPE_LIGAND, d, 2, d / 2));
+                    AtomCoordinateStore store = new AtomCoordinateStore(mols);
+
+                    Atom a = mols.get(0).getAtoms().get(0);
+                    Atom b = mols.get(1).getAtoms().get(0);
+                    boolean expected = a.distToPoint(d, 2, d / 2) < a.getVdwRadius() + b.getVdwRadius();
+                    assertEquals("Wrong vdW contact result for elements " + e1 + "/" + e2 + " at distance " + d + ".", expected, kernel.vdwContact(store, 0, 1));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Tests that the coordinate store is dropped when the atoms of a molecule change.
+     */
+    @org.junit.Test public void testStoreDroppedOnAtomChange() {
+        ArrayList<Molecule> mols = new ArrayList<>();
+        mols.add(createSingleAtomLigand("C", Atom.ATOMTYPE_LIGAND, 0, 0, 0));
+        mols.add(createSingleAtomLigand("C", Atom.ATOMTYPE_LIGAND, 10, 0, 0));
+        AtomCoordinateStore store = new AtomCoordinateStore(mols);
+
+        assertSame(store, mols.get(1).getCoordinateStore());
+        assertEquals(1, mols.get(1).getCoordinateStoreOffset());
+
+        Atom extra = new Atom();
+        extra.setCoordX(5);
+        extra.setCoordY(5);
+        extra.setCoordZ(5);
+        mols.get(1).addAtom(extra);
+        assertNull("Store not dropped after adding an atom.", mols.get(1).getCoordinateStore());
+    }
+}
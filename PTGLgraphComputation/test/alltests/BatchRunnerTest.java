@@ -0,0 +1,91 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.List;
+import junit.framework.TestCase;
+import plcc.BatchRunner;
+import settings.Settings;
+
+/**
+ * Unit test class for BatchRunner: failing entries must only end themselves, not the JVM, and must not change the settings of later entries.
+ */
+public class BatchRunnerTest extends TestCase {
+
+    private File dir;
+
+    /**
+     * Creates a directory with an empty PDB and DSSP file, which the computation rejects.
+     */
+    @Override @org.junit.Before public void setUp() throws IOException {
+        dir = Files.createTempDirectory("batchRunnerTest").toFile();
+        new File(dir, "empty.pdb").createNewFile();
+        new File(dir, "empty.dssp").createNewFile();
+        new File(dir, "out").mkdir();
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        deleteRecursively(dir);
+    }
+
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Runs a batch with two broken entries and one with a missing input file. Each entry must be listed in the manifest with its status,
+     * and the batch must return instead of exiting the JVM.
+     */
+    @org.junit.Test public void testFailingEntriesDoNotEndTheBatch() throws IOException {
+        File listFile = new File(dir, "list.txt");
+        String empty = new File(dir, "empty").getPath();
+        try (PrintWriter out = new PrintWriter(listFile)) {
+            out.println("# broken entries");
+            out.println("1aaa " + empty + ".pdb " + empty + ".dssp");
+            out.println("1bbb " + new File(dir, "missing.pdb").getPath() + " " + empty + ".dssp");
+            out.println("1ccc " + empty + ".pdb " + empty + ".dssp");
+        }
+
+        Settings.init();
+        Boolean silentBefore = Settings.getBoolean("PTGLgraphComputation_B_silent");
+        int status = BatchRunner.run(new String[] { listFile.getPath(), "--batch-workers", "2", "-o", new File(dir, "out").getPath(), "--silent" });
+        assertEquals(1, status);
+        assertEquals("The settings of the entries must be reset after the batch.", silentBefore, Settings.getBoolean("PTGLgraphComputation_B_silent"));
+
+        List<String> manifest = Files.readAllLines(new File(dir, "list.txt.manifest").toPath());
+        assertEquals(4, manifest.size());
+        for (String pdbid : new String[] { "1aaa", "1bbb", "1ccc" }) {
+            String line = null;
+            for (String l : manifest) {
+                if (l.startsWith(pdbid + "\t")) {
+                    line = l;
+                }
+            }
+            assertNotNull("Entry " + pdbid + " is missing in the manifest.", line);
+            String[] fields = line.split("\t");
+            assertEquals(pdbid.equals("1bbb") ? "MISSING_INPUT" : "FAILED", fields[1]);
+            assertFalse("Entry " + pdbid + " must have a non-zero exit status.", fields[2].equals("0"));
+        }
+        assertTrue(new File(dir, "1aaa.log").isFile());
+        assertTrue(new File(dir, "1ccc.log").isFile());
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.CifTokenizer;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Unit test class for the mmCIF tokenizer.
+ */
+public class CifTokenizerTest extends TestCase {
+
+    private File cifFile;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() throws IOException {
+        cifFile = File.createTempFile("cifTokenizerTest", ".cif");
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        cifFile.delete();
+    }
+
+
+    /**
+     * Writes the test file.
+     * @param content the content of the file
+     */
+    private void writeFile(String content) throws IOException {
+        try (PrintWriter out = new PrintWriter(cifFile, "ISO-8859-1")) {
+            out.print(content);
+        }
+    }
+
+
+    /**
+     * Reads all tokens of the test file.
+     * @param bufferSize the initial buffer size of the tokenizer
+     * @return the tokens, each as its type and text, e.g., "3:_atom_site.id"
+     */
+    private List<String> readTokens(int bufferSize) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (CifTokenizer tokenizer = new CifTokenizer(cifFile.getPath(), bufferSize)) {
+            int type;
+            while ((type = tokenizer.next()) != CifTokenizer.END) {
+                tokens.add(type + ":" + tokenizer.getText());
+            }
+        }
+        return tokens;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests the token types, comments and unquoted values.
+     */
+    @org.junit.Test public void testTokenTypes() throws IOException {
+        writeFile("data_1ABC\n# a comment\n_struct.title  TITLE # trailing comment\nloop_\n_a.x\n_a.y\n1 2\n3 4\n");
+        List<String> expected = new ArrayList<>();
+        expected.add(CifTokenizer.DATA + ":data_1ABC");
+        expected.add(CifTokenizer.TAG + ":_struct.title");
+        expected.add(CifTokenizer.VALUE + ":TITLE");
+        expected.add(CifTokenizer.LOOP + ":loop_");
+        expected.add(CifTokenizer.TAG + ":_a.x");
+        expected.add(CifTokenizer.TAG + ":_a.y");
+        for (String v : new String[] { "1", "2", "3", "4" }) {
+            expected.add(CifTokenizer.VALUE + ":" + v);
+        }
+        assertEquals(expected, readTokens(1 << 20));
+    }
+
+
+    /**
+     * Tests quoted values: they end at a matching quote followed by white space only, so they may contain quotes and spaces.
+     */
+    @org.junit.Test public void testQuotedValues() throws IOException {
+        writeFile("_a.b 'two words'\n_a.c \"O5'\"\n_a.d 'it's'\n_a.e \"a\"b\" '' 'x'\n_a.f 'not closed\n_a.g end\n");
+        List<String> values = new ArrayList<>();
+        for (String token : readTokens(1 << 20)) {
+            if (token.startsWith(CifTokenizer.VALUE + ":")) {
+                values.add(token.substring(2));
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        expected.add("two words");
+        expected.add("O5'");
+        expected.add("it's");
+        expected.add("a\"b");
+        expected.add("");
+        expected.add("x");
+        expected.add("not closed");     // ends at the end of the line, with a warning
+        expected.add("end");
+        assertEquals(expected, values);
+    }
+
+
+    /**
+     * Tests text fields: the lines between a line starting with ';' and the next one, joined without line breaks. A ';' which is not
+     * at the start of a line is part of a value.
+     */
+    @org.junit.Test public void testTextFields() throws IOException {
+        writeFile("_a.b\n;first line\nsecond; line\r\n\n;\n_a.c a;b\n_a.d\n;single\n;\n");
+        List<String> expected = new ArrayList<>();
+        expected.add(CifTokenizer.TAG + ":_a.b");
+        expected.add(CifTokenizer.VALUE + ":first linesecond; line");
+        expected.add(CifTokenizer.TAG + ":_a.c");
+        expected.add(CifTokenizer.VALUE + ":a;b");
+        expected.add(CifTokenizer.TAG + ":_a.d");
+        expected.add(CifTokenizer.VALUE + ":single");
+        assertEquals(expected, readTokens(1 << 20));
+
+        // the line numbers of the tokens
+        try (CifTokenizer tokenizer = new CifTokenizer(cifFile.getPath())) {
+            int[] lines = { 1, 2, 6, 6, 7, 8 };
+            for (int line : lines) {
+                tokenizer.next();
+                assertEquals(line, tokenizer.getLine());
+            }
+            assertEquals(CifTokenizer.END, tokenizer.next());
+        }
+    }
+
+
+    /**
+     * Tests the unknown ('?') and inapplicable ('.') values, which are returned as they are, quoted or not.
+     */
+    @org.junit.Test public void testUnknownAndInapplicableValues() throws IOException {
+        writeFile("loop_\n_a.x\n_a.y\n_a.z\n? . '?'\n.5 ?x '.'\n");
+        List<String> values = new ArrayList<>();
+        for (String token : readTokens(1 << 20)) {
+            if (token.startsWith(CifTokenizer.VALUE + ":")) {
+                values.add(token.substring(2));
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (String v : new String[] { "?", ".", "?", ".5", "?x", "." }) {
+            expected.add(v);
+        }
+        assertEquals(expected, values);
+    }
+
+
+    /**
+     * Tests whether the numbers parsed from the bytes equal the results of Integer.parseInt(), Double.parseDouble() and Float.parseFloat().
+     */
+    @org.junit.Test public void testNumberParsing() throws IOException {
+        List<String> numbers = new ArrayList<>();
+        for (String n : new String[] { "0", "-0", "+7", "-12.345", "0.000", "-0.000", "12.", ".5", "-.5", "1e3", "1.5E-2", "123456789", "-2147483648",
+                "9007199254740993.5", "0.1", "0.3", "16777217.0", "1.00000001", "123456.789012" }) {
+            numbers.add(n);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(String.format(Locale.US, "%." + random.nextInt(6) + "f", (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8))));
+        }
+
+        StringBuilder content = new StringBuilder("loop_\n_n.value\n");
+        for (String n : numbers) {
+            content.append(n).append('\n');
+        }
+        writeFile(content.toString());
+
+        try (CifTokenizer tokenizer = new CifTokenizer(cifFile.getPath())) {
+            tokenizer.next();   // loop_
+            tokenizer.next();   // tag
+            for (String n : numbers) {
+                assertEquals(CifTokenizer.VALUE, tokenizer.next());
+                tokenizer.beginRow();
+                tokenizer.addToRow();
+                assertEquals(n, Double.parseDouble(n), tokenizer.getRowDouble(0));
+                assertEquals(n, Float.parseFloat(n), tokenizer.getRowFloat(0));
+                boolean isInt;
+                try {
+                    Integer.parseInt(n);
+                    isInt = true;
+                } catch (NumberFormatException e) {
+                    isInt = false;
+                }
+                if (isInt) {
+                    assertEquals(n, Integer.parseInt(n), tokenizer.getRowInt(0));
+                } else {
+                    try {
+                        tokenizer.getRowInt(0);
+                        fail("No NumberFormatException for '" + n + "'.");
+                    } catch (NumberFormatException e) {
+                        // expected
+                    }
+                }
+                tokenizer.endRow();
+            }
+        }
+    }
+
+
+    /**
+     * Tests whether invalid numbers throw a NumberFormatException.
+     */
+    @org.junit.Test public void testInvalidNumbers() throws IOException {
+        writeFile("loop_\n_n.value\n- ? . 1.2.3 12a\n");
+        try (CifTokenizer tokenizer = new CifTokenizer(cifFile.getPath())) {
+            tokenizer.next();
+            tokenizer.next();
+            for (int i = 0; i < 5; i++) {
+                tokenizer.next();
+                tokenizer.beginRow();
+                tokenizer.addToRow();
+                try {
+                    tokenizer.getRowDouble(0);
+                    fail("No NumberFormatException for '" + tokenizer.getRowValue(0) + "'.");
+                } catch (NumberFormatException e) {
+                    // expected
+                }
+                try {
+                    tokenizer.getRowInt(0);
+                    fail("No NumberFormatException for '" + tokenizer.getRowValue(0) + "'.");
+                } catch (NumberFormatException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Tests whether the tokens and rows are the same for all buffer sizes, i.e., when tokens and rows are split across the blocks read
+     * from the file. A row stays accessible until the next row begins, even if the buffer was refilled meanwhile.
+     */
+    @org.junit.Test public void testRowsAcrossBufferBoundaries() throws IOException {
+        int numCols = 6;
+        StringBuilder content = new StringBuilder("data_TEST\nloop_\n");
+        for (int c = 0; c < numCols; c++) {
+            content.append("_atom_site.col").append(c).append('\n');
+        }
+        List<String[]> rows = new ArrayList<>();
+        Random random = new Random(7);
+        for (int r = 0; r < 300; r++) {
+            String[] row = new String[numCols];
+            row[0] = "ATOM";
+            row[1] = Integer.toString(r + 1);
+            row[2] = (r % 7 == 0 ? "\"O5'\"" : (r % 5 == 0 ? "'C A'" : "CA"));
+            row[3] = String.format(Locale.US, "%.3f", (random.nextDouble() - 0.5) * 200.0);
+            row[4] = (r % 11 == 0 ? "?" : ".");
+            row[5] = String.format(Locale.US, "%.2f", random.nextDouble() * 100.0);
+            rows.add(row);
+            for (int c = 0; c < numCols; c++) {
+                content.append(row[c]).append(c == 2 && r % 3 == 0 ? "\n" : " ");    // some rows span two lines
+            }
+            content.append('\n');
+        }
+        content.append("#\n_a.text\n;").append(new String(new char[100]).replace('\0', 'x')).append("\n;\n");
+        writeFile(content.toString());
+
+        List<String> expectedTokens = readTokens(1 << 20);
+        for (int bufferSize = 1; bufferSize <= 64; bufferSize++) {
+            assertEquals("Different tokens with buffer size " + bufferSize + ".", expectedTokens, readTokens(bufferSize));
+
+            try (CifTokenizer tokenizer = new CifTokenizer(cifFile.getPath(), bufferSize)) {
+                assertEquals(CifTokenizer.DATA, tokenizer.next());
+                assertEquals(CifTokenizer.LOOP, tokenizer.next());
+                for (int c = 0; c < numCols; c++) {
+                    assertEquals(CifTokenizer.TAG, tokenizer.next());
+                }
+                for (String[] row : rows) {
+                    assertEquals(CifTokenizer.VALUE, tokenizer.next());
+                    tokenizer.beginRow();
+                    tokenizer.addToRow();
+                    for (int c = 1; c < numCols; c++) {
+                        assertEquals(CifTokenizer.VALUE, tokenizer.next());
+                        tokenizer.addToRow();
+                    }
+                    // all values of the row are read before any of them is accessed
+                    assertEquals(numCols, tokenizer.getRowSize());
+                    assertEquals(row[0], tokenizer.getRowValue(0));
+                    assertEquals(Integer.parseInt(row[1]), tokenizer.getRowInt(1));
+                    assertEquals(row[2].replaceAll("^['\"]|['\"]$", ""), tokenizer.getRowValue(2));
+                    assertEquals(Double.parseDouble(row[3]), tokenizer.getRowDouble(3));
+                    assertEquals(row[4], tokenizer.getRowValue(4));
+                    assertEquals(Float.parseFloat(row[5]), tokenizer.getRowFloat(5));
+                    tokenizer.endRow();
+                }
+                assertEquals(CifTokenizer.TAG, tokenizer.next());
+                assertEquals(CifTokenizer.VALUE, tokenizer.next());
+                assertEquals(100, tokenizer.getText().length());
+                assertEquals(CifTokenizer.END, tokenizer.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import algorithms.CliqueFinder;
+import datastructures.SparseGraph;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+/**
+ * Unit test class for CliqueFinder: the maximal cliques and the maximum clique size must be the same as those found by trying all
+ * vertex subsets of small random graphs.
+ */
+public class CliqueFinderTest extends TestCase {
+
+    private Random random;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() {
+        random = new Random(15);
+    }
+
+
+    /**
+     * Creates a random graph.
+     * @param n the number of vertices
+     * @param density the probability of each edge
+     * @return the graph, as a SparseGraph and as a boolean adjacency matrix
+     */
+    private Object[] createRandomGraph(int n, double density) {
+        SparseGraph<String, Integer> g = new SparseGraph<>();
+        boolean[][] adj = new boolean[n][n];
+        for (int i = 0; i < n; i++) {
+            g.addVertex("H");
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (random.nextDouble() < density) {
+                    g.addEdge(i, j, 1);
+                    adj[i][j] = adj[j][i] = true;
+                }
+            }
+        }
+        return new Object[] { g, adj };
+    }
+
+
+    /**
+     * Finds all maximal cliques by trying all vertex subsets.
+     * @param adj the adjacency matrix, at most 20 vertices
+     * @return the maximal cliques
+     */
+    private static Set<Set<Integer>> findMaximalCliquesBruteForce(boolean[][] adj) {
+        int n = adj.length;
+        Set<Set<Integer>> cliques = new HashSet<>();
+        for (int subset = 1; subset < (1 << n); subset++) {
+            if (isClique(adj, subset) && isMaximal(adj, subset)) {
+                cliques.add(toSet(subset));
+            }
+        }
+        return cliques;
+    }
+
+
+    private static boolean isClique(boolean[][] adj, int subset) {
+        for (int i = 0; i < adj.length; i++) {
+            for (int j = i + 1; j < adj.length; j++) {
+                if ((subset & (1 << i)) != 0 && (subset & (1 << j)) != 0 && ! adj[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    private static boolean isMaximal(boolean[][] adj, int subset) {
+        for (int v = 0; v < adj.length; v++) {
+            if ((subset & (1 << v)) == 0 && isClique(adj, subset | (1 << v))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static Set<Integer> toSet(int subset) {
+        Set<Integer> set = new HashSet<>();
+        for (int v = 0; v < 32; v++) {
+            if ((subset & (1 << v)) != 0) {
+                set.add(v);
+            }
+        }
+        return set;
+    }
+
+
+    /**
+     * Asserts that the vertex set is a clique of the graph.
+     * @param adj the adjacency matrix
+     * @param clique the vertex set
+     */
+    private static void assertClique(boolean[][] adj, Set<Integer> clique) {
+        for (Integer i : clique) {
+            for (Integer j : clique) {
+                assertTrue("Vertices " + i + " and " + j + " of " + clique + " are not adjacent.", i.equals(j) || adj[i][j]);
+            }
+        }
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Compares the maximal cliques and the maximum clique size with the brute force results on small random graphs of all densities.
+     */
+    @org.junit.Test public void testSameAsBruteForce() {
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(14);
+            double density = random.nextDouble();
+            Object[] graph = createRandomGraph(n, density);
+            boolean[][] adj = (boolean[][]) graph[1];
+            CliqueFinder finder = new CliqueFinder((SparseGraph<?, ?>) graph[0]);
+
+            Set<Set<Integer>> expected = findMaximalCliquesBruteForce(adj);
+            List<Set<Integer>> found = finder.findMaximalCliques();
+            assertFalse(finder.isBudgetExceeded());
+            assertEquals("A maximal clique was found twice in round " + round + ".", found.size(), new HashSet<>(found).size());
+            assertEquals("Wrong maximal cliques in round " + round + ".", expected, new HashSet<>(found));
+
+            int maxSize = 0;
+            for (Set<Integer> clique : expected) {
+                maxSize = Math.max(maxSize, clique.size());
+            }
+            Set<Integer> maximum = finder.findMaximumClique();
+            assertFalse(finder.isBudgetExceeded());
+            assertEquals("Wrong maximum clique size in round " + round + ".", maxSize, maximum.size());
+            assertClique(adj, maximum);
+        }
+    }
+
+
+    /**
+     * Tests the minimal clique size: only the maximal cliques of at least this size are reported.
+     */
+    @org.junit.Test public void testMinCliqueSize() {
+        for (int round = 0; round < 50; round++) {
+            Object[] graph = createRandomGraph(12, 0.5);
+            boolean[][] adj = (boolean[][]) graph[1];
+            CliqueFinder finder = new CliqueFinder((SparseGraph<?, ?>) graph[0]);
+            finder.setMinCliqueSize(3);
+
+            Set<Set<Integer>> expected = new HashSet<>();
+            for (Set<Integer> clique : findMaximalCliquesBruteForce(adj)) {
+                if (clique.size() >= 3) {
+                    expected.add(clique);
+                }
+            }
+            assertEquals("Wrong maximal cliques in round " + round + ".", expected, new HashSet<>(finder.findMaximalCliques()));
+        }
+    }
+
+
+    /**
+     * Tests a graph with more than 64 vertices, so the bitsets have several words: disjoint cliques, one of them spans the word boundary.
+     */
+    @org.junit.Test public void testCliquesAcrossWords() {
+        SparseGraph<String, Integer> g = new SparseGraph<>();
+        int n = 150;
+        for (int i = 0; i < n; i++) {
+            g.addVertex("E");
+        }
+        int[][] ranges = { { 0, 5 }, { 60, 70 }, { 120, 150 } };
+        for (int[] range : ranges) {
+            for (int i = range[0]; i < range[1]; i++) {
+                for (int j = i + 1; j < range[1]; j++) {
+                    g.addEdge(i, j, 1);
+                }
+            }
+        }
+        CliqueFinder finder = new CliqueFinder(g);
+
+        Set<Set<Integer>> expected = new HashSet<>();
+        for (int v = 0; v < n; v++) {
+            if ((v >= 5 && v < 60) || (v >= 70 && v < 120)) {
+                Set<Integer> single = new HashSet<>();
+                single.add(v);
+                expected.add(single);
+            }
+        }
+        for (int[] range : ranges) {
+            Set<Integer> clique = new HashSet<>();
+            for (int i = range[0]; i < range[1]; i++) {
+                clique.add(i);
+            }
+            expected.add(clique);
+        }
+        assertEquals(expected, new HashSet<>(finder.findMaximalCliques()));
+        assertEquals(30, finder.findMaximumClique().size());
+    }
+
+
+    /**
+     * Tests the budget: the search stops after the maximal number of cliques or when the time is up, reports it, and returns valid cliques.
+     * The next search without a budget is complete again.
+     */
+    @org.junit.Test public void testBudgetExceeded() {
+        Object[] graph = createRandomGraph(14, 0.5);
+        boolean[][] adj = (boolean[][]) graph[1];
+        CliqueFinder finder = new CliqueFinder((SparseGraph<?, ?>) graph[0]);
+        Set<Set<Integer>> all = findMaximalCliquesBruteForce(adj);
+        assertTrue("The test graph has too few maximal cliques.", all.size() > 3);
+
+        finder.setMaxCliques(3);
+        List<Set<Integer>> found = finder.findMaximalCliques();
+        assertTrue(finder.isBudgetExceeded());
+        assertEquals(3, found.size());
+        assertTrue(all.containsAll(found));
+
+        finder.setMaxCliques(0);
+        assertEquals(all, new HashSet<>(finder.findMaximalCliques()));
+        assertFalse(finder.isBudgetExceeded());
+
+        // a dense graph whose maximal cliques can not be listed within the time limit
+        Object[] dense = createRandomGraph(200, 0.9);
+        boolean[][] denseAdj = (boolean[][]) dense[1];
+        finder = new CliqueFinder((SparseGraph<?, ?>) dense[0]);
+        finder.setTimeLimitMillis(1L);
+        for (Set<Integer> clique : finder.findMaximalCliques()) {
+            assertClique(denseAdj, clique);
+        }
+        assertTrue(finder.isBudgetExceeded());
+
+        Set<Integer> maximum = finder.findMaximumClique();
+        assertTrue(finder.isBudgetExceeded());
+        assertClique(denseAdj, maximum);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+import plcc.Main;
+import proteingraphs.ContactTable;
+import proteinstructure.Atom;
+import proteinstructure.Ligand;
+import proteinstructure.Molecule;
+import proteinstructure.Residue;
+import settings.Settings;
+
+/**
+ * Unit test class for the contact computation with a cell list (see ContactCellGrid): on a structure of several chains with ligands
+ * between them, it must find the contacts of all residue pairs, in the order of the pairs.
+ */
+public class ContactCellGridTest extends TestCase {
+
+    private static final String[] BACKBONE_ATOM_NAMES = { " N  ", " CA ", " C  ", " O  ", " CB " };
+
+    private Random random;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() {
+        Settings.init();
+        Main.initContactStatistics();
+        random = new Random(1);
+    }
+
+
+    private static Atom createAtom(String name, String chemSym, int atomType, int x, int y, int z) {
+        Atom a = new Atom();
+        a.setAtomName(name);
+        a.setChemSym(chemSym);
+        a.setAtomtype(atomType);
+        a.setCoordX(x);
+        a.setCoordY(y);
+        a.setCoordZ(z);
+        return a;
+    }
+
+
+    /**
+     * Creates a chain of alanines along a random walk with steps of 3.8 Angstroem, starting at the given position.
+     * @param chainID the chain ID
+     * @param numResidues the number of residues
+     * @param start the position of the first C alpha atom, in 1/10th Angstroem
+     * @return the residues
+     */
+    private List<Molecule> createChain(String chainID, int numResidues, int[] start) {
+        List<Molecule> residues = new ArrayList<>();
+        int[] ca = start.clone();
+        for (int r = 0; r < numResidues; r++) {
+            Residue res = new Residue(r + 1, r + 1);
+            res.setType(Residue.RESIDUE_TYPE_AA);
+            res.setName3("ALA");
+            res.setChainID(chainID);
+            res.setiCode("");
+            for (String name : BACKBONE_ATOM_NAMES) {
+                if (name.equals(" CA ")) {
+                    res.addAtom(createAtom(name, " C", Atom.ATOMTYPE_AA, ca[0], ca[1], ca[2]));
+                } else {
+                    res.addAtom(createAtom(name, name.substring(1, 2), Atom.ATOMTYPE_AA, ca[0] + random.nextInt(31) - 15, ca[1] + random.nextInt(31) - 15, ca[2] + random.nextInt(31) - 15));
+                }
+            }
+            residues.add(res);
+
+            double[] dir = { random.nextGaussian(), random.nextGaussian(), random.nextGaussian() };
+            double len = Math.sqrt(dir[0] * dir[0] + dir[1] * dir[1] + dir[2] * dir[2]);
+            for (int d = 0; d < 3; d++) {
+                ca[d] += (int) Math.round(38 * dir[d] / len);
+            }
+        }
+        return residues;
+    }
+
+
+    /**
+     * Creates a ligand of a few atoms around the given position.
+     */
+    private Molecule createLigand(String chainID, int pdbNum, int[] pos) {
+        Ligand l = new Ligand();
+        l.setType(Residue.RESIDUE_TYPE_LIGAND);
+        l.setName3("HEM");
+        l.setChainID(chainID);
+        l.setPdbNum(pdbNum);
+        l.setDsspNum(pdbNum);
+        l.setiCode("");
+        for (int k = 0; k < 4; k++) {
+            l.addAtom(createAtom(" C" + k + " ", " C", Atom.ATOMTYPE_LIGAND, pos[0] + random.nextInt(41) - 20, pos[1] + random.nextInt(41) - 20, pos[2] + random.nextInt(41) - 20));
+        }
+        return l;
+    }
+
+
+    /**
+     * Creates a structure of three chains which start near each other, each followed by ligands near random residues of all chains.
+     * @return the molecules, in the order of a parsed structure
+     */
+    private ArrayList<Molecule> createStructure() {
+        String[] chainIDs = { "A", "B", "C" };
+        List<List<Molecule>> chains = new ArrayList<>();
+        for (int c = 0; c < chainIDs.length; c++) {
+            chains.add(createChain(chainIDs[c], 25 + random.nextInt(15), new int[] { 60 * c, random.nextInt(60), random.nextInt(60) }));
+        }
+
+        ArrayList<Molecule> mols = new ArrayList<>();
+        for (int c = 0; c < chainIDs.length; c++) {
+            mols.addAll(chains.get(c));
+            for (int l = 0; l < 4; l++) {
+                List<Molecule> near = chains.get(random.nextInt(chains.size()));
+                Atom ca = near.get(random.nextInt(near.size())).getCenterAtom();
+                mols.add(createLigand(chainIDs[c], 900 + l, new int[] { ca.getCoordX() + 40, ca.getCoordY(), ca.getCoordZ() }));
+            }
+        }
+        return mols;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Compares the contacts found with the cell list to those of checking all residue pairs on the atom level, in several random structures.
+     */
+    @org.junit.Test public void testSameAsAllPairs() {
+        boolean withLigands = Settings.getBoolean("PTGLgraphComputation_B_write_lig_geolig");
+        for (int round = 0; round < 10; round++) {
+            ArrayList<Molecule> mols = createStructure();
+            IdentityHashMap<Molecule, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < mols.size(); i++) {
+                positions.put(mols.get(i), i);
+            }
+
+            List<String> expected = new ArrayList<>();
+            int numLigandContacts = 0;
+            for (int i = 0; i < mols.size(); i++) {
+                for (int j = i + 1; j < mols.size(); j++) {
+                    Molecule a = mols.get(i);
+                    Molecule b = mols.get(j);
+                    boolean ligand = a.isLigand() || b.isLigand();
+                    if (Main.calculateAtomContactsBetweenResidues(a, b) != null) {
+                        if (ligand) {
+                            numLigandContacts++;
+                        }
+                        if (withLigands || ! ligand) {
+                            expected.add(i + "-" + j);
+                        }
+                    }
+                }
+            }
+            assertTrue("The structure of round " + round + " has no ligand contacts.", numLigandContacts > 0);
+
+            ContactTable contacts = Main.calculateAllContactsByBlocks(mols, true, false);
+            List<String> found = new ArrayList<>();
+            for (int r = 0; r < contacts.size(); r++) {
+                found.add(positions.get(contacts.getMolA(r)) + "-" + positions.get(contacts.getMolB(r)));
+            }
+            assertEquals("Wrong contacts in round " + round + ".", expected, found);
+        }
+    }
+}
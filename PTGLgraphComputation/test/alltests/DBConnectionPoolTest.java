@@ -0,0 +1,144 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.DBConnectionPool;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Unit test class for DBConnectionPool, on the connections of a fake JDBC driver (see FakeJdbc).
+ */
+public class DBConnectionPoolTest extends TestCase {
+
+    private DBConnectionPool pool;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() throws SQLException {
+        FakeJdbc.reset();
+        pool = new DBConnectionPool(FakeJdbc.URL, "user", "password", 3, 10, true);
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        pool.close();
+    }
+
+
+    /**
+     * Counts the log entries which end with the given text.
+     * @param log the log
+     * @param suffix the text, e.g., " COMMIT"
+     * @return the number of entries
+     */
+    private static int countEnding(List<String> log, String suffix) {
+        int n = 0;
+        for (String entry : log) {
+            if (entry.endsWith(suffix)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests whether close() commits and closes the connections which are still bound to other threads, e.g., the workers of an executor
+     * which never released them.
+     */
+    @org.junit.Test public void testCloseCommitsConnectionsOfOtherThreads() throws Exception {
+        Connection con = pool.getThreadConnection();
+        Thread worker = new Thread(() -> {
+            try {
+                con.setAutoCommit(false);
+                try (PreparedStatement ps = con.prepareStatement("INSERT INTO x VALUES (1);")) {
+                    ps.executeUpdate();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            // the worker does not release its connection
+        });
+        worker.start();
+        worker.join();
+        con.prepareStatement("SELECT 1;").close();    // the connection of this thread
+
+        FakeJdbc.clearLog();
+        assertTrue(pool.close());
+        List<String> log = FakeJdbc.getLog();
+        assertEquals(1, countEnding(log, " COMMIT"));
+        assertEquals(2, countEnding(log, " CLOSE"));
+        assertTrue(log.indexOf("con1 COMMIT") < log.indexOf("con1 CLOSE"));
+        assertTrue(pool.isClosed());
+        assertTrue(con.isClosed());
+    }
+
+
+    /**
+     * Tests whether a cached statement is reset when it is closed, so the next user of the same SQL text does not inherit its settings.
+     */
+    @org.junit.Test public void testCachedStatementIsReset() throws SQLException {
+        Connection con = pool.getThreadConnection();
+        PreparedStatement first = con.prepareStatement("SELECT a FROM b WHERE (c = ?);");
+        first.setFetchSize(100);
+        first.setMaxRows(5);
+        first.setQueryTimeout(30);
+        first.close();
+
+        PreparedStatement second = con.prepareStatement("SELECT a FROM b WHERE (c = ?);");
+        assertSame(first, second);
+        assertFalse(second.isClosed());
+        assertEquals(0, second.getFetchSize());
+        assertEquals(0, second.getMaxRows());
+        assertEquals(0, second.getQueryTimeout());
+
+        // a statement of the same SQL text which is still in use is not shared
+        PreparedStatement third = con.prepareStatement("SELECT a FROM b WHERE (c = ?);");
+        assertNotSame(second, third);
+        third.close();
+        second.close();
+    }
+
+
+    /**
+     * Tests whether inTransaction() commits once at the end, ignores commits of the task, and rolls back if the task called rollback().
+     */
+    @org.junit.Test public void testTransactions() throws Exception {
+        Connection con = pool.getThreadConnection();
+        assertTrue(con.getAutoCommit());    // opens the connection of this thread
+        FakeJdbc.clearLog();
+        pool.inTransaction(() -> {
+            con.commit();
+            con.setAutoCommit(true);
+            return null;
+        });
+        List<String> log = FakeJdbc.getLog();
+        assertEquals(1, countEnding(log, " COMMIT"));
+        assertEquals("con1 autocommit=false", log.get(0));
+        assertEquals("con1 COMMIT", log.get(1));     // autocommit is only turned on again after the commit
+
+        FakeJdbc.clearLog();
+        try {
+            pool.inTransaction(() -> {
+                con.rollback();
+                return null;
+            });
+            fail("No exception for a rolled back transaction.");
+        } catch (SQLException e) {
+            // expected
+        }
+        log = FakeJdbc.getLog();
+        assertEquals(0, countEnding(log, " COMMIT"));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.DBConnectionPool;
+import io.DeferredResultWriter;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+/**
+ * Unit test class for DeferredResultWriter, on the connections of a fake JDBC driver (see FakeJdbc): the records must be written on the
+ * connection of the transaction, also by the writer thread which takes it over.
+ */
+public class DeferredResultWriterTest extends TestCase {
+
+    private DBConnectionPool pool;
+    private List<String> writtenBy;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() throws SQLException {
+        FakeJdbc.reset();
+        pool = new DBConnectionPool(FakeJdbc.URL, "user", "password", 2, 10, true);
+        writtenBy = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        pool.close();
+    }
+
+
+    /**
+     * Creates a record which runs an update with the given number on the connection of the calling thread.
+     * @param number the number, which is part of the SQL text
+     * @return the record
+     */
+    private DeferredResultWriter.ResultRecord createRecord(int number) {
+        return () -> {
+            try (PreparedStatement statement = pool.getThreadConnection().prepareStatement("UPDATE results SET value = " + number + ";")) {
+                statement.executeUpdate();
+            }
+            writtenBy.add(Thread.currentThread().getName());
+        };
+    }
+
+
+    /**
+     * Returns the log entries of updates and commits.
+     * @return the log entries, e.g., "con1 UPDATE UPDATE results SET value = 1;"
+     */
+    private static List<String> getWrites() {
+        List<String> writes = new ArrayList<>();
+        for (String entry : FakeJdbc.getLog()) {
+            if (entry.contains(" UPDATE ") || entry.endsWith(" COMMIT")) {
+                writes.add(entry);
+            }
+        }
+        return writes;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests whether a full queue is written by the thread which submits the next record, in order, in its transaction.
+     */
+    @org.junit.Test public void testFullQueueIsWrittenBySubmitter() throws Exception {
+        pool.beginTransaction();
+        DeferredResultWriter writer = new DeferredResultWriter(pool, 2);
+        writer.submit("record 1", createRecord(1));
+        writer.submit("record 2", createRecord(2));
+        assertTrue("Records were written before the queue was full.", writtenBy.isEmpty());
+
+        writer.submit("record 3", createRecord(3));
+        assertEquals(2, writtenBy.size());
+        assertEquals(Thread.currentThread().getName(), writtenBy.get(0));
+
+        assertTrue(writer.close());
+        pool.endTransaction(true);
+        assertEquals(Arrays.asList("con1 UPDATE UPDATE results SET value = 1;", "con1 UPDATE UPDATE results SET value = 2;", "con1 UPDATE UPDATE results SET value = 3;", "con1 COMMIT"), getWrites());
+    }
+
+
+    /**
+     * Tests whether the writer thread takes over the connection with its transaction: it writes the queued records and commits on it,
+     * while the submitting thread uses another connection meanwhile.
+     */
+    @org.junit.Test public void testWriterThreadTakesOverTheTransaction() throws Exception {
+        pool.beginTransaction();
+        DeferredResultWriter writer = new DeferredResultWriter(pool, 10);
+        CountDownLatch goOn = new CountDownLatch(1);
+        writer.submit("blocking record", () -> {
+            try {
+                goOn.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+        });
+        writer.submit("record 1", createRecord(1));
+        writer.submit("record 2", createRecord(2));
+
+        FutureTask<Boolean> done = writer.closeInBackground("test writer", () -> {
+            pool.endTransaction(true);
+            return true;
+        });
+        // the writer thread waits for this update, which must go to another connection
+        createRecord(99).write();
+        goOn.countDown();
+        assertTrue(done.get(10, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(Thread.currentThread().getName(), "test writer", "test writer"), writtenBy);
+        List<String> writes = getWrites();
+        assertEquals("con2 UPDATE UPDATE results SET value = 99;", writes.get(0));
+        assertEquals(Arrays.asList("con1 UPDATE UPDATE results SET value = 1;", "con1 UPDATE UPDATE results SET value = 2;", "con1 COMMIT"), writes.subList(1, 4));
+
+        try {
+            writer.submit("late record", createRecord(3));
+            fail("A closed writer must not accept records.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+
+    /**
+     * Tests whether a failed record is reported in the result of the writer thread, and whether other threads can not submit records.
+     */
+    @org.junit.Test public void testFailures() throws Exception {
+        pool.beginTransaction();
+        DeferredResultWriter writer = new DeferredResultWriter(pool, 10);
+
+        FutureTask<Boolean> submitFromOtherThread = new FutureTask<>(() -> {
+            try {
+                writer.submit("record of other thread", createRecord(1));
+                return false;
+            } catch (IllegalStateException e) {
+                return true;
+            }
+        });
+        new Thread(submitFromOtherThread).start();
+        assertTrue("Another thread must not submit records.", submitFromOtherThread.get(10, TimeUnit.SECONDS));
+
+        writer.submit("failing record", () -> {
+            throw new SQLException("test error");
+        });
+        writer.submit("record 2", createRecord(2));
+        FutureTask<Boolean> done = writer.closeInBackground("test writer", () -> {
+            pool.endTransaction(true);
+            return true;
+        });
+        assertFalse(done.get(10, TimeUnit.SECONDS));
+        assertEquals(1L, writer.getNumFailed());
+        assertEquals(1, writtenBy.size());
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A fake JDBC driver for the DB unit tests, because there is no database server in the test environment. It accepts the URL
+ * "jdbc:ptglfake:". Its connections log what is done to them (e.g., "con1 COMMIT", "con1 BATCH 3 INSERT INTO ..."), and
+ * queries return the rows given by the query handler.
+ */
+class FakeJdbc {
+
+    /** The URL accepted by the fake driver. */
+    static final String URL = "jdbc:ptglfake:";
+
+    private static boolean registered = false;
+    private static int numConnections = 0;
+    private static final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+    private static volatile Function<String, List<Object[]>> queryHandler = query -> new ArrayList<>();
+    private static volatile Function<String, Integer> updateCountHandler = query -> 1;
+
+
+    /**
+     * Registers the fake driver, once, and resets the connection numbers, the log and the handlers.
+     */
+    static synchronized void reset() throws SQLException {
+        if( ! registered) {
+            DriverManager.registerDriver((Driver) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] { Driver.class }, (p, m, a) -> {
+                switch(m.getName()) {
+                    case "acceptsURL":
+                        return ((String) a[0]).startsWith(URL);
+                    case "connect":
+                        return ((String) a[0]).startsWith(URL) ? newConnection() : null;
+                    case "getMajorVersion":
+                    case "getMinorVersion":
+                        return 1;
+                    case "jdbcCompliant":
+                        return false;
+                }
+                return null;
+            }));
+            registered = true;
+        }
+        numConnections = 0;
+        log.clear();
+        queryHandler = query -> new ArrayList<>();
+        updateCountHandler = query -> 1;
+    }
+
+
+    /**
+     * Sets the function which returns the rows of a query, by its SQL text. The values of a row are returned by the getters of the
+     * result set, by column.
+     * @param handler the handler
+     */
+    static void setQueryHandler(Function<String, List<Object[]>> handler) {
+        queryHandler = handler;
+    }
+
+
+    /**
+     * Sets the function which returns the update count reported for each row of a batch, by the SQL text of the statement. By default, it is 1.
+     * @param handler the handler
+     */
+    static void setUpdateCountHandler(Function<String, Integer> handler) {
+        updateCountHandler = handler;
+    }
+
+
+    /**
+     * Returns a copy of the log.
+     * @return the log entries, in order
+     */
+    static List<String> getLog() {
+        synchronized(log) {
+            return new ArrayList<>(log);
+        }
+    }
+
+
+    /**
+     * Clears the log.
+     */
+    static void clearLog() {
+        log.clear();
+    }
+
+
+    /**
+     * Creates a connection which logs commits, rollbacks, autocommit changes, batches and closing.
+     * @return the connection
+     */
+    private static synchronized Connection newConnection() {
+        String name = "con" + (++numConnections);
+        boolean[] autoCommit = { true };
+        boolean[] closed = { false };
+        return (Connection) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] { Connection.class }, (p, m, a) -> {
+            switch(m.getName()) {
+                case "setAutoCommit":
+                    autoCommit[0] = (Boolean) a[0];
+                    log.add(name + " autocommit=" + a[0]);
+                    return null;
+                case "getAutoCommit":
+                    return autoCommit[0];
+                case "commit":
+                    log.add(name + " COMMIT");
+                    return null;
+                case "rollback":
+                    log.add(name + " ROLLBACK");
+                    return null;
+                case "close":
+                    if( ! closed[0]) {
+                        log.add(name + " CLOSE");
+                    }
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                case "prepareStatement":
+                    return newStatement(name, (String) a[0]);
+                case "equals":
+                    return p == a[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return name;
+            }
+            return null;
+        });
+    }
+
+
+    /**
+     * Creates a prepared statement which logs its batches and keeps its settings.
+     * @param con the name of the connection, for the log
+     * @param query the SQL text
+     * @return the statement
+     */
+    private static PreparedStatement newStatement(String con, String query) {
+        int[] numBatched = { 0 };
+        int[] settings = { 0, 0, 0 };   // fetch size, max rows, query timeout
+        boolean[] closed = { false };
+        return (PreparedStatement) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (p, m, a) -> {
+            switch(m.getName()) {
+                case "executeQuery":
+                    return newResultSet(queryHandler.apply(query));
+                case "executeUpdate":
+                    log.add(con + " UPDATE " + query);
+                    return 1;
+                case "addBatch":
+                    numBatched[0]++;
+                    return null;
+                case "clearBatch":
+                    numBatched[0] = 0;
+                    return null;
+                case "executeBatch":
+                    log.add(con + " BATCH " + numBatched[0] + " " + query);
+                    int[] res = new int[numBatched[0]];
+                    Arrays.fill(res, updateCountHandler.apply(query));
+                    numBatched[0] = 0;
+                    return res;
+                case "setFetchSize":
+                    settings[0] = (Integer) a[0];
+                    return null;
+                case "getFetchSize":
+                    return settings[0];
+                case "setMaxRows":
+                    settings[1] = (Integer) a[0];
+                    return null;
+                case "getMaxRows":
+                    return settings[1];
+                case "setQueryTimeout":
+                    settings[2] = (Integer) a[0];
+                    return null;
+                case "getQueryTimeout":
+                    return settings[2];
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                case "equals":
+                    return p == a[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+            }
+            return null;
+        });
+    }
+
+
+    /**
+     * Creates a result set over the given rows.
+     * @param rows the rows
+     * @return the result set
+     */
+    private static ResultSet newResultSet(List<Object[]> rows) {
+        int[] row = { -1 };
+        boolean[] wasNull = { false };
+        return (ResultSet) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (p, m, a) -> {
+            Object value = null;
+            if(m.getName().startsWith("get") && a != null && a.length == 1 && a[0] instanceof Integer) {
+                value = rows.get(row[0])[(Integer) a[0] - 1];
+                wasNull[0] = (value == null);
+            }
+            switch(m.getName()) {
+                case "next":
+                    return ++row[0] < rows.size();
+                case "wasNull":
+                    return wasNull[0];
+                case "getString":
+                    return (value == null ? null : value.toString());
+                case "getLong":
+                    return (value == null ? 0L : ((Number) value).longValue());
+                case "getInt":
+                    return (value == null ? 0 : ((Number) value).intValue());
+                case "getDouble":
+                    return (value == null ? 0.0 : ((Number) value).doubleValue());
+                case "getObject":
+                    return value;
+                case "isClosed":
+                    return false;
+            }
+            return null;
+        });
+    }
+}
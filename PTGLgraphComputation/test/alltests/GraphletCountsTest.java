@@ -0,0 +1,128 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import algorithms.GraphletCounts;
+import datastructures.SparseGraph;
+import junit.framework.TestCase;
+
+/**
+ * Unit test class for the in-process graphlet counts: the normalized counts must be the vector the GraphletAnalyser stores in the database.
+ */
+public class GraphletCountsTest extends TestCase {
+
+    // indices in the normalized counts for the SSE alphabet "HEL", in the order of the GraphletAnalyser
+    private static final int TRIANGLE = 0;
+    private static final int PATH3 = 1;
+    private static final int PATH4 = 7;
+    private static final int LABELED = GraphletCounts.NUM_UNLABELED_GRAPHLETS;
+    private static final int EDGE_HH = LABELED;
+    private static final int EDGE_HE = LABELED + 1;
+    private static final int EDGE_HL = LABELED + 2;
+    private static final int TRIANGLE_HEH = LABELED + 6 + 1;
+    private static final int TRIANGLE_HHE = LABELED + 6 + 2;
+    private static final int PATH3_HEH = LABELED + 6 + 18 + 1;
+
+
+    /**
+     * Creates a graph with the given vertex labels and edges.
+     * @param labels the vertex labels
+     * @param edges the edges, as pairs of vertex indices
+     * @return the graph
+     */
+    private static SparseGraph<String, Integer> createGraph(String[] labels, int[][] edges) {
+        SparseGraph<String, Integer> g = new SparseGraph<>();
+        for (String label : labels) {
+            g.addVertex(label);
+        }
+        for (int[] e : edges) {
+            g.addEdge(e[0], e[1], 1);
+        }
+        return g;
+    }
+
+
+    /**
+     * Asserts that a vector has the expected values at the given indices and 0 everywhere else.
+     * @param expected the expected values, by index
+     * @param actual the vector
+     */
+    private static void assertVector(double[][] expected, Double[] actual) {
+        double[] full = new double[actual.length];
+        for (double[] e : expected) {
+            full[(int) e[0]] = e[1];
+        }
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals("Wrong value at index " + i + ".", full[i], actual[i], 0.0);
+        }
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests the vector lengths: 29 unlabeled graphlets, for the SSE alphabet 6 labeled edges, 18 labeled triangles and 11 labeled 3-paths,
+     * i.e., the 64 values the GraphletAnalyser expects when it writes SSE graph counts to the database.
+     */
+    @org.junit.Test public void testVectorLength() {
+        assertEquals(29, GraphletCounts.getNormalizedCountsLength(null));
+        assertEquals(64, GraphletCounts.getNormalizedCountsLength(GraphletCounts.ALPHABET_SSE));
+        assertEquals(29 + 10 + 40 + 24, GraphletCounts.getNormalizedCountsLength(GraphletCounts.ALPHABET_AA));
+    }
+
+
+    /**
+     * Tests the triangle of the GraphletAnalyser unit test (tests/newtestclass.cpp), which expects the normalized counts 0.75 for the edge
+     * and 0.25 for the triangle. The edge is not stored, so the vector starts with the triangle, but the edges are part of the total. The
+     * labeled values (labels H, E, H) are traced through GraphletCounts::count_connected_2_graphlets() and count_connected_3_graphlets():
+     * the triangle matches the words "HEH" and "HHE", which are cyclic permutations of each other.
+     */
+    @org.junit.Test public void testAnalyserTriangle() {
+        SparseGraph<String, Integer> g = createGraph(new String[] { "H", "E", "H" }, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 } });
+
+        GraphletCounts unlabeled = GraphletCounts.compute(g);
+        assertEquals(3L, unlabeled.getNumEdges());
+        assertEquals(4L, unlabeled.getTotalCount());
+        Double[] norm = unlabeled.getNormalizedCounts();
+        assertEquals(GraphletCounts.NUM_UNLABELED_GRAPHLETS, norm.length);
+        assertVector(new double[][] { { TRIANGLE, 0.25 } }, norm);
+
+        GraphletCounts labeled = GraphletCounts.compute(g, new String[] { "H", "E", "H" }, GraphletCounts.ALPHABET_SSE);
+        assertEquals(4L, labeled.getTotalCount());
+        norm = labeled.getNormalizedCounts();
+        assertEquals(64, norm.length);
+        assertVector(new double[][] { { TRIANGLE, 0.25 }, { EDGE_HH, 0.25 }, { EDGE_HE, 0.5 }, { TRIANGLE_HEH, 0.25 }, { TRIANGLE_HHE, 0.25 } }, norm);
+        assertTrue(labeled.getNormalizedCountsString().startsWith("0.2500, 0.0000, "));
+    }
+
+
+    /**
+     * Tests the path H - E - H - L, traced through the GraphletAnalyser: 3 edges, two 3-paths and one 4-path, so the total is 6 and the
+     * values are divided in single precision. The 3-path H - E - H matches the word "HEH", the 3-path E - H - L matches no word.
+     */
+    @org.junit.Test public void testAnalyserPath() {
+        String[] labels = new String[] { "H", "E", "H", "L" };
+        SparseGraph<String, Integer> g = createGraph(labels, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 3 } });
+
+        GraphletCounts gc = GraphletCounts.compute(g, labels, GraphletCounts.ALPHABET_SSE);
+        assertEquals(6L, gc.getTotalCount());
+        double oneSixth = (double) (1.0f / 6.0f);
+        double twoSixths = (double) (2.0f / 6.0f);
+        assertVector(new double[][] { { PATH3, twoSixths }, { PATH4, oneSixth }, { EDGE_HE, twoSixths }, { EDGE_HL, oneSixth }, { PATH3_HEH, oneSixth } },
+                gc.getNormalizedCounts());
+    }
+
+
+    /**
+     * Tests whether vertices without a label or with a label which is not in the alphabet match no labeled graphlet, but still count as unlabeled graphlets.
+     */
+    @org.junit.Test public void testUnknownLabels() {
+        SparseGraph<String, Integer> g = createGraph(new String[] { "H", "X", "H" }, new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 } });
+        Double[] norm = GraphletCounts.compute(g, new String[] { "H", "X", null }, GraphletCounts.ALPHABET_SSE).getNormalizedCounts();
+        assertVector(new double[][] { { TRIANGLE, 0.25 } }, norm);
+    }
+}
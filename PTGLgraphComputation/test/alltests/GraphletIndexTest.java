@@ -0,0 +1,229 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+import similarity.GraphletIndex;
+import similarity.SimilarityByGraphlets;
+
+/**
+ * Unit test class for GraphletIndex: its nearest neighbors must be those found by comparing the query to all graphs with
+ * SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized().
+ */
+public class GraphletIndexTest extends TestCase {
+
+    private List<Long> graphIDs;
+    private List<String> labels;
+    private List<double[]> graphlets;
+    private GraphletIndex index;
+    private PrintStream out;
+
+    /**
+     * Sets up graphlet vectors in a few clusters, so the tree has something to prune. Many vectors miss some graphlets, which are then skipped
+     * by the distance, and some are duplicates, which leads to equal distances.
+     */
+    @Override @org.junit.Before public void setUp() {
+        Random random = new Random(17);
+        int n = 1500;
+        int length = 12;
+        double[][] centers = new double[5][length];
+        for (double[] c : centers) {
+            for (int g = 0; g < length; g++) {
+                c[g] = random.nextDouble();
+            }
+        }
+        graphIDs = new ArrayList<>();
+        labels = new ArrayList<>();
+        graphlets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double[] v = new double[length];
+            double[] c = centers[random.nextInt(centers.length)];
+            for (int g = 0; g < length; g++) {
+                v[g] = Math.max(0.0, c[g] + random.nextGaussian() * 0.05);
+                if (random.nextInt(10) == 0) {
+                    v[g] = 0.0;
+                }
+            }
+            if (i % 31 == 0 && i > 0) {
+                v = graphlets.get(i - 1).clone();
+            }
+            graphIDs.add(1000L + i);
+            labels.add(String.format("%04dA", i));
+            graphlets.add(v);
+        }
+        index = new GraphletIndex("albe", 1, graphIDs, labels, graphlets);
+
+        // the Double[] RGF function prints a line per pair, which is not of interest here
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override public void write(int b) { }
+        }));
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        System.setOut(out);
+    }
+
+
+    /**
+     * Computes the distances of a query to all graphs, like a scan of the database would.
+     * @param query the graphlet counts of the query
+     * @return the distance to each graph, NaN if undefined
+     */
+    private double[] bruteForceDistances(double[] query) {
+        Double[] q = box(query);
+        double[] dist = new double[graphlets.size()];
+        for (int i = 0; i < graphlets.size(); i++) {
+            dist[i] = SimilarityByGraphlets.getRelativeGraphletFrequencyDistanceNormalized(q, box(graphlets.get(i)));
+        }
+        return dist;
+    }
+
+
+    /**
+     * Converts a vector to the boxed type used by the old scoring functions.
+     * @param v the vector
+     * @return the boxed vector
+     */
+    private static Double[] box(double[] v) {
+        Double[] boxed = new Double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            boxed[i] = v[i];
+        }
+        return boxed;
+    }
+
+
+    /**
+     * Asserts that the matches are the k best graphs by brute force. Graphs with the same distance as the k-th one may be exchanged.
+     * @param matches the matches found by the index
+     * @param dist the brute force distances of all graphs
+     * @param exclude the index of a graph which must not be reported, or -1
+     * @param k the number of graphs searched
+     */
+    private static void assertBestMatches(List<GraphletIndex.Match> matches, double[] dist, int exclude, int k) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < dist.length; i++) {
+            if (i != exclude && ! Double.isNaN(dist[i])) {
+                order.add(i);
+            }
+        }
+        order.sort((a, b) -> Double.compare(dist[a], dist[b]));
+        int expectedSize = Math.min(k, order.size());
+        assertEquals(expectedSize, matches.size());
+        if (expectedSize == 0) {
+            return;
+        }
+
+        double kthDistance = dist[order.get(expectedSize - 1)];
+        Set<Integer> expectedCloser = new HashSet<>();
+        for (int i : order) {
+            if (dist[i] < kthDistance) {
+                expectedCloser.add(i);
+            }
+        }
+        Set<Integer> foundCloser = new HashSet<>();
+        for (int m = 0; m < matches.size(); m++) {
+            GraphletIndex.Match match = matches.get(m);
+            assertTrue(match.getIndex() != exclude);
+            assertEquals("Wrong distance of match #" + m + ".", dist[order.get(m)], match.getDistance(), 1e-12);
+            assertEquals(dist[match.getIndex()], match.getDistance(), 1e-12);
+            if (dist[match.getIndex()] < kthDistance) {
+                foundCloser.add(match.getIndex());
+            }
+        }
+        assertEquals(expectedCloser, foundCloser);
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests searching the neighbors of graphs in the index, which must not report the graph itself.
+     */
+    @org.junit.Test public void testFindNearestTo() {
+        for (int i = 0; i < graphlets.size(); i += 7) {
+            for (int k : new int[] { 1, 10 }) {
+                assertBestMatches(index.findNearestTo(i, k), bruteForceDistances(graphlets.get(i)), i, k);
+            }
+        }
+    }
+
+
+    /**
+     * Tests searching the neighbors of graphs which are not in the index, including queries without some graphlets and k larger than the index.
+     */
+    @org.junit.Test public void testFindNearest() {
+        Random random = new Random(3);
+        for (int q = 0; q < 100; q++) {
+            double[] query = new double[index.getNumGraphlets()];
+            for (int g = 0; g < query.length; g++) {
+                query[g] = (random.nextInt(5) == 0 ? 0.0 : random.nextDouble());
+            }
+            assertBestMatches(index.findNearest(query, 25, -1L), bruteForceDistances(query), -1, 25);
+        }
+        double[] query = graphlets.get(5);
+        assertBestMatches(index.findNearest(query, graphlets.size() + 10, -1L), bruteForceDistances(query), -1, graphlets.size() + 10);
+        assertBestMatches(index.findNearest(query, 5, graphIDs.get(5)), bruteForceDistances(query), 5, 5);
+    }
+
+
+    /**
+     * Tests whether an index read from a file gives the same results and still knows which graphlets it was built from.
+     */
+    @org.junit.Test public void testFileRoundTrip() throws IOException {
+        File file = File.createTempFile("graphletIndexTest", ".idx");
+        try {
+            assertTrue(index.toFile(file.getPath()));
+            GraphletIndex read = GraphletIndex.fromFile(file.getPath());
+            assertNotNull(read);
+            assertEquals(index.size(), read.size());
+            assertEquals("albe", read.getGraphType());
+            assertEquals(1, read.getGraphletStartIndex());
+            assertEquals(12, read.getNumGraphlets());
+            assertEquals(labels.indexOf("0042A"), read.indexOfLabel("0042A"));
+            for (int i = 0; i < graphlets.size(); i += 50) {
+                List<GraphletIndex.Match> a = index.findNearestTo(i, 10);
+                List<GraphletIndex.Match> b = read.findNearestTo(i, 10);
+                assertEquals(a.size(), b.size());
+                for (int m = 0; m < a.size(); m++) {
+                    assertEquals(a.get(m).getIndex(), b.get(m).getIndex());
+                    assertEquals(a.get(m).getDistance(), b.get(m).getDistance());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+
+    /**
+     * Tests an empty index and an index smaller than a leaf.
+     */
+    @org.junit.Test public void testSmallIndexes() {
+        GraphletIndex empty = new GraphletIndex("albe", 1, new ArrayList<Long>(), new ArrayList<String>(), new ArrayList<double[]>());
+        assertEquals(0, empty.size());
+        assertTrue(empty.findNearest(new double[0], 3, -1L).isEmpty());
+
+        GraphletIndex small = new GraphletIndex("albe", 1, graphIDs.subList(0, 3), labels.subList(0, 3), graphlets.subList(0, 3));
+        double[] query = graphlets.get(0);
+        List<GraphletIndex.Match> matches = small.findNearest(query, 10, -1L);
+        assertEquals(3, matches.size());
+        assertEquals(0, matches.get(0).getIndex());
+        assertEquals(0.0, matches.get(0).getDistance(), 0.0);
+    }
+}
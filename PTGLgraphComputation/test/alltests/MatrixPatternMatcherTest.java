@@ -0,0 +1,247 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import junit.framework.TestCase;
+import motifs.MatrixPatternMatcher;
+import motifs.NotationMatrix;
+
+/**
+ * Unit test class for MatrixPatternMatcher: the first match must be the one of the old DBManager.matrixSearch(), which compared the pattern
+ * at every position and is kept here as a reference, and all matches must be those found by comparing at every position.
+ */
+public class MatrixPatternMatcherTest extends TestCase {
+
+    private static final String CELL_CHARS = "xmpa";
+
+    private Random random;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() {
+        random = new Random(42);
+    }
+
+
+    /**
+     * The old DBManager.matrixSearch(), before it used MatrixPatternMatcher.
+     * @param pattern two-dimensional ArrayList that represents a linear notation of an input
+     * @param matrix two-dimensional ArrayList that represents a linear notation of a protein graph
+     * @return array with the two indices where the pattern was found in the matrix. If the pattern was not found, return [-1, 0]
+     */
+    private static int[] oldMatrixSearch(ArrayList<ArrayList<Character>> pattern, ArrayList<ArrayList<Character>> matrix) {
+        int[] output_array = new int[2];
+
+        //go through every position in half of the matrix, where you can place the pattern without overlap
+        for (int x = 0; x <= matrix.size() - pattern.size(); x++) {
+            for (int y = 0; y <= x; y++) {
+                int i;
+                int j = 0;
+
+                //go through the pattern and try to find a match
+                outerloop:
+                for (i = 0; i < pattern.size(); i++) {
+                    for (j = 0; j <= i; j++) {
+                        if ( ! Objects.equals(matrix.get(x + i).get(y + j), pattern.get(i).get(j))) {
+                            break outerloop;
+                        }
+                    }
+                }
+                if (i == j && j == pattern.size()) {
+                    output_array[0] = x;
+                    output_array[1] = y;
+                    return (output_array);
+                }
+            }
+        }
+        output_array[0] = -1;
+        return (output_array);
+    }
+
+
+    /**
+     * Finds all matches by comparing the pattern at every position, in the order of the old search.
+     * @param pattern the pattern
+     * @param matrix the matrix
+     * @return the positions {x, y}
+     */
+    private static List<int[]> allMatchesByComparing(ArrayList<ArrayList<Character>> pattern, ArrayList<ArrayList<Character>> matrix) {
+        List<int[]> found = new ArrayList<>();
+        if (pattern.isEmpty()) {
+            found.add(new int[] { 0, 0 });
+            return found;
+        }
+        for (int x = 0; x + pattern.size() <= matrix.size(); x++) {
+            for (int y = 0; y <= x; y++) {
+                boolean match = true;
+                for (int i = 0; i < pattern.size() && match; i++) {
+                    for (int j = 0; j <= i; j++) {
+                        if ( ! Objects.equals(matrix.get(x + i).get(y + j), pattern.get(i).get(j))) {
+                            match = false;
+                            break;
+                        }
+                    }
+                }
+                if (match) {
+                    found.add(new int[] { x, y });
+                }
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * Creates a random matrix of characters.
+     * @param n the size
+     * @param numCellValues the number of different cell values used, 1 to 4. Few values lead to many matches.
+     * @return the matrix
+     */
+    private ArrayList<ArrayList<Character>> randomMatrix(int n, int numCellValues) {
+        ArrayList<ArrayList<Character>> m = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ArrayList<Character> row = new ArrayList<>();
+            for (int j = 0; j < n; j++) {
+                row.add(CELL_CHARS.charAt(random.nextInt(numCellValues)));
+            }
+            m.add(row);
+        }
+        return m;
+    }
+
+
+    /**
+     * Creates a matrix of characters from its rows.
+     * @param rows the rows, e.g., "xa", "ax"
+     * @return the matrix
+     */
+    private static ArrayList<ArrayList<Character>> matrix(String... rows) {
+        ArrayList<ArrayList<Character>> m = new ArrayList<>();
+        for (String r : rows) {
+            ArrayList<Character> row = new ArrayList<>();
+            for (char c : r.toCharArray()) {
+                row.add(c);
+            }
+            m.add(row);
+        }
+        return m;
+    }
+
+
+    /**
+     * Asserts that the matcher finds the same first match as the old search, and all matches found by comparing at every position.
+     * @param pattern the pattern
+     * @param matrix the matrix
+     * @return all matches
+     */
+    private static List<int[]> assertSameAsOldSearch(ArrayList<ArrayList<Character>> pattern, ArrayList<ArrayList<Character>> matrix) {
+        MatrixPatternMatcher matcher = MatrixPatternMatcher.compile(NotationMatrix.fromCharMatrix(pattern));
+        NotationMatrix m = NotationMatrix.fromCharMatrix(matrix);
+        int[] expectedFirst = oldMatrixSearch(pattern, matrix);
+        String msg = "Search of " + pattern + " in " + matrix + ".";
+        assertTrue(msg, Arrays.equals(expectedFirst, matcher.findFirst(m)));
+        assertEquals(msg, expectedFirst[0] >= 0, matcher.occursIn(m));
+
+        List<int[]> expectedAll = allMatchesByComparing(pattern, matrix);
+        List<int[]> all = matcher.findAll(m);
+        assertEquals(msg, expectedAll.size(), all.size());
+        for (int k = 0; k < all.size(); k++) {
+            assertTrue(msg, Arrays.equals(expectedAll.get(k), all.get(k)));
+        }
+        return all;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests random patterns in random matrices. With few cell values, the patterns occur often and at overlapping positions.
+     */
+    @org.junit.Test public void testRandomMatrices() {
+        for (int it = 0; it < 20000; it++) {
+            int numCellValues = 1 + random.nextInt(4);
+            ArrayList<ArrayList<Character>> matrix = randomMatrix(random.nextInt(12), numCellValues);
+            ArrayList<ArrayList<Character>> pattern = randomMatrix(random.nextInt(5), numCellValues);
+            assertSameAsOldSearch(pattern, matrix);
+        }
+    }
+
+
+    /**
+     * Tests patterns cut from the matrix, which occur at least once.
+     */
+    @org.junit.Test public void testPatternsFromTheMatrix() {
+        for (int it = 0; it < 2000; it++) {
+            int n = 2 + random.nextInt(10);
+            ArrayList<ArrayList<Character>> matrix = randomMatrix(n, 1 + random.nextInt(4));
+            int p = 1 + random.nextInt(n);
+            int x = random.nextInt(n - p + 1);
+            int y = random.nextInt(x + 1);
+            ArrayList<ArrayList<Character>> pattern = new ArrayList<>();
+            for (int i = 0; i < p; i++) {
+                pattern.add(new ArrayList<>(matrix.get(x + i).subList(y, y + p)));
+            }
+            assertFalse(assertSameAsOldSearch(pattern, matrix).isEmpty());
+        }
+    }
+
+
+    /**
+     * Tests patterns whose rows repeat each other, e.g., all rows the same prefix, so several pattern rows end in the same matrix cell.
+     */
+    @org.junit.Test public void testRepeatedPatterns() {
+        ArrayList<ArrayList<Character>> allA = matrix("aaaaaa", "aaaaaa", "aaaaaa", "aaaaaa", "aaaaaa", "aaaaaa");
+        List<int[]> all = assertSameAsOldSearch(matrix("aaa", "aaa", "aaa"), allA);
+        assertEquals(4 * 5 / 2, all.size());        // x in 0..3, y in 0..x
+
+        ArrayList<ArrayList<Character>> sequential = NotationMatrix.parse("[1a,1a,1a,1a,1a,1a,1a]", "alpha").toCharMatrix();
+        assertSameAsOldSearch(NotationMatrix.parse("[1a,1a]", "alpha").toCharMatrix(), sequential);
+        assertSameAsOldSearch(NotationMatrix.parse("[1a,1a,1a,1a,1a,1a,1a,1a]", "alpha").toCharMatrix(), sequential);     // larger than the matrix
+        assertSameAsOldSearch(matrix("xa", "ax"), matrix("xax", "axa", "xax"));
+        assertSameAsOldSearch(matrix("ax", "xa"), matrix("aaa", "aaa", "aaa"));
+    }
+
+
+    /**
+     * Tests overlapping matches of a pattern in the notation of a helix bundle, which overlap in all but one row.
+     */
+    @org.junit.Test public void testOverlappingMatches() {
+        ArrayList<ArrayList<Character>> matrix = NotationMatrix.parse("[1a,1a,1a,1a,1a]", "alpha").toCharMatrix();
+        ArrayList<ArrayList<Character>> pattern = NotationMatrix.parse("[1a,1a]", "alpha").toCharMatrix();
+        List<int[]> all = assertSameAsOldSearch(pattern, matrix);
+        assertEquals(4, all.size());
+        for (int k = 0; k < all.size(); k++) {
+            assertEquals(k, all.get(k)[0]);
+            assertEquals(k, all.get(k)[1]);
+        }
+    }
+
+
+    /**
+     * Tests empty patterns and patterns of one vertex, which compare a single cell of the lower triangle.
+     */
+    @org.junit.Test public void testEmptyAndOneVertexPatterns() {
+        ArrayList<ArrayList<Character>> empty = new ArrayList<>();
+        ArrayList<ArrayList<Character>> matrix = matrix("xa", "ax");
+        assertTrue(Arrays.equals(new int[] { 0, 0 }, MatrixPatternMatcher.compile(NotationMatrix.fromCharMatrix(empty)).findFirst(NotationMatrix.fromCharMatrix(matrix))));
+        assertSameAsOldSearch(empty, matrix);
+        assertSameAsOldSearch(empty, empty);
+
+        ArrayList<ArrayList<Character>> oneVertex = NotationMatrix.parse("[e]", "albe").toCharMatrix();
+        assertEquals(2, assertSameAsOldSearch(oneVertex, matrix).size());           // (0,0) and (1,1)
+        assertTrue(assertSameAsOldSearch(oneVertex, empty).isEmpty());
+        assertEquals(1, assertSameAsOldSearch(matrix("a"), matrix).size());                   // (1,0)
+        assertEquals(2, assertSameAsOldSearch(matrix("a"), matrix("xxx", "axx", "xax")).size());
+        assertEquals(0, MatrixPatternMatcher.compile(NotationMatrix.fromCharMatrix(empty)).getPatternSize());
+    }
+}
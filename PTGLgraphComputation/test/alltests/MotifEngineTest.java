@@ -0,0 +1,286 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.DBManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import junit.framework.TestCase;
+import motifs.MotifEngine;
+import motifs.Motifs;
+import settings.Settings;
+
+/**
+ * Unit test class for the motif rules of MotifEngine which are evaluated in Java: four helix bundle, globin fold and ferredoxin fold.
+ * Their results must be those of the old chainContainsMotif_* methods of DBManager, which selected the notations of a chain with SQL and
+ * then ran the matrix tests on them. The SQL of these methods is evaluated on the notations by the reference functions of this class.
+ * The rules which still query the database are only run for candidate chains, which must be those selected by their first query.
+ */
+public class MotifEngineTest extends TestCase {
+
+    private static final int ALPHA = MotifEngine.ChainNotations.GRAPHTYPE_ALPHA;
+    private static final int BETA = MotifEngine.ChainNotations.GRAPHTYPE_BETA;
+    private static final int ALBE = MotifEngine.ChainNotations.GRAPHTYPE_ALBE;
+
+    private static final String SEQ_8_HELICES = "[h,1h,1h,1h,1h,1h,1h,1h]";
+
+    private List<List<MotifEngine.FoldingGraphNotations>> chains;
+
+    /**
+     * Sets up the notations of chains which contain a motif, and of chains which only come close to it.
+     */
+    @Override @org.junit.Before public void setUp() {
+        chains = new ArrayList<>();
+
+        // four helix bundle
+        chains.add(chain(fg(ALPHA, 0, "[1a,1a,1a]", "[h,1h,1h,1h]")));                     // antiparallel
+        chains.add(chain(fg(ALPHA, 0, "[1p,1a,1p]", "[h,1h,1h,1h]")));                     // parallel
+        chains.add(chain(fg(ALPHA, 0, "[2a,-1a,2a]", "[h,1h,1h,1h]")));
+        chains.add(chain(fg(ALPHA, 0, "[1m,1m,1m]", "[h,1h,1h,1h]")));
+        chains.add(chain(fg(ALPHA, 0, "[1a,1a,1a,1a,1a,1a,1a]", SEQ_8_HELICES)));          // alpha horseshoe
+        chains.add(chain(fg(ALPHA, 0, "[1a,1a,1a,8m]", "[h,1h,1h,1h,8h]")));               // too large
+        chains.add(chain(fg(BETA, 0, "[1a,1a,1a]", "[e,1e,1e,1e]")));                      // not an alpha graph
+        chains.add(chain(fg(ALPHA, 0, "[h]", "[h]"), fg(ALPHA, 1, "[]", "[]"), fg(ALPHA, 2, "[1a,2a,-1a]", "[h,1h,1h,1h]")));
+
+        // globin fold
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah,-1ah]", SEQ_8_HELICES)));
+        chains.add(chain(fg(ALPHA, 0, "[7a,-2a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah,-2ah]", SEQ_8_HELICES)));
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a]", SEQ_8_HELICES), fg(ALBE, 1, "[h,7ah,-1ah]", SEQ_8_HELICES)));                   // other folding graph
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah,-1ah]", "[h,1h,1e,1h,1h,1h,1h,1h]")));       // not only helices
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah,-1ah]", "[h,1h,1h]")));                     // too few helices
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah,-1ah]", "[h,10h,1h,1h,1h]")));              // distance of 2 digits
+        chains.add(chain(fg(ALPHA, 0, "[1m,1m,1m,1m,1m,1m,1a]", SEQ_8_HELICES), fg(ALBE, 0, "[h,1mh,1mh]", SEQ_8_HELICES), fg(ALBE, 0, "[h,1mh]", SEQ_8_HELICES)));
+        chains.add(chain(fg(ALPHA, 0, "[1a,7a,-1a]", "[h,1h,7h]"), fg(ALBE, 0, "[h,1ah,7ah]", SEQ_8_HELICES)));
+        chains.add(chain(fg(ALPHA, 0, "[7a,-1a,4m]", SEQ_8_HELICES), fg(ALBE, 0, "[h,7ah]", SEQ_8_HELICES)));                     // too large
+
+        // ferredoxin fold
+        chains.add(chain(fg(ALBE, 0, "[e,3ae,-1ae]", "[e,1h,1e,1e,1h,1e]")));
+        chains.add(chain(fg(ALBE, 0, "[h,2me,3ae,-1ae,1mh]", "[h,1e,1h,1e,1e,1h,1e,2h]")));
+        chains.add(chain(fg(ALBE, 0, "[e,1ae]", "[e,1h,1e,1e,1h,1e]"), fg(ALBE, 1, "[e,3ae,-1ae]", "[e,1e]")));                   // split over 2 folding graphs
+        chains.add(chain(fg(BETA, 0, "[e,3ae,-1ae]", "[e,1h,1e,1e,1h,1e]")));                                                     // the graph type is not checked
+        chains.add(chain(fg(ALBE, 0, null, "[e,1h,1e,1e,1h,1e]")));
+        chains.add(chain(fg(ALBE, 0, "[e,3ae,-1ae]", "[e,1h,1e,1e,2h,1e]")));
+    }
+
+
+    /**
+     * Creates the notations of a folding graph.
+     * @param graphType the graph type code
+     * @param fgNumber the folding graph number
+     * @param adj the ADJ notation
+     * @param seq the SEQ notation
+     * @return the notations
+     */
+    private static MotifEngine.FoldingGraphNotations fg(int graphType, int fgNumber, String adj, String seq) {
+        return new MotifEngine.FoldingGraphNotations(graphType, fgNumber, adj, seq);
+    }
+
+
+    /**
+     * Collects the folding graph notations of a chain.
+     * @param fgs the notations
+     * @return the list
+     */
+    private static List<MotifEngine.FoldingGraphNotations> chain(MotifEngine.FoldingGraphNotations... fgs) {
+        return new ArrayList<>(Arrays.asList(fgs));
+    }
+
+
+    /**
+     * Evaluates an SQL LIKE or SIMILAR TO pattern like PostgreSQL does. A null value never matches.
+     * @param value the value
+     * @param pattern the pattern, with the wildcards '%' and '_' and, for SIMILAR TO, the class [[:digit:]]
+     * @return whether the whole value matches
+     */
+    private static boolean sqlMatches(String value, String pattern) {
+        if (value == null) {
+            return false;
+        }
+        String regex = pattern.replace("[[:digit:]]", "[0-9]").replace("%", ".*").replace("_", ".");
+        return value.matches(regex);
+    }
+
+
+    /**
+     * The old chainContainsMotif_FourHelixBundle(): the ADJ notations of the alpha graphs, then matrixContainsFourHelixBundle().
+     * @param chain the notations of the chain
+     * @return whether the chain contains the motif
+     */
+    private static boolean oldFourHelixBundle(List<MotifEngine.FoldingGraphNotations> chain) {
+        // WHERE ( c.chain_id = ? AND (pg.graph_type = 1) )
+        ArrayList<ArrayList<ArrayList<Character>>> matrixList = new ArrayList<>();
+        for (MotifEngine.FoldingGraphNotations n : chain) {
+            if (n.graphType == 1 && n.adj.length() > 2) {
+                matrixList.add(DBManager.parseRedOrAdjToMatrix(n.adj, "alpha"));
+            }
+        }
+        return DBManager.matrixContainsFourHelixBundle(matrixList);
+    }
+
+
+    /**
+     * The old chainContainsMotif_GlobinFold(): the join of the ADJ notations of the alpha graphs with the SEQ notations of the albe graphs
+     * of the same folding graph number which consist of helices only, then matrixContainsGlobinFold() on those with at least 8 vertices.
+     * @param chain the notations of the chain
+     * @return whether the chain contains the motif
+     */
+    private static boolean oldGlobinFold(List<MotifEngine.FoldingGraphNotations> chain) {
+        // tbl1 join tbl2 on the folding graph number, grouped by (linnot_adj, linnot_seq)
+        Set<List<String>> rows = new LinkedHashSet<>();
+        for (MotifEngine.FoldingGraphNotations alpha : chain) {
+            if (alpha.graphType != 1) {
+                continue;
+            }
+            for (MotifEngine.FoldingGraphNotations albe : chain) {
+                if (albe.graphType == 3 && albe.fgNumber == alpha.fgNumber && sqlMatches(albe.seq, "_h(,([[:digit:]])h)*_")) {
+                    rows.add(Arrays.asList(alpha.adj, albe.seq));
+                }
+            }
+        }
+
+        ArrayList<ArrayList<ArrayList<Character>>> matrixList = new ArrayList<>();
+        for (List<String> row : rows) {
+            if (row.get(0).length() > 2 && DBManager.getNumVerticesFromLinnotSeq(new ArrayList<>(Arrays.asList(row.get(1)))) >= 8) {
+                matrixList.add(DBManager.parseRedOrAdjToMatrix(row.get(0), "alpha"));
+            }
+        }
+        return DBManager.matrixContainsGlobinFold(matrixList);
+    }
+
+
+    /**
+     * The old chainContainsMotif_FerredoxinFold(): a folding graph whose SEQ and ADJ notations match the LIKE patterns.
+     * @param chain the notations of the chain
+     * @return whether the chain contains the motif
+     */
+    private static boolean oldFerredoxinFold(List<MotifEngine.FoldingGraphNotations> chain) {
+        for (MotifEngine.FoldingGraphNotations n : chain) {
+            if (sqlMatches(n.seq, "%e,1h,1e,1e,1h,1e%") && sqlMatches(n.adj, "%e,3ae,-1ae%")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Evaluates a motif on all chains and compares it to the old rule.
+     * @param motifCode the motif code
+     * @param oldRule the old rule
+     * @return for each chain, whether it contains the motif
+     */
+    private boolean[] assertSameAsOldRule(Integer motifCode, java.util.function.Predicate<List<MotifEngine.FoldingGraphNotations>> oldRule) {
+        boolean[] found = new boolean[chains.size()];
+        for (int c = 0; c < chains.size(); c++) {
+            found[c] = MotifEngine.containsMotif(motifCode, new MotifEngine.ChainNotations((long) c, chains.get(c)));
+            assertEquals("Wrong result for chain #" + c + ".", oldRule.test(chains.get(c)), found[c]);
+        }
+        return found;
+    }
+
+
+    /**
+     * Counts the chains which contain a motif.
+     * @param found for each chain, whether it contains the motif
+     * @return the number of chains
+     */
+    private static int count(boolean[] found) {
+        int n = 0;
+        for (boolean f : found) {
+            if (f) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests the four helix bundle.
+     */
+    @org.junit.Test public void testFourHelixBundle() {
+        boolean[] found = assertSameAsOldRule(Motifs.MOTIFCODE__FOUR_HELIX_BUNDLE, MotifEngineTest::oldFourHelixBundle);
+        assertTrue(found[0]);
+        assertTrue(found[1]);
+        assertFalse(found[3]);
+        assertFalse(found[4]);
+        assertFalse(found[5]);
+        assertFalse(found[6]);
+        assertTrue(count(found) < chains.size());
+    }
+
+
+    /**
+     * Tests the globin fold.
+     */
+    @org.junit.Test public void testGlobinFold() {
+        boolean[] found = assertSameAsOldRule(Motifs.MOTIFCODE__GLOBIN_FOLD, MotifEngineTest::oldGlobinFold);
+        assertTrue(found[8]);
+        assertTrue(found[9]);
+        for (int c = 10; c <= 13; c++) {
+            assertFalse("Chain #" + c + " contains no globin fold.", found[c]);
+        }
+        assertFalse(found[16]);
+    }
+
+
+    /**
+     * Tests the ferredoxin fold.
+     */
+    @org.junit.Test public void testFerredoxinFold() {
+        boolean[] found = assertSameAsOldRule(Motifs.MOTIFCODE__FERREDOXIN_FOLD, MotifEngineTest::oldFerredoxinFold);
+        assertTrue(found[17]);
+        assertTrue(found[18]);
+        assertFalse(found[19]);
+        assertTrue(found[20]);
+        assertFalse(found[21]);
+        assertFalse(found[22]);
+        assertEquals(3, count(found));
+    }
+
+
+    /**
+     * Tests a chain without notations and an unknown motif code.
+     */
+    @org.junit.Test public void testNoMotif() {
+        MotifEngine.ChainNotations empty = new MotifEngine.ChainNotations(1L, new ArrayList<MotifEngine.FoldingGraphNotations>());
+        assertFalse(MotifEngine.containsMotif(Motifs.MOTIFCODE__FOUR_HELIX_BUNDLE, empty));
+        assertFalse(MotifEngine.containsMotif(Motifs.MOTIFCODE__GLOBIN_FOLD, empty));
+        assertFalse(MotifEngine.containsMotif(Motifs.MOTIFCODE__FERREDOXIN_FOLD, empty));
+        assertFalse(MotifEngine.containsMotif(-1, new MotifEngine.ChainNotations(1L, chains.get(0))));
+    }
+
+
+    /**
+     * Tests the candidate chains of the TIM barrel, alpha-beta plait and ubiquitin roll: a chain is a candidate if one of its RED notations
+     * is selected by the WHERE clause of the first query of the chainContainsMotif_* method in DBManager.
+     */
+    @org.junit.Test public void testCandidatesOfSqlRules() {
+        Settings.init();
+        String[] reds = { null, "[e,1a,-2p,3a]", "[e,1a,-2a,3a]", "[e,-1a,-2a,3a]", "[e,-1a,-2p,3a]", "[e,-1a,3p,-1a]", "[e,1p,3p,-1a]",
+            "[e,1p,1p,1p,1p,1p,1p,1p]", "[e,-1p,1p,1p,1p,1p,1p,1p]", "[e,1p,1p,1p,1p,1p,1a]", "[h,1mh,1me,1me,1me,1me,1me,1me,1me]" };
+        for (String red : reds) {
+            MotifEngine.ChainNotations c = new MotifEngine.ChainNotations(1L, chain(fg(ALBE, 0, "[e]", "[e]"),
+                    new MotifEngine.FoldingGraphNotations(BETA, 0, "[e]", "[e]", red)));
+
+            boolean tim = sqlMatches(red, "%1_,1_,1_,1_,1_,1_,1_%") && ! sqlMatches(red, "%-1_,1_,1_,1_,1_,1_,1_%");
+            assertEquals("Wrong TIM barrel candidate " + red + ".", Settings.getBoolean("PTGLgraphComputation_B_compute_tim") && tim,
+                    MotifEngine.isCandidate(Motifs.MOTIFCODE__TIM_BARREL, c));
+            boolean plait = sqlMatches(red, "%1a,-2p,3a%") || (sqlMatches(red, "%1a,-2a,3a%") && ! sqlMatches(red, "%-1a,-2_,3a%"));
+            assertEquals("Wrong alpha-beta plait candidate " + red + ".", plait, MotifEngine.isCandidate(Motifs.MOTIFCODE__ALPHA_BETA_PLAIT, c));
+            boolean ubiquitin = sqlMatches(red, "%-1a,3p,-1a%");
+            assertEquals("Wrong ubiquitin roll candidate " + red + ".", ubiquitin, MotifEngine.isCandidate(Motifs.MOTIFCODE__UBIQUITIN_ROLL, c));
+        }
+        assertTrue(MotifEngine.isCandidate(Motifs.MOTIFCODE__FERREDOXIN_FOLD, new MotifEngine.ChainNotations(1L, chain())));
+        assertFalse(MotifEngine.isCandidate(-1, new MotifEngine.ChainNotations(1L, chain())));
+    }
+}
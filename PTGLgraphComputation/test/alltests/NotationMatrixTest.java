@@ -0,0 +1,217 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import java.util.ArrayList;
+import java.util.Random;
+import junit.framework.TestCase;
+import motifs.NotationMatrix;
+
+/**
+ * Unit test class for NotationMatrix: parsing a linear notation must give the matrix of the old parser of DBManager.parseRedOrAdjToMatrix(),
+ * which is kept here as a reference.
+ */
+public class NotationMatrixTest extends TestCase {
+
+    private Random random;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() {
+        random = new Random(24);
+    }
+
+
+    /**
+     * The old DBManager.parseRedOrAdjToMatrix(), before it used NotationMatrix.
+     * @param ln a String of the linear notation (RED or ADJ)
+     * @param graphtype the graph type, "alpha", "beta" or "albe"
+     * @return the adjacency matrix
+     */
+    private static ArrayList<ArrayList<Character>> oldParseRedOrAdjToMatrix(String ln, String graphtype) {
+        ArrayList<ArrayList<Character>> matrix = new ArrayList<>();
+
+        //do nothing, if linear notation is empty ( {}, [], () )
+        if (ln.length() <= 2) {
+            return matrix;
+        }
+        //return matrix = [[x]], if linear notation contains only one entry ( [e], [h] )
+        if (ln.length() == 3) {
+            ArrayList<Character> row1 = new ArrayList<>();
+            row1.add('x');
+            matrix.add(row1);
+            return matrix;
+        }
+
+        ln = ln.replace("{", "").replace("}", "").replace("(", "").replace(")", "").replace("[", "").replace("]", "");
+        int minVal = 0;
+        int maxVal = 0;
+        String[] linnot = ln.split(",");
+        int[] myArray = new int[3];     // from, to, edge type: 0 = mixed, 1 = parallel, 2 = antiparallel, 3 = z
+        ArrayList<int[]> myListArray = new ArrayList<>();
+        boolean alphaOrBeta = "alpha".equals(graphtype) || "beta".equals(graphtype);
+
+        myArray[0] = 0;
+        if (alphaOrBeta) {
+            myArray[1] = Integer.parseInt(linnot[0].substring(0, linnot[0].length() - 1));
+        } else {
+            myArray[1] = Integer.parseInt(linnot[1].substring(0, linnot[1].length() - 2));
+        }
+        maxVal = Math.max(maxVal, myArray[1]);
+        minVal = Math.min(minVal, myArray[1]);
+        int origin = myArray[1];
+
+        String edgetype_substr = (alphaOrBeta ? linnot[0].substring(linnot[0].length() - 1) : linnot[1].substring(linnot[1].length() - 2, linnot[1].length() - 1));
+        myArray[2] = oldEdgeType(edgetype_substr, myArray[2]);
+        myListArray.add(myArray.clone());
+
+        int start_index = (alphaOrBeta ? 1 : 2);
+        int index_shift = (alphaOrBeta ? 1 : 2);
+        for (int i = start_index; i < linnot.length; i++) {
+            myArray[0] = origin;
+            myArray[1] = origin + Integer.parseInt(linnot[i].substring(0, linnot[i].length() - index_shift));
+            origin = myArray[1];
+            edgetype_substr = (alphaOrBeta ? linnot[i].substring(linnot[i].length() - 1) : linnot[i].substring(linnot[i].length() - 2, linnot[i].length() - 1));
+            myArray[2] = oldEdgeType(edgetype_substr, myArray[2]);
+            myListArray.add(myArray.clone());
+            maxVal = Math.max(maxVal, myArray[1]);
+            minVal = Math.min(minVal, myArray[1]);
+        }
+
+        int numVertices = (maxVal - minVal) + 1;
+        for (int i = 0; i < numVertices; i++) {
+            ArrayList<Character> row = new ArrayList<>();
+            for (int j = 0; j < numVertices; j++) {
+                row.add('x');
+            }
+            matrix.add(row);
+        }
+
+        char[] edgeChars = { 'm', 'p', 'a' };
+        for (int[] s : myListArray) {
+            if (s[2] != 3) {
+                matrix.get(s[0] + Math.abs(minVal)).set(s[1] + Math.abs(minVal), edgeChars[s[2]]);
+                matrix.get(s[1] + Math.abs(minVal)).set(s[0] + Math.abs(minVal), edgeChars[s[2]]);
+            }
+        }
+        return matrix;
+    }
+
+
+    /**
+     * The edge type switch of the old parser: an unknown edge type keeps the previous one.
+     * @param edgetype_substr the edge type character
+     * @param previous the previous edge type
+     * @return the edge type code
+     */
+    private static int oldEdgeType(String edgetype_substr, int previous) {
+        switch (edgetype_substr) {
+            case "m":
+                return 0;
+            case "p":
+                return 1;
+            case "a":
+                return 2;
+            case "z":
+                return 3;
+            default:
+                return previous;
+        }
+    }
+
+
+    /**
+     * Creates a random linear notation.
+     * @param gt the graph type, the SSE types are only part of albe notations
+     * @return the notation, with 1 to 8 edges
+     */
+    private String randomNotation(String gt) {
+        int n = 1 + random.nextInt(8);
+        StringBuilder sb = new StringBuilder("[");
+        if (gt.equals("albe")) {
+            sb.append(random.nextBoolean() ? "e" : "h").append(",");
+        }
+        for (int i = 0; i < n; i++) {
+            int d = random.nextInt(7) - 3;
+            sb.append(d == 0 ? 1 : d).append("mpaz".charAt(random.nextInt(random.nextInt(10) == 0 ? 4 : 3)));
+            if (gt.equals("albe")) {
+                sb.append(random.nextBoolean() ? "e" : "h");
+            }
+            if (i < n - 1) {
+                sb.append(",");
+            }
+        }
+        return sb.append("]").toString();
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests parsing random notations of all graph types, including backward edges, edges out of the plane (z) and vertices visited twice.
+     */
+    @org.junit.Test public void testParseRandomNotations() {
+        String[] graphTypes = { "alpha", "beta", "albe" };
+        for (int it = 0; it < 3000; it++) {
+            String gt = graphTypes[it % graphTypes.length];
+            String ln = randomNotation(gt);
+            assertEquals("Wrong matrix for " + gt + " notation " + ln + ".", oldParseRedOrAdjToMatrix(ln, gt), NotationMatrix.parse(ln, gt).toCharMatrix());
+        }
+    }
+
+
+    /**
+     * Tests the notations of the old motif rules, e.g., the four helix bundle and the ferredoxin fold.
+     */
+    @org.junit.Test public void testParseMotifNotations() {
+        String[][] notations = { { "[1a,1a,1a]", "alpha" }, { "[7a,-1a]", "alpha" }, { "[1p,1a,1p]", "alpha" }, { "[3p,-1p,-1p]", "beta" },
+            { "[-1p,-1p,3p]", "beta" }, { "[e,3ae,-1ae]", "albe" }, { "[h,2me,3ae,-1ae,1mh]", "albe" }, { "{1a,1a,1a}", "beta" }, { "(2z,-1a)", "beta" } };
+        for (String[] n : notations) {
+            assertEquals("Wrong matrix for " + n[0] + ".", oldParseRedOrAdjToMatrix(n[0], n[1]), NotationMatrix.parse(n[0], n[1]).toCharMatrix());
+        }
+        NotationMatrix m = NotationMatrix.parse("[7a,-1a]", "alpha");
+        assertEquals(8, m.size());
+        assertEquals(NotationMatrix.ANTIPARALLEL, m.get(0, 7));
+        assertEquals(NotationMatrix.ANTIPARALLEL, m.get(6, 7));
+        assertEquals(NotationMatrix.ANTIPARALLEL, m.get(7, 6));
+        assertEquals(NotationMatrix.NONE, m.get(0, 1));
+    }
+
+
+    /**
+     * Tests empty notations and notations of a single vertex.
+     */
+    @org.junit.Test public void testEmptyAndOneVertex() {
+        for (String ln : new String[] { "", "[]", "{}", "()" }) {
+            assertEquals(0, NotationMatrix.parse(ln, "beta").size());
+            assertEquals(oldParseRedOrAdjToMatrix(ln, "beta"), NotationMatrix.parse(ln, "beta").toCharMatrix());
+        }
+        for (String ln : new String[] { "[e]", "[h]", "{e}" }) {
+            NotationMatrix m = NotationMatrix.parse(ln, "albe");
+            assertEquals(1, m.size());
+            assertEquals(NotationMatrix.NONE, m.get(0, 0));
+            assertEquals(oldParseRedOrAdjToMatrix(ln, "albe"), m.toCharMatrix());
+        }
+    }
+
+
+    /**
+     * Tests converting from and to the character matrices of DBManager.
+     */
+    @org.junit.Test public void testCharMatrixRoundTrip() {
+        for (int it = 0; it < 200; it++) {
+            String ln = randomNotation("beta");
+            ArrayList<ArrayList<Character>> chars = NotationMatrix.parse(ln, "beta").toCharMatrix();
+            assertEquals(chars, NotationMatrix.fromCharMatrix(chars).toCharMatrix());
+        }
+        ArrayList<ArrayList<Character>> unknown = new ArrayList<>();
+        unknown.add(new ArrayList<>(java.util.Arrays.asList('?')));
+        assertEquals(NotationMatrix.NONE, NotationMatrix.fromCharMatrix(unknown).get(0, 0));
+        assertTrue(NotationMatrix.fromCharMatrix(new ArrayList<ArrayList<Character>>()).toCharMatrix().isEmpty());
+    }
+}
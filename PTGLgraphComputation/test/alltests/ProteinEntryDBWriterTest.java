@@ -0,0 +1,203 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.ProteinEntryDBWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+import proteinstructure.SSE;
+
+/**
+ * Unit test class for ProteinEntryDBWriter, on a fake JDBC driver (see FakeJdbc), because there is no database server in the test environment.
+ * The fake database holds chain A (ID 7) of the entry 7tim with the SSEs starting at the DSSP residues 10 (ID 100) and 20 (ID 200).
+ * Its graph ID sequence returns two IDs per query, starting at 501.
+ */
+public class ProteinEntryDBWriterTest extends TestCase {
+
+    // the table names of DBManager
+    private static final String TBL_PROTEIN_GRAPH = "plcc_graph";
+    private static final String TBL_SSE_TO_PROTEIN_GRAPH = "plcc_nm_ssetoproteingraph";
+    private static final String TBL_SSE_TO_FOLDING_GRAPH = "plcc_nm_ssetofoldinggraph";
+    private static final String TBL_SECONDAT = "plcc_secondat";
+
+    private Connection con;
+    private ProteinEntryDBWriter writer;
+    private List<String> queries;
+    private long nextGraphID;
+    private SSE sse10, sse20, sse30;
+
+    /**
+     * Sets up the test environment and object.
+     */
+    @Override @org.junit.Before public void setUp() throws SQLException {
+        FakeJdbc.reset();
+        queries = new ArrayList<>();
+        nextGraphID = 501L;
+        FakeJdbc.setQueryHandler(query -> {
+            queries.add(query);
+            if (query.startsWith("SELECT chain_name, chain_id")) {
+                return Arrays.<Object[]>asList(new Object[] { "A", 7L });
+            }
+            if (query.startsWith("SELECT dssp_start, sse_id")) {
+                return Arrays.asList(new Object[] { 10, 100L }, new Object[] { 20, 200L });
+            }
+            if (query.startsWith("SELECT nextval")) {
+                nextGraphID += 2;
+                return Arrays.asList(new Object[] { nextGraphID - 2 }, new Object[] { nextGraphID - 1 });
+            }
+            return new ArrayList<>();
+        });
+        con = DriverManager.getConnection(FakeJdbc.URL);
+        writer = new ProteinEntryDBWriter("7tim", con);
+        sse10 = createSSE(SSE.SSE_TYPE_ALPHA_HELIX, 10);
+        sse20 = createSSE(SSE.SSE_TYPE_BETASTRAND, 20);
+        sse30 = createSSE(SSE.SSE_TYPE_BETASTRAND, 30);     // not in the DB
+    }
+
+
+    @Override @org.junit.After public void tearDown() throws SQLException {
+        con.close();
+    }
+
+
+    /**
+     * Creates an SSE which starts at the given DSSP residue.
+     * @param sseType the SSE type
+     * @param dsspStart the DSSP number of the first residue
+     * @return the SSE
+     */
+    private static SSE createSSE(String sseType, int dsspStart) {
+        return new SSE(sseType) {
+            @Override public Integer getStartDsspNum() {
+                return dsspStart;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the log entries of batches whose statement contains the given text.
+     * @param text the text, e.g., a table name
+     * @return the log entries
+     */
+    private static List<String> getBatches(String text) {
+        List<String> batches = new ArrayList<>();
+        for (String entry : FakeJdbc.getLog()) {
+            if (entry.contains(" BATCH ") && entry.contains(text)) {
+                batches.add(entry);
+            }
+        }
+        return batches;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests whether the assignments are collected and written in one batch per table, and whether the chain and SSE IDs are read once.
+     */
+    @org.junit.Test public void testAssignmentsAreBatched() throws SQLException {
+        assertEquals(2, writer.assignSSEsToProteinGraph(Arrays.asList(sse10, sse20), "A", 55L));
+        assertEquals(2, writer.assignSSEsToProteinGraph(Arrays.asList(sse20, sse10, sse30), "A", 56L));
+        assertEquals(2, writer.assignSSEsToFoldingGraph(Arrays.asList(sse20, sse10), "A", 9L, "albe", 0, "A"));
+        assertTrue("Rows were written before flush().", getBatches("").isEmpty());
+        assertEquals(7L, (long) writer.getChainID("A"));
+        assertEquals(200L, (long) writer.getSSEID(7L, 20));
+
+        ProteinEntryDBWriter.WrittenRows written = writer.flush();
+        assertEquals(4, written.getNumProteinGraphAssignments());
+        assertEquals(2, written.getNumFoldingGraphAssignments(9L));
+        assertEquals(2, written.getNumSecondatUpdates(9L));
+        assertEquals(8, written.getTotal());
+
+        assertEquals(Arrays.asList("con1 BATCH 4 INSERT INTO " + TBL_SSE_TO_PROTEIN_GRAPH + " (sse_id, graph_id, position_in_graph) VALUES (?, ?, ?);"), getBatches(TBL_SSE_TO_PROTEIN_GRAPH));
+        assertEquals(1, getBatches(TBL_SSE_TO_FOLDING_GRAPH).size());
+        assertEquals(1, getBatches("albe_fg_number").size());
+        assertTrue(getBatches("albe_fg_number").get(0).startsWith("con1 BATCH 2 UPDATE " + TBL_SECONDAT));
+
+        // one query for the chains, one for the SSEs of the chain, and one more for the SSE which is not in the DB
+        assertEquals(3, queries.size());
+
+        // the rows are written only once
+        FakeJdbc.clearLog();
+        assertEquals(0, writer.flush().getTotal());
+        assertTrue(getBatches("").isEmpty());
+    }
+
+
+    /**
+     * Tests whether the counts are those reported by the DB: secondat rows which do not exist are not updated, and SUCCESS_NO_INFO counts as one row.
+     */
+    @org.junit.Test public void testCountsAreReportedByTheDB() throws SQLException {
+        FakeJdbc.setUpdateCountHandler(query -> query.startsWith("UPDATE " + TBL_SECONDAT) ? 0 : PreparedStatement.SUCCESS_NO_INFO);
+        writer.assignSSEsToFoldingGraph(Arrays.asList(sse10, sse20), "A", 9L, "albe", 0, "A");
+        writer.assignSSEsToFoldingGraph(Arrays.asList(sse10), "A", 10L, "albe", 1, "B");
+        writer.assignSSEsToFoldingGraph(Arrays.asList(sse20), "A", 11L, "alpha_beta_invalid", 0, "A");    // no secondat columns for this graph type
+
+        ProteinEntryDBWriter.WrittenRows written = writer.flush();
+        assertEquals(2, written.getNumFoldingGraphAssignments(9L));
+        assertEquals(0, written.getNumSecondatUpdates(9L));
+        assertEquals(1, written.getNumFoldingGraphAssignments(10L));
+        assertEquals(1, written.getNumFoldingGraphAssignments(11L));
+        assertEquals(0, written.getNumSecondatUpdates(11L));
+        assertEquals(0, written.getNumProteinGraphAssignments());
+        assertEquals(4, written.getTotal());
+    }
+
+
+    /**
+     * Tests whether the protein graphs get reserved IDs right away, and whether their rows are inserted in one batch before a record of
+     * writeBehind() is written, or by flush() before the SSE assignments which refer to them.
+     */
+    @org.junit.Test public void testProteinGraphsAreBatched() throws SQLException {
+        writer.reserveProteinGraphIDs(2);
+        assertEquals(501L, (long) writer.writeProteinGraph("A", 1, "gml", null, null, null, null, null, "HE", false));
+        assertEquals(502L, (long) writer.writeProteinGraph("A", 2, "gml", null, null, null, null, null, "EE", true));
+        assertEquals(503L, (long) writer.writeProteinGraph("A", 3, "gml", null, null, null, null, null, "HEE", false));   // reserves more IDs
+        assertEquals(502L, (long) writer.getProteinGraphID("A", "beta"));
+        assertEquals(2, queries.stream().filter(q -> q.startsWith("SELECT nextval")).count());
+        assertTrue("Graphs were inserted before they were needed.", getBatches("").isEmpty());
+
+        writer.writeBehind("image path", () -> {
+            try (PreparedStatement statement = con.prepareStatement("UPDATE " + TBL_PROTEIN_GRAPH + " SET graph_image_png = 'a.png' WHERE graph_id = 501;")) {
+                statement.executeUpdate();
+            }
+        });
+        List<String> log = FakeJdbc.getLog();
+        assertEquals(2, log.size());
+        assertTrue(log.get(0).startsWith("con1 BATCH 3 INSERT INTO " + TBL_PROTEIN_GRAPH + " (graph_id, "));
+        assertTrue(log.get(1).startsWith("con1 UPDATE UPDATE " + TBL_PROTEIN_GRAPH));
+
+        assertEquals(0, writer.insertProteinGraphs());
+        assertEquals(504L, (long) writer.writeProteinGraph("A", 4, null, null, null, null, null, null, "L", false));
+        writer.assignSSEsToProteinGraph(Arrays.asList(sse10), "A", 504L);
+        FakeJdbc.clearLog();
+        ProteinEntryDBWriter.WrittenRows written = writer.flush();
+        assertEquals(1, written.getNumProteinGraphs());
+        assertEquals(2, written.getTotal());
+        List<String> batches = getBatches("");
+        assertEquals(2, batches.size());
+        assertTrue(batches.get(0).startsWith("con1 BATCH 1 INSERT INTO " + TBL_PROTEIN_GRAPH + " "));
+        assertTrue(batches.get(1).startsWith("con1 BATCH 1 INSERT INTO " + TBL_SSE_TO_PROTEIN_GRAPH));
+    }
+
+
+    /**
+     * Tests whether SSEs of an unknown chain are not assigned.
+     */
+    @org.junit.Test public void testUnknownChain() throws SQLException {
+        assertEquals(-1L, (long) writer.getChainID("X"));
+        assertEquals(0, writer.assignSSEsToProteinGraph(Arrays.asList(sse10), "X", 55L));
+        assertEquals(0, writer.flush().getTotal());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of the PTGLtools software package.
+ *
+ * PTGLtools is free software, see the LICENSE and README files for details.
+ */
+
+package alltests;
+
+import io.FileParser;
+import io.StructureParser;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.TestCase;
+import proteinstructure.Atom;
+import proteinstructure.Chain;
+import proteinstructure.Molecule;
+
+/**
+ * Unit test class for StructureParser: several parsers must not share their parse state, neither with each other nor with the static FileParser API.
+ */
+public class StructureParserTest extends TestCase {
+
+    /** The rest of a DSSP residue line after the residue name, up to the chain ID column (taken from 1TRZ). */
+    private static final String DSSP_LINE_REST = "  H  >  +     0   0    1     47,-0.4     4,-3.7     1,-0.2     5,-0.4   0.797 360.0  58.5 -60.9 -34.0    0.9   17.1  -10.3             ";
+
+    private File cifFileA, dsspFileA, cifFileB, dsspFileB;
+
+    /**
+     * Writes two small structures: chain A with 4 residues and chain B with 2 residues, backbone atoms only.
+     */
+    @Override @org.junit.Before public void setUp() throws IOException {
+        cifFileA = File.createTempFile("structureParserTestA", ".cif");
+        dsspFileA = File.createTempFile("structureParserTestA", ".dssp");
+        cifFileB = File.createTempFile("structureParserTestB", ".cif");
+        dsspFileB = File.createTempFile("structureParserTestB", ".dssp");
+        writeStructure(cifFileA, dsspFileA, "A", new String[] { "GLY", "ILE", "VAL", "GLU" }, "GIVE", 0.0);
+        writeStructure(cifFileB, dsspFileB, "B", new String[] { "ALA", "GLY" }, "AG", 20.0);
+    }
+
+
+    @Override @org.junit.After public void tearDown() {
+        for (File f : new File[] { cifFileA, dsspFileA, cifFileB, dsspFileB }) {
+            f.delete();
+        }
+    }
+
+
+    /**
+     * Writes a chain of residues with the backbone atoms N, CA, C and O as an mmCIF file and the matching DSSP file.
+     * @param cifFile the mmCIF file to write
+     * @param dsspFile the DSSP file to write
+     * @param chain the chain ID
+     * @param resNames the 3 letter names of the residues
+     * @param aa1 the 1 letter names of the residues
+     * @param offset added to the X coordinates of all atoms
+     */
+    private static void writeStructure(File cifFile, File dsspFile, String chain, String[] resNames, String aa1, double offset) throws IOException {
+        String[] atomNames = { "N", "CA", "C", "O" };
+        try (PrintWriter cif = new PrintWriter(cifFile); PrintWriter dssp = new PrintWriter(dsspFile)) {
+            cif.println("data_1TST");
+            cif.println("_entity.id 1");
+            cif.println("_entity.type polymer");
+            cif.println("_entity_poly.entity_id 1");
+            cif.println("_entity_poly.type polypeptide(L)");
+            cif.println("_entity_poly.pdbx_strand_id " + chain);
+            cif.println("loop_");
+            cif.println("_chem_comp.id");
+            cif.println("_chem_comp.type");
+            for (String name : new String[] { "ALA", "GLU", "GLY", "ILE", "VAL" }) {
+                cif.println(name + " 'L-peptide linking'");
+            }
+            cif.println("loop_");
+            for (String col : new String[] { "group_PDB", "id", "type_symbol", "label_atom_id", "label_alt_id", "label_comp_id", "label_asym_id", "label_entity_id",
+                    "label_seq_id", "pdbx_PDB_ins_code", "Cartn_x", "Cartn_y", "Cartn_z", "occupancy", "B_iso_or_equiv", "auth_seq_id", "auth_asym_id", "pdbx_PDB_model_num" }) {
+                cif.println("_atom_site." + col);
+            }
+
+            dssp.println("  #  RESIDUE AA STRUCTURE BP1 BP2  ACC     N-H-->O    O-->H-N    N-H-->O    O-->H-N    TCO  KAPPA ALPHA  PHI   PSI    X-CA   Y-CA   Z-CA ");
+            int atomID = 1;
+            for (int r = 0; r < resNames.length; r++) {
+                for (int a = 0; a < atomNames.length; a++) {
+                    cif.printf(Locale.US, "ATOM %d %s %s . %s %s 1 %d ? %.3f %.3f %.3f 1.00 20.00 %d %s 1\n", atomID++, atomNames[a].substring(0, 1),
+                            atomNames[a], resNames[r], chain, r + 1, offset + 3.8 * r + 0.5 * a, 1.2 * a, -0.7 * a, r + 1, chain);
+                }
+                dssp.println(String.format("%5d%5d %s %s", r + 1, r + 1, chain, aa1.charAt(r)) + DSSP_LINE_REST + chain + "   ");
+            }
+            cif.println("#");
+        }
+    }
+
+
+    /**
+     * Parses a structure with a new parser.
+     * @param cifFile the mmCIF file
+     * @param dsspFile the DSSP file
+     * @return the parser
+     */
+    private static StructureParser parse(File cifFile, File dsspFile) {
+        StructureParser parser = new StructureParser();
+        parser.parse(cifFile.getPath(), dsspFile.getPath());
+        return parser;
+    }
+
+
+    /**
+     * Returns the chain IDs, residue names and coordinates of all atoms parsed by a parser.
+     * @param parser the parser
+     * @return one line per atom
+     */
+    private static List<String> describeAtoms(StructureParser parser) {
+        List<String> desc = new ArrayList<>();
+        for (Molecule m : parser.getMolecules()) {
+            for (Atom a : m.getAtoms()) {
+                desc.add(m.getChainID() + " " + m.getName3() + " " + a.getAtomName() + " " + a.getCoordX() + " " + a.getCoordY() + " " + a.getCoordZ());
+            }
+        }
+        return desc;
+    }
+
+
+    // ************ test cases ***************
+
+    /**
+     * Tests whether the results of a parser stay unchanged when another parser parses a different structure, and whether the static API is not affected.
+     */
+    @org.junit.Test public void testParsersDoNotShareState() {
+        ArrayList<Atom> staticAtomsBefore = FileParser.getAtoms();
+
+        StructureParser parserA = parse(cifFileA, dsspFileA);
+        List<String> atomsA = describeAtoms(parserA);
+        assertEquals(4, parserA.getMolecules().size());
+        assertEquals(16, parserA.getAtoms().size());
+        assertEquals(16, atomsA.size());
+
+        StructureParser parserB = parse(cifFileB, dsspFileB);
+        assertEquals(2, parserB.getMolecules().size());
+        assertEquals(8, parserB.getAtoms().size());
+        assertEquals(1, parserB.getChains().size());
+        assertEquals("B", parserB.getChains().get(0).getPdbChainID());
+        for (Molecule m : parserB.getMolecules()) {
+            assertEquals("B", m.getChainID());
+        }
+
+        // parsing B did not touch the results of A
+        assertNotSame(parserA.getMolecules(), parserB.getMolecules());
+        assertEquals(atomsA, describeAtoms(parserA));
+        assertEquals(1, parserA.getChains().size());
+        Chain chainA = parserA.getChains().get(0);
+        assertEquals("A", chainA.getPdbChainID());
+        assertEquals(4, chainA.getAllAAResidues().size());
+
+        // the static API still works on its own context
+        assertSame(staticAtomsBefore, FileParser.getAtoms());
+    }
+
+
+    /**
+     * Tests whether parsers which parse different structures at the same time in different threads get the same results as when parsing one after another.
+     */
+    @org.junit.Test public void testConcurrentParsers() throws Exception {
+        List<String> expectedA = describeAtoms(parse(cifFileA, dsspFileA));
+        List<String> expectedB = describeAtoms(parse(cifFileB, dsspFileB));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> resultsA = new ArrayList<>();
+            List<Future<List<String>>> resultsB = new ArrayList<>();
+            Callable<List<String>> parseA = () -> describeAtoms(parse(cifFileA, dsspFileA));
+            Callable<List<String>> parseB = () -> describeAtoms(parse(cifFileB, dsspFileB));
+            for (int i = 0; i < 20; i++) {
+                resultsA.add(pool.submit(parseA));
+                resultsB.add(pool.submit(parseB));
+            }
+            for (int i = 0; i < resultsA.size(); i++) {
+                assertEquals(expectedA, resultsA.get(i).get());
+                assertEquals(expectedB, resultsB.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}